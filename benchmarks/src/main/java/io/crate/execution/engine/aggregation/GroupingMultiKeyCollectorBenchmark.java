@@ -0,0 +1,176 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import static io.crate.data.SentinelRow.SENTINEL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.settings.Settings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import io.crate.data.InMemoryBatchIterator;
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.RowCollectExpression;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.MemoryManager;
+import io.crate.memory.OnHeapMemoryManager;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.functions.Signature;
+import io.crate.metadata.settings.session.SessionSettingRegistry;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Compares grouping by {@code (tenant_id, day, status)} using the generic {@link GroupingCollector#manyKeys}
+ * with the {@link PackedKeysGroupingCollector}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Measurement(iterations = 5)
+@Fork(value = 2)
+@Warmup(iterations = 2)
+public class GroupingMultiKeyCollectorBenchmark {
+
+    private static final List<DataType<?>> KEY_TYPES = List.of(DataTypes.INTEGER, DataTypes.TIMESTAMPZ, DataTypes.STRING);
+    private static final String[] STATUS = new String[] { "ok", "failed", "pending", "cancelled" };
+
+    private GroupingCollector<?> listKeysCollector;
+    private PackedKeysGroupingCollector packedKeysCollector;
+    private List<Row> rows;
+
+    @Setup
+    public void createGroupingCollectors() throws Exception {
+        Functions functions = Functions.load(Settings.EMPTY, new SessionSettingRegistry(Set.of()));
+        SumAggregation<?> sumAgg = (SumAggregation<?>) functions.getQualified(
+                Signature.builder(SumAggregation.NAME, FunctionType.AGGREGATE)
+                        .argumentTypes(DataTypes.INTEGER.getTypeSignature())
+                        .returnType(DataTypes.LONG.getTypeSignature())
+                        .features(Scalar.Feature.DETERMINISTIC)
+                        .build(),
+                List.of(DataTypes.INTEGER),
+                DataTypes.INTEGER
+        );
+        var memoryManager = new OnHeapMemoryManager(bytes -> {
+        });
+        listKeysCollector = createListKeysCollector(sumAgg, memoryManager);
+        packedKeysCollector = createPackedKeysCollector(sumAgg, memoryManager);
+
+        int size = 10_000_000;
+        long day = 86_400_000L;
+        rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int tenantId = i % 500;
+            long timestamp = (i % 30) * day;
+            String status = STATUS[i % STATUS.length];
+            rows.add(new RowN(tenantId, timestamp, status, i % 1000));
+        }
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static GroupingCollector<?> createListKeysCollector(AggregationFunction<?, ?> sumAgg,
+                                                                MemoryManager memoryManager) {
+        RowCollectExpression[] keyExpressions = keyExpressions();
+        RowCollectExpression valueInput = new RowCollectExpression(3);
+        return GroupingCollector.manyKeys(
+            collectExpressions(keyExpressions, valueInput),
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { valueInput }},
+            new Input[] { Literal.BOOLEAN_TRUE },
+            RamAccounting.NO_ACCOUNTING,
+            memoryManager,
+            Version.CURRENT,
+            List.<Input<?>>of(keyExpressions),
+            KEY_TYPES,
+            null
+        );
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static PackedKeysGroupingCollector createPackedKeysCollector(AggregationFunction<?, ?> sumAgg,
+                                                                        MemoryManager memoryManager) {
+        RowCollectExpression[] keyExpressions = keyExpressions();
+        RowCollectExpression valueInput = new RowCollectExpression(3);
+        return new PackedKeysGroupingCollector(
+            collectExpressions(keyExpressions, valueInput),
+            AggregateMode.ITER_FINAL,
+            new AggregationFunction[] { sumAgg },
+            new Input[][] { new Input[] { valueInput }},
+            new Input[] { Literal.BOOLEAN_TRUE },
+            RamAccounting.NO_ACCOUNTING,
+            memoryManager,
+            Version.CURRENT,
+            List.<Input<?>>of(keyExpressions),
+            KEY_TYPES
+        );
+    }
+
+    private static RowCollectExpression[] keyExpressions() {
+        return new RowCollectExpression[] {
+            new RowCollectExpression(0),
+            new RowCollectExpression(1),
+            new RowCollectExpression(2)
+        };
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static CollectExpression[] collectExpressions(RowCollectExpression[] keyExpressions,
+                                                          RowCollectExpression valueInput) {
+        return new CollectExpression[] { keyExpressions[0], keyExpressions[1], keyExpressions[2], valueInput };
+    }
+
+    @Benchmark
+    public void measureGroupBySumWithListKeys(Blackhole blackhole) throws Exception {
+        var rowsIterator = InMemoryBatchIterator.of(rows, SENTINEL, true);
+        blackhole.consume(rowsIterator.collect(listKeysCollector).get());
+    }
+
+    @Benchmark
+    public void measureGroupBySumWithPackedKeys(Blackhole blackhole) throws Exception {
+        var rowsIterator = InMemoryBatchIterator.of(rows, SENTINEL, true);
+        blackhole.consume(rowsIterator.collect(packedKeysCollector).get());
+    }
+}
@@ -31,6 +31,7 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
 import java.io.IOException;
+import java.util.function.Consumer;
 import java.util.function.IntFunction;
 
 /**
@@ -173,6 +174,13 @@ public final class HyperLogLogPlusPlus {
         return p;
     }
 
+    /**
+     * Hands the buffer back to the allocator. The instance must not be used afterwards.
+     */
+    public void release(Consumer<ByteBuf> releaseByteBuf) {
+        releaseByteBuf.accept(runLens);
+    }
+
     public void merge(HyperLogLogPlusPlus other) {
         if (p != other.p) {
             throw new IllegalArgumentException();
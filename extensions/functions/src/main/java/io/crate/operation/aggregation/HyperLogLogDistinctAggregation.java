@@ -170,6 +170,13 @@ public class HyperLogLogDistinctAggregation extends AggregationFunction<HyperLog
         return state.isInitialized() ? state.value() : 0L;
     }
 
+    @Override
+    public void releaseState(MemoryManager memoryManager, HllState state) {
+        if (state.isInitialized()) {
+            state.hyperLogLogPlusPlus.release(memoryManager::release);
+        }
+    }
+
 
 
     @Nullable
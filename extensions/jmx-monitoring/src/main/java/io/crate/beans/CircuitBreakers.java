@@ -70,4 +70,9 @@ public class CircuitBreakers implements CircuitBreakersMXBean {
     public CircuitBreakerStats getOperationsLog() {
         return circuitBreakerService.stats(CircuitBreaker.OPERATIONS_LOG);
     }
+
+    @Override
+    public CircuitBreakerStats getOffHeap() {
+        return circuitBreakerService.stats(CircuitBreaker.OFF_HEAP);
+    }
 }
@@ -39,4 +39,6 @@ public interface CircuitBreakersMXBean {
     CircuitBreakerStats getJobsLog();
 
     CircuitBreakerStats getOperationsLog();
+
+    CircuitBreakerStats getOffHeap();
 }
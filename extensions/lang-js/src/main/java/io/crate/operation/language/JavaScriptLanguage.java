@@ -22,13 +22,16 @@
 package io.crate.operation.language;
 
 import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 
 import io.crate.expression.udf.UserDefinedFunctionService;
 
 public class JavaScriptLanguage {
 
     @Inject
-    public JavaScriptLanguage(UserDefinedFunctionService udfService) {
-        udfService.registerLanguage(new PolyglotLanguage("javascript", "js"));
+    public JavaScriptLanguage(Settings settings, UserDefinedFunctionService udfService) {
+        int maxIdleContexts = EsExecutors.numberOfProcessors(settings);
+        udfService.registerLanguage(new PolyglotLanguage("javascript", "js", maxIdleContexts));
     }
 }
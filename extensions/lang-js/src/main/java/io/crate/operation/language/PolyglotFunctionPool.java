@@ -0,0 +1,138 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.language;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+
+import io.crate.data.Input;
+import io.crate.types.DataType;
+
+/**
+ * Pool of polyglot contexts which evaluated the script of a user defined function.
+ *
+ * <p>
+ * A {@link Context} must not be accessed by multiple threads concurrently. A context is confined to a single thread
+ * between {@link #borrow()} and {@link #release(Value)}, afterwards it is reused by the next call. This avoids
+ * creating a context and evaluating the script per call, and keeps the contexts warm.
+ * </p>
+ *
+ * <p>
+ * Up to {@code maxIdle} contexts are kept. Contexts exceeding this limit, or returned after the pool was closed,
+ * are closed right away.
+ * </p>
+ */
+final class PolyglotFunctionPool implements AutoCloseable {
+
+    private final String graalLanguageId;
+    private final String functionName;
+    private final String script;
+    private final int maxIdle;
+    private final ConcurrentLinkedDeque<Value> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger numIdle = new AtomicInteger(0);
+
+    private volatile boolean closed = false;
+
+    PolyglotFunctionPool(String graalLanguageId, String functionName, String script, int maxIdle) {
+        this.graalLanguageId = graalLanguageId;
+        this.functionName = functionName;
+        this.script = script;
+        this.maxIdle = maxIdle;
+    }
+
+    String graalLanguageId() {
+        return graalLanguageId;
+    }
+
+    /**
+     * Calls the function with the given arguments using a context exclusively owned by the current thread
+     * for the duration of the call.
+     */
+    Object execute(Input<Object>[] args, DataType<?> returnType) throws IOException {
+        Value function = borrow();
+        boolean reusable = true;
+        try {
+            Value[] values = PolyglotValues.toPolyglotValues(args);
+            // The result is copied before the context is released
+            return PolyglotValues.toCrateObject(function.execute(values), returnType);
+        } catch (PolyglotException e) {
+            // Contexts which were cancelled or exited can't be used anymore
+            reusable = !(e.isCancelled() || e.isExit() || e.isInternalError());
+            throw e;
+        } finally {
+            if (reusable) {
+                release(function);
+            } else {
+                function.getContext().close();
+            }
+        }
+    }
+
+    Value borrow() throws IOException {
+        Value function = idle.pollFirst();
+        if (function != null) {
+            numIdle.decrementAndGet();
+            return function;
+        }
+        return PolyglotLanguage.getFunctionValue(graalLanguageId, functionName, script);
+    }
+
+    void release(Value function) {
+        if (closed) {
+            function.getContext().close();
+            return;
+        }
+        if (numIdle.incrementAndGet() > maxIdle) {
+            numIdle.decrementAndGet();
+            function.getContext().close();
+            return;
+        }
+        idle.offerFirst(function);
+        if (closed) {
+            // Raced with close()
+            closeIdle();
+        }
+    }
+
+    int numIdle() {
+        return numIdle.get();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        closeIdle();
+    }
+
+    private void closeIdle() {
+        Value function;
+        while ((function = idle.pollFirst()) != null) {
+            numIdle.decrementAndGet();
+            function.getContext().close();
+        }
+    }
+}
@@ -35,6 +35,9 @@ import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.jspecify.annotations.Nullable;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import io.crate.expression.udf.UDFLanguage;
 import io.crate.expression.udf.UserDefinedFunctionMetadata;
 import io.crate.metadata.Scalar;
@@ -55,29 +58,59 @@ public final class PolyglotLanguage implements UDFLanguage {
         .allowMapAccess(true)
         .build();
 
+    /**
+     * Number of scripts (function versions) for which contexts are pooled
+     */
+    private static final int MAX_POOLS = 100;
+
     private final String verboseLanguage;
     private final String graalLanguageId;
+    private final int maxIdleContexts;
+    private final Cache<PoolKey, PolyglotFunctionPool> pools;
+
+    private record PoolKey(String functionName, String script) {
+    }
 
     /**
      * @param verboseLanguage language name used when creating a UDF via CREATE FUNCTION (e.g "javascript")
      * @param graalLanguageId language id used in the graal polyglot API (e.g. "js")
+     * @param maxIdleContexts number of contexts kept per function for reuse, at most one per thread is in use
      */
-    public PolyglotLanguage(String verboseLanguage, String graalLanguageId) {
+    public PolyglotLanguage(String verboseLanguage, String graalLanguageId, int maxIdleContexts) {
         this.verboseLanguage = verboseLanguage;
         this.graalLanguageId = graalLanguageId;
+        this.maxIdleContexts = maxIdleContexts;
+        this.pools = Caffeine.newBuilder()
+            .maximumSize(MAX_POOLS)
+            .executor(Runnable::run)
+            .<PoolKey, PolyglotFunctionPool>removalListener((key, pool, cause) -> {
+                if (pool != null) {
+                    pool.close();
+                }
+            })
+            .build();
     }
 
+    /**
+     * Implementations are re-created on every metadata change,
+     * the contexts are shared via the pool of the function definition.
+     */
     @Override
     public Scalar<?, ?> createFunctionImplementation(UserDefinedFunctionMetadata metadata,
                                                      Signature signature,
                                                      BoundSignature boundSignature) throws ScriptException {
-        return new PolyglotScalar(signature, boundSignature, graalLanguageId, metadata.definition());
+        String functionName = signature.getName().name();
+        PolyglotFunctionPool pool = pools.get(
+            new PoolKey(functionName, metadata.definition()),
+            key -> new PolyglotFunctionPool(graalLanguageId, key.functionName(), key.script(), maxIdleContexts)
+        );
+        return new PolyglotScalar(signature, boundSignature, pool);
     }
 
     @Nullable
     public String validate(UserDefinedFunctionMetadata meta) {
         try {
-            getFunctionValue(graalLanguageId, meta.name(), meta.definition());
+            getFunctionValue(graalLanguageId, meta.name(), meta.definition()).getContext().close();
             return null;
         } catch (IllegalArgumentException | IOException | PolyglotException t) {
             return String.format(Locale.ENGLISH, "Invalid %s in function '%s.%s(%s)' AS '%s': %s",
@@ -103,14 +136,19 @@ public final class PolyglotLanguage implements UDFLanguage {
             .engine(ENGINE)
             .allowHostAccess(HOST_ACCESS)
             .build();
-        var source = Source.newBuilder(graalLanguageId, script, functionName).build();
-        context.eval(source);
-        var polyglotFunctionValue = context.getBindings(graalLanguageId).getMember(functionName);
-        if (polyglotFunctionValue == null) {
-            throw new IllegalArgumentException(
-                "The name of the function signature '" + functionName + "' doesn't match " +
-                "the function name in the function definition.");
+        try {
+            var source = Source.newBuilder(graalLanguageId, script, functionName).build();
+            context.eval(source);
+            var polyglotFunctionValue = context.getBindings(graalLanguageId).getMember(functionName);
+            if (polyglotFunctionValue == null) {
+                throw new IllegalArgumentException(
+                    "The name of the function signature '" + functionName + "' doesn't match " +
+                    "the function name in the function definition.");
+            }
+            return polyglotFunctionValue;
+        } catch (IOException | RuntimeException e) {
+            context.close();
+            throw e;
         }
-        return polyglotFunctionValue;
     }
 }
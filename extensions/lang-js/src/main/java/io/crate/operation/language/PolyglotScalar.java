@@ -26,7 +26,6 @@ import java.io.IOException;
 import java.util.List;
 
 import org.graalvm.polyglot.PolyglotException;
-import org.graalvm.polyglot.Value;
 
 import io.crate.data.Input;
 import io.crate.expression.symbol.Symbol;
@@ -39,84 +38,42 @@ import io.crate.role.Roles;
 
 public final class PolyglotScalar extends Scalar<Object, Object> {
 
-    private final String script;
-    private final String graalLanguageId;
+    private final PolyglotFunctionPool pool;
 
     PolyglotScalar(Signature signature,
                    BoundSignature boundSignature,
-                   String graalLanguageId,
-                   String script) {
+                   PolyglotFunctionPool pool) {
         super(signature, boundSignature);
-        this.graalLanguageId = graalLanguageId;
-        this.script = script;
+        this.pool = pool;
     }
 
     @Override
     public Scalar<Object, Object> compile(List<Symbol> arguments, String currentUser, Roles roles) {
         try {
-            String functionName = signature.getName().name();
-            return new CompiledFunction(
-                graalLanguageId,
-                signature,
-                boundSignature,
-                PolyglotLanguage.getFunctionValue(graalLanguageId, functionName, script));
+            // Evaluates the script upfront and keeps the context for the first evaluation
+            pool.release(pool.borrow());
         } catch (PolyglotException | IOException e) {
             // this should not happen if the script was validated upfront
             throw new io.crate.exceptions.ScriptException(
                 "compile error",
                 e,
-                graalLanguageId
+                pool.graalLanguageId()
             );
         }
+        return this;
     }
 
     @Override
     @SafeVarargs
     public final Object evaluate(TransactionContext txnCtx, NodeContext nodeCtx, Input<Object> ... args) {
         try {
-            String functionName = signature.getName().name();
-            var function = PolyglotLanguage.getFunctionValue(graalLanguageId, functionName, script);
-            Object[] values = PolyglotValues.toPolyglotValues(args);
-            return PolyglotValues.toCrateObject(
-                function.execute(values),
-                boundSignature.returnType()
-            );
+            return pool.execute(args, boundSignature.returnType());
         } catch (PolyglotException | IOException e) {
             throw new io.crate.exceptions.ScriptException(
                 e.getLocalizedMessage(),
                 e,
-                graalLanguageId
+                pool.graalLanguageId()
             );
         }
     }
-
-    private static class CompiledFunction extends Scalar<Object, Object> {
-
-        private final String language;
-        private final Value function;
-
-        private CompiledFunction(String language,
-                                 Signature signature,
-                                 BoundSignature boundSignature,
-                                 Value function) {
-            super(signature, boundSignature);
-            this.language = language;
-            this.function = function;
-        }
-
-        @Override
-        @SafeVarargs
-        public final Object evaluate(TransactionContext txnCtx, NodeContext nodeCtx, Input<Object> ... args) {
-            Object[] values = PolyglotValues.toPolyglotValues(args);
-            try {
-                return PolyglotValues.toCrateObject(function.execute(values), boundSignature.returnType());
-            } catch (PolyglotException e) {
-                throw new io.crate.exceptions.ScriptException(
-                    e.getLocalizedMessage(),
-                    e,
-                    language
-                );
-            }
-        }
-    }
 }
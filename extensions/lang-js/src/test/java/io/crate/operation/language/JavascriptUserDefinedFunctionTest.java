@@ -34,6 +34,7 @@ import java.util.stream.Collectors;
 
 import javax.script.ScriptException;
 
+import org.elasticsearch.common.settings.Settings;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -63,7 +64,7 @@ public class JavascriptUserDefinedFunctionTest extends ScalarTestCase {
     public void setUp() throws Exception {
         super.setUp();
         udfService = new UserDefinedFunctionService(clusterService, sqlExpressions.nodeCtx);
-        new JavaScriptLanguage(udfService);
+        new JavaScriptLanguage(Settings.EMPTY, udfService);
     }
 
     private void registerUserDefinedFunction(String name,
@@ -0,0 +1,121 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.operation.language;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.elasticsearch.test.ESTestCase;
+import org.graalvm.polyglot.Value;
+import org.junit.Test;
+
+import io.crate.data.Input;
+import io.crate.expression.symbol.Literal;
+import io.crate.types.DataTypes;
+
+public class PolyglotFunctionPoolTest extends ESTestCase {
+
+    private static final String SCRIPT = "function add(a, b) { return a + b; }";
+
+    @SuppressWarnings("unchecked")
+    private static Input<Object>[] args(Object... values) {
+        Input<Object>[] inputs = new Input[values.length];
+        for (int i = 0; i < values.length; i++) {
+            inputs[i] = (Input<Object>) (Input<?>) Literal.of(DataTypes.INTEGER, (Integer) values[i]);
+        }
+        return inputs;
+    }
+
+    @Test
+    public void test_context_is_reused_across_calls() throws Exception {
+        try (var pool = new PolyglotFunctionPool("js", "add", SCRIPT, 2)) {
+            assertThat(pool.execute(args(1, 2), DataTypes.INTEGER)).isEqualTo(3);
+            assertThat(pool.numIdle()).isEqualTo(1);
+            Value function = pool.borrow();
+            assertThat(pool.numIdle()).isEqualTo(0);
+            pool.release(function);
+            assertThat(pool.borrow()).isSameAs(function);
+        }
+    }
+
+    @Test
+    public void test_keeps_at_most_max_idle_contexts() throws Exception {
+        try (var pool = new PolyglotFunctionPool("js", "add", SCRIPT, 2)) {
+            List<Value> functions = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                functions.add(pool.borrow());
+            }
+            functions.forEach(pool::release);
+            assertThat(pool.numIdle()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void test_close_closes_idle_contexts() throws Exception {
+        var pool = new PolyglotFunctionPool("js", "add", SCRIPT, 2);
+        Value idle = pool.borrow();
+        Value inUse = pool.borrow();
+        pool.release(idle);
+        pool.close();
+        assertThat(pool.numIdle()).isEqualTo(0);
+
+        // Contexts in use while the pool is closed are closed on release
+        pool.release(inUse);
+        assertThat(pool.numIdle()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_concurrent_calls_use_separate_contexts() throws Exception {
+        try (var pool = new PolyglotFunctionPool("js", "add", SCRIPT, 4)) {
+            int numThreads = 4;
+            CountDownLatch latch = new CountDownLatch(numThreads);
+            List<Thread> threads = new ArrayList<>();
+            List<Throwable> failures = new ArrayList<>();
+            for (int t = 0; t < numThreads; t++) {
+                int offset = t;
+                Thread thread = new Thread(() -> {
+                    try {
+                        latch.countDown();
+                        latch.await();
+                        for (int i = 0; i < 100; i++) {
+                            assertThat(pool.execute(args(i, offset), DataTypes.INTEGER)).isEqualTo(i + offset);
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                });
+                threads.add(thread);
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertThat(failures).isEmpty();
+            assertThat(pool.numIdle()).isBetween(1, numThreads);
+        }
+    }
+}
@@ -75,6 +75,11 @@ statement
     | RESTORE SNAPSHOT qname
         (ALL | METADATA | TABLE tableWithPartitions | metatypes=idents)
         withProperties?                                                              #restore
+    | COPY qname
+        (OPEN_ROUND_BRACKET ident (COMMA ident)* CLOSE_ROUND_BRACKET)?
+        FROM STDIN withProperties?                                                   #copyFromStdin
+    | COPY (qname columns? where? | OPEN_ROUND_BRACKET query CLOSE_ROUND_BRACKET)
+        TO STDOUT withProperties?                                                    #copyToStdout
     | COPY tableWithPartition
         (OPEN_ROUND_BRACKET ident (COMMA ident)* CLOSE_ROUND_BRACKET)?
         FROM path=expr withProperties? (RETURN SUMMARY)?                             #copyFrom
@@ -1045,6 +1050,8 @@ nonReserved
     | SHOW
     | SNAPSHOT
     | START
+    | STDIN
+    | STDOUT
     | STORAGE
     | STRICT
     | STRING_TYPE
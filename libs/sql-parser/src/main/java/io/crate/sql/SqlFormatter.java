@@ -62,6 +62,8 @@ import io.crate.sql.tree.ColumnDefinition;
 import io.crate.sql.tree.ColumnStorageDefinition;
 import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateForeignTable;
 import io.crate.sql.tree.CreateFunction;
 import io.crate.sql.tree.CreatePublication;
@@ -370,6 +372,41 @@ public final class SqlFormatter {
             return null;
         }
 
+        @Override
+        public Void visitCopyFromStdin(CopyFromStdin node, Integer indent) {
+            append(indent, "COPY ");
+            node.table().accept(this, indent);
+            var columns = node.columns().iterator();
+            if (columns.hasNext()) {
+                builder.append('(');
+                while (columns.hasNext()) {
+                    builder.append(columns.next());
+                    if (columns.hasNext()) {
+                        builder.append(", ");
+                    }
+                }
+                builder.append(')');
+            }
+            append(indent, " FROM STDIN");
+            if (!node.properties().isEmpty()) {
+                append(indent, " ");
+                node.properties().accept(this, indent);
+            }
+            return null;
+        }
+
+        @Override
+        public Void visitCopyToStdout(CopyToStdout node, Integer indent) {
+            append(indent, "COPY (");
+            node.query().accept(this, indent);
+            append(indent, ") TO STDOUT");
+            if (!node.properties().isEmpty()) {
+                append(indent, " ");
+                node.properties().accept(this, indent);
+            }
+            return null;
+        }
+
         @Override
         public Void visitRefreshStatement(RefreshStatement<?> node, Integer indent) {
             append(indent, "REFRESH TABLE ");
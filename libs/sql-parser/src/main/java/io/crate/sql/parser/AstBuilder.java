@@ -121,7 +121,9 @@ import io.crate.sql.tree.ColumnType;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.ComparisonExpression;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateForeignTable;
@@ -817,6 +819,44 @@ class AstBuilder extends SqlBaseParserBaseVisitor<Node> {
             returnSummary);
     }
 
+    @Override
+    public Node visitCopyFromStdin(SqlBaseParser.CopyFromStdinContext context) {
+        return new CopyFromStdin(
+            new Table<>(getQualifiedName(context.qname())),
+            identsToStrings(context.ident()),
+            extractGenericProperties(context.withProperties()));
+    }
+
+    @Override
+    public Node visitCopyToStdout(SqlBaseParser.CopyToStdoutContext context) {
+        Query query;
+        if (context.query() != null) {
+            query = (Query) visit(context.query());
+        } else {
+            Select select = context.columns() == null
+                ? new Select(false, List.of(new AllColumns()))
+                : new Select(false, Lists.map(
+                    visitCollection(context.columns().primaryExpression(), Expression.class),
+                    SingleColumn::new));
+            query = new Query(
+                Optional.empty(),
+                new QuerySpecification(
+                    select,
+                    List.of(new Table<>(getQualifiedName(context.qname()))),
+                    visitIfPresent(context.where(), Expression.class),
+                    Optional.empty(),
+                    Optional.empty(),
+                    Map.of(),
+                    List.of(),
+                    Optional.empty(),
+                    Optional.empty()),
+                List.of(),
+                Optional.empty(),
+                Optional.empty());
+        }
+        return new CopyToStdout(query, extractGenericProperties(context.withProperties()));
+    }
+
     @SuppressWarnings({"unchecked", "rawtypes"})
     @Override
     public Node visitCopyTo(SqlBaseParser.CopyToContext context) {
@@ -0,0 +1,91 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.sql.tree;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * {@code COPY table [(column, ...)] FROM STDIN [WITH (...)]}
+ * <p>
+ * The rows are sent by the client using the COPY sub-protocol of the PostgreSQL wire protocol.
+ * </p>
+ */
+public final class CopyFromStdin extends Statement {
+
+    private final Table<Expression> table;
+    private final List<String> columns;
+    private final GenericProperties<Expression> properties;
+
+    public CopyFromStdin(Table<Expression> table,
+                         List<String> columns,
+                         GenericProperties<Expression> properties) {
+        this.table = table;
+        this.columns = columns;
+        this.properties = properties;
+    }
+
+    public Table<Expression> table() {
+        return table;
+    }
+
+    public List<String> columns() {
+        return columns;
+    }
+
+    public GenericProperties<Expression> properties() {
+        return properties;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CopyFromStdin that = (CopyFromStdin) o;
+        return table.equals(that.table) &&
+               columns.equals(that.columns) &&
+               properties.equals(that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(table, columns, properties);
+    }
+
+    @Override
+    public String toString() {
+        return "CopyFromStdin{" +
+               "table=" + table +
+               ", columns=" + columns +
+               ", properties=" + properties +
+               '}';
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitCopyFromStdin(this, context);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.sql.tree;
+
+import java.util.Objects;
+
+/**
+ * {@code COPY table [(column, ...)] [WHERE ...] TO STDOUT [WITH (...)]} or {@code COPY (query) TO STDOUT [WITH (...)]}
+ * <p>
+ * The table variant is represented as query selecting the columns from the table.
+ * The rows are sent to the client using the COPY sub-protocol of the PostgreSQL wire protocol.
+ * </p>
+ */
+public final class CopyToStdout extends Statement {
+
+    private final Query query;
+    private final GenericProperties<Expression> properties;
+
+    public CopyToStdout(Query query, GenericProperties<Expression> properties) {
+        this.query = query;
+        this.properties = properties;
+    }
+
+    public Query query() {
+        return query;
+    }
+
+    public GenericProperties<Expression> properties() {
+        return properties;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CopyToStdout that = (CopyToStdout) o;
+        return query.equals(that.query) &&
+               properties.equals(that.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, properties);
+    }
+
+    @Override
+    public String toString() {
+        return "CopyToStdout{" +
+               "query=" + query +
+               ", properties=" + properties +
+               '}';
+    }
+
+    @Override
+    public <R, C> R accept(AstVisitor<R, C> visitor, C context) {
+        return visitor.visitCopyToStdout(this, context);
+    }
+}
@@ -321,6 +321,18 @@ public abstract class DefaultTraversalVisitor<R, C> extends AstVisitor<R, C> {
         return null;
     }
 
+    @Override
+    public R visitCopyFromStdin(CopyFromStdin node, C context) {
+        node.table().accept(this, context);
+        return null;
+    }
+
+    @Override
+    public R visitCopyToStdout(CopyToStdout node, C context) {
+        node.query().accept(this, context);
+        return null;
+    }
+
     @Override
     public R visitAlterTable(AlterTable<?> node, C context) {
         node.table().accept(this, context);
@@ -52,7 +52,10 @@ import io.crate.sql.tree.Assignment;
 import io.crate.sql.tree.BeginStatement;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.ComparisonExpression;
+import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateRepository;
@@ -1384,6 +1387,24 @@ public class TestStatementBuilder {
         printStatement("copy foo partition (a=?) to DIRECTORY '/folder' with (some_param=4)");
 
         printStatement("copy foo where a = 'x' to DIRECTORY '/folder'");
+
+        printStatement("copy foo from stdin");
+        printStatement("copy schemah.foo (a, b) from stdin with (format='csv', header=true)");
+        printStatement("copy foo to stdout");
+        printStatement("copy foo (a, b) where a = 'x' to stdout with (format='csv')");
+        printStatement("copy (select a, b from foo order by a limit 10) to stdout");
+    }
+
+    @Test
+    public void test_copy_stdin_and_stdout_are_not_parsed_as_paths() {
+        CopyFromStdin copyFrom = (CopyFromStdin) SqlParser.createStatement("copy foo (a, b) from stdin");
+        assertThat(copyFrom.table().getName()).isEqualTo(QualifiedName.of("foo"));
+        assertThat(copyFrom.columns()).containsExactly("a", "b");
+
+        CopyToStdout copyTo = (CopyToStdout) SqlParser.createStatement("copy foo (a) where a > 1 to stdout");
+        assertThat(copyTo.query()).isEqualTo(SqlParser.createStatement("select a from foo where a > 1"));
+
+        assertThat(SqlParser.createStatement("copy foo from stdin_file")).isExactlyInstanceOf(CopyFrom.class);
     }
 
     @Test
@@ -70,7 +70,9 @@ import io.crate.sql.tree.BeginStatement;
 import io.crate.sql.tree.Close;
 import io.crate.sql.tree.CommitStatement;
 import io.crate.sql.tree.CopyFrom;
+import io.crate.sql.tree.CopyFromStdin;
 import io.crate.sql.tree.CopyTo;
+import io.crate.sql.tree.CopyToStdout;
 import io.crate.sql.tree.CreateAnalyzer;
 import io.crate.sql.tree.CreateBlobTable;
 import io.crate.sql.tree.CreateForeignTable;
@@ -404,6 +406,18 @@ public class Analyzer {
                 context.transactionContext());
         }
 
+        @Override
+        public AnalyzedStatement visitCopyFromStdin(CopyFromStdin node, Analysis context) {
+            throw new UnsupportedOperationException(
+                "COPY FROM STDIN is only supported using the simple query protocol of the PostgreSQL wire protocol");
+        }
+
+        @Override
+        public AnalyzedStatement visitCopyToStdout(CopyToStdout node, Analysis context) {
+            throw new UnsupportedOperationException(
+                "COPY TO STDOUT is only supported using the simple query protocol of the PostgreSQL wire protocol");
+        }
+
         @Override
         public AnalyzedStatement visitCreateAnalyzer(CreateAnalyzer<?> node, Analysis context) {
             return createAnalyzerStatementAnalyzer.analyze(
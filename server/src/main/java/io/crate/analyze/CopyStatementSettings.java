@@ -28,6 +28,8 @@ import java.util.List;
 import java.util.Locale;
 
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.unit.ByteSizeValue;
 
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
 
@@ -70,6 +72,16 @@ public final class CopyStatementSettings {
         Setting.Property.Dynamic
     );
 
+    /**
+     * Size of the byte ranges large uncompressed files are split into to read them in parallel.
+     * 0 reads each file as a whole.
+     */
+    public static final Setting<ByteSizeValue> SPLIT_SIZE_SETTING = Setting.byteSizeSetting(
+        "split_size",
+        ByteSizeValue.ZERO,
+        Setting.Property.Dynamic
+    );
+
     public static final Setting<String> COMPRESSION_SETTING = Setting.simpleString(
         "compression",
         Validators.stringValidator("compression", "gzip"),
@@ -77,14 +89,23 @@ public final class CopyStatementSettings {
 
     public static final Setting<String> OUTPUT_FORMAT_SETTING = Setting.simpleString(
         "format",
-        Validators.stringValidator("format", "json_object", "json_array"),
+        Validators.stringValidator("format", "json_object", "json_array", "csv", "parquet"),
         Setting.Property.Dynamic);
 
+    /**
+     * Encoded size of the buffered rows at which a row group is written for COPY TO with format 'parquet'.
+     */
+    public static final Setting<ByteSizeValue> ROW_GROUP_SIZE_SETTING = Setting.byteSizeSetting(
+        "row_group_size",
+        new ByteSizeValue(64, ByteSizeUnit.MB),
+        Setting.Property.Dynamic
+    );
+
     public static final Setting<String> INPUT_FORMAT_SETTING = new Setting<>(
         "format",
         "json",
         (s) -> s,
-        Validators.stringValidator("format", "json", "csv"),
+        Validators.stringValidator("format", "json", "csv", "parquet"),
         DataTypes.STRING,
         Setting.Property.Dynamic);
 
@@ -124,7 +145,9 @@ public final class CopyStatementSettings {
     public static final List<String> COMMON_COPY_TO_SETTINGS = List.of(
         COMPRESSION_SETTING.getKey(),
         OUTPUT_FORMAT_SETTING.getKey(),
-        WAIT_FOR_COMPLETION_SETTING.getKey()
+        WAIT_FOR_COMPLETION_SETTING.getKey(),
+        ROW_GROUP_SIZE_SETTING.getKey(),
+        CSV_COLUMN_SEPARATOR.getKey()
     );
 
     public static final List<String> COMMON_COPY_FROM_SETTINGS = List.of(
@@ -135,6 +158,7 @@ public final class CopyStatementSettings {
         FAIL_FAST_SETTING.getKey(),
         SHARED_SETTING.getKey(),
         NUM_READERS_SETTING.getKey(),
+        SPLIT_SIZE_SETTING.getKey(),
         BULK_SIZE_SETTING.getKey(),
         NodeFilters.NAME,
         // Settings below are ignored
@@ -54,6 +54,7 @@ import io.crate.expression.symbol.RefReplacer;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.GeneratedReference;
 import io.crate.metadata.GeoReference;
 import io.crate.metadata.IndexReference;
@@ -96,6 +97,7 @@ import io.crate.sql.tree.QualifiedName;
 import io.crate.types.ArrayType;
 import io.crate.types.DataType;
 import io.crate.types.DataTypes;
+import io.crate.types.FloatVectorType;
 import io.crate.types.GeoShapeType;
 import io.crate.types.ObjectType;
 import io.crate.types.StorageSupport;
@@ -116,6 +118,13 @@ public class TableElementsAnalyzer implements FieldProvider<Reference> {
 
     public static final String COLUMN_STORE_PROPERTY = "columnstore";
 
+    private static final Set<String> HNSW_OPTIONS = Set.of(
+        FloatVectorReference.SIMILARITY,
+        FloatVectorReference.M,
+        FloatVectorReference.EF_CONSTRUCTION,
+        FloatVectorReference.NUM_CANDIDATES
+    );
+
     private final RelationName tableName;
     private final ExpressionAnalyzer expressionAnalyzer;
     private final ExpressionAnalysisContext expressionContext;
@@ -306,6 +315,26 @@ public class TableElementsAnalyzer implements FieldProvider<Reference> {
                     (Integer) geoMap.get("tree_levels"),
                     distError == null ? null : distError.doubleValue()
                 );
+            } else if (FloatVectorReference.INDEX_METHOD.equals(indexMethod)) {
+                GenericProperties<Object> options = indexProperties.map(toValue).ensureContainsOnly(HNSW_OPTIONS);
+                String similarity = DataTypes.STRING.implicitCast(options.get(FloatVectorReference.SIMILARITY));
+                ref = new FloatVectorReference(
+                    tableName,
+                    name,
+                    rowGranularity,
+                    type,
+                    indexType,
+                    nullable,
+                    hasDocValues,
+                    position,
+                    OID_UNASSIGNED,
+                    false,
+                    defaultExpression,
+                    similarity == null ? null : similarity.toLowerCase(Locale.ENGLISH),
+                    DataTypes.INTEGER.implicitCast(options.get(FloatVectorReference.M)),
+                    DataTypes.INTEGER.implicitCast(options.get(FloatVectorReference.EF_CONSTRUCTION)),
+                    DataTypes.INTEGER.implicitCast(options.get(FloatVectorReference.NUM_CANDIDATES))
+                );
             } else {
                 ref = new SimpleReference(
                     tableName,
@@ -659,6 +688,13 @@ public class TableElementsAnalyzer implements FieldProvider<Reference> {
                 builder.indexMethod = indexConstraint.indexMethod();
                 builder.indexProperties = indexConstraint.properties().map(toSymbol);
                 builder.indexType = IndexType.of(builder.indexMethod);
+                if (FloatVectorReference.INDEX_METHOD.equals(builder.indexMethod) && builder.type.id() != FloatVectorType.ID) {
+                    throw new IllegalArgumentException(String.format(Locale.ENGLISH,
+                        "INDEX USING %s can only be used on columns of type \"%s\": `%s`",
+                        FloatVectorReference.INDEX_METHOD,
+                        FloatVectorType.NAME,
+                        columnName));
+                }
                 if (builder.indexType == IndexType.FULLTEXT && !DataTypes.STRING.equals(ArrayType.unnest(builder.type))) {
                     throw new IllegalArgumentException(String.format(
                         Locale.ENGLISH,
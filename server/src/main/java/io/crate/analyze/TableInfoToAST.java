@@ -43,6 +43,7 @@ import io.crate.common.unit.TimeValue;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.format.Style;
 import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.FulltextAnalyzerResolver;
 import io.crate.metadata.GeneratedReference;
 import io.crate.metadata.GeoReference;
@@ -226,6 +227,21 @@ public class TableInfoToAST {
                     properties.put("tree_levels", Literal.fromObject(geoReference.treeLevels()));
                 }
                 constraints.add(new IndexColumnConstraint<>(geoReference.geoTree(), new GenericProperties<>(properties)));
+            } else if (FloatVectorReference.of(ref) instanceof FloatVectorReference vectorRef) {
+                Map<String, Expression> properties = new HashMap<>();
+                if (vectorRef.similarity() != null) {
+                    properties.put(FloatVectorReference.SIMILARITY, Literal.fromObject(vectorRef.similarity()));
+                }
+                if (vectorRef.m() != null) {
+                    properties.put(FloatVectorReference.M, Literal.fromObject(vectorRef.m()));
+                }
+                if (vectorRef.efConstruction() != null) {
+                    properties.put(FloatVectorReference.EF_CONSTRUCTION, Literal.fromObject(vectorRef.efConstruction()));
+                }
+                if (vectorRef.numCandidates() != null) {
+                    properties.put(FloatVectorReference.NUM_CANDIDATES, Literal.fromObject(vectorRef.numCandidates()));
+                }
+                constraints.add(new IndexColumnConstraint<>(FloatVectorReference.INDEX_METHOD, new GenericProperties<>(properties)));
             }
 
             StorageSupport<?> storageSupport = ref.valueType().storageSupportSafe();
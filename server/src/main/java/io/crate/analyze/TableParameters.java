@@ -40,12 +40,14 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.engine.EngineConfig;
 import org.elasticsearch.index.store.Store;
+import org.elasticsearch.indices.IndicesRowCache;
 
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.common.annotations.Immutable;
 import io.crate.common.annotations.ThreadSafe;
 import io.crate.common.collections.Lists;
 import io.crate.common.collections.MapBuilder;
+import io.crate.lucene.codec.VectorQuantization;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.metadata.settings.NumberOfReplicas;
 import io.crate.metadata.settings.Validators;
@@ -120,6 +122,9 @@ public class TableParameters {
             IndexMetadata.INDEX_ROUTING_INCLUDE_GROUP_SETTING,
             IndexMetadata.INDEX_ROUTING_EXCLUDE_GROUP_SETTING,
             EngineConfig.INDEX_CODEC_SETTING,
+            VectorQuantization.SETTING,
+            VectorQuantization.RESCORE_OVERSAMPLE_SETTING,
+            IndicesRowCache.INDEX_ROW_CACHE_ENABLED_SETTING,
             IndexModule.INDEX_STORE_TYPE_SETTING,
             MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
             IndexSettings.INDEX_SOFT_DELETES_RETENTION_LEASE_PERIOD_SETTING,
@@ -35,10 +35,10 @@ import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.index.VectorEncoding;
 import org.apache.lucene.util.BytesRef;
 
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.IndexType;
 import io.crate.metadata.Reference;
 import io.crate.metadata.doc.SysColumns;
-import io.crate.types.FloatVectorType;
 
 public class FloatVectorIndexer implements ValueIndexer<float[]> {
 
@@ -59,7 +59,7 @@ public class FloatVectorIndexer implements ValueIndexer<float[]> {
         this.fieldType.setVectorAttributes(
             ref.valueType().characterMaximumLength(),
             VectorEncoding.FLOAT32,
-            FloatVectorType.SIMILARITY_FUNC
+            FloatVectorReference.similarityFunction(ref)
         );
         this.ref = ref;
         this.name = ref.storageIdent();
@@ -34,12 +34,14 @@ import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.index.mapper.MapperParsingException;
 import org.elasticsearch.index.mapper.ParsedDocument;
+import org.jspecify.annotations.Nullable;
 
 import io.crate.common.collections.Lists;
 import io.crate.common.collections.Maps;
 import io.crate.expression.reference.doc.lucene.SourceParser;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.DocReferences;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.RowGranularity;
 import io.crate.metadata.blob.BlobTableInfo;
 import io.crate.metadata.doc.DocTableInfo;
@@ -55,6 +57,7 @@ public class TranslogIndexer {
     }
 
     private final Map<String, ColumnIndexer<?>> indexers = new HashMap<>();
+    private final Map<String, FloatVectorReference> vectorColumns = new HashMap<>();
     private final boolean ignoreUnknownColumns;
     private final SourceParser sourceParser;
     private final Version shardCreatedVersion;
@@ -80,6 +83,13 @@ public class TranslogIndexer {
             }
         }
 
+        for (var ref : table) {
+            FloatVectorReference vectorRef = FloatVectorReference.of(ref);
+            if (vectorRef != null) {
+                vectorColumns.put(vectorRef.storageIdent(), vectorRef);
+            }
+        }
+
         this.indexColumns = buildIndexColumns(
             table.indexColumns(),
             table::getReference,
@@ -124,6 +134,14 @@ public class TranslogIndexer {
         }
     }
 
+    /**
+     * @return the float_vector column with HNSW index options stored in the given Lucene field or null
+     */
+    @Nullable
+    public FloatVectorReference vectorColumn(String field) {
+        return vectorColumns.get(field);
+    }
+
     /**
      * Convert a transaction log entry to a ParsedDocument to be indexed
      *
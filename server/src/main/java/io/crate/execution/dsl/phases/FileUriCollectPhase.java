@@ -28,6 +28,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
@@ -80,7 +81,8 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
 
     public enum InputFormat {
         JSON,
-        CSV
+        CSV,
+        PARQUET
     }
 
     public Symbol targetUri() {
@@ -153,6 +155,10 @@ public class FileUriCollectPhase extends AbstractProjectionsPhase implements Col
         }
         out.writeStringCollection(targetColumns);
         Symbols.toStream(toCollect, out);
+        if (inputFormat == InputFormat.PARQUET && out.getVersion().before(Version.V_6_3_0)) {
+            throw new IllegalStateException(
+                "COPY FROM with format 'parquet' requires all nodes to be on version " + Version.V_6_3_0 + " or later");
+        }
         out.writeVInt(inputFormat.ordinal());
         parserProperties.writeTo(out);
         Settings.writeSettingsToStream(out, withClauseOptions);
@@ -33,6 +33,7 @@ import org.jspecify.annotations.Nullable;
 
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
+import io.crate.fdw.Pushdown;
 import io.crate.metadata.RelationName;
 import io.crate.planner.distribution.DistributionInfo;
 
@@ -44,6 +45,7 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
     private final Symbol query;
     @Nullable
     private final String executeAs;
+    private final Pushdown pushdown;
 
     private DistributionInfo distributionInfo = DistributionInfo.DEFAULT_BROADCAST;
 
@@ -53,7 +55,8 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
                                RelationName relationName,
                                List<Symbol> toCollect,
                                Symbol query,
-                               String executeAs) {
+                               String executeAs,
+                               Pushdown pushdown) {
         super(jobId, phaseId, relationName.fqn(), null);
         this.handlerNode = handlerNode;
         this.relationName = relationName;
@@ -61,6 +64,7 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
         this.outputTypes = Symbols.typeView(toCollect);
         this.query = query;
         this.executeAs = executeAs;
+        this.pushdown = pushdown;
     }
 
     public ForeignCollectPhase(StreamInput in) throws IOException {
@@ -76,6 +80,11 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
         } else {
             this.executeAs = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_6_3_0)) {
+            this.pushdown = Pushdown.readFrom(in);
+        } else {
+            this.pushdown = Pushdown.NONE;
+        }
     }
 
     @Override
@@ -89,6 +98,9 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
         if (out.getVersion().onOrAfter(Version.V_5_8_0)) {
             out.writeOptionalString(executeAs);
         }
+        if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
+            pushdown.writeTo(out);
+        }
     }
 
     @Override
@@ -133,4 +145,8 @@ public class ForeignCollectPhase extends AbstractProjectionsPhase implements Col
     public String executeAs() {
         return executeAs;
     }
+
+    public Pushdown pushdown() {
+        return pushdown;
+    }
 }
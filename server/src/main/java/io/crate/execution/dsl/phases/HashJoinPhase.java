@@ -44,6 +44,8 @@ public class HashJoinPhase extends JoinPhase {
     private final List<Symbol> rightJoinConditionInputs;
 
     private final List<DataType<?>> leftOutputTypes;
+    @Nullable
+    private final List<DataType<?>> rightOutputTypes;
     private final long estimatedRowSizeForLeft;
 
     public HashJoinPhase(UUID jobId,
@@ -59,6 +61,7 @@ public class HashJoinPhase extends JoinPhase {
                          List<Symbol> leftJoinConditionInputs,
                          List<Symbol> rightJoinConditionInputs,
                          List<DataType<?>> leftOutputTypes,
+                         List<DataType<?>> rightOutputTypes,
                          long estimatedRowSizeForLeft,
                          JoinType joinType) {
         super(
@@ -77,6 +80,7 @@ public class HashJoinPhase extends JoinPhase {
         this.leftJoinConditionInputs = leftJoinConditionInputs;
         this.rightJoinConditionInputs = rightJoinConditionInputs;
         this.leftOutputTypes = leftOutputTypes;
+        this.rightOutputTypes = rightOutputTypes;
         this.estimatedRowSizeForLeft = estimatedRowSizeForLeft;
     }
 
@@ -92,6 +96,11 @@ public class HashJoinPhase extends JoinPhase {
             // Version before 5.6.0 used to send numberOfRowsForLeft
             in.readZLong();
         }
+        if (in.getVersion().onOrAfter(Version.V_6_3_0) && in.readBoolean()) {
+            rightOutputTypes = DataTypes.listFromStream(in);
+        } else {
+            rightOutputTypes = null;
+        }
     }
 
     @Override
@@ -108,6 +117,12 @@ public class HashJoinPhase extends JoinPhase {
             // sending neutral value, indicating that this stat is unavailable.
             out.writeZLong(-1);
         }
+        if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
+            out.writeBoolean(rightOutputTypes != null);
+            if (rightOutputTypes != null) {
+                DataTypes.toStream(rightOutputTypes, out);
+            }
+        }
     }
 
     @Override
@@ -132,6 +147,15 @@ public class HashJoinPhase extends JoinPhase {
         return leftOutputTypes;
     }
 
+    /**
+     * @return the types of the right side rows or null if the phase was sent by a node
+     *         that doesn't support spilling the join to disk.
+     */
+    @Nullable
+    public List<DataType<?>> rightOutputTypes() {
+        return rightOutputTypes;
+    }
+
     public long estimatedRowSizeForLeft() {
         return estimatedRowSizeForLeft;
     }
@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 
@@ -43,11 +44,24 @@ public class WindowAggProjection extends Projection {
     private final List<Symbol> standaloneWithInputs;
     private final ArrayList<Symbol> outputs;
     private final List<WindowFunction> windowFunctions;
+    private final boolean sourceSorted;
 
     public WindowAggProjection(WindowDefinition windowDefinition,
                                List<WindowFunction> windowFunctions,
                                List<Symbol> standaloneWithInputs) {
+        this(windowDefinition, windowFunctions, standaloneWithInputs, false);
+    }
+
+    /**
+     * @param sourceSorted true if the rows are already sorted by the PARTITION BY and ORDER BY of the window
+     *                     definition. This allows to process the rows one partition at a time.
+     */
+    public WindowAggProjection(WindowDefinition windowDefinition,
+                               List<WindowFunction> windowFunctions,
+                               List<Symbol> standaloneWithInputs,
+                               boolean sourceSorted) {
         this.windowFunctions = windowFunctions;
+        this.sourceSorted = sourceSorted;
         assert windowFunctions.stream().noneMatch(Symbol.IS_COLUMN)
             : "Cannot operate on Reference or Field: " + windowFunctions;
         assert standaloneWithInputs.stream().noneMatch(Symbol.IS_COLUMN)
@@ -64,6 +78,11 @@ public class WindowAggProjection extends Projection {
         standaloneWithInputs = Symbols.fromStream(in);
 
         windowFunctions = (List<WindowFunction>) (List)Symbols.fromStream(in);
+        if (in.getVersion().onOrAfter(Version.V_6_3_0)) {
+            sourceSorted = in.readBoolean();
+        } else {
+            sourceSorted = false;
+        }
         outputs = new ArrayList<>(standaloneWithInputs);
         outputs.addAll(windowFunctions);
     }
@@ -73,6 +92,9 @@ public class WindowAggProjection extends Projection {
         windowDefinition.writeTo(out);
         Symbols.toStream(standaloneWithInputs, out);
         Symbols.toStream(windowFunctions, out);
+        if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
+            out.writeBoolean(sourceSorted);
+        }
     }
 
     public WindowDefinition windowDefinition() {
@@ -87,6 +109,10 @@ public class WindowAggProjection extends Projection {
         return standaloneWithInputs;
     }
 
+    public boolean sourceSorted() {
+        return sourceSorted;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -96,13 +122,14 @@ public class WindowAggProjection extends Projection {
             return false;
         }
         WindowAggProjection that = (WindowAggProjection) o;
-        return Objects.equals(windowDefinition, that.windowDefinition) &&
+        return sourceSorted == that.sourceSorted &&
+               Objects.equals(windowDefinition, that.windowDefinition) &&
                Objects.equals(windowFunctions, that.windowFunctions);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions);
+        return Objects.hash(super.hashCode(), windowDefinition, windowFunctions, sourceSorted);
     }
 
     @Override
@@ -25,9 +25,11 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.settings.Settings;
@@ -65,7 +67,16 @@ public class WriterProjection extends Projection {
 
     public enum OutputFormat {
         JSON_OBJECT,
-        JSON_ARRAY
+        JSON_ARRAY,
+        CSV,
+        PARQUET;
+
+        /**
+         * @return true if the format needs the names and types of the output columns up front.
+         */
+        public boolean requiresColumns() {
+            return this == CSV || this == PARQUET;
+        }
     }
 
     private final CompressionType compressionType;
@@ -132,6 +143,11 @@ public class WriterProjection extends Projection {
             Symbol.toStream(entry.getValue(), out);
         }
         out.writeInt(compressionType != null ? compressionType.ordinal() : -1);
+        if (outputFormat.requiresColumns() && out.getVersion().before(Version.V_6_3_0)) {
+            throw new IllegalStateException(
+                "COPY TO with format '" + outputFormat.name().toLowerCase(Locale.ENGLISH) +
+                "' requires all nodes to be on version " + Version.V_6_3_0 + " or later");
+        }
         out.writeInt(outputFormat.ordinal());
         Settings.writeSettingsToStream(out, withClauseOptions);
     }
@@ -100,6 +100,14 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
 
     public abstract DataType<?> partialType();
 
+    /**
+     * Called if a state is no longer used before the {@link MemoryManager} is closed, e.g. after it has been
+     * written to disk. States holding buffers of the memoryManager should give them back using
+     * {@link MemoryManager#release}.
+     */
+    public void releaseState(MemoryManager memoryManager, TPartial state) {
+    }
+
     /**
      * Executing aggregations as window functions might require different runtime implementations in order to still be
      * performant. This attempts to compile a new implementation that will be optimized for the window functions
@@ -119,6 +127,17 @@ public abstract class AggregationFunction<TPartial, TFinal> implements FunctionI
         return false;
     }
 
+    /**
+     * Indicates if this aggregation can be evaluated over moving window frames using a segment tree as defined in
+     * http://www.vldb.org/pvldb/vol8/p1058-leis.pdf
+     * This requires {@link #reduce(RamAccounting, Object, Object)} to never mutate state1 or state2, as the
+     * partial states stored in the tree are reduced many times, and to be cheap regardless of how many rows
+     * have been aggregated into the states.
+     */
+    public boolean supportsSegmentTree() {
+        return false;
+    }
+
     public TPartial removeFromAggregatedState(RamAccounting ramAccounting,
                                               TPartial previousAggState,
                                               Input<?>[] stateToRemove) {
@@ -0,0 +1,78 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.data.breaker.RamAccounting;
+
+/**
+ * Accounts state changes of spilling grouping collectors.
+ * A {@link CircuitBreakingException} is recorded instead of thrown, so that aggregations never stop
+ * in the middle of a state update. Once the breaker tripped, further changes of the current row
+ * aren't accounted; they are released together with the states when the run is written.
+ */
+final class DeferredRamAccounting implements RamAccounting {
+
+    private final RamAccounting delegate;
+    @Nullable
+    private CircuitBreakingException exception;
+
+    DeferredRamAccounting(RamAccounting delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void addBytes(long bytes) {
+        if (exception != null) {
+            return;
+        }
+        try {
+            delegate.addBytes(bytes);
+        } catch (CircuitBreakingException e) {
+            exception = e;
+        }
+    }
+
+    @Nullable
+    CircuitBreakingException pollException() {
+        CircuitBreakingException e = exception;
+        exception = null;
+        return e;
+    }
+
+    @Override
+    public long totalBytes() {
+        return delegate.totalBytes();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
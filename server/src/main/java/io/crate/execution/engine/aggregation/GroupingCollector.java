@@ -21,6 +21,8 @@
 
 package io.crate.execution.engine.aggregation;
 
+import java.io.Closeable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,6 +37,8 @@ import java.util.function.Supplier;
 import java.util.stream.Collector;
 
 import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.jspecify.annotations.Nullable;
 
 import io.crate.data.Input;
 import io.crate.data.Row;
@@ -50,9 +54,23 @@ import io.crate.types.DataType;
  * Collector implementation which uses {@link AggregateMode}s and {@code keyInputs}
  * to group rows by key and aggregate the grouped values.
  *
+ * <h2>Spilling</h2>
+ * <p>
+ * If a {@code spillDirectory} is given and adding a new group or growing the state of a group trips the
+ * circuit breaker, the groups collected so far are written as a run of {@link GroupingRuns} together with
+ * their partial states and the map is cleared.
+ * The finisher writes the remaining groups as a last run and merges all runs.
+ * </p>
+ * <p>
+ * A circuit breaker tripped by a state change is only acted on once the current row has been applied, so
+ * that no partially updated state is written. Off-heap buffers of written states are given back using
+ * {@link AggregationFunction#releaseState}. A spilling instance must only be used for a single collect
+ * operation and {@link #close()} must be called to delete the runs.
+ * </p>
+ *
  * @param <K> type of the key
  */
-public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>> {
+public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, Iterable<Row>>, Closeable {
 
     private final CollectExpression<Row, ?>[] expressions;
     private final AggregationFunction[] aggregations;
@@ -60,6 +78,7 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final Input[][] inputs;
     private final Input<Boolean>[] filters;
     private final RamAccounting ramAccounting;
+    private final RamAccounting stateAccounting;
     private final MemoryManager memoryManager;
     private final BiConsumer<K, Object[]> applyKeyToCells;
     private final int numKeyColumns;
@@ -68,6 +87,9 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     private final BiConsumer<Map<K, Object[]>, Row> accumulator;
     private final Supplier<Map<K, Object[]>> supplier;
     private final Version minNodeVersion;
+    @Nullable
+    private final GroupingRuns runs;
+    private long bytesBeforeCollect = 0;
 
     static GroupingCollector<Object> singleKey(CollectExpression<Row, ?>[] expressions,
                                                AggregateMode mode,
@@ -78,7 +100,8 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                MemoryManager memoryManager,
                                                Version minNodeVersion,
                                                Input<?> keyInput,
-                                               DataType keyType) {
+                                               DataType keyType,
+                                               @Nullable Path spillDirectory) {
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -92,7 +115,9 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             1,
             GroupByMaps.accountForNewEntry(ramAccounting, keyType),
             row -> keyInput.value(),
-            GroupByMaps.mapForType(keyType)
+            GroupByMaps.mapForType(keyType),
+            spillDirectory,
+            List.of(keyType)
         );
     }
 
@@ -105,7 +130,8 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                                                     MemoryManager memoryManager,
                                                     Version minNodeVersion,
                                                     List<Input<?>> keyInputs,
-                                                    List<? extends DataType> keyTypes) {
+                                                    List<? extends DataType> keyTypes,
+                                                    @Nullable Path spillDirectory) {
         return new GroupingCollector<>(
             expressions,
             aggregations,
@@ -119,7 +145,9 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             keyInputs.size(),
             GroupByMaps.accountForNewEntry(ramAccountingContext, keyTypes),
             row -> evalKeyInputs(keyInputs),
-            HashMap::new
+            HashMap::new,
+            spillDirectory,
+            keyTypes
         );
     }
 
@@ -149,7 +177,9 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
                               int numKeyColumns,
                               BiConsumer<Map<K, Object[]>, K> accountForNewEntry,
                               Function<Row, K> keyExtractor,
-                              Supplier<Map<K, Object[]>> supplier) {
+                              Supplier<Map<K, Object[]>> supplier,
+                              @Nullable Path spillDirectory,
+                              List<? extends DataType> keyTypes) {
         this.expressions = expressions;
         this.aggregations = aggregations;
         this.mode = mode;
@@ -164,11 +194,24 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
         this.supplier = supplier;
         this.minNodeVersion = minNodeVersion;
+        if (spillDirectory == null) {
+            this.runs = null;
+            this.stateAccounting = ramAccounting;
+        } else {
+            this.runs = new GroupingRuns(spillDirectory, keyTypes, aggregations, mode, ramAccounting);
+            this.stateAccounting = new DeferredRamAccounting(ramAccounting);
+        }
     }
 
     @Override
     public Supplier<Map<K, Object[]>> supplier() {
-        return supplier;
+        if (runs == null) {
+            return supplier;
+        }
+        return () -> {
+            bytesBeforeCollect = ramAccounting.totalBytes();
+            return supplier.get();
+        };
     }
 
     @Override
@@ -207,16 +250,59 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             addWithAccounting(statesByKey, key, states);
         } else {
             for (int i = 0; i < aggregations.length; i++) {
-                states[i] = aggregations[i].reduce(ramAccounting, states[i], inputs[i][0].value());
+                states[i] = aggregations[i].reduce(stateAccounting, states[i], inputs[i][0].value());
             }
         }
+        writeRunIfBreakerTripped(statesByKey);
     }
 
     private void addWithAccounting(Map<K, Object[]> statesByKey, K key, Object[] states) {
-        accountForNewEntry.accept(statesByKey, key);
+        try {
+            accountForNewEntry.accept(statesByKey, key);
+        } catch (CircuitBreakingException e) {
+            if (runs == null || statesByKey.isEmpty()) {
+                throw e;
+            }
+            writeRun(statesByKey);
+            accountForNewEntry.accept(statesByKey, key);
+        }
         statesByKey.put(key, states);
     }
 
+    /**
+     * Writes a run if accounting a state change tripped the circuit breaker.
+     * Must be called after a row has been fully applied; the map contains at least the group of that row.
+     */
+    private void writeRunIfBreakerTripped(Map<K, Object[]> statesByKey) {
+        if (stateAccounting instanceof DeferredRamAccounting deferred) {
+            CircuitBreakingException e = deferred.pollException();
+            if (e != null) {
+                assert statesByKey.isEmpty() == false : "map must contain the group of the current row";
+                writeRun(statesByKey);
+            }
+        }
+    }
+
+    private void writeRun(Map<K, Object[]> statesByKey) {
+        assert runs != null : "spillDirectory must be set to write runs";
+        int numColumns = numKeyColumns + aggregations.length;
+        List<Object[]> rows = new ArrayList<>(statesByKey.size());
+        for (Map.Entry<K, Object[]> entry : statesByKey.entrySet()) {
+            Object[] cells = new Object[numColumns];
+            applyKeyToCells.accept(entry.getKey(), cells);
+            System.arraycopy(entry.getValue(), 0, cells, numKeyColumns, aggregations.length);
+            rows.add(cells);
+        }
+        runs.write(rows);
+        for (Object[] states : statesByKey.values()) {
+            for (int i = 0; i < aggregations.length; i++) {
+                aggregations[i].releaseState(memoryManager, states[i]);
+            }
+        }
+        statesByKey.clear();
+        ramAccounting.addBytes(-(ramAccounting.totalBytes() - bytesBeforeCollect));
+    }
+
     private void iter(Map<K, Object[]> statesByKey, Row row) {
         for (CollectExpression<Row, ?> expression : expressions) {
             expression.setNextRow(row);
@@ -229,10 +315,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             for (int i = 0; i < aggregations.length; i++) {
                 if (InputCondition.matches(filters[i])) {
                     //noinspection unchecked
-                    states[i] = aggregations[i].iterate(ramAccounting, memoryManager, states[i], inputs[i]);
+                    states[i] = aggregations[i].iterate(stateAccounting, memoryManager, states[i], inputs[i]);
                 }
             }
         }
+        writeRunIfBreakerTripped(statesByKey);
     }
 
     private void addNewEntry(Map<K, Object[]> statesByKey, K key) {
@@ -241,10 +328,10 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
         for (int i = 0; i < aggregations.length; i++) {
             AggregationFunction aggregation = aggregations[i];
 
-            var newState = aggregation.newState(ramAccounting, minNodeVersion, memoryManager);
+            var newState = aggregation.newState(stateAccounting, minNodeVersion, memoryManager);
             if (InputCondition.matches(filters[i])) {
                 //noinspection unchecked
-                states[i] = aggregation.iterate(ramAccounting, memoryManager, newState, inputs[i]);
+                states[i] = aggregation.iterate(stateAccounting, memoryManager, newState, inputs[i]);
             } else {
                 states[i] = newState;
             }
@@ -253,6 +340,12 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
     }
 
     private Iterable<Row> mapToRows(Map<K, Object[]> statesByKey) {
+        if (runs != null && runs.isEmpty() == false) {
+            if (statesByKey.isEmpty() == false) {
+                writeRun(statesByKey);
+            }
+            return runs.merge();
+        }
 
         return () -> new Iterator<>() {
             final Iterator<Map.Entry<K, Object[]>> iterator = statesByKey.entrySet().iterator();
@@ -283,4 +376,11 @@ public class GroupingCollector<K> implements Collector<Row, Map<K, Object[]>, It
             }
         };
     }
+
+    @Override
+    public void close() {
+        if (runs != null) {
+            runs.close();
+        }
+    }
 }
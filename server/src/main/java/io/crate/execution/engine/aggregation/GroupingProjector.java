@@ -23,10 +23,12 @@ package io.crate.execution.engine.aggregation;
 
 import static io.crate.expression.symbol.Symbols.typeView;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.stream.Collector;
 
 import org.elasticsearch.Version;
+import org.jspecify.annotations.Nullable;
 
 import io.crate.data.BatchIterator;
 import io.crate.data.CollectingBatchIterator;
@@ -44,7 +46,6 @@ public class GroupingProjector implements Projector {
     private final Collector<Row, ?, Iterable<Row>> collector;
 
 
-    @SuppressWarnings("unchecked")
     public GroupingProjector(List<? extends Symbol> keys,
                              List<Input<?>> keyInputs,
                              CollectExpression<Row, ?>[] collectExpressions,
@@ -53,6 +54,22 @@ public class GroupingProjector implements Projector {
                              RamAccounting ramAccounting,
                              MemoryManager memoryManager,
                              Version minNodeVersion) {
+        this(keys, keyInputs, collectExpressions, mode, aggregations, ramAccounting, memoryManager, minNodeVersion, null);
+    }
+
+    /**
+     * @param spillDirectory if not null, groups are spilled to disk if they exceed the available memory.
+     */
+    @SuppressWarnings("unchecked")
+    public GroupingProjector(List<? extends Symbol> keys,
+                             List<Input<?>> keyInputs,
+                             CollectExpression<Row, ?>[] collectExpressions,
+                             AggregateMode mode,
+                             AggregationContext[] aggregations,
+                             RamAccounting ramAccounting,
+                             MemoryManager memoryManager,
+                             Version minNodeVersion,
+                             @Nullable Path spillDirectory) {
         assert keys.size() == keyInputs.size() : "number of key types must match with number of key inputs";
 
         AggregationFunction<?, ?>[] functions = new AggregationFunction[aggregations.length];
@@ -76,7 +93,22 @@ public class GroupingProjector implements Projector {
                 memoryManager,
                 minNodeVersion,
                 keyInputs.get(0),
-                key.valueType()
+                key.valueType(),
+                spillDirectory
+            );
+        } else if (PackedKeyGroupTable.supports(typeView(keys))) {
+            collector = new PackedKeysGroupingCollector(
+                collectExpressions,
+                mode,
+                functions,
+                inputs,
+                filters,
+                ramAccounting,
+                memoryManager,
+                minNodeVersion,
+                keyInputs,
+                typeView(keys),
+                spillDirectory
             );
         } else {
             collector = GroupingCollector.manyKeys(
@@ -89,16 +121,35 @@ public class GroupingProjector implements Projector {
                 memoryManager,
                 minNodeVersion,
                 keyInputs,
-                typeView(keys)
+                typeView(keys),
+                spillDirectory
             );
         }
     }
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        if (collector instanceof GroupingCollector<?> groupingCollector) {
+            return collectAndClose(batchIterator, groupingCollector::close);
+        }
+        if (collector instanceof PackedKeysGroupingCollector packedKeysCollector) {
+            return collectAndClose(batchIterator, packedKeysCollector::close);
+        }
         return CollectingBatchIterator.newInstance(batchIterator, collector);
     }
 
+    private BatchIterator<Row> collectAndClose(BatchIterator<Row> batchIterator, Runnable closeCollector) {
+        return CollectingBatchIterator.newInstance(
+            () -> {
+                batchIterator.close();
+                closeCollector.run();
+            },
+            batchIterator::kill,
+            () -> batchIterator.collect(collector),
+            batchIterator.hasLazyResultSet()
+        );
+    }
+
     public Collector<Row, ?, Iterable<Row>> getCollector() {
         return collector;
     }
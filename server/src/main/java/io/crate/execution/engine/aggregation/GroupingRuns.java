@@ -0,0 +1,233 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import io.crate.Streamer;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.spill.SpillFile;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.types.DataType;
+
+/**
+ * Runs of spilled groups, shared by the grouping collectors.
+ * <p>
+ * Each run is a {@link SpillFile} containing groups as rows of key values followed by the partial states,
+ * sorted by the hash code of the keys. {@link #merge()} reads groups with the same hash from all runs at once
+ * and combines equal keys using {@link AggregationFunction#reduce}.
+ * </p>
+ */
+final class GroupingRuns implements Closeable {
+
+    private final Path spillDirectory;
+    private final int numKeyColumns;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final RamAccounting ramAccounting;
+    private final Streamer<?>[] streamers;
+    private final List<SpillFile> runs = new ArrayList<>();
+    private final List<CloseableIterator<Object[]>> openIterators = new ArrayList<>();
+
+    GroupingRuns(Path spillDirectory,
+                 List<? extends DataType> keyTypes,
+                 AggregationFunction[] aggregations,
+                 AggregateMode mode,
+                 RamAccounting ramAccounting) {
+        this.spillDirectory = spillDirectory;
+        this.numKeyColumns = keyTypes.size();
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.ramAccounting = ramAccounting;
+        this.streamers = new Streamer[numKeyColumns + aggregations.length];
+        for (int i = 0; i < numKeyColumns; i++) {
+            streamers[i] = keyTypes.get(i).streamer();
+        }
+        for (int i = 0; i < aggregations.length; i++) {
+            streamers[numKeyColumns + i] = aggregations[i].partialType().streamer();
+        }
+    }
+
+    /**
+     * Writes the groups as a new run.
+     *
+     * @param groups rows of key values followed by the partial states. Sorted in place.
+     */
+    void write(List<Object[]> groups) {
+        groups.sort(Comparator.comparingInt(this::keyHash));
+        SpillFile run = new SpillFile(spillDirectory, streamers);
+        runs.add(run);
+        for (Object[] cells : groups) {
+            run.add(cells);
+        }
+        run.finishWriting();
+    }
+
+    int size() {
+        return runs.size();
+    }
+
+    boolean isEmpty() {
+        return runs.isEmpty();
+    }
+
+    /**
+     * @return the merged groups of all runs, the states are finished using {@link AggregateMode#finishCollect}.
+     */
+    Iterable<Row> merge() {
+        return MergingIterator::new;
+    }
+
+    private List<Object> keyOf(Object[] cells) {
+        return Arrays.asList(cells).subList(0, numKeyColumns);
+    }
+
+    private int keyHash(Object[] cells) {
+        return keyOf(cells).hashCode();
+    }
+
+    @Override
+    public void close() {
+        for (CloseableIterator<Object[]> it : openIterators) {
+            it.close();
+        }
+        openIterators.clear();
+        for (SpillFile run : runs) {
+            run.close();
+        }
+        runs.clear();
+    }
+
+    private final class RunCursor {
+
+        private final CloseableIterator<Object[]> rows;
+        private Object[] current;
+        private int hash;
+
+        RunCursor(CloseableIterator<Object[]> rows) {
+            this.rows = rows;
+            advance();
+        }
+
+        boolean advance() {
+            if (rows.hasNext()) {
+                current = rows.next();
+                hash = keyHash(current);
+                return true;
+            }
+            rows.close();
+            return false;
+        }
+    }
+
+    /**
+     * Merges the runs, which are sorted by key hash.
+     * All rows with the same hash are loaded at once; rows with equal keys are combined using
+     * {@link AggregationFunction#reduce} and then emitted using {@link AggregateMode#finishCollect}.
+     */
+    private final class MergingIterator implements Iterator<Row> {
+
+        private final PriorityQueue<RunCursor> queue = new PriorityQueue<>(
+            Math.max(runs.size(), 1),
+            Comparator.comparingInt(cursor -> cursor.hash)
+        );
+        private final Map<List<Object>, Object[]> groupsWithSameHash = new HashMap<>();
+        private final RowN row = new RowN(numKeyColumns + aggregations.length);
+        private final Object[] cells = new Object[row.numColumns()];
+        private Iterator<Object[]> groups = Collections.emptyIterator();
+
+        MergingIterator() {
+            row.cells(cells);
+            for (SpillFile run : runs) {
+                CloseableIterator<Object[]> runRows = run.rows();
+                openIterators.add(runRows);
+                RunCursor cursor = new RunCursor(runRows);
+                if (cursor.current != null) {
+                    queue.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (groups.hasNext()) {
+                return true;
+            }
+            if (queue.isEmpty()) {
+                return false;
+            }
+            loadGroupsWithNextHash();
+            return true;
+        }
+
+        private void loadGroupsWithNextHash() {
+            groupsWithSameHash.clear();
+            int hash = queue.peek().hash;
+            while (queue.isEmpty() == false && queue.peek().hash == hash) {
+                RunCursor cursor = queue.poll();
+                groupsWithSameHash.merge(keyOf(cursor.current), cursor.current, this::reduceStates);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+            groups = groupsWithSameHash.values().iterator();
+        }
+
+        @SuppressWarnings("unchecked")
+        private Object[] reduceStates(Object[] cells1, Object[] cells2) {
+            for (int i = 0; i < aggregations.length; i++) {
+                int c = numKeyColumns + i;
+                cells1[c] = aggregations[i].reduce(ramAccounting, cells1[c], cells2[c]);
+            }
+            return cells1;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Row next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException("No more groups");
+            }
+            Object[] group = groups.next();
+            System.arraycopy(group, 0, cells, 0, numKeyColumns);
+            for (int i = 0; i < aggregations.length; i++) {
+                int c = numKeyColumns + i;
+                cells[c] = mode.finishCollect(ramAccounting, aggregations[i], group[c]);
+            }
+            return row;
+        }
+    }
+}
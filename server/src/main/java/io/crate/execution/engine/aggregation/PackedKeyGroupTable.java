@@ -0,0 +1,370 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.jspecify.annotations.Nullable;
+
+import com.carrotsearch.hppc.ObjectIntHashMap;
+
+import io.crate.data.Input;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Open addressing hash table to group by multiple keys with fixed width types or strings.
+ * <p>
+ * Unlike a {@code Map<List<Object>, Object[]>} it doesn't allocate a key object per row:
+ * The key values of a row are encoded into one {@code long} per key column, strings are dictionary encoded.
+ * The encoded keys and the aggregation states of all groups are stored in flat arrays indexed by a group id,
+ * which is assigned in insertion order:
+ *
+ * <pre>
+ *     keys:      [ g0k0, g0k1, g0k2, g1k0, g1k1, g1k2, ... ]
+ *     nullMasks: [ g0,                g1,                ... ]  (bit i set if key i is null)
+ *     states:    [ g0s0, g0s1,        g1s0, g1s1,        ... ]
+ * </pre>
+ *
+ * The hash index only holds the group ids (and their hashes), so growing the table only re-inserts ints.
+ * <p>
+ * Not thread-safe.
+ */
+public final class PackedKeyGroupTable {
+
+    private static final int INITIAL_GROUP_CAPACITY = 64;
+    private static final int MAX_KEYS = Long.SIZE;
+    private static final long DICTIONARY_ENTRY_OVERHEAD = 48L;
+
+    enum KeyEncoding {
+        LONG,
+        INT,
+        SHORT,
+        BYTE,
+        BOOLEAN,
+        DOUBLE,
+        FLOAT,
+        STRING
+    }
+
+    private final KeyEncoding[] encodings;
+    private final int numKeys;
+    private final int numStates;
+    private final RamAccounting ramAccounting;
+
+    /**
+     * group id + 1 per slot, 0 marks an empty slot
+     */
+    private int[] index;
+    private int[] indexHashes;
+    private int mask;
+
+    private long[] keys;
+    private long[] nullMasks;
+    private Object[] states;
+    private int size = 0;
+
+    private final long[] probeKey;
+    private long probeNullMask;
+
+    @Nullable
+    private final ObjectIntHashMap<String> dictionary;
+    @Nullable
+    private final List<String> dictionaryValues;
+
+    /**
+     * @return true if the keys can be grouped using a {@link PackedKeyGroupTable}
+     */
+    public static boolean supports(List<? extends DataType<?>> keyTypes) {
+        if (keyTypes.size() < 2 || keyTypes.size() > MAX_KEYS) {
+            return false;
+        }
+        for (DataType<?> keyType : keyTypes) {
+            if (encodingFor(keyType) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    static KeyEncoding encodingFor(DataType<?> type) {
+        return switch (type.id()) {
+            case LongType.ID, TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> KeyEncoding.LONG;
+            case IntegerType.ID -> KeyEncoding.INT;
+            case ShortType.ID -> KeyEncoding.SHORT;
+            case ByteType.ID -> KeyEncoding.BYTE;
+            case BooleanType.ID -> KeyEncoding.BOOLEAN;
+            case DoubleType.ID -> KeyEncoding.DOUBLE;
+            case FloatType.ID -> KeyEncoding.FLOAT;
+            case StringType.ID -> KeyEncoding.STRING;
+            default -> null;
+        };
+    }
+
+    public PackedKeyGroupTable(List<? extends DataType<?>> keyTypes, int numStates, RamAccounting ramAccounting) {
+        assert supports(keyTypes) : "PackedKeyGroupTable doesn't support key types: " + keyTypes;
+        this.numKeys = keyTypes.size();
+        this.numStates = numStates;
+        this.ramAccounting = ramAccounting;
+        this.encodings = new KeyEncoding[numKeys];
+        boolean hasStrings = false;
+        for (int i = 0; i < numKeys; i++) {
+            encodings[i] = encodingFor(keyTypes.get(i));
+            hasStrings |= encodings[i] == KeyEncoding.STRING;
+        }
+        this.dictionary = hasStrings ? new ObjectIntHashMap<>() : null;
+        this.dictionaryValues = hasStrings ? new ArrayList<>() : null;
+        this.probeKey = new long[numKeys];
+        allocate();
+    }
+
+    private void allocate() {
+        int indexCapacity = INITIAL_GROUP_CAPACITY * 2;
+        ramAccounting.addBytes(indexBytes(indexCapacity) + groupBytes(INITIAL_GROUP_CAPACITY));
+        index = new int[indexCapacity];
+        indexHashes = new int[indexCapacity];
+        mask = indexCapacity - 1;
+        keys = new long[INITIAL_GROUP_CAPACITY * numKeys];
+        nullMasks = new long[INITIAL_GROUP_CAPACITY];
+        states = new Object[INITIAL_GROUP_CAPACITY * numStates];
+        size = 0;
+    }
+
+    /**
+     * Removes all groups and shrinks the table to its initial capacity.
+     * <p>
+     * The initial capacity is accounted again, releasing the memory accounted so far is up to the caller.
+     */
+    public void clear() {
+        if (dictionary != null && dictionaryValues != null) {
+            dictionary.clear();
+            dictionaryValues.clear();
+        }
+        allocate();
+    }
+
+    /**
+     * Looks up the group of the current values of the {@code keyInputs}, creating a new group if it doesn't exist.
+     *
+     * @return the group id if the group already existed, otherwise {@code -(groupId + 1)} of the new group.
+     */
+    public int findOrInsert(Input<?>[] keyInputs) {
+        assert keyInputs.length == numKeys : "number of keyInputs must match number of keys";
+        long nullMask = 0L;
+        int hash = 1;
+        for (int i = 0; i < numKeys; i++) {
+            Object value = keyInputs[i].value();
+            long encoded;
+            if (value == null) {
+                nullMask |= 1L << i;
+                encoded = 0L;
+            } else {
+                encoded = encode(encodings[i], value);
+            }
+            probeKey[i] = encoded;
+            hash = 31 * hash + Long.hashCode(encoded);
+        }
+        probeNullMask = nullMask;
+        hash = mix(hash ^ Long.hashCode(nullMask));
+
+        int slot = hash & mask;
+        while (true) {
+            int entry = index[slot];
+            if (entry == 0) {
+                break;
+            }
+            int groupId = entry - 1;
+            if (indexHashes[slot] == hash && probeEquals(groupId)) {
+                return groupId;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int groupId = insert(slot, hash);
+        return -(groupId + 1);
+    }
+
+    private boolean probeEquals(int groupId) {
+        if (nullMasks[groupId] != probeNullMask) {
+            return false;
+        }
+        int offset = groupId * numKeys;
+        for (int i = 0; i < numKeys; i++) {
+            if (keys[offset + i] != probeKey[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int insert(int slot, int hash) {
+        int groupId = size;
+        // grow before modifying anything, so that a tripped circuit breaker leaves the table unchanged
+        if (groupId == nullMasks.length) {
+            growGroups();
+        }
+        // load factor 0.5 to keep the probe sequences short
+        if ((size + 1) * 2 > index.length) {
+            growIndex();
+            slot = emptySlot(hash);
+        }
+        System.arraycopy(probeKey, 0, keys, groupId * numKeys, numKeys);
+        nullMasks[groupId] = probeNullMask;
+        index[slot] = groupId + 1;
+        indexHashes[slot] = hash;
+        size++;
+        return groupId;
+    }
+
+    private int emptySlot(int hash) {
+        int slot = hash & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void growGroups() {
+        int oldCapacity = nullMasks.length;
+        int newCapacity = oldCapacity * 2;
+        ramAccounting.addBytes(groupBytes(newCapacity) - groupBytes(oldCapacity));
+        keys = Arrays.copyOf(keys, newCapacity * numKeys);
+        nullMasks = Arrays.copyOf(nullMasks, newCapacity);
+        states = Arrays.copyOf(states, newCapacity * numStates);
+    }
+
+    private void growIndex() {
+        int newCapacity = index.length * 2;
+        ramAccounting.addBytes(indexBytes(newCapacity) - indexBytes(index.length));
+        int[] oldIndex = index;
+        int[] oldHashes = indexHashes;
+        index = new int[newCapacity];
+        indexHashes = new int[newCapacity];
+        mask = newCapacity - 1;
+        for (int i = 0; i < oldIndex.length; i++) {
+            int entry = oldIndex[i];
+            if (entry == 0) {
+                continue;
+            }
+            int hash = oldHashes[i];
+            int slot = emptySlot(hash);
+            index[slot] = entry;
+            indexHashes[slot] = hash;
+        }
+    }
+
+    private long encode(KeyEncoding encoding, Object value) {
+        return switch (encoding) {
+            case LONG, INT, SHORT, BYTE -> ((Number) value).longValue();
+            case BOOLEAN -> (Boolean) value ? 1L : 0L;
+            case DOUBLE -> Double.doubleToLongBits(((Number) value).doubleValue());
+            case FLOAT -> Float.floatToIntBits(((Number) value).floatValue());
+            case STRING -> dictionaryId((String) value);
+        };
+    }
+
+    private int dictionaryId(String value) {
+        assert dictionary != null && dictionaryValues != null : "dictionary must exist for string keys";
+        int id = dictionary.getOrDefault(value, -1);
+        if (id == -1) {
+            id = dictionaryValues.size();
+            ramAccounting.addBytes(RamUsageEstimator.sizeOf(value) + DICTIONARY_ENTRY_OVERHEAD);
+            dictionary.put(value, id);
+            dictionaryValues.add(value);
+        }
+        return id;
+    }
+
+    @Nullable
+    private Object decode(KeyEncoding encoding, long value) {
+        return switch (encoding) {
+            case LONG -> value;
+            case INT -> (int) value;
+            case SHORT -> (short) value;
+            case BYTE -> (byte) value;
+            case BOOLEAN -> value == 1L;
+            case DOUBLE -> Double.longBitsToDouble(value);
+            case FLOAT -> Float.intBitsToFloat((int) value);
+            case STRING -> {
+                assert dictionaryValues != null : "dictionary must exist for string keys";
+                yield dictionaryValues.get((int) value);
+            }
+        };
+    }
+
+    private static int mix(int hash) {
+        // murmur3 finalizer, the index uses the lower bits
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+
+    private long indexBytes(int capacity) {
+        return 2L * capacity * Integer.BYTES;
+    }
+
+    private long groupBytes(int capacity) {
+        return (long) capacity * (numKeys * Long.BYTES + Long.BYTES + numStates * RamUsageEstimator.NUM_BYTES_OBJECT_REF);
+    }
+
+    /**
+     * Writes the key values of the group into the first {@code numKeys} cells.
+     */
+    public void keysToCells(int groupId, Object[] cells) {
+        long nullMask = nullMasks[groupId];
+        int offset = groupId * numKeys;
+        for (int i = 0; i < numKeys; i++) {
+            cells[i] = (nullMask & (1L << i)) == 0 ? decode(encodings[i], keys[offset + i]) : null;
+        }
+    }
+
+    public Object getState(int groupId, int stateIdx) {
+        return states[groupId * numStates + stateIdx];
+    }
+
+    public void setState(int groupId, int stateIdx, Object state) {
+        states[groupId * numStates + stateIdx] = state;
+    }
+
+    public int numKeys() {
+        return numKeys;
+    }
+
+    public int size() {
+        return size;
+    }
+}
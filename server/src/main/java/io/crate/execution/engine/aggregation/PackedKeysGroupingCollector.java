@@ -0,0 +1,283 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.data.Input;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.expression.InputCondition;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.memory.MemoryManager;
+import io.crate.types.DataType;
+
+/**
+ * Collector implementation which groups rows by multiple keys using a {@link PackedKeyGroupTable}.
+ * <p>
+ * Behaves like {@link GroupingCollector#manyKeys}, but can only be used if {@link PackedKeyGroupTable#supports(List)}
+ * returns true for the key types.
+ * <p>
+ * Spills like {@link GroupingCollector} if a {@code spillDirectory} is given: If inserting a group or growing
+ * a state trips the circuit breaker, the groups of the table are written as a run of {@link GroupingRuns}
+ * and the table is cleared. {@link #close()} must be called to delete the runs.
+ * </p>
+ */
+public class PackedKeysGroupingCollector implements Collector<Row, PackedKeyGroupTable, Iterable<Row>>, Closeable {
+
+    private final CollectExpression<Row, ?>[] expressions;
+    private final AggregationFunction[] aggregations;
+    private final AggregateMode mode;
+    private final Input[][] inputs;
+    private final Input<Boolean>[] filters;
+    private final RamAccounting ramAccounting;
+    private final RamAccounting stateAccounting;
+    private final MemoryManager memoryManager;
+    private final Version minNodeVersion;
+    private final Input<?>[] keyInputs;
+    private final List<? extends DataType<?>> keyTypes;
+    private final BiConsumer<PackedKeyGroupTable, Row> accumulator;
+    @Nullable
+    private final GroupingRuns runs;
+    private long bytesBeforeCollect = 0;
+
+    public PackedKeysGroupingCollector(CollectExpression<Row, ?>[] expressions,
+                                       AggregateMode mode,
+                                       AggregationFunction[] aggregations,
+                                       Input[][] inputs,
+                                       Input<Boolean>[] filters,
+                                       RamAccounting ramAccounting,
+                                       MemoryManager memoryManager,
+                                       Version minNodeVersion,
+                                       List<Input<?>> keyInputs,
+                                       List<? extends DataType<?>> keyTypes,
+                                       @Nullable Path spillDirectory) {
+        assert PackedKeyGroupTable.supports(keyTypes) : "PackedKeyGroupTable doesn't support key types: " + keyTypes;
+        this.expressions = expressions;
+        this.aggregations = aggregations;
+        this.mode = mode;
+        this.inputs = inputs;
+        this.filters = filters;
+        this.ramAccounting = ramAccounting;
+        this.memoryManager = memoryManager;
+        this.minNodeVersion = minNodeVersion;
+        this.keyInputs = keyInputs.toArray(new Input<?>[0]);
+        this.keyTypes = keyTypes;
+        this.accumulator = mode == AggregateMode.PARTIAL_FINAL ? this::reduce : this::iter;
+        if (spillDirectory == null) {
+            this.runs = null;
+            this.stateAccounting = ramAccounting;
+        } else {
+            this.runs = new GroupingRuns(spillDirectory, keyTypes, aggregations, mode, ramAccounting);
+            this.stateAccounting = new DeferredRamAccounting(ramAccounting);
+        }
+    }
+
+    @Override
+    public Supplier<PackedKeyGroupTable> supplier() {
+        return () -> {
+            bytesBeforeCollect = ramAccounting.totalBytes();
+            return new PackedKeyGroupTable(keyTypes, aggregations.length, ramAccounting);
+        };
+    }
+
+    @Override
+    public BiConsumer<PackedKeyGroupTable, Row> accumulator() {
+        return accumulator;
+    }
+
+    @Override
+    public BinaryOperator<PackedKeyGroupTable> combiner() {
+        return (state1, state2) -> {
+            throw new UnsupportedOperationException("combine not supported");
+        };
+    }
+
+    @Override
+    public Function<PackedKeyGroupTable, Iterable<Row>> finisher() {
+        return this::tableToRows;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    private void reduce(PackedKeyGroupTable table, Row row) {
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        int groupId = findOrInsert(table);
+        if (groupId < 0) {
+            groupId = -(groupId + 1);
+            for (int i = 0; i < aggregations.length; i++) {
+                table.setState(groupId, i, inputs[i][0].value());
+            }
+        } else {
+            for (int i = 0; i < aggregations.length; i++) {
+                //noinspection unchecked
+                Object state = aggregations[i].reduce(stateAccounting, table.getState(groupId, i), inputs[i][0].value());
+                table.setState(groupId, i, state);
+            }
+        }
+        writeRunIfBreakerTripped(table);
+    }
+
+    private void iter(PackedKeyGroupTable table, Row row) {
+        for (CollectExpression<Row, ?> expression : expressions) {
+            expression.setNextRow(row);
+        }
+        int groupId = findOrInsert(table);
+        if (groupId < 0) {
+            groupId = -(groupId + 1);
+            for (int i = 0; i < aggregations.length; i++) {
+                AggregationFunction aggregation = aggregations[i];
+                var newState = aggregation.newState(stateAccounting, minNodeVersion, memoryManager);
+                if (InputCondition.matches(filters[i])) {
+                    //noinspection unchecked
+                    table.setState(groupId, i, aggregation.iterate(stateAccounting, memoryManager, newState, inputs[i]));
+                } else {
+                    table.setState(groupId, i, newState);
+                }
+            }
+        } else {
+            for (int i = 0; i < aggregations.length; i++) {
+                if (InputCondition.matches(filters[i])) {
+                    //noinspection unchecked
+                    Object state = aggregations[i].iterate(stateAccounting, memoryManager, table.getState(groupId, i), inputs[i]);
+                    table.setState(groupId, i, state);
+                }
+            }
+        }
+        writeRunIfBreakerTripped(table);
+    }
+
+    private int findOrInsert(PackedKeyGroupTable table) {
+        try {
+            return table.findOrInsert(keyInputs);
+        } catch (CircuitBreakingException e) {
+            if (runs == null || table.size() == 0) {
+                throw e;
+            }
+            writeRun(table);
+            return table.findOrInsert(keyInputs);
+        }
+    }
+
+    /**
+     * Writes a run if accounting a state change tripped the circuit breaker.
+     * Must be called after a row has been fully applied; the table contains at least the group of that row.
+     */
+    private void writeRunIfBreakerTripped(PackedKeyGroupTable table) {
+        if (stateAccounting instanceof DeferredRamAccounting deferred) {
+            CircuitBreakingException e = deferred.pollException();
+            if (e != null) {
+                assert table.size() > 0 : "table must contain the group of the current row";
+                writeRun(table);
+            }
+        }
+    }
+
+    private void writeRun(PackedKeyGroupTable table) {
+        assert runs != null : "spillDirectory must be set to write runs";
+        int numKeys = table.numKeys();
+        List<Object[]> rows = new ArrayList<>(table.size());
+        for (int groupId = 0; groupId < table.size(); groupId++) {
+            Object[] cells = new Object[numKeys + aggregations.length];
+            table.keysToCells(groupId, cells);
+            for (int i = 0; i < aggregations.length; i++) {
+                cells[numKeys + i] = table.getState(groupId, i);
+            }
+            rows.add(cells);
+        }
+        runs.write(rows);
+        for (Object[] cells : rows) {
+            for (int i = 0; i < aggregations.length; i++) {
+                aggregations[i].releaseState(memoryManager, cells[numKeys + i]);
+            }
+        }
+        ramAccounting.addBytes(-(ramAccounting.totalBytes() - bytesBeforeCollect));
+        table.clear();
+    }
+
+    private Iterable<Row> tableToRows(PackedKeyGroupTable table) {
+        if (runs != null && runs.isEmpty() == false) {
+            if (table.size() > 0) {
+                writeRun(table);
+            }
+            return runs.merge();
+        }
+        int numKeys = table.numKeys();
+        return () -> new Iterator<>() {
+
+            final Object[] cells = new Object[numKeys + aggregations.length];
+            final RowN row = new RowN(cells);
+            int groupId = 0;
+
+            @Override
+            public boolean hasNext() {
+                return groupId < table.size();
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more groups");
+                }
+                table.keysToCells(groupId, cells);
+                int c = numKeys;
+                for (int i = 0; i < aggregations.length; i++) {
+                    //noinspection unchecked
+                    cells[c] = mode.finishCollect(ramAccounting, aggregations[i], table.getState(groupId, i));
+                    c++;
+                }
+                groupId++;
+                return row;
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (runs != null) {
+            runs.close();
+        }
+    }
+}
@@ -61,5 +61,6 @@ public class Aggregations implements FunctionsProvider {
         StandardDeviationSampAggregation.register(builder);
         NumericStandardDeviationSampAggregation.register(builder);
         TopKAggregation.register(builder);
+        RuntimeFilterAggregation.register(builder);
     }
 }
@@ -153,6 +153,11 @@ public class ArbitraryAggregation extends AggregationFunction<Object, Object> {
         return state;
     }
 
+    @Override
+    public boolean supportsSegmentTree() {
+        return true;
+    }
+
     @Nullable
     @Override
     public DocValueAggregator<?> getDocValueAggregator(LuceneReferenceResolver referenceResolver,
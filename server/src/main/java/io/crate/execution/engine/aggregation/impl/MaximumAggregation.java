@@ -351,4 +351,9 @@ public abstract class MaximumAggregation extends AggregationFunction<Object, Obj
     public Object terminatePartial(RamAccounting ramAccounting, Object state) {
         return state;
     }
+
+    @Override
+    public boolean supportsSegmentTree() {
+        return true;
+    }
 }
@@ -0,0 +1,226 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation.impl;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.data.Input;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+import io.crate.execution.engine.aggregation.DocValueAggregator;
+import io.crate.execution.engine.aggregation.impl.templates.SortedNumericDocValueAggregator;
+import io.crate.execution.engine.join.RuntimeFilter;
+import io.crate.expression.reference.doc.lucene.LuceneReferenceResolver;
+import io.crate.expression.symbol.Literal;
+import io.crate.memory.MemoryManager;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.Functions;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.functions.BoundSignature;
+import io.crate.metadata.functions.Signature;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Internal aggregation used to build a {@link RuntimeFilter} over the join keys of the build side of a join.
+ * <pre>
+ *     _runtime_filter_agg(key, numBits) -> [min, max, word1, word2, ...]
+ * </pre>
+ * See {@link io.crate.planner.optimizer.rule.AddRuntimeJoinFilter}
+ */
+public final class RuntimeFilterAggregation extends AggregationFunction<RuntimeFilter, List<Long>> {
+
+    public static final String NAME = "_runtime_filter_agg";
+
+    static {
+        DataTypes.register(RuntimeFilterStateType.ID, _ -> RuntimeFilterStateType.INSTANCE);
+    }
+
+    public static final List<DataType<?>> SUPPORTED_TYPES = List.of(
+        DataTypes.BYTE,
+        DataTypes.SHORT,
+        DataTypes.INTEGER,
+        DataTypes.LONG,
+        DataTypes.TIMESTAMPZ,
+        DataTypes.TIMESTAMP
+    );
+
+    public static void register(Functions.Builder builder) {
+        for (var supportedType : SUPPORTED_TYPES) {
+            builder.add(
+                Signature.builder(NAME, FunctionType.AGGREGATE)
+                    .argumentTypes(supportedType.getTypeSignature(), DataTypes.INTEGER.getTypeSignature())
+                    .returnType(DataTypes.BIGINT_ARRAY.getTypeSignature())
+                    .features(Scalar.Feature.DETERMINISTIC)
+                    .build(),
+                RuntimeFilterAggregation::new
+            );
+        }
+    }
+
+    public static final class RuntimeFilterStateType extends DataType<RuntimeFilter> implements Streamer<RuntimeFilter> {
+
+        public static final RuntimeFilterStateType INSTANCE = new RuntimeFilterStateType();
+        public static final int ID = 4097;
+
+        @Override
+        public int id() {
+            return ID;
+        }
+
+        @Override
+        public Precedence precedence() {
+            return Precedence.UNDEFINED;
+        }
+
+        @Override
+        public String getName() {
+            return "runtime_filter_state";
+        }
+
+        @Override
+        public Streamer<RuntimeFilter> streamer() {
+            return this;
+        }
+
+        @Override
+        public RuntimeFilter sanitizeValue(Object value) {
+            return (RuntimeFilter) value;
+        }
+
+        @Override
+        public int compare(RuntimeFilter val1, RuntimeFilter val2) {
+            return 0;
+        }
+
+        @Override
+        public RuntimeFilter readValueFrom(StreamInput in) throws IOException {
+            return new RuntimeFilter(in);
+        }
+
+        @Override
+        public void writeValueTo(StreamOutput out, RuntimeFilter v) throws IOException {
+            v.writeTo(out);
+        }
+
+        @Override
+        public long valueBytes(RuntimeFilter value) {
+            return value == null ? 0 : value.ramBytesUsed();
+        }
+    }
+
+    private final Signature signature;
+    private final BoundSignature boundSignature;
+
+    private RuntimeFilterAggregation(Signature signature, BoundSignature boundSignature) {
+        this.signature = signature;
+        this.boundSignature = boundSignature;
+    }
+
+    @Override
+    public Signature signature() {
+        return signature;
+    }
+
+    @Override
+    public BoundSignature boundSignature() {
+        return boundSignature;
+    }
+
+    @Nullable
+    @Override
+    public RuntimeFilter newState(RamAccounting ramAccounting,
+                                  Version minNodeInCluster,
+                                  MemoryManager memoryManager) {
+        RuntimeFilter filter = new RuntimeFilter();
+        ramAccounting.addBytes(filter.ramBytesUsed());
+        return filter;
+    }
+
+    @Override
+    public RuntimeFilter iterate(RamAccounting ramAccounting,
+                                 MemoryManager memoryManager,
+                                 RuntimeFilter state,
+                                 Input<?>... args) throws CircuitBreakingException {
+        Number value = (Number) args[0].value();
+        if (value != null) {
+            if (state.numBits() == 0) {
+                int numBits = (Integer) args[1].value();
+                ramAccounting.addBytes(numBits / Byte.SIZE);
+            }
+            state.add(value.longValue(), (Integer) args[1].value());
+        }
+        return state;
+    }
+
+    @Override
+    public RuntimeFilter reduce(RamAccounting ramAccounting, RuntimeFilter state1, RuntimeFilter state2) {
+        if (state1.numBits() == 0 && state2.numBits() > 0) {
+            ramAccounting.addBytes(state2.numBits() / Byte.SIZE);
+        }
+        state1.merge(state2);
+        return state1;
+    }
+
+    @Override
+    public List<Long> terminatePartial(RamAccounting ramAccounting, RuntimeFilter state) {
+        return state.toList();
+    }
+
+    @Override
+    public DataType<?> partialType() {
+        return RuntimeFilterStateType.INSTANCE;
+    }
+
+    @Nullable
+    @Override
+    public DocValueAggregator<?> getDocValueAggregator(LuceneReferenceResolver referenceResolver,
+                                                       List<Reference> aggregationReferences,
+                                                       DocTableInfo table,
+                                                       Version shardCreatedVersion,
+                                                       List<Literal<?>> optionalParams) {
+        Reference reference = getAggReference(aggregationReferences);
+        if (reference == null || optionalParams.size() != 2 || optionalParams.get(1) == null) {
+            return null;
+        }
+        int numBits = (Integer) optionalParams.get(1).value();
+        return new SortedNumericDocValueAggregator<>(
+            reference.storageIdent(),
+            (ramAccounting, _, _) -> {
+                RuntimeFilter filter = new RuntimeFilter(numBits);
+                ramAccounting.addBytes(filter.ramBytesUsed());
+                return filter;
+            },
+            (_, values, state) -> state.add(values.nextValue())
+        );
+    }
+}
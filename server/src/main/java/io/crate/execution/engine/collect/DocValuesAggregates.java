@@ -84,6 +84,35 @@ public final class DocValuesAggregates {
                                                  LuceneQueryBuilder luceneQueryBuilder,
                                                  RoutedCollectPhase phase,
                                                  CollectTask collectTask) {
+        List<BatchIterator<Row>> iterators = tryOptimize(
+            functions,
+            referenceResolver,
+            indexShard,
+            table,
+            partitionValues,
+            luceneQueryBuilder,
+            phase,
+            collectTask,
+            1
+        );
+        return iterators == null ? null : iterators.get(0);
+    }
+
+    /**
+     * Like {@link #tryOptimize(Functions, LuceneReferenceResolver, IndexShard, DocTableInfo, List, LuceneQueryBuilder, RoutedCollectPhase, CollectTask)}
+     * but splits the segments of the shard into up to {@code maxSlices} slices.
+     * Each returned iterator aggregates one slice and emits a single row with partial results.
+     */
+    @Nullable
+    public static List<BatchIterator<Row>> tryOptimize(Functions functions,
+                                                       LuceneReferenceResolver referenceResolver,
+                                                       IndexShard indexShard,
+                                                       DocTableInfo table,
+                                                       List<String> partitionValues,
+                                                       LuceneQueryBuilder luceneQueryBuilder,
+                                                       RoutedCollectPhase phase,
+                                                       CollectTask collectTask,
+                                                       int maxSlices) {
         var shardProjections = Projections.shardProjections(phase.projections());
         AggregationProjection aggregateProjection = aggregateProjection(shardProjections);
         if (aggregateProjection == null) {
@@ -116,27 +145,43 @@ public final class DocValuesAggregates {
             collectTask.killToken()::raiseIfKilled
         );
 
-        AtomicReference<Throwable> killed = new AtomicReference<>();
-        return CollectingBatchIterator.newInstance(
-            () -> killed.set(BatchIterator.CLOSED),
-            killed::set,
-            () -> {
-                try {
-                    return CompletableFuture.completedFuture(getRow(
-                        collectTask.getRamAccounting(),
-                        collectTask.memoryManager(),
-                        collectTask.minNodeVersion(),
-                        killed,
-                        searcher.item(),
-                        queryContext.query(),
-                        aggregators
-                    ));
-                } catch (Throwable t) {
-                    return CompletableFuture.failedFuture(t);
-                }
-            },
-            true
-        );
+        List<List<LeafReaderContext>> slices = LeafSlices.create(searcher.item().getTopReaderContext().leaves(), maxSlices);
+        List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+        for (int s = 0; s < slices.size(); s++) {
+            List<LeafReaderContext> leaves = slices.get(s);
+            // Aggregators keep the doc values of the current leaf, each slice needs its own instances
+            var sliceAggregators = s == 0 ? aggregators : createAggregators(
+                functions,
+                referenceResolver,
+                aggregateProjection.aggregations(),
+                phase.toCollect(),
+                table,
+                indexShard.getVersionCreated()
+            );
+            AtomicReference<Throwable> killed = new AtomicReference<>();
+            iterators.add(CollectingBatchIterator.newInstance(
+                () -> killed.set(BatchIterator.CLOSED),
+                killed::set,
+                () -> {
+                    try {
+                        return CompletableFuture.completedFuture(getRow(
+                            collectTask.getRamAccounting(),
+                            collectTask.memoryManager(),
+                            collectTask.minNodeVersion(),
+                            killed,
+                            searcher.item(),
+                            leaves,
+                            queryContext.query(),
+                            sliceAggregators
+                        ));
+                    } catch (Throwable t) {
+                        return CompletableFuture.failedFuture(t);
+                    }
+                },
+                true
+            ));
+        }
+        return iterators;
     }
 
     @SuppressWarnings("rawtypes")
@@ -237,10 +282,10 @@ public final class DocValuesAggregates {
                                         Version minNodeVersion,
                                         AtomicReference<Throwable> killed,
                                         IndexSearcher searcher,
+                                        List<LeafReaderContext> leaves,
                                         Query query,
                                         List<DocValueAggregator> aggregators) throws IOException {
         Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
-        List<LeafReaderContext> leaves = searcher.getTopReaderContext().leaves();
         Object[] cells = new Object[aggregators.size()];
         for (int i = 0; i < aggregators.size(); i++) {
             cells[i] = aggregators.get(i).initialState(ramAccounting, memoryManager, minNodeVersion);
@@ -94,6 +94,37 @@ final class DocValuesGroupByOptimizedIterator {
                                           DocInputFactory docInputFactory,
                                           RoutedCollectPhase collectPhase,
                                           CollectTask collectTask) {
+        List<BatchIterator<Row>> iterators = tryOptimize(
+            functions,
+            referenceResolver,
+            indexShard,
+            table,
+            partitionValues,
+            luceneQueryBuilder,
+            docInputFactory,
+            collectPhase,
+            collectTask,
+            1
+        );
+        return iterators == null ? null : iterators.get(0);
+    }
+
+    /**
+     * Like {@link #tryOptimize(Functions, LuceneReferenceResolver, IndexShard, DocTableInfo, List, LuceneQueryBuilder, DocInputFactory, RoutedCollectPhase, CollectTask)}
+     * but splits the segments of the shard into up to {@code maxSlices} slices.
+     * Each returned iterator emits the partial group results of one slice.
+     */
+    @Nullable
+    static List<BatchIterator<Row>> tryOptimize(Functions functions,
+                                                LuceneReferenceResolver referenceResolver,
+                                                IndexShard indexShard,
+                                                DocTableInfo table,
+                                                List<String> partitionValues,
+                                                LuceneQueryBuilder luceneQueryBuilder,
+                                                DocInputFactory docInputFactory,
+                                                RoutedCollectPhase collectPhase,
+                                                CollectTask collectTask,
+                                                int maxSlices) {
         if (Symbols.hasColumn(collectPhase.toCollect(), SysColumns.SCORE)
             || collectPhase.where().hasColumn(SysColumns.SCORE)) {
             return null;
@@ -139,13 +170,6 @@ final class DocValuesGroupByOptimizedIterator {
         collectTask.addSearcher(sharedShardContext.readerId(), searcher);
         IndexService indexService = sharedShardContext.indexService();
 
-        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx
-            = docInputFactory.getCtx(collectTask.txnCtx());
-        List<LuceneCollectorExpression<?>> keyExpressions = new ArrayList<>();
-        for (var keyRef : columnKeyRefs) {
-            keyExpressions.add((LuceneCollectorExpression<?>) docCtx.add(keyRef));
-        }
-
         LuceneQueryBuilder.Context queryContext = luceneQueryBuilder.convert(
             collectPhase.where(),
             collectTask.txnCtx(),
@@ -157,31 +181,57 @@ final class DocValuesGroupByOptimizedIterator {
             collectTask.killToken()::raiseIfKilled
         );
 
-        if (columnKeyRefs.size() == 1) {
-            return GroupByIterator.forSingleKey(
-                aggregators,
-                searcher.item(),
-                columnKeyRefs.get(0),
-                keyExpressions,
-                collectTask.getRamAccounting(),
-                collectTask.memoryManager(),
-                collectTask.minNodeVersion(),
-                queryContext.query(),
-                new CollectorContext(sharedShardContext.readerId(), () -> StoredRowLookup.create(shardCreatedVersion, table, partitionValues))
+        List<List<LeafReaderContext>> slices = LeafSlices.create(searcher.item().getTopReaderContext().leaves(), maxSlices);
+        List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+        for (int s = 0; s < slices.size(); s++) {
+            // Aggregators and key expressions keep per-leaf state, each slice needs its own instances
+            List<DocValueAggregator> sliceAggregators = s == 0 ? aggregators : DocValuesAggregates.createAggregators(
+                functions,
+                referenceResolver,
+                groupProjection.values(),
+                collectPhase.toCollect(),
+                table,
+                shardCreatedVersion
             );
-        } else {
-            return GroupByIterator.forManyKeys(
-                aggregators,
-                searcher.item(),
-                columnKeyRefs,
-                keyExpressions,
-                collectTask.getRamAccounting(),
-                collectTask.memoryManager(),
-                collectTask.minNodeVersion(),
-                queryContext.query(),
-                new CollectorContext(sharedShardContext.readerId(), () -> StoredRowLookup.create(shardCreatedVersion, table, partitionValues))
+            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx
+                = docInputFactory.getCtx(collectTask.txnCtx());
+            List<LuceneCollectorExpression<?>> keyExpressions = new ArrayList<>();
+            for (var keyRef : columnKeyRefs) {
+                keyExpressions.add((LuceneCollectorExpression<?>) docCtx.add(keyRef));
+            }
+            CollectorContext collectorContext = new CollectorContext(
+                sharedShardContext.readerId(),
+                () -> StoredRowLookup.create(shardCreatedVersion, table, partitionValues)
             );
+            if (columnKeyRefs.size() == 1) {
+                iterators.add(GroupByIterator.forSingleKey(
+                    sliceAggregators,
+                    searcher.item(),
+                    slices.get(s),
+                    columnKeyRefs.get(0),
+                    keyExpressions,
+                    collectTask.getRamAccounting(),
+                    collectTask.memoryManager(),
+                    collectTask.minNodeVersion(),
+                    queryContext.query(),
+                    collectorContext
+                ));
+            } else {
+                iterators.add(GroupByIterator.forManyKeys(
+                    sliceAggregators,
+                    searcher.item(),
+                    slices.get(s),
+                    columnKeyRefs,
+                    keyExpressions,
+                    collectTask.getRamAccounting(),
+                    collectTask.memoryManager(),
+                    collectTask.minNodeVersion(),
+                    queryContext.query(),
+                    collectorContext
+                ));
+            }
         }
+        return iterators;
     }
 
     static final class GroupByIterator {
@@ -192,6 +242,7 @@ final class DocValuesGroupByOptimizedIterator {
         @VisibleForTesting
         static BatchIterator<Row> forSingleKey(List<DocValueAggregator> aggregators,
                                                IndexSearcher indexSearcher,
+                                               List<LeafReaderContext> leaves,
                                                Reference keyReference,
                                                List<? extends LuceneCollectorExpression<?>> keyExpressions,
                                                RamAccounting ramAccounting,
@@ -204,6 +255,7 @@ final class DocValuesGroupByOptimizedIterator {
             return GroupByIterator.getIterator(
                 aggregators,
                 indexSearcher,
+                leaves,
                 keyExpressions,
                 ramAccounting,
                 memoryManager,
@@ -220,6 +272,7 @@ final class DocValuesGroupByOptimizedIterator {
         @VisibleForTesting
         static BatchIterator<Row> forManyKeys(List<DocValueAggregator> aggregators,
                                               IndexSearcher indexSearcher,
+                                              List<LeafReaderContext> leaves,
                                               List<Reference> keyColumnRefs,
                                               List<? extends LuceneCollectorExpression<?>> keyExpressions,
                                               RamAccounting ramAccounting,
@@ -230,6 +283,7 @@ final class DocValuesGroupByOptimizedIterator {
             return GroupByIterator.getIterator(
                 aggregators,
                 indexSearcher,
+                leaves,
                 keyExpressions,
                 ramAccounting,
                 memoryManager,
@@ -259,6 +313,7 @@ final class DocValuesGroupByOptimizedIterator {
         @VisibleForTesting
         static <K> BatchIterator<Row> getIterator(List<DocValueAggregator> aggregators,
                                                   IndexSearcher indexSearcher,
+                                                  List<LeafReaderContext> leaves,
                                                   List<? extends LuceneCollectorExpression<?>> keyExpressions,
                                                   RamAccounting ramAccounting,
                                                   MemoryManager memoryManager,
@@ -283,6 +338,7 @@ final class DocValuesGroupByOptimizedIterator {
                                 applyAggregatesGroupedByKey(
                                     aggregators,
                                     indexSearcher,
+                                    leaves,
                                     keyExpressions,
                                     accountForNewKeyEntry,
                                     keyExtractor,
@@ -336,6 +392,7 @@ final class DocValuesGroupByOptimizedIterator {
         private static <K> Map<K, Object[]> applyAggregatesGroupedByKey(
             List<DocValueAggregator> aggregators,
             IndexSearcher indexSearcher,
+            List<LeafReaderContext> leaves,
             List<? extends LuceneCollectorExpression<?>> keyExpressions,
             BiConsumer<Map<K, Object[]>, K> accountForNewKeyEntry,
             Function<List<? extends LuceneCollectorExpression<?>>, K> keyExtractor,
@@ -352,7 +409,6 @@ final class DocValuesGroupByOptimizedIterator {
                 ScoreMode.COMPLETE_NO_SCORES,
                 1f
             );
-            List<LeafReaderContext> leaves = indexSearcher.getTopReaderContext().leaves();
             for (var leaf : leaves) {
                 raiseIfClosedOrKilled(killed);
                 Scorer scorer = weight.scorer(leaf);
@@ -0,0 +1,112 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.apache.lucene.index.LeafReaderContext;
+
+import io.crate.common.annotations.VisibleForTesting;
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.execution.dsl.projection.Projection;
+import io.crate.expression.symbol.AggregateMode;
+
+/**
+ * Splits the segments of a shard into slices which are collected concurrently,
+ * each by its own iterator.
+ */
+final class LeafSlices {
+
+    /**
+     * Slices with fewer documents aren't worth the overhead of an additional iterator and aggregation state.
+     */
+    static final int MIN_DOCS_PER_SLICE = 250_000;
+
+    private LeafSlices() {}
+
+    /**
+     * The results of slices can only be combined if the shard projections compute partial results
+     * which are merged by a later projection, like it's done for the results of different shards.
+     * This is the case for aggregations and group by.
+     */
+    static boolean canMerge(Collection<? extends Projection> shardProjections) {
+        if (shardProjections.size() != 1) {
+            return false;
+        }
+        Projection projection = shardProjections.iterator().next();
+        if (projection instanceof AggregationProjection aggregation) {
+            return aggregation.mode() == AggregateMode.ITER_PARTIAL;
+        }
+        if (projection instanceof GroupProjection groupProjection) {
+            return groupProjection.mode() == AggregateMode.ITER_PARTIAL;
+        }
+        return false;
+    }
+
+    static List<List<LeafReaderContext>> create(List<LeafReaderContext> leaves, int maxSlices) {
+        return create(leaves, maxSlices, MIN_DOCS_PER_SLICE);
+    }
+
+    /**
+     * Distributes the leaves onto at most {@code maxSlices} slices with a similar number of documents.
+     * Within a slice the leaves keep their original order.
+     */
+    @VisibleForTesting
+    static List<List<LeafReaderContext>> create(List<LeafReaderContext> leaves, int maxSlices, int minDocsPerSlice) {
+        long totalDocs = 0;
+        for (LeafReaderContext leaf : leaves) {
+            totalDocs += leaf.reader().maxDoc();
+        }
+        int numSlices = (int) Math.min(
+            Math.min(maxSlices, leaves.size()),
+            Math.max(1, totalDocs / Math.max(1, minDocsPerSlice))
+        );
+        if (numSlices <= 1) {
+            return List.of(leaves);
+        }
+        List<LeafReaderContext> bySizeDesc = new ArrayList<>(leaves);
+        bySizeDesc.sort(Comparator.comparingInt((LeafReaderContext leaf) -> leaf.reader().maxDoc()).reversed());
+        List<List<LeafReaderContext>> slices = new ArrayList<>(numSlices);
+        long[] docsPerSlice = new long[numSlices];
+        for (int i = 0; i < numSlices; i++) {
+            slices.add(new ArrayList<>());
+        }
+        for (LeafReaderContext leaf : bySizeDesc) {
+            int smallest = 0;
+            for (int i = 1; i < numSlices; i++) {
+                if (docsPerSlice[i] < docsPerSlice[smallest]) {
+                    smallest = i;
+                }
+            }
+            slices.get(smallest).add(leaf);
+            docsPerSlice[smallest] += leaf.reader().maxDoc();
+        }
+        for (List<LeafReaderContext> slice : slices) {
+            slice.sort(Comparator.comparingInt(leaf -> leaf.ord));
+        }
+        return slices;
+    }
+}
@@ -21,11 +21,14 @@
 
 package io.crate.execution.engine.collect;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.lucene.index.LeafReaderContext;
 import org.elasticsearch.Version;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.service.ClusterService;
@@ -123,6 +126,14 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
     protected BatchIterator<Row> getUnorderedIterator(RoutedCollectPhase collectPhase,
                                                       boolean requiresScroll,
                                                       CollectTask collectTask) {
+        return getUnorderedIterators(collectPhase, requiresScroll, collectTask, 1).get(0);
+    }
+
+    @Override
+    protected List<BatchIterator<Row>> getUnorderedIterators(RoutedCollectPhase collectPhase,
+                                                             boolean requiresScroll,
+                                                             CollectTask collectTask,
+                                                             int maxSlices) {
         ShardId shardId = indexShard.shardId();
         SharedShardContext sharedShardContext = collectTask.sharedShardContexts().getOrCreateContext(shardId);
         var searcher = sharedShardContext.acquireSearcher("unordered-iterator: " + formatSource(collectPhase));
@@ -130,7 +141,7 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
         // A closed shard has no mapper service and cannot be queried with lucene,
         // therefore skip it
         if (indexShard.isClosed()) {
-            return InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
+            return List.of(InMemoryBatchIterator.empty(SentinelRow.SENTINEL));
         }
         IndexService indexService = sharedShardContext.indexService();
         PartitionName partitionName = clusterService.state().metadata().getPartitionName(indexShard.shardId().getIndexUUID());
@@ -146,23 +157,39 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             indexService.cache(),
             collectTask.killToken()::raiseIfKilled
         );
-        InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
-            docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
-
-        return new LuceneBatchIterator(
-            searcher.item(),
-            queryContext.query(),
-            queryContext.minScore(),
-            Symbols.hasColumn(collectPhase.toCollect(), SysColumns.SCORE),
-            new CollectorContext(sharedShardContext.readerId(), () -> StoredRowLookup.create(shardCreatedVersion, table, partitionName.values())),
-            docCtx.topLevelInputs(),
-            docCtx.expressions()
-        );
+        boolean doScores = Symbols.hasColumn(collectPhase.toCollect(), SysColumns.SCORE);
+        List<List<LeafReaderContext>> slices = LeafSlices.create(searcher.item().getTopReaderContext().leaves(), maxSlices);
+        List<BatchIterator<Row>> iterators = new ArrayList<>(slices.size());
+        for (List<LeafReaderContext> leaves : slices) {
+            // Expressions keep per-leaf state, each slice needs its own instances
+            InputFactory.Context<? extends LuceneCollectorExpression<?>> docCtx =
+                docInputFactory.extractImplementations(collectTask.txnCtx(), collectPhase);
+            iterators.add(new LuceneBatchIterator(
+                searcher.item(),
+                leaves,
+                queryContext.query(),
+                queryContext.minScore(),
+                doScores,
+                new CollectorContext(sharedShardContext.readerId(), () -> StoredRowLookup.create(shardCreatedVersion, table, partitionName.values())),
+                docCtx.topLevelInputs(),
+                docCtx.expressions()
+            ));
+        }
+        return iterators;
     }
 
     @Nullable
     @Override
     protected BatchIterator<Row> getProjectionFusedIterator(RoutedCollectPhase normalizedPhase, CollectTask collectTask) {
+        List<BatchIterator<Row>> iterators = getProjectionFusedIterators(normalizedPhase, collectTask, 1);
+        return iterators == null ? null : iterators.get(0);
+    }
+
+    @Nullable
+    @Override
+    protected List<BatchIterator<Row>> getProjectionFusedIterators(RoutedCollectPhase normalizedPhase,
+                                                                   CollectTask collectTask,
+                                                                   int maxSlices) {
         PartitionName partitionName = clusterService.state().metadata().getPartitionName(indexShard.shardId().getIndexUUID());
         DocTableInfo table = nodeCtx.schemas().getTableInfo(partitionName.relationName());
         var it = GroupByOptimizedIterator.tryOptimizeSingleStringKey(
@@ -177,9 +204,9 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             collectTask
         );
         if (it != null) {
-            return it;
+            return List.of(it);
         }
-        it = DocValuesGroupByOptimizedIterator.tryOptimize(
+        var iterators = DocValuesGroupByOptimizedIterator.tryOptimize(
             nodeCtx.functions(),
             referenceResolver,
             indexShard,
@@ -188,10 +215,11 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             luceneQueryBuilder,
             docInputFactory,
             normalizedPhase,
-            collectTask
+            collectTask,
+            maxSlices
         );
-        if (it != null) {
-            return it;
+        if (iterators != null) {
+            return iterators;
         }
         return DocValuesAggregates.tryOptimize(
             nodeCtx.functions(),
@@ -201,7 +229,8 @@ public class LuceneShardCollectorProvider extends ShardCollectorProvider {
             partitionName.values(),
             luceneQueryBuilder,
             normalizedPhase,
-            collectTask
+            collectTask,
+            maxSlices
         );
     }
 
@@ -25,6 +25,9 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -33,8 +36,10 @@ import java.util.UUID;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
+import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
@@ -44,10 +49,13 @@ import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardNotFoundException;
+import org.elasticsearch.indices.IndicesRowCache;
 import org.elasticsearch.indices.IndicesService;
 import org.jspecify.annotations.Nullable;
 
+import io.crate.breaker.TypedCellsAccounting;
 import io.crate.common.CheckedFunction;
+import io.crate.common.collections.Lists;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
 import io.crate.data.CompositeBatchIterator;
@@ -65,15 +73,22 @@ import io.crate.expression.reference.Doc;
 import io.crate.expression.reference.doc.lucene.StoredRow;
 import io.crate.expression.reference.doc.lucene.StoredRowLookup;
 import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
 import io.crate.memory.MemoryManager;
 import io.crate.metadata.PartitionName;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.doc.DocTableInfo;
+import io.crate.metadata.doc.SysColumns;
 import io.crate.planner.operators.PKAndVersion;
 
 public final class PKLookupOperation {
 
+    /**
+     * Number of documents per shard resolved using a single {@link IndexShard#multiGet(List)}
+     */
+    static final int LOOKUP_BATCH_SIZE = 1000;
+
     private final IndicesService indicesService;
     private final ShardCollectSource shardCollectSource;
 
@@ -141,6 +156,129 @@ public final class PKLookupOperation {
         }
     }
 
+    /// Batched variant of [#withDoc] for multiple documents of a shard.
+    ///
+    /// The documents are resolved using [IndexShard#multiGet]: Only recently written
+    /// documents are read from the translog, all others are looked up in the sorted
+    /// order of their uids using a single searcher. The documents are then processed
+    /// in doc id order, re-using the stored fields readers of the segments.
+    ///
+    /// If `rowCache` is enabled for the shard, the decoded rows of documents from the index
+    /// are taken from and added to the cache.
+    ///
+    /// Like with [#withDoc], the documents must be fully consumed within `processDoc`.
+    /// Unlike [#withDoc], `processDoc` isn't called for missing documents.
+    ///
+    /// @return the non-null results of `processDoc` in the order of `pkAndVersions`
+    public static <T> List<T> withDocs(IndexShard shard,
+                                       List<PKAndVersion> pkAndVersions,
+                                       VersionType versionType,
+                                       DocTableInfo table,
+                                       List<String> partitionValues,
+                                       List<Symbol> columns,
+                                       @Nullable IndicesRowCache rowCache,
+                                       CheckedFunction<Doc, T, Exception> processDoc) {
+        List<Engine.Get> gets = new ArrayList<>(pkAndVersions.size());
+        for (PKAndVersion pkAndVersion : pkAndVersions) {
+            gets.add(new Engine.Get(
+                pkAndVersion.id(),
+                Uid.encodeId(pkAndVersion.id()),
+                pkAndVersion.version(),
+                versionType,
+                pkAndVersion.seqNo(),
+                pkAndVersion.primaryTerm()
+            ));
+        }
+        try (Engine.MultiGetResult multiGetResult = shard.multiGet(gets)) {
+            Engine.GetResult[] results = multiGetResult.results();
+            // Documents from the index ordered by doc id, followed by those from the translog
+            Integer[] order = IntStream.range(0, results.length)
+                .filter(i -> results[i].docIdAndVersion() != null)
+                .boxed()
+                .sorted(Comparator
+                    .comparing((Integer i) -> results[i].fromTranslog())
+                    .thenComparingInt(i -> results[i].docIdAndVersion().docBase + results[i].docIdAndVersion().docId))
+                .toArray(Integer[]::new);
+
+            // The cached rows contain all columns, `_raw` can't be served from them
+            boolean cacheRows = rowCache != null
+                && rowCache.isEnabled(shard)
+                && Symbols.hasColumn(columns, SysColumns.RAW) == false;
+            ArrayList<T> processed = new ArrayList<>(Collections.nCopies(results.length, null));
+            Map<LeafReader, ReaderContext> readerContexts = new IdentityHashMap<>();
+            StoredRowLookup indexRowLookup = null;
+            StoredRowLookup translogRowLookup = null;
+            for (int position : order) {
+                Engine.GetResult getResult = results[position];
+                var docIdAndVersion = getResult.docIdAndVersion();
+                StoredRowLookup storedRowLookup;
+                ReaderContext context;
+                if (getResult.fromTranslog()) {
+                    if (translogRowLookup == null) {
+                        translogRowLookup = StoredRowLookup.create(
+                            shard.getVersionCreated(), table, partitionValues, columns, true);
+                    }
+                    storedRowLookup = translogRowLookup;
+                    context = new ReaderContext(docIdAndVersion.reader.getContext());
+                } else {
+                    if (indexRowLookup == null) {
+                        if (cacheRows) {
+                            indexRowLookup = StoredRowLookup.create(
+                                shard.getVersionCreated(), table, partitionValues, List.of(), false);
+                            indexRowLookup.registerAll();
+                        } else {
+                            indexRowLookup = StoredRowLookup.create(
+                                shard.getVersionCreated(), table, partitionValues, columns, false);
+                        }
+                    }
+                    storedRowLookup = indexRowLookup;
+                    context = readerContexts.get(docIdAndVersion.reader);
+                    if (context == null) {
+                        context = new ReaderContext(docIdAndVersion.reader.getContext());
+                        readerContexts.put(docIdAndVersion.reader, context);
+                    }
+                }
+                StoredRow storedRow = storedRowLookup.getStoredRow(context, docIdAndVersion.docId);
+                if (cacheRows && getResult.fromTranslog() == false) {
+                    BytesRef uid = gets.get(position).uid();
+                    Map<String, Object> row = rowCache.get(
+                        shard, uid, docIdAndVersion.seqNo, docIdAndVersion.primaryTerm, table.tableVersion());
+                    if (row == null) {
+                        row = storedRow.asMap();
+                        rowCache.put(
+                            shard, uid, docIdAndVersion.seqNo, docIdAndVersion.primaryTerm, table.tableVersion(), row);
+                    }
+                    storedRow = new CachedRow(row);
+                }
+                Doc doc = new Doc(
+                    docIdAndVersion.docId,
+                    partitionValues,
+                    pkAndVersions.get(position).id(),
+                    docIdAndVersion.version,
+                    docIdAndVersion.seqNo,
+                    docIdAndVersion.primaryTerm,
+                    storedRow
+                );
+                processed.set(position, processDoc.apply(doc));
+            }
+            processed.removeIf(Objects::isNull);
+            return processed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (Throwable t) {
+            throw Exceptions.toRuntimeException(t);
+        }
+    }
+
+    /// A row from the [IndicesRowCache], shared with other lookups
+    private record CachedRow(Map<String, Object> asMap) implements StoredRow {
+
+        @Override
+        public String asRaw() {
+            throw new UnsupportedOperationException("Cached rows don't provide the raw source");
+        }
+    }
+
     public BatchIterator<Row> lookup(UUID jobId,
                                      TransactionContext txnCtx,
                                      Supplier<RamAccounting> ramAccountingSupplier,
@@ -175,27 +313,8 @@ public final class PKLookupOperation {
             PartitionName partitionName = getPartitionName.apply(indexUUID);
             DocTableInfo table = getTableInfo.apply(partitionName.relationName());
 
-            Stream<Row> rowStream = idsByShardEntry.getValue().stream()
-                .map(pkAndVersion -> withDoc(
-                    shard,
-                    pkAndVersion.id(),
-                    pkAndVersion.version(),
-                    VersionType.EXTERNAL,
-                    pkAndVersion.seqNo(),
-                    pkAndVersion.primaryTerm(),
-                    table,
-                    partitionName.values(),
-                    columns,
-                    doc -> doc == null ? null : resultToRow.apply(doc)
-                ))
-                .filter(Objects::nonNull);
-
-            if (projections.isEmpty()) {
-                final Iterable<Row> rowIterable = requiresScroll
-                    ? rowStream.map(row -> new RowN(row.materialize())).collect(Collectors.toList())
-                    : rowStream::iterator;
-                iterators.add(InMemoryBatchIterator.of(rowIterable, SentinelRow.SENTINEL, true));
-            } else {
+            Projectors projectors = null;
+            if (!projections.isEmpty()) {
                 ProjectorFactory projectorFactory;
                 try {
                     projectorFactory = shardCollectSource.getProjectorFactory(shardId);
@@ -205,18 +324,47 @@ public final class PKLookupOperation {
                     }
                     throw e;
                 }
-                Projectors projectors = new Projectors(
+                projectors = new Projectors(
                     projections,
                     jobId,
                     txnCtx,
                     ramAccountingSupplier.get(),
                     memoryManagerSupplier.get(),
                     projectorFactory);
-                final Iterable<Row> rowIterable = requiresScroll && !projectors.providesIndependentScroll()
-                    ? rowStream.map(row -> new RowN(row.materialize())).collect(Collectors.toList())
-                    : rowStream::iterator;
-                iterators.add(projectors.wrap(InMemoryBatchIterator.of(rowIterable, SentinelRow.SENTINEL, true)));
             }
+
+            // Rows are materialized as the engine resources are released after each batch.
+            // They're accounted until the next batch is loaded, or until the end of the
+            // operation if they're collected to support scrolling.
+            boolean collectRows = requiresScroll && (projectors == null || !projectors.providesIndependentScroll());
+            var rowAccounting = new TypedCellsAccounting(Symbols.typeView(columns), ramAccountingSupplier.get(), 0);
+            List<PKAndVersion> pkAndVersions = List.copyOf(idsByShardEntry.getValue());
+            Stream<Row> rowStream = Lists.partition(pkAndVersions, LOOKUP_BATCH_SIZE).stream()
+                .flatMap(batch -> {
+                    if (!collectRows) {
+                        rowAccounting.release();
+                    }
+                    return withDocs(
+                        shard,
+                        batch,
+                        VersionType.EXTERNAL,
+                        table,
+                        partitionName.values(),
+                        columns,
+                        indicesService.rowCache(),
+                        doc -> {
+                            Object[] cells = resultToRow.apply(doc).materialize();
+                            rowAccounting.accountForAndMaybeBreak(cells);
+                            return new RowN(cells);
+                        }
+                    ).stream();
+                });
+
+            final Iterable<Row> rowIterable = collectRows
+                ? rowStream.collect(Collectors.toList())
+                : rowStream::iterator;
+            BatchIterator<Row> rows = InMemoryBatchIterator.of(rowIterable, SentinelRow.SENTINEL, true);
+            iterators.add(projectors == null ? rows : projectors.wrap(rows));
         }
         return CompositeBatchIterator.seqComposite(iterators);
     }
@@ -21,6 +21,9 @@
 
 package io.crate.execution.engine.collect;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -38,6 +41,7 @@ import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.SentinelRow;
 import io.crate.execution.dsl.phases.RoutedCollectPhase;
+import io.crate.execution.dsl.projection.Projection;
 import io.crate.execution.dsl.projection.Projections;
 import io.crate.execution.engine.collect.collectors.OrderedDocCollector;
 import io.crate.execution.engine.export.FileOutputFactory;
@@ -102,33 +106,56 @@ public abstract class ShardCollectorProvider {
         public BatchIterator<Row> getIterator(RoutedCollectPhase collectPhase,
                                               boolean requiresScroll,
                                               CollectTask collectTask) {
+            List<BatchIterator<Row>> iterators = getIterators(collectPhase, requiresScroll, collectTask, 1);
+            assert iterators.size() == 1 : "Must return a single iterator if maxSlices is 1";
+            return iterators.get(0);
+        }
+
+        /**
+         * Like {@link #getIterator(RoutedCollectPhase, boolean, CollectTask)} but may split the shard into
+         * up to {@code maxSlices} slices of segments, returning one iterator per slice.
+         * The iterators can be consumed concurrently and their results must be merged by a later projection.
+         * Slicing is only used if the shard projections produce partial results which can be merged.
+         */
+        public List<BatchIterator<Row>> getIterators(RoutedCollectPhase collectPhase,
+                                                     boolean requiresScroll,
+                                                     CollectTask collectTask,
+                                                     int maxSlices) {
             assert collectPhase.orderBy() == null
                 : "getDocCollector shouldn't be called if there is an orderBy on the collectPhase";
             assert collectPhase.maxRowGranularity() == RowGranularity.DOC :
                 "granularity must be DOC";
 
+            Collection<? extends Projection> shardProjections = Projections.shardProjections(collectPhase.projections());
+            if (requiresScroll || !LeafSlices.canMerge(shardProjections)) {
+                maxSlices = 1;
+            }
             boolean isOpenIndex = !indexShard.isClosed();
             if (isOpenIndex) {
-                BatchIterator<Row> fusedIterator = getProjectionFusedIterator(collectPhase, collectTask);
-                if (fusedIterator != null) {
-                    return fusedIterator;
+                List<BatchIterator<Row>> fusedIterators = getProjectionFusedIterators(collectPhase, collectTask, maxSlices);
+                if (fusedIterators != null) {
+                    return fusedIterators;
                 }
             }
-            final BatchIterator<Row> iterator;
+            final List<BatchIterator<Row>> iterators;
             if (isOpenIndex && WhereClause.canMatch(collectPhase.where())) {
-                iterator = getUnorderedIterator(collectPhase, requiresScroll, collectTask);
+                iterators = getUnorderedIterators(collectPhase, requiresScroll, collectTask, maxSlices);
             } else {
-                iterator = InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
+                iterators = List.of(InMemoryBatchIterator.empty(SentinelRow.SENTINEL));
+            }
+            List<BatchIterator<Row>> result = new ArrayList<>(iterators.size());
+            for (BatchIterator<Row> iterator : iterators) {
+                result.add(Projectors.wrap(
+                    shardProjections,
+                    collectPhase.jobId(),
+                    collectTask.txnCtx(),
+                    collectTask.getRamAccounting(),
+                    collectTask.memoryManager(),
+                    projectorFactory,
+                    iterator
+                ));
             }
-            return Projectors.wrap(
-                Projections.shardProjections(collectPhase.projections()),
-                collectPhase.jobId(),
-                collectTask.txnCtx(),
-                collectTask.getRamAccounting(),
-                collectTask.memoryManager(),
-                projectorFactory,
-                iterator
-            );
+            return result;
         }
 
         public OrderedDocCollector getOrderedCollector(RoutedCollectPhase collectPhase,
@@ -165,6 +192,29 @@ public abstract class ShardCollectorProvider {
                                                                boolean requiresScroll,
                                                                CollectTask collectTask);
 
+    /**
+     * Variant of {@link #getProjectionFusedIterator(RoutedCollectPhase, CollectTask)} which may return
+     * up to {@code maxSlices} iterators, each covering a subset of the shard.
+     */
+    @Nullable
+    protected List<BatchIterator<Row>> getProjectionFusedIterators(RoutedCollectPhase normalizedPhase,
+                                                                   CollectTask collectTask,
+                                                                   int maxSlices) {
+        BatchIterator<Row> fusedIterator = getProjectionFusedIterator(normalizedPhase, collectTask);
+        return fusedIterator == null ? null : List.of(fusedIterator);
+    }
+
+    /**
+     * Variant of {@link #getUnorderedIterator(RoutedCollectPhase, boolean, CollectTask)} which may return
+     * up to {@code maxSlices} iterators, each covering a subset of the shard.
+     */
+    protected List<BatchIterator<Row>> getUnorderedIterators(RoutedCollectPhase collectPhase,
+                                                             boolean requiresScroll,
+                                                             CollectTask collectTask,
+                                                             int maxSlices) {
+        return List.of(getUnorderedIterator(collectPhase, requiresScroll, collectTask));
+    }
+
     protected abstract OrderedDocCollector getOrderedCollector(RoutedCollectPhase collectPhase,
                                                                SharedShardContext sharedShardContext,
                                                                CollectTask collectTask,
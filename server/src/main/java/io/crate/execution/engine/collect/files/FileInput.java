@@ -38,6 +38,26 @@ public interface FileInput extends AutoCloseable {
 
     InputStream getStream(URI uri) throws IOException;
 
+    /**
+     * Returns the size of the file in bytes if the input supports reading byte ranges of it
+     * via {@link #getStream(URI, long)}.
+     *
+     * @return the size in bytes or -1 if unknown or if the file cannot be read in ranges
+     */
+    default long size(URI uri) throws IOException {
+        return -1;
+    }
+
+    /**
+     * Returns a stream which starts at the given byte position of the file.
+     * Only used for files for which {@link #size(URI)} returns a size.
+     */
+    default InputStream getStream(URI uri, long position) throws IOException {
+        InputStream stream = getStream(uri);
+        stream.skipNBytes(position);
+        return stream;
+    }
+
     boolean isGlobbed();
 
     URI uri();
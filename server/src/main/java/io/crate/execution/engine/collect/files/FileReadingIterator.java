@@ -22,6 +22,7 @@
 package io.crate.execution.engine.collect.files;
 
 import static io.crate.analyze.CopyStatementSettings.FAIL_FAST_SETTING;
+import static io.crate.analyze.CopyStatementSettings.INPUT_FORMAT_SETTING;
 import static io.crate.common.exceptions.Exceptions.rethrowUnchecked;
 
 import java.io.BufferedReader;
@@ -34,8 +35,10 @@ import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -55,6 +58,10 @@ import io.crate.common.annotations.VisibleForTesting;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.common.unit.TimeValue;
 import io.crate.data.BatchIterator;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.dsl.phases.FileUriCollectPhase.InputFormat;
+import io.crate.execution.engine.collect.files.parquet.ParquetFile;
+import io.crate.execution.engine.collect.files.parquet.RowGroupReader;
 
 /**
  * BatchIterator to read lines from one or more {@link URI}s.
@@ -78,6 +85,18 @@ import io.crate.data.BatchIterator;
  * {@link #currentElement()} can be used in a "off-position", before the first {@link #moveNext()} call
  * to gain early access to the cursor.
  * </p>
+ *
+ * <p>
+ * If a split size is given, uncompressed files of inputs which support reading byte ranges are split
+ * into ranges aligned to line boundaries (see {@link LineRangeInputStream}). The ranges are distributed
+ * across all readers - and across the threads of each reader - like whole files are.
+ * Line numbers of a range start at the beginning of the range.
+ * </p>
+ *
+ * <p>
+ * Parquet files are read by row groups instead of lines, see {@link ParquetFile}. The row groups are distributed
+ * like the ranges of split files and the rows are exposed as already parsed {@link LineCursor#values()}.
+ * </p>
  */
 public class FileReadingIterator implements BatchIterator<FileReadingIterator.LineCursor> {
 
@@ -86,6 +105,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     static final int MAX_SOCKET_TIMEOUT_RETRIES = 5;
 
     private static final Predicate<URI> MATCH_ALL_PREDICATE = (URI _) -> true;
+    private static final Predicate<String> MATCH_ALL_COLUMNS = _ -> true;
 
     private final Map<String, FileInputFactory> fileInputFactories;
     private final Boolean shared;
@@ -94,13 +114,26 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     private final boolean compressed;
     private final boolean failFast;
     private final List<FileInput> fileInputs;
+    private final long splitSize;
+    private final int numThreads;
+    private final int threadNumber;
+    private final Predicate<URI> hasHeader;
+    private final boolean parquet;
+    private final Predicate<String> readColumn;
+    private final RamAccounting ramAccounting;
 
     private volatile Throwable killed;
 
     private Iterator<FileInput> fileInputsIterator = null;
     private FileInput currentInput = null;
-    private Iterator<URI> currentInputUriIterator = null;
+    private Iterator<Split> currentSplitIterator = null;
+    private Split currentSplit = null;
     private BufferedReader currentReader = null;
+    @Nullable
+    private RowGroupReader currentRowGroup = null;
+    private boolean firstSplit = true;
+    @Nullable
+    private String pendingHeader = null;
 
     @VisibleForTesting
     long watermark;
@@ -113,15 +146,25 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         private URI uri;
         private long lineNumber;
         private String line;
+        private LinkedHashMap<String, Object> values;
         private IOException failure;
 
         public LineCursor() {
         }
 
         public LineCursor(URI uri, long lineNumber, @Nullable String line, @Nullable IOException failure) {
+            this(uri, lineNumber, line, null, failure);
+        }
+
+        public LineCursor(URI uri,
+                          long lineNumber,
+                          @Nullable String line,
+                          @Nullable LinkedHashMap<String, Object> values,
+                          @Nullable IOException failure) {
             this.uri = uri;
             this.lineNumber = lineNumber;
             this.line = line;
+            this.values = values;
             this.failure = failure;
         }
 
@@ -138,6 +181,14 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return line;
         }
 
+        /**
+         * The values of the current row if the file is read by rows instead of lines. The line is null in that case.
+         */
+        @Nullable
+        public LinkedHashMap<String, Object> values() {
+            return values;
+        }
+
         @Nullable
         public IOException failure() {
             return failure;
@@ -145,17 +196,18 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
         @VisibleForTesting
         public LineCursor copy() {
-            return new LineCursor(uri, lineNumber, line, failure);
+            return new LineCursor(uri, lineNumber, line, values, failure);
         }
 
         @Override
         public String toString() {
-            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", failure=" + failure + "}";
+            return "LineCursor{" + uri + ":" + lineNumber + ":line=" + line + ", values=" + values
+                + ", failure=" + failure + "}";
         }
 
         @Override
         public int hashCode() {
-            return Objects.hash(uri, lineNumber, line, failure);
+            return Objects.hash(uri, lineNumber, line, values, failure);
         }
 
         @Override
@@ -173,10 +225,32 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             return Objects.equals(uri, other.uri)
                 && lineNumber == other.lineNumber
                 && Objects.equals(line, other.line)
+                && Objects.equals(values, other.values)
                 && Objects.equals(failure, other.failure);
         }
     }
 
+    /**
+     * A byte range of a file or a row group of a Parquet file.
+     *
+     * @param end end of the range (exclusive) or -1 to read the whole file
+     * @param parquetFile the Parquet file the row group belongs to, null for text files
+     */
+    private record Split(URI uri, long start, long end, @Nullable ParquetFile parquetFile, int rowGroup) {
+
+        Split(URI uri, long start, long end) {
+            this(uri, start, end, null, -1);
+        }
+
+        static Split wholeFile(URI uri) {
+            return new Split(uri, 0, -1);
+        }
+
+        static Split rowGroup(ParquetFile parquetFile, int rowGroup) {
+            return new Split(parquetFile.uri(), 0, -1, parquetFile, rowGroup);
+        }
+    }
+
     public FileReadingIterator(Collection<URI> fileUris,
                                String compression,
                                Map<String, FileInputFactory> fileInputFactories,
@@ -185,6 +259,33 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                                int readerNumber,
                                Settings withClauseOptions,
                                ScheduledExecutorService scheduler) {
+        this(fileUris, compression, fileInputFactories, shared, numReaders, readerNumber, withClauseOptions, scheduler,
+            0, 1, 0, _ -> false, List.of(), RamAccounting.NO_ACCOUNTING);
+    }
+
+    /**
+     * @param splitSize size in bytes of the ranges large files are split into. 0 to disable splitting.
+     * @param numThreads number of iterators reading the files on this node, each using a different threadNumber.
+     * @param hasHeader matches files whose first line is a header. If the first range read by this iterator
+     *                  doesn't start at the beginning of such a file, the header line is emitted first.
+     * @param targetColumns the columns to read from Parquet files. All columns are read if empty.
+     * @param ramAccounting accounts the column chunks of the Parquet row group which is currently read.
+     */
+    public FileReadingIterator(Collection<URI> fileUris,
+                               String compression,
+                               Map<String, FileInputFactory> fileInputFactories,
+                               Boolean shared,
+                               int numReaders,
+                               int readerNumber,
+                               Settings withClauseOptions,
+                               ScheduledExecutorService scheduler,
+                               long splitSize,
+                               int numThreads,
+                               int threadNumber,
+                               Predicate<URI> hasHeader,
+                               List<String> targetColumns,
+                               RamAccounting ramAccounting) {
+        assert threadNumber < numThreads : "threadNumber must be less than numThreads";
         this.compressed = "gzip".equalsIgnoreCase(compression)
             || (compression == null && fileUris.stream().allMatch(uri -> uri.toString().endsWith(".gz")));
         this.fileInputFactories = fileInputFactories;
@@ -195,6 +296,13 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         this.readerNumber = readerNumber;
         this.scheduler = scheduler;
         this.backOffPolicy = BackoffPolicy.exponentialBackoff(TimeValue.ZERO, MAX_SOCKET_TIMEOUT_RETRIES).iterator();
+        this.splitSize = splitSize;
+        this.numThreads = numThreads;
+        this.threadNumber = threadNumber;
+        this.hasHeader = hasHeader;
+        this.parquet = InputFormat.PARQUET.name().equalsIgnoreCase(INPUT_FORMAT_SETTING.get(withClauseOptions));
+        this.readColumn = targetColumns.isEmpty() ? MATCH_ALL_COLUMNS : targetColumns::contains;
+        this.ramAccounting = ramAccounting;
 
         this.fileInputs = fileUris.stream()
             .map(uri -> toFileInput(uri, withClauseOptions))
@@ -218,6 +326,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         raiseIfKilled();
         reset();
         watermark = 0;
+        firstSplit = true;
         fileInputsIterator = fileInputs.iterator();
     }
 
@@ -225,7 +334,23 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
     public boolean moveNext() {
         raiseIfKilled();
         try {
-            if (currentReader != null) {
+            if (currentRowGroup != null) {
+                LinkedHashMap<String, Object> row = currentRowGroup.nextRow();
+                if (row == null) {
+                    closeReader();
+                    return moveNext();
+                }
+                cursor.lineNumber++;
+                cursor.values = row;
+                cursor.failure = null;
+                return true;
+            } else if (currentReader != null) {
+                if (pendingHeader != null) {
+                    cursor.line = pendingHeader;
+                    cursor.failure = null;
+                    pendingHeader = null;
+                    return true;
+                }
                 String line;
                 try {
                     line = getLine(currentReader);
@@ -242,8 +367,8 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
                 cursor.line = line;
                 cursor.failure = null;
                 return true;
-            } else if (currentInputUriIterator != null && currentInputUriIterator.hasNext()) {
-                advanceToNextUri(currentInput);
+            } else if (currentSplitIterator != null && currentSplitIterator.hasNext()) {
+                advanceToNextSplit(currentInput);
                 return moveNext();
             } else if (fileInputsIterator != null && fileInputsIterator.hasNext()) {
                 boolean advanced = advanceToNextFileInput();
@@ -259,6 +384,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             }
         } catch (IOException e) {
             cursor.failure = e;
+            cursor.values = null;
             closeReader();
             if (failFast) {
                 // Treat IO error as a data error on fail_fast and stop consuming other URI-s.
@@ -274,18 +400,43 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         }
     }
 
-    private void advanceToNextUri(FileInput fileInput) throws IOException {
+    private void advanceToNextSplit(FileInput fileInput) throws IOException {
         watermark = 0;
-        createReader(fileInput, currentInputUriIterator.next());
+        currentSplit = currentSplitIterator.next();
+        createReader(fileInput, currentSplit);
+        firstSplit = false;
     }
 
     private boolean advanceToNextFileInput() throws IOException {
         currentInput = fileInputsIterator.next();
         List<URI> allUris = currentInput.expandUri();
-        List<URI> filteredUris = allUris.stream().filter(this::shouldBeReadByCurrentNode).toList();
-        if (filteredUris.isEmpty() == false) {
-            currentInputUriIterator = filteredUris.iterator();
-            advanceToNextUri(currentInput);
+        List<Split> splits = new ArrayList<>();
+        for (URI uri : allUris) {
+            if (parquet || ParquetFile.isParquet(uri)) {
+                ParquetFile parquetFile = ParquetFile.open(currentInput, uri);
+                for (int i = 0; i < parquetFile.numRowGroups(); i++) {
+                    if (shouldBeReadByCurrentReader(uri, i)) {
+                        splits.add(Split.rowGroup(parquetFile, i));
+                    }
+                }
+                continue;
+            }
+            long size = splitSize > 0 && compressed == false ? currentInput.size(uri) : -1;
+            if (size > splitSize) {
+                int numSplits = Math.toIntExact((size + splitSize - 1) / splitSize);
+                for (int i = 0; i < numSplits; i++) {
+                    if (shouldBeReadByCurrentReader(uri, i)) {
+                        long start = i * splitSize;
+                        splits.add(new Split(uri, start, Math.min(start + splitSize, size)));
+                    }
+                }
+            } else if (shouldBeReadByCurrentReader(uri, 0)) {
+                splits.add(Split.wholeFile(uri));
+            }
+        }
+        if (splits.isEmpty() == false) {
+            currentSplitIterator = splits.iterator();
+            advanceToNextSplit(currentInput);
             return true;
         } else if (currentInput.isGlobbed()) {
             URI uri = currentInput.uri();
@@ -303,24 +454,50 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
         return false;
     }
 
-    private boolean shouldBeReadByCurrentNode(URI uri) {
+    private boolean shouldBeReadByCurrentReader(URI uri, int splitNumber) {
         boolean sharedStorage = Objects.requireNonNullElse(shared, currentInput.sharedStorageDefault());
         if (sharedStorage) {
-            return moduloPredicateImpl(uri, this.readerNumber, this.numReaders);
+            return moduloPredicateImpl(
+                uri,
+                splitNumber,
+                this.readerNumber * this.numThreads + this.threadNumber,
+                this.numReaders * this.numThreads
+            );
+        } else if (numThreads > 1) {
+            return moduloPredicateImpl(uri, splitNumber, this.threadNumber, this.numThreads);
         } else {
             return MATCH_ALL_PREDICATE.test(uri);
         }
     }
 
-    private void createReader(FileInput fileInput, URI uri) throws IOException {
+    private void createReader(FileInput fileInput, Split split) throws IOException {
+        URI uri = split.uri();
         cursor.uri = uri;
         cursor.lineNumber = 0;
-        InputStream stream = fileInput.getStream(uri);
-        currentReader = createBufferedReader(stream);
+        cursor.values = null;
+        if (split.parquetFile() != null) {
+            currentRowGroup = split.parquetFile().readRowGroup(split.rowGroup(), readColumn, ramAccounting);
+            return;
+        }
+        if (split.end() == -1) {
+            currentReader = createBufferedReader(fileInput.getStream(uri));
+            return;
+        }
+        if (firstSplit && split.start() > 0 && hasHeader.test(uri)) {
+            try (BufferedReader headerReader = createBufferedReader(fileInput.getStream(uri))) {
+                pendingHeader = headerReader.readLine();
+            }
+        }
+        InputStream stream = fileInput.getStream(uri, LineRangeInputStream.streamPosition(split.start()));
+        currentReader = createBufferedReader(new LineRangeInputStream(stream, split.start(), split.end()));
     }
 
     @VisibleForTesting
     void closeReader() {
+        if (currentRowGroup != null) {
+            currentRowGroup.close();
+            currentRowGroup = null;
+        }
         if (currentReader != null) {
             try {
                 currentReader.close();
@@ -350,7 +527,7 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
             if (backOffPolicy.hasNext()) {
                 watermark = watermark == 0 ? cursor.lineNumber + 1 : watermark;
                 closeReader();
-                createReader(currentInput, cursor.uri);
+                createReader(currentInput, currentSplit);
             } else {
                 URI uri = currentInput.uri();
                 LOGGER.error("Timeout during COPY FROM '" + uri.toString() +
@@ -377,7 +554,9 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
     private void reset() {
         fileInputsIterator = null;
-        currentInputUriIterator = null;
+        currentSplitIterator = null;
+        currentSplit = null;
+        pendingHeader = null;
         if (currentInput != null) {
             currentInput.close();
         }
@@ -447,11 +626,20 @@ public class FileReadingIterator implements BatchIterator<FileReadingIterator.Li
 
     @VisibleForTesting
     public static boolean moduloPredicateImpl(URI input, int readerNumber, int numReaders) {
+        return moduloPredicateImpl(input, 0, readerNumber, numReaders);
+    }
+
+    /**
+     * Assigns the consecutive splits of a file round-robin to the readers,
+     * starting with the reader of the whole file.
+     */
+    @VisibleForTesting
+    static boolean moduloPredicateImpl(URI input, int splitNumber, int readerNumber, int numReaders) {
         int hash = input.hashCode();
         if (hash == Integer.MIN_VALUE) {
             hash = 0; // Math.abs(Integer.MIN_VALUE) == Integer.MIN_VALUE
         }
-        return Math.abs(hash) % numReaders == readerNumber;
+        return (Math.abs(hash) + (long) splitNumber) % numReaders == readerNumber;
     }
 
     private void raiseIfKilled() {
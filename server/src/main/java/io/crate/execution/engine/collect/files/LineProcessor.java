@@ -25,6 +25,7 @@ import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
 import java.util.List;
 
 import io.crate.analyze.CopyFromParserProperties;
@@ -97,7 +98,7 @@ public final class LineProcessor extends MappedForwardingBatchIterator<LineCurso
         }
     }
 
-    private static boolean isCSV(FileUriCollectPhase.InputFormat inputFormat, URI currentUri) {
+    public static boolean isCSV(FileUriCollectPhase.InputFormat inputFormat, URI currentUri) {
         return (inputFormat == FileUriCollectPhase.InputFormat.CSV) || currentUri.toString().endsWith(".csv");
     }
 
@@ -106,6 +107,12 @@ public final class LineProcessor extends MappedForwardingBatchIterator<LineCurso
         try {
             while (source.moveNext()) {
                 LineCursor cursor = source.currentElement();
+                LinkedHashMap<String, Object> values = cursor.values();
+                if (values != null) {
+                    lineContext.resetCurrentParsingFailure();
+                    lineContext.parsedSource(values);
+                    return true;
+                }
                 String line = cursor.line();
                 if (line == null) {
                     assert cursor.failure() != null : "If the line is null, there must be a failure";
@@ -0,0 +1,153 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Exposes the lines of a byte range of a file.
+ *
+ * <p>
+ * A line belongs to the range containing its first byte:
+ * If the range doesn't start at the beginning of the file, the partial line before the first line
+ * feed is skipped, it is read by the preceding range. Reading continues past the end of the range
+ * up to the line feed terminating the last line which started within the range.
+ * </p>
+ *
+ * <p>
+ * Splitting on the line feed byte is safe for UTF-8 as it never occurs within a multi-byte sequence.
+ * </p>
+ */
+final class LineRangeInputStream extends InputStream {
+
+    private static final int LINE_FEED = '\n';
+
+    private final InputStream in;
+    private final long end;
+    private long position;
+    private int lastByte = -1;
+    private boolean skipPartialLine;
+    private boolean eof = false;
+
+    /**
+     * @param in stream positioned one byte before {@code start}, or at the beginning of the file if start is 0.
+     *           The byte before start is required to detect if a line starts exactly at {@code start}.
+     * @param start first byte of the range
+     * @param end end of the range (exclusive)
+     */
+    LineRangeInputStream(InputStream in, long start, long end) {
+        assert start >= 0 && start <= end : "start must be between 0 and end";
+        this.in = new BufferedInputStream(in);
+        this.end = end;
+        this.skipPartialLine = start > 0;
+        this.position = start > 0 ? start - 1 : 0;
+    }
+
+    /**
+     * Position of the stream in the underlying file
+     */
+    static long streamPosition(long start) {
+        return start > 0 ? start - 1 : 0;
+    }
+
+    private boolean atEnd() throws IOException {
+        if (eof) {
+            return true;
+        }
+        if (skipPartialLine) {
+            skipPartialLine = false;
+            int b;
+            do {
+                b = in.read();
+                if (b == -1) {
+                    eof = true;
+                    return true;
+                }
+                position++;
+            } while (b != LINE_FEED);
+            lastByte = LINE_FEED;
+        }
+        // A line starting at or after `end` belongs to the next range
+        return position >= end && lastByte == LINE_FEED;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (atEnd()) {
+            return -1;
+        }
+        int b = in.read();
+        if (b == -1) {
+            eof = true;
+        } else {
+            position++;
+            lastByte = b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buf, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, buf.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (atEnd()) {
+            return -1;
+        }
+        if (position < end) {
+            int n = in.read(buf, off, (int) Math.min(len, end - position));
+            if (n == -1) {
+                eof = true;
+            } else if (n > 0) {
+                position += n;
+                lastByte = buf[off + n - 1] & 0xFF;
+            }
+            return n;
+        }
+        // Past the end of the range: Only complete the current line
+        int n = 0;
+        while (n < len) {
+            int b = in.read();
+            if (b == -1) {
+                eof = true;
+                break;
+            }
+            position++;
+            lastByte = b;
+            buf[off + n] = (byte) b;
+            n++;
+            if (b == LINE_FEED) {
+                break;
+            }
+        }
+        return n == 0 ? -1 : n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import io.crate.common.exceptions.Exceptions;
+import io.crate.data.ArrayRow;
+import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
+import io.crate.data.Row;
+
+/**
+ * Reads and materializes the rows of a source within {@link #loadNextBatch()}.
+ *
+ * <p>
+ * Combined using {@link CompositeBatchIterator#asyncComposite} multiple sources are read and their
+ * lines are parsed concurrently, while the consumer only iterates over already materialized rows.
+ * </p>
+ */
+public final class ReadAheadBatchIterator implements BatchIterator<Row> {
+
+    private final BatchIterator<Row> source;
+    private final int batchSize;
+    private final ArrayList<Object[]> rows;
+    private final ArrayRow row = new ArrayRow();
+
+    private int idx = 0;
+    private boolean sourceExhausted = false;
+    private volatile Throwable killed;
+
+    public ReadAheadBatchIterator(BatchIterator<Row> source, int batchSize) {
+        this.source = source;
+        this.batchSize = batchSize;
+        this.rows = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public Row currentElement() {
+        return row;
+    }
+
+    @Override
+    public void moveToStart() {
+        raiseIfKilled();
+        source.moveToStart();
+        rows.clear();
+        idx = 0;
+        sourceExhausted = false;
+    }
+
+    @Override
+    public boolean moveNext() {
+        raiseIfKilled();
+        if (idx < rows.size()) {
+            row.cells(rows.get(idx));
+            idx++;
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        rows.clear();
+        source.close();
+        killed = BatchIterator.CLOSED;
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        if (sourceExhausted) {
+            throw new IllegalStateException("BatchIterator already fully loaded");
+        }
+        rows.clear();
+        idx = 0;
+        return fill();
+    }
+
+    private CompletionStage<?> fill() throws Exception {
+        while (rows.size() < batchSize) {
+            if (source.moveNext()) {
+                rows.add(source.currentElement().materialize());
+            } else if (source.allLoaded()) {
+                sourceExhausted = true;
+                break;
+            } else if (rows.isEmpty()) {
+                return source.loadNextBatch().thenCompose(_ -> {
+                    try {
+                        return fill();
+                    } catch (Exception e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                });
+            } else {
+                // Let the consumer process the rows read so far, the source is loaded on the next call
+                break;
+            }
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean allLoaded() {
+        return sourceExhausted;
+    }
+
+    @Override
+    public void kill(Throwable throwable) {
+        killed = throwable;
+        source.kill(throwable);
+    }
+
+    @Override
+    public boolean hasLazyResultSet() {
+        return true;
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+import org.apache.lucene.util.RamUsageEstimator;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.data.breaker.RamAccounting;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.DecompressionException;
+import io.netty.handler.codec.compression.Snappy;
+
+/**
+ * Reads the values of a column chunk page by page.
+ *
+ * <p>
+ * Supports data pages v1 and v2 with PLAIN and dictionary encoded values, RLE encoded booleans
+ * and UNCOMPRESSED, SNAPPY or GZIP compressed pages.
+ * </p>
+ *
+ * <p>
+ * The chunk, the decompressed current page and the dictionary are accounted in the {@link RamAccounting}
+ * until the reader is closed.
+ * </p>
+ */
+final class ColumnChunkReader {
+
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int PAGE_DATA_V2 = 3;
+
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+    private static final String[] ENCODING_NAMES = {
+        "PLAIN", "GROUP_VAR_INT", "PLAIN_DICTIONARY", "RLE", "BIT_PACKED", "DELTA_BINARY_PACKED",
+        "DELTA_LENGTH_BYTE_ARRAY", "DELTA_BYTE_ARRAY", "RLE_DICTIONARY", "BYTE_STREAM_SPLIT"
+    };
+
+    private static final int CODEC_UNCOMPRESSED = 0;
+    private static final int CODEC_SNAPPY = 1;
+    private static final int CODEC_GZIP = 2;
+    private static final String[] CODEC_NAMES = {
+        "UNCOMPRESSED", "SNAPPY", "GZIP", "LZO", "BROTLI", "LZ4", "ZSTD", "LZ4_RAW"
+    };
+
+    private final ColumnDescriptor column;
+    private final int codec;
+    private final byte[] chunk;
+    private final RamAccounting ramAccounting;
+    private int position = 0;
+    private long pageBytes = 0;
+    private long dictionaryBytes = 0;
+
+    private Object @Nullable [] dictionary;
+    private int remainingInPage = 0;
+    @Nullable
+    private RleBitPackedDecoder definitionLevels;
+    @Nullable
+    private RleBitPackedDecoder dictionaryIndices;
+    @Nullable
+    private RleBitPackedDecoder booleanValues;
+    @Nullable
+    private PlainValuesDecoder plainValues;
+
+    private record PageHeader(int type,
+                              int uncompressedSize,
+                              int compressedSize,
+                              int numValues,
+                              int encoding,
+                              int definitionLevelEncoding,
+                              int definitionLevelsLength,
+                              int repetitionLevelsLength,
+                              boolean compressed) {
+    }
+
+    private record Bytes(byte[] array, int offset, int length) {
+    }
+
+    /**
+     * @param ramAccounting the size of the chunk must already be accounted, it is released on {@link #close()}.
+     */
+    ColumnChunkReader(ColumnDescriptor column, int codec, byte[] chunk, RamAccounting ramAccounting) throws IOException {
+        if (codec != CODEC_UNCOMPRESSED && codec != CODEC_SNAPPY && codec != CODEC_GZIP) {
+            String codecName = codec >= 0 && codec < CODEC_NAMES.length ? CODEC_NAMES[codec] : Integer.toString(codec);
+            throw new IOException(
+                "Compression codec " + codecName + " of Parquet column '" + column.name() + "' is not supported");
+        }
+        this.column = column;
+        this.codec = codec;
+        this.chunk = chunk;
+        this.ramAccounting = ramAccounting;
+    }
+
+    /**
+     * Releases the accounted bytes of the chunk and of the decoded pages.
+     */
+    void close() {
+        ramAccounting.addBytes(-(chunk.length + pageBytes + dictionaryBytes));
+        pageBytes = 0;
+        dictionaryBytes = 0;
+    }
+
+    /**
+     * @return the next value of the column, null if the value is null.
+     */
+    @Nullable
+    Object next() throws IOException {
+        while (remainingInPage == 0) {
+            readPage();
+        }
+        remainingInPage--;
+        if (definitionLevels != null && definitionLevels.next() == 0) {
+            return null;
+        }
+        if (dictionaryIndices != null) {
+            int index = dictionaryIndices.next();
+            if (index < 0 || index >= dictionary.length) {
+                throw new IOException("Invalid dictionary index in Parquet column '" + column.name() + "'");
+            }
+            return dictionary[index];
+        }
+        if (booleanValues != null) {
+            return column.convert(booleanValues.next() == 1);
+        }
+        return plainValues.read();
+    }
+
+    private void readPage() throws IOException {
+        if (position >= chunk.length) {
+            throw new IOException("Unexpected end of Parquet column chunk of column '" + column.name() + "'");
+        }
+        ThriftCompactReader reader = new ThriftCompactReader(chunk, position, chunk.length - position);
+        PageHeader header = readPageHeader(reader);
+        int pageStart = reader.position();
+        if (header.compressedSize() < 0
+            || header.uncompressedSize() < 0
+            || header.compressedSize() > chunk.length - pageStart) {
+            throw new IOException("Invalid page size in Parquet column '" + column.name() + "'");
+        }
+        position = pageStart + header.compressedSize();
+        switch (header.type()) {
+            case PAGE_DICTIONARY -> {
+                if (header.encoding() != ENCODING_PLAIN && header.encoding() != ENCODING_PLAIN_DICTIONARY) {
+                    throw unsupportedEncoding(header.encoding());
+                }
+                if (header.numValues() > maxPlainValues(header.uncompressedSize())) {
+                    throw new IOException("Invalid number of values in dictionary page of Parquet column '"
+                                          + column.name() + "'");
+                }
+                // The decoded values are kept for the whole chunk
+                long bytesUsed = header.uncompressedSize() + RamUsageEstimator.alignObjectSize(
+                    RamUsageEstimator.NUM_BYTES_ARRAY_HEADER
+                    + (long) RamUsageEstimator.NUM_BYTES_OBJECT_REF * header.numValues());
+                ramAccounting.addBytes(bytesUsed);
+                dictionaryBytes += bytesUsed;
+                Bytes bytes = decompress(pageStart, header.compressedSize(), header.uncompressedSize());
+                PlainValuesDecoder decoder = new PlainValuesDecoder(column, bytes.array(), bytes.offset(), bytes.length());
+                Object[] values = new Object[header.numValues()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = decoder.read();
+                }
+                dictionary = values;
+            }
+            case PAGE_DATA -> {
+                accountPage(codec == CODEC_UNCOMPRESSED ? 0 : header.uncompressedSize());
+                Bytes bytes = decompress(pageStart, header.compressedSize(), header.uncompressedSize());
+                int offset = bytes.offset();
+                int end = bytes.offset() + bytes.length();
+                if (column.optional()) {
+                    if (header.definitionLevelEncoding() != ENCODING_RLE) {
+                        throw unsupportedEncoding(header.definitionLevelEncoding());
+                    }
+                    int length = readLengthPrefix(bytes.array(), offset, end);
+                    definitionLevels = new RleBitPackedDecoder(bytes.array(), offset + 4, length, 1);
+                    offset += 4 + length;
+                } else {
+                    definitionLevels = null;
+                }
+                initValues(header.encoding(), bytes.array(), offset, end - offset);
+                remainingInPage = header.numValues();
+            }
+            case PAGE_DATA_V2 -> {
+                // Levels are never compressed and don't have a length prefix
+                int levelsLength = header.repetitionLevelsLength() + header.definitionLevelsLength();
+                if (header.repetitionLevelsLength() < 0
+                    || header.definitionLevelsLength() < 0
+                    || levelsLength > header.compressedSize()) {
+                    throw new IOException("Invalid page levels in Parquet column '" + column.name() + "'");
+                }
+                if (column.optional()) {
+                    definitionLevels = new RleBitPackedDecoder(
+                        chunk,
+                        pageStart + header.repetitionLevelsLength(),
+                        header.definitionLevelsLength(),
+                        1
+                    );
+                } else {
+                    definitionLevels = null;
+                }
+                int valuesStart = pageStart + levelsLength;
+                int valuesLength = header.compressedSize() - levelsLength;
+                if (header.compressed()) {
+                    accountPage(codec == CODEC_UNCOMPRESSED ? 0 : header.uncompressedSize() - levelsLength);
+                    Bytes bytes = decompress(valuesStart, valuesLength, header.uncompressedSize() - levelsLength);
+                    initValues(header.encoding(), bytes.array(), bytes.offset(), bytes.length());
+                } else {
+                    accountPage(0);
+                    initValues(header.encoding(), chunk, valuesStart, valuesLength);
+                }
+                remainingInPage = header.numValues();
+            }
+            default -> {
+                // Index pages are not needed to read the values
+            }
+        }
+    }
+
+    /**
+     * @return the maximum number of PLAIN encoded values that fit into {@code size} bytes
+     */
+    private long maxPlainValues(int size) {
+        return switch (column.physicalType()) {
+            case BOOLEAN -> size * 8L;
+            case INT32, FLOAT, BYTE_ARRAY -> size / 4;
+            case INT64, DOUBLE -> size / 8;
+            case INT96 -> size / 12;
+            case FIXED_LEN_BYTE_ARRAY -> column.typeLength() > 0 ? size / column.typeLength() : size;
+        };
+    }
+
+    /**
+     * Accounts the decompressed buffer of the current page, replacing the one of the previous page.
+     */
+    private void accountPage(long bytes) {
+        ramAccounting.addBytes(bytes - pageBytes);
+        pageBytes = bytes;
+    }
+
+    private void initValues(int encoding, byte[] bytes, int offset, int length) throws IOException {
+        dictionaryIndices = null;
+        booleanValues = null;
+        plainValues = null;
+        switch (encoding) {
+            case ENCODING_PLAIN -> plainValues = new PlainValuesDecoder(column, bytes, offset, length);
+            case ENCODING_PLAIN_DICTIONARY, ENCODING_RLE_DICTIONARY -> {
+                if (dictionary == null) {
+                    throw new IOException("Missing dictionary page in Parquet column '" + column.name() + "'");
+                }
+                if (length < 1) {
+                    throw new IOException("Invalid dictionary encoded page in Parquet column '" + column.name() + "'");
+                }
+                int bitWidth = bytes[offset] & 0xFF;
+                dictionaryIndices = new RleBitPackedDecoder(bytes, offset + 1, length - 1, bitWidth);
+            }
+            case ENCODING_RLE -> {
+                if (column.physicalType() != ColumnDescriptor.PhysicalType.BOOLEAN) {
+                    throw unsupportedEncoding(encoding);
+                }
+                int rleLength = readLengthPrefix(bytes, offset, offset + length);
+                booleanValues = new RleBitPackedDecoder(bytes, offset + 4, rleLength, 1);
+            }
+            default -> throw unsupportedEncoding(encoding);
+        }
+    }
+
+    private Bytes decompress(int offset, int length, int uncompressedLength) throws IOException {
+        if (uncompressedLength < 0) {
+            throw new IOException("Invalid page size in Parquet column '" + column.name() + "'");
+        }
+        return switch (codec) {
+            case CODEC_SNAPPY -> {
+                byte[] bytes = new byte[uncompressedLength];
+                // The output can't grow beyond the uncompressed length declared in the page header
+                ByteBuf out = Unpooled.wrappedBuffer(bytes).clear();
+                try {
+                    new Snappy().decode(Unpooled.wrappedBuffer(chunk, offset, length), out);
+                } catch (DecompressionException | IndexOutOfBoundsException e) {
+                    throw new IOException("Invalid Snappy compressed page in Parquet column '" + column.name() + "'", e);
+                }
+                if (out.writerIndex() != uncompressedLength) {
+                    throw new IOException("Snappy compressed Parquet page has unexpected size " + out.writerIndex());
+                }
+                yield new Bytes(bytes, 0, uncompressedLength);
+            }
+            case CODEC_GZIP -> {
+                try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(chunk, offset, length))) {
+                    byte[] bytes = in.readNBytes(uncompressedLength);
+                    if (bytes.length != uncompressedLength) {
+                        throw new IOException("GZIP compressed Parquet page has unexpected size " + bytes.length);
+                    }
+                    yield new Bytes(bytes, 0, uncompressedLength);
+                }
+            }
+            default -> new Bytes(chunk, offset, length);
+        };
+    }
+
+    private int readLengthPrefix(byte[] bytes, int offset, int end) throws IOException {
+        if (offset + 4 > end) {
+            throw new IOException("Unexpected end of page in Parquet column '" + column.name() + "'");
+        }
+        int length = (bytes[offset] & 0xFF)
+            | (bytes[offset + 1] & 0xFF) << 8
+            | (bytes[offset + 2] & 0xFF) << 16
+            | (bytes[offset + 3] & 0xFF) << 24;
+        if (length < 0 || length > end - offset - 4) {
+            throw new IOException("Invalid length in page of Parquet column '" + column.name() + "'");
+        }
+        return length;
+    }
+
+    private IOException unsupportedEncoding(int encoding) {
+        String encodingName = encoding >= 0 && encoding < ENCODING_NAMES.length
+            ? ENCODING_NAMES[encoding]
+            : Integer.toString(encoding);
+        return new IOException("Encoding " + encodingName + " of Parquet column '" + column.name() + "' is not supported");
+    }
+
+    private static PageHeader readPageHeader(ThriftCompactReader reader) throws IOException {
+        int type = -1;
+        int uncompressedSize = 0;
+        int compressedSize = 0;
+        int numValues = 0;
+        int encoding = ENCODING_PLAIN;
+        int definitionLevelEncoding = ENCODING_RLE;
+        int definitionLevelsLength = 0;
+        int repetitionLevelsLength = 0;
+        boolean compressed = true;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            switch (reader.fieldId()) {
+                case 1 -> type = reader.readI32();
+                case 2 -> uncompressedSize = reader.readI32();
+                case 3 -> compressedSize = reader.readI32();
+                case 5 -> { // DataPageHeader
+                    reader.readStructBegin();
+                    while (reader.readFieldBegin()) {
+                        switch (reader.fieldId()) {
+                            case 1 -> numValues = reader.readI32();
+                            case 2 -> encoding = reader.readI32();
+                            case 3 -> definitionLevelEncoding = reader.readI32();
+                            default -> reader.skip(reader.fieldType());
+                        }
+                    }
+                    reader.readStructEnd();
+                }
+                case 7 -> { // DictionaryPageHeader
+                    reader.readStructBegin();
+                    while (reader.readFieldBegin()) {
+                        switch (reader.fieldId()) {
+                            case 1 -> numValues = reader.readI32();
+                            case 2 -> encoding = reader.readI32();
+                            default -> reader.skip(reader.fieldType());
+                        }
+                    }
+                    reader.readStructEnd();
+                }
+                case 8 -> { // DataPageHeaderV2
+                    reader.readStructBegin();
+                    while (reader.readFieldBegin()) {
+                        switch (reader.fieldId()) {
+                            case 1 -> numValues = reader.readI32();
+                            case 4 -> encoding = reader.readI32();
+                            case 5 -> definitionLevelsLength = reader.readI32();
+                            case 6 -> repetitionLevelsLength = reader.readI32();
+                            case 7 -> compressed = reader.readBoolField();
+                            default -> reader.skip(reader.fieldType());
+                        }
+                    }
+                    reader.readStructEnd();
+                }
+                default -> reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        if (numValues < 0) {
+            throw new IOException("Invalid number of values in Parquet page: " + numValues);
+        }
+        return new PageHeader(
+            type,
+            uncompressedSize,
+            compressedSize,
+            numValues,
+            encoding,
+            definitionLevelEncoding,
+            definitionLevelsLength,
+            repetitionLevelsLength,
+            compressed
+        );
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * A primitive column of a flat Parquet schema.
+ * Converts the physical values of the column into the values exposed to COPY FROM based on the logical type.
+ */
+final class ColumnDescriptor {
+
+    enum PhysicalType {
+        BOOLEAN,
+        INT32,
+        INT64,
+        INT96,
+        FLOAT,
+        DOUBLE,
+        BYTE_ARRAY,
+        FIXED_LEN_BYTE_ARRAY
+    }
+
+    enum LogicalType {
+        NONE,
+        STRING,
+        DECIMAL,
+        DATE,
+        TIMESTAMP_MILLIS,
+        TIMESTAMP_MICROS,
+        TIMESTAMP_NANOS,
+        UNSIGNED_INT,
+        UUID
+    }
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final long JULIAN_DAY_OF_EPOCH = 2_440_588L;
+
+    private final String name;
+    private final PhysicalType physicalType;
+    private final int typeLength;
+    private final boolean optional;
+    private final LogicalType logicalType;
+    private final int scale;
+
+    ColumnDescriptor(String name,
+                     PhysicalType physicalType,
+                     int typeLength,
+                     boolean optional,
+                     LogicalType logicalType,
+                     int scale) {
+        this.name = name;
+        this.physicalType = physicalType;
+        this.typeLength = typeLength;
+        this.optional = optional;
+        this.logicalType = logicalType;
+        this.scale = scale;
+    }
+
+    String name() {
+        return name;
+    }
+
+    PhysicalType physicalType() {
+        return physicalType;
+    }
+
+    int typeLength() {
+        return typeLength;
+    }
+
+    /**
+     * @return true if the column can contain nulls, in which case the pages contain definition levels.
+     */
+    boolean optional() {
+        return optional;
+    }
+
+    Object convert(boolean value) {
+        return value;
+    }
+
+    Object convert(int value) {
+        return switch (logicalType) {
+            case DATE -> value * MILLIS_PER_DAY;
+            case DECIMAL -> BigDecimal.valueOf(value, scale);
+            case UNSIGNED_INT -> Integer.toUnsignedLong(value);
+            default -> value;
+        };
+    }
+
+    Object convert(long value) {
+        return switch (logicalType) {
+            case TIMESTAMP_MICROS -> Math.floorDiv(value, 1_000L);
+            case TIMESTAMP_NANOS -> Math.floorDiv(value, 1_000_000L);
+            case DECIMAL -> BigDecimal.valueOf(value, scale);
+            case UNSIGNED_INT -> value >= 0 ? value : new BigDecimal(Long.toUnsignedString(value));
+            default -> value;
+        };
+    }
+
+    Object convert(float value) {
+        return value;
+    }
+
+    Object convert(double value) {
+        return value;
+    }
+
+    /**
+     * Converts BYTE_ARRAY, FIXED_LEN_BYTE_ARRAY and INT96 values.
+     */
+    Object convert(byte[] value) {
+        if (physicalType == PhysicalType.INT96) {
+            // Legacy timestamp: nanoseconds of the day followed by the julian day, both little endian
+            ByteBuffer buffer = ByteBuffer.wrap(value).order(ByteOrder.LITTLE_ENDIAN);
+            long nanosOfDay = buffer.getLong();
+            long julianDay = Integer.toUnsignedLong(buffer.getInt());
+            return (julianDay - JULIAN_DAY_OF_EPOCH) * MILLIS_PER_DAY + Math.floorDiv(nanosOfDay, 1_000_000L);
+        }
+        return switch (logicalType) {
+            case STRING -> new String(value, StandardCharsets.UTF_8);
+            case DECIMAL -> new BigDecimal(new BigInteger(value), scale);
+            case UUID -> {
+                ByteBuffer buffer = ByteBuffer.wrap(value);
+                yield new UUID(buffer.getLong(), buffer.getLong()).toString();
+            }
+            default -> Base64.getEncoder().encodeToString(value);
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnDescriptor{" + name + ", " + physicalType + ", " + logicalType + "}";
+    }
+}
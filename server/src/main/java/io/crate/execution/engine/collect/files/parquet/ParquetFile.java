@@ -0,0 +1,151 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.collect.files.FileInput;
+import io.crate.execution.engine.collect.files.parquet.ParquetMetadata.ColumnChunk;
+import io.crate.execution.engine.collect.files.parquet.ParquetMetadata.RowGroup;
+
+/**
+ * A Parquet file with a flat schema, read via random access of a {@link FileInput}.
+ *
+ * <p>
+ * The row groups of a file are independent of each other and can be read concurrently.
+ * Only the column chunks of the columns which are read are fetched from the file.
+ * </p>
+ */
+public final class ParquetFile {
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final int FOOTER_TAIL_LENGTH = 8;
+
+    private final FileInput fileInput;
+    private final URI uri;
+    private final ParquetMetadata metadata;
+
+    private ParquetFile(FileInput fileInput, URI uri, ParquetMetadata metadata) {
+        this.fileInput = fileInput;
+        this.uri = uri;
+        this.metadata = metadata;
+    }
+
+    public static boolean isParquet(URI uri) {
+        return uri.toString().endsWith(".parquet");
+    }
+
+    /**
+     * Reads the metadata of a file. The input must support reading byte ranges, see {@link FileInput#size(URI)}.
+     */
+    public static ParquetFile open(FileInput fileInput, URI uri) throws IOException {
+        long size = fileInput.size(uri);
+        if (size < 0) {
+            throw new IOException(
+                "Cannot read Parquet file '" + uri + "', Parquet files can only be read from the local file system (file://)");
+        }
+        if (size < MAGIC.length + FOOTER_TAIL_LENGTH) {
+            throw new IOException("File '" + uri + "' is not a Parquet file");
+        }
+        byte[] tail = read(fileInput, uri, size - FOOTER_TAIL_LENGTH, FOOTER_TAIL_LENGTH);
+        if (Arrays.equals(tail, 4, 8, MAGIC, 0, MAGIC.length) == false) {
+            throw new IOException("File '" + uri + "' is not a Parquet file");
+        }
+        long footerLength = (tail[0] & 0xFF)
+            | (tail[1] & 0xFF) << 8
+            | (tail[2] & 0xFF) << 16
+            | (long) (tail[3] & 0xFF) << 24;
+        if (footerLength > size - MAGIC.length - FOOTER_TAIL_LENGTH) {
+            throw new IOException("Invalid footer length of Parquet file '" + uri + "'");
+        }
+        byte[] footer = read(fileInput, uri, size - FOOTER_TAIL_LENGTH - footerLength, (int) footerLength);
+        return new ParquetFile(fileInput, uri, ParquetMetadata.read(footer));
+    }
+
+    public URI uri() {
+        return uri;
+    }
+
+    public int numRowGroups() {
+        return metadata.rowGroups().size();
+    }
+
+    /**
+     * Reads the column chunks of a row group.
+     *
+     * @param readColumn matches the names of the columns to read. The rows only contain these columns.
+     * @param ramAccounting accounts the column chunks and decoded pages until the returned reader is closed.
+     */
+    public RowGroupReader readRowGroup(int rowGroupIndex,
+                                       Predicate<String> readColumn,
+                                       RamAccounting ramAccounting) throws IOException {
+        RowGroup rowGroup = metadata.rowGroups().get(rowGroupIndex);
+        List<String> names = new ArrayList<>();
+        List<ColumnChunkReader> readers = new ArrayList<>();
+        long accountedBytes = 0;
+        try {
+            for (int i = 0; i < metadata.columns().size(); i++) {
+                String name = metadata.columnNames().get(i);
+                if (readColumn.test(name) == false) {
+                    continue;
+                }
+                ColumnDescriptor column = metadata.columns().get(i);
+                if (column == null) {
+                    throw new IOException("Parquet column '" + name + "' has a nested or repeated type, which is not supported");
+                }
+                ColumnChunk chunk = rowGroup.columns().get(i);
+                if (chunk.length() < 0 || chunk.length() > Integer.MAX_VALUE - 8) {
+                    throw new IOException("Invalid size of Parquet column chunk of column '" + name + "'");
+                }
+                ramAccounting.addBytes(chunk.length());
+                accountedBytes += chunk.length();
+                byte[] bytes = read(fileInput, uri, chunk.offset(), (int) chunk.length());
+                names.add(name);
+                readers.add(new ColumnChunkReader(column, chunk.codec(), bytes, ramAccounting));
+            }
+        } catch (IOException | RuntimeException e) {
+            // No pages have been read yet, only the chunks are accounted
+            ramAccounting.addBytes(-accountedBytes);
+            throw e;
+        }
+        return new RowGroupReader(rowGroup.numRows(), names, readers);
+    }
+
+    private static byte[] read(FileInput fileInput, URI uri, long position, int length) throws IOException {
+        try (InputStream in = fileInput.getStream(uri, position)) {
+            byte[] bytes = in.readNBytes(length);
+            if (bytes.length != length) {
+                throw new EOFException("Unexpected end of Parquet file '" + uri + "'");
+            }
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+
+import io.crate.execution.engine.collect.files.parquet.ColumnDescriptor.LogicalType;
+import io.crate.execution.engine.collect.files.parquet.ColumnDescriptor.PhysicalType;
+
+/**
+ * The parts of the Parquet file metadata (footer) required to read the rows of a file with a flat schema.
+ *
+ * @param columns the leaf columns of the schema, in the order of the column chunks of a row group.
+ *                Columns with an unsupported nested or repeated type are null.
+ * @param columnNames the names of the top level columns the leaf columns belong to.
+ */
+record ParquetMetadata(List<@Nullable ColumnDescriptor> columns, List<String> columnNames, List<RowGroup> rowGroups) {
+
+    private static final int REPETITION_REQUIRED = 0;
+    private static final int REPETITION_OPTIONAL = 1;
+
+    // ConvertedType
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_ENUM = 4;
+    private static final int CONVERTED_DECIMAL = 5;
+    private static final int CONVERTED_DATE = 6;
+    private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    private static final int CONVERTED_TIMESTAMP_MICROS = 10;
+    private static final int CONVERTED_UINT_32 = 13;
+    private static final int CONVERTED_UINT_64 = 14;
+    private static final int CONVERTED_JSON = 19;
+
+    record RowGroup(long numRows, List<ColumnChunk> columns) {
+    }
+
+    /**
+     * @param offset position of the first page of the chunk in the file
+     * @param length size of all pages of the chunk in bytes
+     */
+    record ColumnChunk(int codec, long offset, long length, long numValues) {
+    }
+
+    private record SchemaElement(String name,
+                                 int type,
+                                 int typeLength,
+                                 int repetition,
+                                 int numChildren,
+                                 int convertedType,
+                                 int scale,
+                                 LogicalType logicalType) {
+    }
+
+    static ParquetMetadata read(byte[] bytes) throws IOException {
+        ThriftCompactReader reader = new ThriftCompactReader(bytes, 0, bytes.length);
+        List<SchemaElement> schema = List.of();
+        List<RowGroup> rowGroups = List.of();
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            switch (reader.fieldId()) {
+                case 2 -> {
+                    int size = reader.readListBegin();
+                    schema = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        schema.add(readSchemaElement(reader));
+                    }
+                }
+                case 4 -> {
+                    int size = reader.readListBegin();
+                    rowGroups = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        rowGroups.add(readRowGroup(reader));
+                    }
+                }
+                default -> reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        if (schema.isEmpty()) {
+            throw new IOException("Parquet file has no schema");
+        }
+        List<ColumnDescriptor> columns = new ArrayList<>();
+        List<String> columnNames = new ArrayList<>();
+        int next = 1;
+        int numChildren = schema.get(0).numChildren();
+        for (int i = 0; i < numChildren; i++) {
+            if (next >= schema.size()) {
+                throw new IOException("Invalid Parquet schema");
+            }
+            SchemaElement element = schema.get(next);
+            if (element.numChildren() > 0) {
+                // Group column. Each of its leaves has a column chunk which can't be read.
+                int end = skipGroup(schema, next);
+                for (int j = next + 1; j < end; j++) {
+                    if (schema.get(j).numChildren() == 0) {
+                        columns.add(null);
+                        columnNames.add(element.name());
+                    }
+                }
+                next = end;
+            } else {
+                columns.add(toColumnDescriptor(element));
+                columnNames.add(element.name());
+                next++;
+            }
+        }
+        for (RowGroup rowGroup : rowGroups) {
+            if (rowGroup.columns().size() != columns.size()) {
+                throw new IOException("Number of column chunks of Parquet row group doesn't match schema");
+            }
+        }
+        return new ParquetMetadata(columns, columnNames, rowGroups);
+    }
+
+    /**
+     * @return the position of the schema element following the group at position {@code start}
+     */
+    private static int skipGroup(List<SchemaElement> schema, int start) throws IOException {
+        int next = start + 1;
+        for (int i = 0; i < schema.get(start).numChildren(); i++) {
+            if (next >= schema.size()) {
+                throw new IOException("Invalid Parquet schema");
+            }
+            next = schema.get(next).numChildren() > 0 ? skipGroup(schema, next) : next + 1;
+        }
+        return next;
+    }
+
+    @Nullable
+    private static ColumnDescriptor toColumnDescriptor(SchemaElement element) throws IOException {
+        if (element.repetition() != REPETITION_REQUIRED && element.repetition() != REPETITION_OPTIONAL) {
+            return null;
+        }
+        PhysicalType[] physicalTypes = PhysicalType.values();
+        if (element.type() < 0 || element.type() >= physicalTypes.length) {
+            throw new IOException("Invalid type of Parquet column '" + element.name() + "': " + element.type());
+        }
+        PhysicalType physicalType = physicalTypes[element.type()];
+        LogicalType logicalType = element.logicalType();
+        if (logicalType == LogicalType.NONE) {
+            logicalType = switch (element.convertedType()) {
+                case CONVERTED_UTF8, CONVERTED_ENUM, CONVERTED_JSON -> LogicalType.STRING;
+                case CONVERTED_DECIMAL -> LogicalType.DECIMAL;
+                case CONVERTED_DATE -> LogicalType.DATE;
+                case CONVERTED_TIMESTAMP_MILLIS -> LogicalType.TIMESTAMP_MILLIS;
+                case CONVERTED_TIMESTAMP_MICROS -> LogicalType.TIMESTAMP_MICROS;
+                case CONVERTED_UINT_32, CONVERTED_UINT_64 -> LogicalType.UNSIGNED_INT;
+                default -> LogicalType.NONE;
+            };
+        }
+        if (logicalType == LogicalType.UUID && element.typeLength() != 16) {
+            logicalType = LogicalType.NONE;
+        }
+        return new ColumnDescriptor(
+            element.name(),
+            physicalType,
+            element.typeLength(),
+            element.repetition() == REPETITION_OPTIONAL,
+            logicalType,
+            element.scale()
+        );
+    }
+
+    private static SchemaElement readSchemaElement(ThriftCompactReader reader) throws IOException {
+        String name = null;
+        int type = -1;
+        int typeLength = 0;
+        int repetition = REPETITION_REQUIRED;
+        int numChildren = 0;
+        int convertedType = -1;
+        int scale = 0;
+        LogicalType logicalType = LogicalType.NONE;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            switch (reader.fieldId()) {
+                case 1 -> type = reader.readI32();
+                case 2 -> typeLength = reader.readI32();
+                case 3 -> repetition = reader.readI32();
+                case 4 -> name = reader.readString();
+                case 5 -> numChildren = reader.readI32();
+                case 6 -> convertedType = reader.readI32();
+                case 7 -> scale = reader.readI32();
+                case 10 -> logicalType = readLogicalType(reader);
+                default -> reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        if (name == null) {
+            throw new IOException("Parquet schema element without name");
+        }
+        return new SchemaElement(name, type, typeLength, repetition, numChildren, convertedType, scale, logicalType);
+    }
+
+    /**
+     * Reads the LogicalType union. Types which don't need a conversion map to {@link LogicalType#NONE}.
+     */
+    private static LogicalType readLogicalType(ThriftCompactReader reader) throws IOException {
+        LogicalType logicalType = LogicalType.NONE;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            switch (reader.fieldId()) {
+                case 1, 4, 12 -> { // STRING, ENUM, JSON
+                    logicalType = LogicalType.STRING;
+                    reader.skip(reader.fieldType());
+                }
+                case 5 -> { // DECIMAL, scale and precision are also part of the schema element
+                    logicalType = LogicalType.DECIMAL;
+                    reader.skip(reader.fieldType());
+                }
+                case 6 -> { // DATE
+                    logicalType = LogicalType.DATE;
+                    reader.skip(reader.fieldType());
+                }
+                case 8 -> logicalType = readTimestampType(reader);
+                case 10 -> logicalType = readIntType(reader);
+                case 14 -> { // UUID
+                    logicalType = LogicalType.UUID;
+                    reader.skip(reader.fieldType());
+                }
+                default -> reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        return logicalType;
+    }
+
+    private static LogicalType readTimestampType(ThriftCompactReader reader) throws IOException {
+        LogicalType logicalType = LogicalType.NONE;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            if (reader.fieldId() == 2) { // TimeUnit union
+                reader.readStructBegin();
+                while (reader.readFieldBegin()) {
+                    switch (reader.fieldId()) {
+                        case 1 -> logicalType = LogicalType.TIMESTAMP_MILLIS;
+                        case 2 -> logicalType = LogicalType.TIMESTAMP_MICROS;
+                        case 3 -> logicalType = LogicalType.TIMESTAMP_NANOS;
+                        default -> {
+                        }
+                    }
+                    reader.skip(reader.fieldType());
+                }
+                reader.readStructEnd();
+            } else {
+                reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        return logicalType;
+    }
+
+    private static LogicalType readIntType(ThriftCompactReader reader) throws IOException {
+        boolean signed = true;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            if (reader.fieldId() == 2) {
+                signed = reader.readBoolField();
+            } else {
+                reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        return signed ? LogicalType.NONE : LogicalType.UNSIGNED_INT;
+    }
+
+    private static RowGroup readRowGroup(ThriftCompactReader reader) throws IOException {
+        List<ColumnChunk> columns = List.of();
+        long numRows = 0;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            switch (reader.fieldId()) {
+                case 1 -> {
+                    int size = reader.readListBegin();
+                    columns = new ArrayList<>(size);
+                    for (int i = 0; i < size; i++) {
+                        columns.add(readColumnChunk(reader));
+                    }
+                }
+                case 3 -> numRows = reader.readI64();
+                default -> reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        return new RowGroup(numRows, columns);
+    }
+
+    private static ColumnChunk readColumnChunk(ThriftCompactReader reader) throws IOException {
+        ColumnChunk columnChunk = null;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            switch (reader.fieldId()) {
+                case 1 -> throw new IOException("Parquet column chunks stored in separate files are not supported");
+                case 3 -> columnChunk = readColumnMetaData(reader);
+                default -> reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        if (columnChunk == null) {
+            throw new IOException("Parquet column chunk without metadata");
+        }
+        return columnChunk;
+    }
+
+    private static ColumnChunk readColumnMetaData(ThriftCompactReader reader) throws IOException {
+        int codec = 0;
+        long numValues = 0;
+        long totalCompressedSize = 0;
+        long dataPageOffset = 0;
+        long dictionaryPageOffset = 0;
+        reader.readStructBegin();
+        while (reader.readFieldBegin()) {
+            switch (reader.fieldId()) {
+                case 4 -> codec = reader.readI32();
+                case 5 -> numValues = reader.readI64();
+                case 7 -> totalCompressedSize = reader.readI64();
+                case 9 -> dataPageOffset = reader.readI64();
+                case 11 -> dictionaryPageOffset = reader.readI64();
+                default -> reader.skip(reader.fieldType());
+            }
+        }
+        reader.readStructEnd();
+        // Some writers set the dictionary page offset to 0 if there is no dictionary page
+        long offset = dictionaryPageOffset > 0 ? Math.min(dictionaryPageOffset, dataPageOffset) : dataPageOffset;
+        return new ColumnChunk(codec, offset, totalCompressedSize, numValues);
+    }
+}
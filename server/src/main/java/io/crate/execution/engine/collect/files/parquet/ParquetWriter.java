@@ -0,0 +1,605 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.compression.Snappy;
+
+/**
+ * Writes rows into a Parquet file with a flat schema of optional columns.
+ *
+ * <p>
+ * Rows are buffered in memory until the encoded size of a row group reaches the configured size.
+ * The buffered bytes are accounted in the {@link RamAccounting} and released once the row group is written.
+ * Each column chunk is split into pages of about {@link #PAGE_SIZE}.
+ * Columns of types without a native Parquet type are written as text; objects and arrays as JSON.
+ * </p>
+ *
+ * <p>
+ * Text columns are dictionary encoded until the dictionary of a row group exceeds {@link #MAX_DICTIONARY_SIZE},
+ * the remaining values of the row group are PLAIN encoded. All other columns are PLAIN encoded.
+ * </p>
+ */
+public final class ParquetWriter implements Closeable {
+
+    /**
+     * Compression of the pages. The ordinals are the codec ids of the Parquet format.
+     */
+    public enum Codec {
+        UNCOMPRESSED,
+        SNAPPY,
+        GZIP
+    }
+
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CREATED_BY = "CrateDB";
+
+    static final int PAGE_SIZE = 1024 * 1024;
+    static final int MAX_PAGE_VALUES = 20_000;
+    static final int MAX_DICTIONARY_SIZE = 1024 * 1024;
+
+    /**
+     * {@link Snappy#encode} keeps offsets into its input in a {@code short[]}, larger pages are encoded in blocks
+     */
+    private static final int SNAPPY_BLOCK_SIZE = Short.MAX_VALUE;
+
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_INT32 = 1;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_FLOAT = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+
+    private static final int CONVERTED_NONE = -1;
+    private static final int CONVERTED_UTF8 = 0;
+    private static final int CONVERTED_DATE = 6;
+    private static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+    private static final int CONVERTED_INT_8 = 15;
+    private static final int CONVERTED_INT_16 = 16;
+
+    private static final int REPETITION_OPTIONAL = 1;
+
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_PLAIN_DICTIONARY = 2;
+    private static final int ENCODING_RLE = 3;
+
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    private final OutputStream out;
+    private final Codec codec;
+    private final long rowGroupSize;
+    private final ColumnWriter[] columns;
+    private final Snappy snappy;
+    private final RamAccounting ramAccounting;
+    private final List<byte[]> rowGroups = new ArrayList<>();
+
+    private long position = 0;
+    private long numRows = 0;
+    private int rowGroupRows = 0;
+    private long accountedBytes = 0;
+
+    /**
+     * @param rowGroupSize the size of the encoded pages of a row group at which the row group is written
+     */
+    public ParquetWriter(OutputStream out,
+                         List<String> names,
+                         List<DataType<?>> types,
+                         Codec codec,
+                         long rowGroupSize,
+                         RamAccounting ramAccounting) throws IOException {
+        assert names.size() == types.size() : "Must have a type for each column";
+        this.out = out;
+        this.codec = codec;
+        this.rowGroupSize = rowGroupSize;
+        this.ramAccounting = ramAccounting;
+        this.snappy = codec == Codec.SNAPPY ? new Snappy() : null;
+        this.columns = new ColumnWriter[names.size()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new ColumnWriter(names.get(i), types.get(i));
+        }
+        write(MAGIC);
+    }
+
+    /**
+     * @param values the values of the row, in the order of the columns
+     */
+    public void write(Object[] values) throws IOException {
+        long bufferedBytes = 0;
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].add(values[i]);
+            bufferedBytes += columns[i].bufferedBytes();
+        }
+        rowGroupRows++;
+        ramAccounting.addBytes(bufferedBytes - accountedBytes);
+        accountedBytes = bufferedBytes;
+        if (bufferedBytes >= rowGroupSize) {
+            writeRowGroup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (rowGroupRows > 0) {
+                writeRowGroup();
+            }
+            byte[] footer = footer();
+            write(footer);
+            write(new byte[] {
+                (byte) footer.length,
+                (byte) (footer.length >>> 8),
+                (byte) (footer.length >>> 16),
+                (byte) (footer.length >>> 24)
+            });
+            write(MAGIC);
+        } finally {
+            releaseBufferedBytes();
+            out.close();
+        }
+    }
+
+    private void releaseBufferedBytes() {
+        ramAccounting.addBytes(-accountedBytes);
+        accountedBytes = 0;
+    }
+
+    private void writeRowGroup() throws IOException {
+        ThriftCompactWriter rowGroup = new ThriftCompactWriter();
+        rowGroup.structBegin();
+        rowGroup.listBegin(1, ThriftCompactReader.STRUCT, columns.length);
+        long totalByteSize = 0;
+        for (ColumnWriter column : columns) {
+            totalByteSize += column.writeChunk(rowGroup);
+        }
+        rowGroup.fieldI64(2, totalByteSize);
+        rowGroup.fieldI64(3, rowGroupRows);
+        rowGroup.structEnd();
+        rowGroups.add(rowGroup.toByteArray());
+        numRows += rowGroupRows;
+        rowGroupRows = 0;
+        releaseBufferedBytes();
+    }
+
+    private byte[] footer() {
+        ThriftCompactWriter footer = new ThriftCompactWriter();
+        footer.structBegin();
+        footer.fieldI32(1, 1);
+        footer.listBegin(2, ThriftCompactReader.STRUCT, columns.length + 1);
+        footer.structBegin();
+        footer.fieldString(4, "schema");
+        footer.fieldI32(5, columns.length);
+        footer.structEnd();
+        for (ColumnWriter column : columns) {
+            footer.structBegin();
+            footer.fieldI32(1, column.physicalType);
+            footer.fieldI32(3, REPETITION_OPTIONAL);
+            footer.fieldString(4, column.name);
+            if (column.convertedType != CONVERTED_NONE) {
+                footer.fieldI32(6, column.convertedType);
+            }
+            footer.structEnd();
+        }
+        footer.fieldI64(3, numRows);
+        footer.listBegin(4, ThriftCompactReader.STRUCT, rowGroups.size());
+        for (byte[] rowGroup : rowGroups) {
+            footer.raw(rowGroup);
+        }
+        footer.fieldString(6, CREATED_BY);
+        footer.structEnd();
+        return footer.toByteArray();
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    private byte[] compress(byte[] bytes) throws IOException {
+        return switch (codec) {
+            case UNCOMPRESSED -> bytes;
+            case SNAPPY -> snappyCompress(bytes);
+            case GZIP -> {
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                    gzip.write(bytes);
+                }
+                yield compressed.toByteArray();
+            }
+        };
+    }
+
+    /**
+     * Compresses into the raw Snappy format: the uncompressed length followed by the elements of all blocks.
+     */
+    private byte[] snappyCompress(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 8);
+        writeVarInt(compressed, bytes.length);
+        ByteBuf in = Unpooled.wrappedBuffer(bytes);
+        ByteBuf block = Unpooled.buffer(SNAPPY_BLOCK_SIZE);
+        while (in.isReadable()) {
+            int length = Math.min(SNAPPY_BLOCK_SIZE, in.readableBytes());
+            block.clear();
+            snappy.encode(in.readSlice(length), block, length);
+            // Each block starts with its own length, only the total length is part of the page
+            while ((block.readByte() & 0x80) != 0) {
+                // skip varint
+            }
+            block.readBytes(compressed, block.readableBytes());
+        }
+        return compressed.toByteArray();
+    }
+
+    private static byte[] pageHeader(int pageType,
+                                     int uncompressedSize,
+                                     int compressedSize,
+                                     int numValues,
+                                     int encoding) {
+        ThriftCompactWriter header = new ThriftCompactWriter();
+        header.structBegin();
+        header.fieldI32(1, pageType);
+        header.fieldI32(2, uncompressedSize);
+        header.fieldI32(3, compressedSize);
+        if (pageType == PAGE_DICTIONARY) {
+            header.fieldStructBegin(7);
+            header.fieldI32(1, numValues);
+            header.fieldI32(2, encoding);
+        } else {
+            header.fieldStructBegin(5);
+            header.fieldI32(1, numValues);
+            header.fieldI32(2, encoding);
+            header.fieldI32(3, ENCODING_RLE);
+            header.fieldI32(4, ENCODING_RLE);
+        }
+        header.structEnd();
+        header.structEnd();
+        return header.toByteArray();
+    }
+
+    /**
+     * Writes a single bit-packed run of the RLE / bit-packing hybrid encoding.
+     */
+    private static void writeBitPacked(ByteArrayOutputStream out, int[] values, int count, int bitWidth) {
+        int numGroups = (count + 7) / 8;
+        writeVarInt(out, (numGroups << 1) | 1);
+        byte[] packed = new byte[numGroups * bitWidth];
+        long bitPosition = 0;
+        for (int i = 0; i < count; i++) {
+            int value = values[i];
+            for (int bit = 0; bit < bitWidth; bit++, bitPosition++) {
+                if ((value & (1 << bit)) != 0) {
+                    packed[(int) (bitPosition >>> 3)] |= (byte) (1 << (bitPosition & 7));
+                }
+            }
+        }
+        out.write(packed, 0, packed.length);
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static void writeIntLE(ByteArrayOutputStream out, int value) {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+
+    private static void writeLongLE(ByteArrayOutputStream out, long value) {
+        writeIntLE(out, (int) value);
+        writeIntLE(out, (int) (value >>> 32));
+    }
+
+    private static String toText(Object value) throws IOException {
+        if (value instanceof String str) {
+            return str;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return Strings.toString(JsonXContent.builder().value(value));
+    }
+
+    private final class ColumnWriter {
+
+        private final String name;
+        private final int typeId;
+        private final int physicalType;
+        private final int convertedType;
+
+        // Encoded pages of the current row group
+        private final ByteArrayOutputStream pages = new ByteArrayOutputStream();
+        private long uncompressedPagesSize = 0;
+        private long numValues = 0;
+        private boolean plainEncoded = false;
+
+        // Current page
+        private int pageValues = 0;
+        private int[] definitionLevels = new int[64];
+        private final ByteArrayOutputStream plainValues = new ByteArrayOutputStream();
+        private byte[] booleanValues = new byte[8];
+        private int numBooleans = 0;
+        private int[] dictionaryIndices = new int[64];
+        private int numDictionaryIndices = 0;
+
+        // Dictionary of the current row group, only used for BYTE_ARRAY columns
+        private boolean dictionaryEnabled;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final ByteArrayOutputStream dictionaryValues = new ByteArrayOutputStream();
+
+        ColumnWriter(String name, DataType<?> type) {
+            this.name = name;
+            this.typeId = type.id();
+            switch (typeId) {
+                case BooleanType.ID -> {
+                    physicalType = TYPE_BOOLEAN;
+                    convertedType = CONVERTED_NONE;
+                }
+                case ByteType.ID -> {
+                    physicalType = TYPE_INT32;
+                    convertedType = CONVERTED_INT_8;
+                }
+                case ShortType.ID -> {
+                    physicalType = TYPE_INT32;
+                    convertedType = CONVERTED_INT_16;
+                }
+                case IntegerType.ID -> {
+                    physicalType = TYPE_INT32;
+                    convertedType = CONVERTED_NONE;
+                }
+                case DateType.ID -> {
+                    physicalType = TYPE_INT32;
+                    convertedType = CONVERTED_DATE;
+                }
+                case LongType.ID -> {
+                    physicalType = TYPE_INT64;
+                    convertedType = CONVERTED_NONE;
+                }
+                case TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> {
+                    physicalType = TYPE_INT64;
+                    convertedType = CONVERTED_TIMESTAMP_MILLIS;
+                }
+                case FloatType.ID -> {
+                    physicalType = TYPE_FLOAT;
+                    convertedType = CONVERTED_NONE;
+                }
+                case DoubleType.ID -> {
+                    physicalType = TYPE_DOUBLE;
+                    convertedType = CONVERTED_NONE;
+                }
+                default -> {
+                    physicalType = TYPE_BYTE_ARRAY;
+                    convertedType = CONVERTED_UTF8;
+                }
+            }
+            this.dictionaryEnabled = physicalType == TYPE_BYTE_ARRAY;
+        }
+
+        void add(Object value) throws IOException {
+            if (pageValues == definitionLevels.length) {
+                definitionLevels = Arrays.copyOf(definitionLevels, pageValues * 2);
+            }
+            definitionLevels[pageValues++] = value == null ? 0 : 1;
+            if (value != null) {
+                switch (physicalType) {
+                    case TYPE_BOOLEAN -> addBoolean((Boolean) value);
+                    case TYPE_INT32 -> writeIntLE(plainValues, typeId == DateType.ID
+                        ? Math.toIntExact(Math.floorDiv(((Number) value).longValue(), MILLIS_PER_DAY))
+                        : ((Number) value).intValue());
+                    case TYPE_INT64 -> writeLongLE(plainValues, ((Number) value).longValue());
+                    case TYPE_FLOAT -> writeIntLE(plainValues, Float.floatToIntBits(((Number) value).floatValue()));
+                    case TYPE_DOUBLE -> writeLongLE(plainValues, Double.doubleToLongBits(((Number) value).doubleValue()));
+                    default -> addText(toText(value));
+                }
+            }
+            if (pageValues >= MAX_PAGE_VALUES || pageBytes() >= PAGE_SIZE) {
+                writePage();
+            }
+        }
+
+        private void addBoolean(boolean value) {
+            int byteIndex = numBooleans >>> 3;
+            if (byteIndex == booleanValues.length) {
+                booleanValues = Arrays.copyOf(booleanValues, booleanValues.length * 2);
+            }
+            if (value) {
+                booleanValues[byteIndex] |= (byte) (1 << (numBooleans & 7));
+            }
+            numBooleans++;
+        }
+
+        private void addText(String value) throws IOException {
+            if (dictionaryEnabled) {
+                Integer index = dictionary.get(value);
+                if (index == null) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    if (dictionaryValues.size() + 4 + bytes.length > MAX_DICTIONARY_SIZE) {
+                        // Fall back to PLAIN for the remaining values of the row group
+                        pageValues--;
+                        writePage();
+                        dictionaryEnabled = false;
+                        definitionLevels[pageValues++] = 1;
+                        addPlainText(bytes);
+                        return;
+                    }
+                    index = dictionary.size();
+                    dictionary.put(value, index);
+                    writeIntLE(dictionaryValues, bytes.length);
+                    dictionaryValues.write(bytes);
+                }
+                if (numDictionaryIndices == dictionaryIndices.length) {
+                    dictionaryIndices = Arrays.copyOf(dictionaryIndices, numDictionaryIndices * 2);
+                }
+                dictionaryIndices[numDictionaryIndices++] = index;
+            } else {
+                addPlainText(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void addPlainText(byte[] bytes) throws IOException {
+            writeIntLE(plainValues, bytes.length);
+            plainValues.write(bytes);
+        }
+
+        private long pageBytes() {
+            return plainValues.size() + (numBooleans >>> 3) + numDictionaryIndices * 4L;
+        }
+
+        long bufferedBytes() {
+            return pages.size() + pageBytes() + dictionaryValues.size();
+        }
+
+        private void writePage() throws IOException {
+            if (pageValues == 0) {
+                return;
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream(plainValues.size() + pageValues / 8 + 16);
+            ByteArrayOutputStream levels = new ByteArrayOutputStream(pageValues / 8 + 8);
+            writeBitPacked(levels, definitionLevels, pageValues, 1);
+            writeIntLE(body, levels.size());
+            levels.writeTo(body);
+            int encoding = ENCODING_PLAIN;
+            if (numDictionaryIndices > 0) {
+                encoding = ENCODING_PLAIN_DICTIONARY;
+                int bitWidth = Math.max(1, 32 - Integer.numberOfLeadingZeros(dictionary.size() - 1));
+                body.write(bitWidth);
+                writeBitPacked(body, dictionaryIndices, numDictionaryIndices, bitWidth);
+            } else if (physicalType == TYPE_BOOLEAN) {
+                body.write(booleanValues, 0, (numBooleans + 7) / 8);
+            } else {
+                plainValues.writeTo(body);
+            }
+            if (encoding == ENCODING_PLAIN) {
+                plainEncoded = true;
+            }
+            byte[] uncompressed = body.toByteArray();
+            byte[] compressed = compress(uncompressed);
+            byte[] header = pageHeader(PAGE_DATA, uncompressed.length, compressed.length, pageValues, encoding);
+            pages.write(header);
+            pages.write(compressed);
+            uncompressedPagesSize += header.length + uncompressed.length;
+            numValues += pageValues;
+
+            pageValues = 0;
+            plainValues.reset();
+            Arrays.fill(booleanValues, 0, (numBooleans + 7) / 8, (byte) 0);
+            numBooleans = 0;
+            numDictionaryIndices = 0;
+        }
+
+        /**
+         * Writes the column chunk of the current row group to the file and adds its metadata to the row group.
+         *
+         * @return the uncompressed size of the chunk
+         */
+        long writeChunk(ThriftCompactWriter rowGroup) throws IOException {
+            writePage();
+            long chunkStart = position;
+            long uncompressedSize = uncompressedPagesSize;
+            boolean hasDictionary = dictionary.isEmpty() == false;
+            if (hasDictionary) {
+                byte[] uncompressed = dictionaryValues.toByteArray();
+                byte[] compressed = compress(uncompressed);
+                byte[] header = pageHeader(
+                    PAGE_DICTIONARY, uncompressed.length, compressed.length, dictionary.size(), ENCODING_PLAIN_DICTIONARY);
+                write(header);
+                write(compressed);
+                uncompressedSize += header.length + uncompressed.length;
+            }
+            long dataPageOffset = position;
+            write(pages.toByteArray());
+
+            List<Integer> encodings = new ArrayList<>(3);
+            encodings.add(ENCODING_RLE);
+            if (plainEncoded) {
+                encodings.add(ENCODING_PLAIN);
+            }
+            if (hasDictionary) {
+                encodings.add(ENCODING_PLAIN_DICTIONARY);
+            }
+            rowGroup.structBegin();
+            rowGroup.fieldI64(2, chunkStart);
+            rowGroup.fieldStructBegin(3);
+            rowGroup.fieldI32(1, physicalType);
+            rowGroup.listBegin(2, ThriftCompactReader.I32, encodings.size());
+            for (int encoding : encodings) {
+                rowGroup.i32(encoding);
+            }
+            rowGroup.listBegin(3, ThriftCompactReader.BINARY, 1);
+            rowGroup.string(name);
+            rowGroup.fieldI32(4, codec.ordinal());
+            rowGroup.fieldI64(5, numValues);
+            rowGroup.fieldI64(6, uncompressedSize);
+            rowGroup.fieldI64(7, position - chunkStart);
+            rowGroup.fieldI64(9, dataPageOffset);
+            if (hasDictionary) {
+                rowGroup.fieldI64(11, chunkStart);
+            }
+            rowGroup.structEnd();
+            rowGroup.structEnd();
+
+            pages.reset();
+            uncompressedPagesSize = 0;
+            numValues = 0;
+            plainEncoded = false;
+            dictionary.clear();
+            dictionaryValues.reset();
+            dictionaryEnabled = physicalType == TYPE_BYTE_ARRAY;
+            return uncompressedSize;
+        }
+    }
+}
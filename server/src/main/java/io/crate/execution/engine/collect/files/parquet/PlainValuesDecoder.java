@@ -0,0 +1,88 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Decoder for PLAIN encoded values.
+ */
+final class PlainValuesDecoder {
+
+    private final ColumnDescriptor column;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+    private int bitIndex = 0;
+
+    PlainValuesDecoder(ColumnDescriptor column, byte[] bytes, int offset, int length) {
+        this.column = column;
+        this.bytes = bytes;
+        this.buffer = ByteBuffer.wrap(bytes, offset, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    Object read() throws IOException {
+        try {
+            return switch (column.physicalType()) {
+                case BOOLEAN -> column.convert(readBoolean());
+                case INT32 -> column.convert(buffer.getInt());
+                case INT64 -> column.convert(buffer.getLong());
+                case FLOAT -> column.convert(buffer.getFloat());
+                case DOUBLE -> column.convert(buffer.getDouble());
+                case INT96 -> column.convert(readBytes(12));
+                case BYTE_ARRAY -> column.convert(readBytes(buffer.getInt()));
+                case FIXED_LEN_BYTE_ARRAY -> column.convert(readBytes(column.typeLength()));
+            };
+        } catch (RuntimeException e) {
+            throw new IOException("Invalid value in Parquet column '" + column.name() + "'", e);
+        }
+    }
+
+    /**
+     * Booleans are bit-packed, starting with the least significant bit.
+     */
+    private boolean readBoolean() {
+        if (buffer.hasRemaining() == false) {
+            throw new BufferUnderflowException();
+        }
+        int position = buffer.position();
+        boolean value = (bytes[position] & (1 << bitIndex)) != 0;
+        bitIndex++;
+        if (bitIndex == 8) {
+            bitIndex = 0;
+            buffer.position(position + 1);
+        }
+        return value;
+    }
+
+    private byte[] readBytes(int length) {
+        // The length is read from the file, don't allocate more than the page can hold
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] value = new byte[length];
+        buffer.get(value);
+        return value;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.IOException;
+
+/**
+ * Decoder for the RLE / bit-packing hybrid encoding used for definition levels, dictionary indices and booleans.
+ */
+final class RleBitPackedDecoder {
+
+    private final byte[] buffer;
+    private final int end;
+    private final int bitWidth;
+    private final int bytesPerRleValue;
+    private int position;
+
+    private int remaining = 0;
+    private boolean rle;
+    private int rleValue;
+    private int[] packedValues = new int[8];
+    private int packedIndex;
+
+    RleBitPackedDecoder(byte[] buffer, int offset, int length, int bitWidth) throws IOException {
+        if (bitWidth < 0 || bitWidth > 32) {
+            throw new IOException("Invalid bit width in Parquet page: " + bitWidth);
+        }
+        this.buffer = buffer;
+        this.position = offset;
+        this.end = offset + length;
+        this.bitWidth = bitWidth;
+        this.bytesPerRleValue = (bitWidth + 7) / 8;
+    }
+
+    int next() throws IOException {
+        while (remaining == 0) {
+            readRun();
+        }
+        remaining--;
+        return rle ? rleValue : packedValues[packedIndex++];
+    }
+
+    private void readRun() throws IOException {
+        if (position >= end) {
+            throw new IOException("Unexpected end of RLE encoded data in Parquet page");
+        }
+        int header = readUnsignedVarInt();
+        if ((header & 1) == 0) {
+            rle = true;
+            remaining = header >>> 1;
+            int value = 0;
+            for (int i = 0; i < bytesPerRleValue; i++) {
+                value |= (readByte() & 0xFF) << (i * 8);
+            }
+            rleValue = value;
+        } else {
+            int numGroups = header >>> 1;
+            if (bitWidth == 0) {
+                rle = true;
+                rleValue = 0;
+                remaining = numGroups * 8;
+                return;
+            }
+            // Writers may truncate the last group
+            if ((long) (numGroups - 1) * bitWidth > end - position) {
+                throw new IOException("Invalid bit-packed run in Parquet page");
+            }
+            rle = false;
+            int numValues = numGroups * 8;
+            if (packedValues.length < numValues) {
+                packedValues = new int[numValues];
+            }
+            // Values are packed starting with the least significant bit
+            long bitPosition = (long) position * 8;
+            for (int i = 0; i < numValues; i++) {
+                int value = 0;
+                for (int bit = 0; bit < bitWidth; bit++, bitPosition++) {
+                    int byteIndex = (int) (bitPosition >>> 3);
+                    if (byteIndex < end && (buffer[byteIndex] & (1 << (bitPosition & 7))) != 0) {
+                        value |= 1 << bit;
+                    }
+                }
+                packedValues[i] = value;
+            }
+            position += numGroups * bitWidth;
+            remaining = numValues;
+            packedIndex = 0;
+        }
+    }
+
+    private int readUnsignedVarInt() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Invalid varint in Parquet page");
+    }
+
+    private byte readByte() throws IOException {
+        if (position >= end) {
+            throw new IOException("Unexpected end of RLE encoded data in Parquet page");
+        }
+        return buffer[position++];
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Assembles the rows of a row group from the values of its column chunks.
+ * Must be closed to release the memory accounted for the column chunks.
+ */
+public final class RowGroupReader implements AutoCloseable {
+
+    private final long numRows;
+    private final String[] names;
+    private final ColumnChunkReader[] readers;
+    private long rowNumber = 0;
+
+    RowGroupReader(long numRows, List<String> names, List<ColumnChunkReader> readers) {
+        this.numRows = numRows;
+        this.names = names.toArray(new String[0]);
+        this.readers = readers.toArray(new ColumnChunkReader[0]);
+    }
+
+    /**
+     * @return the next row, mapping the column names to their values in the order of the schema,
+     *         or null if all rows have been read.
+     */
+    @Nullable
+    public LinkedHashMap<String, Object> nextRow() throws IOException {
+        if (rowNumber >= numRows) {
+            return null;
+        }
+        rowNumber++;
+        LinkedHashMap<String, Object> row = LinkedHashMap.newLinkedHashMap(names.length);
+        for (int i = 0; i < names.length; i++) {
+            row.put(names[i], readers[i].next());
+        }
+        return row;
+    }
+
+    @Override
+    public void close() {
+        for (ColumnChunkReader reader : readers) {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal reader for the Thrift compact protocol which is used to encode the Parquet file metadata and page headers.
+ *
+ * <p>
+ * Structs are read field by field using {@link #readFieldBegin()}; fields which are not needed are
+ * skipped with {@link #skip(int)}.
+ * </p>
+ */
+final class ThriftCompactReader {
+
+    static final int STOP = 0;
+    static final int BOOLEAN_TRUE = 1;
+    static final int BOOLEAN_FALSE = 2;
+    static final int BYTE = 3;
+    static final int I16 = 4;
+    static final int I32 = 5;
+    static final int I64 = 6;
+    static final int DOUBLE = 7;
+    static final int BINARY = 8;
+    static final int LIST = 9;
+    static final int SET = 10;
+    static final int MAP = 11;
+    static final int STRUCT = 12;
+
+    private static final int MAX_NESTING_DEPTH = 64;
+
+    private final byte[] buffer;
+    private final int limit;
+    private int position;
+
+    private final short[] lastFieldIds = new short[MAX_NESTING_DEPTH];
+    private int depth = 0;
+    private int fieldType;
+    private short fieldId;
+    private int listElementType;
+
+    ThriftCompactReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.position = offset;
+        this.limit = offset + length;
+    }
+
+    int position() {
+        return position;
+    }
+
+    void readStructBegin() throws IOException {
+        if (depth == MAX_NESTING_DEPTH) {
+            throw new IOException("Parquet metadata is nested too deeply");
+        }
+        lastFieldIds[depth] = 0;
+        depth++;
+    }
+
+    void readStructEnd() {
+        depth--;
+    }
+
+    /**
+     * Reads the header of the next field of the current struct.
+     *
+     * @return false if the end of the struct is reached
+     */
+    boolean readFieldBegin() throws IOException {
+        int header = readByte() & 0xFF;
+        fieldType = header & 0x0F;
+        if (fieldType == STOP) {
+            return false;
+        }
+        int delta = header >>> 4;
+        if (delta == 0) {
+            fieldId = (short) zigzagToInt(readVarInt());
+        } else {
+            fieldId = (short) (lastFieldIds[depth - 1] + delta);
+        }
+        lastFieldIds[depth - 1] = fieldId;
+        return true;
+    }
+
+    short fieldId() {
+        return fieldId;
+    }
+
+    int fieldType() {
+        return fieldType;
+    }
+
+    /**
+     * Reads the value of a boolean field. The value is part of the field header.
+     */
+    boolean readBoolField() {
+        return fieldType == BOOLEAN_TRUE;
+    }
+
+    int readI32() throws IOException {
+        return zigzagToInt(readVarInt());
+    }
+
+    long readI64() throws IOException {
+        return zigzagToLong(readVarLong());
+    }
+
+    byte[] readBinary() throws IOException {
+        int length = readVarInt();
+        ensureAvailable(length);
+        byte[] bytes = new byte[length];
+        System.arraycopy(buffer, position, bytes, 0, length);
+        position += length;
+        return bytes;
+    }
+
+    String readString() throws IOException {
+        int length = readVarInt();
+        ensureAvailable(length);
+        String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+        position += length;
+        return value;
+    }
+
+    /**
+     * Reads a list header and returns the number of elements. Use {@link #listElementType()} to get their type.
+     */
+    int readListBegin() throws IOException {
+        int header = readByte() & 0xFF;
+        listElementType = header & 0x0F;
+        int size = header >>> 4;
+        if (size == 15) {
+            size = readVarInt();
+        }
+        if (size < 0) {
+            throw new IOException("Invalid list size in Parquet metadata: " + size);
+        }
+        return size;
+    }
+
+    int listElementType() {
+        return listElementType;
+    }
+
+    /**
+     * Skips a value of the given type.
+     */
+    void skip(int type) throws IOException {
+        switch (type) {
+            case BOOLEAN_TRUE, BOOLEAN_FALSE -> {
+                // value is part of the field header
+            }
+            case BYTE -> readByte();
+            case I16, I32 -> readVarInt();
+            case I64 -> readVarLong();
+            case DOUBLE -> {
+                ensureAvailable(8);
+                position += 8;
+            }
+            case BINARY -> {
+                int length = readVarInt();
+                ensureAvailable(length);
+                position += length;
+            }
+            case LIST, SET -> {
+                int size = readListBegin();
+                int elementType = listElementType;
+                for (int i = 0; i < size; i++) {
+                    skipElement(elementType);
+                }
+            }
+            case MAP -> {
+                int size = readVarInt();
+                if (size > 0) {
+                    int types = readByte() & 0xFF;
+                    for (int i = 0; i < size; i++) {
+                        skipElement(types >>> 4);
+                        skipElement(types & 0x0F);
+                    }
+                }
+            }
+            case STRUCT -> {
+                readStructBegin();
+                while (readFieldBegin()) {
+                    skip(fieldType);
+                }
+                readStructEnd();
+            }
+            default -> throw new IOException("Invalid type in Parquet metadata: " + type);
+        }
+    }
+
+    /**
+     * Skips a list or map element. Unlike fields, boolean elements are encoded as a byte.
+     */
+    private void skipElement(int type) throws IOException {
+        if (type == BOOLEAN_TRUE || type == BOOLEAN_FALSE) {
+            readByte();
+        } else {
+            skip(type);
+        }
+    }
+
+    private byte readByte() throws IOException {
+        ensureAvailable(1);
+        return buffer[position++];
+    }
+
+    private int readVarInt() throws IOException {
+        return (int) readVarLong();
+    }
+
+    private long readVarLong() throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Invalid varint in Parquet metadata");
+    }
+
+    private void ensureAvailable(int length) throws IOException {
+        if (length < 0 || position + length > limit) {
+            throw new IOException("Unexpected end of Parquet metadata");
+        }
+    }
+
+    private static int zigzagToInt(int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    private static long zigzagToLong(long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal writer for the Thrift compact protocol, the counterpart of {@link ThriftCompactReader}.
+ */
+final class ThriftCompactWriter {
+
+    private static final int MAX_NESTING_DEPTH = 16;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final short[] lastFieldIds = new short[MAX_NESTING_DEPTH];
+    private int depth = 0;
+
+    /**
+     * Starts a struct, either the top level struct or an element of a list.
+     */
+    void structBegin() {
+        lastFieldIds[depth++] = 0;
+    }
+
+    void fieldStructBegin(int id) {
+        fieldHeader(id, ThriftCompactReader.STRUCT);
+        structBegin();
+    }
+
+    void structEnd() {
+        out.write(ThriftCompactReader.STOP);
+        depth--;
+    }
+
+    void fieldBool(int id, boolean value) {
+        fieldHeader(id, value ? ThriftCompactReader.BOOLEAN_TRUE : ThriftCompactReader.BOOLEAN_FALSE);
+    }
+
+    void fieldI32(int id, int value) {
+        fieldHeader(id, ThriftCompactReader.I32);
+        i32(value);
+    }
+
+    void fieldI64(int id, long value) {
+        fieldHeader(id, ThriftCompactReader.I64);
+        writeVarLong((value << 1) ^ (value >> 63));
+    }
+
+    void fieldString(int id, String value) {
+        fieldHeader(id, ThriftCompactReader.BINARY);
+        string(value);
+    }
+
+    /**
+     * Writes the header of a list field. The elements must be written afterwards.
+     */
+    void listBegin(int id, int elementType, int size) {
+        fieldHeader(id, ThriftCompactReader.LIST);
+        if (size < 15) {
+            out.write((size << 4) | elementType);
+        } else {
+            out.write(0xF0 | elementType);
+            writeVarLong(size);
+        }
+    }
+
+    void i32(int value) {
+        writeVarLong(Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+    }
+
+    void string(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes already encoded bytes, e.g. a complete struct.
+     */
+    void raw(byte[] bytes) {
+        out.write(bytes, 0, bytes.length);
+    }
+
+    byte[] toByteArray() {
+        return out.toByteArray();
+    }
+
+    private void fieldHeader(int id, int type) {
+        int delta = id - lastFieldIds[depth - 1];
+        if (delta > 0 && delta <= 15) {
+            out.write((delta << 4) | type);
+        } else {
+            out.write(type);
+            i32(id);
+        }
+        lastFieldIds[depth - 1] = (short) id;
+    }
+
+    private void writeVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
@@ -21,26 +21,36 @@
 
 package io.crate.execution.engine.collect.sources;
 
+import static io.crate.analyze.CopyStatementSettings.SPLIT_SIZE_SETTING;
+import static io.crate.execution.dsl.projection.AbstractIndexWriterProjection.BULK_SIZE_SETTING;
+import static io.crate.execution.support.ThreadPools.numIdleThreads;
 import static java.util.Objects.requireNonNull;
 
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Predicate;
 
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.threadpool.ThreadPool;
 import io.crate.common.annotations.VisibleForTesting;
 
 import io.crate.analyze.AnalyzedCopyFrom;
 import io.crate.analyze.CopyFromParserProperties;
 import io.crate.analyze.SymbolEvaluator;
+import io.crate.common.collections.Lists;
 import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
 import io.crate.data.Row;
 import io.crate.data.SkippingBatchIterator;
 import io.crate.exceptions.UnauthorizedException;
@@ -51,6 +61,7 @@ import io.crate.execution.engine.collect.files.FileInputFactory;
 import io.crate.execution.engine.collect.files.FileReadingIterator;
 import io.crate.execution.engine.collect.files.LineCollectorExpression;
 import io.crate.execution.engine.collect.files.LineProcessor;
+import io.crate.execution.engine.collect.files.ReadAheadBatchIterator;
 import io.crate.expression.InputFactory;
 import io.crate.expression.reference.ReferenceResolver;
 import io.crate.expression.reference.file.FileLineReferenceResolver;
@@ -93,8 +104,6 @@ public class FileCollectSource implements CollectSource {
                                                              boolean supportMoveToStart) {
         FileUriCollectPhase fileUriCollectPhase = (FileUriCollectPhase) collectPhase;
         ReferenceResolver<LineCollectorExpression<?>> referenceResolver = FileLineReferenceResolver::getImplementation;
-        InputFactory.Context<LineCollectorExpression<?>> ctx = inputFactory.ctxForRefs(txnCtx, referenceResolver);
-        ctx.add(collectPhase.toCollect());
 
         Role user = requireNonNull(roles.findUser(txnCtx.sessionSettings().userName()), "User who invoked a statement must exist");
         List<URI> fileUris = targetUriToStringList(txnCtx, nodeCtx, fileUriCollectPhase.targetUri()).stream()
@@ -106,28 +115,64 @@ public class FileCollectSource implements CollectSource {
                 return uri;
             })
             .toList();
-        FileReadingIterator fileReadingIterator = new FileReadingIterator(
-            fileUris,
-            fileUriCollectPhase.compression(),
-            fileInputFactoryMap,
-            fileUriCollectPhase.sharedStorage(),
-            fileUriCollectPhase.nodeIds().size(),
-            getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId()),
-            fileUriCollectPhase.withClauseOptions(),
-            threadPool.scheduler()
-        );
         CopyFromParserProperties parserProperties = fileUriCollectPhase.parserProperties();
-        LineProcessor lineProcessor = new LineProcessor(
-            parserProperties.skipNumLines() > 0
-                ? new SkippingBatchIterator<>(fileReadingIterator, (int) parserProperties.skipNumLines())
-                : fileReadingIterator,
-            ctx.topLevelInputs(),
-            ctx.expressions(),
-            fileUriCollectPhase.inputFormat(),
-            parserProperties,
-            fileUriCollectPhase.targetColumns()
-        );
-        return CompletableFuture.completedFuture(lineProcessor);
+        Settings withClauseOptions = fileUriCollectPhase.withClauseOptions();
+        FileUriCollectPhase.InputFormat inputFormat = fileUriCollectPhase.inputFormat();
+        // Lines to skip are relative to the beginning of a file, so files are only split if no lines are skipped
+        long splitSize = parserProperties.skipNumLines() > 0 ? 0 : SPLIT_SIZE_SETTING.get(withClauseOptions).getBytes();
+        // Row groups of Parquet files are always read concurrently
+        boolean readConcurrently = splitSize > 0
+            || (inputFormat == FileUriCollectPhase.InputFormat.PARQUET && parserProperties.skipNumLines() == 0);
+        int numThreads = readConcurrently ? EsExecutors.numberOfProcessors(clusterService.getSettings()) : 1;
+        int numReaders = fileUriCollectPhase.nodeIds().size();
+        int readerNumber = getReaderNumber(fileUriCollectPhase.nodeIds(), clusterService.state().nodes().getLocalNodeId());
+        Predicate<URI> hasHeader = parserProperties.fileHeader()
+            ? uri -> LineProcessor.isCSV(inputFormat, uri)
+            : _ -> false;
+
+        List<BatchIterator<Row>> iterators = new ArrayList<>(numThreads);
+        for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
+            FileReadingIterator fileReadingIterator = new FileReadingIterator(
+                fileUris,
+                fileUriCollectPhase.compression(),
+                fileInputFactoryMap,
+                fileUriCollectPhase.sharedStorage(),
+                numReaders,
+                readerNumber,
+                withClauseOptions,
+                threadPool.scheduler(),
+                splitSize,
+                numThreads,
+                threadNumber,
+                hasHeader,
+                fileUriCollectPhase.targetColumns(),
+                collectTask.getRamAccounting()
+            );
+            InputFactory.Context<LineCollectorExpression<?>> ctx = inputFactory.ctxForRefs(txnCtx, referenceResolver);
+            ctx.add(collectPhase.toCollect());
+            LineProcessor lineProcessor = new LineProcessor(
+                parserProperties.skipNumLines() > 0
+                    ? new SkippingBatchIterator<>(fileReadingIterator, (int) parserProperties.skipNumLines())
+                    : fileReadingIterator,
+                ctx.topLevelInputs(),
+                ctx.expressions(),
+                inputFormat,
+                parserProperties,
+                fileUriCollectPhase.targetColumns()
+            );
+            iterators.add(lineProcessor);
+        }
+        if (iterators.size() == 1) {
+            return CompletableFuture.completedFuture(iterators.get(0));
+        }
+        // Read and parse the splits or row groups concurrently, each iterator reading a share of them
+        int batchSize = BULK_SIZE_SETTING.get(withClauseOptions);
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
+        return CompletableFuture.completedFuture(CompositeBatchIterator.asyncComposite(
+            executor,
+            numIdleThreads(executor, numThreads),
+            Lists.map(iterators, it -> new ReadAheadBatchIterator(it, batchSize))
+        ));
     }
 
     @VisibleForTesting
@@ -42,6 +42,8 @@ import org.elasticsearch.cluster.routing.ShardRoutingState;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.Index;
@@ -134,12 +136,21 @@ import io.crate.types.DataType;
  * </pre>
  *
  * In other cases multiple shards are simply processed sequentially by concatenating the BatchIterators
+ *
+ * <p>
+ *     If there are more idle threads than shards, the segments of a shard with shard projections are
+ *     split into up to {@link #MAX_SLICES_PER_SHARD} slices, each consumed by its own source of the
+ *     AsyncCompositeBatchIterator.
+ * </p>
  */
 @Singleton
 public class ShardCollectSource implements CollectSource, IndexEventListener {
 
     private static final Logger LOGGER = LogManager.getLogger(ShardCollectSource.class);
 
+    public static final Setting<Integer> MAX_SLICES_PER_SHARD = Setting.intSetting(
+        "collect.max_slices_per_shard", 4, 1, Property.Dynamic, Property.NodeScope, Property.Exposed);
+
     private final IndicesService indicesService;
     private final ClusterService clusterService;
     private final RemoteCollectorFactory remoteCollectorFactory;
@@ -152,6 +163,7 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
     private final StaticTableReferenceResolver<UnassignedShard> unassignedShardReferenceResolver;
     private final StaticTableReferenceResolver<ShardRowContext> shardReferenceResolver;
     private final IntSupplier availableThreads;
+    private volatile int maxSlicesPerShard;
 
     @Inject
     public ShardCollectSource(Settings settings,
@@ -174,6 +186,9 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
         ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.executor(ThreadPool.Names.SEARCH);
         this.availableThreads = numIdleThreads(executor, EsExecutors.numberOfProcessors(settings));
         this.executor = executor;
+        this.maxSlicesPerShard = MAX_SLICES_PER_SHARD.get(settings);
+        clusterService.getClusterSettings().addSettingsUpdateConsumer(
+            MAX_SLICES_PER_SHARD, value -> maxSlicesPerShard = value);
         this.inputFactory = new InputFactory(nodeCtx);
         this.shardCollectorProviderFactory = shardCollectorProviderFactory;
         EvaluatingNormalizer nodeNormalizer = new EvaluatingNormalizer(
@@ -267,39 +282,52 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
 
         boolean hasShardProjections = Projections.hasAnyShardProjections(collectPhase.projections());
         Map<String, IntIndexedContainer> indexShards = collectPhase.routing().locations().get(localNodeId);
-        List<CompletableFuture<BatchIterator<Row>>> iterators = indexShards == null
+        int maxSlices = hasShardProjections && indexShards != null
+            ? maxSlices(indexShards)
+            : 1;
+        List<CompletableFuture<List<BatchIterator<Row>>>> iterators = indexShards == null
             ? Collections.emptyList()
-            : getIterators(collectTask, collectPhase, requireMoveToStartSupport, indexShards);
-
-        final CompletableFuture<BatchIterator<Row>> result;
-        switch (iterators.size()) {
-            case 0:
-                result = CompletableFuture.completedFuture(InMemoryBatchIterator.empty(SentinelRow.SENTINEL));
-                break;
-
-            case 1:
-                result = iterators.get(0);
-                break;
-
-            default:
-                if (hasShardProjections) {
-                    // use AsyncCompositeBatchIterator for multi-threaded loadNextBatch
-                    // in order to process shard-based projections concurrently
-
-                    result = CompletableFutures.allAsList(iterators)
-                        .thenApply(its -> CompositeBatchIterator.asyncComposite(
-                            executor,
-                            availableThreads,
-                            its
-                        ));
-                } else {
-                    result = CompletableFutures.allAsList(iterators)
-                        .thenApply(CompositeBatchIterator::seqComposite);
+            : getIterators(collectTask, collectPhase, requireMoveToStartSupport, indexShards, maxSlices);
+
+        final CompletableFuture<BatchIterator<Row>> result = CompletableFutures.allAsList(iterators)
+            .thenApply(shardIterators -> {
+                List<BatchIterator<Row>> its = new ArrayList<>(shardIterators.size());
+                for (List<BatchIterator<Row>> slices : shardIterators) {
+                    its.addAll(slices);
                 }
-        }
+                switch (its.size()) {
+                    case 0:
+                        return InMemoryBatchIterator.empty(SentinelRow.SENTINEL);
+
+                    case 1:
+                        return its.get(0);
+
+                    default:
+                        if (hasShardProjections) {
+                            // use AsyncCompositeBatchIterator for multi-threaded loadNextBatch
+                            // in order to process shard-based projections concurrently
+                            return CompositeBatchIterator.asyncComposite(executor, availableThreads, its);
+                        }
+                        return CompositeBatchIterator.seqComposite(its);
+                }
+            });
         return result.thenApply(it -> projectors.wrap(it));
     }
 
+    /**
+     * Segment slices only pay off if there are threads left once every shard got one.
+     */
+    private int maxSlices(Map<String, IntIndexedContainer> indexShards) {
+        int numShards = 0;
+        for (IntIndexedContainer shards : indexShards.values()) {
+            numShards += shards.size();
+        }
+        if (numShards == 0) {
+            return 1;
+        }
+        return Math.max(1, Math.min(maxSlicesPerShard, availableThreads.getAsInt() / numShards));
+    }
+
     private CompletableFuture<BatchIterator<Row>> createMultiShardScoreDocCollector(RoutedCollectPhase collectPhase,
                                                                                     boolean supportMoveToStart,
                                                                                     CollectTask collectTask,
@@ -409,13 +437,14 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
         throw Exceptions.toRuntimeException(err);
     }
 
-    private List<CompletableFuture<BatchIterator<Row>>> getIterators(CollectTask collectTask,
-                                                                     RoutedCollectPhase collectPhase,
-                                                                     boolean requiresScroll,
-                                                                     Map<String, IntIndexedContainer> indexShards) {
+    private List<CompletableFuture<List<BatchIterator<Row>>>> getIterators(CollectTask collectTask,
+                                                                           RoutedCollectPhase collectPhase,
+                                                                           boolean requiresScroll,
+                                                                           Map<String, IntIndexedContainer> indexShards,
+                                                                           int maxSlices) {
 
         Metadata metadata = clusterService.state().metadata();
-        List<CompletableFuture<BatchIterator<Row>>> iterators = new ArrayList<>();
+        List<CompletableFuture<List<BatchIterator<Row>>>> iterators = new ArrayList<>();
         for (Map.Entry<String, IntIndexedContainer> entry : indexShards.entrySet()) {
             String indexUUID = entry.getKey();
             IndexMetadata indexMD = metadata.index(indexUUID);
@@ -430,17 +459,20 @@ public class ShardCollectSource implements CollectSource, IndexEventListener {
                 ShardId shardId = new ShardId(index, shardCursor.value);
                 try {
                     ShardCollectorProvider shardCollectorProvider = getCollectorProviderSafe(shardId);
-                    CompletableFuture<BatchIterator<Row>> iterator = shardCollectorProvider
+                    CompletableFuture<List<BatchIterator<Row>>> shardIterators = shardCollectorProvider
                         .awaitShardSearchActive()
-                        .thenApply(batchIteratorFactory -> batchIteratorFactory.getIterator(
+                        .thenApply(batchIteratorFactory -> batchIteratorFactory.getIterators(
                             collectPhase,
                             requiresScroll,
-                            collectTask
+                            collectTask,
+                            maxSlices
                         ))
-                        .exceptionallyCompose(err -> shardFailureFallbackOrRaise(err, shardId, collectPhase, collectTask, requiresScroll));
-                    iterators.add(iterator);
+                        .exceptionallyCompose(err -> shardFailureFallbackOrRaise(err, shardId, collectPhase, collectTask, requiresScroll)
+                            .thenApply(List::of));
+                    iterators.add(shardIterators);
                 } catch (Throwable e) {
-                    iterators.add(shardFailureFallbackOrRaise(e, shardId, collectPhase, collectTask, requiresScroll));
+                    iterators.add(shardFailureFallbackOrRaise(e, shardId, collectPhase, collectTask, requiresScroll)
+                        .thenApply(List::of));
                 }
             }
         }
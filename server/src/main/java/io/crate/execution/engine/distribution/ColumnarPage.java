@@ -0,0 +1,553 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.distribution;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+
+import io.crate.Streamer;
+import io.crate.data.Row;
+import io.crate.types.BooleanType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.StringType;
+import io.crate.types.TimestampType;
+
+/**
+ * Column oriented encoding of the rows of a {@link StreamBucket}.
+ *
+ * <p>
+ * Columns of primitive types are encoded as fixed width vectors of their non-null values plus a null bitmap.
+ * Text columns with repeating values are dictionary encoded. All other columns are written value by value
+ * using their {@link Streamer}.
+ * Pages larger than {@link #COMPRESSION_THRESHOLD} are LZ4 compressed if that reduces their size.
+ * </p>
+ *
+ * <p>
+ * The receiver decodes a page once into typed vectors and exposes the rows as views over these vectors,
+ * instead of materializing an {@code Object[]} per row.
+ * </p>
+ */
+final class ColumnarPage {
+
+    private static final byte GENERIC = 0;
+    private static final byte LONG = 1;
+    private static final byte INT = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte STRING = 6;
+    private static final byte STRING_DICTIONARY = 7;
+
+    private static final byte CODEC_NONE = 0;
+    private static final byte CODEC_LZ4 = 1;
+
+    static final int COMPRESSION_THRESHOLD = 8 * 1024;
+
+    private ColumnarPage() {
+    }
+
+    private static byte kind(Streamer<?> streamer) {
+        Class<?> type = streamer.getClass();
+        if (type == LongType.class || type == TimestampType.class || type == DateType.class) {
+            return LONG;
+        } else if (type == IntegerType.class) {
+            return INT;
+        } else if (type == DoubleType.class) {
+            return DOUBLE;
+        } else if (type == FloatType.class) {
+            return FLOAT;
+        } else if (type == BooleanType.class) {
+            return BOOLEAN;
+        } else if (streamer instanceof StringType) {
+            return STRING;
+        }
+        return GENERIC;
+    }
+
+    /**
+     * Buffers rows column by column and encodes them into a page.
+     */
+    static final class Writer {
+
+        private final Streamer<?>[] streamers;
+        private final ColumnWriter[] columns;
+        private int size = 0;
+
+        Writer(Streamer<?>[] streamers) {
+            this.streamers = streamers;
+            this.columns = new ColumnWriter[streamers.length];
+            for (int i = 0; i < streamers.length; i++) {
+                columns[i] = new ColumnWriter(kind(streamers[i]));
+            }
+        }
+
+        void add(Row row) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].add(streamers[i], size, row.get(i));
+            }
+            size++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        long ramBytesUsed() {
+            long bytes = 0;
+            for (ColumnWriter column : columns) {
+                bytes += column.ramBytesUsed();
+            }
+            return bytes;
+        }
+
+        BytesReference build() throws IOException {
+            BytesStreamOutput out = new BytesStreamOutput();
+            for (ColumnWriter column : columns) {
+                column.writeTo(out, size);
+            }
+            return compress(out.bytes());
+        }
+
+        void reset() {
+            for (ColumnWriter column : columns) {
+                column.reset();
+            }
+            size = 0;
+        }
+    }
+
+    private static final class ColumnWriter {
+
+        private final byte kind;
+
+        private long[] nulls = new long[1];
+        private boolean hasNulls = false;
+        private int numValues = 0;
+
+        private long[] longs;
+        private double[] doubles;
+        private String[] strings;
+        private long stringBytes = 0;
+        private BytesStreamOutput generic;
+
+        ColumnWriter(byte kind) {
+            this.kind = kind;
+            switch (kind) {
+                case LONG, INT, BOOLEAN -> longs = new long[16];
+                case DOUBLE, FLOAT -> doubles = new double[16];
+                case STRING -> strings = new String[16];
+                default -> generic = new BytesStreamOutput();
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        void add(Streamer streamer, int row, Object value) throws IOException {
+            if (kind == GENERIC) {
+                streamer.writeValueTo(generic, value);
+                return;
+            }
+            if (value == null) {
+                int word = row >>> 6;
+                if (word >= nulls.length) {
+                    nulls = Arrays.copyOf(nulls, Math.max(word + 1, nulls.length * 2));
+                }
+                nulls[word] |= 1L << row;
+                hasNulls = true;
+                return;
+            }
+            switch (kind) {
+                case LONG, INT -> {
+                    ensureCapacity();
+                    longs[numValues] = ((Number) value).longValue();
+                }
+                case BOOLEAN -> {
+                    ensureCapacity();
+                    longs[numValues] = (Boolean) value ? 1 : 0;
+                }
+                case DOUBLE, FLOAT -> {
+                    ensureCapacity();
+                    doubles[numValues] = ((Number) value).doubleValue();
+                }
+                default -> {
+                    ensureCapacity();
+                    String str = (String) value;
+                    strings[numValues] = str;
+                    stringBytes += RamUsageEstimator.sizeOf(str);
+                }
+            }
+            numValues++;
+        }
+
+        private void ensureCapacity() {
+            if (longs != null && numValues == longs.length) {
+                longs = Arrays.copyOf(longs, numValues * 2);
+            } else if (doubles != null && numValues == doubles.length) {
+                doubles = Arrays.copyOf(doubles, numValues * 2);
+            } else if (strings != null && numValues == strings.length) {
+                strings = Arrays.copyOf(strings, numValues * 2);
+            }
+        }
+
+        long ramBytesUsed() {
+            if (generic != null) {
+                return generic.ramBytesUsed();
+            }
+            long bytes = nulls.length * Long.BYTES;
+            if (longs != null) {
+                bytes += longs.length * Long.BYTES;
+            } else if (doubles != null) {
+                bytes += doubles.length * Double.BYTES;
+            } else {
+                bytes += strings.length * RamUsageEstimator.NUM_BYTES_OBJECT_REF + stringBytes;
+            }
+            return bytes;
+        }
+
+        void writeTo(BytesStreamOutput out, int size) throws IOException {
+            if (kind == GENERIC) {
+                out.writeByte(GENERIC);
+                out.writeBytesReference(generic.bytes());
+                return;
+            }
+            Map<String, Integer> dictionary = kind == STRING ? dictionary() : null;
+            out.writeByte(dictionary == null ? kind : STRING_DICTIONARY);
+            out.writeBoolean(hasNulls);
+            if (hasNulls) {
+                int numWords = (size + 63) >>> 6;
+                for (int i = 0; i < numWords; i++) {
+                    out.writeLong(i < nulls.length ? nulls[i] : 0L);
+                }
+            }
+            switch (kind) {
+                case LONG -> {
+                    for (int i = 0; i < numValues; i++) {
+                        out.writeLong(longs[i]);
+                    }
+                }
+                case INT -> {
+                    for (int i = 0; i < numValues; i++) {
+                        out.writeInt((int) longs[i]);
+                    }
+                }
+                case BOOLEAN -> {
+                    for (int i = 0; i < numValues; i += 64) {
+                        long word = 0;
+                        for (int j = i; j < Math.min(numValues, i + 64); j++) {
+                            word |= longs[j] << (j - i);
+                        }
+                        out.writeLong(word);
+                    }
+                }
+                case DOUBLE -> {
+                    for (int i = 0; i < numValues; i++) {
+                        out.writeDouble(doubles[i]);
+                    }
+                }
+                case FLOAT -> {
+                    for (int i = 0; i < numValues; i++) {
+                        out.writeFloat((float) doubles[i]);
+                    }
+                }
+                default -> {
+                    if (dictionary == null) {
+                        for (int i = 0; i < numValues; i++) {
+                            out.writeString(strings[i]);
+                        }
+                    } else {
+                        out.writeVInt(dictionary.size());
+                        for (String value : dictionary.keySet()) {
+                            out.writeString(value);
+                        }
+                        for (int i = 0; i < numValues; i++) {
+                            out.writeVInt(dictionary.get(strings[i]));
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return the dictionary of the text values in insertion order, or null if dictionary encoding
+         *         doesn't pay off because less than half of the values are repeated.
+         */
+        private Map<String, Integer> dictionary() {
+            if (numValues < 2) {
+                return null;
+            }
+            int maxEntries = numValues / 2;
+            Map<String, Integer> dictionary = new LinkedHashMap<>();
+            for (int i = 0; i < numValues; i++) {
+                if (dictionary.putIfAbsent(strings[i], dictionary.size()) == null && dictionary.size() > maxEntries) {
+                    return null;
+                }
+            }
+            return dictionary;
+        }
+
+        void reset() {
+            Arrays.fill(nulls, 0L);
+            hasNulls = false;
+            if (strings != null) {
+                Arrays.fill(strings, 0, numValues, null);
+                stringBytes = 0;
+            }
+            numValues = 0;
+            if (generic != null) {
+                generic = new BytesStreamOutput();
+            }
+        }
+    }
+
+    private static BytesReference compress(BytesReference page) throws IOException {
+        int length = page.length();
+        if (length < COMPRESSION_THRESHOLD) {
+            return withCodec(CODEC_NONE, page);
+        }
+        byte[] uncompressed = BytesReference.toBytes(page);
+        byte[] compressed = new byte[length + length / 255 + 16];
+        ByteArrayDataOutput compressedOut = new ByteArrayDataOutput(compressed);
+        LZ4.compress(uncompressed, 0, length, compressedOut, new LZ4.FastCompressionHashTable());
+        int compressedLength = compressedOut.getPosition();
+        if (compressedLength > length - length / 8) {
+            return withCodec(CODEC_NONE, page);
+        }
+        BytesStreamOutput out = new BytesStreamOutput(compressedLength + 8);
+        out.writeByte(CODEC_LZ4);
+        out.writeVInt(length);
+        out.writeBytes(compressed, 0, compressedLength);
+        return out.bytes();
+    }
+
+    private static BytesReference withCodec(byte codec, BytesReference page) throws IOException {
+        BytesStreamOutput out = new BytesStreamOutput(page.length() + 1);
+        out.writeByte(codec);
+        page.writeTo(out);
+        return out.bytes();
+    }
+
+    /**
+     * Decodes a page created by {@link Writer#build()}.
+     */
+    static Reader read(BytesReference bytes, Streamer<?>[] streamers, int size) throws IOException {
+        StreamInput in = bytes.streamInput();
+        byte codec = in.readByte();
+        if (codec == CODEC_LZ4) {
+            int length = in.readVInt();
+            byte[] compressed = in.readAllBytes();
+            byte[] uncompressed = new byte[length];
+            LZ4.decompress(new ByteArrayDataInput(compressed), length, uncompressed, 0);
+            in = new BytesArray(uncompressed).streamInput();
+        }
+        ColumnVector[] columns = new ColumnVector[streamers.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = ColumnVector.read(in, streamers[i], size);
+        }
+        return new Reader(columns, size);
+    }
+
+    /**
+     * Decoded columns of a page.
+     */
+    static final class Reader {
+
+        private final ColumnVector[] columns;
+        private final int size;
+
+        private Reader(ColumnVector[] columns, int size) {
+            this.columns = columns;
+            this.size = size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int numColumns() {
+            return columns.length;
+        }
+
+        Object get(int column, int row) {
+            return columns[column].get(row);
+        }
+    }
+
+    private static final class ColumnVector {
+
+        private final byte kind;
+        private final long[] nulls;
+
+        // Index of the value of each row within the value vectors, only set if the column has nulls
+        private final int[] valueIndices;
+
+        private long[] longs;
+        private double[] doubles;
+        private long[] booleans;
+        private String[] strings;
+        private int[] dictionaryIndices;
+        private Object[] objects;
+
+        private ColumnVector(byte kind, long[] nulls, int size) {
+            this.kind = kind;
+            this.nulls = nulls;
+            if (nulls == null) {
+                valueIndices = null;
+            } else {
+                valueIndices = new int[size];
+                int valueIndex = 0;
+                for (int row = 0; row < size; row++) {
+                    valueIndices[row] = valueIndex;
+                    if ((nulls[row >>> 6] & (1L << row)) == 0) {
+                        valueIndex++;
+                    }
+                }
+            }
+        }
+
+        int numValues(int size) {
+            if (nulls == null) {
+                return size;
+            }
+            int numNulls = 0;
+            for (long word : nulls) {
+                numNulls += Long.bitCount(word);
+            }
+            return size - numNulls;
+        }
+
+        static ColumnVector read(StreamInput in, Streamer<?> streamer, int size) throws IOException {
+            byte kind = in.readByte();
+            if (kind == GENERIC) {
+                ColumnVector vector = new ColumnVector(kind, null, size);
+                StreamInput values = in.readBytesReference().streamInput();
+                vector.objects = new Object[size];
+                for (int i = 0; i < size; i++) {
+                    vector.objects[i] = streamer.readValueFrom(values);
+                }
+                return vector;
+            }
+            long[] nulls = null;
+            if (in.readBoolean()) {
+                nulls = new long[(size + 63) >>> 6];
+                for (int i = 0; i < nulls.length; i++) {
+                    nulls[i] = in.readLong();
+                }
+            }
+            ColumnVector vector = new ColumnVector(kind, nulls, size);
+            int numValues = vector.numValues(size);
+            switch (kind) {
+                case LONG -> {
+                    vector.longs = new long[numValues];
+                    for (int i = 0; i < numValues; i++) {
+                        vector.longs[i] = in.readLong();
+                    }
+                }
+                case INT -> {
+                    vector.longs = new long[numValues];
+                    for (int i = 0; i < numValues; i++) {
+                        vector.longs[i] = in.readInt();
+                    }
+                }
+                case BOOLEAN -> {
+                    vector.booleans = new long[(numValues + 63) >>> 6];
+                    for (int i = 0; i < vector.booleans.length; i++) {
+                        vector.booleans[i] = in.readLong();
+                    }
+                }
+                case DOUBLE -> {
+                    vector.doubles = new double[numValues];
+                    for (int i = 0; i < numValues; i++) {
+                        vector.doubles[i] = in.readDouble();
+                    }
+                }
+                case FLOAT -> {
+                    vector.doubles = new double[numValues];
+                    for (int i = 0; i < numValues; i++) {
+                        vector.doubles[i] = in.readFloat();
+                    }
+                }
+                case STRING -> {
+                    vector.strings = new String[numValues];
+                    for (int i = 0; i < numValues; i++) {
+                        vector.strings[i] = in.readString();
+                    }
+                }
+                case STRING_DICTIONARY -> {
+                    vector.strings = new String[in.readVInt()];
+                    for (int i = 0; i < vector.strings.length; i++) {
+                        vector.strings[i] = in.readString();
+                    }
+                    vector.dictionaryIndices = new int[numValues];
+                    for (int i = 0; i < numValues; i++) {
+                        vector.dictionaryIndices[i] = in.readVInt();
+                    }
+                }
+                default -> throw new IllegalStateException("Unknown column encoding: " + kind);
+            }
+            return vector;
+        }
+
+        boolean isNull(int row) {
+            if (kind == GENERIC) {
+                return objects[row] == null;
+            }
+            return nulls != null && (nulls[row >>> 6] & (1L << row)) != 0;
+        }
+
+        int valueIndex(int row) {
+            return valueIndices == null ? row : valueIndices[row];
+        }
+
+        Object get(int row) {
+            if (kind == GENERIC) {
+                return objects[row];
+            }
+            if (isNull(row)) {
+                return null;
+            }
+            int idx = valueIndex(row);
+            return switch (kind) {
+                case LONG -> longs[idx];
+                case INT -> (int) longs[idx];
+                case BOOLEAN -> (booleans[idx >>> 6] & (1L << idx)) != 0;
+                case DOUBLE -> doubles[idx];
+                case FLOAT -> (float) doubles[idx];
+                case STRING -> strings[idx];
+                default -> strings[dictionaryIndices[idx]];
+            };
+        }
+    }
+}
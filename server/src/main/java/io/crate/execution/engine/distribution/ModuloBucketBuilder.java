@@ -54,7 +54,7 @@ public class ModuloBucketBuilder implements MultiBucketBuilder {
         this.expressions = expressions;
         this.bucketBuilders = new ArrayList<>(numBuckets);
         for (int i = 0; i < numBuckets; i++) {
-            bucketBuilders.add(new StreamBucket.Builder(streamers, ramAccounting));
+            bucketBuilders.add(new StreamBucket.Builder(streamers, ramAccounting, true));
         }
     }
 
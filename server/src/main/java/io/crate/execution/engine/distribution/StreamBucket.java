@@ -29,6 +29,7 @@ import java.util.Collections;
 import java.util.Iterator;
 
 import org.apache.lucene.util.Accountable;
+import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamInput;
@@ -48,6 +49,14 @@ public class StreamBucket implements Bucket, Writeable {
     private int size = -1;
     private BytesReference bytes;
 
+    /**
+     * If true {@link #bytes} is a {@link ColumnarPage} instead of the rows written one after another.
+     */
+    private boolean columnar = false;
+
+    @Nullable
+    private ColumnarPage.Reader page;
+
     public static class Builder implements Accountable {
 
         private static final int INITIAL_PAGE_SIZE = 1024;
@@ -58,17 +67,44 @@ public class StreamBucket implements Bucket, Writeable {
         private BytesStreamOutput out;
         private long prevRamUsed = 0L;
 
+        @Nullable
+        private final ColumnarPage.Writer columnarWriter;
+
         public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting) {
+            this(streamers, ramAccounting, false);
+        }
+
+        /**
+         * @param columnar if true the rows are encoded column by column, see {@link ColumnarPage}.
+         *                 Pays off for buckets which are sent to other nodes.
+         */
+        public Builder(Streamer<?>[] streamers, RamAccounting ramAccounting, boolean columnar) {
             this.ramAccounting = requireNonNull(ramAccounting, "RamAccounting must not be null");
             assert validStreamers(streamers) : "streamers must not be null and they shouldn't be of undefinedType";
             this.streamers = streamers;
-            out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
+            if (columnar) {
+                columnarWriter = new ColumnarPage.Writer(streamers);
+            } else {
+                columnarWriter = null;
+                out = new BytesStreamOutput(INITIAL_PAGE_SIZE);
+            }
         }
 
         public void add(Row row) {
             assert streamers.length == row.numColumns() : "number of streamer must match row size";
 
             size++;
+            if (columnarWriter != null) {
+                try {
+                    columnarWriter.add(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                long ramUsed = columnarWriter.ramBytesUsed();
+                ramAccounting.addBytes(ramUsed - prevRamUsed);
+                prevRamUsed = ramUsed;
+                return;
+            }
             for (int i = 0; i < row.numColumns(); i++) {
                 try {
                     //noinspection unchecked
@@ -84,12 +120,25 @@ public class StreamBucket implements Bucket, Writeable {
         public StreamBucket build() {
             StreamBucket sb = new StreamBucket(streamers);
             sb.size = size;
-            sb.bytes = out.bytes();
+            if (columnarWriter == null) {
+                sb.bytes = out.bytes();
+            } else {
+                try {
+                    sb.bytes = columnarWriter.build();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                sb.columnar = true;
+            }
             return sb;
         }
 
         public void reset() {
-            out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
+            if (columnarWriter == null) {
+                out = new BytesStreamOutput(size); // next bucket is probably going to have the same size
+            } else {
+                columnarWriter.reset();
+            }
             size = 0;
         }
 
@@ -170,6 +219,51 @@ public class StreamBucket implements Bucket, Writeable {
         }
     }
 
+    private static class ColumnarRowIterator implements Iterator<Row> {
+
+        private final ColumnarPage.Reader page;
+        private final ColumnarRow row;
+
+        private ColumnarRowIterator(ColumnarPage.Reader page) {
+            this.page = page;
+            this.row = new ColumnarRow(page);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return row.pos + 1 < page.size();
+        }
+
+        @Override
+        public Row next() {
+            row.pos++;
+            return row;
+        }
+    }
+
+    /**
+     * Row backed by the column vectors of a {@link ColumnarPage}.
+     */
+    private static class ColumnarRow extends Row {
+
+        private final ColumnarPage.Reader page;
+        private int pos = -1;
+
+        private ColumnarRow(ColumnarPage.Reader page) {
+            this.page = page;
+        }
+
+        @Override
+        public int numColumns() {
+            return page.numColumns();
+        }
+
+        @Override
+        public Object get(int index) {
+            return page.get(index, pos);
+        }
+    }
+
     @Override
     public Iterator<Row> iterator() {
         if (size < 1) {
@@ -177,6 +271,12 @@ public class StreamBucket implements Bucket, Writeable {
         }
         assert streamers != null : "streamers must not be null";
         try {
+            if (columnar) {
+                if (page == null) {
+                    page = ColumnarPage.read(bytes, streamers, size);
+                }
+                return new ColumnarRowIterator(page);
+            }
             return new RowIterator(bytes.streamInput(), streamers, size);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
@@ -199,6 +299,9 @@ public class StreamBucket implements Bucket, Writeable {
     public StreamBucket(StreamInput in) throws IOException {
         size = in.readVInt();
         if (size > 0) {
+            if (in.getVersion().onOrAfter(Version.V_6_3_0)) {
+                columnar = in.readBoolean();
+            }
             bytes = in.readBytesReference();
         }
     }
@@ -215,7 +318,29 @@ public class StreamBucket implements Bucket, Writeable {
         assert size > -1 : "size must be > -1";
         out.writeVInt(size);
         if (size > 0) {
-            out.writeBytesReference(bytes);
+            if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
+                out.writeBoolean(columnar);
+                out.writeBytesReference(bytes);
+            } else if (columnar) {
+                out.writeBytesReference(toRows());
+            } else {
+                out.writeBytesReference(bytes);
+            }
+        }
+    }
+
+    /**
+     * Re-encodes a columnar bucket row by row for nodes which don't support the columnar format.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BytesReference toRows() throws IOException {
+        assert streamers != null : "streamers must not be null";
+        BytesStreamOutput rows = new BytesStreamOutput(bytes.length());
+        for (Row row : this) {
+            for (int i = 0; i < streamers.length; i++) {
+                ((Streamer) streamers[i]).writeValueTo(rows, row.get(i));
+            }
         }
+        return rows.bytes();
     }
 }
@@ -21,8 +21,15 @@
 
 package io.crate.execution.engine.export;
 
+import static io.crate.analyze.CopyStatementSettings.CSV_COLUMN_SEPARATOR;
+import static io.crate.analyze.CopyStatementSettings.ROW_GROUP_SIZE_SETTING;
+
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.StandardCharsets;
@@ -38,9 +45,11 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collector;
 
+import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
 import org.jspecify.annotations.Nullable;
 
 import com.fasterxml.jackson.core.JsonGenerator;
@@ -49,11 +58,14 @@ import io.crate.common.annotations.VisibleForTesting;
 import io.crate.data.Input;
 import io.crate.data.Row;
 import io.crate.data.Row1;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.exceptions.SQLParseException;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.files.parquet.ParquetWriter;
+import io.crate.types.DataType;
 
 /**
  * Collector implementation which writes the rows to the configured {@link FileOutput}
@@ -66,12 +78,15 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
     private final Executor executor;
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    private final List<DataType<?>> inputTypes;
     private final URI uri;
     private final FileOutput fileOutput;
     private final WriterProjection.CompressionType compressionType;
     @Nullable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
+    private final Settings withClauseOptions;
+    private final RamAccounting ramAccounting;
 
     private final RowWriter rowWriter;
 
@@ -79,17 +94,22 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
                              String uriStr,
                              WriterProjection.@Nullable CompressionType compressionType,
                              @Nullable List<Input<?>> inputs,
+                             List<DataType<?>> inputTypes,
                              Iterable<CollectExpression<Row, ?>> collectExpressions,
                              @Nullable List<String> outputNames,
                              WriterProjection.OutputFormat outputFormat,
                              Map<String, FileOutputFactory> fileOutputFactories,
-                             Settings withClauseOptions) {
+                             Settings withClauseOptions,
+                             RamAccounting ramAccounting) {
         this.executor = executor;
         this.collectExpressions = collectExpressions;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.compressionType = compressionType;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
+        this.withClauseOptions = withClauseOptions;
+        this.ramAccounting = ramAccounting;
         try {
             uri = new URI(uriStr);
         } catch (URISyntaxException e) {
@@ -107,7 +127,29 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
 
     private RowWriter initWriter() {
         try {
-            if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
+            if (outputFormat.equals(WriterProjection.OutputFormat.PARQUET)) {
+                ParquetWriter.Codec codec = compressionType == WriterProjection.CompressionType.GZIP
+                    ? ParquetWriter.Codec.GZIP
+                    : ParquetWriter.Codec.SNAPPY;
+                ParquetWriter writer = new ParquetWriter(
+                    fileOutput.acquireOutputStream(executor, null),
+                    outputNames,
+                    inputTypes,
+                    codec,
+                    ROW_GROUP_SIZE_SETTING.get(withClauseOptions).getBytes(),
+                    ramAccounting
+                );
+                return new ParquetRowWriter(fileOutput, writer, collectExpressions, inputs);
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.CSV)) {
+                return new CsvRowWriter(
+                    fileOutput,
+                    fileOutput.acquireOutputStream(executor, compressionType),
+                    collectExpressions,
+                    inputs,
+                    outputNames,
+                    CSV_COLUMN_SEPARATOR.get(withClauseOptions)
+                );
+            } else if (outputFormat.equals(WriterProjection.OutputFormat.JSON_ARRAY)) {
                 return new ColumnRowWriter(fileOutput, fileOutput.acquireOutputStream(executor, compressionType), collectExpressions, inputs);
             } else if (outputNames != null && outputFormat.equals(WriterProjection.OutputFormat.JSON_OBJECT)) {
                 return new ColumnRowObjectWriter(fileOutput, fileOutput.acquireOutputStream(executor, compressionType), collectExpressions, inputs, outputNames);
@@ -284,4 +326,136 @@ public class FileWriterCountCollector implements Collector<Row, long[], Iterable
             }
         }
     }
+
+    static class CsvRowWriter implements RowWriter {
+
+        private final FileOutput fileOutput;
+        private final Writer writer;
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final char delimiter;
+
+        CsvRowWriter(FileOutput fileOutput,
+                     OutputStream outputStream,
+                     Iterable<CollectExpression<Row, ?>> collectExpressions,
+                     List<Input<?>> inputs,
+                     List<String> outputNames,
+                     char delimiter) throws IOException {
+            this.fileOutput = fileOutput;
+            this.writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            this.delimiter = delimiter;
+            for (int i = 0; i < outputNames.size(); i++) {
+                if (i > 0) {
+                    writer.write(delimiter);
+                }
+                writeField(outputNames.get(i));
+            }
+            writer.write(NEW_LINE);
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            try {
+                for (int i = 0; i < inputs.size(); i++) {
+                    if (i > 0) {
+                        writer.write(delimiter);
+                    }
+                    Object value = inputs.get(i).value();
+                    if (value != null) {
+                        writeField(toText(value));
+                    }
+                }
+                writer.write(NEW_LINE);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        /**
+         * Writes the field, quoted as defined in RFC 4180 if it contains the delimiter, a quote or a line break.
+         * Empty strings are quoted as well, to distinguish them from NULL values which are written as empty field.
+         */
+        private void writeField(String value) throws IOException {
+            boolean quote = value.isEmpty();
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == delimiter || c == '"' || c == '\n' || c == '\r') {
+                    quote = true;
+                    break;
+                }
+            }
+            if (quote) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+
+        private static String toText(Object value) throws IOException {
+            if (value instanceof String str) {
+                return str;
+            }
+            if (value instanceof BigDecimal decimal) {
+                return decimal.toPlainString();
+            }
+            if (value instanceof Map<?, ?> || value instanceof List<?>) {
+                return Strings.toString(JsonXContent.builder().value(value));
+            }
+            return value.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            fileOutput.close();
+        }
+    }
+
+    static class ParquetRowWriter implements RowWriter {
+
+        private final FileOutput fileOutput;
+        private final ParquetWriter writer;
+        private final Iterable<CollectExpression<Row, ?>> collectExpressions;
+        private final List<Input<?>> inputs;
+        private final Object[] values;
+
+        ParquetRowWriter(FileOutput fileOutput,
+                         ParquetWriter writer,
+                         Iterable<CollectExpression<Row, ?>> collectExpressions,
+                         List<Input<?>> inputs) {
+            this.fileOutput = fileOutput;
+            this.writer = writer;
+            this.collectExpressions = collectExpressions;
+            this.inputs = inputs;
+            this.values = new Object[inputs.size()];
+        }
+
+        @Override
+        public void write(Row row) {
+            for (CollectExpression<Row, ?> collectExpression : collectExpressions) {
+                collectExpression.setNextRow(row);
+            }
+            for (int i = 0; i < values.length; i++) {
+                values[i] = inputs.get(i).value();
+            }
+            try {
+                writer.write(values);
+            } catch (IOException e) {
+                throw new UnhandledServerException("Failed to write row to output", e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+            fileOutput.close();
+        }
+    }
 }
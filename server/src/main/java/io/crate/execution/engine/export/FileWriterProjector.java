@@ -33,14 +33,17 @@ import io.crate.data.CollectingBatchIterator;
 import io.crate.data.Input;
 import io.crate.data.Projector;
 import io.crate.data.Row;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.execution.dsl.projection.WriterProjection;
 import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.types.DataType;
 
 public class FileWriterProjector implements Projector {
 
     private final String uri;
     private final Iterable<CollectExpression<Row, ?>> collectExpressions;
     private final List<Input<?>> inputs;
+    private final List<DataType<?>> inputTypes;
     @Nullable
     private final List<String> outputNames;
     private final WriterProjection.OutputFormat outputFormat;
@@ -48,6 +51,7 @@ public class FileWriterProjector implements Projector {
     private final Executor executor;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
     private final Settings withClauseOptions;
+    private final RamAccounting ramAccounting;
 
     /**
      * @param inputs a list of {@link Input}.
@@ -56,25 +60,31 @@ public class FileWriterProjector implements Projector {
      *               That raw source is then written to the output
      *               <p/>
      *               If inputs is not null the inputs are consumed to write a JSON array to the output.
+     * @param inputTypes the types of the inputs, used by the columnar output formats.
+     * @param ramAccounting accounts the rows buffered by the columnar output formats.
      */
     public FileWriterProjector(Executor executor,
                                String uri,
                                WriterProjection.@Nullable CompressionType compressionType,
                                @Nullable List<Input<?>> inputs,
+                               List<DataType<?>> inputTypes,
                                Iterable<CollectExpression<Row, ?>> collectExpressions,
                                @Nullable List<String> outputNames,
                                WriterProjection.OutputFormat outputFormat,
                                Map<String, FileOutputFactory> fileOutputFactoryMap,
-                               Settings withClauseOptions) {
+                               Settings withClauseOptions,
+                               RamAccounting ramAccounting) {
         this.collectExpressions = collectExpressions;
         this.executor = executor;
         this.inputs = inputs;
+        this.inputTypes = inputTypes;
         this.outputNames = outputNames;
         this.outputFormat = outputFormat;
         this.compressionType = compressionType;
         this.uri = uri;
         this.fileOutputFactoryMap = fileOutputFactoryMap;
         this.withClauseOptions = withClauseOptions;
+        this.ramAccounting = ramAccounting;
     }
 
     @Override
@@ -86,11 +96,13 @@ public class FileWriterProjector implements Projector {
                 uri,
                 compressionType,
                 inputs,
+                inputTypes,
                 collectExpressions,
                 outputNames,
                 outputFormat,
                 fileOutputFactoryMap,
-                withClauseOptions
+                withClauseOptions,
+                ramAccounting
             )
         );
     }
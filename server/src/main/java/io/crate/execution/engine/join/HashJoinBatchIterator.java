@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
+import java.util.concurrent.CompletionStage;
 import java.util.function.LongToIntFunction;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
@@ -35,13 +36,17 @@ import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.jspecify.annotations.Nullable;
 
 import io.crate.common.collections.Iterables;
+import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
+import io.crate.data.CloseableIterator;
 import io.crate.data.Row;
 import io.crate.data.UnsafeArrayRow;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.data.join.CombinedRow;
 import io.crate.data.join.JoinBatchIterator;
+import io.crate.execution.engine.spill.SpillFile;
 import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap.PrimitiveEntry;
 
 /**
  * <pre>
@@ -90,6 +95,36 @@ import io.netty.util.collection.IntObjectHashMap;
  * <p>
  * This information is not available for the {@link HashJoinBatchIterator}, so it's the responsibility of the
  * caller to provide those two functions that operate on the left and right rows accordingly and return the hash values.
+ *
+ * <h2>Grace hash join</h2>
+ * <p>
+ * If the left side doesn't fit into a single block the right side has to be probed once per block.
+ * If a {@link HashJoinSpill} is provided and a block had to be limited because of the available memory,
+ * the iterator switches to a grace hash join:
+ * <pre>
+ *     Partition Phase:
+ *     for (row in buffer + remaining rows of the current left page) {
+ *         write row to leftPartition[partition(hash(row))]
+ *     }
+ *     for (rightRow in right) {
+ *         write rightRow to rightPartition[partition(hash(rightRow))]
+ *     }
+ *     for (leftRow in remaining left pages) {
+ *         write leftRow to leftPartition[partition(hash(leftRow))]
+ *     }
+ *
+ *     Join Phase:
+ *     for (p in partitions) {
+ *         build phase and probe phase as above, using leftPartition[p] as left and rightPartition[p] as right
+ *     }
+ * </pre>
+ * Rows with the same join key end up in the same partition, so each partition can be joined independently and the
+ * right side is only read once from the source. If a single partition still doesn't fit into a block (skewed keys)
+ * its right partition is read once per block.
+ * <p>
+ * The partition phase consumes the pages in the same order as the block based processing
+ * (current left page, all right pages, remaining left pages) to avoid the dead lock scenario described in
+ * {@link #buildBufferAndMatchRight()} if only some of the nodes of a distributed join switch to the grace mode.
  */
 public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
@@ -119,6 +154,15 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
     private final boolean emitUnmatchedRows;
     private Iterator<Object[]> unmatchedRowsIterator;
 
+    @Nullable
+    private final HashJoinSpill spill;
+
+    @Nullable
+    private GraceJoin graceJoin;
+
+    @Nullable
+    private volatile Throwable killed;
+
     public HashJoinBatchIterator(CircuitBreaker circuitBreaker,
                                  BatchIterator<Row> left,
                                  BatchIterator<Row> right,
@@ -129,6 +173,32 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
                                  ToIntFunction<Row> hashBuilderForRight,
                                  LongToIntFunction calculateBlockSize,
                                  boolean emitUnmatchedRows) {
+        this(
+            circuitBreaker,
+            left,
+            right,
+            leftRowAccounting,
+            combiner,
+            joinCondition,
+            hashBuilderForLeft,
+            hashBuilderForRight,
+            calculateBlockSize,
+            emitUnmatchedRows,
+            null
+        );
+    }
+
+    public HashJoinBatchIterator(CircuitBreaker circuitBreaker,
+                                 BatchIterator<Row> left,
+                                 BatchIterator<Row> right,
+                                 RowAccounting<Object[]> leftRowAccounting,
+                                 CombinedRow combiner,
+                                 Predicate<Row> joinCondition,
+                                 ToIntFunction<Row> hashBuilderForLeft,
+                                 ToIntFunction<Row> hashBuilderForRight,
+                                 LongToIntFunction calculateBlockSize,
+                                 boolean emitUnmatchedRows,
+                                 @Nullable HashJoinSpill spill) {
         super(left, right, combiner);
         this.circuitBreaker = circuitBreaker;
         this.leftRowAccounting = leftRowAccounting;
@@ -142,6 +212,7 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
         this.activeIt = left;
         this.emitUnmatchedRows = emitUnmatchedRows;
         this.unmatchedRowsIterator = null;
+        this.spill = spill;
     }
 
     @Override
@@ -151,6 +222,7 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
     @Override
     public void moveToStart() {
+        closeGraceJoin();
         left.moveToStart();
         right.moveToStart();
         activeIt = left;
@@ -162,7 +234,14 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
 
     @Override
     public boolean moveNext() {
+        raiseIfKilled();
+        if (graceJoin != null) {
+            return graceJoin.moveNext();
+        }
         while (buildBufferAndMatchRight() == false) {
+            if (graceJoin != null) {
+                return graceJoin.moveNext();
+            }
             if (right.allLoaded() && leftBatchHasItems == false && left.allLoaded()) {
                 // both sides are fully loaded
                 return tryEmitUnmatchedRow();
@@ -237,6 +316,7 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
             // wait for all downstreams to request new data.
             long numItems = 0;
             long sum = 0;
+            boolean blockFull = false;
             while (leftBatchHasItems = left.moveNext()) {
                 Object[] leftRow = left.currentElement().materialize();
                 long leftRowSize = leftRowAccounting.accountForAndMaybeBreak(leftRow);
@@ -244,12 +324,19 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
                 numItems++;
                 int hash = hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(leftRow));
                 addToBuffer(leftRow, hash);
-                if (numberOfHashGroupsInBuffer == blockSize || circuitBreaker.getFree() < 512 * 1024) {
+                if (numberOfHashGroupsInBuffer == blockSize || isLowOnMemory()) {
+                    blockFull = true;
                     break;
                 }
             }
             leftAverageRowSize = numItems > 0 ? (int) (sum / numItems) : -1;
 
+            if (blockFull && spill != null && (isLowOnMemory() || spill.blockSizeLimitedByMemory().getAsBoolean())) {
+                // The left side doesn't fit into memory, switch to partitioning both sides to disk
+                graceJoin = new GraceJoin(spill);
+                return false;
+            }
+
             if (numberOfHashGroupsInBuffer == 0 && !left.allLoaded()) {
                 return false;
             } else {
@@ -278,6 +365,46 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
         return false;
     }
 
+    private boolean isLowOnMemory() {
+        return circuitBreaker.getFree() < 512 * 1024;
+    }
+
+    @Override
+    public void close() {
+        closeGraceJoin();
+        super.close();
+    }
+
+    @Override
+    public CompletionStage<?> loadNextBatch() throws Exception {
+        raiseIfKilled();
+        return super.loadNextBatch();
+    }
+
+    /**
+     * Can be called from any thread while the consumer may still read the spill files of the grace join.
+     * The spill files are only deleted on {@link #close()}, from the thread of the consumer.
+     */
+    @Override
+    public void kill(Throwable throwable) {
+        killed = throwable;
+        super.kill(throwable);
+    }
+
+    private void raiseIfKilled() {
+        if (killed != null) {
+            Exceptions.rethrowUnchecked(killed);
+        }
+    }
+
+    private void closeGraceJoin() {
+        if (graceJoin != null) {
+            GraceJoin join = graceJoin;
+            graceJoin = null;
+            join.close();
+        }
+    }
+
     private void addToBuffer(Object[] currentRow, int hash) {
         HashGroup hashGroup = buffer.get(hash);
         if (hashGroup == null) {
@@ -303,6 +430,215 @@ public class HashJoinBatchIterator extends JoinBatchIterator<Row, Row, Row> {
         return false;
     }
 
+    private enum GracePhase {
+        PARTITION_LEFT_PAGE,
+        PARTITION_RIGHT,
+        PARTITION_LEFT,
+        JOIN,
+        DONE
+    }
+
+    /**
+     * State of the grace hash join. Created once the left side is known to exceed the memory,
+     * takes over the rows of the current block.
+     */
+    private final class GraceJoin {
+
+        private final SpillFile[] leftPartitions;
+        private final SpillFile[] rightPartitions;
+        private final int partitionShift;
+        private final UnsafeArrayRow spilledRightRow = new UnsafeArrayRow();
+
+        private GracePhase phase = GracePhase.PARTITION_LEFT_PAGE;
+        private int partition = -1;
+        private boolean probing = false;
+
+        @Nullable
+        private CloseableIterator<Object[]> leftPartitionRows;
+
+        @Nullable
+        private CloseableIterator<Object[]> rightPartitionRows;
+
+        GraceJoin(HashJoinSpill spill) {
+            int numPartitions = spill.numPartitions();
+            this.partitionShift = Integer.SIZE - Integer.numberOfTrailingZeros(numPartitions);
+            this.leftPartitions = new SpillFile[numPartitions];
+            this.rightPartitions = new SpillFile[numPartitions];
+            try {
+                for (int i = 0; i < numPartitions; i++) {
+                    leftPartitions[i] = new SpillFile(spill.directory(), spill.leftStreamers());
+                    rightPartitions[i] = new SpillFile(spill.directory(), spill.rightStreamers());
+                }
+                for (PrimitiveEntry<HashGroup> entry : buffer.entries()) {
+                    SpillFile partitionFile = leftPartitions[partition(entry.key())];
+                    for (Object[] row : entry.value().rows) {
+                        partitionFile.add(row);
+                    }
+                }
+            } catch (Throwable t) {
+                close();
+                throw t;
+            }
+            resetBuffer();
+        }
+
+        /**
+         * The buffer uses the hash as key, so partitioning by the lower bits would lead to lots of collisions
+         * within the buffer of a partition. Use the upper bits of the fibonacci hash instead.
+         */
+        private int partition(int hash) {
+            return (hash * 0x9E3779B9) >>> partitionShift;
+        }
+
+        boolean moveNext() {
+            while (true) {
+                switch (phase) {
+                    case PARTITION_LEFT_PAGE:
+                        // Only the rows of the current page, the next left page is requested after the right side
+                        while (left.moveNext()) {
+                            Row row = left.currentElement();
+                            leftPartitions[partition(hashBuilderForLeft.applyAsInt(row))].add(row);
+                        }
+                        phase = GracePhase.PARTITION_RIGHT;
+                        break;
+
+                    case PARTITION_RIGHT:
+                        while (right.moveNext()) {
+                            Row row = right.currentElement();
+                            rightPartitions[partition(hashBuilderForRight.applyAsInt(row))].add(row);
+                        }
+                        if (!right.allLoaded()) {
+                            activeIt = right;
+                            return false;
+                        }
+                        phase = GracePhase.PARTITION_LEFT;
+                        break;
+
+                    case PARTITION_LEFT:
+                        while (left.moveNext()) {
+                            Row row = left.currentElement();
+                            leftPartitions[partition(hashBuilderForLeft.applyAsInt(row))].add(row);
+                        }
+                        if (!left.allLoaded()) {
+                            activeIt = left;
+                            return false;
+                        }
+                        for (int i = 0; i < leftPartitions.length; i++) {
+                            leftPartitions[i].finishWriting();
+                            rightPartitions[i].finishWriting();
+                        }
+                        activeIt = left;
+                        phase = GracePhase.JOIN;
+                        break;
+
+                    case JOIN:
+                        if (joinPartitions()) {
+                            return true;
+                        }
+                        close();
+                        phase = GracePhase.DONE;
+                        return false;
+
+                    case DONE:
+                        return false;
+
+                    default:
+                        throw new AssertionError("Unexpected grace join phase: " + phase);
+                }
+            }
+        }
+
+        private boolean joinPartitions() {
+            while (true) {
+                if (probing) {
+                    // In case of multiple matches on the left side (duplicate values or hash collisions)
+                    if (matchedHashGroupRowsIterator != null && findMatchingRows()) {
+                        return true;
+                    }
+                    assert rightPartitionRows != null : "rightPartitionRows must be set while probing";
+                    while (rightPartitionRows.hasNext()) {
+                        spilledRightRow.cells(rightPartitionRows.next());
+                        matchedHashGroup = buffer.get(hashBuilderForRight.applyAsInt(spilledRightRow));
+                        if (matchedHashGroup != null) {
+                            matchedHashGroupRowsIterator = matchedHashGroup.listIterator();
+                            combiner.setRight(spilledRightRow);
+                            if (findMatchingRows()) {
+                                return true;
+                            }
+                        }
+                    }
+                    if (tryEmitUnmatchedRow()) {
+                        return true;
+                    }
+                    probing = false;
+                    unmatchedRowsIterator = null;
+                    rightPartitionRows.close();
+                    rightPartitionRows = null;
+                }
+
+                if (leftPartitionRows == null || !leftPartitionRows.hasNext()) {
+                    if (leftPartitionRows != null) {
+                        leftPartitionRows.close();
+                        leftPartitionRows = null;
+                        leftPartitions[partition].close();
+                        rightPartitions[partition].close();
+                    }
+                    partition++;
+                    if (partition >= leftPartitions.length) {
+                        return false;
+                    }
+                    if (leftPartitions[partition].numRows() == 0) {
+                        // Right rows without a left counterpart are never emitted
+                        continue;
+                    }
+                    leftPartitionRows = leftPartitions[partition].rows();
+                }
+
+                // Build phase for the next block of the current partition
+                resetBuffer();
+                long numItems = 0;
+                long sum = 0;
+                while (leftPartitionRows.hasNext()) {
+                    Object[] row = leftPartitionRows.next();
+                    sum += leftRowAccounting.accountForAndMaybeBreak(row);
+                    numItems++;
+                    addToBuffer(row, hashBuilderForLeft.applyAsInt(unsafeArrayRow.cells(row)));
+                    if (numberOfHashGroupsInBuffer == blockSize || isLowOnMemory()) {
+                        break;
+                    }
+                }
+                if (numItems > 0) {
+                    leftAverageRowSize = (int) (sum / numItems);
+                }
+                rightPartitionRows = rightPartitions[partition].rows();
+                probing = true;
+            }
+        }
+
+        void close() {
+            matchedHashGroup = null;
+            matchedHashGroupRowsIterator = null;
+            unmatchedRowsIterator = null;
+            if (leftPartitionRows != null) {
+                leftPartitionRows.close();
+                leftPartitionRows = null;
+            }
+            if (rightPartitionRows != null) {
+                rightPartitionRows.close();
+                rightPartitionRows = null;
+            }
+            for (int i = 0; i < leftPartitions.length; i++) {
+                if (leftPartitions[i] != null) {
+                    leftPartitions[i].close();
+                }
+                if (rightPartitions[i] != null) {
+                    rightPartitions[i].close();
+                }
+            }
+            resetBuffer();
+        }
+    }
+
     private static final class HashGroup implements Iterable<Object[]> {
 
         private final List<Object[]> rows = new ArrayList<>();
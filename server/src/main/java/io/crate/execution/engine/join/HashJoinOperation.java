@@ -21,12 +21,14 @@
 
 package io.crate.execution.engine.join;
 
+import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Predicate;
 import java.util.function.ToIntFunction;
 
 import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.jspecify.annotations.Nullable;
 
 import io.crate.concurrent.CompletionListenable;
 import io.crate.data.CapturingRowConsumer;
@@ -39,6 +41,8 @@ import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.expression.InputFactory;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.TransactionContext;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
 
 public class HashJoinOperation implements CompletionListenable {
 
@@ -57,7 +61,10 @@ public class HashJoinOperation implements CompletionListenable {
                              InputFactory inputFactory,
                              CircuitBreaker circuitBreaker,
                              long estimatedRowSizeForLeft,
-                             boolean emitNullValues) {
+                             boolean emitNullValues,
+                             @Nullable Path spillDirectory,
+                             List<DataType<?>> leftOutputTypes,
+                             @Nullable List<DataType<?>> rightOutputTypes) {
 
         this.resultConsumer = nlResultConsumer;
         this.leftConsumer = new CapturingRowConsumer(nlResultConsumer.requiresScroll(), nlResultConsumer.completionFuture());
@@ -73,6 +80,21 @@ public class HashJoinOperation implements CompletionListenable {
             }
             try {
                 CombinedRow combiner = new CombinedRow(numLeftCols, numRightCols);
+                var blockSizeCalculator = new RamBlockSizeCalculator(
+                    Paging.PAGE_SIZE,
+                    circuitBreaker,
+                    estimatedRowSizeForLeft
+                );
+                HashJoinSpill spill = null;
+                if (spillDirectory != null && rightOutputTypes != null) {
+                    spill = new HashJoinSpill(
+                        spillDirectory,
+                        DataTypes.getStreamers(leftOutputTypes),
+                        DataTypes.getStreamers(rightOutputTypes),
+                        HashJoinSpill.DEFAULT_NUM_PARTITIONS,
+                        blockSizeCalculator::limitedByMemory
+                    );
+                }
                 var joinIterator = new HashJoinBatchIterator(
                     circuitBreaker,
                     leftConsumer.capturedBatchIterator().join(),
@@ -82,12 +104,9 @@ public class HashJoinOperation implements CompletionListenable {
                     joinPredicate,
                     getHashBuilderFromSymbols(txnCtx, inputFactory, joinLeftInputs),
                     getHashBuilderFromSymbols(txnCtx, inputFactory, joinRightInputs),
-                    new RamBlockSizeCalculator(
-                        Paging.PAGE_SIZE,
-                        circuitBreaker,
-                        estimatedRowSizeForLeft
-                    ),
-                    emitNullValues
+                    blockSizeCalculator,
+                    emitNullValues,
+                    spill
                 );
                 nlResultConsumer.accept(joinIterator, null);
             } catch (Exception e) {
@@ -0,0 +1,53 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import java.nio.file.Path;
+import java.util.function.BooleanSupplier;
+
+import io.crate.Streamer;
+
+/**
+ * Configuration for the grace hash join mode of the {@link HashJoinBatchIterator}.
+ *
+ * @param directory directory in which the partition files are created
+ * @param leftStreamers streamers for the columns of the left (build) side
+ * @param rightStreamers streamers for the columns of the right (probe) side
+ * @param numPartitions number of partitions per side, must be a power of two greater than 1
+ * @param blockSizeLimitedByMemory returns true if the current block size had to be reduced
+ *                                 because the block wouldn't fit into the available memory.
+ */
+public record HashJoinSpill(Path directory,
+                            Streamer<?>[] leftStreamers,
+                            Streamer<?>[] rightStreamers,
+                            int numPartitions,
+                            BooleanSupplier blockSizeLimitedByMemory) {
+
+    public static final int DEFAULT_NUM_PARTITIONS = 32;
+
+    public HashJoinSpill {
+        if (numPartitions < 2 || Integer.bitCount(numPartitions) != 1) {
+            throw new IllegalArgumentException(
+                "numPartitions must be a power of two greater than 1, got: " + numPartitions);
+        }
+    }
+}
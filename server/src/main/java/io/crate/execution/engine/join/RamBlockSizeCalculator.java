@@ -35,6 +35,7 @@ public class RamBlockSizeCalculator implements LongToIntFunction {
     private final int defaultBlockSize;
     private final CircuitBreaker circuitBreaker;
     private final long estimatedRowSizeForLeft;
+    private boolean limitedByMemory = false;
 
     public RamBlockSizeCalculator(int defaultBlockSize,
                                   CircuitBreaker circuitBreaker,
@@ -46,6 +47,7 @@ public class RamBlockSizeCalculator implements LongToIntFunction {
 
     @Override
     public int applyAsInt(long averageSizeInBytes) {
+        limitedByMemory = false;
         long leftRowSize = averageSizeInBytes > 0 ? averageSizeInBytes : estimatedRowSizeForLeft;
         if (leftRowSize <= 0) {
             return FALLBACK_SIZE;
@@ -64,9 +66,18 @@ public class RamBlockSizeCalculator implements LongToIntFunction {
         //      dead lock caused by the constraint that all receivers must response to the collect nodes before a next batch
         //      is sent.
         int blockSize = (int) Math.min(defaultBlockSize, numRowsFittingIntoAvailableMemory);
+        limitedByMemory = numRowsFittingIntoAvailableMemory < defaultBlockSize;
 
         // In case no mem available from circuit breaker then still allocate a small blockSize,
         // so that at least some rows (min 10) could be processed and a CircuitBreakerException can be triggered.
         return blockSize <= 0 ? 10 : blockSize;
     }
+
+    /**
+     * @return true if the block size returned by the last {@link #applyAsInt(long)} call was restricted
+     *         by the available memory instead of the default block size.
+     */
+    public boolean limitedByMemory() {
+        return limitedByMemory;
+    }
 }
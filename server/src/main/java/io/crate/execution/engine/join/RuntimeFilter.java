@@ -0,0 +1,251 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.RamUsageEstimator;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Approximate set of the join keys of the build side of a hash join.
+ * <p>
+ * Consists of the min/max range of the keys and a bloom filter over them.
+ * {@link #mightContain(long)} can return false positives but never false negatives,
+ * so it can be used to skip rows of the probe side which cannot have a join partner
+ * before they're shipped to the join. The join condition must still be evaluated.
+ * </p>
+ * The number of bits is always a power of two so that filters created on different
+ * shards with the same size can be merged with a bitwise OR.
+ */
+public final class RuntimeFilter implements Writeable, Accountable {
+
+    private static final long SHALLOW_SIZE = RamUsageEstimator.shallowSizeOfInstance(RuntimeFilter.class);
+
+    public static final int MIN_NUM_BITS = 1 << 10;
+    public static final int MAX_NUM_BITS = 1 << 23;
+
+    private static final int BITS_PER_KEY = 10;
+
+    /**
+     * Optimal number of hash functions for {@link #BITS_PER_KEY}: {@code ln(2) * 10 ~= 7},
+     * resulting in a false positive probability of ~0.8%
+     */
+    private static final int NUM_HASHES = 7;
+
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    @Nullable
+    private long[] bits;
+
+    /**
+     * @return the number of bits to use for a filter expected to hold {@code expectedKeys}
+     */
+    public static int numBits(long expectedKeys) {
+        long numBits = Math.max(MIN_NUM_BITS, expectedKeys * BITS_PER_KEY);
+        return (int) Math.min(MAX_NUM_BITS, Long.highestOneBit(numBits - 1) << 1);
+    }
+
+    /**
+     * Creates an empty filter which allocates its bits on the first {@link #add(long, int)}
+     */
+    public RuntimeFilter() {
+    }
+
+    public RuntimeFilter(int numBits) {
+        allocate(numBits);
+    }
+
+    public RuntimeFilter(StreamInput in) throws IOException {
+        min = in.readZLong();
+        max = in.readZLong();
+        int numWords = in.readVInt();
+        if (numWords > 0) {
+            bits = new long[numWords];
+            for (int i = 0; i < numWords; i++) {
+                bits[i] = in.readLong();
+            }
+        }
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeZLong(min);
+        out.writeZLong(max);
+        if (bits == null) {
+            out.writeVInt(0);
+        } else {
+            out.writeVInt(bits.length);
+            for (long word : bits) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    private void allocate(int numBits) {
+        assert Integer.bitCount(numBits) == 1 && numBits >= Long.SIZE : "numBits must be a power of two >= 64";
+        bits = new long[numBits >>> 6];
+    }
+
+    public boolean isEmpty() {
+        return min > max;
+    }
+
+    public long min() {
+        return min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public int numBits() {
+        return bits == null ? 0 : bits.length << 6;
+    }
+
+    /**
+     * Adds a key, allocating a bit set of {@code numBits} if this is the first key.
+     */
+    public void add(long key, int numBits) {
+        if (bits == null) {
+            allocate(numBits);
+        }
+        add(key);
+    }
+
+    public void add(long key) {
+        assert bits != null : "bits must be allocated before adding keys";
+        min = Math.min(min, key);
+        max = Math.max(max, key);
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int mask = (bits.length << 6) - 1;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            bits[bit >>> 6] |= 1L << bit;
+        }
+    }
+
+    public boolean mightContain(long key) {
+        if (key < min || key > max) {
+            return false;
+        }
+        long hash = mix(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int mask = (bits.length << 6) - 1;
+        for (int i = 0; i < NUM_HASHES; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Merges the keys of {@code other} into this filter.
+     */
+    public void merge(RuntimeFilter other) {
+        if (other.isEmpty()) {
+            return;
+        }
+        if (isEmpty()) {
+            min = other.min;
+            max = other.max;
+            bits = other.bits.clone();
+            return;
+        }
+        if (bits.length != other.bits.length) {
+            throw new IllegalArgumentException(
+                "Cannot merge runtime filters of different sizes: " + numBits() + " and " + other.numBits());
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] |= other.bits[i];
+        }
+    }
+
+    /**
+     * Encodes the filter as {@code [min, max, word1, word2, ...]}.
+     * An empty filter results in an empty list.
+     */
+    public List<Long> toList() {
+        if (isEmpty()) {
+            return List.of();
+        }
+        ArrayList<Long> result = new ArrayList<>(bits.length + 2);
+        result.add(min);
+        result.add(max);
+        for (long word : bits) {
+            result.add(word);
+        }
+        return result;
+    }
+
+    /**
+     * Inverse of {@link #toList()}
+     */
+    public static RuntimeFilter fromList(List<Long> values) {
+        RuntimeFilter filter = new RuntimeFilter();
+        if (values.isEmpty()) {
+            return filter;
+        }
+        int numWords = values.size() - 2;
+        if (numWords <= 0 || Integer.bitCount(numWords) != 1) {
+            throw new IllegalArgumentException("Invalid runtime filter encoding with " + values.size() + " values");
+        }
+        filter.min = values.get(0);
+        filter.max = values.get(1);
+        filter.bits = new long[numWords];
+        for (int i = 0; i < numWords; i++) {
+            filter.bits[i] = values.get(i + 2);
+        }
+        return filter;
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return SHALLOW_SIZE + (bits == null ? 0 : RamUsageEstimator.sizeOf(bits));
+    }
+
+    /**
+     * Murmur3 64bit finalizer
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
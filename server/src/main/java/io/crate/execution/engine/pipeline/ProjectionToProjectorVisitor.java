@@ -25,6 +25,7 @@ import static io.crate.execution.engine.pipeline.LimitAndOffset.NO_LIMIT;
 import static io.crate.execution.engine.pipeline.LimitAndOffset.NO_OFFSET;
 import static io.crate.planner.operators.InsertFromValues.checkConstraints;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -109,6 +110,7 @@ import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.execution.engine.indexing.UpsertResultContext;
 import io.crate.execution.engine.sort.OrderingByPosition;
 import io.crate.execution.engine.sort.SortingLimitAndOffsetProjector;
+import io.crate.execution.engine.sort.SortSpill;
 import io.crate.execution.engine.sort.SortingProjector;
 import io.crate.execution.engine.sort.UnboundedSortingLimitAndOffsetCollector;
 import io.crate.execution.engine.window.WindowProjector;
@@ -170,6 +172,8 @@ public class ProjectionToProjectorVisitor
     private final ShardId shardId;
     private final int numProcessors;
     private final Map<String, FileOutputFactory> fileOutputFactoryMap;
+    @Nullable
+    private final Path spillDirectory;
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
                                         NodeLimits nodeJobsCounter,
@@ -184,6 +188,41 @@ public class ProjectionToProjectorVisitor
                                         Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
                                         @Nullable ShardId shardId,
                                         Map<String, FileOutputFactory> fileOutputFactoryMap) {
+        this(clusterService,
+            nodeJobsCounter,
+            circuitBreakerService,
+            nodeCtx,
+            threadPool,
+            settings,
+            elasticsearchClient,
+            inputFactory,
+            normalizer,
+            sysUpdaterGetter,
+            staticTableDefinitionGetter,
+            shardId,
+            fileOutputFactoryMap,
+            null
+        );
+    }
+
+    /**
+     * @param spillDirectory if not null, sorting and grouping projectors spill rows to temporary files
+     *                       in this directory instead of failing if the rows don't fit into memory.
+     */
+    public ProjectionToProjectorVisitor(ClusterService clusterService,
+                                        NodeLimits nodeJobsCounter,
+                                        CircuitBreakerService circuitBreakerService,
+                                        NodeContext nodeCtx,
+                                        ThreadPool threadPool,
+                                        Settings settings,
+                                        Client elasticsearchClient,
+                                        InputFactory inputFactory,
+                                        EvaluatingNormalizer normalizer,
+                                        Function<RelationName, SysRowUpdater<?>> sysUpdaterGetter,
+                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        @Nullable ShardId shardId,
+                                        Map<String, FileOutputFactory> fileOutputFactoryMap,
+                                        @Nullable Path spillDirectory) {
         this.clusterService = clusterService;
         this.nodeJobsCounter = nodeJobsCounter;
         this.circuitBreakerService = circuitBreakerService;
@@ -198,6 +237,7 @@ public class ProjectionToProjectorVisitor
         this.shardId = shardId;
         this.numProcessors = EsExecutors.numberOfProcessors(settings);
         this.fileOutputFactoryMap = fileOutputFactoryMap;
+        this.spillDirectory = spillDirectory;
     }
 
     public ProjectionToProjectorVisitor(ClusterService clusterService,
@@ -227,6 +267,35 @@ public class ProjectionToProjectorVisitor
         );
     }
 
+    public ProjectionToProjectorVisitor(ClusterService clusterService,
+                                        NodeLimits nodeJobsCounter,
+                                        CircuitBreakerService circuitBreakerService,
+                                        NodeContext nodeCtx,
+                                        ThreadPool threadPool,
+                                        Settings settings,
+                                        Client elasticsearchClient,
+                                        InputFactory inputFactory,
+                                        EvaluatingNormalizer normalizer,
+                                        Function<RelationName, SysRowUpdater<?>> sysUpdaterGetter,
+                                        Function<RelationName, StaticTableDefinition<?>> staticTableDefinitionGetter,
+                                        @Nullable Path spillDirectory) {
+        this(clusterService,
+            nodeJobsCounter,
+            circuitBreakerService,
+            nodeCtx,
+            threadPool,
+            settings,
+            elasticsearchClient,
+            inputFactory,
+            normalizer,
+            sysUpdaterGetter,
+            staticTableDefinitionGetter,
+            null,
+            null,
+            spillDirectory
+        );
+    }
+
     @Override
     public RowGranularity supportedGranularity() {
         if (this.shardId == null) {
@@ -278,13 +347,17 @@ public class ProjectionToProjectorVisitor
                 UNBOUNDED_COLLECTOR_THRESHOLD
             );
         }
+        SortSpill spill = spillDirectory == null
+            ? null
+            : new SortSpill(spillDirectory, DataTypes.getStreamers(rowTypes), context.ramAccounting);
         return new SortingProjector(
             rowAccounting,
             inputs,
             ctx.expressions(),
             numOutputs,
             OrderingByPosition.arrayOrdering(rowTypes, orderByIndices, projection.reverseFlags(), projection.nullsFirst()),
-            projection.offset()
+            projection.offset(),
+            spill
         );
     }
 
@@ -332,7 +405,8 @@ public class ProjectionToProjectorVisitor
             ctx.aggregations().toArray(new AggregationContext[0]),
             context.ramAccounting,
             context.memoryManager,
-            clusterService.state().nodes().getMinNodeVersion()
+            clusterService.state().nodes().getMinNodeVersion(),
+            spillDirectory
         );
     }
 
@@ -371,12 +445,18 @@ public class ProjectionToProjectorVisitor
         assert uri != null : "URI must not be null";
         assert shardId != null : "ShardId must be set to use WriterProjection";
         PartitionName partitionName = clusterService.state().metadata().getPartitionName(shardId.getIndexUUID());
+        WriterProjection.OutputFormat outputFormat = projection.outputFormat();
         String fileName = String.format(
             Locale.ENGLISH,
-            "%s_%s_%s.json",
+            "%s_%s_%s.%s",
             partitionName.relationName().name(),
             shardId.id(),
-            partitionName.ident() == null ? "" : partitionName.ident()
+            partitionName.ident() == null ? "" : partitionName.ident(),
+            switch (outputFormat) {
+                case JSON_OBJECT, JSON_ARRAY -> "json";
+                case CSV -> "csv";
+                case PARQUET -> "parquet";
+            }
         );
 
         StringBuilder sb = new StringBuilder(uri);
@@ -384,7 +464,9 @@ public class ProjectionToProjectorVisitor
             sb.append("/");
         }
         sb.append(fileName);
-        if (projection.compressionType() == WriterProjection.CompressionType.GZIP) {
+        // Parquet compresses its pages instead of the whole file
+        if (projection.compressionType() == WriterProjection.CompressionType.GZIP
+            && outputFormat != WriterProjection.OutputFormat.PARQUET) {
             sb.append(".gz");
         }
         uri = sb.toString();
@@ -394,11 +476,13 @@ public class ProjectionToProjectorVisitor
             uri,
             projection.compressionType(),
             inputs,
+            Symbols.typeView(projection.inputs()),
             ctx.expressions(),
             projection.outputNames(),
-            projection.outputFormat(),
+            outputFormat,
             fileOutputFactoryMap,
-            projection.withClauseOptions()
+            projection.withClauseOptions(),
+            context.ramAccounting
         );
     }
 
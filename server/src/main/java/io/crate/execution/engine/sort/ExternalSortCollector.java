@@ -0,0 +1,231 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+
+import io.crate.data.CloseableIterator;
+import io.crate.data.CollectionBucket;
+import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.execution.engine.spill.SpillFile;
+
+/**
+ * Collector which sorts all rows and applies an offset, like the {@link SortingProjector} does,
+ * but which doesn't fail if the rows don't fit into memory.
+ * <p>
+ * If accounting a row trips the circuit breaker, the rows collected so far are sorted and written to a
+ * {@link SpillFile} (a "run") and their memory is released. The finisher merges all runs
+ * and the rows remaining in memory using a priority queue over the heads of the runs.
+ * <p>
+ * If no run had to be written the result is the same {@link CollectionBucket} the {@link SortingProjector} returns.
+ * <p>
+ * An instance can only be used for a single collect operation, {@link #close()} deletes the runs.
+ */
+final class ExternalSortCollector implements Collector<Object[], ArrayList<Object[]>, Iterable<Row>>, Closeable {
+
+    private final RowAccounting<Object[]> rowAccounting;
+    private final SortSpill spill;
+    private final Comparator<Object[]> comparator;
+    private final int numOutputs;
+    private final int offset;
+    private final List<SpillFile> runs = new ArrayList<>();
+    private final List<CloseableIterator<Object[]>> openIterators = new ArrayList<>();
+
+    private long accountedBytes = 0;
+
+    ExternalSortCollector(RowAccounting<Object[]> rowAccounting,
+                          SortSpill spill,
+                          Comparator<Object[]> comparator,
+                          int numOutputs,
+                          int offset) {
+        this.rowAccounting = rowAccounting;
+        this.spill = spill;
+        this.comparator = comparator;
+        this.numOutputs = numOutputs;
+        this.offset = offset;
+    }
+
+    @Override
+    public Supplier<ArrayList<Object[]>> supplier() {
+        return ArrayList::new;
+    }
+
+    @Override
+    public BiConsumer<ArrayList<Object[]>, Object[]> accumulator() {
+        return this::add;
+    }
+
+    @Override
+    public BinaryOperator<ArrayList<Object[]>> combiner() {
+        return (rows1, rows2) -> {
+            throw new UnsupportedOperationException("combine not supported");
+        };
+    }
+
+    @Override
+    public Function<ArrayList<Object[]>, Iterable<Row>> finisher() {
+        return this::sortAndMerge;
+    }
+
+    @Override
+    public Set<Characteristics> characteristics() {
+        return Collections.emptySet();
+    }
+
+    int numRuns() {
+        return runs.size();
+    }
+
+    private void add(ArrayList<Object[]> rows, Object[] row) {
+        long rowBytes;
+        try {
+            rowBytes = rowAccounting.accountForAndMaybeBreak(row);
+        } catch (CircuitBreakingException e) {
+            if (rows.isEmpty()) {
+                throw e;
+            }
+            writeRun(rows);
+            rowBytes = rowAccounting.accountForAndMaybeBreak(row);
+        }
+        accountedBytes += rowBytes;
+        rows.add(row);
+    }
+
+    private void writeRun(ArrayList<Object[]> rows) {
+        rows.sort(comparator);
+        SpillFile run = new SpillFile(spill.directory(), spill.streamers());
+        runs.add(run);
+        for (Object[] row : rows) {
+            run.add(row);
+        }
+        run.finishWriting();
+        rows.clear();
+        rows.trimToSize();
+        spill.ramAccounting().addBytes(-accountedBytes);
+        accountedBytes = 0;
+    }
+
+    private Iterable<Row> sortAndMerge(ArrayList<Object[]> rows) {
+        rows.sort(comparator);
+        if (runs.isEmpty()) {
+            if (offset == 0) {
+                return new CollectionBucket(rows, numOutputs);
+            }
+            return new CollectionBucket(rows.subList(Math.min(offset, rows.size()), rows.size()), numOutputs);
+        }
+        return () -> new MergingIterator(rows);
+    }
+
+    @Override
+    public void close() {
+        for (CloseableIterator<Object[]> it : openIterators) {
+            it.close();
+        }
+        openIterators.clear();
+        for (SpillFile run : runs) {
+            run.close();
+        }
+        runs.clear();
+    }
+
+    private static final class RunCursor {
+
+        private final Iterator<Object[]> rows;
+        private Object[] current;
+
+        RunCursor(Iterator<Object[]> rows) {
+            this.rows = rows;
+            this.current = rows.next();
+        }
+
+        boolean advance() {
+            if (rows.hasNext()) {
+                current = rows.next();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private final class MergingIterator implements Iterator<Row> {
+
+        private final PriorityQueue<RunCursor> queue;
+        private final RowN row = new RowN(numOutputs);
+
+        MergingIterator(List<Object[]> rowsInMemory) {
+            queue = new PriorityQueue<>(runs.size() + 1, (c1, c2) -> comparator.compare(c1.current, c2.current));
+            for (SpillFile run : runs) {
+                CloseableIterator<Object[]> runRows = run.rows();
+                openIterators.add(runRows);
+                if (runRows.hasNext()) {
+                    queue.add(new RunCursor(runRows));
+                }
+            }
+            if (rowsInMemory.isEmpty() == false) {
+                queue.add(new RunCursor(rowsInMemory.iterator()));
+            }
+            for (int i = 0; i < offset && hasNext(); i++) {
+                nextCells();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return queue.isEmpty() == false;
+        }
+
+        @Override
+        public Row next() {
+            if (hasNext() == false) {
+                throw new NoSuchElementException("No more sorted rows");
+            }
+            row.cells(nextCells());
+            return row;
+        }
+
+        private Object[] nextCells() {
+            RunCursor cursor = queue.poll();
+            Object[] cells = cursor.current;
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+            return cells;
+        }
+    }
+}
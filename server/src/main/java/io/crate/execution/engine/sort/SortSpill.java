@@ -0,0 +1,38 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.sort;
+
+import java.nio.file.Path;
+
+import io.crate.Streamer;
+import io.crate.data.breaker.RamAccounting;
+
+/**
+ * Configuration for the external sort mode of the {@link SortingProjector}.
+ *
+ * @param directory directory in which the sorted runs are created
+ * @param streamers streamers for all columns of the rows which are sorted (outputs and order by symbols)
+ * @param ramAccounting the {@link RamAccounting} used by the row accounting of the projector.
+ *                      The memory of rows written to a run is given back to it.
+ */
+public record SortSpill(Path directory, Streamer<?>[] streamers, RamAccounting ramAccounting) {
+}
@@ -31,6 +31,8 @@ import io.crate.data.Row;
 import io.crate.data.breaker.RowAccounting;
 import io.crate.execution.engine.collect.CollectExpression;
 
+import org.jspecify.annotations.Nullable;
+
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
@@ -42,6 +44,9 @@ import java.util.stream.Collectors;
  * <p>
  * Compared to {@link SortingLimitAndOffsetProjector} this projector does not support limiting,
  * while the {@link SortingLimitAndOffsetProjector} does not work WITHOUT a limit.
+ * <p>
+ * If a {@link SortSpill} is given, rows are written to sorted runs on disk instead of failing
+ * if they don't fit into memory. See {@link ExternalSortCollector}.
  */
 public class SortingProjector implements Projector {
 
@@ -52,6 +57,17 @@ public class SortingProjector implements Projector {
     private final int offset;
     private final int numOutputs;
     private final RowAccounting<Object[]> rowAccounting;
+    @Nullable
+    private final SortSpill spill;
+
+    public SortingProjector(RowAccounting<Object[]> rowAccounting,
+                            Collection<? extends Input<?>> inputs,
+                            Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
+                            int numOutputs,
+                            Comparator<Object[]> comparator,
+                            int offset) {
+        this(rowAccounting, inputs, collectExpressions, numOutputs, comparator, offset, null);
+    }
 
     /**
      * @param rowAccounting               sorting is a pipeline breaker so account for the used memory
@@ -60,13 +76,15 @@ public class SortingProjector implements Projector {
      * @param numOutputs         <code>inputs</code> contains this much output {@link Input}s starting form index 0
      * @param comparator         ordering that is used to compare the rows
      * @param offset             the initial offset, this number of rows are skipped
+     * @param spill              if not null, rows are spilled to disk if they exceed the available memory
      */
     public SortingProjector(RowAccounting<Object[]> rowAccounting,
                             Collection<? extends Input<?>> inputs,
                             Iterable<? extends CollectExpression<Row, ?>> collectExpressions,
                             int numOutputs,
                             Comparator<Object[]> comparator,
-                            int offset) {
+                            int offset,
+                            @Nullable SortSpill spill) {
         if (offset < 0) {
             throw new IllegalArgumentException("invalid offset " + offset);
         }
@@ -76,13 +94,33 @@ public class SortingProjector implements Projector {
         this.collectExpressions = collectExpressions;
         this.comparator = comparator;
         this.offset = offset;
+        this.spill = spill;
     }
 
 
     @Override
     public BatchIterator<Row> apply(BatchIterator<Row> batchIterator) {
+        if (spill != null) {
+            ExternalSortCollector externalSort = new ExternalSortCollector(
+                rowAccounting,
+                spill,
+                comparator,
+                numOutputs,
+                offset
+            );
+            Collector<Row, ?, Iterable<Row>> collector = Collectors.mapping(this::getCells, externalSort);
+            return CollectingBatchIterator.newInstance(
+                () -> {
+                    batchIterator.close();
+                    externalSort.close();
+                },
+                batchIterator::kill,
+                () -> batchIterator.collect(collector),
+                batchIterator.hasLazyResultSet()
+            );
+        }
         Collector<Row, ?, Bucket> collector = Collectors.mapping(
-            this::getCells,
+            this::getCellsWithAccounting,
             Collectors.collectingAndThen(Collectors.toList(), this::sortAndCreateBucket));
         return CollectingBatchIterator.newInstance(batchIterator, collector);
     }
@@ -101,6 +139,11 @@ public class SortingProjector implements Projector {
         for (Input<?> input : inputs) {
             newRow[i++] = input.value();
         }
+        return newRow;
+    }
+
+    private Object[] getCellsWithAccounting(Row row) {
+        Object[] newRow = getCells(row);
         rowAccounting.accountForAndMaybeBreak(newRow);
         return newRow;
     }
@@ -0,0 +1,211 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
+import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.Streamer;
+import io.crate.data.CloseableIterator;
+import io.crate.data.Row;
+
+/**
+ * A temporary file holding rows, serialized using the {@link Streamer}s of the column types.
+ * <p>
+ * Rows are appended using {@link #add(Row)} or {@link #add(Object[])}.
+ * Once {@link #finishWriting()} has been called the rows can be read back - in insertion order - as often as needed
+ * using {@link #rows()}. {@link #close()} deletes the file.
+ * <p>
+ * Not thread-safe.
+ */
+public final class SpillFile implements Closeable {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Path path;
+    private final Streamer<?>[] streamers;
+
+    @Nullable
+    private OutputStreamStreamOutput out;
+    private long numRows = 0;
+    private boolean closed = false;
+
+    public SpillFile(Path directory, Streamer<?>[] streamers) {
+        this.streamers = streamers;
+        try {
+            this.path = Files.createTempFile(directory, "crate-spill-", ".bin");
+            this.out = new OutputStreamStreamOutput(
+                new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void add(Row row) {
+        assert row.numColumns() == streamers.length : "number of streamers must match row size";
+        OutputStreamStreamOutput output = ensureWritable();
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                ((Streamer) streamers[i]).writeValueTo(output, row.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void add(Object[] cells) {
+        assert cells.length == streamers.length : "number of streamers must match row size";
+        OutputStreamStreamOutput output = ensureWritable();
+        try {
+            for (int i = 0; i < streamers.length; i++) {
+                ((Streamer) streamers[i]).writeValueTo(output, cells[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        numRows++;
+    }
+
+    private OutputStreamStreamOutput ensureWritable() {
+        if (out == null) {
+            throw new IllegalStateException("SpillFile " + path + " is not writable anymore");
+        }
+        return out;
+    }
+
+    /**
+     * Flushes and closes the writer. No further rows can be added after this call.
+     */
+    public void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            out = null;
+        }
+    }
+
+    public long numRows() {
+        return numRows;
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * @return an iterator over the rows of the file. Each call to {@link CloseableIterator#next()}
+     *         returns a newly allocated array, so the rows can be retained by the caller.
+     */
+    public CloseableIterator<Object[]> rows() {
+        if (out != null) {
+            throw new IllegalStateException("SpillFile " + path + " must be finished before it can be read");
+        }
+        if (closed) {
+            throw new IllegalStateException("SpillFile " + path + " is closed");
+        }
+        final StreamInput in;
+        try {
+            in = new InputStreamStreamInput(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new CloseableIterator<>() {
+
+            private long pos = 0;
+
+            @Override
+            public boolean hasNext() {
+                return pos < numRows;
+            }
+
+            @Override
+            public Object[] next() {
+                if (pos >= numRows) {
+                    throw new NoSuchElementException("SpillFile " + path + " has no more rows");
+                }
+                Object[] cells = new Object[streamers.length];
+                try {
+                    for (int i = 0; i < streamers.length; i++) {
+                        cells[i] = streamers[i].readValueFrom(in);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                pos++;
+                return cells;
+            }
+
+            @Override
+            public void close() {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Closes the writer if still open and deletes the file.
+     * Iterators returned by {@link #rows()} must be closed separately.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (out != null) {
+                out.close();
+                out = null;
+            }
+        } catch (IOException ignored) {
+            // the file is deleted anyway
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -57,6 +57,9 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
     private int seenFrameUpperBound = -1;
     private Object resultForCurrentFrame;
 
+    @Nullable
+    private SegmentTree segmentTree;
+
     AggregateToWindowFunctionAdapter(AggregationFunction aggregationFunction,
                                      ExpressionsInput<Row, Boolean> filter,
                                      RamAccounting ramAccounting,
@@ -98,7 +101,12 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                           Input<?> ... args) {
         assert ignoreNulls == null;
         if (idxInPartition == 0) {
+            segmentTree = null;
             recomputeFunction(frame, expressions, args);
+        } else if (segmentTree != null) {
+            if (frame.lowerBound() != seenFrameLowerBound || frame.upperBoundExclusive() != seenFrameUpperBound) {
+                executeAggregateUsingSegmentTree(frame);
+            }
         } else if (isLowerBoundIncreasing(frame, seenFrameLowerBound)) {
             if (aggregationFunction.isRemovableCumulative()) {
                 removeSeenRowsFromAccumulatedState(frame, expressions, args);
@@ -109,6 +117,9 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
                 }
                 seenFrameLowerBound = frame.lowerBound();
                 seenFrameUpperBound = frame.upperBoundExclusive();
+            } else if (aggregationFunction.supportsSegmentTree()) {
+                segmentTree = buildSegmentTree(frame, expressions, args);
+                executeAggregateUsingSegmentTree(frame);
             } else {
                 recomputeFunction(frame, expressions, args);
             }
@@ -139,6 +150,48 @@ public class AggregateToWindowFunctionAdapter implements WindowFunction {
         }
     }
 
+    /**
+     * Builds a segment tree over all rows of the current partition, so that the following frames of the partition
+     * can be computed with O(log n) reductions instead of re-aggregating all rows of each frame.
+     */
+    private SegmentTree buildSegmentTree(WindowFrameState frame,
+                                         List<? extends CollectExpression<Row, ?>> expressions,
+                                         Input<?> ... args) {
+        Object emptyState = aggregationFunction.newState(ramAccounting, minNodeVersion, memoryManager);
+        Object[] leafStates = new Object[frame.partitionSize()];
+        var row = new ArrayRow();
+        for (int i = 0; i < leafStates.length; i++) {
+            Object[] cells = frame.getRowInPartitionAtIndexOrNull(i);
+            assert cells != null : "No row at idx=" + i + " in current partition=" + frame;
+            row.cells(cells);
+            for (int j = 0, expressionsSize = expressions.size(); j < expressionsSize; j++) {
+                expressions.get(j).setNextRow(row);
+            }
+            if (filter.value(row)) {
+                //noinspection unchecked
+                leafStates[i] = aggregationFunction.iterate(
+                    ramAccounting,
+                    memoryManager,
+                    aggregationFunction.newState(ramAccounting, minNodeVersion, memoryManager),
+                    args
+                );
+            } else {
+                leafStates[i] = emptyState;
+            }
+        }
+        //noinspection unchecked
+        return new SegmentTree(aggregationFunction, ramAccounting, emptyState, leafStates);
+    }
+
+    private void executeAggregateUsingSegmentTree(WindowFrameState frame) {
+        assert segmentTree != null : "segmentTree must be built before it can be used";
+        Object state = segmentTree.query(frame.lowerBound(), frame.upperBoundExclusive());
+        //noinspection unchecked
+        resultForCurrentFrame = aggregationFunction.terminatePartial(ramAccounting, state);
+        seenFrameLowerBound = frame.lowerBound();
+        seenFrameUpperBound = frame.upperBoundExclusive();
+    }
+
     private void recomputeFunction(WindowFrameState frame,
                                    List<? extends CollectExpression<Row, ?>> expressions,
                                    Input<?> ... args) {
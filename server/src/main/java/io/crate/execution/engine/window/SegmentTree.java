@@ -0,0 +1,89 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.window;
+
+import org.apache.lucene.util.RamUsageEstimator;
+
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.aggregation.AggregationFunction;
+
+/**
+ * Segment tree over the partial aggregation states of the rows of a partition as described in
+ * http://www.vldb.org/pvldb/vol8/p1058-leis.pdf
+ *
+ * <p>
+ * The leaves hold the state of a single row, every inner node holds the reduced state of its children.
+ * This allows to compute the aggregation of any frame within the partition with O(log n) reduce calls,
+ * instead of iterating over all rows of the frame.
+ * </p>
+ *
+ * Requires an aggregation that {@link AggregationFunction#supportsSegmentTree()}.
+ */
+final class SegmentTree {
+
+    private final AggregationFunction<Object, ?> aggregationFunction;
+    private final RamAccounting ramAccounting;
+    private final Object emptyState;
+    private final Object[] tree;
+    private final int numLeaves;
+
+    /**
+     * @param emptyState state without any aggregated rows, used for empty frames.
+     * @param leafStates the states of the individual rows of the partition.
+     */
+    SegmentTree(AggregationFunction<Object, ?> aggregationFunction,
+                RamAccounting ramAccounting,
+                Object emptyState,
+                Object[] leafStates) {
+        assert aggregationFunction.supportsSegmentTree() : "Aggregation must support segment trees";
+        this.aggregationFunction = aggregationFunction;
+        this.ramAccounting = ramAccounting;
+        this.emptyState = emptyState;
+        this.numLeaves = leafStates.length;
+        ramAccounting.addBytes(RamUsageEstimator.alignObjectSize(
+            RamUsageEstimator.NUM_BYTES_ARRAY_HEADER + 2L * numLeaves * RamUsageEstimator.NUM_BYTES_OBJECT_REF));
+        this.tree = new Object[2 * numLeaves];
+        System.arraycopy(leafStates, 0, tree, numLeaves, numLeaves);
+        for (int i = numLeaves - 1; i > 0; i--) {
+            tree[i] = aggregationFunction.reduce(ramAccounting, tree[2 * i], tree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * Returns the state of the rows from {@code from} (inclusive) to {@code to} (exclusive).
+     * The order of the rows is preserved, the aggregation doesn't need to be commutative.
+     */
+    Object query(int from, int to) {
+        assert from >= 0 && to <= numLeaves : "Range [" + from + ", " + to + ") is out of bounds";
+        Object left = emptyState;
+        Object right = emptyState;
+        for (from += numLeaves, to += numLeaves; from < to; from >>= 1, to >>= 1) {
+            if ((from & 1) == 1) {
+                left = aggregationFunction.reduce(ramAccounting, left, tree[from++]);
+            }
+            if ((to & 1) == 1) {
+                right = aggregationFunction.reduce(ramAccounting, tree[--to], right);
+            }
+        }
+        return aggregationFunction.reduce(ramAccounting, left, right);
+    }
+}
@@ -29,7 +29,9 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.IntSupplier;
 import java.util.function.LongConsumer;
@@ -41,6 +43,7 @@ import org.jspecify.annotations.Nullable;
 
 import io.crate.collections.accountable.AccountableList;
 import io.crate.common.collections.Iterables;
+import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
 import io.crate.data.Buckets;
 import io.crate.data.CollectingBatchIterator;
@@ -123,6 +126,50 @@ public final class WindowFunctionBatchIterator {
         );
     }
 
+    /**
+     * Like {@link #of} but for a source that already emits its rows sorted by PARTITION BY and ORDER BY, for
+     * example because the ordering was applied while collecting them from Lucene.
+     *
+     * <p>
+     * Instead of collecting all rows, only the rows of the current partition are kept in memory.
+     * Once the first row of the next partition arrives, the window functions are computed for the rows of the
+     * current partition and these rows are emitted.
+     * </p>
+     */
+    public static BatchIterator<Row> ofSorted(BatchIterator<Row> source,
+                                              LongConsumer allocateBytes,
+                                              RowAccounting<Row> rowAccounting,
+                                              ComputeFrameBoundary<Object[]> computeFrameStart,
+                                              ComputeFrameBoundary<Object[]> computeFrameEnd,
+                                              @Nullable Comparator<Object[]> cmpPartitionBy,
+                                              int numCellsInSourceRow,
+                                              List<WindowFunction> windowFunctions,
+                                              List<? extends CollectExpression<Row, ?>> argsExpressions,
+                                              Boolean[] ignoreNulls,
+                                              Input<?>[] ... args) {
+        assert windowFunctions.size() == args.length : "arguments must be defined for each window function";
+        assert args.length == ignoreNulls.length : "ignore-nulls option must be defined for each window function";
+        return new SortedPartitionsBatchIterator(
+            source,
+            allocateBytes,
+            rowAccounting,
+            windowFunctions.size(),
+            cmpPartitionBy,
+            (partitionRows, partitionAllocateBytes) -> computeWindowFunctions(
+                partitionRows,
+                partitionAllocateBytes,
+                computeFrameStart,
+                computeFrameEnd,
+                cmpPartitionBy,
+                numCellsInSourceRow,
+                windowFunctions,
+                argsExpressions,
+                ignoreNulls,
+                args
+            )
+        );
+    }
+
     private static Object[] materializeWithSpare(Row row, int numWindowFunctions) {
         Object[] cells = new Object[row.numColumns() + numWindowFunctions];
         for (int i = 0; i < row.numColumns(); i++) {
@@ -254,4 +301,149 @@ public final class WindowFunctionBatchIterator {
         }
         return row;
     }
+
+    /**
+     * Buffers the rows of one partition at a time, see {@link #ofSorted}.
+     * The memory accounted for the rows of a partition is released once all its rows have been emitted.
+     */
+    private static final class SortedPartitionsBatchIterator implements BatchIterator<Row> {
+
+        private final BatchIterator<Row> source;
+        private final LongConsumer allocateBytes;
+        private final RowAccounting<Row> rowAccounting;
+        private final int numWindowFunctions;
+        @Nullable
+        private final Comparator<Object[]> cmpPartitionBy;
+        private final BiFunction<List<Object[]>, LongConsumer, Iterable<Object[]>> computeWindowFunctions;
+        private final Function<Object[], Row> toRow = Buckets.arrayToSharedRow();
+        private final LongConsumer partitionAllocateBytes;
+
+        private AccountableList<Object[]> partition;
+        private long partitionBytes = 0;
+        @Nullable
+        private Object[] firstRowOfNextPartition;
+        @Nullable
+        private Iterator<Object[]> computedRows;
+        private boolean sourceExhausted = false;
+        private Row current;
+        private volatile Throwable killed;
+
+        SortedPartitionsBatchIterator(BatchIterator<Row> source,
+                                      LongConsumer allocateBytes,
+                                      RowAccounting<Row> rowAccounting,
+                                      int numWindowFunctions,
+                                      @Nullable Comparator<Object[]> cmpPartitionBy,
+                                      BiFunction<List<Object[]>, LongConsumer, Iterable<Object[]>> computeWindowFunctions) {
+            this.source = source;
+            this.allocateBytes = allocateBytes;
+            this.rowAccounting = rowAccounting;
+            this.numWindowFunctions = numWindowFunctions;
+            this.cmpPartitionBy = cmpPartitionBy;
+            this.computeWindowFunctions = computeWindowFunctions;
+            this.partitionAllocateBytes = bytes -> {
+                partitionBytes += bytes;
+                allocateBytes.accept(bytes);
+            };
+            this.partition = new AccountableList<>(partitionAllocateBytes);
+        }
+
+        @Override
+        public Row currentElement() {
+            return current;
+        }
+
+        @Override
+        public void moveToStart() {
+            raiseIfKilled();
+            source.moveToStart();
+            releasePartition();
+            firstRowOfNextPartition = null;
+            computedRows = null;
+            sourceExhausted = false;
+            current = null;
+        }
+
+        @Override
+        public boolean moveNext() {
+            raiseIfKilled();
+            while (true) {
+                if (computedRows != null) {
+                    if (computedRows.hasNext()) {
+                        current = toRow.apply(computedRows.next());
+                        return true;
+                    }
+                    computedRows = null;
+                    releasePartition();
+                    if (firstRowOfNextPartition != null) {
+                        partition.add(firstRowOfNextPartition);
+                        firstRowOfNextPartition = null;
+                    }
+                }
+                if (sourceExhausted) {
+                    if (partition.isEmpty()) {
+                        current = null;
+                        return false;
+                    }
+                    computedRows = computeWindowFunctions.apply(partition, partitionAllocateBytes).iterator();
+                } else if (source.moveNext()) {
+                    Row row = source.currentElement();
+                    // the row accounting already allocates the bytes, they're only tracked to release them later
+                    partitionBytes += rowAccounting.accountForAndMaybeBreak(row);
+                    Object[] cells = materializeWithSpare(row, numWindowFunctions);
+                    if (cmpPartitionBy != null
+                        && !partition.isEmpty()
+                        && cmpPartitionBy.compare(partition.getFirst(), cells) != 0) {
+                        firstRowOfNextPartition = cells;
+                        computedRows = computeWindowFunctions.apply(partition, partitionAllocateBytes).iterator();
+                    } else {
+                        partition.add(cells);
+                    }
+                } else if (source.allLoaded()) {
+                    sourceExhausted = true;
+                } else {
+                    current = null;
+                    return false;
+                }
+            }
+        }
+
+        private void releasePartition() {
+            allocateBytes.accept(-partitionBytes);
+            partitionBytes = 0;
+            partition = new AccountableList<>(partitionAllocateBytes);
+        }
+
+        @Override
+        public void close() {
+            source.close();
+            killed = BatchIterator.CLOSED;
+        }
+
+        @Override
+        public CompletionStage<?> loadNextBatch() throws Exception {
+            return source.loadNextBatch();
+        }
+
+        @Override
+        public boolean allLoaded() {
+            return source.allLoaded();
+        }
+
+        @Override
+        public void kill(Throwable throwable) {
+            source.kill(throwable);
+            killed = throwable;
+        }
+
+        @Override
+        public boolean hasLazyResultSet() {
+            return source.hasLazyResultSet();
+        }
+
+        private void raiseIfKilled() {
+            if (killed != null) {
+                Exceptions.rethrowUnchecked(killed);
+            }
+        }
+    }
 }
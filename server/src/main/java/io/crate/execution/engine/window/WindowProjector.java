@@ -150,6 +150,21 @@ public class WindowProjector {
             windowDefinition,
             cmpOrderBy
         );
+        if (projection.sourceSorted()) {
+            return sourceRows -> WindowFunctionBatchIterator.ofSorted(
+                sourceRows,
+                ramAccounting::addBytes,
+                accounting,
+                computeFrameStart,
+                computeFrameEnd,
+                cmpPartitionBy,
+                numCellsInSourceRow,
+                windowFunctions,
+                windowFuncArgsExpressions,
+                ignoreNulls,
+                windowFuncArgsInputs
+            );
+        }
         return sourceRows -> WindowFunctionBatchIterator.of(
             sourceRows,
             ramAccounting::addBytes,
@@ -24,6 +24,7 @@ package io.crate.execution.jobs;
 import static io.crate.execution.dsl.projection.Projections.nodeProjections;
 import static io.crate.execution.dsl.projection.Projections.shardProjections;
 
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collection;
@@ -46,6 +47,7 @@ import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.env.Environment;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.breaker.CircuitBreakerService;
@@ -144,6 +146,7 @@ public class JobSetup {
     private final Executor searchTp;
     private final String nodeName;
     private final Schemas schemas;
+    private final Path spillDirectory;
 
     @Inject
     public JobSetup(Settings settings,
@@ -159,8 +162,10 @@ public class JobSetup {
                     NodeContext nodeCtx,
                     SystemCollectSource systemCollectSource,
                     ShardCollectSource shardCollectSource,
-                    MemoryManagerFactory memoryManagerFactory) {
+                    MemoryManagerFactory memoryManagerFactory,
+                    Environment environment) {
         this.nodeName = Node.NODE_NAME_SETTING.get(settings);
+        this.spillDirectory = environment.tmpFile();
         this.schemas = nodeCtx.schemas();
         this.collectOperation = collectOperation;
         this.clusterService = clusterService;
@@ -184,7 +189,8 @@ public class JobSetup {
             inputFactory,
             normalizer,
             systemCollectSource::getRowUpdater,
-            systemCollectSource::tableDefinition
+            systemCollectSource::tableDefinition,
+            spillDirectory
         );
     }
 
@@ -970,7 +976,10 @@ public class JobSetup {
                 inputFactory,
                 breaker,
                 phase.estimatedRowSizeForLeft(),
-                phase.joinType() == JoinType.LEFT
+                phase.joinType() == JoinType.LEFT,
+                spillDirectory,
+                phase.leftOutputTypes(),
+                phase.rightOutputTypes()
             );
             DistResultRXTask left = pageDownstreamContextForNestedLoop(
                 phase.phaseId(),
@@ -30,6 +30,7 @@ import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
 
 import io.crate.data.Input;
+import io.crate.expression.scalar.KnnMatch;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
@@ -134,6 +135,22 @@ public class AndOperator extends Operator<Boolean> {
 
     @Override
     public Query toQuery(Function function, Context context) {
+        List<Symbol> conjunctions = split(function);
+        int knnMatchIdx = singleKnnMatchIndex(conjunctions);
+        if (knnMatchIdx >= 0) {
+            // Use the other conditions as pre-filter for the kNN search.
+            // Filtering the top k results afterwards could leave less than k, or no results at all.
+            BooleanQuery.Builder filter = new BooleanQuery.Builder();
+            for (int i = 0; i < conjunctions.size(); i++) {
+                if (i != knnMatchIdx) {
+                    filter.add(conjunctions.get(i).accept(context.visitor(), context), BooleanClause.Occur.FILTER);
+                }
+            }
+            Query knnQuery = KnnMatch.toQuery((Function) conjunctions.get(knnMatchIdx), context, filter.build());
+            if (knnQuery != null) {
+                return knnQuery;
+            }
+        }
         BooleanQuery.Builder query = new BooleanQuery.Builder();
         for (Symbol symbol : function.arguments()) {
             query.add(symbol.accept(context.visitor(), context), BooleanClause.Occur.MUST);
@@ -141,6 +158,19 @@ public class AndOperator extends Operator<Boolean> {
         return query.build();
     }
 
+    private static int singleKnnMatchIndex(List<Symbol> conjunctions) {
+        int knnMatchIdx = -1;
+        for (int i = 0; i < conjunctions.size(); i++) {
+            if (conjunctions.get(i) instanceof Function fn && fn.name().equals(KnnMatch.NAME)) {
+                if (knnMatchIdx >= 0) {
+                    return -1;
+                }
+                knnMatchIdx = i;
+            }
+        }
+        return knnMatchIdx;
+    }
+
     public static Function of(Symbol first, Symbol second) {
         assert first.valueType().equals(DataTypes.BOOLEAN) || first.valueType().equals(DataTypes.UNDEFINED) :
             "first symbol must have BOOLEAN return type to create AND function";
@@ -42,8 +42,10 @@ import org.elasticsearch.monitor.process.ProcessStats;
 import org.elasticsearch.threadpool.ThreadPoolStats;
 
 import io.crate.common.collections.Lists;
+import io.crate.memory.OffHeapStats;
 import io.crate.monitor.ExtendedOsStats;
 import io.crate.protocols.ConnectionStats;
+import io.crate.session.PlanCacheStats;
 import io.crate.types.DataTypes;
 
 public class NodeStatsContext implements Writeable {
@@ -62,6 +64,8 @@ public class NodeStatsContext implements Writeable {
     private String restUrl;
     private Map<String, Object> attributes;
     private JvmStats jvmStats;
+    private OffHeapStats offHeapStats;
+    private PlanCacheStats planCacheStats;
     private OsInfo osInfo;
     private ProcessStats processStats;
     private OsStats osStats;
@@ -163,6 +167,14 @@ public class NodeStatsContext implements Writeable {
         return jvmStats;
     }
 
+    public OffHeapStats offHeapStats() {
+        return offHeapStats;
+    }
+
+    public PlanCacheStats planCacheStats() {
+        return planCacheStats;
+    }
+
     public OsInfo osInfo() {
         return osInfo;
     }
@@ -299,6 +311,14 @@ public class NodeStatsContext implements Writeable {
         this.jvmStats = jvmStats;
     }
 
+    public void offHeapStats(OffHeapStats offHeapStats) {
+        this.offHeapStats = offHeapStats;
+    }
+
+    public void planCacheStats(PlanCacheStats planCacheStats) {
+        this.planCacheStats = planCacheStats;
+    }
+
     public void osInfo(OsInfo osInfo) {
         this.osInfo = osInfo;
     }
@@ -390,6 +410,10 @@ public class NodeStatsContext implements Writeable {
         this.jvmName = DataTypes.STRING.readValueFrom(in);
         this.jvmVendor = DataTypes.STRING.readValueFrom(in);
         this.jvmVersion = DataTypes.STRING.readValueFrom(in);
+        if (in.getVersion().onOrAfter(Version.V_6_3_0)) {
+            this.offHeapStats = in.readOptionalWriteable(OffHeapStats::new);
+            this.planCacheStats = in.readOptionalWriteable(PlanCacheStats::new);
+        }
     }
 
     @Override
@@ -460,6 +484,10 @@ public class NodeStatsContext implements Writeable {
         DataTypes.STRING.writeValueTo(out, jvmName);
         DataTypes.STRING.writeValueTo(out, jvmVendor);
         DataTypes.STRING.writeValueTo(out, jvmVersion);
+        if (out.getVersion().onOrAfter(Version.V_6_3_0)) {
+            out.writeOptionalWriteable(offHeapStats);
+            out.writeOptionalWriteable(planCacheStats);
+        }
     }
 }
 
@@ -58,11 +58,15 @@ import org.elasticsearch.transport.TransportService;
 import org.jspecify.annotations.Nullable;
 import io.crate.common.annotations.VisibleForTesting;
 
+import io.crate.memory.MemoryManagerFactory;
+import io.crate.memory.OffHeapStats;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.monitor.ExtendedNodeInfo;
 import io.crate.protocols.ConnectionStats;
 import io.crate.protocols.postgres.PostgresNetty;
+import io.crate.session.PlanCacheStats;
+import io.crate.session.Sessions;
 
 @Singleton
 public class NodeStatsContextFieldResolver {
@@ -82,6 +86,8 @@ public class NodeStatsContextFieldResolver {
     private final JvmService jvmService;
     private final FsService fsService;
     private final LongSupplier clusterStateVersion;
+    private final Supplier<OffHeapStats> offHeapStats;
+    private final Supplier<PlanCacheStats> planCacheStats;
 
     @Inject
     @SuppressWarnings("unused")
@@ -91,7 +97,9 @@ public class NodeStatsContextFieldResolver {
                                          TransportService transportService,
                                          ThreadPool threadPool,
                                          ExtendedNodeInfo extendedNodeInfo,
-                                         PostgresNetty postgresNetty) {
+                                         PostgresNetty postgresNetty,
+                                         MemoryManagerFactory memoryManagerFactory,
+                                         Sessions sessions) {
         this(
             () -> clusterService.state().nodes().isLocalNodeElectedMaster(),
             clusterService::localNode,
@@ -109,7 +117,9 @@ public class NodeStatsContextFieldResolver {
                 return boundTransportAddress.publishAddress();
             },
             transportService::stats,
-            () -> clusterService.state().version()
+            () -> clusterService.state().version(),
+            memoryManagerFactory::offHeapStats,
+            () -> sessions.planCache().stats()
         );
     }
 
@@ -124,7 +134,9 @@ public class NodeStatsContextFieldResolver {
                                   Supplier<ConnectionStats> psqlStats,
                                   Supplier<TransportAddress> boundPostgresAddress,
                                   Supplier<ConnectionStats> transportStats,
-                                  LongSupplier clusterStateVersion) {
+                                  LongSupplier clusterStateVersion,
+                                  Supplier<OffHeapStats> offHeapStats,
+                                  Supplier<PlanCacheStats> planCacheStats) {
         this.isMaster = isMaster;
         this.localNode = localNode;
         processService = monitorService.processService();
@@ -139,6 +151,8 @@ public class NodeStatsContextFieldResolver {
         this.boundPostgresAddress = boundPostgresAddress;
         this.transportStats = transportStats;
         this.clusterStateVersion = clusterStateVersion;
+        this.offHeapStats = offHeapStats;
+        this.planCacheStats = planCacheStats;
     }
 
     public NodeStatsContext forTopColumnIdents(Collection<ColumnIdent> topColumnIdents) {
@@ -249,6 +263,8 @@ public class NodeStatsContextFieldResolver {
                 context.jvmStats(jvmService.stats());
             }
         }),
+        entry(SysNodesTableInfo.Columns.OFF_HEAP, context -> context.offHeapStats(offHeapStats.get())),
+        entry(SysNodesTableInfo.Columns.PLAN_CACHE, context -> context.planCacheStats(planCacheStats.get())),
         entry(SysNodesTableInfo.Columns.VERSION, context -> {
             context.version(Version.CURRENT);
             context.build(Build.CURRENT);
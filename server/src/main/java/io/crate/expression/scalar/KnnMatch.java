@@ -24,8 +24,10 @@ package io.crate.expression.scalar;
 
 import java.util.List;
 
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
+import org.elasticsearch.common.settings.Settings;
 import org.jspecify.annotations.Nullable;
 
 import io.crate.data.Input;
@@ -33,6 +35,9 @@ import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.lucene.LuceneQueryBuilder.Context;
+import io.crate.lucene.RescoreKnnFloatVectorQuery;
+import io.crate.lucene.codec.VectorQuantization;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.FunctionType;
 import io.crate.metadata.Functions;
 import io.crate.metadata.NodeContext;
@@ -47,9 +52,11 @@ import io.crate.types.TypeSignature;
 
 public class KnnMatch extends Scalar<Boolean, Object> {
 
+    public static final String NAME = "knn_match";
+
     public static void register(Functions.Builder module) {
         module.add(
-            Signature.builder("knn_match", FunctionType.SCALAR)
+            Signature.builder(NAME, FunctionType.SCALAR)
                 .argumentTypes(TypeSignature.parse(FloatVectorType.NAME), TypeSignature.parse(FloatVectorType.NAME), DataTypes.INTEGER.getTypeSignature())
                 .returnType(DataTypes.BOOLEAN.getTypeSignature())
                 .features(Feature.DETERMINISTIC)
@@ -73,15 +80,37 @@ public class KnnMatch extends Scalar<Boolean, Object> {
     @Override
     @Nullable
     public Query toQuery(Function function, Context context) {
+        return toQuery(function, context, null);
+    }
+
+    /**
+     * @param filter restricts the documents considered as nearest neighbors. Unlike filtering the top k results
+     *               afterwards, this returns k results as long as enough documents match the filter.
+     */
+    @Nullable
+    public static Query toQuery(Function function, Context context, @Nullable Query filter) {
         List<Symbol> args = function.arguments();
         if (args.get(0) instanceof Reference ref
                 && args.get(1) instanceof Literal<?> targetLiteral
                 && args.get(2) instanceof Literal<?> kLiteral) {
 
-            Object target = targetLiteral.value();
-            Object k = kLiteral.value();
-            if (target instanceof float[] && k instanceof Integer) {
-                return new KnnFloatVectorQuery(ref.storageIdent(), (float[]) target, (int) k);
+            if (targetLiteral.value() instanceof float[] target && kLiteral.value() instanceof Integer k) {
+                int numCandidates = k;
+                FloatVectorReference vectorRef = FloatVectorReference.of(ref);
+                if (vectorRef != null && vectorRef.numCandidates() != null) {
+                    numCandidates = Math.max(numCandidates, vectorRef.numCandidates());
+                }
+                VectorSimilarityFunction rescoreSimilarity = null;
+                Settings tableParameters = context.tableInfo().parameters();
+                int oversample = VectorQuantization.RESCORE_OVERSAMPLE_SETTING.get(tableParameters);
+                if (oversample > 0 && VectorQuantization.SETTING.get(tableParameters) != VectorQuantization.NONE) {
+                    numCandidates = (int) Math.max(numCandidates, Math.min((long) k * oversample, Integer.MAX_VALUE));
+                    rescoreSimilarity = FloatVectorReference.similarityFunction(ref);
+                }
+                if (numCandidates > k || rescoreSimilarity != null) {
+                    return new RescoreKnnFloatVectorQuery(ref.storageIdent(), target, k, numCandidates, rescoreSimilarity, filter);
+                }
+                return new KnnFloatVectorQuery(ref.storageIdent(), target, k, filter);
             }
             return null;
         }
@@ -0,0 +1,157 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.expression.scalar;
+
+import java.util.List;
+
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.data.Input;
+import io.crate.execution.engine.aggregation.impl.RuntimeFilterAggregation;
+import io.crate.execution.engine.join.RuntimeFilter;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.Symbol;
+import io.crate.lucene.LuceneQueryBuilder.Context;
+import io.crate.lucene.RuntimeFilterQuery;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.Functions;
+import io.crate.metadata.IndexType;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.Reference;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.TransactionContext;
+import io.crate.metadata.functions.BoundSignature;
+import io.crate.metadata.functions.Signature;
+import io.crate.role.Roles;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.EqQuery;
+import io.crate.types.StorageSupport;
+
+/**
+ * Internal predicate which matches if a join key might be contained in a {@link RuntimeFilter}
+ * built by {@link RuntimeFilterAggregation}:
+ * <pre>
+ *     _runtime_filter(key, [min, max, word1, word2, ...])
+ * </pre>
+ * On tables it is translated into a range query on min/max, verified with the bloom filter using doc values.
+ */
+public final class RuntimeFilterFunction extends Scalar<Boolean, Object> {
+
+    public static final String NAME = "_runtime_filter";
+
+    public static void register(Functions.Builder builder) {
+        for (DataType<?> type : RuntimeFilterAggregation.SUPPORTED_TYPES) {
+            builder.add(
+                Signature.builder(NAME, FunctionType.SCALAR)
+                    .argumentTypes(type.getTypeSignature(), DataTypes.BIGINT_ARRAY.getTypeSignature())
+                    .returnType(DataTypes.BOOLEAN.getTypeSignature())
+                    .features(Feature.DETERMINISTIC)
+                    .build(),
+                RuntimeFilterFunction::new
+            );
+        }
+    }
+
+    @Nullable
+    private final RuntimeFilter filter;
+
+    private RuntimeFilterFunction(Signature signature, BoundSignature boundSignature) {
+        this(signature, boundSignature, null);
+    }
+
+    private RuntimeFilterFunction(Signature signature, BoundSignature boundSignature, @Nullable RuntimeFilter filter) {
+        super(signature, boundSignature);
+        this.filter = filter;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Scalar<Boolean, Object> compile(List<Symbol> arguments, String currentUser, Roles roles) {
+        if (arguments.get(1) instanceof Input<?> input && input.value() instanceof List<?> encoded) {
+            return new RuntimeFilterFunction(signature, boundSignature, RuntimeFilter.fromList((List<Long>) encoded));
+        }
+        return this;
+    }
+
+    @Override
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    public final Boolean evaluate(TransactionContext txnCtx, NodeContext nodeCtx, Input<Object>... args) {
+        Number key = (Number) args[0].value();
+        if (key == null) {
+            // Used for inner equi-joins; null never has a join partner
+            return false;
+        }
+        RuntimeFilter runtimeFilter = filter;
+        if (runtimeFilter == null) {
+            List<Long> encoded = (List<Long>) args[1].value();
+            if (encoded == null) {
+                return true;
+            }
+            runtimeFilter = RuntimeFilter.fromList(encoded);
+        }
+        return runtimeFilter.mightContain(key.longValue());
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public Query toQuery(Function function, Context context) {
+        List<Symbol> args = function.arguments();
+        if (args.get(0) instanceof Reference ref && args.get(1) instanceof Literal<?> filterLiteral) {
+            List<Long> encoded = (List<Long>) filterLiteral.value();
+            if (encoded == null || ref.hasDocValues() == false) {
+                return null;
+            }
+            RuntimeFilter runtimeFilter = RuntimeFilter.fromList(encoded);
+            if (runtimeFilter.isEmpty()) {
+                return new MatchNoDocsQuery("Runtime filter is empty, the build side of the join has no rows");
+            }
+            DataType<?> type = ref.valueType();
+            StorageSupport<?> storageSupport = type.storageSupport();
+            EqQuery<Object> eqQuery = storageSupport == null ? null : (EqQuery<Object>) storageSupport.eqQuery();
+            if (eqQuery == null) {
+                return null;
+            }
+            Query rangeQuery = eqQuery.rangeQuery(
+                ref.storageIdent(),
+                type.implicitCast(runtimeFilter.min()),
+                type.implicitCast(runtimeFilter.max()),
+                true,
+                true,
+                ref.hasDocValues(),
+                ref.indexType() != IndexType.NONE
+            );
+            return new BooleanQuery.Builder()
+                .add(rangeQuery, Occur.FILTER)
+                .add(new RuntimeFilterQuery(ref.storageIdent(), runtimeFilter), Occur.FILTER)
+                .build();
+        }
+        return null;
+    }
+}
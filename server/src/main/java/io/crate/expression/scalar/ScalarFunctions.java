@@ -266,5 +266,6 @@ public class ScalarFunctions implements FunctionsProvider {
 
         KnnMatch.register(builder);
         VectorSimilarityFunction.register(builder);
+        RuntimeFilterFunction.register(builder);
     }
 }
@@ -28,6 +28,7 @@ import java.util.List;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.Writeable;
 
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.GeneratedReference;
 import io.crate.metadata.GeoReference;
 import io.crate.metadata.IndexReference;
@@ -59,7 +60,9 @@ public enum SymbolType {
     FETCH_STUB(in -> {
         throw new UnsupportedEncodingException("FetchStub is not streamable");
     }),
-    VOID_REFERENCE(VoidReference::new);
+    VOID_REFERENCE(VoidReference::new),
+    // Added in 6.3
+    FLOAT_VECTOR_REFERENCE(FloatVectorReference::new);
 
     public static final List<SymbolType> VALUES = List.of(values());
 
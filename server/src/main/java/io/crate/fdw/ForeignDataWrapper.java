@@ -26,9 +26,12 @@ import java.util.concurrent.CompletableFuture;
 
 import org.elasticsearch.cluster.metadata.RelationMetadata.ForeignTable;
 import org.elasticsearch.common.settings.Setting;
+import org.jspecify.annotations.Nullable;
 
+import io.crate.analyze.OrderBy;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Symbol;
 import io.crate.fdw.ServersMetadata.Server;
 import io.crate.metadata.TransactionContext;
@@ -58,10 +61,40 @@ public interface ForeignDataWrapper {
      **/
     boolean supportsQueryPushdown(Symbol query);
 
+    /**
+     * Indicates if the aggregations, grouped by {@code groupKeys}, can be executed on the foreign server.
+     *
+     * If this returns `true` the aggregations are part of the collect symbols and
+     * {@link Pushdown#aggregate()} is set.
+     **/
+    default boolean supportsAggregationPushdown(List<Symbol> groupKeys, List<Function> aggregates) {
+        return false;
+    }
+
+    /**
+     * Indicates if the foreign server can sort the rows and return only the first rows.
+     *
+     * The ORDER BY and LIMIT remain part of the local plan, the foreign server must
+     * order the rows the same way for the result to be correct.
+     **/
+    default boolean supportsLimitPushdown(@Nullable OrderBy orderBy) {
+        return false;
+    }
+
+    default CompletableFuture<BatchIterator<Row>> getIterator(Role user,
+                                                              Server server,
+                                                              ForeignTable foreignTable,
+                                                              TransactionContext txnCtx,
+                                                              List<Symbol> collect,
+                                                              Symbol query) {
+        return getIterator(user, server, foreignTable, txnCtx, collect, query, Pushdown.NONE);
+    }
+
     CompletableFuture<BatchIterator<Row>> getIterator(Role user,
                                                       Server server,
                                                       ForeignTable foreignTable,
                                                       TransactionContext txnCtx,
                                                       List<Symbol> collect,
-                                                      Symbol query);
+                                                      Symbol query,
+                                                      Pushdown pushdown);
 }
@@ -26,6 +26,7 @@ import static java.util.Objects.requireNonNull;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.elasticsearch.ResourceNotFoundException;
 import org.elasticsearch.cluster.metadata.Metadata;
@@ -36,6 +37,8 @@ import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
@@ -65,14 +68,28 @@ public class ForeignDataWrappers implements CollectSource {
     private final Map<String, ForeignDataWrapper> wrappers;
     private final Roles roles;
 
-    @Inject
     public ForeignDataWrappers(Settings settings,
                                ClusterService clusterService,
                                NodeContext nodeContext) {
+        this(settings, clusterService, nodeContext, EsExecutors.directExecutor());
+    }
+
+    @Inject
+    public ForeignDataWrappers(Settings settings,
+                               ClusterService clusterService,
+                               NodeContext nodeContext,
+                               ThreadPool threadPool) {
+        this(settings, clusterService, nodeContext, threadPool.executor(ThreadPool.Names.GENERIC));
+    }
+
+    private ForeignDataWrappers(Settings settings,
+                                ClusterService clusterService,
+                                NodeContext nodeContext,
+                                Executor executor) {
         this.clusterService = clusterService;
         this.inputFactory = new InputFactory(nodeContext);
         this.wrappers = Map.of(
-            "jdbc", new JdbcForeignDataWrapper(settings, inputFactory)
+            "jdbc", new JdbcForeignDataWrapper(settings, inputFactory, executor)
         );
         this.roles = nodeContext.roles();
     }
@@ -129,7 +146,8 @@ public class ForeignDataWrappers implements CollectSource {
             foreignTable,
             txnCtx,
             collectPhase.toCollect(),
-            phase.query()
+            phase.query(),
+            phase.pushdown()
         );
     }
 }
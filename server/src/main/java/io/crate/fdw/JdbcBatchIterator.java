@@ -31,6 +31,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
@@ -47,13 +48,16 @@ import org.apache.lucene.util.Accountable;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.jspecify.annotations.Nullable;
 
+import io.crate.analyze.OrderBy;
 import io.crate.common.collections.Lists;
 import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
 import io.crate.data.Row;
 import io.crate.data.RowN;
 import io.crate.exceptions.ConversionException;
+import io.crate.execution.engine.aggregation.impl.average.AverageAggregation;
 import io.crate.expression.scalar.cast.CastMode;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.RefReplacer;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.SymbolType;
@@ -71,13 +75,75 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
 
     private static final Logger LOGGER = LogManager.getLogger(JdbcBatchIterator.class);
 
+    /**
+     * SQL features used for {@link Pushdown} which not every JDBC source supports
+     */
+    enum Dialect {
+        GENERIC(false, false),
+        LIMIT(true, false),
+        LIMIT_AND_NULLS_ORDERING(true, true);
+
+        private final boolean supportsLimit;
+        private final boolean supportsNullsOrdering;
+
+        Dialect(boolean supportsLimit, boolean supportsNullsOrdering) {
+            this.supportsLimit = supportsLimit;
+            this.supportsNullsOrdering = supportsNullsOrdering;
+        }
+
+        static Dialect of(String databaseProductName) {
+            return switch (databaseProductName.toLowerCase(Locale.ENGLISH)) {
+                case "postgresql", "h2", "sqlite", "duckdb", "cratedb" -> LIMIT_AND_NULLS_ORDERING;
+                case "mysql", "mariadb" -> LIMIT;
+                default -> GENERIC;
+            };
+        }
+    }
+
+    /**
+     * Range of {@code column} values to read: {@code from} inclusive, {@code to} exclusive.
+     * A null bound means unbounded.
+     */
+    record KeyRange(Reference column, @Nullable Object from, @Nullable Object to, boolean includeNulls) {
+
+        String toSQL(String quoteString) {
+            String columnName = new QuotedReference(column, quoteString).toString(Style.UNQUALIFIED);
+            List<String> conditions = new ArrayList<>(2);
+            if (from != null) {
+                conditions.add(columnName + " >= ?");
+            }
+            if (to != null) {
+                conditions.add(columnName + " < ?");
+            }
+            String range = String.join(" AND ", conditions);
+            if (includeNulls) {
+                return range.isEmpty() ? columnName + " IS NULL" : "(" + range + ") OR " + columnName + " IS NULL";
+            }
+            return range;
+        }
+
+        void setParameters(PreparedStatement statement) throws SQLException {
+            int idx = 1;
+            if (from != null) {
+                statement.setObject(idx++, from);
+            }
+            if (to != null) {
+                statement.setObject(idx, to);
+            }
+        }
+    }
+
     private final String url;
     private final Properties properties;
     private final Row row;
     private final Object[] cells;
-    private final List<Reference> columns;
+    private final List<? extends Symbol> columns;
     private final Symbol query;
     private final RelationName table;
+    private final Pushdown pushdown;
+    @Nullable
+    private final KeyRange range;
+    private final int fetchSize;
 
     private Connection conn;
     private PreparedStatement statement;
@@ -89,50 +155,153 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
                              List<Reference> columns,
                              Symbol query,
                              RelationName table) {
+        this(url, properties, columns, query, table, Pushdown.NONE, null, 0);
+    }
+
+    /**
+     * @param columns the columns to read, or with {@link Pushdown#aggregate()}, the group keys and aggregations
+     * @param fetchSize number of rows to fetch per round-trip, 0 to use the default of the driver
+     */
+    JdbcBatchIterator(String url,
+                      Properties properties,
+                      List<? extends Symbol> columns,
+                      Symbol query,
+                      RelationName table,
+                      Pushdown pushdown,
+                      @Nullable KeyRange range,
+                      int fetchSize) {
         this.url = url;
         this.properties = properties;
         this.columns = columns;
         this.query = query;
         this.table = table;
+        this.pushdown = pushdown;
+        this.range = range;
+        this.fetchSize = fetchSize;
         this.cells = new Object[columns.size()];
         this.row = new RowN(cells);
     }
 
     static String generateStatement(RelationName table,
-                                    List<Reference> columns,
+                                    List<? extends Symbol> columns,
                                     Symbol query,
                                     String quoteString) {
+        return generateStatement(table, columns, query, Pushdown.NONE, null, Dialect.GENERIC, quoteString);
+    }
+
+    static String generateStatement(RelationName table,
+                                    List<? extends Symbol> columns,
+                                    Symbol query,
+                                    Pushdown pushdown,
+                                    @Nullable KeyRange range,
+                                    Dialect dialect,
+                                    String quoteString) {
         final String qs = quoteString.isBlank() ? "" : quoteString;
+        String columnsStr = columns.isEmpty()
+            ? "1"
+            : String.join(", ", Lists.mapLazy(columns, symbol -> toSelectSQL(symbol, pushdown, qs)));
+        var stmt = new StringBuilder(String.format(
+            Locale.ENGLISH,
+            "SELECT %s FROM %s WHERE %s",
+            columnsStr,
+            toSQL(table, qs),
+            toSQL(query, qs)
+        ));
+        if (range != null) {
+            stmt.append(" AND (").append(range.toSQL(qs)).append(")");
+        }
+        if (pushdown.aggregate() && !pushdown.groupKeys().isEmpty()) {
+            stmt.append(" GROUP BY ");
+            stmt.append(String.join(", ", Lists.mapLazy(pushdown.groupKeys(), symbol -> toSQL(symbol, qs))));
+        }
+        OrderBy orderBy = pushdown.orderBy();
+        boolean pushLimit = pushdown.hasLimit()
+            && dialect.supportsLimit
+            && (orderBy == null || dialect.supportsNullsOrdering);
+        if (pushLimit) {
+            if (orderBy != null) {
+                stmt.append(" ORDER BY ");
+                List<Symbol> orderBySymbols = orderBy.orderBySymbols();
+                for (int i = 0; i < orderBySymbols.size(); i++) {
+                    if (i > 0) {
+                        stmt.append(", ");
+                    }
+                    stmt.append(toSQL(orderBySymbols.get(i), qs));
+                    stmt.append(orderBy.reverseFlags()[i] ? " DESC" : " ASC");
+                    stmt.append(orderBy.nullsFirst()[i] ? " NULLS FIRST" : " NULLS LAST");
+                }
+            }
+            stmt.append(" LIMIT ").append(pushdown.limit());
+        }
+        LOGGER.debug("Generated statement for foreign JDBC source: {}", stmt);
+        return stmt.toString();
+    }
+
+    /**
+     * Generates the statement to retrieve the min and max values of {@code column}, used to partition the reads
+     */
+    static String generateBoundsStatement(RelationName table, Reference column, Symbol query, String quoteString) {
+        final String qs = quoteString.isBlank() ? "" : quoteString;
+        String columnName = toSQL(column, qs);
+        return String.format(
+            Locale.ENGLISH,
+            "SELECT min(%s), max(%s) FROM %s WHERE %s",
+            columnName,
+            columnName,
+            toSQL(table, qs),
+            toSQL(query, qs)
+        );
+    }
+
+    private static String toSQL(RelationName table, String quoteString) {
         StringBuilder relationName = new StringBuilder();
         String schema = table.schema();
         if (schema != null) {
             relationName
-                .append(qs)
+                .append(quoteString)
                 .append(schema)
-                .append(qs)
+                .append(quoteString)
                 .append('.');
         }
         relationName
-            .append(qs)
+            .append(quoteString)
             .append(table.name())
-            .append(qs);
+            .append(quoteString);
+        return relationName.toString();
+    }
 
-        String columnsStr = columns.isEmpty()
-            ? "1"
-            : String.join(", ", Lists.mapLazy(
-                columns,
-                ref -> new QuotedReference(ref, qs).toString(Style.UNQUALIFIED)));
-        var stmt = String.format(
-            Locale.ENGLISH,
-            "SELECT %s FROM %s WHERE %s",
-            columnsStr,
-            relationName.toString(),
-            RefReplacer.replaceRefs(
-                query,
-                ref -> new QuotedReference(ref, qs)).toString(Style.UNQUALIFIED)
-        );
-        LOGGER.debug("Generated statement for foreign JDBC source: {}", stmt);
-        return stmt;
+    /**
+     * The result of avg depends on the foreign database, e.g. it may use integer division for integral types.
+     * avg is therefore computed locally from a pushed down sum and count, see {@link #average(Object, Object)}
+     */
+    private static boolean isAverage(Symbol symbol, Pushdown pushdown) {
+        return pushdown.aggregate()
+            && symbol instanceof Function fn
+            && fn.name().equals(AverageAggregation.NAME);
+    }
+
+    private static String toSelectSQL(Symbol symbol, Pushdown pushdown, String quoteString) {
+        if (isAverage(symbol, pushdown)) {
+            String arg = toSQL(((Function) symbol).arguments().get(0), quoteString);
+            return "sum(" + arg + "), count(" + arg + ")";
+        }
+        return toSQL(symbol, quoteString);
+    }
+
+    @Nullable
+    static Double average(@Nullable Object sum, @Nullable Object count) {
+        if (sum == null || count == null) {
+            return null;
+        }
+        long numValues = ((Number) count).longValue();
+        if (numValues == 0) {
+            return null;
+        }
+        return ((Number) sum).doubleValue() / numValues;
+    }
+
+    private static String toSQL(Symbol symbol, String quoteString) {
+        return RefReplacer.replaceRefs(symbol, ref -> new QuotedReference(ref, quoteString)).toString(Style.UNQUALIFIED);
     }
 
     @Override
@@ -175,14 +344,27 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
         }
         try {
             if (resultSet.next()) {
+                ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+                // An avg column is read from two result columns, sum and count
+                int resultColumn = 0;
                 for (int i = 0; i < columns.size(); i ++) {
-                    Reference ref = columns.get(i);
-                    ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
-                    Object object = getObject(resultSet, i, resultSetMetaData.getColumnTypeName(i + 1));
+                    Symbol column = columns.get(i);
+                    if (isAverage(column, pushdown)) {
+                        Object sum = getObject(
+                            resultSet, resultColumn, resultSetMetaData.getColumnTypeName(resultColumn + 1));
+                        Object count = getObject(
+                            resultSet, resultColumn + 1, resultSetMetaData.getColumnTypeName(resultColumn + 2));
+                        resultColumn += 2;
+                        cells[i] = average(sum, count);
+                        continue;
+                    }
+                    DataType<?> valueType = column.valueType();
+                    Object object = getObject(resultSet, resultColumn, resultSetMetaData.getColumnTypeName(resultColumn + 1));
+                    resultColumn++;
                     try {
-                        cells[i] = ref.valueType().implicitCast(object);
+                        cells[i] = valueType.implicitCast(object);
                     } catch (ClassCastException | IllegalArgumentException e) {
-                        var conversionException = new ConversionException(object, ref.valueType());
+                        var conversionException = new ConversionException(object, valueType);
                         conversionException.addSuppressed(e);
                         throw conversionException;
                     }
@@ -213,11 +395,29 @@ public class JdbcBatchIterator implements BatchIterator<Row> {
     public CompletionStage<?> loadNextBatch() throws Exception {
         if (conn == null) {
             conn = DriverManager.getConnection(url, properties);
+            if (fetchSize > 0) {
+                // Some drivers, like the PostgreSQL driver, only use a cursor within a transaction
+                conn.setAutoCommit(false);
+            }
         }
         if (statement == null) {
             DatabaseMetaData metaData = conn.getMetaData();
-            String sql = generateStatement(table, columns, query, metaData.getIdentifierQuoteString());
+            String sql = generateStatement(
+                table,
+                columns,
+                query,
+                pushdown,
+                range,
+                Dialect.of(metaData.getDatabaseProductName()),
+                metaData.getIdentifierQuoteString()
+            );
             statement = conn.prepareStatement(sql);
+            if (fetchSize > 0) {
+                statement.setFetchSize(fetchSize);
+            }
+            if (range != null) {
+                range.setParameters(statement);
+            }
         }
         resultSet = statement.executeQuery();
         return CompletableFuture.completedFuture(null);
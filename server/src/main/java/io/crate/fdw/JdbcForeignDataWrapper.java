@@ -21,23 +21,43 @@
 
 package io.crate.fdw;
 
+import static io.crate.types.ResultSetParser.getObject;
+
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownHostException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.elasticsearch.cluster.metadata.RelationMetadata;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.jspecify.annotations.Nullable;
 
+import io.crate.analyze.OrderBy;
+import io.crate.common.exceptions.Exceptions;
 import io.crate.data.BatchIterator;
+import io.crate.data.CompositeBatchIterator;
 import io.crate.data.Row;
 import io.crate.execution.dsl.projection.builder.InputColumns;
+import io.crate.execution.engine.aggregation.impl.CountAggregation;
+import io.crate.execution.engine.aggregation.impl.MaximumAggregation;
+import io.crate.execution.engine.aggregation.impl.MinimumAggregation;
+import io.crate.execution.engine.aggregation.impl.SumAggregation;
+import io.crate.execution.engine.aggregation.impl.average.AverageAggregation;
 import io.crate.execution.engine.collect.CollectExpression;
 import io.crate.execution.engine.pipeline.InputRowProjector;
 import io.crate.expression.InputFactory;
@@ -52,12 +72,22 @@ import io.crate.expression.operator.OrOperator;
 import io.crate.expression.predicate.NotPredicate;
 import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Symbol;
+import io.crate.fdw.JdbcBatchIterator.KeyRange;
 import io.crate.fdw.ServersMetadata.Server;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.FunctionType;
 import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.TransactionContext;
 import io.crate.metadata.settings.SessionSettings;
 import io.crate.role.Role;
+import io.crate.types.BooleanType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.TimestampType;
 
 final class JdbcForeignDataWrapper implements ForeignDataWrapper {
 
@@ -75,16 +105,35 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
         LteOperator.NAME
     );
 
+    /**
+     * Aggregations that any foreign database accessible via jdbc must support.
+     * avg is computed locally from sum and count, see {@link JdbcBatchIterator}
+     */
+    private static final Set<String> SAFE_AGGREGATIONS = Set.of(
+        CountAggregation.NAME,
+        SumAggregation.NAME,
+        MinimumAggregation.NAME,
+        MaximumAggregation.NAME,
+        AverageAggregation.NAME
+    );
+
     private final InputFactory inputFactory;
     private final Settings settings;
+    private final Executor executor;
     private final Setting<String> urlSetting = Setting.simpleString("url");
     private final List<Setting<?>> mandatoryServerOptions = List.of(urlSetting);
 
     private final Setting<String> schemaName = Setting.simpleString("schema_name");
     private final Setting<String> tableName = Setting.simpleString("table_name");
+    private final Setting<String> partitionColumn = Setting.simpleString("partition_column");
+    private final Setting<Integer> partitions = Setting.intSetting("partitions", 1, 1);
+    private final Setting<Integer> fetchSize = Setting.intSetting("fetch_size", 0, 0);
     private final List<Setting<?>> optionalTableOptions = List.of(
         schemaName,
-        tableName
+        tableName,
+        partitionColumn,
+        partitions,
+        fetchSize
     );
 
     private final Setting<String> foreignUser = Setting.simpleString("user");
@@ -94,9 +143,10 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
         foreignPw
     );
 
-    JdbcForeignDataWrapper(Settings settings, InputFactory inputFactory) {
+    JdbcForeignDataWrapper(Settings settings, InputFactory inputFactory, Executor executor) {
         this.settings = settings;
         this.inputFactory = inputFactory;
+        this.executor = executor;
     }
 
     @Override
@@ -120,7 +170,8 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
                                                              RelationMetadata.ForeignTable foreignTable,
                                                              TransactionContext txnCtx,
                                                              List<Symbol> collect,
-                                                             Symbol query) {
+                                                             Symbol query,
+                                                             Pushdown pushdown) {
         SessionSettings sessionSettings = txnCtx.sessionSettings();
         Settings userOptions = server.users().get(currentUser.name());
         if (userOptions == null) {
@@ -176,15 +227,212 @@ final class JdbcForeignDataWrapper implements ForeignDataWrapper {
 
         assert supportsQueryPushdown(query)
             : "ForeignCollect must only have a query where `supportsQueryPushDown` is true";
-        BatchIterator<Row> it = new JdbcBatchIterator(url, properties, refs, query, remoteName);
-        if (!refs.containsAll(collect)) {
-            var sourceRefs = new InputColumns.SourceSymbols(refs);
-            List<Symbol> inputColumns = InputColumns.create(collect, sourceRefs);
-            Context<CollectExpression<Row, ?>> inputCtx = inputFactory.ctxForInputColumns(txnCtx, inputColumns);
-            InputRowProjector inputRowProjector = new InputRowProjector(inputCtx.topLevelInputs(), inputCtx.expressions());
-            it = inputRowProjector.apply(it);
-        }
-        return CompletableFuture.completedFuture(it);
+        Settings tableOptions = foreignTable.settings();
+        int numFetch = fetchSize.get(tableOptions);
+        if (pushdown.aggregate()) {
+            // Group keys and aggregations are evaluated by the remote, no need for local evaluation
+            return CompletableFuture.completedFuture(
+                new JdbcBatchIterator(url, properties, collect, query, remoteName, pushdown, null, numFetch));
+        }
+        int numPartitions = partitions.get(tableOptions);
+        String partitionColumnName = partitionColumn.get(tableOptions);
+        if (numPartitions == 1 || partitionColumnName.isEmpty() || pushdown.hasLimit()) {
+            BatchIterator<Row> it = new JdbcBatchIterator(url, properties, refs, query, remoteName, pushdown, null, numFetch);
+            return CompletableFuture.completedFuture(project(txnCtx, it, refs, collect));
+        }
+        Reference partitionRef = foreignTable.getReference(ColumnIdent.fromPath(partitionColumnName));
+        if (partitionRef == null || !supportsPartitioning(partitionRef.valueType())) {
+            throw new IllegalArgumentException(
+                "partition_column `" + partitionColumnName + "` of foreign table " + foreignTable.name() +
+                " must be a numeric or timestamp column");
+        }
+        return CompletableFuture.supplyAsync(
+            () -> fetchBounds(url, properties, remoteName, partitionRef, query),
+            executor
+        ).thenApply(bounds -> {
+            List<KeyRange> ranges = bounds == null
+                ? List.of()
+                : partition(partitionRef, bounds.get(0), bounds.get(1), numPartitions);
+            if (ranges.isEmpty()) {
+                BatchIterator<Row> it = new JdbcBatchIterator(url, properties, refs, query, remoteName, pushdown, null, numFetch);
+                return project(txnCtx, it, refs, collect);
+            }
+            List<BatchIterator<Row>> iterators = new ArrayList<>(ranges.size());
+            for (KeyRange range : ranges) {
+                BatchIterator<Row> it = new JdbcBatchIterator(url, properties, refs, query, remoteName, pushdown, range, numFetch);
+                iterators.add(project(txnCtx, it, refs, collect));
+            }
+            return CompositeBatchIterator.asyncComposite(executor, ranges::size, iterators);
+        });
+    }
+
+    private BatchIterator<Row> project(TransactionContext txnCtx,
+                                       BatchIterator<Row> it,
+                                       List<Reference> refs,
+                                       List<Symbol> collect) {
+        if (refs.containsAll(collect)) {
+            return it;
+        }
+        var sourceRefs = new InputColumns.SourceSymbols(refs);
+        List<Symbol> inputColumns = InputColumns.create(collect, sourceRefs);
+        Context<CollectExpression<Row, ?>> inputCtx = inputFactory.ctxForInputColumns(txnCtx, inputColumns);
+        InputRowProjector inputRowProjector = new InputRowProjector(inputCtx.topLevelInputs(), inputCtx.expressions());
+        return inputRowProjector.apply(it);
+    }
+
+    /**
+     * @return min and max value of {@code column} within the rows matching {@code query} or null if there are none.
+     */
+    @Nullable
+    private static List<Number> fetchBounds(String url,
+                                            Properties properties,
+                                            RelationName table,
+                                            Reference column,
+                                            Symbol query) {
+        try (Connection conn = DriverManager.getConnection(url, properties)) {
+            String sql = JdbcBatchIterator.generateBoundsStatement(
+                table,
+                column,
+                query,
+                conn.getMetaData().getIdentifierQuoteString()
+            );
+            try (PreparedStatement statement = conn.prepareStatement(sql);
+                 ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return null;
+                }
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                DataType<?> type = column.valueType();
+                Object min = type.implicitCast(getObject(resultSet, 0, metaData.getColumnTypeName(1)));
+                Object max = type.implicitCast(getObject(resultSet, 1, metaData.getColumnTypeName(2)));
+                if (min == null || max == null) {
+                    return null;
+                }
+                return List.of((Number) min, (Number) max);
+            }
+        } catch (SQLException e) {
+            throw Exceptions.toRuntimeException(e);
+        }
+    }
+
+    private static boolean supportsPartitioning(DataType<?> type) {
+        return DataTypes.isNumericPrimitive(type) || isTemporal(type);
+    }
+
+    private static boolean isTemporal(DataType<?> type) {
+        return switch (type.id()) {
+            case TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ, DateType.ID -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Splits [min, max] into up to {@code numPartitions} ranges of equal width.
+     * The first range includes null values, the last one is unbounded to include the max value.
+     *
+     * @return the ranges or an empty list if the values can't be split.
+     */
+    static List<KeyRange> partition(Reference column, Number min, Number max, int numPartitions) {
+        DataType<?> type = column.valueType();
+        double from = min.doubleValue();
+        double step = (max.doubleValue() - from) / numPartitions;
+        List<Object> bounds = new ArrayList<>(numPartitions - 1);
+        for (int i = 1; i < numPartitions; i++) {
+            Object bound = toBound(type, from + step * i);
+            // Integral ranges smaller than the number of partitions result in duplicate bounds
+            if (bounds.isEmpty() || !bounds.getLast().equals(bound)) {
+                bounds.add(bound);
+            }
+        }
+        if (step == 0 || bounds.isEmpty()) {
+            return List.of();
+        }
+        List<KeyRange> ranges = new ArrayList<>(bounds.size() + 1);
+        ranges.add(new KeyRange(column, null, bounds.getFirst(), true));
+        for (int i = 1; i < bounds.size(); i++) {
+            ranges.add(new KeyRange(column, bounds.get(i - 1), bounds.get(i), false));
+        }
+        ranges.add(new KeyRange(column, bounds.getLast(), null, false));
+        return ranges;
+    }
+
+    private static Object toBound(DataType<?> type, double value) {
+        return switch (type.id()) {
+            case FloatType.ID, DoubleType.ID -> value;
+            case TimestampType.ID_WITH_TZ, TimestampType.ID_WITHOUT_TZ -> new Timestamp(Math.round(value));
+            case DateType.ID -> new Date(Math.round(value));
+            default -> Math.round(value);
+        };
+    }
+
+    /**
+     * Group keys are limited to types which compare equal everywhere.
+     * Grouping on text depends on the collation of the foreign database, e.g. it may be case-insensitive.
+     */
+    @Override
+    public boolean supportsAggregationPushdown(List<Symbol> groupKeys, List<Function> aggregates) {
+        for (Symbol groupKey : groupKeys) {
+            if (!(groupKey instanceof Reference ref) || !supportsGrouping(ref.valueType())) {
+                return false;
+            }
+        }
+        for (Function aggregate : aggregates) {
+            if (!isSafeAggregation(aggregate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean supportsGrouping(DataType<?> type) {
+        return DataTypes.isNumericPrimitive(type) || isTemporal(type) || type.id() == BooleanType.ID;
+    }
+
+    private static boolean isSafeAggregation(Function aggregate) {
+        if (!SAFE_AGGREGATIONS.contains(aggregate.name()) || aggregate.filter() != null) {
+            return false;
+        }
+        List<Symbol> arguments = aggregate.arguments();
+        if (arguments.isEmpty()) {
+            return aggregate.name().equals(CountAggregation.NAME);
+        }
+        if (arguments.size() != 1 || !(arguments.get(0) instanceof Reference ref)) {
+            return false;
+        }
+        DataType<?> type = ref.valueType();
+        return switch (aggregate.name()) {
+            case CountAggregation.NAME -> true;
+            case SumAggregation.NAME, AverageAggregation.NAME -> DataTypes.isNumericPrimitive(type);
+            default -> DataTypes.isNumericPrimitive(type) || isTemporal(type);
+        };
+    }
+
+    /**
+     * Ordering on text depends on the collation of the foreign database.
+     * Only allow ordering on numeric and temporal values, which sort the same everywhere.
+     * Whether the limit is actually sent depends on the dialect of the foreign database,
+     * see {@link JdbcBatchIterator.Dialect}
+     */
+    @Override
+    public boolean supportsLimitPushdown(@Nullable OrderBy orderBy) {
+        if (orderBy == null) {
+            return true;
+        }
+        for (Symbol symbol : orderBy.orderBySymbols()) {
+            boolean supported = switch (symbol) {
+                case Reference _ -> true;
+                // avg is computed locally, it can't be used to order the rows of the foreign database
+                case Function fn -> fn.signature().getType() == FunctionType.AGGREGATE
+                    && isSafeAggregation(fn)
+                    && !fn.name().equals(AverageAggregation.NAME);
+                default -> false;
+            };
+            DataType<?> type = symbol.valueType();
+            if (!supported || !(DataTypes.isNumericPrimitive(type) || isTemporal(type))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
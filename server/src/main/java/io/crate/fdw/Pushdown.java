@@ -0,0 +1,75 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.fdw;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.analyze.OrderBy;
+import io.crate.execution.engine.pipeline.LimitAndOffset;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+
+/**
+ * Operations executed by the foreign server in addition to the filter.
+ *
+ * <ul>
+ * <li>{@code aggregate}: The collected symbols contain aggregations, grouped by {@code groupKeys} if not empty</li>
+ * <li>{@code orderBy} and {@code limit}: The foreign server only returns the first {@code limit} rows</li>
+ * </ul>
+ *
+ * The ORDER BY and LIMIT operators remain in the local plan, the pushed down limit only reduces
+ * the number of rows transferred. The limit includes the offset.
+ */
+public record Pushdown(boolean aggregate,
+                       List<Symbol> groupKeys,
+                       @Nullable OrderBy orderBy,
+                       int limit) implements Writeable {
+
+    public static final Pushdown NONE = new Pushdown(false, List.of(), null, LimitAndOffset.NO_LIMIT);
+
+    public static Pushdown readFrom(StreamInput in) throws IOException {
+        return new Pushdown(
+            in.readBoolean(),
+            Symbols.fromStream(in),
+            in.readOptionalWriteable(OrderBy::new),
+            in.readInt()
+        );
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeBoolean(aggregate);
+        Symbols.toStream(groupKeys, out);
+        out.writeOptionalWriteable(orderBy);
+        out.writeInt(limit);
+    }
+
+    public boolean hasLimit() {
+        return limit != LimitAndOffset.NO_LIMIT;
+    }
+}
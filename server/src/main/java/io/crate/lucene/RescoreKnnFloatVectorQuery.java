@@ -0,0 +1,345 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.KnnVectorValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Explanation;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.Weight;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Searches for {@code numCandidates} nearest neighbours and returns the k of them
+ * which are the nearest.
+ * <p>
+ * A search width larger than k improves the recall of the HNSW graph search.
+ * For quantized vectors the graph search only uses the quantized vectors and therefore
+ * only approximates the distances. The candidates are then rescored based on the
+ * full precision vectors before they are trimmed to k.
+ * </p>
+ */
+public final class RescoreKnnFloatVectorQuery extends Query {
+
+    private final String field;
+    private final float[] target;
+    private final int k;
+    private final int numCandidates;
+    @Nullable
+    private final VectorSimilarityFunction rescoreSimilarity;
+    @Nullable
+    private final Query filter;
+
+    /**
+     * @param rescoreSimilarity if not null, the candidates are rescored using the full precision vectors.
+     */
+    public RescoreKnnFloatVectorQuery(String field,
+                                      float[] target,
+                                      int k,
+                                      int numCandidates,
+                                      @Nullable VectorSimilarityFunction rescoreSimilarity,
+                                      @Nullable Query filter) {
+        this.field = field;
+        this.target = target;
+        this.k = k;
+        this.numCandidates = numCandidates;
+        this.rescoreSimilarity = rescoreSimilarity;
+        this.filter = filter;
+    }
+
+    @Override
+    public Query rewrite(IndexSearcher searcher) throws IOException {
+        ScoreDoc[] candidates = searcher.search(
+            new KnnFloatVectorQuery(field, target, numCandidates, filter),
+            numCandidates
+        ).scoreDocs;
+        if (candidates.length == 0) {
+            return new MatchNoDocsQuery("No nearest neighbours found");
+        }
+        if (rescoreSimilarity != null) {
+            rescore(searcher, candidates, rescoreSimilarity);
+        }
+
+        Arrays.sort(candidates, (a, b) -> Float.compare(b.score, a.score));
+        ScoreDoc[] topK = Arrays.copyOf(candidates, Math.min(k, candidates.length));
+        Arrays.sort(topK, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+        int[] docs = new int[topK.length];
+        float[] scores = new float[topK.length];
+        for (int i = 0; i < topK.length; i++) {
+            docs[i] = topK[i].doc;
+            scores[i] = topK[i].score;
+        }
+        return new DocsAndScoresQuery(docs, scores, searcher.getIndexReader().getContext().id());
+    }
+
+    private void rescore(IndexSearcher searcher,
+                         ScoreDoc[] candidates,
+                         VectorSimilarityFunction similarity) throws IOException {
+        // Visit the candidates in doc id order to read the vectors of each segment sequentially
+        Arrays.sort(candidates, Comparator.comparingInt(scoreDoc -> scoreDoc.doc));
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = null;
+        FloatVectorValues values = null;
+        KnnVectorValues.DocIndexIterator iterator = null;
+        for (ScoreDoc candidate : candidates) {
+            if (leaf == null || candidate.doc >= leaf.docBase + leaf.reader().maxDoc()) {
+                leaf = leaves.get(ReaderUtil.subIndex(candidate.doc, leaves));
+                values = leaf.reader().getFloatVectorValues(field);
+                iterator = values == null ? null : values.iterator();
+            }
+            int docInLeaf = candidate.doc - leaf.docBase;
+            if (iterator != null && iterator.advance(docInLeaf) == docInLeaf) {
+                candidate.score = similarity.compare(target, values.vectorValue(iterator.index()));
+            }
+        }
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(field)) {
+            visitor.visitLeaf(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RescoreKnnFloatVectorQuery that = (RescoreKnnFloatVectorQuery) o;
+        return k == that.k
+            && numCandidates == that.numCandidates
+            && rescoreSimilarity == that.rescoreSimilarity
+            && field.equals(that.field)
+            && Arrays.equals(target, that.target)
+            && Objects.equals(filter, that.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, Arrays.hashCode(target), k, numCandidates, rescoreSimilarity, filter);
+    }
+
+    @Override
+    public String toString(String field) {
+        return "RescoreKnnFloatVectorQuery:" + this.field + "[" + target[0] + ",...][" + k + "]"
+            + "(numCandidates=" + numCandidates + (rescoreSimilarity == null ? "" : ", rescore=" + rescoreSimilarity) + ")";
+    }
+
+    /**
+     * Matches the given global doc ids with the given scores.
+     */
+    private static final class DocsAndScoresQuery extends Query {
+
+        private final int[] docs;
+        private final float[] scores;
+        private final Object readerId;
+
+        private DocsAndScoresQuery(int[] docs, float[] scores, Object readerId) {
+            this.docs = docs;
+            this.scores = scores;
+            this.readerId = readerId;
+        }
+
+        @Override
+        public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+            if (searcher.getIndexReader().getContext().id() != readerId) {
+                throw new IllegalStateException("This query was rewritten using a different reader");
+            }
+            return new Weight(this) {
+
+                @Override
+                public Explanation explain(LeafReaderContext context, int doc) throws IOException {
+                    int idx = Arrays.binarySearch(docs, context.docBase + doc);
+                    if (idx < 0) {
+                        return Explanation.noMatch("not within the nearest neighbours");
+                    }
+                    return Explanation.match(scores[idx] * boost, "full precision vector similarity");
+                }
+
+                @Override
+                public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+                    int docBase = context.docBase;
+                    int lower = lowerBound(docs, 0, docs.length, docBase);
+                    int upper = lowerBound(docs, lower, docs.length, docBase + context.reader().maxDoc());
+                    if (lower == upper) {
+                        return null;
+                    }
+                    return new ScorerSupplier() {
+
+                        @Override
+                        public Scorer get(long leadCost) {
+                            return new DocsAndScoresScorer(docBase, lower, upper, boost);
+                        }
+
+                        @Override
+                        public long cost() {
+                            return upper - lower;
+                        }
+                    };
+                }
+
+                @Override
+                public boolean isCacheable(LeafReaderContext ctx) {
+                    // The doc ids are only valid for the reader the query was rewritten with
+                    return false;
+                }
+            };
+        }
+
+        private final class DocsAndScoresScorer extends Scorer {
+
+            private final int docBase;
+            private final int lower;
+            private final int upper;
+            private final float boost;
+            private int idx;
+            private int doc = -1;
+
+            private DocsAndScoresScorer(int docBase, int lower, int upper, float boost) {
+                this.docBase = docBase;
+                this.lower = lower;
+                this.upper = upper;
+                this.boost = boost;
+                this.idx = lower - 1;
+            }
+
+            @Override
+            public int docID() {
+                return doc;
+            }
+
+            @Override
+            public float score() {
+                return scores[idx] * boost;
+            }
+
+            @Override
+            public float getMaxScore(int upTo) {
+                float maxScore = Float.NEGATIVE_INFINITY;
+                for (int i = lower; i < upper; i++) {
+                    maxScore = Math.max(maxScore, scores[i]);
+                }
+                return maxScore * boost;
+            }
+
+            @Override
+            public DocIdSetIterator iterator() {
+                return new DocIdSetIterator() {
+
+                    @Override
+                    public int docID() {
+                        return doc;
+                    }
+
+                    @Override
+                    public int nextDoc() {
+                        return moveTo(idx + 1);
+                    }
+
+                    @Override
+                    public int advance(int target) {
+                        return moveTo(lowerBound(docs, idx + 1, upper, docBase + target));
+                    }
+
+                    @Override
+                    public long cost() {
+                        return upper - lower;
+                    }
+                };
+            }
+
+            private int moveTo(int newIdx) {
+                idx = newIdx;
+                doc = idx < upper ? docs[idx] - docBase : DocIdSetIterator.NO_MORE_DOCS;
+                return doc;
+            }
+        }
+
+        @Override
+        public void visit(QueryVisitor visitor) {
+            visitor.visitLeaf(this);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            DocsAndScoresQuery that = (DocsAndScoresQuery) o;
+            return readerId == that.readerId
+                && Arrays.equals(docs, that.docs)
+                && Arrays.equals(scores, that.scores);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(System.identityHashCode(readerId), Arrays.hashCode(docs), Arrays.hashCode(scores));
+        }
+
+        @Override
+        public String toString(String field) {
+            return "DocsAndScoresQuery(" + docs.length + " docs)";
+        }
+    }
+
+    /**
+     * @return the index of the first element in {@code docs[from, to)} that is greater than or equal to key.
+     */
+    private static int lowerBound(int[] docs, int from, int to, int key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (docs[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.ScorerSupplier;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+
+import io.crate.execution.engine.join.RuntimeFilter;
+
+/**
+ * Matches documents whose single numeric doc value might be contained in a {@link RuntimeFilter}.
+ * <p>
+ * Meant to be combined with a range query on the min/max of the filter which can
+ * lead the iteration, this query is only used to verify the candidates.
+ * </p>
+ */
+public final class RuntimeFilterQuery extends Query {
+
+    private final String field;
+    private final RuntimeFilter filter;
+
+    public RuntimeFilterQuery(String field, RuntimeFilter filter) {
+        this.field = field;
+        this.filter = filter;
+    }
+
+    @Override
+    public Weight createWeight(IndexSearcher searcher, ScoreMode scoreMode, float boost) throws IOException {
+        return new ConstantScoreWeight(this, boost) {
+
+            @Override
+            public boolean isCacheable(LeafReaderContext ctx) {
+                // Filters are built per query; caching them would only pollute the query cache
+                return false;
+            }
+
+            @Override
+            public ScorerSupplier scorerSupplier(LeafReaderContext context) throws IOException {
+                SortedNumericDocValues values = DocValues.getSortedNumeric(context.reader(), field);
+                return new ScorerSupplier() {
+                    @Override
+                    public Scorer get(long leadCost) {
+                        var twoPhase = new TwoPhaseIterator(values) {
+
+                            @Override
+                            public boolean matches() throws IOException {
+                                return values.docValueCount() == 1 && filter.mightContain(values.nextValue());
+                            }
+
+                            @Override
+                            public float matchCost() {
+                                // A few hash computations and bit lookups, cheaper than a generic function filter
+                                return 8;
+                            }
+                        };
+                        return new ConstantScoreScorer(0f, scoreMode, twoPhase);
+                    }
+
+                    @Override
+                    public long cost() {
+                        return values.cost();
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public void visit(QueryVisitor visitor) {
+        if (visitor.acceptField(field)) {
+            visitor.visitLeaf(this);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        RuntimeFilterQuery that = (RuntimeFilterQuery) o;
+        return field.equals(that.field) && filter == that.filter;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(field, System.identityHashCode(filter));
+    }
+
+    @Override
+    public String toString(String field) {
+        return "RuntimeFilter(" + this.field + ", min=" + filter.min() + ", max=" + filter.max()
+            + ", bits=" + filter.numBits() + ")";
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene.codec;
+
+import java.util.Locale;
+
+import org.apache.lucene.codecs.KnnVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswScalarQuantizedVectorsFormat;
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.types.DataTypes;
+
+/**
+ * Storage of the HNSW graphs of {@code float_vector} columns.
+ * <p>
+ * The quantized variants keep the full precision vectors next to the quantized
+ * ones, so the nearest neighbours can be rescored, see {@link #RESCORE_OVERSAMPLE_SETTING}.
+ * </p>
+ */
+public enum VectorQuantization {
+
+    NONE(0),
+
+    /**
+     * 1 byte per dimension. Lucene uses signed bytes, so only 7 bits carry the quantized value.
+     */
+    INT8(7),
+
+    /**
+     * Half a byte per dimension, two dimensions are packed into one byte.
+     */
+    INT4(4);
+
+    public static final Setting<VectorQuantization> SETTING = new Setting<>(
+        "index.vector.quantization",
+        NONE.toString(),
+        VectorQuantization::of,
+        DataTypes.STRING,
+        Property.IndexScope
+    );
+
+    /**
+     * If greater than 0 and the vectors are quantized, knn_match searches for {@code k * oversample}
+     * candidates on the quantized vectors and returns the top k of them based on the full precision vectors.
+     */
+    public static final Setting<Integer> RESCORE_OVERSAMPLE_SETTING = Setting.intSetting(
+        "index.vector.rescore_oversample",
+        0,
+        0,
+        100,
+        Property.Dynamic,
+        Property.IndexScope
+    );
+
+    private final int bits;
+
+    VectorQuantization(int bits) {
+        this.bits = bits;
+    }
+
+    public static VectorQuantization of(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                "unknown value for [" + SETTING.getKey() + "] must be one of [none, int8, int4] but was: " + value);
+        }
+    }
+
+    /**
+     * @return the format to use for the vectors or null to use the default of the codec.
+     */
+    @Nullable
+    public KnnVectorsFormat knnVectorsFormat() {
+        if (this == NONE) {
+            return null;
+        }
+        return knnVectorsFormat(Lucene99HnswVectorsFormat.DEFAULT_MAX_CONN, Lucene99HnswVectorsFormat.DEFAULT_BEAM_WIDTH);
+    }
+
+    /**
+     * @param maxConn the max number of connections per node of the HNSW graph
+     * @param beamWidth the number of candidates tracked while building the HNSW graph
+     */
+    public KnnVectorsFormat knnVectorsFormat(int maxConn, int beamWidth) {
+        if (this == NONE) {
+            return new Lucene99HnswVectorsFormat(maxConn, beamWidth);
+        }
+        return new Lucene99HnswScalarQuantizedVectorsFormat(
+            maxConn,
+            beamWidth,
+            Lucene99HnswVectorsFormat.DEFAULT_NUM_MERGE_WORKER,
+            bits,
+            bits == 4,
+            null,
+            null
+        );
+    }
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -29,17 +29,26 @@ import io.netty.buffer.ByteBuf;
  * <ul>
  *     <li>Components that create a MemoryManager are responsible for closing it</li>
  *     <li>Components that use a MemoryManager to allocate ByteBuf instances MUST NOT release them.
- *     The MemoryManager is responsible for releasing the ByteBuf instances it creates</li>
+ *     The MemoryManager is responsible for releasing the ByteBuf instances it creates.
+ *     A buffer which is no longer used can be given back early using {@link #release(ByteBuf)}</li>
  *  </ul>
  */
 public interface MemoryManager extends AutoCloseable {
 
     /**
-     * @return a new ByteBuf with the given capacity.
+     * @return a new ByteBuf with the given capacity, which is also its max capacity. The buffer can't grow,
+     *         so that the accounted memory always matches the memory used by the buffer.
      *         Consumers of this ByteBuf MUST NOT release them and MUST NOT account for the used memory.
      */
     ByteBuf allocate(int capacity);
 
+    /**
+     * Gives a buffer allocated by this instance back before the MemoryManager is closed.
+     * The buffer must not be used afterwards. Buffers not allocated by this instance are ignored.
+     */
+    default void release(ByteBuf buffer) {
+    }
+
     @Override
     void close();
 }
@@ -23,11 +23,14 @@ package io.crate.memory;
 
 import io.crate.data.breaker.RamAccounting;
 import io.crate.types.DataTypes;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.elasticsearch.common.breaker.CircuitBreaker;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.common.inject.Singleton;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.indices.breaker.CircuitBreakerService;
 
 import java.util.Set;
 import java.util.function.Function;
@@ -81,8 +84,28 @@ public final class MemoryManagerFactory implements Function<RamAccounting, Memor
 
     private volatile MemoryType currentMemoryType = MemoryType.ON_HEAP;
 
+    private final CircuitBreakerService circuitBreakerService;
+
+    /**
+     * Node-wide pool for the buffers of the {@link OffHeapMemoryManager}s.
+     * Buffers are carved out of large chunks of the arenas instead of allocating direct memory for each buffer.
+     * Thread local caches are only used by netty event loop threads, the query threads give the buffers
+     * directly back to the arenas.
+     */
+    private final PooledByteBufAllocator offHeapAllocator = new PooledByteBufAllocator(
+        true,
+        0,
+        PooledByteBufAllocator.defaultNumDirectArena(),
+        PooledByteBufAllocator.defaultPageSize(),
+        PooledByteBufAllocator.defaultMaxOrder(),
+        PooledByteBufAllocator.defaultSmallCacheSize(),
+        PooledByteBufAllocator.defaultNormalCacheSize(),
+        false
+    );
+
     @Inject
-    public MemoryManagerFactory(ClusterSettings clusterSettings) {
+    public MemoryManagerFactory(ClusterSettings clusterSettings, CircuitBreakerService circuitBreakerService) {
+        this.circuitBreakerService = circuitBreakerService;
         clusterSettings.addSettingsUpdateConsumer(MEMORY_ALLOCATION_TYPE, newValue -> {
             currentMemoryType = MemoryType.of(newValue);
         });
@@ -97,7 +120,7 @@ public final class MemoryManagerFactory implements Function<RamAccounting, Memor
             case ON_HEAP:
                 return new OnHeapMemoryManager(ramAccounting::addBytes);
             case OFF_HEAP:
-                return new OffHeapMemoryManager();
+                return new OffHeapMemoryManager(offHeapAllocator, circuitBreakerService.getBreaker(CircuitBreaker.OFF_HEAP));
             default:
                 throw new AssertionError("MemoryType is supposed to have only 2 cases");
         }
@@ -107,4 +130,13 @@ public final class MemoryManagerFactory implements Function<RamAccounting, Memor
     public MemoryManager apply(RamAccounting ramAccounting) {
         return getMemoryManager(ramAccounting);
     }
+
+    public OffHeapStats offHeapStats() {
+        CircuitBreaker breaker = circuitBreakerService.getBreaker(CircuitBreaker.OFF_HEAP);
+        return new OffHeapStats(
+            breaker.getUsed(),
+            breaker.getLimit(),
+            offHeapAllocator.metric().usedDirectMemory()
+        );
+    }
 }
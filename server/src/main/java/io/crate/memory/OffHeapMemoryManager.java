@@ -21,30 +21,92 @@
 
 package io.crate.memory;
 
-import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
-
 import java.util.ArrayList;
 
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
+/**
+ * A MemoryManager that allocates direct buffers.
+ * <p>
+ * The buffers are taken from the given allocator, which is usually the node-wide pool of
+ * the {@link MemoryManagerFactory}, and their capacity is accounted on the off-heap circuit breaker.
+ * The buffers are allocated with a max capacity equal to the accounted capacity, writes beyond it fail instead of
+ * growing the buffer without accounting.
+ * On {@link #close()} the buffers are given back to the allocator and the accounted bytes are released.
+ * <p>
+ * Not thread-safe.
+ */
 public final class OffHeapMemoryManager implements MemoryManager {
 
+    private static final String LABEL = "off-heap-memory-manager";
+
+    private final ByteBufAllocator allocator;
+    private final CircuitBreaker breaker;
     private final ArrayList<ByteBuf> allocatedBuffers = new ArrayList<>();
+    private long accountedBytes = 0;
 
+    /**
+     * Creates a MemoryManager which allocates unpooled buffers without accounting them.
+     */
     public OffHeapMemoryManager() {
+        this(UnpooledByteBufAllocator.DEFAULT, new NoopCircuitBreaker(CircuitBreaker.OFF_HEAP));
+    }
+
+    public OffHeapMemoryManager(ByteBufAllocator allocator, CircuitBreaker breaker) {
+        this.allocator = allocator;
+        this.breaker = breaker;
     }
 
     @Override
     public ByteBuf allocate(int capacity) {
-        ByteBuf byteBuf = Unpooled.directBuffer(capacity);
+        breaker.addEstimateBytesAndMaybeBreak(capacity, LABEL);
+        ByteBuf byteBuf;
+        try {
+            byteBuf = allocator.directBuffer(capacity, capacity);
+        } catch (Throwable t) {
+            breaker.addWithoutBreaking(-capacity);
+            throw t;
+        }
+        accountedBytes += capacity;
         allocatedBuffers.add(byteBuf);
         return byteBuf;
     }
 
+    @Override
+    public void release(ByteBuf buffer) {
+        // Buffers given back early are usually the most recently allocated ones
+        for (int i = allocatedBuffers.size() - 1; i >= 0; i--) {
+            if (allocatedBuffers.get(i) == buffer) {
+                allocatedBuffers.remove(i);
+                // The capacity may have been reduced, the max capacity is the accounted one
+                int capacity = buffer.maxCapacity();
+                buffer.release();
+                breaker.addWithoutBreaking(-capacity);
+                accountedBytes -= capacity;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the number of bytes accounted for the buffers allocated by this instance
+     */
+    public long accountedBytes() {
+        return accountedBytes;
+    }
+
     @Override
     public void close() {
         for (ByteBuf buffer : allocatedBuffers) {
             buffer.release();
         }
         allocatedBuffers.clear();
+        breaker.addWithoutBreaking(-accountedBytes);
+        accountedBytes = 0;
     }
 }
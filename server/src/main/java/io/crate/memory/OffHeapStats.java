@@ -0,0 +1,53 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.memory;
+
+import java.io.IOException;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+/**
+ * Usage of the direct memory handed out by the {@link OffHeapMemoryManager}s of a node.
+ *
+ * @param used bytes currently accounted on the off-heap circuit breaker
+ * @param max limit of the off-heap circuit breaker
+ * @param pooled bytes of direct memory reserved by the node-wide pool, including chunks which are not in use
+ */
+public record OffHeapStats(long used, long max, long pooled) implements Writeable {
+
+    public OffHeapStats(StreamInput in) throws IOException {
+        this(in.readVLong(), in.readLong(), in.readVLong());
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(used);
+        out.writeLong(max);
+        out.writeVLong(pooled);
+    }
+
+    public long free() {
+        return max < 0 ? -1 : Math.max(max - used, 0);
+    }
+}
@@ -46,7 +46,7 @@ public class OnHeapMemoryManager implements MemoryManager {
     public ByteBuf allocate(int capacity) {
         accountBytes.accept(capacity);
         // We don't track the ByteBuf instance to release it later because it is not necessary for on-heap buffers.
-        return Unpooled.buffer(capacity);
+        return Unpooled.buffer(capacity, capacity);
     }
 
     @Override
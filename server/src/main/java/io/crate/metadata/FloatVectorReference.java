@@ -0,0 +1,385 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata;
+
+import static org.elasticsearch.cluster.metadata.Metadata.OID_UNASSIGNED;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+import org.apache.lucene.codecs.lucene99.Lucene99HnswVectorsFormat;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.common.collections.Maps;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.SymbolType;
+import io.crate.types.DataType;
+import io.crate.types.FloatVectorType;
+
+/**
+ * A {@code float_vector} column with HNSW index options:
+ *
+ * <pre>
+ *  x float_vector(n) INDEX USING hnsw WITH (similarity = 'cosine', m = 16, ef_construction = 100, num_candidates = 50)
+ * </pre>
+ *
+ * Columns without options use {@link SimpleReference}, see {@link #similarityFunction(Reference)}.
+ */
+public class FloatVectorReference extends SimpleReference {
+
+    public static final String INDEX_METHOD = "hnsw";
+
+    public static final String SIMILARITY = "similarity";
+    public static final String M = "m";
+    public static final String EF_CONSTRUCTION = "ef_construction";
+    public static final String NUM_CANDIDATES = "num_candidates";
+
+    public static final int MAX_NUM_CANDIDATES = 10_000;
+
+    @Nullable
+    private final String similarity;
+
+    @Nullable
+    private final Integer m;
+
+    @Nullable
+    private final Integer efConstruction;
+
+    @Nullable
+    private final Integer numCandidates;
+
+    public FloatVectorReference(RelationName relation,
+                                ColumnIdent column,
+                                RowGranularity granularity,
+                                DataType<?> type,
+                                IndexType indexType,
+                                boolean nullable,
+                                boolean hasDocValues,
+                                int position,
+                                long oid,
+                                boolean isDropped,
+                                @Nullable Symbol defaultExpression,
+                                @Nullable String similarity,
+                                @Nullable Integer m,
+                                @Nullable Integer efConstruction,
+                                @Nullable Integer numCandidates) {
+        super(
+            relation,
+            column,
+            granularity,
+            type,
+            indexType,
+            nullable,
+            hasDocValues,
+            position,
+            oid,
+            isDropped,
+            defaultExpression
+        );
+        if (similarity != null) {
+            similarityFunction(similarity);
+        }
+        checkRange(M, m, Lucene99HnswVectorsFormat.MAXIMUM_MAX_CONN);
+        checkRange(EF_CONSTRUCTION, efConstruction, Lucene99HnswVectorsFormat.MAXIMUM_BEAM_WIDTH);
+        checkRange(NUM_CANDIDATES, numCandidates, MAX_NUM_CANDIDATES);
+        this.similarity = similarity;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.numCandidates = numCandidates;
+    }
+
+    public FloatVectorReference(StreamInput in) throws IOException {
+        super(in);
+        similarity = in.readOptionalString();
+        m = in.readOptionalVInt();
+        efConstruction = in.readOptionalVInt();
+        numCandidates = in.readOptionalVInt();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeOptionalString(similarity);
+        out.writeOptionalVInt(m);
+        out.writeOptionalVInt(efConstruction);
+        out.writeOptionalVInt(numCandidates);
+    }
+
+    private static void checkRange(String option, @Nullable Integer value, int max) {
+        if (value != null && (value < 1 || value > max)) {
+            throw new IllegalArgumentException(String.format(
+                Locale.ENGLISH,
+                "Invalid value for HNSW index option \"%s\": %d, must be between 1 and %d",
+                option,
+                value,
+                max
+            ));
+        }
+    }
+
+    /**
+     * @return the given column as FloatVectorReference or null if it has no HNSW index options.
+     */
+    @Nullable
+    public static FloatVectorReference of(Reference ref) {
+        if (ref instanceof GeneratedReference generatedRef) {
+            ref = generatedRef.reference();
+        }
+        return ref instanceof FloatVectorReference vectorRef ? vectorRef : null;
+    }
+
+    /**
+     * @return the similarity function used to index the vectors of the column and to score knn_match.
+     */
+    public static VectorSimilarityFunction similarityFunction(Reference ref) {
+        FloatVectorReference vectorRef = of(ref);
+        return vectorRef == null ? FloatVectorType.SIMILARITY_FUNC : vectorRef.similarityFunction();
+    }
+
+    public static VectorSimilarityFunction similarityFunction(String similarity) {
+        return switch (similarity.toLowerCase(Locale.ENGLISH)) {
+            case "euclidean" -> VectorSimilarityFunction.EUCLIDEAN;
+            case "cosine" -> VectorSimilarityFunction.COSINE;
+            case "dot_product" -> VectorSimilarityFunction.DOT_PRODUCT;
+            case "max_inner_product" -> VectorSimilarityFunction.MAXIMUM_INNER_PRODUCT;
+            default -> throw new IllegalArgumentException(
+                "Invalid similarity \"" + similarity + "\", must be one of [euclidean, cosine, dot_product, max_inner_product]");
+        };
+    }
+
+    @Override
+    public SymbolType symbolType() {
+        return SymbolType.FLOAT_VECTOR_REFERENCE;
+    }
+
+    public VectorSimilarityFunction similarityFunction() {
+        return similarity == null ? FloatVectorType.SIMILARITY_FUNC : similarityFunction(similarity);
+    }
+
+    @Nullable
+    public String similarity() {
+        return similarity;
+    }
+
+    @Nullable
+    public Integer m() {
+        return m;
+    }
+
+    @Nullable
+    public Integer efConstruction() {
+        return efConstruction;
+    }
+
+    /**
+     * @return the number of nearest neighbours knn_match searches per shard before it returns the top k of them.
+     */
+    @Nullable
+    public Integer numCandidates() {
+        return numCandidates;
+    }
+
+    /**
+     * @return the max number of connections per node of the HNSW graph.
+     */
+    public int maxConn() {
+        return m == null ? Lucene99HnswVectorsFormat.DEFAULT_MAX_CONN : m;
+    }
+
+    /**
+     * @return the number of candidates tracked while building the HNSW graph.
+     */
+    public int beamWidth() {
+        return efConstruction == null ? Lucene99HnswVectorsFormat.DEFAULT_BEAM_WIDTH : efConstruction;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        FloatVectorReference that = (FloatVectorReference) o;
+        return Objects.equals(similarity, that.similarity) &&
+               Objects.equals(m, that.m) &&
+               Objects.equals(efConstruction, that.efConstruction) &&
+               Objects.equals(numCandidates, that.numCandidates);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), similarity, m, efConstruction, numCandidates);
+    }
+
+    @Override
+    public Reference withColumn(ColumnIdent column) {
+        return new FloatVectorReference(
+            relation,
+            column,
+            granularity,
+            type,
+            indexType,
+            nullable,
+            hasDocValues,
+            position,
+            oid,
+            isDropped,
+            defaultExpression,
+            similarity,
+            m,
+            efConstruction,
+            numCandidates
+        );
+    }
+
+    @Override
+    public Reference withRelation(RelationName relation) {
+        return new FloatVectorReference(
+            relation,
+            column,
+            granularity,
+            type,
+            indexType,
+            nullable,
+            hasDocValues,
+            position,
+            oid,
+            isDropped,
+            defaultExpression,
+            similarity,
+            m,
+            efConstruction,
+            numCandidates
+        );
+    }
+
+    @Override
+    public Reference withOidAndPosition(LongSupplier acquireOid, IntSupplier acquirePosition) {
+        long newOid = oid == OID_UNASSIGNED ? acquireOid.getAsLong() : oid;
+        int newPosition = position < 0 ? acquirePosition.getAsInt() : position;
+        if (newOid == oid && newPosition == position) {
+            return this;
+        }
+        return new FloatVectorReference(
+            relation,
+            column,
+            granularity,
+            type,
+            indexType,
+            nullable,
+            hasDocValues,
+            newPosition,
+            newOid,
+            isDropped,
+            defaultExpression,
+            similarity,
+            m,
+            efConstruction,
+            numCandidates
+        );
+    }
+
+    @Override
+    public Reference withDropped(boolean dropped) {
+        return new FloatVectorReference(
+            relation,
+            column,
+            granularity,
+            type,
+            indexType,
+            nullable,
+            hasDocValues,
+            position,
+            oid,
+            dropped,
+            defaultExpression,
+            similarity,
+            m,
+            efConstruction,
+            numCandidates
+        );
+    }
+
+    @Override
+    public FloatVectorReference withValueType(DataType<?> newType) {
+        return new FloatVectorReference(
+            relation,
+            column,
+            granularity,
+            newType,
+            indexType,
+            nullable,
+            hasDocValues,
+            position,
+            oid,
+            isDropped,
+            defaultExpression,
+            similarity,
+            m,
+            efConstruction,
+            numCandidates
+        );
+    }
+
+    @Override
+    public Reference withDefaultExpression(@Nullable Symbol defaultExpression) {
+        return new FloatVectorReference(
+            relation,
+            column,
+            granularity,
+            type,
+            indexType,
+            nullable,
+            hasDocValues,
+            position,
+            oid,
+            isDropped,
+            defaultExpression,
+            similarity,
+            m,
+            efConstruction,
+            numCandidates
+        );
+    }
+
+    @Override
+    public Map<String, Object> toMapping(int position) {
+        Map<String, Object> mapping = super.toMapping(position);
+        Maps.putNonNull(mapping, SIMILARITY, similarity);
+        Maps.putNonNull(mapping, M, m);
+        Maps.putNonNull(mapping, EF_CONSTRUCTION, efConstruction);
+        Maps.putNonNull(mapping, NUM_CANDIDATES, numCandidates);
+        return mapping;
+    }
+}
@@ -58,6 +58,7 @@ import io.crate.expression.scalar.cast.CastMode;
 import io.crate.expression.symbol.Symbol;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.GeneratedReference;
 import io.crate.metadata.GeoReference;
 import io.crate.metadata.IndexName;
@@ -509,7 +510,25 @@ public class DocTableInfoFactory implements TableInfoFactory<DocTableInfo> {
                     }
                 } else {
                     Reference ref;
-                    if (analyzer == null) {
+                    if (type.id() == FloatVectorType.ID && hasHnswOptions(columnProperties)) {
+                        ref = new FloatVectorReference(
+                            relationName,
+                            column,
+                            granularity,
+                            type,
+                            indexType,
+                            nullable,
+                            hasDocValues,
+                            position,
+                            oid,
+                            isDropped,
+                            defaultExpression,
+                            (String) columnProperties.get(FloatVectorReference.SIMILARITY),
+                            (Integer) columnProperties.get(FloatVectorReference.M),
+                            (Integer) columnProperties.get(FloatVectorReference.EF_CONSTRUCTION),
+                            (Integer) columnProperties.get(FloatVectorReference.NUM_CANDIDATES)
+                        );
+                    } else if (analyzer == null) {
                         ref = new SimpleReference(
                             relationName,
                             column,
@@ -551,6 +570,13 @@ public class DocTableInfoFactory implements TableInfoFactory<DocTableInfo> {
     }
 
 
+    private static boolean hasHnswOptions(Map<String, Object> columnProperties) {
+        return columnProperties.containsKey(FloatVectorReference.SIMILARITY)
+            || columnProperties.containsKey(FloatVectorReference.M)
+            || columnProperties.containsKey(FloatVectorReference.EF_CONSTRUCTION)
+            || columnProperties.containsKey(FloatVectorReference.NUM_CANDIDATES);
+    }
+
     /**
      * Get the IndexType from columnProperties.
      * <br />
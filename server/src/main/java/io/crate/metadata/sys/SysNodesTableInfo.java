@@ -58,6 +58,8 @@ public class SysNodesTableInfo {
     private static final String SYS_COL_LOAD = "load";
     private static final String SYS_COL_MEM = "mem";
     private static final String SYS_COL_HEAP = "heap";
+    private static final String SYS_COL_OFF_HEAP = "off_heap";
+    private static final String SYS_COL_PLAN_CACHE = "plan_cache";
     private static final String SYS_COL_VERSION = "version";
     private static final String SYS_COL_THREAD_POOLS = "thread_pools";
     private static final String SYS_COL_NETWORK = "network";
@@ -80,6 +82,8 @@ public class SysNodesTableInfo {
         public static final ColumnIdent LOAD = ColumnIdent.of(SYS_COL_LOAD);
         public static final ColumnIdent MEM = ColumnIdent.of(SYS_COL_MEM);
         public static final ColumnIdent HEAP = ColumnIdent.of(SYS_COL_HEAP);
+        public static final ColumnIdent OFF_HEAP = ColumnIdent.of(SYS_COL_OFF_HEAP);
+        public static final ColumnIdent PLAN_CACHE = ColumnIdent.of(SYS_COL_PLAN_CACHE);
         public static final ColumnIdent VERSION = ColumnIdent.of(SYS_COL_VERSION);
         public static final ColumnIdent THREAD_POOLS = ColumnIdent.of(SYS_COL_THREAD_POOLS);
         public static final ColumnIdent NETWORK = ColumnIdent.of(SYS_COL_NETWORK);
@@ -125,6 +129,18 @@ public class SysNodesTableInfo {
             .add("max", LONG, x -> x.jvmStats().getMem().getHeapMax().getBytes())
             .add("probe_timestamp", TIMESTAMPZ, x -> x.jvmStats().getTimestamp())
         .endObject()
+        .startObject(SYS_COL_OFF_HEAP, x -> x.offHeapStats() == null)
+            .add("free", LONG, x -> x.offHeapStats() == null ? null : x.offHeapStats().free())
+            .add("used", LONG, x -> x.offHeapStats() == null ? null : x.offHeapStats().used())
+            .add("max", LONG, x -> x.offHeapStats() == null ? null : x.offHeapStats().max())
+            .add("pooled", LONG, x -> x.offHeapStats() == null ? null : x.offHeapStats().pooled())
+        .endObject()
+        .startObject(SYS_COL_PLAN_CACHE, x -> x.planCacheStats() == null)
+            .add("size", LONG, x -> x.planCacheStats() == null ? null : x.planCacheStats().size())
+            .add("hits", LONG, x -> x.planCacheStats() == null ? null : x.planCacheStats().hits())
+            .add("misses", LONG, x -> x.planCacheStats() == null ? null : x.planCacheStats().misses())
+            .add("evictions", LONG, x -> x.planCacheStats() == null ? null : x.planCacheStats().evictions())
+        .endObject()
         .startObject(SYS_COL_VERSION)
             .add("number", STRING, x -> x.version().externalNumber())
             .add("build_hash", STRING, x -> x.build().hash())
@@ -99,6 +99,7 @@ public class SysShardsTableInfo {
         static final ColumnIdent FLUSH_STATS = ColumnIdent.of("flush_stats");
         static final ColumnIdent MERGE_STATS = ColumnIdent.of("merge_stats");
         static final ColumnIdent REFRESH_STATS = ColumnIdent.of("refresh_stats");
+        static final ColumnIdent ROW_CACHE = ColumnIdent.of("row_cache");
         static final ColumnIdent LAST_WRITE_BEFORE = ColumnIdent.of("last_write_before");
     }
 
@@ -128,6 +129,7 @@ public class SysShardsTableInfo {
             entry(Columns.FLUSH_STATS, NestedNullObjectExpression::new),
             entry(Columns.MERGE_STATS, NestedNullObjectExpression::new),
             entry(Columns.REFRESH_STATS, NestedNullObjectExpression::new),
+            entry(Columns.ROW_CACHE, NestedNullObjectExpression::new),
             entry(Columns.LAST_WRITE_BEFORE, () -> constant(null))
         );
     }
@@ -218,6 +220,13 @@ public class SysShardsTableInfo {
                 .add("current_size_bytes", LONG, (c) -> c.mergeStats().currentSizeInBytes())
                 .add("bytes_per_sec_auto_throttle", LONG, (c) -> c.mergeStats().bytesPerSecAutoThrottle())
             .endObject()
+            .startObject(Columns.ROW_CACHE.name())
+                .add("count", LONG, r -> r.indexShard().rowCache().count())
+                .add("size", LONG, r -> r.indexShard().rowCache().sizeInBytes())
+                .add("hits", LONG, r -> r.indexShard().rowCache().hits())
+                .add("misses", LONG, r -> r.indexShard().rowCache().misses())
+                .add("evictions", LONG, r -> r.indexShard().rowCache().evictions())
+            .endObject()
             .add(Columns.LAST_WRITE_BEFORE.name(), DataTypes.TIMESTAMPZ, r -> r.indexShard().lastWriteTimestamp())
             .setPrimaryKeys(
                 Columns.SCHEMA_NAME,
@@ -21,8 +21,11 @@
 
 package io.crate.planner.operators;
 
+import static io.crate.analyze.SymbolEvaluator.evaluate;
+
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.SequencedCollection;
 import java.util.Set;
 
@@ -40,11 +43,13 @@ import io.crate.expression.symbol.SelectSymbol;
 import io.crate.expression.symbol.Symbol;
 import io.crate.fdw.ForeignDataWrapper;
 import io.crate.fdw.ForeignTableRelation;
+import io.crate.fdw.Pushdown;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.RowGranularity;
 import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.PlannerContext;
+import io.crate.types.DataTypes;
 
 public class ForeignCollect implements LogicalPlan {
 
@@ -54,16 +59,81 @@ public class ForeignCollect implements LogicalPlan {
     private final WhereClause where;
     private final String executeAs;
 
+    /**
+     * If true, {@link #toCollect} contains aggregations executed by the foreign server
+     */
+    private final boolean aggregate;
+    private final List<Symbol> groupKeys;
+
+    @Nullable
+    private final OrderBy orderBy;
+    @Nullable
+    private final Symbol limit;
+    @Nullable
+    private final Symbol offset;
+
     public ForeignCollect(ForeignDataWrapper fdw,
                           ForeignTableRelation relation,
                           List<Symbol> toCollect,
                           WhereClause where,
                           String executeAs) {
+        this(fdw, relation, toCollect, where, executeAs, false, List.of(), null, null, null);
+    }
+
+    private ForeignCollect(ForeignDataWrapper fdw,
+                           ForeignTableRelation relation,
+                           List<Symbol> toCollect,
+                           WhereClause where,
+                           String executeAs,
+                           boolean aggregate,
+                           List<Symbol> groupKeys,
+                           @Nullable OrderBy orderBy,
+                           @Nullable Symbol limit,
+                           @Nullable Symbol offset) {
         this.fdw = fdw;
         this.relation = relation;
         this.toCollect = toCollect;
         this.where = where;
         this.executeAs = executeAs;
+        this.aggregate = aggregate;
+        this.groupKeys = groupKeys;
+        this.orderBy = orderBy;
+        this.limit = limit;
+        this.offset = offset;
+    }
+
+    /**
+     * @param outputs the outputs of the aggregation operator: group keys followed by the aggregations
+     */
+    public ForeignCollect withAggregation(List<Symbol> groupKeys, List<Symbol> outputs) {
+        assert !aggregate && limit == null : "Aggregation can only be added to a plain ForeignCollect";
+        return new ForeignCollect(fdw, relation, outputs, where, executeAs, true, groupKeys, null, null, null);
+    }
+
+    public ForeignCollect withLimit(@Nullable OrderBy orderBy, Symbol limit, Symbol offset) {
+        assert this.limit == null : "ForeignCollect already has a limit";
+        return new ForeignCollect(fdw, relation, toCollect, where, executeAs, aggregate, groupKeys, orderBy, limit, offset);
+    }
+
+    public ForeignCollect withWhere(WhereClause where) {
+        return new ForeignCollect(fdw, relation, toCollect, where, executeAs, aggregate, groupKeys, orderBy, limit, offset);
+    }
+
+    /**
+     * @return true if operations in addition to the filter are executed by the foreign server.
+     *         A filter on top of this operator can't be merged into {@link #where()} anymore.
+     */
+    public boolean hasPushdown() {
+        return aggregate || limit != null;
+    }
+
+    public boolean isAggregate() {
+        return aggregate;
+    }
+
+    @Nullable
+    public Symbol limit() {
+        return limit;
     }
 
     @Override
@@ -81,6 +151,22 @@ public class ForeignCollect implements LogicalPlan {
         var binder = new SubQueryAndParamBinder(params, subQueryResults)
             .andThen(x -> normalizer.normalize(x, plannerContext.transactionContext()));
 
+        Pushdown pushdown = Pushdown.NONE;
+        if (hasPushdown()) {
+            int boundLimit = LimitAndOffset.NO_LIMIT;
+            if (this.limit != null) {
+                boundLimit = Limit.limitAndOffset(
+                    evaluateInt(plannerContext, this.limit, LimitAndOffset.NO_LIMIT, params, subQueryResults),
+                    evaluateInt(plannerContext, this.offset, LimitAndOffset.NO_OFFSET, params, subQueryResults)
+                );
+            }
+            pushdown = new Pushdown(
+                aggregate,
+                Lists.map(groupKeys, binder),
+                orderBy == null ? null : orderBy.map(binder),
+                boundLimit
+            );
+        }
         ForeignCollectPhase phase = new ForeignCollectPhase(
             plannerContext.jobId(),
             plannerContext.nextExecutionPhaseId(),
@@ -88,7 +174,8 @@ public class ForeignCollect implements LogicalPlan {
             relation.relationName(),
             Lists.map(toCollect, binder),
             where.map(binder).queryOrFallback(),
-            executeAs
+            executeAs,
+            pushdown
         );
         return new io.crate.planner.node.dql.Collect(
             phase,
@@ -100,6 +187,21 @@ public class ForeignCollect implements LogicalPlan {
         );
     }
 
+    private static int evaluateInt(PlannerContext plannerContext,
+                                   Symbol symbol,
+                                   int defaultValue,
+                                   Row params,
+                                   SubQueryResults subQueryResults) {
+        return Objects.requireNonNullElse(
+            DataTypes.INTEGER.sanitizeValue(evaluate(
+                plannerContext.transactionContext(),
+                plannerContext.nodeContext(),
+                symbol,
+                params,
+                subQueryResults)),
+            defaultValue);
+    }
+
     public ForeignDataWrapper fdw() {
         return fdw;
     }
@@ -133,7 +235,8 @@ public class ForeignCollect implements LogicalPlan {
         if (outputsToKeep.containsAll(toCollect)) {
             return this;
         }
-        return new ForeignCollect(fdw, relation, List.copyOf(outputsToKeep), where, executeAs);
+        return new ForeignCollect(
+            fdw, relation, List.copyOf(outputsToKeep), where, executeAs, aggregate, groupKeys, orderBy, limit, offset);
     }
 
     public String executeAs() {
@@ -163,8 +266,27 @@ public class ForeignCollect implements LogicalPlan {
             .text(" | [")
             .text(Lists.joinOn(", ", toCollect, Symbol::toString))
             .text("] | ")
-            .text(where.queryOrFallback().toString())
-            .text("]");
+            .text(where.queryOrFallback().toString());
+        if (!groupKeys.isEmpty()) {
+            printContext
+                .text(" | groupBy=[")
+                .text(Lists.joinOn(", ", groupKeys, Symbol::toString))
+                .text("]");
+        }
+        if (orderBy != null) {
+            printContext
+                .text(" | orderBy=[")
+                .text(orderBy.toString())
+                .text("]");
+        }
+        if (limit != null) {
+            printContext
+                .text(" | limit=")
+                .text(limit.toString())
+                .text(";")
+                .text(Objects.requireNonNull(offset).toString());
+        }
+        printContext.text("]");
         printStats(printContext);
     }
 }
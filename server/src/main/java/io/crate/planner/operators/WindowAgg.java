@@ -47,6 +47,8 @@ import io.crate.execution.dsl.projection.WindowAggProjection;
 import io.crate.execution.dsl.projection.builder.InputColumns;
 import io.crate.execution.dsl.projection.builder.ProjectionBuilder;
 import io.crate.execution.engine.pipeline.LimitAndOffset;
+import io.crate.expression.scalar.arithmetic.MapFunction;
+import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
 import io.crate.expression.symbol.Symbols;
 import io.crate.expression.symbol.WindowFunction;
@@ -54,9 +56,12 @@ import io.crate.planner.DependencyCarrier;
 import io.crate.planner.ExecutionPlan;
 import io.crate.planner.Merge;
 import io.crate.planner.PlannerContext;
+import io.crate.planner.PositionalOrderBy;
 import io.crate.planner.ResultDescription;
+import io.crate.planner.consumer.OrderByPositionVisitor;
 import io.crate.planner.distribution.DistributionInfo;
 import io.crate.planner.distribution.DistributionType;
+import io.crate.types.DataTypes;
 
 public class WindowAgg extends ForwardingLogicalPlan {
 
@@ -156,13 +161,13 @@ public class WindowAgg extends ForwardingLogicalPlan {
         Function<Symbol, Symbol> toInputCols = binder.andThen(s -> InputColumns.create(s, sourceSymbols));
 
         List<WindowFunction> boundWindowFunctions = (List<WindowFunction>)(List<?>) Lists.map(windowFunctions, toInputCols);
-        List<Projection> projections = new ArrayList<>();
-        WindowAggProjection windowAggProjection = new WindowAggProjection(
-            windowDefinition.map(toInputCols),
-            boundWindowFunctions,
-            InputColumns.create(this.standalone, sourceSymbols)
-        );
-        projections.add(windowAggProjection);
+        OrderBy windowOrderBy = createOrderByInclPartitionBy(windowDefinition);
+        // A Collect can apply the ordering while collecting from Lucene. The sorted rows can then be processed
+        // one partition at a time instead of keeping all of them in memory.
+        // Without PARTITION BY all rows belong to the same partition, so sorting in memory is preferred.
+        OrderBy sourceOrderBy = source instanceof Collect && !windowDefinition.partitions().isEmpty()
+            ? windowOrderBy
+            : null;
         ExecutionPlan sourcePlan = source.build(
             executor,
             plannerContext,
@@ -170,12 +175,21 @@ public class WindowAgg extends ForwardingLogicalPlan {
             projectionBuilder,
             LimitAndOffset.NO_LIMIT,
             LimitAndOffset.NO_OFFSET,
-            null,
+            sourceOrderBy,
             pageSizeHint,
             params,
             subQueryResults
         );
         ResultDescription resultDescription = sourcePlan.resultDescription();
+        boolean sourceSorted = isSortedBy(resultDescription.orderBy(), windowOrderBy, source.outputs());
+        List<Projection> projections = new ArrayList<>();
+        WindowAggProjection windowAggProjection = new WindowAggProjection(
+            windowDefinition.map(toInputCols),
+            boundWindowFunctions,
+            InputColumns.create(this.standalone, sourceSymbols),
+            sourceSorted
+        );
+        projections.add(windowAggProjection);
         boolean executesOnHandler = executesOnHandler(plannerContext.handlerNode(), resultDescription.nodeIds());
         boolean nonDistExecution = windowDefinition.partitions().isEmpty()
                                    || resultDescription.hasRemainingLimitOrOffset()
@@ -188,12 +202,23 @@ public class WindowAgg extends ForwardingLogicalPlan {
             return sourcePlan;
         }
 
-        Symbol firstPartition = windowDefinition.partitions().getFirst();
+        List<Symbol> partitions = windowDefinition.partitions();
+        Symbol firstPartition = partitions.getFirst();
         int index = source.outputs().indexOf(firstPartition);
-        if (index == -1) {
+        // Modulo bucketing in nodes < 6.1.1 can't handle arbitrary expressions
+        boolean canDistributeByExpression =
+            !plannerContext.clusterState().nodes().getSmallestNonClientNodeVersion().before(Version.V_6_1_1);
+        if (partitions.size() > 1 && canDistributeByExpression) {
+            // Distribute by all PARTITION BY keys, the first one alone may have only a few distinct values
+            // and leave most nodes idle. E.g. `PARTITION BY country, device_id`
+            Symbol partitionsInput = InputColumns.create(combinePartitionKeys(partitions), source.outputs());
+            sourcePlan.setDistributionInfo(
+                new DistributionInfo(DistributionType.MODULO, partitionsInput)
+            );
+        } else if (index == -1) {
             // PARTITION BY on subscript/expression not contained in source outputs
-            // Modulo bucketing in nodes < 6.1.1 can't handle arbitrary expressions -> fallback to non distributed execution
-            if (plannerContext.clusterState().nodes().getSmallestNonClientNodeVersion().before(Version.V_6_1_1)) {
+            // -> fallback to non distributed execution
+            if (!canDistributeByExpression) {
                 sourcePlan = Merge.ensureOnHandler(sourcePlan, plannerContext);
                 for (Projection projection : projections) {
                     sourcePlan.addProjection(projection);
@@ -222,7 +247,7 @@ public class WindowAgg extends ForwardingLogicalPlan {
             projections,
             resultDescription.nodeIds(),
             DistributionInfo.DEFAULT_BROADCAST,
-            null
+            sourceSorted ? resultDescription.orderBy() : null
         );
         return new Merge(
             sourcePlan,
@@ -235,6 +260,29 @@ public class WindowAgg extends ForwardingLogicalPlan {
         );
     }
 
+    /**
+     * Combines the PARTITION BY keys into a single value, which is used to compute the hash for the distribution.
+     */
+    private static Symbol combinePartitionKeys(List<Symbol> partitions) {
+        List<Symbol> mapArgs = new ArrayList<>(partitions.size() * 2);
+        for (int i = 0; i < partitions.size(); i++) {
+            mapArgs.add(Literal.of(Integer.toString(i)));
+            mapArgs.add(partitions.get(i));
+        }
+        return new io.crate.expression.symbol.Function(MapFunction.SIGNATURE, mapArgs, DataTypes.UNTYPED_OBJECT);
+    }
+
+    private static boolean isSortedBy(@Nullable PositionalOrderBy sourceOrderBy,
+                                      @Nullable OrderBy windowOrderBy,
+                                      List<Symbol> sourceOutputs) {
+        if (sourceOrderBy == null || windowOrderBy == null) {
+            return false;
+        }
+        int[] positions = OrderByPositionVisitor.orderByPositionsOrNull(windowOrderBy.orderBySymbols(), sourceOutputs);
+        return positions != null && sourceOrderBy.equals(
+            new PositionalOrderBy(positions, windowOrderBy.reverseFlags(), windowOrderBy.nullsFirst()));
+    }
+
     @Nullable
     static OrderBy createOrderByInclPartitionBy(WindowDefinition windowDefinition) {
         var orderBy = windowDefinition.orderBy();
@@ -0,0 +1,329 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.joinorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+import org.jspecify.annotations.Nullable;
+
+import io.crate.common.collections.Maps;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.AbstractJoinPlan;
+import io.crate.planner.operators.Filter;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.iterative.GroupReference;
+import io.crate.planner.selectivity.SelectivityFunctions;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.Stats;
+
+/**
+ * Finds a cheap order for the inner joins of a {@link JoinGraph} using table statistics.
+ *
+ * <p>
+ * The number of rows of a join is estimated as {@code rows(lhs) * rows(rhs) * selectivity}, where the
+ * selectivity of each equi-join condition is estimated by {@link SelectivityFunctions} using the column
+ * statistics (null fraction, distinct values and most common values) collected by {@code ANALYZE}.
+ * The cost of a join tree is the sum of the rows produced and consumed by each join.
+ * The smaller side of each join becomes the right side, like {@link io.crate.planner.optimizer.rule.ReorderHashJoin} arranges hash joins.
+ * </p>
+ *
+ * <p>
+ * Graphs with up to {@link #MAX_RELATIONS_FOR_DP} nodes are enumerated exhaustively with dynamic
+ * programming over all connected sub-graphs, allowing bushy join trees.
+ * Larger graphs fall back to a greedy algorithm which repeatedly joins the pair of sub-trees with
+ * the smallest result.
+ * Joins between sub-graphs which aren't connected by an equi-join condition are never considered.
+ * </p>
+ */
+public final class JoinEnumerator {
+
+    public static final int MAX_RELATIONS_FOR_DP = 10;
+
+    private final JoinGraph graph;
+    private final List<Condition> conditions;
+    private final Map<LogicalPlan, Integer> nodeIndex;
+
+    /**
+     * A join tree covering the graph nodes in {@code relations}, which is a bitset of the node indices.
+     */
+    record Candidate(int relations,
+                     double numRows,
+                     double cost,
+                     @Nullable Candidate lhs,
+                     @Nullable Candidate rhs) {
+
+        boolean isLeaf() {
+            return lhs == null;
+        }
+    }
+
+    /**
+     * An equi-join condition between the nodes {@code from} and {@code to}.
+     */
+    private record Condition(int from, int to, Symbol condition, double selectivity) {}
+
+    private JoinEnumerator(JoinGraph graph, List<Condition> conditions, Map<LogicalPlan, Integer> nodeIndex) {
+        this.graph = graph;
+        this.conditions = conditions;
+        this.nodeIndex = nodeIndex;
+    }
+
+    /**
+     * @param join the join the {@code graph} was created from
+     * @return a new join tree or null if there are no statistics for all relations, the join contains
+     *         other than inner or cross joins, the graph isn't connected, or the join order as written
+     *         is already the cheapest.
+     */
+    @Nullable
+    public static LogicalPlan reorder(JoinGraph graph,
+                                      LogicalPlan join,
+                                      UnaryOperator<LogicalPlan> resolvePlan,
+                                      PlanStats planStats,
+                                      NodeContext nodeCtx,
+                                      TransactionContext txnCtx) {
+        int numNodes = graph.size();
+        if (numNodes < 3 || numNodes >= Integer.SIZE) {
+            return null;
+        }
+        List<Stats> nodeStats = new ArrayList<>(numNodes);
+        Map<LogicalPlan, Integer> nodeIndex = new HashMap<>();
+        for (int i = 0; i < numNodes; i++) {
+            LogicalPlan node = graph.nodes().get(i);
+            Stats stats = planStats.get(node);
+            if (stats.numDocs() == -1) {
+                return null;
+            }
+            nodeStats.add(stats);
+            nodeIndex.put(node, i);
+        }
+        List<Condition> conditions = new ArrayList<>();
+        for (int from = 0; from < numNodes; from++) {
+            LogicalPlan node = graph.nodes().get(from);
+            for (var edge : graph.edges(node)) {
+                Integer to = nodeIndex.get(edge.to());
+                if (to == null || to == from) {
+                    return null;
+                }
+                // Edges exist in both directions, only use one of them
+                if (to < from) {
+                    continue;
+                }
+                Symbol condition = EqOperator.of(edge.left(), edge.right());
+                Stats joinedStats = new Stats(
+                    1,
+                    -1,
+                    Maps.concat(nodeStats.get(from).statsByColumn(), nodeStats.get(to).statsByColumn())
+                );
+                double selectivity = SelectivityFunctions.estimateSelectivity(nodeCtx, txnCtx, joinedStats, condition, null);
+                conditions.add(new Condition(from, to, condition, selectivity));
+            }
+        }
+        var enumerator = new JoinEnumerator(graph, conditions, nodeIndex);
+        List<Candidate> leaves = new ArrayList<>(numNodes);
+        for (int i = 0; i < numNodes; i++) {
+            double numRows = Math.max(1.0, nodeStats.get(i).numDocs());
+            leaves.add(new Candidate(1 << i, numRows, numRows, null, null));
+        }
+        Candidate original = enumerator.fromPlan(join, resolvePlan, leaves);
+        if (original == null) {
+            return null;
+        }
+        Candidate best = numNodes <= MAX_RELATIONS_FOR_DP
+            ? enumerator.dynamicProgramming(leaves)
+            : enumerator.greedy(leaves);
+        if (best == null || best.cost() >= original.cost()) {
+            return null;
+        }
+        LogicalPlan result = enumerator.build(best);
+        for (var filter : graph.filters()) {
+            result = new Filter(result, filter);
+        }
+        return result;
+    }
+
+    @Nullable
+    Candidate dynamicProgramming(List<Candidate> leaves) {
+        int numNodes = leaves.size();
+        int all = (1 << numNodes) - 1;
+        Candidate[] best = new Candidate[all + 1];
+        for (int i = 0; i < numNodes; i++) {
+            best[1 << i] = leaves.get(i);
+        }
+        // All subsets of a set are smaller than the set itself, so they are complete once it is visited
+        for (int set = 1; set <= all; set++) {
+            if (Integer.bitCount(set) < 2) {
+                continue;
+            }
+            int lowestNode = set & -set;
+            for (int lhs = (set - 1) & set; lhs > 0; lhs = (lhs - 1) & set) {
+                // Each split is visited twice (lhs, rhs) and (rhs, lhs), the join determines the sides
+                if ((lhs & lowestNode) == 0) {
+                    continue;
+                }
+                Candidate left = best[lhs];
+                Candidate right = best[set ^ lhs];
+                if (left == null || right == null) {
+                    continue;
+                }
+                Candidate joined = join(left, right);
+                if (joined != null && (best[set] == null || joined.cost() < best[set].cost())) {
+                    best[set] = joined;
+                }
+            }
+        }
+        return best[all];
+    }
+
+    @Nullable
+    Candidate greedy(List<Candidate> leaves) {
+        List<Candidate> trees = new ArrayList<>(leaves);
+        while (trees.size() > 1) {
+            Candidate cheapest = null;
+            int cheapestLhs = -1;
+            int cheapestRhs = -1;
+            for (int i = 0; i < trees.size(); i++) {
+                for (int j = i + 1; j < trees.size(); j++) {
+                    Candidate joined = join(trees.get(i), trees.get(j));
+                    if (joined != null && (cheapest == null || joined.numRows() < cheapest.numRows())) {
+                        cheapest = joined;
+                        cheapestLhs = i;
+                        cheapestRhs = j;
+                    }
+                }
+            }
+            if (cheapest == null) {
+                return null;
+            }
+            trees.remove(cheapestRhs);
+            trees.set(cheapestLhs, cheapest);
+        }
+        return trees.get(0);
+    }
+
+    /**
+     * Joins two disjoint candidates with the smaller one on the right side.
+     *
+     * @return null if the candidates aren't connected by a join condition
+     */
+    @Nullable
+    private Candidate join(Candidate a, Candidate b) {
+        double selectivity = 1.0;
+        boolean connected = false;
+        for (var condition : conditions) {
+            if (connects(condition, a.relations(), b.relations())) {
+                connected = true;
+                selectivity *= condition.selectivity();
+            }
+        }
+        if (!connected) {
+            return null;
+        }
+        return a.numRows() >= b.numRows()
+            ? join(a, b, selectivity)
+            : join(b, a, selectivity);
+    }
+
+    private static Candidate join(Candidate lhs, Candidate rhs, double selectivity) {
+        double numRows = Math.max(1.0, lhs.numRows() * rhs.numRows() * selectivity);
+        double cost = lhs.cost() + rhs.cost()
+            + lhs.numRows()
+            + rhs.numRows()
+            + numRows;
+        return new Candidate(lhs.relations() | rhs.relations(), numRows, cost, lhs, rhs);
+    }
+
+    private static boolean connects(Condition condition, int lhs, int rhs) {
+        int from = 1 << condition.from();
+        int to = 1 << condition.to();
+        return ((lhs & from) != 0 && (rhs & to) != 0) || ((lhs & to) != 0 && (rhs & from) != 0);
+    }
+
+    /**
+     * Computes the costs of the join tree as written, keeping the sides of each join
+     */
+    @Nullable
+    private Candidate fromPlan(LogicalPlan plan, UnaryOperator<LogicalPlan> resolvePlan, List<Candidate> leaves) {
+        if (plan instanceof GroupReference) {
+            return fromPlan(resolvePlan.apply(plan), resolvePlan, leaves);
+        }
+        Integer index = nodeIndex.get(plan);
+        if (index != null) {
+            return leaves.get(index);
+        }
+        if (plan instanceof Filter filter) {
+            return fromPlan(filter.source(), resolvePlan, leaves);
+        }
+        if (plan instanceof JoinPlan joinPlan
+            && (joinPlan.joinType() == JoinType.INNER || joinPlan.joinType() == JoinType.CROSS)) {
+            Candidate lhs = fromPlan(joinPlan.lhs(), resolvePlan, leaves);
+            Candidate rhs = fromPlan(joinPlan.rhs(), resolvePlan, leaves);
+            if (lhs == null || rhs == null) {
+                return null;
+            }
+            double selectivity = 1.0;
+            for (var condition : conditions) {
+                if (connects(condition, lhs.relations(), rhs.relations())) {
+                    selectivity *= condition.selectivity();
+                }
+            }
+            return join(lhs, rhs, selectivity);
+        }
+        return null;
+    }
+
+    private LogicalPlan build(Candidate candidate) {
+        if (candidate.isLeaf()) {
+            return graph.nodes().get(Integer.numberOfTrailingZeros(candidate.relations()));
+        }
+        Candidate lhs = candidate.lhs();
+        Candidate rhs = candidate.rhs();
+        assert lhs != null && rhs != null : "Join candidate must have two sources";
+        List<Symbol> joinConditions = new ArrayList<>();
+        for (var condition : conditions) {
+            if (connects(condition, lhs.relations(), rhs.relations())) {
+                joinConditions.add(condition.condition());
+            }
+        }
+        return new JoinPlan(
+            build(lhs),
+            build(rhs),
+            JoinType.INNER,
+            AndOperator.join(joinConditions, null),
+            false,
+            false,
+            false,
+            false,
+            true,
+            AbstractJoinPlan.LookUpJoin.NONE
+        );
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jspecify.annotations.Nullable;
+
+import io.crate.analyze.RelationNames;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.analyze.relations.PlannedRelation;
+import io.crate.execution.engine.aggregation.impl.RuntimeFilterAggregation;
+import io.crate.execution.engine.join.RuntimeFilter;
+import io.crate.expression.operator.AndOperator;
+import io.crate.expression.operator.EqOperator;
+import io.crate.expression.scalar.RuntimeFilterFunction;
+import io.crate.expression.symbol.Function;
+import io.crate.expression.symbol.Literal;
+import io.crate.expression.symbol.SelectSymbol;
+import io.crate.expression.symbol.Symbol;
+import io.crate.metadata.FunctionImplementation;
+import io.crate.metadata.NodeContext;
+import io.crate.metadata.TransactionContext;
+import io.crate.planner.operators.AbstractJoinPlan;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.EquiJoinDetector;
+import io.crate.planner.operators.Eval;
+import io.crate.planner.operators.Filter;
+import io.crate.planner.operators.HashAggregate;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.MultiPhase;
+import io.crate.planner.operators.RootRelationBoundary;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.costs.PlanStats;
+import io.crate.planner.optimizer.iterative.GroupReferenceResolver;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+import io.crate.sql.tree.JoinType;
+import io.crate.types.ArrayType;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+/**
+ * Adds a runtime filter to the larger (probe) side of an inner equi-join if the smaller (build)
+ * side is filtered and much smaller. The build side is aggregated into a {@link RuntimeFilter}
+ * (min/max and a bloom filter of the join keys) which is applied to the probe side while it is collected,
+ * so that rows without a join partner are discarded on the shards instead of being sent to the join:
+ *
+ * <pre>
+ * Join[INNER | (fk = id)]
+ *  ├ Collect[doc.fact | [fk] | true] (rows=10000000)
+ *  └ Collect[doc.dim | [id] | (name = 'x')] (rows=100)
+ *
+ * to:
+ *
+ * Join[INNER | (fk = id)]
+ *  ├ MultiPhase
+ *  │  └ Filter[_runtime_filter(fk, (doc.dim))]
+ *  │    └ Collect[doc.fact | [fk] | true]
+ *  │  └ HashAggregate[_runtime_filter_agg(id, 1024)]
+ *  │    └ Collect[doc.dim | [id] | (name = 'x')]
+ *  └ Collect[doc.dim | [id] | (name = 'x')]
+ * </pre>
+ *
+ * Unlike {@link EquiJoinToLookupJoin} the size of the filter is bounded, but it can contain false positives,
+ * so the join itself is always kept.
+ * <p>
+ * The build side is executed twice, once for the filter and once for the join. To get the same rows both times
+ * it must only consist of {@link Collect}, {@link Filter} and {@link Eval} operators on a user table
+ * without non-deterministic functions. Anything else, like a limit, could yield different rows and the filter
+ * could then discard probe side rows that do have a join partner.
+ * </p>
+ */
+public class AddRuntimeJoinFilter implements Rule<JoinPlan> {
+
+    /**
+     * Minimum number of rows of the probe side. Below that, the additional phase is not worth it.
+     */
+    static final long MIN_PROBE_ROWS = 10_000;
+
+    /**
+     * Maximum number of rows of the build side; beyond it the false positive rate of the
+     * filter increases because its size is capped at {@link RuntimeFilter#MAX_NUM_BITS}
+     */
+    static final long MAX_BUILD_ROWS = 1_000_000;
+
+    /**
+     * Minimum ratio of probe side rows to build side rows.
+     */
+    static final long MIN_RATIO = 10;
+
+    private final Pattern<JoinPlan> pattern = typeOf(JoinPlan.class).with(j ->
+        j.isLookUpJoinRuleApplied() == false &&
+        j.lookUpJoin() == AbstractJoinPlan.LookUpJoin.NONE &&
+        j.joinType() == JoinType.INNER &&
+        j.joinCondition() != null &&
+        EquiJoinDetector.isTopLevelEquiJoin(j.joinCondition())
+    );
+
+    @Override
+    public Pattern<JoinPlan> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(JoinPlan plan,
+                             Captures captures,
+                             Rule.Context context) {
+        PlanStats planStats = context.planStats();
+        long lhsRows = planStats.get(plan.lhs()).numDocs();
+        long rhsRows = planStats.get(plan.rhs()).numDocs();
+        if (lhsRows == -1 || rhsRows == -1) {
+            return null;
+        }
+        boolean lhsIsProbe = lhsRows > rhsRows;
+        LogicalPlan probe = lhsIsProbe ? plan.lhs() : plan.rhs();
+        LogicalPlan build = lhsIsProbe ? plan.rhs() : plan.lhs();
+        long probeRows = Math.max(lhsRows, rhsRows);
+        long buildRows = Math.min(lhsRows, rhsRows);
+        if (probeRows < MIN_PROBE_ROWS || buildRows > MAX_BUILD_ROWS || buildRows * MIN_RATIO > probeRows) {
+            return null;
+        }
+        if (build.relationNames().size() != 1) {
+            return null;
+        }
+        build = GroupReferenceResolver.resolveFully(context.resolvePlan(), build);
+        if (isRepeatable(build) == false) {
+            return null;
+        }
+        if (isFiltered(build) == false) {
+            // All keys of an unfiltered build side are likely to have a join partner (e.g. foreign keys),
+            // the filter wouldn't discard any probe side rows.
+            return null;
+        }
+        Symbol[] keys = findKeys(plan.joinCondition(), probe, build);
+        if (keys == null) {
+            return null;
+        }
+        LogicalPlan newProbe = createRuntimeFilter(
+            probe,
+            keys[0],
+            build,
+            keys[1],
+            RuntimeFilter.numBits(buildRows),
+            context.nodeCtx(),
+            context.txnCtx()
+        );
+        return new JoinPlan(
+            lhsIsProbe ? newProbe : plan.lhs(),
+            lhsIsProbe ? plan.rhs() : newProbe,
+            plan.joinType(),
+            plan.joinCondition(),
+            plan.isFiltered(),
+            plan.isRewriteFilterOnOuterJoinToInnerJoinDone(),
+            true,
+            plan.moveConstantJoinConditionRuleApplied(),
+            plan.eliminateCrossJoinRuleIsApplied(),
+            AbstractJoinPlan.LookUpJoin.NONE
+        );
+    }
+
+    /**
+     * @return [probeKey, buildKey] of the first equality of the join condition which is supported by the runtime filter
+     */
+    @Nullable
+    private static Symbol[] findKeys(Symbol joinCondition, LogicalPlan probe, LogicalPlan build) {
+        for (Symbol part : AndOperator.split(joinCondition)) {
+            if (part instanceof Function eq
+                && eq.name().equals(EqOperator.NAME)
+                && eq.arguments().size() == 2) {
+
+                Symbol left = eq.arguments().get(0);
+                Symbol right = eq.arguments().get(1);
+                DataType<?> type = left.valueType();
+                if (type.equals(right.valueType()) == false
+                    || RuntimeFilterAggregation.SUPPORTED_TYPES.contains(type) == false) {
+                    continue;
+                }
+                if (isFrom(left, probe) && isFrom(right, build)) {
+                    return new Symbol[] { left, right };
+                }
+                if (isFrom(right, probe) && isFrom(left, build)) {
+                    return new Symbol[] { right, left };
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isFrom(Symbol symbol, LogicalPlan plan) {
+        var relationNames = RelationNames.getShallow(symbol);
+        return relationNames.isEmpty() == false && plan.relationNames().containsAll(relationNames);
+    }
+
+    /**
+     * @return true if executing the plan again results in the same rows.
+     */
+    private static boolean isRepeatable(LogicalPlan plan) {
+        if (plan instanceof Collect collect) {
+            return collect.relation() instanceof DocTableRelation
+                && collect.where().queryOrFallback().isDeterministic()
+                && allDeterministic(collect.outputs());
+        }
+        if (plan instanceof Filter filter) {
+            return filter.query().isDeterministic() && isRepeatable(filter.source());
+        }
+        if (plan instanceof Eval eval) {
+            return allDeterministic(eval.outputs()) && isRepeatable(eval.source());
+        }
+        return false;
+    }
+
+    private static boolean allDeterministic(List<Symbol> symbols) {
+        for (Symbol symbol : symbols) {
+            if (symbol.isDeterministic() == false) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isFiltered(LogicalPlan plan) {
+        if (plan instanceof Filter) {
+            return true;
+        }
+        if (plan instanceof Collect collect) {
+            return collect.where().hasQuery();
+        }
+        for (LogicalPlan source : plan.sources()) {
+            if (isFiltered(source)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LogicalPlan createRuntimeFilter(LogicalPlan probe,
+                                                   Symbol probeKey,
+                                                   LogicalPlan build,
+                                                   Symbol buildKey,
+                                                   int numBits,
+                                                   NodeContext nodeCtx,
+                                                   TransactionContext txnCtx) {
+        List<Symbol> aggArgs = List.of(buildKey, Literal.of(numBits));
+        FunctionImplementation aggImpl = nodeCtx.functions().get(
+            null,
+            RuntimeFilterAggregation.NAME,
+            aggArgs,
+            txnCtx.sessionSettings().searchPath()
+        );
+        Function aggregate = new Function(aggImpl.signature(), aggArgs, DataTypes.BIGINT_ARRAY);
+        LogicalPlan buildKeys = Eval.create(build.pruneOutputsExcept(List.of(buildKey)), List.of(buildKey));
+        LogicalPlan filterBuilder = new RootRelationBoundary(new HashAggregate(buildKeys, List.of(aggregate)));
+
+        var runtimeFilter = new SelectSymbol(
+            new PlannedRelation(filterBuilder),
+            new ArrayType<>(DataTypes.BIGINT_ARRAY),
+            SelectSymbol.ResultType.SINGLE_COLUMN_SINGLE_VALUE,
+            true
+        );
+        List<Symbol> filterArgs = List.of(probeKey, runtimeFilter);
+        FunctionImplementation filterImpl = nodeCtx.functions().get(
+            null,
+            RuntimeFilterFunction.NAME,
+            filterArgs,
+            txnCtx.sessionSettings().searchPath()
+        );
+        var filter = new Function(filterImpl.signature(), filterArgs, DataTypes.BOOLEAN);
+        Map<LogicalPlan, SelectSymbol> subQueries = Map.of(filterBuilder, runtimeFilter);
+        return MultiPhase.createIfNeeded(subQueries, new Filter(probe, filter));
+    }
+}
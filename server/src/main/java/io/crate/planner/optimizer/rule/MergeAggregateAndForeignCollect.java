@@ -0,0 +1,68 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+import static io.crate.planner.optimizer.matcher.Patterns.source;
+
+import java.util.List;
+
+import io.crate.planner.operators.ForeignCollect;
+import io.crate.planner.operators.HashAggregate;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Capture;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+
+/**
+ * Changes `HashAggregate -> ForeignCollect` to a `ForeignCollect` computing the aggregations
+ * on the foreign server, if supported by the foreign data wrapper.
+ */
+public class MergeAggregateAndForeignCollect implements Rule<HashAggregate> {
+
+    private final Capture<ForeignCollect> collectCapture;
+    private final Pattern<HashAggregate> pattern;
+
+    public MergeAggregateAndForeignCollect() {
+        this.collectCapture = new Capture<>();
+        this.pattern = typeOf(HashAggregate.class)
+            .with(source(), typeOf(ForeignCollect.class).capturedAs(collectCapture)
+                .with(collect -> !collect.hasPushdown()));
+    }
+
+    @Override
+    public Pattern<HashAggregate> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(HashAggregate aggregate,
+                             Captures captures,
+                             Rule.Context ruleContext) {
+        ForeignCollect collect = captures.get(collectCapture);
+        if (collect.fdw().supportsAggregationPushdown(List.of(), aggregate.aggregates())) {
+            return collect.withAggregation(List.of(), aggregate.outputs());
+        }
+        return null;
+    }
+}
@@ -61,14 +61,12 @@ public class MergeFilterAndForeignCollect implements Rule<Filter> {
                              Captures captures,
                              Rule.Context ruleContext) {
         ForeignCollect collect = captures.get(collectCapture);
+        if (collect.hasPushdown()) {
+            // The filter applies to the aggregated or limited result
+            return null;
+        }
         if (collect.fdw().supportsQueryPushdown(filter.query())) {
-            return new ForeignCollect(
-                collect.fdw(),
-                collect.relation(),
-                collect.outputs(),
-                collect.where().add(filter.query()),
-                collect.executeAs()
-            );
+            return collect.withWhere(collect.where().add(filter.query()));
         }
         return null;
     }
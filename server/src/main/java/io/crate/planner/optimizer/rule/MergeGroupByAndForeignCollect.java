@@ -0,0 +1,66 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+import static io.crate.planner.optimizer.matcher.Patterns.source;
+
+import io.crate.planner.operators.ForeignCollect;
+import io.crate.planner.operators.GroupHashAggregate;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Capture;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+
+/**
+ * Like {@link MergeAggregateAndForeignCollect}, changes `GroupHashAggregate -> ForeignCollect`
+ * to a `ForeignCollect` grouping and aggregating on the foreign server.
+ */
+public class MergeGroupByAndForeignCollect implements Rule<GroupHashAggregate> {
+
+    private final Capture<ForeignCollect> collectCapture;
+    private final Pattern<GroupHashAggregate> pattern;
+
+    public MergeGroupByAndForeignCollect() {
+        this.collectCapture = new Capture<>();
+        this.pattern = typeOf(GroupHashAggregate.class)
+            .with(source(), typeOf(ForeignCollect.class).capturedAs(collectCapture)
+                .with(collect -> !collect.hasPushdown()));
+    }
+
+    @Override
+    public Pattern<GroupHashAggregate> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(GroupHashAggregate groupBy,
+                             Captures captures,
+                             Rule.Context ruleContext) {
+        ForeignCollect collect = captures.get(collectCapture);
+        if (collect.fdw().supportsAggregationPushdown(groupBy.groupKeys(), groupBy.aggregates())) {
+            return collect.withAggregation(groupBy.groupKeys(), groupBy.outputs());
+        }
+        return null;
+    }
+}
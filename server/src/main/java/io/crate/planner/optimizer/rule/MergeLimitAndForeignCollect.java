@@ -0,0 +1,81 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+import java.util.List;
+
+import io.crate.analyze.OrderBy;
+import io.crate.planner.operators.ForeignCollect;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.operators.Order;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+
+/**
+ * Pushes the limit of `Limit -> ForeignCollect` and `Limit -> Order -> ForeignCollect`
+ * into the {@link ForeignCollect}, so that the foreign server only returns the required rows.
+ *
+ * The Limit and Order operators are kept: The foreign server returns up to limit + offset rows,
+ * the offset is still applied locally.
+ */
+public class MergeLimitAndForeignCollect implements Rule<Limit> {
+
+    private final Pattern<Limit> pattern;
+
+    public MergeLimitAndForeignCollect() {
+        this.pattern = typeOf(Limit.class);
+    }
+
+    @Override
+    public Pattern<Limit> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(Limit limit,
+                             Captures captures,
+                             Rule.Context ruleContext) {
+        LogicalPlan source = ruleContext.resolvePlan().apply(limit.source());
+        Order order = null;
+        if (source instanceof Order o) {
+            order = o;
+            source = ruleContext.resolvePlan().apply(o.source());
+        }
+        if (!(source instanceof ForeignCollect collect) || collect.limit() != null) {
+            return null;
+        }
+        OrderBy orderBy = order == null ? null : order.orderBy();
+        if (orderBy != null && !collect.outputs().containsAll(orderBy.orderBySymbols())) {
+            return null;
+        }
+        if (!collect.fdw().supportsLimitPushdown(orderBy)) {
+            return null;
+        }
+        ForeignCollect newCollect = collect.withLimit(orderBy, limit.limit(), limit.offset());
+        LogicalPlan newSource = order == null ? newCollect : order.replaceSources(List.of(newCollect));
+        return limit.replaceSources(List.of(newSource));
+    }
+}
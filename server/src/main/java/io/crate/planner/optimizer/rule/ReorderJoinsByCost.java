@@ -0,0 +1,76 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.planner.optimizer.matcher.Pattern.typeOf;
+
+import io.crate.planner.operators.Eval;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.Rule;
+import io.crate.planner.optimizer.joinorder.JoinEnumerator;
+import io.crate.planner.optimizer.joinorder.JoinGraph;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Pattern;
+
+/**
+ * Reorders a tree of inner joins over 3 or more relations based on table statistics.
+ * See {@link JoinEnumerator} for details.
+ *
+ * <p>
+ * The new joins are marked like the ones created by {@link EliminateCrossJoin} so that neither rule
+ * reorders them again. If the rule doesn't apply, e.g. because there are no statistics,
+ * {@link EliminateCrossJoin} still can.
+ * </p>
+ */
+public class ReorderJoinsByCost implements Rule<JoinPlan> {
+
+    private final Pattern<JoinPlan> pattern = typeOf(JoinPlan.class)
+        .with(j -> j.eliminateCrossJoinRuleIsApplied() == false);
+
+    @Override
+    public Pattern<JoinPlan> pattern() {
+        return pattern;
+    }
+
+    @Override
+    public LogicalPlan apply(JoinPlan join,
+                             Captures captures,
+                             Rule.Context context) {
+        if (join.relationNames().size() < 3) {
+            return null;
+        }
+        var joinGraph = JoinGraph.create(join, context.resolvePlan());
+        var newJoinPlan = JoinEnumerator.reorder(
+            joinGraph,
+            join,
+            context.resolvePlan(),
+            context.planStats(),
+            context.nodeCtx(),
+            context.txnCtx()
+        );
+        if (newJoinPlan == null) {
+            return null;
+        }
+        return Eval.create(newJoinPlan, join.outputs());
+    }
+}
@@ -68,9 +68,19 @@ public class SelectivityFunctions {
                                        Stats stats,
                                        Symbol query,
                                        @Nullable Row params) {
+        return (long) (stats.numDocs() * estimateSelectivity(nodeCtx, txnCtx, stats, query, params));
+    }
+
+    /**
+     * @return the estimated fraction of rows matching {@code query}, between 0.0 and 1.0
+     */
+    public static double estimateSelectivity(NodeContext nodeCtx,
+                                             TransactionContext txnCtx,
+                                             Stats stats,
+                                             Symbol query,
+                                             @Nullable Row params) {
         var estimator = new SelectivityEstimator(nodeCtx, txnCtx, stats, params);
-        Double selectivity = query.accept(estimator, null);
-        return (long) (stats.numDocs() * selectivity);
+        return query.accept(estimator, null);
     }
 
     static class SelectivityEstimator extends SymbolVisitor<Void, Double> {
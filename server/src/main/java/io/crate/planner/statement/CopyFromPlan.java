@@ -175,6 +175,7 @@ public final class CopyFromPlan implements Plan {
         // instead of the Symbol type, such as the uri can be evaluated and converted
         // to the required type already at this stage, but not later on in FileCollectSource.
         var boundedURI = validateAndConvertToLiteral(eval.apply(copyFrom.uri()), properties);
+        ensureParquetFilesAreLocal(boundedURI, inputFormat);
         var header = settings.getAsBoolean("header", true);
         var targetColumns = copyFrom.targetColumns();
         if (!header && copyFrom.targetColumns().isEmpty()) {
@@ -445,6 +446,22 @@ public final class CopyFromPlan implements Plan {
         throw AnalyzedCopyFrom.raiseInvalidType(DataTypes.guessType(uri));
     }
 
+    /**
+     * Parquet files are read by random access of the column chunks, which is only supported for local files.
+     */
+    private static void ensureParquetFilesAreLocal(Literal<?> uri, FileUriCollectPhase.InputFormat inputFormat) {
+        List<?> uris = uri.value() instanceof List<?> list ? list : List.of(uri.value());
+        for (Object value : uris) {
+            if (value instanceof String uriAsString
+                && (inputFormat == FileUriCollectPhase.InputFormat.PARQUET || uriAsString.endsWith(".parquet"))
+                && !uriAsString.startsWith("/")
+                && !uriAsString.startsWith("file:")) {
+                throw new UnsupportedOperationException(
+                    "Parquet files can only be read from the local file system (file://), cannot read '" + uriAsString + "'");
+            }
+        }
+    }
+
     private static Predicate<DiscoveryNode> discoveryNodePredicate(@Nullable Object nodeFilter) {
         if (nodeFilter == null) {
             return ignoredDiscoveryNode -> true;
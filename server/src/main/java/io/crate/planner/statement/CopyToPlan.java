@@ -218,6 +218,19 @@ public final class CopyToPlan implements Plan {
             table,
             metadata);
 
+        GenericProperties<Object> properties = copyTo.properties().map(eval);
+        Settings settings = Settings.builder().put(properties).build();
+
+        if ("zstd".equalsIgnoreCase(settings.get(COMPRESSION_SETTING.getKey()))) {
+            // Would need a native zstd library, the gzip or snappy (Parquet pages) compression must be used instead
+            throw new UnsupportedOperationException(
+                "Compression 'zstd' is not supported by COPY TO. Supported values are: gzip");
+        }
+        WriterProjection.CompressionType compressionType =
+            settingAsEnum(WriterProjection.CompressionType.class, COMPRESSION_SETTING.get(settings));
+        WriterProjection.OutputFormat outputFormat =
+            settingAsEnum(WriterProjection.OutputFormat.class, OUTPUT_FORMAT_SETTING.get(settings));
+
         List<Symbol> outputs = new ArrayList<>();
         Map<ColumnIdent, Symbol> overwrites = null;
         boolean columnsDefined = false;
@@ -230,20 +243,19 @@ public final class CopyToPlan implements Plan {
                 outputs.add(DocReferences.toDocLookup(symbol));
             }
             columnsDefined = true;
+        } else if (outputFormat != null && outputFormat.requiresColumns()) {
+            // Columnar formats have a fixed schema, export all top-level columns of the table
+            for (Reference ref : table.rootColumns()) {
+                outputNames.add(ref.column().sqlFqn());
+                outputs.add(DocReferences.toDocLookup(ref));
+            }
+            columnsDefined = true;
         } else {
             var docRef = table.getReference(SysColumns.DOC);
             assert docRef != null : "_doc reference must be resolvable";
             outputs = List.of(docRef.cast(DataTypes.STRING, CastMode.EXPLICIT));
         }
 
-        GenericProperties<Object> properties = copyTo.properties().map(eval);
-        Settings settings = Settings.builder().put(properties).build();
-
-        WriterProjection.CompressionType compressionType =
-            settingAsEnum(WriterProjection.CompressionType.class, COMPRESSION_SETTING.get(settings));
-        WriterProjection.OutputFormat outputFormat =
-            settingAsEnum(WriterProjection.OutputFormat.class, OUTPUT_FORMAT_SETTING.get(settings));
-
         if (!columnsDefined && outputFormat == WriterProjection.OutputFormat.JSON_ARRAY) {
             throw new UnsupportedFeatureException("Output format not supported without specifying columns.");
         }
@@ -0,0 +1,395 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.arrow;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.types.ArrayType;
+import io.crate.types.BooleanType;
+import io.crate.types.ByteType;
+import io.crate.types.DataType;
+import io.crate.types.DateType;
+import io.crate.types.DoubleType;
+import io.crate.types.FloatType;
+import io.crate.types.IntegerType;
+import io.crate.types.LongType;
+import io.crate.types.ShortType;
+import io.crate.types.TimestampType;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Column of a record batch, holding the Arrow buffers of the values added since the last {@link #reset()}.
+ *
+ * <pre>
+ * BOOLEAN                  Bool                   validity, value bitmap
+ * BYTE, SHORT, INT, LONG   Int(8|16|32|64)        validity, values
+ * REAL, DOUBLE             FloatingPoint          validity, values
+ * TIMESTAMP [WITH TZ]      Timestamp(ms[, UTC])   validity, values
+ * DATE                     Date(ms)               validity, values
+ * ARRAY(t)                 List(t)                validity, offsets, child column
+ * other types              Utf8                   validity, offsets, data
+ * </pre>
+ *
+ * Values of types without Arrow equivalent, like objects or geo types, are sent as their JSON representation.
+ */
+abstract sealed class ArrowColumn {
+
+    // Type union of Schema.fbs
+    static final byte TYPE_INT = 2;
+    static final byte TYPE_FLOATING_POINT = 3;
+    static final byte TYPE_UTF8 = 5;
+    static final byte TYPE_BOOL = 6;
+    static final byte TYPE_DATE = 8;
+    static final byte TYPE_TIMESTAMP = 10;
+    static final byte TYPE_LIST = 12;
+
+    final ByteBuf validity = Unpooled.buffer();
+    int length = 0;
+    int nullCount = 0;
+
+    static ArrowColumn of(DataType<?> type) {
+        return switch (type.id()) {
+            case BooleanType.ID -> new BoolColumn();
+            case ByteType.ID -> new FixedWidthColumn(TYPE_INT, 1);
+            case ShortType.ID -> new FixedWidthColumn(TYPE_INT, 2);
+            case IntegerType.ID -> new FixedWidthColumn(TYPE_INT, 4);
+            case LongType.ID -> new FixedWidthColumn(TYPE_INT, 8);
+            case FloatType.ID -> new FixedWidthColumn(TYPE_FLOATING_POINT, 4);
+            case DoubleType.ID -> new FixedWidthColumn(TYPE_FLOATING_POINT, 8);
+            case TimestampType.ID_WITH_TZ -> new FixedWidthColumn(TYPE_TIMESTAMP, 8, "UTC");
+            case TimestampType.ID_WITHOUT_TZ -> new FixedWidthColumn(TYPE_TIMESTAMP, 8);
+            case DateType.ID -> new FixedWidthColumn(TYPE_DATE, 8);
+            case ArrayType.ID -> new ListColumn(of(((ArrayType<?>) type).innerType()));
+            default -> new Utf8Column();
+        };
+    }
+
+    final void add(@Nullable Object value) {
+        ensureBitmapCapacity(validity, length);
+        if (value == null) {
+            nullCount++;
+            addNull();
+        } else {
+            setBit(validity, length);
+            addValue(value);
+        }
+        length++;
+    }
+
+    abstract void addNull();
+
+    abstract void addValue(Object value);
+
+    /**
+     * @return type of the type union in Schema.fbs
+     */
+    abstract byte typeType();
+
+    /**
+     * Writes the type table of the column
+     *
+     * @return offset of the table
+     */
+    abstract int writeType(FlatBufferBuilder builder);
+
+    /**
+     * @return the Arrow buffers of this column, excluding the ones of children
+     */
+    abstract List<ByteBuf> buffers();
+
+    @Nullable
+    ArrowColumn child() {
+        return null;
+    }
+
+    /**
+     * Approximate size of the buffers, used to limit the size of a record batch
+     */
+    long sizeInBytes() {
+        long size = 0;
+        for (ByteBuf buffer : buffers()) {
+            size += buffer.readableBytes();
+        }
+        ArrowColumn child = child();
+        return child == null ? size : size + child.sizeInBytes();
+    }
+
+    void reset() {
+        length = 0;
+        nullCount = 0;
+        for (ByteBuf buffer : buffers()) {
+            buffer.clear();
+        }
+        ArrowColumn child = child();
+        if (child != null) {
+            child.reset();
+        }
+    }
+
+    private static void ensureBitmapCapacity(ByteBuf bitmap, int index) {
+        int numBytes = (index >> 3) + 1;
+        if (bitmap.writerIndex() < numBytes) {
+            bitmap.writeByte(0);
+        }
+    }
+
+    private static void setBit(ByteBuf bitmap, int index) {
+        int byteIndex = index >> 3;
+        bitmap.setByte(byteIndex, bitmap.getByte(byteIndex) | (1 << (index & 7)));
+    }
+
+    static final class FixedWidthColumn extends ArrowColumn {
+
+        private final byte typeType;
+        private final int byteWidth;
+        @Nullable
+        private final String timeZone;
+        private final ByteBuf values = Unpooled.buffer();
+
+        FixedWidthColumn(byte typeType, int byteWidth) {
+            this(typeType, byteWidth, null);
+        }
+
+        FixedWidthColumn(byte typeType, int byteWidth, @Nullable String timeZone) {
+            this.typeType = typeType;
+            this.byteWidth = byteWidth;
+            this.timeZone = timeZone;
+        }
+
+        @Override
+        void addNull() {
+            values.writeZero(byteWidth);
+        }
+
+        @Override
+        void addValue(Object value) {
+            Number number = (Number) value;
+            if (typeType == TYPE_FLOATING_POINT) {
+                if (byteWidth == 4) {
+                    values.writeFloatLE(number.floatValue());
+                } else {
+                    values.writeDoubleLE(number.doubleValue());
+                }
+                return;
+            }
+            switch (byteWidth) {
+                case 1 -> values.writeByte(number.byteValue());
+                case 2 -> values.writeShortLE(number.shortValue());
+                case 4 -> values.writeIntLE(number.intValue());
+                default -> values.writeLongLE(number.longValue());
+            }
+        }
+
+        @Override
+        byte typeType() {
+            return typeType;
+        }
+
+        @Override
+        int writeType(FlatBufferBuilder builder) {
+            switch (typeType) {
+                case TYPE_INT -> {
+                    builder.startTable(2);
+                    builder.addField(0, byteWidth * 8);
+                    builder.addField(1, true);
+                    return builder.endTable();
+                }
+                case TYPE_FLOATING_POINT -> {
+                    builder.startTable(1);
+                    // Precision: HALF = 0, SINGLE = 1, DOUBLE = 2
+                    builder.addField(0, (short) (byteWidth == 4 ? 1 : 2));
+                    return builder.endTable();
+                }
+                case TYPE_DATE -> {
+                    builder.startTable(1);
+                    // DateUnit: DAY = 0, MILLISECOND = 1
+                    builder.addField(0, (short) 1);
+                    return builder.endTable();
+                }
+                default -> {
+                    int timeZoneOffset = timeZone == null ? 0 : builder.createString(timeZone);
+                    builder.startTable(2);
+                    if (timeZone != null) {
+                        builder.addOffsetField(1, timeZoneOffset);
+                    }
+                    // TimeUnit: SECOND = 0, MILLISECOND = 1
+                    builder.addField(0, (short) 1);
+                    return builder.endTable();
+                }
+            }
+        }
+
+        @Override
+        List<ByteBuf> buffers() {
+            return List.of(validity, values);
+        }
+    }
+
+    static final class BoolColumn extends ArrowColumn {
+
+        private final ByteBuf values = Unpooled.buffer();
+
+        @Override
+        void addNull() {
+            ensureBitmapCapacity(values, length);
+        }
+
+        @Override
+        void addValue(Object value) {
+            ensureBitmapCapacity(values, length);
+            if ((Boolean) value) {
+                setBit(values, length);
+            }
+        }
+
+        @Override
+        byte typeType() {
+            return TYPE_BOOL;
+        }
+
+        @Override
+        int writeType(FlatBufferBuilder builder) {
+            builder.startTable(0);
+            return builder.endTable();
+        }
+
+        @Override
+        List<ByteBuf> buffers() {
+            return List.of(validity, values);
+        }
+    }
+
+    static final class Utf8Column extends ArrowColumn {
+
+        private final ByteBuf offsets = Unpooled.buffer();
+        private final ByteBuf data = Unpooled.buffer();
+
+        @Override
+        void addNull() {
+            writeOffset();
+        }
+
+        @Override
+        void addValue(Object value) {
+            String text = value instanceof String string ? string : toJson(value);
+            data.writeCharSequence(text, StandardCharsets.UTF_8);
+            writeOffset();
+        }
+
+        private void writeOffset() {
+            if (offsets.writerIndex() == 0) {
+                offsets.writeIntLE(0);
+            }
+            offsets.writeIntLE(data.writerIndex());
+        }
+
+        private static String toJson(Object value) {
+            try {
+                return Strings.toString(JsonXContent.builder().value(value));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        byte typeType() {
+            return TYPE_UTF8;
+        }
+
+        @Override
+        int writeType(FlatBufferBuilder builder) {
+            builder.startTable(0);
+            return builder.endTable();
+        }
+
+        @Override
+        List<ByteBuf> buffers() {
+            if (offsets.writerIndex() == 0) {
+                // The offsets buffer of an empty batch must still contain the first offset
+                offsets.writeIntLE(0);
+            }
+            return List.of(validity, offsets, data);
+        }
+    }
+
+    static final class ListColumn extends ArrowColumn {
+
+        private final ByteBuf offsets = Unpooled.buffer();
+        private final ArrowColumn child;
+
+        ListColumn(ArrowColumn child) {
+            this.child = child;
+        }
+
+        @Override
+        void addNull() {
+            writeOffset();
+        }
+
+        @Override
+        void addValue(Object value) {
+            for (Object item : (List<?>) value) {
+                child.add(item);
+            }
+            writeOffset();
+        }
+
+        private void writeOffset() {
+            if (offsets.writerIndex() == 0) {
+                offsets.writeIntLE(0);
+            }
+            offsets.writeIntLE(child.length);
+        }
+
+        @Override
+        byte typeType() {
+            return TYPE_LIST;
+        }
+
+        @Override
+        int writeType(FlatBufferBuilder builder) {
+            builder.startTable(0);
+            return builder.endTable();
+        }
+
+        @Override
+        List<ByteBuf> buffers() {
+            if (offsets.writerIndex() == 0) {
+                offsets.writeIntLE(0);
+            }
+            return List.of(validity, offsets);
+        }
+
+        @Override
+        ArrowColumn child() {
+            return child;
+        }
+    }
+}
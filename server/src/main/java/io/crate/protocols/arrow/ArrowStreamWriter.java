@@ -0,0 +1,207 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.arrow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import io.crate.data.Row;
+import io.crate.types.DataType;
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Writes rows in the <a href="https://arrow.apache.org/docs/format/Columnar.html#ipc-streaming-format">
+ * Arrow IPC streaming format</a>:
+ *
+ * <pre>
+ * schema message
+ * record batch message *
+ * end-of-stream marker
+ * </pre>
+ *
+ * Each message is framed as
+ *
+ * <pre>
+ * 0xFFFFFFFF | int32 metadata size | Message flatbuffer (padded to 8 bytes) | body (padded to 8 bytes)
+ * </pre>
+ *
+ * Rows are buffered column wise via {@link #addRow(Row)} until {@link #writeBatch(ByteBuf)} is called.
+ * Instances are not thread-safe.
+ */
+public final class ArrowStreamWriter {
+
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+
+    // MetadataVersion.V5
+    private static final short METADATA_VERSION = 4;
+
+    // MessageHeader union of Message.fbs
+    private static final byte HEADER_SCHEMA = 1;
+    private static final byte HEADER_RECORD_BATCH = 3;
+
+    private final List<String> names;
+    private final List<ArrowColumn> columns;
+    private int numRows = 0;
+
+    public ArrowStreamWriter(List<String> names, List<? extends DataType<?>> types) {
+        assert names.size() == types.size() : "names and types must have the same size";
+        this.names = names;
+        this.columns = new ArrayList<>(types.size());
+        for (DataType<?> type : types) {
+            columns.add(ArrowColumn.of(type));
+        }
+    }
+
+    public void addRow(Row row) {
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).add(row.get(i));
+        }
+        numRows++;
+    }
+
+    /**
+     * @return number of rows added since the last batch was written
+     */
+    public int numRows() {
+        return numRows;
+    }
+
+    /**
+     * @return approximate size of the rows added since the last batch was written
+     */
+    public long sizeInBytes() {
+        long size = 0;
+        for (ArrowColumn column : columns) {
+            size += column.sizeInBytes();
+        }
+        return size;
+    }
+
+    public void writeSchema(ByteBuf out) {
+        FlatBufferBuilder builder = new FlatBufferBuilder(256);
+        int[] fields = new int[columns.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = writeField(builder, names.get(i), columns.get(i));
+        }
+        int fieldsVector = builder.createOffsetVector(fields);
+        builder.startTable(2);
+        builder.addOffsetField(1, fieldsVector);
+        // Endianness.Little = 0 is the default and doesn't need to be written
+        int schema = builder.endTable();
+        writeMessage(out, builder, HEADER_SCHEMA, schema, 0);
+    }
+
+    private static int writeField(FlatBufferBuilder builder, String name, ArrowColumn column) {
+        ArrowColumn child = column.child();
+        int[] children = child == null ? new int[0] : new int[] { writeField(builder, "item", child) };
+        int childrenVector = builder.createOffsetVector(children);
+        int nameOffset = builder.createString(name);
+        int type = column.writeType(builder);
+        builder.startTable(6);
+        builder.addOffsetField(0, nameOffset);
+        builder.addOffsetField(3, type);
+        builder.addOffsetField(5, childrenVector);
+        builder.addField(1, true);
+        builder.addField(2, column.typeType());
+        return builder.endTable();
+    }
+
+    /**
+     * Writes the buffered rows as record batch and resets the columns for the next batch
+     */
+    public void writeBatch(ByteBuf out) {
+        List<ArrowColumn> flattened = new ArrayList<>(columns.size());
+        for (ArrowColumn column : columns) {
+            for (ArrowColumn c = column; c != null; c = c.child()) {
+                flattened.add(c);
+            }
+        }
+        long[] nodes = new long[flattened.size() * 2];
+        List<ByteBuf> buffers = new ArrayList<>(flattened.size() * 3);
+        for (int i = 0; i < flattened.size(); i++) {
+            ArrowColumn column = flattened.get(i);
+            nodes[i * 2] = column.length;
+            nodes[i * 2 + 1] = column.nullCount;
+            buffers.addAll(column.buffers());
+        }
+        long[] bufferLayout = new long[buffers.size() * 2];
+        long bodyLength = 0;
+        for (int i = 0; i < buffers.size(); i++) {
+            int length = buffers.get(i).readableBytes();
+            bufferLayout[i * 2] = bodyLength;
+            bufferLayout[i * 2 + 1] = length;
+            bodyLength += align8(length);
+        }
+
+        FlatBufferBuilder builder = new FlatBufferBuilder(256);
+        int buffersVector = builder.createLongPairVector(bufferLayout);
+        int nodesVector = builder.createLongPairVector(nodes);
+        builder.startTable(3);
+        builder.addField(0, (long) numRows);
+        builder.addOffsetField(1, nodesVector);
+        builder.addOffsetField(2, buffersVector);
+        int recordBatch = builder.endTable();
+        writeMessage(out, builder, HEADER_RECORD_BATCH, recordBatch, bodyLength);
+
+        for (ByteBuf buffer : buffers) {
+            int length = buffer.readableBytes();
+            out.writeBytes(buffer, buffer.readerIndex(), length);
+            out.writeZero(align8(length) - length);
+        }
+        for (ArrowColumn column : columns) {
+            column.reset();
+        }
+        numRows = 0;
+    }
+
+    public static void writeEndOfStream(ByteBuf out) {
+        out.writeInt(CONTINUATION);
+        out.writeInt(0);
+    }
+
+    private static void writeMessage(ByteBuf out,
+                                     FlatBufferBuilder builder,
+                                     byte headerType,
+                                     int header,
+                                     long bodyLength) {
+        builder.startTable(4);
+        builder.addField(3, bodyLength);
+        builder.addOffsetField(2, header);
+        builder.addField(0, METADATA_VERSION);
+        builder.addField(1, headerType);
+        int message = builder.endTable();
+        byte[] metadata = builder.finish(message);
+
+        // The body must start at an 8 byte boundary; the padding counts towards the metadata size
+        int paddedLength = align8(8 + metadata.length) - 8;
+        out.writeInt(CONTINUATION);
+        out.writeIntLE(paddedLength);
+        out.writeBytes(metadata);
+        out.writeZero(paddedLength - metadata.length);
+    }
+
+    private static int align8(int length) {
+        return (length + 7) & ~7;
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.arrow;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal builder for the FlatBuffers encoding, as used by the metadata of the Arrow IPC format.
+ *
+ * <p>
+ * Like the reference implementation, the buffer is written back to front:
+ * Children (strings, vectors, nested tables) must be created before the table referencing them
+ * and are referenced using the offset returned on creation.
+ * Vtables are not deduplicated, the messages written by {@link ArrowStreamWriter} are small.
+ * </p>
+ */
+final class FlatBufferBuilder {
+
+    private ByteBuffer bb;
+    private int space;
+    private int minAlign = 1;
+
+    private int[] vtable = new int[0];
+    private int objectStart;
+    private int vectorNumElems;
+
+    FlatBufferBuilder(int initialSize) {
+        this.bb = ByteBuffer.allocate(initialSize).order(ByteOrder.LITTLE_ENDIAN);
+        this.space = initialSize;
+    }
+
+    /**
+     * @return offset of the current write position, measured from the end of the buffer
+     */
+    int offset() {
+        return bb.capacity() - space;
+    }
+
+    /**
+     * Aligns the write position so that {@code size} bytes can be written aligned to {@code size}
+     * after {@code additionalBytes} have been written.
+     */
+    private void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        int alignSize = (~(bb.capacity() - space + additionalBytes) + 1) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            int oldCapacity = bb.capacity();
+            grow();
+            space += bb.capacity() - oldCapacity;
+        }
+        for (int i = 0; i < alignSize; i++) {
+            bb.put(--space, (byte) 0);
+        }
+    }
+
+    private void grow() {
+        int oldCapacity = bb.capacity();
+        ByteBuffer newBuffer = ByteBuffer.allocate(oldCapacity * 2).order(ByteOrder.LITTLE_ENDIAN);
+        newBuffer.position(oldCapacity);
+        newBuffer.put(bb.array(), 0, oldCapacity);
+        bb = newBuffer;
+    }
+
+    void addByte(byte value) {
+        prep(1, 0);
+        bb.put(--space, value);
+    }
+
+    void addShort(short value) {
+        prep(2, 0);
+        space -= 2;
+        bb.putShort(space, value);
+    }
+
+    void addInt(int value) {
+        prep(4, 0);
+        space -= 4;
+        bb.putInt(space, value);
+    }
+
+    void addLong(long value) {
+        prep(8, 0);
+        space -= 8;
+        bb.putLong(space, value);
+    }
+
+    void addOffset(int offset) {
+        prep(4, 0);
+        assert offset <= offset() : "offset must refer to something already written";
+        int relativeOffset = offset() - offset + 4;
+        space -= 4;
+        bb.putInt(space, relativeOffset);
+    }
+
+    int createString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        addByte((byte) 0);
+        startVector(1, bytes.length, 1);
+        space -= bytes.length;
+        bb.position(space);
+        bb.put(bytes);
+        return endVector();
+    }
+
+    int createOffsetVector(int[] offsets) {
+        startVector(4, offsets.length, 4);
+        for (int i = offsets.length - 1; i >= 0; i--) {
+            addOffset(offsets[i]);
+        }
+        return endVector();
+    }
+
+    /**
+     * Creates a vector of structs consisting of two longs each, like the FieldNode and Buffer structs of Arrow.
+     * The values are given as pairs: {@code [a0, b0, a1, b1, ...]}
+     */
+    int createLongPairVector(long[] pairs) {
+        int numElements = pairs.length / 2;
+        startVector(16, numElements, 8);
+        for (int i = numElements - 1; i >= 0; i--) {
+            prep(8, 16);
+            addLong(pairs[i * 2 + 1]);
+            addLong(pairs[i * 2]);
+        }
+        return endVector();
+    }
+
+    private void startVector(int elementSize, int numElements, int alignment) {
+        vectorNumElems = numElements;
+        prep(4, elementSize * numElements);
+        prep(alignment, elementSize * numElements);
+    }
+
+    private int endVector() {
+        addInt(vectorNumElems);
+        return offset();
+    }
+
+    void startTable(int numFields) {
+        vtable = new int[numFields];
+        objectStart = offset();
+    }
+
+    void addField(int field, byte value) {
+        addByte(value);
+        vtable[field] = offset();
+    }
+
+    void addField(int field, boolean value) {
+        addByte(value ? (byte) 1 : (byte) 0);
+        vtable[field] = offset();
+    }
+
+    void addField(int field, short value) {
+        addShort(value);
+        vtable[field] = offset();
+    }
+
+    void addField(int field, int value) {
+        addInt(value);
+        vtable[field] = offset();
+    }
+
+    void addField(int field, long value) {
+        addLong(value);
+        vtable[field] = offset();
+    }
+
+    void addOffsetField(int field, int offset) {
+        addOffset(offset);
+        vtable[field] = offset();
+    }
+
+    int endTable() {
+        addInt(0);
+        int vtableLoc = offset();
+        int numFields = vtable.length;
+        while (numFields > 0 && vtable[numFields - 1] == 0) {
+            numFields--;
+        }
+        for (int i = numFields - 1; i >= 0; i--) {
+            addShort((short) (vtable[i] == 0 ? 0 : vtableLoc - vtable[i]));
+        }
+        addShort((short) (vtableLoc - objectStart));
+        addShort((short) ((numFields + 2) * 2));
+        bb.putInt(bb.capacity() - vtableLoc, offset() - vtableLoc);
+        vtable = new int[0];
+        return vtableLoc;
+    }
+
+    /**
+     * Writes the offset of the root table and returns the finished buffer
+     */
+    byte[] finish(int rootTable) {
+        prep(minAlign, 4);
+        addOffset(rootTable);
+        return Arrays.copyOfRange(bb.array(), space, bb.capacity());
+    }
+}
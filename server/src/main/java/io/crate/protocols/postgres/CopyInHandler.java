@@ -0,0 +1,536 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import org.jspecify.annotations.Nullable;
+
+import io.crate.data.Row;
+import io.crate.data.Row1;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.execution.engine.indexing.ShardDMLExecutor;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.session.BaseResultReceiver;
+import io.crate.session.Session;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+
+/**
+ * Receives the rows of a {@code COPY table FROM STDIN} statement sent by the client as CopyData messages.
+ *
+ * <p>
+ * The rows are decoded according to the {@link CopyOptions} and bound as parameters of an already analyzed
+ * {@code INSERT INTO table (columns) VALUES ($1, ...)} statement. Like the batched execution of prepared statements,
+ * the executions are deferred in the {@link Session} and sent as a single bulk request once
+ * {@link #BATCH_SIZE} rows have been received.
+ * </p>
+ *
+ * <p>
+ * Only one bulk request is executed at a time. The next batch is decoded while the current one is executing,
+ * if it is full as well the channel stops reading until the current one finishes.
+ * </p>
+ *
+ * All methods must be called from the event loop of the channel.
+ */
+class CopyInHandler {
+
+    static final int BATCH_SIZE = ShardDMLExecutor.DEFAULT_BULK_SIZE;
+
+    private static final String PORTAL_NAME = "";
+
+    private final Session session;
+    private final Channel channel;
+    private final String statementName;
+    private final List<String> columnNames;
+    private final List<PGType<?>> columnTypes;
+    private final CopyOptions options;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private final ByteBuf pending = Unpooled.buffer();
+
+    private BatchReceiver batchReceiver = new BatchReceiver();
+    private int deferredRows = 0;
+    private long rowCount = 0;
+    private boolean headerConsumed;
+    private boolean endOfData = false;
+    private boolean done = false;
+
+    @Nullable
+    private CompletableFuture<?> inFlight;
+
+    @Nullable
+    private Throwable failure;
+
+    CopyInHandler(Session session,
+                  Channel channel,
+                  String statementName,
+                  List<String> columnNames,
+                  List<PGType<?>> columnTypes,
+                  CopyOptions options) {
+        this.session = session;
+        this.channel = channel;
+        this.statementName = statementName;
+        this.columnNames = columnNames;
+        this.columnTypes = columnTypes;
+        this.options = options;
+        this.headerConsumed = options.format() != CopyOptions.Format.BINARY && !options.header();
+    }
+
+    /**
+     * @return future completed with the number of inserted rows once all rows have been written,
+     *         or exceptionally if the copy failed.
+     */
+    CompletableFuture<Long> completionFuture() {
+        return result;
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     */
+    void copyData(ByteBuf data) {
+        if (done) {
+            return;
+        }
+        try {
+            if (!endOfData) {
+                pending.writeBytes(data);
+                decodeRows(false);
+            }
+            maybeExecuteBatch();
+            if (inFlight != null && deferredRows >= BATCH_SIZE) {
+                channel.config().setAutoRead(false);
+            }
+        } catch (Throwable t) {
+            abort(t);
+        }
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    void copyDone() {
+        if (done) {
+            return;
+        }
+        try {
+            if (!endOfData) {
+                decodeRows(true);
+            }
+            done = true;
+            maybeExecuteBatch();
+            maybeFinish();
+        } catch (Throwable t) {
+            abort(t);
+        }
+    }
+
+    /**
+     * CopyFail
+     * | 'f' | int32 len | string errorMessage |
+     */
+    void copyFail(String message) {
+        abort(new IllegalStateException("COPY from stdin failed: " + message));
+    }
+
+    void abort(Throwable t) {
+        if (failure == null) {
+            failure = t;
+        }
+        session.resetDeferredExecutions();
+        deferredRows = 0;
+        done = true;
+        maybeFinish();
+    }
+
+    private void maybeExecuteBatch() {
+        if (inFlight != null || failure != null) {
+            return;
+        }
+        if (deferredRows >= BATCH_SIZE || (done && deferredRows > 0)) {
+            deferredRows = 0;
+            BatchReceiver executing = batchReceiver;
+            batchReceiver = new BatchReceiver();
+            inFlight = session.sync(true);
+            inFlight.whenComplete((_, t) -> channel.eventLoop().execute(() -> onBatchDone(executing, t)));
+        }
+    }
+
+    private void onBatchDone(BatchReceiver executed, @Nullable Throwable t) {
+        inFlight = null;
+        rowCount += executed.rowCount;
+        if (t != null || executed.failure != null) {
+            abort(t == null ? executed.failure : SQLExceptions.unwrap(t));
+            return;
+        }
+        channel.config().setAutoRead(true);
+        try {
+            maybeExecuteBatch();
+            maybeFinish();
+        } catch (Throwable e) {
+            abort(e);
+        }
+    }
+
+    private void maybeFinish() {
+        if (!done || inFlight != null || result.isDone()) {
+            return;
+        }
+        channel.config().setAutoRead(true);
+        pending.release();
+        if (failure == null) {
+            result.complete(rowCount);
+        } else {
+            result.completeExceptionally(failure);
+        }
+    }
+
+    private void decodeRows(boolean eof) {
+        if (options.format() == CopyOptions.Format.BINARY) {
+            decodeBinaryRows(eof);
+        } else {
+            decodeDelimitedRows(eof);
+        }
+        if (endOfData) {
+            pending.clear();
+        } else {
+            pending.discardReadBytes();
+        }
+    }
+
+    private void decodeDelimitedRows(boolean eof) {
+        boolean csv = options.format() == CopyOptions.Format.CSV;
+        while (pending.isReadable() && !endOfData) {
+            int start = pending.readerIndex();
+            int end = csv ? csvRecordEnd(start) : pending.indexOf(start, pending.writerIndex(), (byte) '\n');
+            if (end == -1) {
+                if (!eof) {
+                    return;
+                }
+                end = pending.writerIndex();
+            }
+            String line = pending.toString(start, end - start, StandardCharsets.UTF_8);
+            pending.readerIndex(Math.min(end + 1, pending.writerIndex()));
+            if (line.endsWith("\r")) {
+                line = line.substring(0, line.length() - 1);
+            }
+            if (line.equals("\\.")) {
+                endOfData = true;
+            } else if (!headerConsumed) {
+                headerConsumed = true;
+            } else {
+                List<String> values = csv ? splitCsv(line) : splitText(line);
+                addRow(values);
+            }
+        }
+    }
+
+    /**
+     * @return index of the newline terminating the record starting at {@code start} or -1 if the record is incomplete.
+     *         Newlines within quoted values are part of the value.
+     */
+    private int csvRecordEnd(int start) {
+        boolean inQuotes = false;
+        for (int i = start; i < pending.writerIndex(); i++) {
+            byte b = pending.getByte(i);
+            if (b == CopyOptions.QUOTE) {
+                inQuotes = !inQuotes;
+            } else if (b == '\n' && !inQuotes) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private List<String> splitText(String line) {
+        List<String> values = new ArrayList<>(columnTypes.size());
+        char delimiter = options.delimiter();
+        int fieldStart = 0;
+        for (int i = 0; i <= line.length(); i++) {
+            if (i == line.length() || line.charAt(i) == delimiter) {
+                String raw = line.substring(fieldStart, i);
+                values.add(raw.equals(options.nullString()) ? null : unescapeText(raw));
+                fieldStart = i + 1;
+            } else if (line.charAt(i) == '\\') {
+                i++;
+            }
+        }
+        return values;
+    }
+
+    private static String unescapeText(String raw) {
+        int backslash = raw.indexOf('\\');
+        if (backslash == -1) {
+            return raw;
+        }
+        StringBuilder sb = new StringBuilder(raw.length());
+        sb.append(raw, 0, backslash);
+        for (int i = backslash; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c != '\\' || i + 1 == raw.length()) {
+                sb.append(c);
+                continue;
+            }
+            char next = raw.charAt(++i);
+            switch (next) {
+                case 'b' -> sb.append('\b');
+                case 'f' -> sb.append('\f');
+                case 'n' -> sb.append('\n');
+                case 'r' -> sb.append('\r');
+                case 't' -> sb.append('\t');
+                case 'v' -> sb.append('\u000B');
+                case 'x' -> {
+                    int end = i + 1;
+                    while (end < raw.length() && end < i + 3 && Character.digit(raw.charAt(end), 16) != -1) {
+                        end++;
+                    }
+                    if (end == i + 1) {
+                        sb.append(next);
+                    } else {
+                        sb.append((char) Integer.parseInt(raw.substring(i + 1, end), 16));
+                        i = end - 1;
+                    }
+                }
+                default -> {
+                    if (next >= '0' && next <= '7') {
+                        int end = i + 1;
+                        while (end < raw.length() && end < i + 3 && raw.charAt(end) >= '0' && raw.charAt(end) <= '7') {
+                            end++;
+                        }
+                        sb.append((char) Integer.parseInt(raw.substring(i, end), 8));
+                        i = end - 1;
+                    } else {
+                        sb.append(next);
+                    }
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>(columnTypes.size());
+        char delimiter = options.delimiter();
+        StringBuilder sb = new StringBuilder();
+        boolean inQuotes = false;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c != CopyOptions.QUOTE) {
+                    sb.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == CopyOptions.QUOTE) {
+                    sb.append(c);
+                    i++;
+                } else {
+                    inQuotes = false;
+                }
+            } else if (c == CopyOptions.QUOTE) {
+                inQuotes = true;
+                quoted = true;
+            } else if (c == delimiter) {
+                addCsvValue(values, sb.toString(), quoted);
+                sb.setLength(0);
+                quoted = false;
+            } else {
+                sb.append(c);
+            }
+        }
+        if (inQuotes) {
+            throw new IllegalArgumentException("Unterminated CSV quoted field in COPY data");
+        }
+        addCsvValue(values, sb.toString(), quoted);
+        return values;
+    }
+
+    private void addCsvValue(List<String> values, String value, boolean quoted) {
+        // A quoted value is never NULL, this allows to distinguish an empty string from NULL using the default options
+        values.add(!quoted && value.equals(options.nullString()) ? null : value);
+    }
+
+    private void addRow(List<String> values) {
+        ensureNumColumns(values.size());
+        List<Object> params = new ArrayList<>(values.size());
+        for (int i = 0; i < values.size(); i++) {
+            String value = values.get(i);
+            if (value == null) {
+                params.add(null);
+            } else {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                PGType<?> pgType = columnTypes.get(i);
+                params.add(pgType.readTextValue(Unpooled.wrappedBuffer(bytes), bytes.length, session.relationOidResolver()));
+            }
+        }
+        deferRow(params);
+    }
+
+    private void decodeBinaryRows(boolean eof) {
+        if (!headerConsumed && !readBinaryHeader()) {
+            if (eof) {
+                throw new IllegalArgumentException("COPY file signature not recognized");
+            }
+            return;
+        }
+        while (pending.readableBytes() >= 2 && !endOfData) {
+            int start = pending.readerIndex();
+            short numFields = pending.getShort(start);
+            if (numFields == -1) {
+                endOfData = true;
+                return;
+            }
+            if (!isTupleComplete(start, numFields)) {
+                break;
+            }
+            ensureNumColumns(numFields);
+            pending.skipBytes(2);
+            List<Object> params = new ArrayList<>(numFields);
+            for (int i = 0; i < numFields; i++) {
+                int valueLength = pending.readInt();
+                if (valueLength == -1) {
+                    params.add(null);
+                } else {
+                    int valueEnd = pending.readerIndex() + valueLength;
+                    params.add(columnTypes.get(i).readBinaryValue(pending, valueLength));
+                    pending.readerIndex(valueEnd);
+                }
+            }
+            deferRow(params);
+        }
+        if (eof && pending.isReadable()) {
+            throw new IllegalArgumentException("Unexpected EOF in COPY data");
+        }
+    }
+
+    /**
+     * | byte11 signature | int32 flags | int32 headerExtensionLength | byteN headerExtension |
+     *
+     * @return true if the header was complete and has been consumed
+     */
+    private boolean readBinaryHeader() {
+        int signatureLength = CopyOutReceiver.BINARY_SIGNATURE.length;
+        if (pending.readableBytes() < signatureLength + 8) {
+            return false;
+        }
+        int start = pending.readerIndex();
+        for (int i = 0; i < signatureLength; i++) {
+            if (pending.getByte(start + i) != CopyOutReceiver.BINARY_SIGNATURE[i]) {
+                throw new IllegalArgumentException("COPY file signature not recognized");
+            }
+        }
+        int extensionLength = pending.getInt(start + signatureLength + 4);
+        if (pending.readableBytes() < signatureLength + 8 + extensionLength) {
+            return false;
+        }
+        pending.skipBytes(signatureLength + 8 + extensionLength);
+        headerConsumed = true;
+        return true;
+    }
+
+    private boolean isTupleComplete(int start, int numFields) {
+        int idx = start + 2;
+        for (int i = 0; i < numFields; i++) {
+            if (pending.writerIndex() - idx < 4) {
+                return false;
+            }
+            int valueLength = pending.getInt(idx);
+            idx += 4;
+            if (valueLength > 0) {
+                if (pending.writerIndex() - idx < valueLength) {
+                    return false;
+                }
+                idx += valueLength;
+            }
+        }
+        return true;
+    }
+
+    private void ensureNumColumns(int numValues) {
+        if (numValues < columnTypes.size()) {
+            throw new IllegalArgumentException(String.format(
+                Locale.ENGLISH,
+                "Missing data for column \"%s\" in COPY data",
+                columnNames.get(numValues)));
+        }
+        if (numValues > columnTypes.size()) {
+            throw new IllegalArgumentException("Extra data after last expected column in COPY data");
+        }
+    }
+
+    private void deferRow(List<Object> params) {
+        session.bind(PORTAL_NAME, statementName, params, null);
+        session.execute(PORTAL_NAME, 0, batchReceiver);
+        batchReceiver.numRows++;
+        deferredRows++;
+    }
+
+    /**
+     * Shared by all rows of a batch. The bulk execution only completes after the receivers of all rows finished,
+     * so the completion of this receiver is delayed until the last row finished.
+     */
+    private static class BatchReceiver extends BaseResultReceiver {
+
+        private int numRows = 0;
+        private long rowCount = 0;
+
+        @Nullable
+        private Throwable failure;
+
+        @Override
+        @Nullable
+        public CompletableFuture<Void> setNextRow(Row row) {
+            long count = (long) row.get(0);
+            Throwable rowFailure = (Throwable) row.get(1);
+            if (rowFailure != null || count == Row1.ERROR) {
+                if (failure == null) {
+                    failure = rowFailure == null
+                        ? new IllegalStateException("Failed to insert row of COPY data")
+                        : rowFailure;
+                }
+            } else if (count > 0) {
+                rowCount += count;
+            }
+            return null;
+        }
+
+        @Override
+        public void allFinished() {
+            numRows--;
+            if (numRows == 0) {
+                super.allFinished();
+            }
+        }
+
+        @Override
+        public void fail(Throwable t) {
+            numRows--;
+            if (numRows == 0) {
+                super.fail(t);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.util.List;
+import java.util.Locale;
+
+import io.crate.sql.tree.BooleanLiteral;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.GenericProperties;
+import io.crate.sql.tree.QualifiedNameReference;
+import io.crate.sql.tree.StringLiteral;
+
+/**
+ * Options of {@code COPY ... FROM STDIN} and {@code COPY ... TO STDOUT}
+ *
+ * <pre>
+ *  format      text | csv | binary (default text)
+ *  delimiter   single character separating the columns (default tab for text, comma for csv)
+ *  null        string representing a NULL value (default \N for text, empty unquoted string for csv)
+ *  header      boolean, only allowed for csv. Skips (FROM) or writes (TO) a header line.
+ * </pre>
+ */
+record CopyOptions(Format format, char delimiter, String nullString, boolean header) {
+
+    static final char QUOTE = '"';
+
+    private static final List<String> SUPPORTED_OPTIONS = List.of("format", "delimiter", "null", "header");
+
+    enum Format {
+        TEXT,
+        CSV,
+        BINARY;
+
+        /**
+         * Format code used in the CopyInResponse and CopyOutResponse messages
+         */
+        byte code() {
+            return this == BINARY ? (byte) 1 : (byte) 0;
+        }
+    }
+
+    static CopyOptions of(GenericProperties<Expression> properties) {
+        properties.ensureContainsOnly(SUPPORTED_OPTIONS);
+        Expression formatExpr = properties.get("format");
+        Format format = formatExpr == null ? Format.TEXT : format(stringValue("format", formatExpr));
+
+        Expression headerExpr = properties.get("header");
+        boolean header = headerExpr != null && booleanValue(headerExpr);
+        if (header && format != Format.CSV) {
+            throw new IllegalArgumentException("COPY option 'header' is only available using the csv format");
+        }
+
+        Expression delimiterExpr = properties.get("delimiter");
+        char delimiter = format == Format.CSV ? ',' : '\t';
+        if (delimiterExpr != null) {
+            if (format == Format.BINARY) {
+                throw new IllegalArgumentException("Cannot specify COPY option 'delimiter' in binary format");
+            }
+            String value = stringValue("delimiter", delimiterExpr);
+            if (value.length() != 1 || value.charAt(0) > 127) {
+                throw new IllegalArgumentException("COPY option 'delimiter' must be a single one-byte character");
+            }
+            delimiter = value.charAt(0);
+            if (delimiter == '\r' || delimiter == '\n' || delimiter == '\\' || delimiter == QUOTE) {
+                throw new IllegalArgumentException("COPY option 'delimiter' cannot be '" + delimiter + "'");
+            }
+        }
+
+        Expression nullExpr = properties.get("null");
+        String nullString = format == Format.CSV ? "" : "\\N";
+        if (nullExpr != null) {
+            if (format == Format.BINARY) {
+                throw new IllegalArgumentException("Cannot specify COPY option 'null' in binary format");
+            }
+            nullString = stringValue("null", nullExpr);
+        }
+        return new CopyOptions(format, delimiter, nullString, header);
+    }
+
+    private static Format format(String value) {
+        return switch (value.toLowerCase(Locale.ENGLISH)) {
+            case "text" -> Format.TEXT;
+            case "csv" -> Format.CSV;
+            case "binary" -> Format.BINARY;
+            default -> throw new IllegalArgumentException(
+                "COPY format '" + value + "' is not supported. Must be one of [text, csv, binary]");
+        };
+    }
+
+    private static String stringValue(String option, Expression expression) {
+        return switch (expression) {
+            case StringLiteral literal -> literal.getValue();
+            case QualifiedNameReference ref -> ref.getName().toString();
+            default -> throw new IllegalArgumentException(
+                "Invalid value for COPY option '" + option + "': " + expression);
+        };
+    }
+
+    private static boolean booleanValue(Expression expression) {
+        return switch (expression) {
+            case BooleanLiteral literal -> literal.getValue();
+            case StringLiteral literal -> Boolean.parseBoolean(literal.getValue());
+            default -> throw new IllegalArgumentException("Invalid value for COPY option 'header': " + expression);
+        };
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.jspecify.annotations.Nullable;
+
+import io.crate.auth.AccessControl;
+import io.crate.data.Row;
+import io.crate.protocols.postgres.DelayableWriteChannel.DelayedWrites;
+import io.crate.protocols.postgres.types.PGType;
+import io.crate.session.BaseResultReceiver;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+
+/**
+ * Streams the result of a {@code COPY (query) TO STDOUT} statement to the client.
+ * Each row is sent as a CopyData message encoded in the format of the {@link CopyOptions}.
+ * The CopyOutResponse must have been sent before the first row arrives.
+ */
+class CopyOutReceiver extends BaseResultReceiver {
+
+    /**
+     * Signature of the binary COPY format, followed by the int32 flags field and the int32 header extension length
+     */
+    static final byte[] BINARY_SIGNATURE = new byte[] {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+
+    private final DelayableWriteChannel channel;
+    private final DelayedWrites delayedWrites;
+    private final Channel directChannel;
+    private final AccessControl accessControl;
+    private final List<PGType<?>> columnTypes;
+    private final List<String> columnNames;
+    private final CopyOptions options;
+    private final ByteBuf rowBuffer = Unpooled.buffer();
+    private final ByteBuf valueBuffer = Unpooled.buffer();
+    private final StringBuilder sb = new StringBuilder();
+
+    private boolean headerSent = false;
+    private long rowCount = 0;
+
+    CopyOutReceiver(DelayableWriteChannel channel,
+                    DelayedWrites delayedWrites,
+                    AccessControl accessControl,
+                    List<PGType<?>> columnTypes,
+                    List<String> columnNames,
+                    CopyOptions options) {
+        this.channel = channel;
+        this.delayedWrites = delayedWrites;
+        this.directChannel = channel.bypassDelay();
+        this.accessControl = accessControl;
+        this.columnTypes = columnTypes;
+        this.columnNames = columnNames;
+        this.options = options;
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<Void> setNextRow(Row row) {
+        sendHeaderIfNeeded();
+        rowCount++;
+        rowBuffer.clear();
+        if (options.format() == CopyOptions.Format.BINARY) {
+            writeBinary(row);
+        } else {
+            writeDelimited(row);
+        }
+        ChannelFuture sendCopyData = Messages.sendCopyData(directChannel, rowBuffer);
+        CompletableFuture<Void> future;
+        boolean isWritable = directChannel.isWritable();
+        if (isWritable) {
+            future = null;
+        } else {
+            future = new CompletableFuture<>();
+            sendCopyData.addListener(f -> {
+                if (f.isSuccess()) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(f.cause());
+                }
+            });
+        }
+
+        // Same flush strategy as the ResultSetReceiver: every 1000 rows or once the outbound buffer is full
+        if (isWritable == false || rowCount % 1000 == 0) {
+            directChannel.flush();
+        }
+        return future;
+    }
+
+    private void sendHeaderIfNeeded() {
+        if (headerSent) {
+            return;
+        }
+        headerSent = true;
+        rowBuffer.clear();
+        if (options.format() == CopyOptions.Format.BINARY) {
+            rowBuffer.writeBytes(BINARY_SIGNATURE);
+            rowBuffer.writeInt(0);
+            rowBuffer.writeInt(0);
+        } else if (options.header()) {
+            sb.setLength(0);
+            for (int i = 0; i < columnNames.size(); i++) {
+                if (i > 0) {
+                    sb.append(options.delimiter());
+                }
+                appendCsvValue(columnNames.get(i));
+            }
+            sb.append('\n');
+            rowBuffer.writeCharSequence(sb, StandardCharsets.UTF_8);
+        } else {
+            return;
+        }
+        Messages.sendCopyData(directChannel, rowBuffer);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void writeBinary(Row row) {
+        rowBuffer.writeShort(row.numColumns());
+        for (int i = 0; i < row.numColumns(); i++) {
+            Object value = row.get(i);
+            if (value == null) {
+                rowBuffer.writeInt(-1);
+            } else {
+                PGType pgType = columnTypes.get(i);
+                pgType.writeAsBinary(rowBuffer, value);
+            }
+        }
+    }
+
+    private void writeDelimited(Row row) {
+        sb.setLength(0);
+        boolean csv = options.format() == CopyOptions.Format.CSV;
+        for (int i = 0; i < row.numColumns(); i++) {
+            if (i > 0) {
+                sb.append(options.delimiter());
+            }
+            Object value = row.get(i);
+            if (value == null) {
+                sb.append(options.nullString());
+            } else if (csv) {
+                appendCsvValue(textValue(i, value));
+            } else {
+                appendTextValue(textValue(i, value));
+            }
+        }
+        sb.append('\n');
+        rowBuffer.writeCharSequence(sb, StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private String textValue(int column, Object value) {
+        PGType pgType = columnTypes.get(column);
+        valueBuffer.clear();
+        int length = pgType.writeAsText(valueBuffer, value);
+        return valueBuffer.toString(4, length - 4, StandardCharsets.UTF_8);
+    }
+
+    private void appendTextValue(String value) {
+        char delimiter = options.delimiter();
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c == delimiter) {
+                        sb.append('\\');
+                    }
+                    sb.append(c);
+                }
+            }
+        }
+    }
+
+    private void appendCsvValue(String value) {
+        boolean quote = value.equals(options.nullString());
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == options.delimiter() || c == CopyOptions.QUOTE || c == '\n' || c == '\r';
+        }
+        if (quote) {
+            sb.append(CopyOptions.QUOTE);
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == CopyOptions.QUOTE) {
+                    sb.append(CopyOptions.QUOTE);
+                }
+                sb.append(c);
+            }
+            sb.append(CopyOptions.QUOTE);
+        } else {
+            sb.append(value);
+        }
+    }
+
+    @Override
+    public void allFinished() {
+        sendHeaderIfNeeded();
+        if (options.format() == CopyOptions.Format.BINARY) {
+            rowBuffer.clear();
+            rowBuffer.writeShort(-1);
+            Messages.sendCopyData(directChannel, rowBuffer);
+        }
+        Messages.sendCopyDone(directChannel);
+        ChannelFuture sendCommandComplete = Messages.sendCommandComplete(directChannel, "COPY", rowCount);
+        directChannel.flush();
+        sendCommandComplete.addListener(_ -> {
+            channel.writePendingMessages(delayedWrites);
+            channel.flush();
+            super.allFinished();
+        });
+    }
+
+    @Override
+    public void fail(Throwable throwable) {
+        ChannelFuture sendErrorResponse = Messages.sendErrorResponse(directChannel, accessControl, throwable);
+        sendErrorResponse.addListener(_ -> {
+            channel.writePendingMessages(delayedWrites);
+            channel.flush();
+            super.fail(throwable);
+        });
+    }
+
+    @Override
+    public long affectedRowCount() {
+        return rowCount;
+    }
+}
@@ -532,6 +532,66 @@ public final class Messages {
         return sendShortMsg(channel, 's', "sentPortalSuspended");
     }
 
+    /**
+     * CopyInResponse
+     * | 'G' | int32 len | int8 format | int16 numColumns | int16 columnFormat ... |
+     */
+    static ChannelFuture sendCopyInResponse(Channel channel, CopyOptions.Format format, int numColumns) {
+        return sendCopyResponse(channel, 'G', format, numColumns, "sentCopyInResponse");
+    }
+
+    /**
+     * CopyOutResponse
+     * | 'H' | int32 len | int8 format | int16 numColumns | int16 columnFormat ... |
+     */
+    static ChannelFuture sendCopyOutResponse(Channel channel, CopyOptions.Format format, int numColumns) {
+        return sendCopyResponse(channel, 'H', format, numColumns, "sentCopyOutResponse");
+    }
+
+    private static ChannelFuture sendCopyResponse(Channel channel,
+                                                  char msgType,
+                                                  CopyOptions.Format format,
+                                                  int numColumns,
+                                                  String traceLogMsg) {
+        int length = 4 + 1 + 2 + 2 * numColumns;
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte(msgType);
+        buffer.writeInt(length);
+        buffer.writeByte(format.code());
+        buffer.writeShort(numColumns);
+        for (int i = 0; i < numColumns; i++) {
+            buffer.writeShort(format.code());
+        }
+        ChannelFuture channelFuture = channel.write(buffer);
+        if (LOGGER.isTraceEnabled()) {
+            channelFuture.addListener(_ -> LOGGER.trace(traceLogMsg));
+        }
+        return channelFuture;
+    }
+
+    /**
+     * CopyData
+     * | 'd' | int32 len | byteN data |
+     *
+     * @param data the readable bytes are copied into the message, the buffer is not released.
+     */
+    static ChannelFuture sendCopyData(Channel channel, ByteBuf data) {
+        int length = 4 + data.readableBytes();
+        ByteBuf buffer = channel.alloc().buffer(length + 1);
+        buffer.writeByte('d');
+        buffer.writeInt(length);
+        buffer.writeBytes(data, data.readerIndex(), data.readableBytes());
+        return channel.write(buffer);
+    }
+
+    /**
+     * CopyDone
+     * | 'c' | int32 len |
+     */
+    static ChannelFuture sendCopyDone(Channel channel) {
+        return sendShortMsg(channel, 'c', "sentCopyDone");
+    }
+
     /**
      * CloseComplete
      * | '3' | int32 len |
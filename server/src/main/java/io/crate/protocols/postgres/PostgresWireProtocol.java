@@ -30,10 +30,13 @@ import java.net.SocketException;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.BiConsumer;
@@ -69,7 +72,19 @@ import io.crate.session.DescribeResult;
 import io.crate.session.ResultReceiver;
 import io.crate.session.Session;
 import io.crate.session.Sessions;
+import io.crate.sql.tree.AllColumns;
+import io.crate.sql.tree.CopyFromStdin;
+import io.crate.sql.tree.CopyToStdout;
+import io.crate.sql.tree.Expression;
+import io.crate.sql.tree.Insert;
+import io.crate.sql.tree.ParameterExpression;
+import io.crate.sql.tree.Query;
+import io.crate.sql.tree.QuerySpecification;
+import io.crate.sql.tree.Select;
 import io.crate.sql.tree.Statement;
+import io.crate.sql.tree.Table;
+import io.crate.sql.tree.Values;
+import io.crate.sql.tree.ValuesList;
 import io.crate.types.DataType;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
@@ -221,6 +236,9 @@ public class PostgresWireProtocol {
     private AuthenticationContext authContext;
     private Properties properties;
 
+    @Nullable
+    private CopyInHandler copyIn;
+
     PostgresWireProtocol(Sessions sessions,
                          SessionSettingRegistry sessionSettingRegistry,
                          Function<CoordinatorSessionSettings, AccessControl> getAcessControl,
@@ -353,6 +371,10 @@ public class PostgresWireProtocol {
         }
 
         private void dispatchMessage(ByteBuf buffer, DelayableWriteChannel channel) {
+            if (copyIn != null) {
+                dispatchCopyInMessage(buffer, copyIn);
+                return;
+            }
             switch (decoder.msgType()) {
                 case 'Q': // Query (simple)
                     handleSimpleQuery(buffer, channel);
@@ -385,6 +407,12 @@ public class PostgresWireProtocol {
                     closeSession();
                     channel.close();
                     return;
+                case 'd':
+                case 'c':
+                case 'f':
+                    // CopyData, CopyDone and CopyFail are ignored if no COPY FROM STDIN is in progress.
+                    // E.g. if the COPY failed, the client might still send data until it receives the error.
+                    return;
                 default:
                     Messages.sendErrorResponse(
                         channel,
@@ -395,7 +423,38 @@ public class PostgresWireProtocol {
             }
         }
 
+        /**
+         * While a {@code COPY FROM STDIN} is in progress the client may only send CopyData, CopyDone or CopyFail.
+         * Flush and Sync are ignored, any other message aborts the COPY.
+         */
+        private void dispatchCopyInMessage(ByteBuf buffer, CopyInHandler copyIn) {
+            switch (decoder.msgType()) {
+                case 'd':
+                    copyIn.copyData(buffer);
+                    return;
+                case 'c':
+                    copyIn.copyDone();
+                    return;
+                case 'f':
+                    copyIn.copyFail(readCString(buffer));
+                    return;
+                case 'H':
+                case 'S':
+                    return;
+                case 'X':
+                    closeSession();
+                    channel.close();
+                    return;
+                default:
+                    copyIn.abort(new IllegalStateException(
+                        "Unexpected message type '" + (char) decoder.msgType() + "' during COPY from stdin"));
+            }
+        }
+
         private void closeSession() {
+            if (copyIn != null) {
+                copyIn.abort(new IllegalStateException("Session closed during COPY from stdin"));
+            }
             if (session != null) {
                 session.close();
                 session = null;
@@ -836,6 +895,12 @@ public class PostgresWireProtocol {
 
         AccessControl accessControl = getAccessControl.apply(session.sessionSettings());
         try {
+            if (statement instanceof CopyFromStdin copyFromStdin) {
+                return copyFromStdin(copyFromStdin, query, channel, accessControl, timeoutToken);
+            }
+            if (statement instanceof CopyToStdout copyToStdout) {
+                return copyToStdout(copyToStdout, query, channel, accessControl, timeoutToken);
+            }
 
             session.analyze(
                 "",
@@ -885,6 +950,111 @@ public class PostgresWireProtocol {
         }
     }
 
+    /**
+     * Rows are received as CopyData messages after the CopyInResponse, see {@link CopyInHandler}
+     *
+     * <pre>
+     *          |   Q (COPY ... FROM STDIN)        |
+     *          |--------------------------------->|
+     *          |     CopyInResponse               |
+     *          |<---------------------------------|
+     *          |   CopyData                       |
+     *          |--------------------------------->|
+     *          |   CopyDone | CopyFail            |
+     *          |--------------------------------->|
+     *          |  CommandComplete | ErrorResponse |
+     *          |<---------------------------------|
+     * </pre>
+     */
+    private CompletableFuture<?> copyFromStdin(CopyFromStdin copyFromStdin,
+                                               String query,
+                                               DelayableWriteChannel channel,
+                                               AccessControl accessControl,
+                                               Session.TimeoutToken timeoutToken) {
+        CopyOptions options = CopyOptions.of(copyFromStdin.properties());
+        Table<Expression> table = copyFromStdin.table();
+        List<String> columns = copyFromStdin.columns();
+        if (columns.isEmpty()) {
+            Query selectAll = new Query(
+                Optional.empty(),
+                new QuerySpecification(
+                    new Select(false, List.of(new AllColumns())),
+                    List.of(table),
+                    Optional.empty(),
+                    Optional.empty(),
+                    Optional.empty(),
+                    Map.of(),
+                    List.of(),
+                    Optional.empty(),
+                    Optional.empty()),
+                List.of(),
+                Optional.empty(),
+                Optional.empty());
+            session.analyze("", selectAll, List.of(), query, timeoutToken);
+            columns = session.describe('S', "").getFieldNames();
+        }
+        List<Expression> params = new ArrayList<>(columns.size());
+        for (int i = 1; i <= columns.size(); i++) {
+            params.add(new ParameterExpression(i));
+        }
+        Insert<Expression> insert = new Insert<>(
+            table,
+            new Query(
+                Optional.empty(),
+                new Values(List.of(new ValuesList(params))),
+                List.of(),
+                Optional.empty(),
+                Optional.empty()),
+            columns,
+            List.of(),
+            Insert.DuplicateKeyContext.none());
+        session.analyze("", insert, List.of(), query, timeoutToken);
+        List<PGType<?>> columnTypes = Lists.map(
+            Arrays.asList(session.describe('S', "").getParameters()),
+            PGTypes::get);
+
+        CopyInHandler handler = new CopyInHandler(session, channel, "", columns, columnTypes, options);
+        copyIn = handler;
+        Messages.sendCopyInResponse(channel, options.format(), columns.size());
+        channel.flush();
+        return handler.completionFuture().whenComplete((rowCount, t) -> {
+            copyIn = null;
+            if (t == null) {
+                Messages.sendCommandComplete(channel, "COPY", rowCount);
+            } else {
+                Messages.sendErrorResponse(channel, accessControl, t);
+            }
+        });
+    }
+
+    /**
+     * Like a simple query, but the rows are sent as CopyData messages between a CopyOutResponse and CopyDone,
+     * see {@link CopyOutReceiver}
+     */
+    private CompletableFuture<?> copyToStdout(CopyToStdout copyToStdout,
+                                              String query,
+                                              DelayableWriteChannel channel,
+                                              AccessControl accessControl,
+                                              Session.TimeoutToken timeoutToken) {
+        CopyOptions options = CopyOptions.of(copyToStdout.properties());
+        session.analyze("", copyToStdout.query(), List.of(), query, timeoutToken);
+        session.bind("", "", List.of(), null);
+        DescribeResult describeResult = session.describe('P', "");
+        List<Symbol> fields = describeResult.getFields();
+        Messages.sendCopyOutResponse(channel, options.format(), fields.size());
+        DelayedWrites delayedWrites = channel.delayWrites();
+        CopyOutReceiver copyOutReceiver = new CopyOutReceiver(
+            channel,
+            delayedWrites,
+            accessControl,
+            Lists.map(fields, x -> PGTypes.get(x.valueType())),
+            describeResult.getFieldNames(),
+            options
+        );
+        session.execute("", 0, copyOutReceiver);
+        return session.sync(false);
+    }
+
     private void handleCancelRequestBody(ByteBuf buffer, Channel channel) {
         var keyData = KeyData.of(buffer);
 
@@ -0,0 +1,206 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.rest.action;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.data.Row;
+import io.crate.expression.symbol.Symbol;
+import io.crate.expression.symbol.Symbols;
+import io.crate.protocols.arrow.ArrowStreamWriter;
+import io.crate.protocols.http.Headers;
+import io.crate.session.ResultReceiver;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+
+/**
+ * Result receiver for {@code /_sql?format=arrow} requests.
+ *
+ * <p>
+ * The rows are collected into record batches of up to {@link #BATCH_ROWS} rows or {@link #BATCH_BYTES} bytes
+ * and sent using the Arrow IPC streaming format. Like the {@link RestStreamingResultSetReceiver},
+ * the response uses chunked transfer encoding once more than {@code chunkSize} bytes have been written.
+ * </p>
+ *
+ * <p>
+ * The receiver always sends the response itself and completes the {@link #completionFuture()} with {@code null}.
+ * A failure before the first chunk is sent fails the future, so that the {@link SqlHttpHandler} responds
+ * with the regular JSON error. A failure after that point closes the connection, which leaves the
+ * stream without end-of-stream marker.
+ * </p>
+ */
+class RestArrowResultSetReceiver implements ResultReceiver<XContentBuilder> {
+
+    static final int BATCH_ROWS = 64 * 1024;
+    static final long BATCH_BYTES = 4L * 1024 * 1024;
+
+    private final Channel channel;
+    private final HttpVersion httpVersion;
+    private final boolean closeConnection;
+    private final int chunkSize;
+    private final ArrowStreamWriter writer;
+    private final CompletableFuture<XContentBuilder> result = new CompletableFuture<>();
+
+    private ByteBuf buffer;
+    private long rowCount;
+    private boolean streaming = false;
+
+    RestArrowResultSetReceiver(Channel channel,
+                               HttpVersion httpVersion,
+                               boolean closeConnection,
+                               int chunkSize,
+                               ByteBuf resultBuffer,
+                               List<Symbol> outputFields,
+                               List<String> outputFieldNames) {
+        this.channel = channel;
+        this.httpVersion = httpVersion;
+        this.closeConnection = closeConnection;
+        this.chunkSize = chunkSize;
+        this.buffer = resultBuffer;
+        this.writer = new ArrowStreamWriter(outputFieldNames, Symbols.typeView(outputFields));
+        writer.writeSchema(buffer);
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<Void> setNextRow(Row row) {
+        writer.addRow(row);
+        rowCount++;
+        if (writer.numRows() < BATCH_ROWS && writer.sizeInBytes() < BATCH_BYTES) {
+            return null;
+        }
+        writer.writeBatch(buffer);
+        if (buffer.readableBytes() < chunkSize) {
+            return null;
+        }
+        ChannelFuture writeChunk = writeChunk(false);
+        if (channel.isWritable()) {
+            return null;
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        writeChunk.addListener(f -> {
+            if (f.isSuccess()) {
+                future.complete(null);
+            } else {
+                future.completeExceptionally(f.cause());
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public void batchFinished() {
+        fail(new IllegalStateException("Incremental result streaming not supported via HTTP"));
+    }
+
+    @Override
+    public void allFinished() {
+        try {
+            if (writer.numRows() > 0) {
+                writer.writeBatch(buffer);
+            }
+            ArrowStreamWriter.writeEndOfStream(buffer);
+        } catch (Throwable t) {
+            fail(t);
+            return;
+        }
+        if (streaming) {
+            writeChunk(true);
+        } else {
+            DefaultFullHttpResponse response = new DefaultFullHttpResponse(httpVersion, HttpResponseStatus.OK, buffer);
+            response.headers().add(HttpHeaderNames.CONTENT_LENGTH, String.valueOf(buffer.readableBytes()));
+            write(response, true);
+        }
+        result.complete(null);
+    }
+
+    @Override
+    public void fail(Throwable t) {
+        if (!streaming) {
+            result.completeExceptionally(t);
+            return;
+        }
+        buffer.release();
+        channel.close();
+        // The response has been sent partially, there is nothing left for the SqlHttpHandler to do
+        result.complete(null);
+    }
+
+    private ChannelFuture writeChunk(boolean last) {
+        if (!streaming) {
+            streaming = true;
+            DefaultHttpResponse response = new DefaultHttpResponse(httpVersion, HttpResponseStatus.OK);
+            HttpUtil.setTransferEncodingChunked(response, true);
+            write(response, false);
+        }
+        ByteBuf chunk = buffer;
+        if (last) {
+            ChannelFuture future = channel.writeAndFlush(new DefaultLastHttpContent(chunk));
+            if (closeConnection) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+            return future;
+        }
+        buffer = channel.alloc().buffer(chunkSize);
+        return channel.writeAndFlush(new DefaultHttpContent(chunk));
+    }
+
+    private void write(HttpResponse response, boolean flush) {
+        response.headers().add(HttpHeaderNames.CONTENT_TYPE, ArrowStreamWriter.MEDIA_TYPE);
+        if (!closeConnection) {
+            Headers.setKeepAlive(httpVersion, response);
+        }
+        if (!flush) {
+            channel.write(response);
+            return;
+        }
+        ChannelFuture future = channel.writeAndFlush(response);
+        if (closeConnection) {
+            future.addListener(ChannelFutureListener.CLOSE);
+        }
+    }
+
+    @Override
+    public CompletableFuture<XContentBuilder> completionFuture() {
+        return result;
+    }
+
+    @Override
+    public long affectedRowCount() {
+        return rowCount;
+    }
+}
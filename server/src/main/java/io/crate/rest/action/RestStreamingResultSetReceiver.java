@@ -0,0 +1,313 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.rest.action;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.jspecify.annotations.Nullable;
+
+import io.crate.auth.AccessControl;
+import io.crate.data.Row;
+import io.crate.exceptions.SQLExceptions;
+import io.crate.expression.symbol.Symbol;
+import io.crate.protocols.http.Headers;
+import io.crate.session.ResultReceiver;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+
+/**
+ * Result receiver for {@code /_sql?stream} and {@code /_sql?format=ndjson} requests.
+ *
+ * <p>
+ * Instead of building the whole response in memory, the rows are sent using chunked transfer encoding
+ * as soon as {@code chunkSize} bytes have been written. Like the {@code ResultSetReceiver} of the PostgreSQL
+ * wire protocol, the consumer is paused while the channel is not writable.
+ * </p>
+ *
+ * <p>
+ * A result smaller than {@code chunkSize} is sent as regular response by the {@link SqlHttpHandler}:
+ * The {@link #completionFuture()} completes with the builder and the result is in the initial buffer.
+ * Once the first chunk has been sent, the receiver sends the rest of the response itself and the
+ * {@link #completionFuture()} completes with {@code null}. A failure after that point can't change the
+ * response status anymore and is added as {@code error} to the end of the response.
+ * </p>
+ *
+ * <pre>
+ * json:   {"cols": [..], "rows": [[..], [..], ..], "rowcount": n, "duration": ms}
+ *
+ * ndjson: {"cols": [..]}
+ *         [..]
+ *         [..]
+ *         {"rowcount": n, "duration": ms}
+ * </pre>
+ */
+class RestStreamingResultSetReceiver implements ResultReceiver<XContentBuilder> {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+    enum Format {
+        JSON,
+        NDJSON,
+
+        /**
+         * Handled by the {@link RestArrowResultSetReceiver}
+         */
+        ARROW;
+
+        static Format of(String format) {
+            return switch (format.toLowerCase(Locale.ENGLISH)) {
+                case "json" -> JSON;
+                case "ndjson" -> NDJSON;
+                case "arrow" -> ARROW;
+                default -> throw new IllegalArgumentException(
+                    "Unsupported result format '" + format + "'. Must be one of [json, ndjson, arrow]");
+            };
+        }
+    }
+
+    private final Channel channel;
+    private final HttpVersion httpVersion;
+    private final boolean closeConnection;
+    private final AccessControl accessControl;
+    private final Format format;
+    private final int numColumns;
+    private final int chunkSize;
+    private final long startTimeNs;
+    private final ChunkOutputStream out;
+    private final XContentBuilder xContent;
+    private final CompletableFuture<XContentBuilder> result = new CompletableFuture<>();
+
+    @Nullable
+    private final ResultToXContentBuilder jsonBuilder;
+
+    private long rowCount;
+    private boolean streaming = false;
+
+    RestStreamingResultSetReceiver(Channel channel,
+                                   HttpVersion httpVersion,
+                                   boolean closeConnection,
+                                   AccessControl accessControl,
+                                   Format format,
+                                   int chunkSize,
+                                   ByteBuf resultBuffer,
+                                   List<Symbol> outputFields,
+                                   List<String> outputFieldNames,
+                                   long startTimeNs,
+                                   boolean includeTypesOnResponse) throws IOException {
+        this.channel = channel;
+        this.httpVersion = httpVersion;
+        this.closeConnection = closeConnection;
+        this.accessControl = accessControl;
+        this.format = format;
+        this.numColumns = outputFields.size();
+        this.chunkSize = chunkSize;
+        this.startTimeNs = startTimeNs;
+        this.out = new ChunkOutputStream(resultBuffer);
+        this.xContent = new XContentBuilder(JsonXContent.JSON_XCONTENT, out, format == Format.NDJSON ? "\n" : null);
+        ResultToXContentBuilder header = ResultToXContentBuilder.builder(xContent).cols(outputFieldNames);
+        if (includeTypesOnResponse) {
+            header.colTypes(outputFields);
+        }
+        if (format == Format.NDJSON) {
+            header.build();
+            this.jsonBuilder = null;
+        } else {
+            this.jsonBuilder = header.startRows();
+        }
+    }
+
+    @Override
+    @Nullable
+    public CompletableFuture<Void> setNextRow(Row row) {
+        try {
+            if (jsonBuilder == null) {
+                xContent.startArray();
+                for (int i = 0; i < numColumns; i++) {
+                    xContent.value(row.get(i));
+                }
+                xContent.endArray();
+            } else {
+                jsonBuilder.addRow(row, numColumns);
+            }
+            rowCount++;
+            if (out.buffer.readableBytes() < chunkSize) {
+                return null;
+            }
+            xContent.flush();
+            ChannelFuture writeChunk = writeChunk(false);
+            if (channel.isWritable()) {
+                return null;
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            writeChunk.addListener(f -> {
+                if (f.isSuccess()) {
+                    future.complete(null);
+                } else {
+                    future.completeExceptionally(f.cause());
+                }
+            });
+            return future;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void batchFinished() {
+        fail(new IllegalStateException("Incremental result streaming not supported via HTTP"));
+    }
+
+    @Override
+    public void allFinished() {
+        try {
+            if (jsonBuilder == null) {
+                ResultToXContentBuilder.builder(xContent)
+                    .rowCount(rowCount)
+                    .duration(startTimeNs)
+                    .build();
+                out.write('\n');
+            } else {
+                jsonBuilder
+                    .finishRows()
+                    .rowCount(rowCount)
+                    .duration(startTimeNs)
+                    .build();
+            }
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        if (streaming) {
+            writeChunk(true);
+            result.complete(null);
+        } else {
+            result.complete(xContent);
+        }
+    }
+
+    @Override
+    public void fail(Throwable t) {
+        if (!streaming) {
+            result.completeExceptionally(t);
+            return;
+        }
+        try {
+            Throwable throwable = SQLExceptions.prepareForClientTransmission(accessControl, t);
+            HttpError httpError = HttpError.fromThrowable(throwable);
+            if (jsonBuilder == null) {
+                ResultToXContentBuilder.builder(xContent)
+                    .error(httpError, throwable)
+                    .build();
+                out.write('\n');
+            } else {
+                jsonBuilder
+                    .finishRows()
+                    .rowCount(rowCount)
+                    .error(httpError, throwable)
+                    .build();
+            }
+        } catch (IOException e) {
+            t.addSuppressed(e);
+        }
+        writeChunk(true);
+        // The response has been sent, there is nothing left for the SqlHttpHandler to do
+        result.complete(null);
+    }
+
+    private ChannelFuture writeChunk(boolean last) {
+        if (!streaming) {
+            streaming = true;
+            DefaultHttpResponse response = new DefaultHttpResponse(httpVersion, HttpResponseStatus.OK);
+            response.headers().add(
+                HttpHeaderNames.CONTENT_TYPE,
+                format == Format.NDJSON ? NDJSON_MEDIA_TYPE : XContentType.JSON.mediaType());
+            HttpUtil.setTransferEncodingChunked(response, true);
+            if (!closeConnection) {
+                Headers.setKeepAlive(httpVersion, response);
+            }
+            channel.write(response);
+        }
+        ByteBuf chunk = out.buffer;
+        if (last) {
+            out.buffer = null;
+            ChannelFuture future = channel.writeAndFlush(new DefaultLastHttpContent(chunk));
+            if (closeConnection) {
+                future.addListener(ChannelFutureListener.CLOSE);
+            }
+            return future;
+        }
+        out.buffer = channel.alloc().buffer(chunkSize);
+        return channel.writeAndFlush(new DefaultHttpContent(chunk));
+    }
+
+    @Override
+    public CompletableFuture<XContentBuilder> completionFuture() {
+        return result;
+    }
+
+    @Override
+    public long affectedRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * The buffer is replaced after each chunk. The memory used for the result is therefore bounded by
+     * the chunk size and the channel outbound buffer.
+     */
+    private static class ChunkOutputStream extends OutputStream {
+
+        private ByteBuf buffer;
+
+        ChunkOutputStream(ByteBuf buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.writeByte(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            buffer.writeBytes(b, off, len);
+        }
+    }
+}
@@ -156,6 +156,17 @@ class ResultToXContentBuilder {
         return this;
     }
 
+    /**
+     * Adds the error of a result that failed after parts of it have already been sent to the client
+     */
+    ResultToXContentBuilder error(HttpError httpError, Throwable t) throws IOException {
+        builder.startObject(FIELDS.ERROR);
+        builder.field(FIELDS.ERROR_MESSAGE, userFriendlyMessage(t));
+        builder.field(FIELDS.ERROR_CODE, httpError.errorCode());
+        builder.endObject();
+        return this;
+    }
+
     XContentBuilder build() throws IOException {
         builder.endObject();
         builder.flush();
@@ -133,11 +133,14 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             throw ex;
         }
 
-        ByteBuf content = request.content();
         ByteBuf resultBuffer = ctx.alloc().buffer();
-        handleSQLRequest(session, resultBuffer, content, paramContainFlag(parameters, "types"))
-            .whenComplete((_, t) -> {
+        handleSQLRequest(session, ctx, request, resultBuffer, parameters)
+            .whenComplete((builder, t) -> {
                 try {
+                    if (builder == null && t == null) {
+                        // Streamed by the RestStreamingResultSetReceiver, the response has already been sent
+                        return;
+                    }
                     sendResponse(ctx, request, parameters, resultBuffer, t);
                 } catch (Throwable ex) {
                     resultBuffer.release();
@@ -150,6 +153,22 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
 
     }
 
+    /**
+     * @return the format to stream the result set in, or null if the result must be sent as a single response.
+     *         {@code ndjson} and {@code arrow} are always streamed, {@code json} only if requested using "/_sql?stream"
+     */
+    @Nullable
+    private static RestStreamingResultSetReceiver.Format streamFormat(Map<String, List<String>> parameters) {
+        List<String> values = parameters.get("format");
+        RestStreamingResultSetReceiver.Format format = values == null || values.isEmpty()
+            ? RestStreamingResultSetReceiver.Format.JSON
+            : RestStreamingResultSetReceiver.Format.of(values.get(0));
+        if (format != RestStreamingResultSetReceiver.Format.JSON || paramContainFlag(parameters, "stream")) {
+            return format;
+        }
+        return null;
+    }
+
     /**
      * @return true if the parameters contains a flag entry (e.g. "/_sql?flag" or "/_sql?flag=true")
      */
@@ -178,7 +197,11 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         if (t == null) {
             content = result;
             resp = new DefaultFullHttpResponse(httpVersion, HttpResponseStatus.OK, content);
-            resp.headers().add(HttpHeaderNames.CONTENT_TYPE, XContentType.JSON.mediaType());
+            resp.headers().add(
+                HttpHeaderNames.CONTENT_TYPE,
+                streamFormat(parameters) == RestStreamingResultSetReceiver.Format.NDJSON
+                    ? RestStreamingResultSetReceiver.NDJSON_MEDIA_TYPE
+                    : XContentType.JSON.mediaType());
         } else {
             // In case of partial success buffer can contain some data
             // Clearing buffer to ensure that error is not mixed with partial result.
@@ -213,13 +236,20 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         ctx.writeAndFlush(resp, promise);
     }
 
+    /**
+     * @return future completed with the builder of the response, or with null if the response
+     *         has already been streamed to the client.
+     */
     private CompletableFuture<XContentBuilder> handleSQLRequest(Session session,
+                                                                ChannelHandlerContext ctx,
+                                                                FullHttpRequest request,
                                                                 ByteBuf resultBuffer,
-                                                                ByteBuf content,
-                                                                boolean includeTypes) {
+                                                                Map<String, List<String>> parameters) {
         SQLRequestParseContext parseContext;
+        RestStreamingResultSetReceiver.Format streamFormat;
         try {
-            parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(content));
+            parseContext = SQLRequestParser.parseSource(Netty4Utils.toBytesReference(request.content()));
+            streamFormat = streamFormat(parameters);
         } catch (Throwable t) {
             return CompletableFuture.failedFuture(t);
         }
@@ -232,6 +262,10 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
         try {
             String stmt = parseContext.stmt();
             if (args != null || bulkArgs == null) {
+                boolean includeTypes = paramContainFlag(parameters, "types");
+                if (streamFormat != null) {
+                    return executeStreamingRequest(session, ctx, request, streamFormat, resultBuffer, stmt, args, includeTypes);
+                }
                 return executeSimpleRequest(session, resultBuffer, stmt, args, includeTypes);
             } else {
                 return executeBulkRequest(session, resultBuffer, stmt, bulkArgs);
@@ -288,6 +322,67 @@ public class SqlHttpHandler extends SimpleChannelInboundHandler<FullHttpRequest>
             .thenCompose(_ -> resultReceiver.completionFuture());
     }
 
+    private CompletableFuture<XContentBuilder> executeStreamingRequest(Session session,
+                                                                       ChannelHandlerContext ctx,
+                                                                       FullHttpRequest request,
+                                                                       RestStreamingResultSetReceiver.Format format,
+                                                                       ByteBuf resultBuffer,
+                                                                       String stmt,
+                                                                       List<Object> args,
+                                                                       boolean includeTypes) throws IOException {
+        long startTimeInNs = System.nanoTime();
+        session.parse(UNNAMED, stmt, emptyList());
+        session.bind(UNNAMED, UNNAMED, args == null ? emptyList() : args, null);
+        DescribeResult description = session.describe('P', UNNAMED);
+        List<Symbol> resultFields = description.getFields();
+        ResultReceiver<XContentBuilder> resultReceiver;
+        if (resultFields == null) {
+            resultReceiver = new RestRowCountReceiver(resultBuffer, startTimeInNs, includeTypes);
+        } else {
+            // Only the first chunk is accounted, the following chunks are released once written to the channel.
+            // HTTP/1.0 doesn't support chunked transfer encoding, the whole result is accounted and sent at once.
+            HttpVersion httpVersion = request.protocolVersion();
+            int chunkSize = httpVersion.equals(HttpVersion.HTTP_1_0)
+                ? Integer.MAX_VALUE
+                : RestStreamingResultSetReceiver.CHUNK_SIZE;
+            CircuitBreaker breaker = circuitBreakerProvider.apply(CircuitBreaker.QUERY);
+            RamAccounting ramAccounting = new BlockBasedRamAccounting(
+                b -> breaker.addEstimateBytesAndMaybeBreak(b, "http-result"),
+                MAX_BLOCK_SIZE_IN_BYTES);
+            ByteBuf accountedBuffer = AccountedByteBuf.of(resultBuffer, ramAccounting);
+            if (format == RestStreamingResultSetReceiver.Format.ARROW) {
+                resultReceiver = new RestArrowResultSetReceiver(
+                    ctx.channel(),
+                    httpVersion,
+                    isCloseConnection(request),
+                    chunkSize,
+                    accountedBuffer,
+                    resultFields,
+                    description.getFieldNames()
+                );
+            } else {
+                var sessionSettings = session.sessionSettings();
+                resultReceiver = new RestStreamingResultSetReceiver(
+                    ctx.channel(),
+                    httpVersion,
+                    isCloseConnection(request),
+                    roles.getAccessControl(sessionSettings.authenticatedUser(), sessionSettings.sessionUser()),
+                    format,
+                    chunkSize,
+                    accountedBuffer,
+                    resultFields,
+                    description.getFieldNames(),
+                    startTimeInNs,
+                    includeTypes
+                );
+            }
+            resultReceiver.completionFuture().whenComplete((_, _) -> ramAccounting.close());
+        }
+        session.execute(UNNAMED, 0, resultReceiver);
+        return session.sync(false)
+            .thenCompose(_ -> resultReceiver.completionFuture());
+    }
+
     private CompletableFuture<XContentBuilder> executeBulkRequest(Session session,
                                                                   ByteBuf result,
                                                                   String stmt,
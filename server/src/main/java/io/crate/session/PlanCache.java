@@ -0,0 +1,211 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.ClusterChangedEvent;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateListener;
+import org.jspecify.annotations.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.crate.analyze.AnalyzedStatement;
+import io.crate.analyze.relations.AnalyzedRelation;
+import io.crate.metadata.settings.CoordinatorSessionSettings;
+import io.crate.planner.Plan;
+import io.crate.sql.tree.Statement;
+import io.crate.types.DataType;
+
+/**
+ * Node-wide cache of parsed and analyzed SELECT statements and their logical plans, shared by all sessions.
+ * <p>
+ * Entries are keyed by the statement text, the parameter type hints and the session settings and users
+ * which can influence analysis or planning.
+ * An entry is only valid for the cluster state metadata version and minimum node version it was analyzed with;
+ * stale entries are discarded on lookup and the whole cache is cleared on metadata or node changes.
+ * </p>
+ */
+public class PlanCache implements ClusterStateListener {
+
+    private final int maxSize;
+    private final Cache<Key, Entry> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PlanCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    public record Key(String query, List<DataType<?>> paramTypes, Map<String, Object> settings) {
+
+        static Key of(String query, List<DataType<?>> paramTypes, CoordinatorSessionSettings sessionSettings) {
+            // paramTypes may contain nulls for parameters without a type hint, List.copyOf would reject them
+            return new Key(query, new ArrayList<>(paramTypes), settingsOf(sessionSettings));
+        }
+    }
+
+    public static final class Entry {
+
+        private final Key key;
+        private final Statement statement;
+        private final AnalyzedStatement analyzedStatement;
+        private final DataType<?>[] parameterTypes;
+        private final long metadataVersion;
+        private final Version minNodeVersion;
+
+        @Nullable
+        private volatile Plan plan;
+
+        private Entry(Key key,
+                      Statement statement,
+                      AnalyzedStatement analyzedStatement,
+                      DataType<?>[] parameterTypes,
+                      ClusterState clusterState) {
+            this.key = key;
+            this.statement = statement;
+            this.analyzedStatement = analyzedStatement;
+            this.parameterTypes = parameterTypes;
+            this.metadataVersion = clusterState.metadata().version();
+            this.minNodeVersion = clusterState.nodes().getMinNodeVersion();
+        }
+
+        public Statement statement() {
+            return statement;
+        }
+
+        public AnalyzedStatement analyzedStatement() {
+            return analyzedStatement;
+        }
+
+        DataType<?>[] parameterTypes() {
+            return parameterTypes;
+        }
+
+        boolean isValidFor(ClusterState clusterState) {
+            return metadataVersion == clusterState.metadata().version()
+                && Objects.equals(minNodeVersion, clusterState.nodes().getMinNodeVersion());
+        }
+
+        /**
+         * Returns the cached plan or creates it using {@code planner}.
+         * The plan is only retained if the entry is still valid for the cluster state the plan is created with
+         * and if the session settings still match the ones the statement was analyzed with.
+         */
+        Plan plan(ClusterState clusterState, CoordinatorSessionSettings sessionSettings, Supplier<Plan> planner) {
+            Plan cachedPlan = plan;
+            boolean valid = isValidFor(clusterState) && key.settings.equals(settingsOf(sessionSettings));
+            if (cachedPlan != null && valid) {
+                return cachedPlan;
+            }
+            Plan newPlan = planner.get();
+            if (valid) {
+                plan = newPlan;
+            }
+            return newPlan;
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxSize > 0;
+    }
+
+    /**
+     * @return the entry for the given key if it exists and is still valid for the current cluster state, otherwise null.
+     */
+    @Nullable
+    Entry get(Key key, ClusterState clusterState) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (!entry.isValidFor(clusterState)) {
+            cache.asMap().remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * Caches the analyzed statement if it is a SELECT statement.
+     *
+     * @param clusterState the cluster state retrieved <b>before</b> the statement got analyzed.
+     * @return the new entry or null if the statement cannot be cached.
+     */
+    @Nullable
+    Entry put(Key key, ClusterState clusterState, PreparedStmt preparedStmt) {
+        if (!(preparedStmt.analyzedStatement() instanceof AnalyzedRelation)) {
+            return null;
+        }
+        Entry entry = new Entry(
+            key,
+            preparedStmt.parsedStatement(),
+            preparedStmt.analyzedStatement(),
+            preparedStmt.parameterTypes(),
+            clusterState
+        );
+        cache.put(key, entry);
+        return entry;
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public PlanCacheStats stats() {
+        return new PlanCacheStats(
+            cache.estimatedSize(),
+            hits.sum(),
+            misses.sum(),
+            cache.stats().evictionCount()
+        );
+    }
+
+    @Override
+    public void clusterChanged(ClusterChangedEvent event) {
+        if (event.metadataChanged() || event.nodesChanged()) {
+            cache.invalidateAll();
+        }
+    }
+
+    private static Map<String, Object> settingsOf(CoordinatorSessionSettings sessionSettings) {
+        Map<String, Object> settings = sessionSettings.toMap();
+        settings.put("authenticated_user", sessionSettings.authenticatedUser().name());
+        settings.put("session_user", sessionSettings.sessionUser().name());
+        return settings;
+    }
+}
@@ -21,6 +21,8 @@
 
 package io.crate.session;
 
+import org.jspecify.annotations.Nullable;
+
 import io.crate.analyze.AnalyzedStatement;
 import io.crate.analyze.ParamTypeHints;
 import io.crate.sql.tree.Statement;
@@ -33,17 +35,40 @@ public class PreparedStmt {
     private final String rawStatement;
     private final DataType<?>[] describedParameterTypes;
     private final Session.TimeoutToken timeoutToken;
+    @Nullable
+    private final PlanCache.Entry planCacheEntry;
 
     PreparedStmt(Statement parsedStatement,
                  AnalyzedStatement analyzedStatement,
                  String query,
                  DataType<?>[] parameterTypes,
                  Session.TimeoutToken timeoutToken) {
+        this(parsedStatement, analyzedStatement, query, parameterTypes, timeoutToken, null);
+    }
+
+    PreparedStmt(PlanCache.Entry planCacheEntry, String query, Session.TimeoutToken timeoutToken) {
+        this(
+            planCacheEntry.statement(),
+            planCacheEntry.analyzedStatement(),
+            query,
+            planCacheEntry.parameterTypes(),
+            timeoutToken,
+            planCacheEntry
+        );
+    }
+
+    private PreparedStmt(Statement parsedStatement,
+                         AnalyzedStatement analyzedStatement,
+                         String query,
+                         DataType<?>[] parameterTypes,
+                         Session.TimeoutToken timeoutToken,
+                         @Nullable PlanCache.Entry planCacheEntry) {
         this.parsedStatement = parsedStatement;
         this.analyzedStatement = analyzedStatement;
         this.rawStatement = query;
         this.describedParameterTypes = parameterTypes;
         this.timeoutToken = timeoutToken;
+        this.planCacheEntry = planCacheEntry;
     }
 
     public AnalyzedStatement analyzedStatement() {
@@ -78,4 +103,12 @@ public class PreparedStmt {
     public Session.TimeoutToken timeoutToken() {
         return timeoutToken;
     }
+
+    /**
+     * The entry of the node-wide {@link PlanCache} the statement is shared with, null if it isn't cached.
+     */
+    @Nullable
+    PlanCache.Entry planCacheEntry() {
+        return planCacheEntry;
+    }
 }
@@ -157,6 +157,7 @@ public class Session implements AutoCloseable {
     private final int secret;
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
     private final JobsLogs jobsLogs;
     private final boolean isReadOnly;
     private final Runnable onClose;
@@ -174,6 +175,7 @@ public class Session implements AutoCloseable {
                    @Nullable ConnectionProperties connectionProperties,
                    Analyzer analyzer,
                    Planner planner,
+                   PlanCache planCache,
                    JobsLogs jobsLogs,
                    boolean isReadOnly,
                    DependencyCarrier executor,
@@ -187,6 +189,7 @@ public class Session implements AutoCloseable {
         this.secret = ThreadLocalRandom.current().nextInt();
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = planCache;
         this.jobsLogs = jobsLogs;
         this.isReadOnly = isReadOnly;
         this.executor = executor;
@@ -339,6 +342,19 @@ public class Session implements AutoCloseable {
 
         validateStatementLength(query);
 
+        PlanCache.Key cacheKey = null;
+        ClusterState clusterState = null;
+        if (planCache.isEnabled()) {
+            cacheKey = PlanCache.Key.of(query, paramTypes, sessionSettings);
+            // Must be retrieved before the analysis, a cache entry must not outlive the metadata it is based on
+            clusterState = planner.currentClusterState();
+            PlanCache.Entry entry = planCache.get(cacheKey, clusterState);
+            if (entry != null) {
+                preparedStatements.put(statementName, new PreparedStmt(entry, query, timeoutToken));
+                return;
+            }
+        }
+
         Statement statement;
         try {
             statement = SqlParser.createStatement(query);
@@ -349,6 +365,13 @@ public class Session implements AutoCloseable {
         timeoutToken.check("parse");
 
         analyze(statementName, statement, paramTypes, query, timeoutToken);
+
+        if (cacheKey != null) {
+            PlanCache.Entry entry = planCache.put(cacheKey, clusterState, preparedStatements.get(statementName));
+            if (entry != null) {
+                preparedStatements.put(statementName, new PreparedStmt(entry, query, timeoutToken));
+            }
+        }
     }
 
     private void validateStatementLength(String query) {
@@ -546,7 +569,8 @@ public class Session implements AutoCloseable {
             }
             resultReceiver.allFinished();
         } else if (analyzedStmt instanceof AnalyzedDiscard discard) {
-            // We don't cache plans, don't have sequences or temporary tables
+            // Plans are only cached node-wide (see PlanCache), we don't have session-level plans,
+            // sequences or temporary tables
             // See https://www.postgresql.org/docs/current/sql-discard.html
             if (discard.target() == Target.ALL) {
                 close();
@@ -737,12 +761,11 @@ public class Session implements AutoCloseable {
         );
 
 
-        AnalyzedStatement analyzedStatement = firstPreparedStatement.analyzedStatement();
         lastStmt = firstPreparedStatement.rawStatement();
 
         Plan plan;
         try {
-            plan = planner.plan(analyzedStatement, plannerContext);
+            plan = plan(firstPreparedStatement, plannerContext);
             timeoutToken.check("bulkExec:plan");
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(
@@ -853,7 +876,7 @@ public class Session implements AutoCloseable {
         }
         Plan plan;
         try {
-            plan = planner.plan(analyzedStmt, plannerContext);
+            plan = plan(portal.preparedStmt(), plannerContext);
             timeoutToken.check("singleExec:plan");
         } catch (Throwable t) {
             jobsLogs.logPreExecutionFailure(jobId, rawStatement, SQLExceptions.messageOf(t), sessionSettings.sessionUser());
@@ -890,6 +913,19 @@ public class Session implements AutoCloseable {
         return result;
     }
 
+    private Plan plan(PreparedStmt preparedStmt, PlannerContext plannerContext) {
+        AnalyzedStatement analyzedStatement = preparedStmt.analyzedStatement();
+        PlanCache.Entry entry = preparedStmt.planCacheEntry();
+        if (entry == null) {
+            return planner.plan(analyzedStatement, plannerContext);
+        }
+        return entry.plan(
+            plannerContext.clusterState(),
+            sessionSettings,
+            () -> planner.plan(analyzedStatement, plannerContext)
+        );
+    }
+
     @Nullable
     public List<? extends DataType<?>> getOutputTypes(String portalName) {
         Portal portal = getSafePortal(portalName);
@@ -96,12 +96,23 @@ public class Sessions {
     public static final Setting<Integer> MEMORY_LIMIT = Setting.intSetting(
         MEMORY_LIMIT_KEY, 0, Property.Dynamic, Property.NodeScope, Property.Exposed);
 
+    /**
+     * Maximum number of statements held by the node-wide {@link PlanCache}, 0 disables the cache.
+     */
+    public static final Setting<Integer> PLAN_CACHE_SIZE = Setting.intSetting(
+        "node.sql.plan_cache.size",
+        1000,
+        0,
+        Property.NodeScope
+    );
+
 
     private static final Logger LOGGER = LogManager.getLogger(Sessions.class);
 
     private final NodeContext nodeCtx;
     private final Analyzer analyzer;
     private final Planner planner;
+    private final PlanCache planCache;
     private final Provider<DependencyCarrier> executorProvider;
     private final JobsLogs jobsLogs;
     private final ClusterService clusterService;
@@ -128,6 +139,7 @@ public class Sessions {
         this.nodeCtx = nodeCtx;
         this.analyzer = analyzer;
         this.planner = planner;
+        this.planCache = new PlanCache(PLAN_CACHE_SIZE.get(settings));
         this.executorProvider = executorProvider;
         this.jobsLogs = jobsLogs;
         this.clusterService = clusterService;
@@ -136,6 +148,7 @@ public class Sessions {
         this.memoryLimit = MEMORY_LIMIT.get(settings);
         this.tempErrorRetryCount = TEMP_ERROR_RETRY_COUNT.get(settings);
         this.statementMaxLength = STATEMENT_MAX_LENGTH.get(settings);
+        clusterService.addListener(planCache);
         ClusterSettings clusterSettings = clusterService.getClusterSettings();
         clusterSettings.addSettingsUpdateConsumer(STATEMENT_TIMEOUT, statementTimeout -> {
             this.defaultStatementTimeout = statementTimeout;
@@ -157,6 +170,7 @@ public class Sessions {
             connectionProperties,
             analyzer,
             planner,
+            planCache,
             jobsLogs,
             isReadOnly,
             executorProvider.get(),
@@ -223,6 +237,10 @@ public class Sessions {
         return !disabled;
     }
 
+    public PlanCache planCache() {
+        return planCache;
+    }
+
     /**
      * @return true if a session matches the keyData, false otherwise.
      */
@@ -456,6 +456,8 @@ public class TableStatsService extends AbstractLifecycleComponent implements Run
             tablesSearcherManager.maybeRefresh();
             colsSearcherManager.maybeRefresh();
             cache.invalidateAll(relationsStats.keySet());
+            // Cached plans may be based on the previous statistics
+            sessions.planCache().invalidateAll();
         } catch (IOException e) {
             throw new UncheckedIOException("Can't write TableStats to disk", e);
         }
@@ -53,6 +53,9 @@ public class FloatVectorType extends DataType<float[]> implements Streamer<float
     public static final int ID = 28;
     public static final String NAME = "float_vector";
     public static final FloatVectorType INSTANCE_ONE = new FloatVectorType(1);
+    /**
+     * Default similarity of float_vector columns, see {@link io.crate.metadata.FloatVectorReference}
+     */
     public static final VectorSimilarityFunction SIMILARITY_FUNC = VectorSimilarityFunction.EUCLIDEAN;
     public static final int MAX_DIMENSIONS = 2048;
 
@@ -43,6 +43,7 @@ public class ChildMemoryCircuitBreaker implements CircuitBreaker {
     private final CircuitBreakerService parent;
     private final String name;
     private final LongSupplier freeSupplier;
+    private final boolean checkParentLimit;
 
     /**
      * Create a circuit breaker that will break if the number of estimated
@@ -91,6 +92,8 @@ public class ChildMemoryCircuitBreaker implements CircuitBreaker {
             logger.trace("creating ChildCircuitBreaker with settings {}", settings);
         }
         this.parent = parent;
+        // The parent limit is based on the heap usage, off-heap memory doesn't contribute to it
+        this.checkParentLimit = !CircuitBreaker.OFF_HEAP.equals(name);
     }
 
     /**
@@ -127,14 +130,16 @@ public class ChildMemoryCircuitBreaker implements CircuitBreaker {
         }
 
         // Additionally, we need to check that we haven't exceeded the parent's limit
-        try {
-            parent.checkParentLimit(bytes, label);
-        } catch (CircuitBreakingException e) {
-            // If the parent breaker is tripped, this breaker has to be
-            // adjusted back down because the allocation is "blocked" but the
-            // breaker has already been incremented
-            this.addWithoutBreaking(-bytes);
-            throw e;
+        if (checkParentLimit) {
+            try {
+                parent.checkParentLimit(bytes, label);
+            } catch (CircuitBreakingException e) {
+                // If the parent breaker is tripped, this breaker has to be
+                // adjusted back down because the allocation is "blocked" but the
+                // breaker has already been incremented
+                this.addWithoutBreaking(-bytes);
+                throw e;
+            }
         }
         return newUsed;
     }
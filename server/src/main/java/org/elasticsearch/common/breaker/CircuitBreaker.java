@@ -57,6 +57,10 @@ public interface CircuitBreaker {
     /// sys.operations_log
     String OPERATIONS_LOG = "operations_log";
 
+    /// Direct memory allocated by the off-heap `MemoryManager`.
+    /// Not part of the heap, so it is not checked against the parent limit.
+    String OFF_HEAP = "off_heap";
+
     /**
      * add bytes to the breaker and maybe trip
      * @param bytes number of bytes to add
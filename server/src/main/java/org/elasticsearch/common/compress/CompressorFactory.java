@@ -32,6 +32,12 @@ public class CompressorFactory {
 
     public static final Compressor COMPRESSOR = new DeflateCompressor();
 
+    /**
+     * Used for the transport layer only, see {@link org.elasticsearch.transport.TransportCompression}.
+     * Not considered by {@link #compressor(BytesReference)}.
+     */
+    public static final Compressor LZ4 = new Lz4Compressor();
+
     @Nullable
     public static Compressor compressor(BytesReference bytes) {
         if (COMPRESSOR.isCompressed(bytes)) {
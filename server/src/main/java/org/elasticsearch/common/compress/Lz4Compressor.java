@@ -0,0 +1,338 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.common.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.apache.lucene.util.compress.LZ4;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+
+/**
+ * LZ4 compressor using the block format of Lucene's {@link LZ4}.
+ *
+ * <pre>
+ * header       'L', 'Z', '4', '\0'
+ * block *      int uncompressedLength | int compressedLength | compressedLength bytes
+ * end marker   int 0 | int 0
+ * </pre>
+ *
+ * A block holds up to {@link #BLOCK_SIZE} bytes. Blocks which don't get smaller by compressing them
+ * are stored as is, indicated by {@code compressedLength == uncompressedLength}.
+ *
+ * Compression is considerably faster than DEFLATE at a lower compression ratio, which is the better
+ * trade-off for the transport layer within a data center.
+ */
+public class Lz4Compressor implements Compressor {
+
+    private static final byte[] HEADER = new byte[]{'L', 'Z', '4', '\0'};
+
+    public static final int BLOCK_SIZE = 64 * 1024;
+
+    public static final int BLOCK_HEADER_LENGTH = 2 * Integer.BYTES;
+
+    /**
+     * Upper bound of the size of a compressed block, see {@link LZ4#compress}
+     */
+    public static final int MAX_COMPRESSED_BLOCK_SIZE = BLOCK_SIZE + BLOCK_SIZE / 255 + 16;
+
+    @Override
+    public boolean isCompressed(BytesReference bytes) {
+        if (bytes.length() < HEADER.length) {
+            return false;
+        }
+        for (int i = 0; i < HEADER.length; ++i) {
+            if (bytes.get(i) != HEADER[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int headerLength() {
+        return HEADER.length;
+    }
+
+    /**
+     * Reads the length of a block from the block header
+     */
+    public static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24)
+            | ((bytes[offset + 1] & 0xFF) << 16)
+            | ((bytes[offset + 2] & 0xFF) << 8)
+            | (bytes[offset + 3] & 0xFF);
+    }
+
+    /**
+     * Decompresses a block into {@code dest}
+     *
+     * @param compressed the block, stored or compressed
+     * @return number of bytes written to {@code dest}
+     */
+    public static int decompressBlock(byte[] compressed,
+                                      int compressedLength,
+                                      int uncompressedLength,
+                                      byte[] dest) throws IOException {
+        if (compressedLength == uncompressedLength) {
+            System.arraycopy(compressed, 0, dest, 0, uncompressedLength);
+        } else {
+            LZ4.decompress(new ByteArrayDataInput(compressed, 0, compressedLength), uncompressedLength, dest, 0);
+        }
+        return uncompressedLength;
+    }
+
+    /**
+     * @throws IOException if the lengths read from a block header are out of range
+     */
+    public static void validateBlockHeader(int compressedLength, int uncompressedLength) throws IOException {
+        if (uncompressedLength < 0
+            || uncompressedLength > BLOCK_SIZE
+            || compressedLength < 0
+            || compressedLength > MAX_COMPRESSED_BLOCK_SIZE
+            || (uncompressedLength == 0 && compressedLength != 0)) {
+            throw new IOException("Invalid LZ4 block header: uncompressedLength=" + uncompressedLength
+                + " compressedLength=" + compressedLength);
+        }
+    }
+
+    // Buffers of the compressing stream, reused per thread
+    private static final ThreadLocal<BlockBuffers> BUFFERS = ThreadLocal.withInitial(BlockBuffers::new);
+
+    private static final class BlockBuffers {
+
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private final byte[] compressed = new byte[MAX_COMPRESSED_BLOCK_SIZE];
+        private final LZ4.FastCompressionHashTable hashTable = new LZ4.FastCompressionHashTable();
+
+        // true if the buffers are used by a stream and not available for re-use
+        private boolean inUse;
+    }
+
+    @Override
+    public InputStream threadLocalInputStream(InputStream in) throws IOException {
+        final byte[] headerBytes = new byte[HEADER.length];
+        int len = Streams.readFully(in, headerBytes);
+        if (len != HEADER.length || Arrays.equals(headerBytes, HEADER) == false) {
+            throw new IllegalArgumentException("Input stream is not compressed with LZ4!");
+        }
+        return new Lz4InputStream(in);
+    }
+
+    @Override
+    public OutputStream threadLocalOutputStream(OutputStream out) throws IOException {
+        out.write(HEADER);
+        BlockBuffers current = BUFFERS.get();
+        if (current.inUse) {
+            // Nested compression streams should not happen but we still handle them safely by using fresh buffers
+            current = new BlockBuffers();
+        }
+        return new Lz4OutputStream(out, current);
+    }
+
+    @Override
+    public BytesReference uncompress(BytesReference bytesReference) {
+        try (InputStream in = threadLocalInputStream(bytesReference.streamInput())) {
+            return Streams.readFully(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public BytesReference compress(BytesReference bytesReference) {
+        BytesStreamOutput buffer = new BytesStreamOutput();
+        try (OutputStream out = threadLocalOutputStream(buffer)) {
+            bytesReference.writeTo(out);
+        } catch (IOException e) {
+            // We're working on a BytesStreamOutput so this should never happen
+            throw new UncheckedIOException(e);
+        }
+        return buffer.bytes();
+    }
+
+    private static final class Lz4OutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final BlockBuffers buffers;
+        private final byte[] blockHeader = new byte[BLOCK_HEADER_LENGTH];
+        private int count = 0;
+        private boolean closed = false;
+
+        private Lz4OutputStream(OutputStream out, BlockBuffers buffers) {
+            assert buffers.inUse == false : "buffers must not be used by another stream";
+            buffers.inUse = true;
+            this.out = out;
+            this.buffers = buffers;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            buffers.block[count++] = (byte) b;
+            if (count == BLOCK_SIZE) {
+                writeBlock();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                int n = Math.min(len, BLOCK_SIZE - count);
+                System.arraycopy(b, off, buffers.block, count, n);
+                count += n;
+                off += n;
+                len -= n;
+                if (count == BLOCK_SIZE) {
+                    writeBlock();
+                }
+            }
+        }
+
+        private void writeBlock() throws IOException {
+            ByteArrayDataOutput compressedOut = new ByteArrayDataOutput(buffers.compressed);
+            LZ4.compress(buffers.block, 0, count, compressedOut, buffers.hashTable);
+            int compressedLength = compressedOut.getPosition();
+            if (compressedLength >= count) {
+                writeBlockHeader(count, count);
+                out.write(buffers.block, 0, count);
+            } else {
+                writeBlockHeader(count, compressedLength);
+                out.write(buffers.compressed, 0, compressedLength);
+            }
+            count = 0;
+        }
+
+        private void writeBlockHeader(int uncompressedLength, int compressedLength) throws IOException {
+            writeInt(uncompressedLength, 0);
+            writeInt(compressedLength, Integer.BYTES);
+            out.write(blockHeader);
+        }
+
+        private void writeInt(int value, int offset) {
+            blockHeader[offset] = (byte) (value >>> 24);
+            blockHeader[offset + 1] = (byte) (value >>> 16);
+            blockHeader[offset + 2] = (byte) (value >>> 8);
+            blockHeader[offset + 3] = (byte) value;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (count > 0) {
+                writeBlock();
+            }
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (count > 0) {
+                    writeBlock();
+                }
+                writeBlockHeader(0, 0);
+                out.close();
+            } finally {
+                buffers.inUse = false;
+            }
+        }
+    }
+
+    private static final class Lz4InputStream extends InputStream {
+
+        private final InputStream in;
+        private final byte[] blockHeader = new byte[BLOCK_HEADER_LENGTH];
+        private final byte[] compressed = new byte[MAX_COMPRESSED_BLOCK_SIZE];
+        private final byte[] block = new byte[BLOCK_SIZE];
+        private int position = 0;
+        private int limit = 0;
+        private boolean eos = false;
+
+        private Lz4InputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (fill() == false) {
+                return -1;
+            }
+            return block[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (fill() == false) {
+                return -1;
+            }
+            int n = Math.min(len, limit - position);
+            System.arraycopy(block, position, b, off, n);
+            position += n;
+            return n;
+        }
+
+        private boolean fill() throws IOException {
+            while (position == limit) {
+                if (eos) {
+                    return false;
+                }
+                readExactly(blockHeader, BLOCK_HEADER_LENGTH);
+                int uncompressedLength = readInt(blockHeader, 0);
+                int compressedLength = readInt(blockHeader, Integer.BYTES);
+                validateBlockHeader(compressedLength, uncompressedLength);
+                if (uncompressedLength == 0) {
+                    eos = true;
+                    return false;
+                }
+                readExactly(compressed, compressedLength);
+                limit = decompressBlock(compressed, compressedLength, uncompressedLength, block);
+                position = 0;
+            }
+            return true;
+        }
+
+        private void readExactly(byte[] dest, int len) throws IOException {
+            if (Streams.readFully(in, dest, 0, len) != len) {
+                throw new EOFException("Unexpected end of LZ4 compressed stream");
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -20,6 +20,8 @@
 package org.elasticsearch.common.lucene.uid;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import org.apache.lucene.index.LeafReader;
 import org.apache.lucene.index.LeafReaderContext;
@@ -117,8 +119,72 @@ final class PerThreadIDVersionAndSeqNoLookup {
         }
     }
 
+    /**
+     * Batched variant of {@link #lookupVersion(BytesRef, boolean, LeafReaderContext)}.
+     *
+     * @param order positions of the ids to look up, sorted by id so that the terms enum is moved forward only.
+     *              Ids with a non-null entry in {@code result} are skipped.
+     * @param result receives the found documents, at the position of the id
+     * @return the number of ids found in this segment
+     */
+    int lookupVersions(List<BytesRef> ids,
+                       int[] order,
+                       DocIdAndVersion[] result,
+                       boolean loadSeqNo,
+                       LeafReaderContext context) throws IOException {
+        assert context.reader().getCoreCacheHelper().getKey().equals(readerKey) :
+            "context's reader is not the same as the reader class was initialized on.";
+        // docId in the upper, position in the lower 32 bits to read the doc values in doc id order
+        long[] docAndPosition = null;
+        int found = 0;
+        for (int position : order) {
+            if (result[position] != null) {
+                continue;
+            }
+            int docID = getDocID(ids.get(position), context);
+            if (docID != DocIdSetIterator.NO_MORE_DOCS) {
+                if (docAndPosition == null) {
+                    docAndPosition = new long[order.length];
+                }
+                docAndPosition[found++] = ((long) docID << 32) | position;
+            }
+        }
+        if (found == 0) {
+            return 0;
+        }
+        Arrays.sort(docAndPosition, 0, found);
+        LeafReader reader = context.reader();
+        NumericDocValues versions = reader.getNumericDocValues(SysColumns.VERSION.name());
+        NumericDocValues seqNos = loadSeqNo ? reader.getNumericDocValues(SysColumns.Names.SEQ_NO) : null;
+        NumericDocValues primaryTerms = loadSeqNo ? reader.getNumericDocValues(SysColumns.Names.PRIMARY_TERM) : null;
+        for (int i = 0; i < found; i++) {
+            int docID = (int) (docAndPosition[i] >>> 32);
+            int position = (int) docAndPosition[i];
+            if (i > 0 && (int) (docAndPosition[i - 1] >>> 32) == docID) {
+                // duplicate id, doc values can't be read twice
+                result[position] = result[(int) docAndPosition[i - 1]];
+                continue;
+            }
+            final long seqNo;
+            final long term;
+            if (loadSeqNo) {
+                seqNo = readNumericDocValues(seqNos, SysColumns.Names.SEQ_NO, docID);
+                term = readNumericDocValues(primaryTerms, SysColumns.Names.PRIMARY_TERM, docID);
+            } else {
+                seqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
+                term = 0;
+            }
+            final long version = readNumericDocValues(versions, SysColumns.VERSION.name(), docID);
+            result[position] = new DocIdAndVersion(docID, version, seqNo, term, reader, context.docBase);
+        }
+        return found;
+    }
+
     private static long readNumericDocValues(LeafReader reader, String field, int docId) throws IOException {
-        final NumericDocValues dv = reader.getNumericDocValues(field);
+        return readNumericDocValues(reader.getNumericDocValues(field), field, docId);
+    }
+
+    private static long readNumericDocValues(NumericDocValues dv, String field, int docId) throws IOException {
         if (dv == null || dv.advanceExact(docId) == false) {
             assert false : "document [" + docId + "] does not have docValues for [" + field + "]";
             throw new IllegalStateException("document [" + docId + "] does not have docValues for [" + field + "]");
@@ -20,8 +20,10 @@
 package org.elasticsearch.common.lucene.uid;
 
 import java.io.IOException;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
+import java.util.stream.IntStream;
 
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReader;
@@ -139,6 +141,34 @@ public final class VersionsAndSeqNoResolver {
         return null;
     }
 
+    /**
+     * Batched variant of {@link #loadDocIdAndVersion(IndexReader, BytesRef, boolean)}.
+     * The uids are looked up in sorted order, so that the terms enum of each segment only moves forward,
+     * and segments are skipped once all uids are found.
+     *
+     * @return the doc ID and version for each uid, in the order of {@code uids}; null entries for uids that weren't found
+     */
+    public static DocIdAndVersion[] loadDocIdsAndVersions(IndexReader reader,
+                                                          List<BytesRef> uids,
+                                                          boolean loadSeqNo) throws IOException {
+        PerThreadIDVersionAndSeqNoLookup[] lookups = getLookupState(reader);
+        List<LeafReaderContext> leaves = reader.leaves();
+        int[] order = IntStream.range(0, uids.size())
+            .boxed()
+            .sorted(Comparator.comparing(uids::get))
+            .mapToInt(Integer::intValue)
+            .toArray();
+        DocIdAndVersion[] result = new DocIdAndVersion[uids.size()];
+        int remaining = uids.size();
+        // iterate backwards to optimize for the frequently updated documents
+        // which are likely to be in the last segments
+        for (int i = leaves.size() - 1; i >= 0 && remaining > 0; i--) {
+            final LeafReaderContext leaf = leaves.get(i);
+            remaining -= lookups[leaf.ord].lookupVersions(uids, order, result, loadSeqNo, leaf);
+        }
+        return result;
+    }
+
     /**
      * Loads the internal docId and sequence number of the latest copy for a given uid from the provided reader.
      * The result is either null or the live and latest version of the given uid.
@@ -80,6 +80,7 @@ import org.elasticsearch.http.netty4.Netty4HttpServerTransport;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.indices.IndexingMemoryController;
 import org.elasticsearch.indices.IndicesQueryCache;
+import org.elasticsearch.indices.IndicesRowCache;
 import org.elasticsearch.indices.IndicesService;
 import org.elasticsearch.indices.ShardLimitValidator;
 import org.elasticsearch.indices.analysis.HunspellService;
@@ -104,6 +105,7 @@ import org.elasticsearch.transport.netty4.Netty4Transport;
 import io.crate.auth.AuthSettings;
 import io.crate.blob.v2.BlobIndicesService;
 import io.crate.cluster.gracefulstop.DecommissioningService;
+import io.crate.execution.engine.collect.sources.ShardCollectSource;
 import io.crate.execution.engine.collect.stats.JobsLogService;
 import io.crate.execution.engine.indexing.ShardingUpsertExecutor;
 import io.crate.execution.jobs.NodeLimits;
@@ -224,6 +226,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         IndicesQueryCache.INDICES_CACHE_QUERY_SIZE_SETTING,
         IndicesQueryCache.INDICES_CACHE_QUERY_COUNT_SETTING,
         IndicesQueryCache.INDICES_QUERIES_CACHE_ALL_SEGMENTS_SETTING,
+        IndicesRowCache.INDICES_ROW_CACHE_SIZE_SETTING,
         IndicesService.WRITE_DANGLING_INDICES_INFO_SETTING,
         Metadata.SETTING_READ_ONLY_SETTING,
         Metadata.SETTING_READ_ONLY_ALLOW_DELETE_SETTING,
@@ -301,6 +304,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         HierarchyCircuitBreakerService.QUERY_CIRCUIT_BREAKER_LIMIT_SETTING,
         HierarchyCircuitBreakerService.JOBS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING,
         HierarchyCircuitBreakerService.OPERATIONS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING,
+        HierarchyCircuitBreakerService.OFF_HEAP_CIRCUIT_BREAKER_LIMIT_SETTING,
         HierarchyCircuitBreakerService.POLICY_SETTING,
         IndexModule.NODE_STORE_ALLOW_MMAP,
         ClusterApplierService.CLUSTER_SERVICE_SLOW_TASK_LOGGING_THRESHOLD_SETTING,
@@ -318,6 +322,9 @@ public final class ClusterSettings extends AbstractScopedSettings {
         TransportSettings.PUBLISH_PORT,
         TransportSettings.OLD_TRANSPORT_COMPRESS,
         TransportSettings.TRANSPORT_COMPRESS,
+        TransportSettings.TRANSPORT_COMPRESSION_SCHEME,
+        TransportSettings.TRANSPORT_COMPRESS_ACTIONS,
+        TransportSettings.TRANSPORT_COMPRESS_MIN_SIZE,
         TransportSettings.PING_SCHEDULE,
         TransportSettings.TCP_CONNECT_TIMEOUT,
         TransportSettings.CONNECT_TIMEOUT,
@@ -435,6 +442,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         TableStatsService.STATS_SERVICE_REFRESH_INTERVAL_SETTING,
         TableStatsService.STATS_SERVICE_THROTTLING_SETTING,
         ShardingUpsertExecutor.BULK_REQUEST_TIMEOUT_SETTING,
+        ShardCollectSource.MAX_SLICES_PER_SHARD,
         DecommissioningService.DECOMMISSION_INTERNAL_SETTING_GROUP,
         DecommissioningService.GRACEFUL_STOP_MIN_AVAILABILITY_SETTING,
         DecommissioningService.GRACEFUL_STOP_TIMEOUT_SETTING,
@@ -450,6 +458,7 @@ public final class ClusterSettings extends AbstractScopedSettings {
         Sessions.STATEMENT_MAX_LENGTH,
         Sessions.MEMORY_LIMIT,
         Sessions.TEMP_ERROR_RETRY_COUNT,
+        Sessions.PLAN_CACHE_SIZE,
         PostgresNetty.PSQL_ENABLED_SETTING,
         PostgresNetty.PSQL_PORT_SETTING,
         AuthSettings.AUTH_HOST_BASED_ENABLED_SETTING,
@@ -39,8 +39,10 @@ import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.engine.EngineConfig;
 import org.elasticsearch.index.store.FsDirectoryFactory;
 import org.elasticsearch.index.store.Store;
+import org.elasticsearch.indices.IndicesRowCache;
 
 import io.crate.blob.v2.BlobIndicesService;
+import io.crate.lucene.codec.VectorQuantization;
 import io.crate.metadata.doc.DocTableInfo;
 import io.crate.replication.logical.LogicalReplicationSettings;
 
@@ -110,6 +112,9 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
         IndexModule.INDEX_QUERY_CACHE_ENABLED_SETTING,
         FsDirectoryFactory.INDEX_LOCK_FACTOR_SETTING,
         EngineConfig.INDEX_CODEC_SETTING,
+        VectorQuantization.SETTING,
+        VectorQuantization.RESCORE_OVERSAMPLE_SETTING,
+        IndicesRowCache.INDEX_ROW_CACHE_ENABLED_SETTING,
         IndexMetadata.SETTING_WAIT_FOR_ACTIVE_SHARDS,
         IndexService.RETENTION_LEASE_SYNC_INTERVAL_SETTING,
         Setting.groupSetting("index.analysis.", Property.IndexScope),
@@ -0,0 +1,90 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.index.cache.row;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of the rows of a shard held by the {@link org.elasticsearch.indices.IndicesRowCache}.
+ * <p>
+ * The instance is also used as the owner of the cache entries of a shard, so entries of a closed shard
+ * never match the entries of a shard with the same id which is opened again.
+ * </p>
+ */
+public final class ShardRowCache {
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sizeInBytes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public void onHit() {
+        hits.increment();
+    }
+
+    public void onMiss() {
+        misses.increment();
+    }
+
+    public void onCached(long bytes) {
+        count.increment();
+        sizeInBytes.add(bytes);
+    }
+
+    public void onRemoval(long bytes, boolean evicted) {
+        count.decrement();
+        sizeInBytes.add(-bytes);
+        if (evicted) {
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Number of cached rows
+     */
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * Estimated memory used by the cached rows
+     */
+    public long sizeInBytes() {
+        return sizeInBytes.sum();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of rows removed because the cache exceeded its size
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+}
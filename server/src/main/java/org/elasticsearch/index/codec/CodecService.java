@@ -21,10 +21,14 @@ package org.elasticsearch.index.codec;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.lucene103.Lucene103Codec;
 
+import io.crate.lucene.codec.VectorQuantization;
+import io.crate.metadata.FloatVectorReference;
+
 /**
  * Since Lucene 4.0 low level index segments are read and written through a
  * codec layer that allows to use use-case specific file formats &amp;
@@ -43,11 +47,20 @@ public class CodecService {
     public static final String LUCENE_DEFAULT_CODEC = "lucene_default";
 
     public CodecService() {
+        this(VectorQuantization.NONE);
+    }
+
+    public CodecService(VectorQuantization vectorQuantization) {
+        this(vectorQuantization, _ -> null);
+    }
+
+    public CodecService(VectorQuantization vectorQuantization,
+                        Function<String, FloatVectorReference> vectorColumns) {
         final var codecs = new HashMap<String, Codec>();
         codecs.put(DEFAULT_CODEC,
-            new CrateCodec(Lucene103Codec.Mode.BEST_SPEED));
+            new CrateCodec(Lucene103Codec.Mode.BEST_SPEED, vectorQuantization, vectorColumns));
         codecs.put(BEST_COMPRESSION_CODEC,
-            new CrateCodec(Lucene103Codec.Mode.BEST_COMPRESSION));
+            new CrateCodec(Lucene103Codec.Mode.BEST_COMPRESSION, vectorQuantization, vectorColumns));
         codecs.put(LUCENE_DEFAULT_CODEC, Codec.getDefault());
         for (String codec : Codec.availableCodecs()) {
             codecs.put(codec, Codec.forName(codec));
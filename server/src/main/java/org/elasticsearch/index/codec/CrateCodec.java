@@ -20,6 +20,7 @@
 package org.elasticsearch.index.codec;
 
 import java.io.IOException;
+import java.util.function.Function;
 
 import org.apache.lucene.codecs.Codec;
 import org.apache.lucene.codecs.DocValuesFormat;
@@ -30,15 +31,20 @@ import org.apache.lucene.codecs.lucene103.Lucene103Codec;
 import org.apache.lucene.index.SegmentReadState;
 import org.apache.lucene.index.SegmentWriteState;
 import org.elasticsearch.common.lucene.Lucene;
+import org.jspecify.annotations.Nullable;
 
 import io.crate.lucene.codec.CustomLucene90DocValuesFormat;
+import io.crate.lucene.codec.VectorQuantization;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.types.FloatVectorType;
 
 
 /**
  * {@link CrateCodec This codec} is the default {@link Codec} for Crate.
  * It disables compression on docvalues terms dictionaries, and increases
- * the max supported vector dimension to {@link FloatVectorType#MAX_DIMENSIONS}
+ * the max supported vector dimension to {@link FloatVectorType#MAX_DIMENSIONS},
+ * optionally stores vectors quantized, see {@link VectorQuantization}, and builds
+ * the HNSW graphs with the options of the columns, see {@link FloatVectorReference}.
  */
 // LUCENE UPGRADE: make sure to move to a new codec depending on the lucene version
 public class CrateCodec extends Lucene103Codec {
@@ -47,8 +53,31 @@ public class CrateCodec extends Lucene103Codec {
         assert Codec.forName(Lucene.LATEST_CODEC).getClass().isAssignableFrom(CrateCodec.class) : "CrateCodec must subclass the latest lucene codec: " + Lucene.LATEST_CODEC;
     }
 
+    private final VectorQuantization vectorQuantization;
+
+    @Nullable
+    private final KnnVectorsFormat quantizedVectorsFormat;
+
+    private final Function<String, FloatVectorReference> vectorColumns;
+
     public CrateCodec(Mode compressionMode) {
+        this(compressionMode, VectorQuantization.NONE);
+    }
+
+    public CrateCodec(Mode compressionMode, VectorQuantization vectorQuantization) {
+        this(compressionMode, vectorQuantization, _ -> null);
+    }
+
+    /**
+     * @param vectorColumns returns the float_vector column with HNSW index options stored in a field or null.
+     */
+    public CrateCodec(Mode compressionMode,
+                      VectorQuantization vectorQuantization,
+                      Function<String, FloatVectorReference> vectorColumns) {
         super(compressionMode);
+        this.vectorQuantization = vectorQuantization;
+        this.quantizedVectorsFormat = vectorQuantization.knnVectorsFormat();
+        this.vectorColumns = vectorColumns;
     }
 
     @Override
@@ -58,7 +87,16 @@ public class CrateCodec extends Lucene103Codec {
 
     @Override
     public KnnVectorsFormat getKnnVectorsFormatForField(String field) {
-        var format = super.getKnnVectorsFormatForField(field);
+        FloatVectorReference vectorColumn = vectorColumns.apply(field);
+        KnnVectorsFormat format;
+        if (vectorColumn != null) {
+            format = vectorQuantization.knnVectorsFormat(vectorColumn.maxConn(), vectorColumn.beamWidth());
+        } else if (quantizedVectorsFormat != null) {
+            format = quantizedVectorsFormat;
+        } else {
+            format = super.getKnnVectorsFormatForField(field);
+        }
+        // Segments are read using the format registered under the name, so the name must be the one of the delegate
         return new KnnVectorsFormat(format.getName()) {
 
             @Override
@@ -75,6 +113,11 @@ public class CrateCodec extends Lucene103Codec {
             public int getMaxDimensions(String fieldName) {
                 return FloatVectorType.MAX_DIMENSIONS;
             }
+
+            @Override
+            public String toString() {
+                return format.toString();
+            }
         };
     }
 }
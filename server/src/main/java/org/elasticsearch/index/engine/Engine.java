@@ -25,6 +25,7 @@ import static org.elasticsearch.index.seqno.SequenceNumbers.UNASSIGNED_SEQ_NO;
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -519,8 +520,86 @@ public abstract class Engine implements Closeable {
         }
     }
 
+    /**
+     * Batched variant of {@link #getFromSearcher(Get, BiFunction, SearcherScope)}:
+     * Resolves the gets without an entry in {@code results} using a single searcher.
+     */
+    protected final MultiGetResult getFromSearcher(List<Get> gets,
+                                                   GetResult[] results,
+                                                   BiFunction<String, SearcherScope, Searcher> searcherFactory,
+                                                   SearcherScope scope) throws EngineException {
+        List<BytesRef> uids = new ArrayList<>();
+        int[] positions = new int[gets.size()];
+        for (int i = 0; i < gets.size(); i++) {
+            if (results[i] == null) {
+                positions[uids.size()] = i;
+                uids.add(gets.get(i).uid());
+            }
+        }
+        if (uids.isEmpty()) {
+            return new MultiGetResult(results, null);
+        }
+        final Engine.Searcher searcher = searcherFactory.apply("get", scope);
+        final DocIdAndVersion[] docIdAndVersions;
+        try {
+            docIdAndVersions = VersionsAndSeqNoResolver.loadDocIdsAndVersions(searcher.getIndexReader(), uids, true);
+        } catch (Exception e) {
+            Releasables.closeIgnoringException(searcher);
+            throw new EngineException(shardId, "Couldn't resolve version", e);
+        }
+        for (int i = 0; i < uids.size(); i++) {
+            DocIdAndVersion docIdAndVersion = docIdAndVersions[i];
+            int position = positions[i];
+            if (docIdAndVersion == null) {
+                results[position] = GetResult.NOT_EXISTS;
+                continue;
+            }
+            try {
+                ensureNoReadConflict(gets.get(position), docIdAndVersion.version, docIdAndVersion.seqNo, docIdAndVersion.primaryTerm);
+            } catch (VersionConflictEngineException e) {
+                Releasables.close(searcher);
+                throw e;
+            }
+            // the searcher is released by the MultiGetResult
+            results[position] = new GetResult(docIdAndVersion, null);
+        }
+        return new MultiGetResult(results, searcher);
+    }
+
+    protected final void ensureNoReadConflict(Get get, long version, long seqNo, long primaryTerm) {
+        if (get.versionType().isVersionConflictForReads(version, get.version())) {
+            throw new VersionConflictEngineException(
+                shardId,
+                get.id(),
+                get.versionType().explainConflictForReads(version, get.version())
+            );
+        }
+        if (get.ifSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO && (get.ifSeqNo() != seqNo || get.ifPrimaryTerm() != primaryTerm)) {
+            throw new VersionConflictEngineException(
+                shardId,
+                get.id(),
+                get.ifSeqNo(),
+                get.ifPrimaryTerm(),
+                seqNo,
+                primaryTerm
+            );
+        }
+    }
+
     public abstract GetResult get(Get get, BiFunction<String, SearcherScope, Searcher> searcherFactory) throws EngineException;
 
+    /**
+     * Batched variant of {@link #get(Get, BiFunction)}.
+     *
+     * Documents which are resolved from the index share a single searcher, the uids are resolved in sorted order.
+     * Like with {@link #get(Get, BiFunction)}, the version map is consulted first so that recently written documents
+     * are read from the translog.
+     *
+     * @return one result per get, in the order of the gets. The caller must release the returned result.
+     */
+    public abstract MultiGetResult multiGet(List<Get> gets,
+                                            BiFunction<String, SearcherScope, Searcher> searcherFactory) throws EngineException;
+
 
     /**
      * Returns a new searcher instance. The consumer of this
@@ -1372,6 +1451,22 @@ public abstract class Engine implements Closeable {
         }
     }
 
+    /**
+     * Results of {@link #multiGet(List, BiFunction)}. Results resolved from the index share the {@code searcher},
+     * results read from the translog have their own.
+     */
+    public record MultiGetResult(GetResult[] results, @Nullable Engine.Searcher searcher) implements Releasable {
+
+        @Override
+        public void close() {
+            try {
+                Releasables.close(results);
+            } finally {
+                Releasables.close(searcher);
+            }
+        }
+    }
+
     /**
      * Method to close the engine while the write lock is held.
      * Must decrement the supplied when closing work is done and resources are
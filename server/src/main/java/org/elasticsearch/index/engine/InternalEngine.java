@@ -76,6 +76,7 @@ import org.apache.lucene.util.BytesRef;
 import org.apache.lucene.util.InfoStream;
 import org.elasticsearch.Assertions;
 import org.elasticsearch.common.lease.Releasable;
+import org.elasticsearch.common.lease.Releasables;
 import org.elasticsearch.common.lucene.LoggerInfoStream;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -631,57 +632,11 @@ public class InternalEngine extends Engine {
             if (versionValue.isDelete()) {
                 return GetResult.NOT_EXISTS;
             }
-            if (get.versionType().isVersionConflictForReads(versionValue.version, get.version())) {
-                throw new VersionConflictEngineException(
-                    shardId,
-                    get.id(),
-                    get.versionType().explainConflictForReads(versionValue.version, get.version())
-                );
-            }
-            if (get.ifSeqNo() != SequenceNumbers.UNASSIGNED_SEQ_NO && (
-                get.ifSeqNo() != versionValue.seqNo || get.ifPrimaryTerm() != versionValue.term)) {
-
-                throw new VersionConflictEngineException(
-                    shardId,
-                    get.id(),
-                    get.ifSeqNo(),
-                    get.ifPrimaryTerm(),
-                    versionValue.seqNo,
-                    versionValue.term
-                );
-            }
+            ensureNoReadConflict(get, versionValue.version, versionValue.seqNo, versionValue.term);
             if (versionValue.getLocation() != null) {
-                try {
-                    Translog.Operation operation = translog.readOperation(versionValue.getLocation());
-                    // in the case of a already pruned translog generation we might get null here - yet very unlikely
-                    if (operation == null) {
-                        assert versionValue.seqNo >= 0 : versionValue;
-                        refreshIfNeeded("realtime_get", versionValue.seqNo);
-                        return getFromSearcher(get, searcherFactory, SearcherScope.INTERNAL);
-                    }
-
-                    final Translog.Index index = (Translog.Index) operation;
-                    TranslogLeafReader reader = new TranslogLeafReader(index);
-                    return new GetResult(
-                        new VersionsAndSeqNoResolver.DocIdAndVersion(
-                            0,
-                            index.version(),
-                            index.seqNo(),
-                            index.primaryTerm(),
-                            reader,
-                            0
-                        ),
-                        new Engine.Searcher(
-                            "realtime_get",
-                            reader,
-                            null,
-                            IndexSearcher.getDefaultQueryCachingPolicy(),
-                            reader
-                        )
-                    );
-                } catch (IOException e) {
-                    maybeFailEngine("realtime_get", e); // lets check if the translog has failed with a tragic event
-                    throw new EngineException(shardId, "failed to read operation from translog", e);
+                GetResult fromTranslog = getFromTranslog(versionValue);
+                if (fromTranslog != null) {
+                    return fromTranslog;
                 }
             } else {
                 trackTranslogLocation.set(true);
@@ -693,6 +648,93 @@ public class InternalEngine extends Engine {
         }
     }
 
+    /**
+     * @return the document read from the translog or null if the translog generation has already been pruned
+     */
+    @Nullable
+    private GetResult getFromTranslog(VersionValue versionValue) {
+        try {
+            Translog.Operation operation = translog.readOperation(versionValue.getLocation());
+            // in the case of a already pruned translog generation we might get null here - yet very unlikely
+            if (operation == null) {
+                return null;
+            }
+
+            final Translog.Index index = (Translog.Index) operation;
+            TranslogLeafReader reader = new TranslogLeafReader(index);
+            return new GetResult(
+                new VersionsAndSeqNoResolver.DocIdAndVersion(
+                    0,
+                    index.version(),
+                    index.seqNo(),
+                    index.primaryTerm(),
+                    reader,
+                    0
+                ),
+                new Engine.Searcher(
+                    "realtime_get",
+                    reader,
+                    null,
+                    IndexSearcher.getDefaultQueryCachingPolicy(),
+                    reader
+                )
+            );
+        } catch (IOException e) {
+            maybeFailEngine("realtime_get", e); // lets check if the translog has failed with a tragic event
+            throw new EngineException(shardId, "failed to read operation from translog", e);
+        }
+    }
+
+    @Override
+    public MultiGetResult multiGet(List<Get> gets,
+                                   BiFunction<String, SearcherScope, Engine.Searcher> searcherFactory) throws EngineException {
+        try (ReleasableLock ignored = readLock.acquire()) {
+            ensureOpen();
+            GetResult[] results = new GetResult[gets.size()];
+            boolean success = false;
+            try {
+                long maxSeqNoToRefresh = SequenceNumbers.NO_OPS_PERFORMED;
+                for (int i = 0; i < gets.size(); i++) {
+                    Get get = gets.get(i);
+                    VersionValue versionValue;
+                    try (Releasable ignore = versionMap.acquireLock(get.uid())) {
+                        versionValue = getVersionFromMap(get.uid());
+                    }
+                    // Only recently written documents are in the version map, all others are resolved from the index
+                    if (versionValue == null) {
+                        continue;
+                    }
+                    if (versionValue.isDelete()) {
+                        results[i] = GetResult.NOT_EXISTS;
+                        continue;
+                    }
+                    ensureNoReadConflict(get, versionValue.version, versionValue.seqNo, versionValue.term);
+                    if (versionValue.getLocation() != null) {
+                        results[i] = getFromTranslog(versionValue);
+                        if (results[i] != null) {
+                            continue;
+                        }
+                    } else {
+                        trackTranslogLocation.set(true);
+                    }
+                    assert versionValue.seqNo >= 0 : versionValue;
+                    maxSeqNoToRefresh = Math.max(maxSeqNoToRefresh, versionValue.seqNo);
+                }
+                if (maxSeqNoToRefresh >= 0) {
+                    // a single refresh for all documents which aren't visible yet
+                    refreshIfNeeded("realtime_get", maxSeqNoToRefresh);
+                }
+                MultiGetResult result = getFromSearcher(gets, results, searcherFactory, SearcherScope.INTERNAL);
+                success = true;
+                return result;
+            } finally {
+                if (success == false) {
+                    Releasables.close(results);
+                }
+            }
+        }
+    }
+
     /**
      * the status of the current doc version in lucene, compared to the version in an incoming
      * operation
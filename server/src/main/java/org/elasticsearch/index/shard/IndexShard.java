@@ -97,6 +97,7 @@ import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexService;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.VersionType;
+import org.elasticsearch.index.cache.row.ShardRowCache;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.engine.CommitStats;
 import org.elasticsearch.index.engine.Engine;
@@ -148,6 +149,8 @@ import io.crate.common.unit.TimeValue;
 import io.crate.exceptions.InvalidArgumentException;
 import io.crate.execution.dml.TranslogIndexer;
 import io.crate.execution.dml.TranslogMappingUpdateException;
+import io.crate.lucene.codec.VectorQuantization;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.NodeContext;
 import io.crate.metadata.doc.DocTableInfoFactory;
 
@@ -201,6 +204,7 @@ public class IndexShard extends AbstractIndexShardComponent {
     private final MeanMetric refreshMetric = new MeanMetric();
     private final MeanMetric flushMetric = new MeanMetric();
     private final CounterMetric periodicFlushMetric = new CounterMetric();
+    private final ShardRowCache rowCache = new ShardRowCache();
 
     private final ShardEventListener shardEventListener = new ShardEventListener();
 
@@ -254,7 +258,7 @@ public class IndexShard extends AbstractIndexShardComponent {
         super(shardRouting.shardId(), indexSettings);
         assert shardRouting.initializing();
         this.shardRouting = shardRouting;
-        this.codecService = new CodecService();
+        this.codecService = new CodecService(indexSettings.getValue(VectorQuantization.SETTING), this::vectorColumn);
         Objects.requireNonNull(store, "Store must be provided to the index shard");
         this.engineFactoryProviders = engineFactoryProviders;
         this.engineFactory = getEngineFactory();
@@ -715,6 +719,15 @@ public class IndexShard extends AbstractIndexShardComponent {
         );
     }
 
+    /**
+     * Used by the codec to build the HNSW graphs of float_vector columns with the column options.
+     */
+    @Nullable
+    private FloatVectorReference vectorColumn(String field) {
+        TranslogIndexer translogIndexer = getTranslogIndexer.get();
+        return translogIndexer == null ? null : translogIndexer.vectorColumn(field);
+    }
+
     private Engine.IndexResult applyIndexOperation(Engine engine,
                                                    long seqNo,
                                                    long opPrimaryTerm,
@@ -955,6 +968,14 @@ public class IndexShard extends AbstractIndexShardComponent {
         return getEngine().get(get, this::acquireSearcher);
     }
 
+    /**
+     * Batched variant of {@link #get(Engine.Get)}, see {@link Engine#multiGet}
+     */
+    public Engine.MultiGetResult multiGet(List<Engine.Get> gets) {
+        readAllowed();
+        return getEngine().multiGet(gets, this::acquireSearcher);
+    }
+
     /**
      * Writes all indexing changes to disk and opens a new searcher reflecting all changes.  This can throw {@link AlreadyClosedException}.
      */
@@ -982,6 +1003,13 @@ public class IndexShard extends AbstractIndexShardComponent {
         return getEngine().mergeStats();
     }
 
+    /**
+     * Statistics of the rows of this shard in the {@link org.elasticsearch.indices.IndicesRowCache}
+     */
+    public ShardRowCache rowCache() {
+        return rowCache;
+    }
+
     public DocsStats docStats() {
         readAllowed();
         return getEngine().docStats();
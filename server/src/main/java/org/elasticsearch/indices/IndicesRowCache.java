@@ -0,0 +1,163 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.indices;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.cache.row.ShardRowCache;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.IndexEventListener;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexingOperationListener;
+import org.elasticsearch.index.shard.ShardId;
+import org.jspecify.annotations.Nullable;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.crate.types.ObjectType;
+
+/**
+ * Node-wide cache of decoded rows for primary key lookups on tables with {@link #INDEX_ROW_CACHE_ENABLED_SETTING}.
+ * <p>
+ * Rows are keyed by shard and uid. An entry is only valid for the sequence number and primary term of the
+ * document it was decoded from and for the version of the table schema, so a lookup never returns a stale row.
+ * Entries are removed on writes to the document on primaries and replicas to free up the memory early,
+ * and when the shard is closed.
+ * </p>
+ * The cached rows are shared, they must not be modified.
+ */
+public final class IndicesRowCache implements IndexingOperationListener, IndexEventListener {
+
+    /**
+     * Memory used for cached rows of all shards on this node, 0 disables the cache
+     */
+    public static final Setting<ByteSizeValue> INDICES_ROW_CACHE_SIZE_SETTING =
+        Setting.memorySizeSetting("indices.row_cache.size", "1%", Property.NodeScope);
+
+    public static final Setting<Boolean> INDEX_ROW_CACHE_ENABLED_SETTING =
+        Setting.boolSetting("index.row_cache.enabled", false, Property.Dynamic, Property.IndexScope);
+
+    private record Key(ShardRowCache owner, BytesRef uid) {
+    }
+
+    private record Entry(long seqNo, long primaryTerm, long tableVersion, Map<String, Object> row, int bytes) {
+
+        boolean matches(long seqNo, long primaryTerm, long tableVersion) {
+            return this.seqNo == seqNo && this.primaryTerm == primaryTerm && this.tableVersion == tableVersion;
+        }
+    }
+
+    private final Map<ShardId, ShardRowCache> shards = new ConcurrentHashMap<>();
+
+    @Nullable
+    private final Cache<Key, Entry> cache;
+
+    public IndicesRowCache(Settings settings) {
+        long maxWeight = INDICES_ROW_CACHE_SIZE_SETTING.get(settings).getBytes();
+        this.cache = maxWeight <= 0 ? null : Caffeine.newBuilder()
+            .maximumWeight(maxWeight)
+            .weigher((Key _, Entry entry) -> entry.bytes)
+            // Run maintenance on the calling threads to keep the shard statistics in sync with the cache
+            .executor(Runnable::run)
+            .removalListener((Key key, Entry entry, RemovalCause cause) -> {
+                if (key != null && entry != null) {
+                    key.owner.onRemoval(entry.bytes, cause.wasEvicted());
+                }
+            })
+            .build();
+    }
+
+    /**
+     * @return true if rows of the shard should be cached
+     */
+    public boolean isEnabled(IndexShard shard) {
+        return cache != null && shard.indexSettings().getValue(INDEX_ROW_CACHE_ENABLED_SETTING);
+    }
+
+    /**
+     * @return the cached row of the document or null if it is not cached or the cached row is outdated
+     */
+    @Nullable
+    public Map<String, Object> get(IndexShard shard, BytesRef uid, long seqNo, long primaryTerm, long tableVersion) {
+        assert cache != null : "Must only be called if the cache is enabled";
+        ShardRowCache owner = shard.rowCache();
+        Entry entry = cache.getIfPresent(new Key(owner, uid));
+        if (entry == null || entry.matches(seqNo, primaryTerm, tableVersion) == false) {
+            owner.onMiss();
+            return null;
+        }
+        owner.onHit();
+        return entry.row;
+    }
+
+    public void put(IndexShard shard,
+                    BytesRef uid,
+                    long seqNo,
+                    long primaryTerm,
+                    long tableVersion,
+                    Map<String, Object> row) {
+        assert cache != null : "Must only be called if the cache is enabled";
+        ShardRowCache owner = shard.rowCache();
+        ShardId shardId = shard.shardId();
+        if (shards.get(shardId) != owner) {
+            shards.put(shardId, owner);
+        }
+        int bytes = (int) Math.min(ObjectType.UNTYPED.valueBytes(row), Integer.MAX_VALUE);
+        owner.onCached(bytes);
+        cache.put(new Key(owner, uid), new Entry(seqNo, primaryTerm, tableVersion, row, bytes));
+    }
+
+    private void invalidate(ShardId shardId, BytesRef uid) {
+        ShardRowCache owner = shards.get(shardId);
+        if (owner != null) {
+            assert cache != null : "Shards must only be registered if the cache is enabled";
+            cache.invalidate(new Key(owner, uid));
+        }
+    }
+
+    @Override
+    public void postIndex(ShardId shardId, Engine.Index index, Engine.IndexResult result) {
+        invalidate(shardId, index.uid());
+    }
+
+    @Override
+    public void postDelete(ShardId shardId, Engine.Delete delete, Engine.DeleteResult result) {
+        invalidate(shardId, delete.uid());
+    }
+
+    @Override
+    public void afterIndexShardClosed(ShardId shardId, @Nullable IndexShard indexShard, Settings indexSettings) {
+        ShardRowCache owner = shards.remove(shardId);
+        if (owner != null) {
+            assert cache != null : "Shards must only be registered if the cache is enabled";
+            cache.asMap().keySet().removeIf(key -> key.owner == owner);
+        }
+    }
+}
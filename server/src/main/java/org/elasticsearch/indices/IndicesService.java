@@ -149,6 +149,7 @@ public class IndicesService extends AbstractLifecycleComponent
     private final NodeContext nodeContext;
     private final IndexingMemoryController indexingMemoryController;
     private final QueryCache indicesQueryCache;
+    private final IndicesRowCache indicesRowCache;
     private final MetaStateService metaStateService;
     private final Collection<Function<IndexSettings, Optional<EngineFactory>>> engineFactoryProviders;
     private final Map<String, IndexStorePlugin.DirectoryFactory> directoryFactories;
@@ -188,6 +189,7 @@ public class IndicesService extends AbstractLifecycleComponent
         this.shardsClosedTimeout = settings.getAsTime(INDICES_SHARDS_CLOSED_TIMEOUT, new TimeValue(1, TimeUnit.DAYS));
         this.analysisRegistry = analysisRegistry;
         this.indicesQueryCache = IndicesQueryCache.createCache(settings);
+        this.indicesRowCache = new IndicesRowCache(settings);
         indexingMemoryController = new IndexingMemoryController(
             settings,
             threadPool,
@@ -366,12 +368,14 @@ public class IndicesService extends AbstractLifecycleComponent
             }
         };
         finalListeners.add(onStoreClose);
+        finalListeners.add(indicesRowCache);
         final IndexService indexService = createIndexService(
             IndexCreationContext.CREATE_INDEX,
             indexMetadata,
             indicesQueryCache,
             finalListeners,
-            indexingMemoryController
+            indexingMemoryController,
+            indicesRowCache
         );
         boolean success = false;
         try {
@@ -1072,6 +1076,10 @@ public class IndicesService extends AbstractLifecycleComponent
         return indexingMemoryController.indexingBufferSize();
     }
 
+    public IndicesRowCache rowCache() {
+        return indicesRowCache;
+    }
+
     @FunctionalInterface
     interface IndexDeletionAllowedPredicate {
         boolean apply(Index index, IndexSettings indexSettings);
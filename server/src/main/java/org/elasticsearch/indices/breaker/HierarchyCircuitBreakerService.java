@@ -100,12 +100,20 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
     public static final Setting<ByteSizeValue> OPERATIONS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING = Setting.memorySizeSetting(
         "stats.breaker.log.operations.limit", "5%", Property.Dynamic, Property.NodeScope, Property.Exposed);
 
+    /**
+     * Limit for the direct memory handed out by the off-heap memory manager.
+     * Relative values refer to the heap size, which is also the default for the maximum direct memory of the JVM.
+     */
+    public static final Setting<ByteSizeValue> OFF_HEAP_CIRCUIT_BREAKER_LIMIT_SETTING = Setting.memorySizeSetting(
+        "indices.breaker.off_heap.limit", "50%", Property.Dynamic, Property.NodeScope, Property.Exposed);
+
     public static final String BREAKING_EXCEPTION_MESSAGE =
         "[query] Data too large, data for [%s] would be larger than limit of [%d/%s]";
 
     private volatile BreakerSettings queryBreakerSettings;
     private volatile BreakerSettings logJobsBreakerSettings;
     private volatile BreakerSettings logOperationsBreakerSettings;
+    private volatile BreakerSettings offHeapBreakerSettings;
 
     private volatile BreakerSettings parentSettings;
     private volatile BreakerSettings inFlightRequestsSettings;
@@ -155,6 +163,11 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
             OPERATIONS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING.get(settings).getBytes()
         );
 
+        offHeapBreakerSettings = new BreakerSettings(
+            CircuitBreaker.OFF_HEAP,
+            OFF_HEAP_CIRCUIT_BREAKER_LIMIT_SETTING.get(settings).getBytes()
+        );
+
         if (LOGGER.isTraceEnabled()) {
             LOGGER.trace("parent circuit breaker with settings {}", this.parentSettings);
         }
@@ -164,6 +177,7 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
         setBreaker(this.queryBreakerSettings);
         setBreaker(this.logJobsBreakerSettings);
         setBreaker(this.logOperationsBreakerSettings);
+        setBreaker(this.offHeapBreakerSettings);
 
         clusterSettings.addSettingsUpdateConsumer(TOTAL_CIRCUIT_BREAKER_LIMIT_SETTING, this::setTotalCircuitBreakerLimit);
         clusterSettings.addSettingsUpdateConsumer(IN_FLIGHT_REQUESTS_CIRCUIT_BREAKER_LIMIT_SETTING, this::setInFlightRequestsBreakerLimit);
@@ -178,6 +192,9 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
             OPERATIONS_LOG_CIRCUIT_BREAKER_LIMIT_SETTING,
             (newLimit) ->
                 setBreakerLimit(logOperationsBreakerSettings, CircuitBreaker.OPERATIONS_LOG, s -> this.logOperationsBreakerSettings = s, newLimit));
+        clusterSettings.addSettingsUpdateConsumer(
+            OFF_HEAP_CIRCUIT_BREAKER_LIMIT_SETTING,
+            (newLimit) -> setBreakerLimit(offHeapBreakerSettings, CircuitBreaker.OFF_HEAP, s -> this.offHeapBreakerSettings = s, newLimit));
 
         this.policy = POLICY_SETTING.get(settings);
         clusterSettings.addSettingsUpdateConsumer(POLICY_SETTING, newPolicy -> this.policy = newPolicy);
@@ -281,6 +298,7 @@ public class HierarchyCircuitBreakerService extends CircuitBreakerService {
         long parentLimit = this.parentSettings.bytesLimit();
         if (totalUsed > parentLimit) {
             long breakersTotalUsed = breakers.values().stream()
+                .filter(breaker -> !CircuitBreaker.OFF_HEAP.equals(breaker.getName()))
                 .mapToLong(CircuitBreaker::getUsed)
                 .sum();
             // if the individual breakers hardly use any memory we assume that there is a lot of heap usage by objects which can be GCd.
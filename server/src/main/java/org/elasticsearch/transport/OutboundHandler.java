@@ -46,6 +46,7 @@ public final class OutboundHandler {
     private final StatsTracker statsTracker;
     private final ThreadPool threadPool;
     private final BigArrays bigArrays;
+    private final TransportCompression compression;
 
     private volatile TransportMessageListener messageListener = TransportMessageListener.NOOP_LISTENER;
 
@@ -54,11 +55,21 @@ public final class OutboundHandler {
                     StatsTracker statsTracker,
                     ThreadPool threadPool,
                     BigArrays bigArrays) {
+        this(nodeName, version, statsTracker, threadPool, bigArrays, TransportCompression.DEFAULT);
+    }
+
+    OutboundHandler(String nodeName,
+                    Version version,
+                    StatsTracker statsTracker,
+                    ThreadPool threadPool,
+                    BigArrays bigArrays,
+                    TransportCompression compression) {
         this.nodeName = nodeName;
         this.version = version;
         this.statsTracker = statsTracker;
         this.threadPool = threadPool;
         this.bigArrays = bigArrays;
+        this.compression = compression;
     }
 
     ChannelFuture sendBytes(CloseableChannel channel, byte[] bytes) {
@@ -99,7 +110,8 @@ public final class OutboundHandler {
             action,
             requestId,
             isHandshake,
-            compressRequest
+            compression.requestCompressor(action, version, compressRequest),
+            compression.minSize()
         );
         ChannelFuture future = sendMessage(channel, message);
         future.addListener(f -> messageListener.onRequestSent(node, requestId, action, request, options));
@@ -109,6 +121,7 @@ public final class OutboundHandler {
      * Sends the response to the given channel. This method should be used to send {@link TransportResponse}
      * objects back to the caller.
      *
+     * @param compress true if the request was compressed
      */
     void sendResponse(final Version nodeVersion,
                       final CloseableChannel channel,
@@ -123,7 +136,8 @@ public final class OutboundHandler {
             version,
             requestId,
             isHandshake,
-            compress
+            compression.responseCompressor(action, version, compress, isHandshake),
+            compression.minSize()
         );
         ChannelFuture future = sendMessage(channel, message);
         future.addListener(f -> messageListener.onResponseSent(requestId, action, response));
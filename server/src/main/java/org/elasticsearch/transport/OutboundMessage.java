@@ -21,14 +21,18 @@ package org.elasticsearch.transport;
 
 import java.io.IOException;
 
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.Version;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.jspecify.annotations.Nullable;
 
 abstract class OutboundMessage {
 
@@ -36,12 +40,27 @@ abstract class OutboundMessage {
     protected final Version version;
     protected final long requestId;
     protected final byte status;
-
-    OutboundMessage(Version version, byte status, long requestId, Writeable message) {
+    @Nullable
+    private final Compressor compressor;
+    private final int minCompressSize;
+
+    /**
+     * @param status status without the compress bit, it is set depending on the compressor
+     * @param compressor compressor of the message content, null to send the message uncompressed
+     * @param minCompressSize minimum size of the serialized message to compress it
+     */
+    OutboundMessage(Version version,
+                    byte status,
+                    long requestId,
+                    Writeable message,
+                    @Nullable Compressor compressor,
+                    int minCompressSize) {
         this.version = version;
         this.status = status;
         this.requestId = requestId;
         this.message = message;
+        this.compressor = compressor;
+        this.minCompressSize = minCompressSize;
     }
 
     BytesReference serialize(BytesStreamOutput bytesStream) throws IOException {
@@ -58,17 +77,40 @@ abstract class OutboundMessage {
             variableHeaderLength = Math.toIntExact(bytesStream.position() - preHeaderPosition);
         }
 
-        try (CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bytesStream, TransportStatus.isCompress(status))) {
-            stream.setVersion(version);
-            if (variableHeaderLength == -1) {
-                writeVariableHeader(stream);
+        Compressor compressor = this.compressor;
+        if (compressor != null && minCompressSize > 0 && variableHeaderLength != -1) {
+            // Write the message uncompressed first, to only compress it if it exceeds the minimum size
+            final long messagePosition = bytesStream.position();
+            try (CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bytesStream, false)) {
+                stream.setVersion(version);
+                reference = writeMessage(stream);
+            }
+            final int messageLength = Math.toIntExact(bytesStream.position() - messagePosition);
+            if (messageLength < minCompressSize) {
+                compressor = null;
+            } else {
+                BytesRef uncompressed = BytesRef.deepCopyOf(
+                    reference.slice(Math.toIntExact(messagePosition), messageLength).toBytesRef());
+                bytesStream.seek(messagePosition);
+                try (CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bytesStream, compressor)) {
+                    stream.writeBytes(uncompressed.bytes, uncompressed.offset, uncompressed.length);
+                    reference = stream.materializeBytes();
+                }
+            }
+        } else {
+            try (CompressibleBytesOutputStream stream = new CompressibleBytesOutputStream(bytesStream, compressor)) {
+                stream.setVersion(version);
+                if (variableHeaderLength == -1) {
+                    writeVariableHeader(stream);
+                }
+                reference = writeMessage(stream);
             }
-            reference = writeMessage(stream);
         }
 
         bytesStream.seek(0);
         final int contentSize = reference.length() - TcpHeader.headerSize(version);
-        TcpHeader.writeHeader(bytesStream, requestId, status, version, contentSize, variableHeaderLength);
+        final byte headerStatus = compressor == null ? status : TransportStatus.setCompress(status);
+        TcpHeader.writeHeader(bytesStream, requestId, headerStatus, version, contentSize, variableHeaderLength);
         return reference;
     }
 
@@ -112,7 +154,24 @@ abstract class OutboundMessage {
                 long requestId,
                 boolean isHandshake,
                 boolean compress) {
-            super(version, setStatus(compress, isHandshake, message), requestId, message);
+            this(message, version, action, requestId, isHandshake, compress ? CompressorFactory.COMPRESSOR : null, 0);
+        }
+
+        Request(Writeable message,
+                Version version,
+                String action,
+                long requestId,
+                boolean isHandshake,
+                @Nullable Compressor compressor,
+                int minCompressSize) {
+            super(
+                version,
+                setStatus(isHandshake),
+                requestId,
+                message,
+                OutboundMessage.canCompress(message) ? compressor : null,
+                minCompressSize
+            );
             this.action = action;
         }
 
@@ -122,12 +181,9 @@ abstract class OutboundMessage {
             stream.writeString(action);
         }
 
-        private static byte setStatus(boolean compress, boolean isHandshake, Writeable message) {
+        private static byte setStatus(boolean isHandshake) {
             byte status = 0;
             status = TransportStatus.setRequest(status);
-            if (compress && OutboundMessage.canCompress(message)) {
-                status = TransportStatus.setCompress(status);
-            }
             if (isHandshake) {
                 status = TransportStatus.setHandshake(status);
             }
@@ -143,18 +199,24 @@ abstract class OutboundMessage {
                  long requestId,
                  boolean isHandshake,
                  boolean compress) {
-            super(version, setStatus(compress, isHandshake, message), requestId, message);
+            this(message, version, requestId, isHandshake, compress ? CompressorFactory.COMPRESSOR : null, 0);
         }
 
-        private static byte setStatus(boolean compress, boolean isHandshake, Writeable message) {
+        Response(Writeable message,
+                 Version version,
+                 long requestId,
+                 boolean isHandshake,
+                 @Nullable Compressor compressor,
+                 int minCompressSize) {
+            super(version, setStatus(isHandshake, message), requestId, message, compressor, minCompressSize);
+        }
+
+        private static byte setStatus(boolean isHandshake, Writeable message) {
             byte status = 0;
             status = TransportStatus.setResponse(status);
             if (message instanceof RemoteTransportException) {
                 status = TransportStatus.setError(status);
             }
-            if (compress) {
-                status = TransportStatus.setCompress(status);
-            }
             if (isHandshake) {
                 status = TransportStatus.setHandshake(status);
             }
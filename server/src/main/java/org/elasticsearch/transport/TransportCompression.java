@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.transport;
+
+import java.util.List;
+import java.util.Locale;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.compress.Compressor;
+import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.regex.Regex;
+import org.elasticsearch.common.settings.Settings;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Compression policy for outbound messages.
+ *
+ * <ul>
+ * <li>Requests are compressed if compression is enabled on the connection
+ * ({@link TransportSettings#TRANSPORT_COMPRESS} or the connection profile) and the action matches
+ * {@link TransportSettings#TRANSPORT_COMPRESS_ACTIONS}.</li>
+ * <li>Responses are compressed if the request was compressed, or if compression is enabled on this node
+ * and the action matches.</li>
+ * <li>Messages smaller than {@link TransportSettings#TRANSPORT_COMPRESS_MIN_SIZE} are sent uncompressed.</li>
+ * </ul>
+ *
+ * The receiver detects the scheme from the header of the compressed content, so there is nothing to negotiate
+ * besides the version: {@link Scheme#LZ4} is only used if the version of the channel, which is the minimum of
+ * the versions of both nodes, supports it. Otherwise DEFLATE is used.
+ */
+public final class TransportCompression {
+
+    public enum Scheme {
+        DEFLATE,
+        LZ4;
+
+        static Scheme of(String value) {
+            return switch (value.toLowerCase(Locale.ENGLISH)) {
+                case "deflate" -> DEFLATE;
+                case "lz4" -> LZ4;
+                default -> throw new IllegalArgumentException(
+                    "Invalid transport compression scheme `" + value + "`, supported schemes are: `deflate`, `lz4`");
+            };
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ENGLISH);
+        }
+    }
+
+    static final Version LZ4_VERSION = Version.V_6_3_0;
+
+    public static final TransportCompression DEFAULT = new TransportCompression(Settings.EMPTY);
+
+    private final boolean enabled;
+    private final Scheme scheme;
+    private final String[] actions;
+    private final int minSize;
+
+    public TransportCompression(Settings settings) {
+        this.enabled = TransportSettings.TRANSPORT_COMPRESS.get(settings);
+        this.scheme = TransportSettings.TRANSPORT_COMPRESSION_SCHEME.get(settings);
+        List<String> actionPatterns = TransportSettings.TRANSPORT_COMPRESS_ACTIONS.get(settings);
+        this.actions = actionPatterns.toArray(new String[0]);
+        this.minSize = Math.toIntExact(TransportSettings.TRANSPORT_COMPRESS_MIN_SIZE.get(settings).getBytes());
+    }
+
+    /**
+     * Minimum size of the serialized message to compress it, 0 to compress all messages
+     */
+    int minSize() {
+        return minSize;
+    }
+
+    private boolean matches(String action) {
+        return actions.length == 0 || Regex.simpleMatch(actions, action);
+    }
+
+    /**
+     * @param compress true if compression is enabled on the connection
+     * @return the compressor for the request or null if it must not be compressed
+     */
+    @Nullable
+    Compressor requestCompressor(String action, Version version, boolean compress) {
+        if (compress && matches(action)) {
+            return compressor(version);
+        }
+        return null;
+    }
+
+    /**
+     * @param requestCompressed true if the request was received compressed
+     * @return the compressor for the response or null if it must not be compressed
+     */
+    @Nullable
+    Compressor responseCompressor(String action, Version version, boolean requestCompressed, boolean isHandshake) {
+        if (requestCompressed || (enabled && isHandshake == false && matches(action))) {
+            return compressor(version);
+        }
+        return null;
+    }
+
+    Compressor compressor(Version version) {
+        if (scheme == Scheme.LZ4 && version.onOrAfter(LZ4_VERSION)) {
+            return CompressorFactory.LZ4;
+        }
+        return CompressorFactory.COMPRESSOR;
+    }
+}
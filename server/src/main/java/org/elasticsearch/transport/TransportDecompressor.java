@@ -24,7 +24,9 @@ import org.apache.lucene.util.BytesRefIterator;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.compress.Compressor;
 import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.Lz4Compressor;
 import org.elasticsearch.common.recycler.Recycler;
 import org.elasticsearch.common.util.PageCacheRecycler;
 
@@ -34,24 +36,50 @@ import java.util.ArrayDeque;
 import java.util.zip.DataFormatException;
 import java.util.zip.Inflater;
 
+/**
+ * Decompresses the content of a compressed message into pages.
+ * The compression scheme, DEFLATE or LZ4, is detected from the header of the compressed content.
+ */
 public class TransportDecompressor implements Closeable {
 
-    private final Inflater inflater;
+    private static final int HEADER_LENGTH = CompressorFactory.COMPRESSOR.headerLength();
+
+    static {
+        assert CompressorFactory.LZ4.headerLength() == HEADER_LENGTH : "compressors must have the same header length";
+    }
+
     private final PageCacheRecycler recycler;
     private final ArrayDeque<Recycler.V<byte[]>> pages;
     private int pageOffset = PageCacheRecycler.BYTE_PAGE_SIZE;
-    private boolean hasReadHeader = false;
+    private Compressor compressor = null;
+
+    // DEFLATE
+    private Inflater inflater;
+
+    // LZ4
+    private final byte[] blockHeader = new byte[Lz4Compressor.BLOCK_HEADER_LENGTH];
+    private int blockHeaderOffset = 0;
+    private byte[] compressedBlock;
+    private byte[] uncompressedBlock;
+    private int compressedLength;
+    private int uncompressedLength;
+    private int compressedOffset;
+    private boolean lz4Finished = false;
 
     public TransportDecompressor(PageCacheRecycler recycler) {
         this.recycler = recycler;
-        inflater = new Inflater(true);
         pages = new ArrayDeque<>(4);
     }
 
     public int decompress(BytesReference bytesReference) throws IOException {
         int bytesConsumed = 0;
-        if (hasReadHeader == false) {
-            if (CompressorFactory.COMPRESSOR.isCompressed(bytesReference) == false) {
+        if (compressor == null) {
+            if (CompressorFactory.COMPRESSOR.isCompressed(bytesReference)) {
+                compressor = CompressorFactory.COMPRESSOR;
+                inflater = new Inflater(true);
+            } else if (CompressorFactory.LZ4.isCompressed(bytesReference)) {
+                compressor = CompressorFactory.LZ4;
+            } else {
                 int maxToRead = Math.min(bytesReference.length(), 10);
                 StringBuilder sb = new StringBuilder("stream marked as compressed, but no compressor found, first [")
                     .append(maxToRead).append("] content bytes out of [").append(bytesReference.length())
@@ -62,10 +90,11 @@ public class TransportDecompressor implements Closeable {
                 sb.append("]");
                 throw new IllegalStateException(sb.toString());
             }
-            hasReadHeader = true;
-            int headerLength = CompressorFactory.COMPRESSOR.headerLength();
-            bytesReference = bytesReference.slice(headerLength, bytesReference.length() - headerLength);
-            bytesConsumed += headerLength;
+            bytesReference = bytesReference.slice(HEADER_LENGTH, bytesReference.length() - HEADER_LENGTH);
+            bytesConsumed += HEADER_LENGTH;
+        }
+        if (inflater == null) {
+            return bytesConsumed + lz4Decompress(bytesReference);
         }
 
         BytesRefIterator refIterator = bytesReference.iterator();
@@ -112,12 +141,81 @@ public class TransportDecompressor implements Closeable {
         return bytesConsumed;
     }
 
+    private int lz4Decompress(BytesReference bytesReference) throws IOException {
+        int bytesConsumed = 0;
+        BytesRefIterator refIterator = bytesReference.iterator();
+        BytesRef ref;
+        while (lz4Finished == false && (ref = refIterator.next()) != null) {
+            int offset = ref.offset;
+            int end = ref.offset + ref.length;
+            while (lz4Finished == false && offset < end) {
+                if (blockHeaderOffset < blockHeader.length) {
+                    int n = Math.min(blockHeader.length - blockHeaderOffset, end - offset);
+                    System.arraycopy(ref.bytes, offset, blockHeader, blockHeaderOffset, n);
+                    blockHeaderOffset += n;
+                    offset += n;
+                    if (blockHeaderOffset == blockHeader.length) {
+                        startBlock();
+                    }
+                } else {
+                    int n = Math.min(compressedLength - compressedOffset, end - offset);
+                    System.arraycopy(ref.bytes, offset, compressedBlock, compressedOffset, n);
+                    compressedOffset += n;
+                    offset += n;
+                    if (compressedOffset == compressedLength) {
+                        int length = Lz4Compressor.decompressBlock(
+                            compressedBlock, compressedLength, uncompressedLength, uncompressedBlock);
+                        writeToPages(uncompressedBlock, length);
+                        blockHeaderOffset = 0;
+                    }
+                }
+            }
+            bytesConsumed += offset - ref.offset;
+        }
+        return bytesConsumed;
+    }
+
+    private void startBlock() throws IOException {
+        uncompressedLength = Lz4Compressor.readInt(blockHeader, 0);
+        compressedLength = Lz4Compressor.readInt(blockHeader, Integer.BYTES);
+        Lz4Compressor.validateBlockHeader(compressedLength, uncompressedLength);
+        if (uncompressedLength == 0) {
+            lz4Finished = true;
+            return;
+        }
+        if (compressedBlock == null || compressedBlock.length < compressedLength) {
+            compressedBlock = new byte[compressedLength];
+        }
+        if (uncompressedBlock == null || uncompressedBlock.length < uncompressedLength) {
+            uncompressedBlock = new byte[uncompressedLength];
+        }
+        compressedOffset = 0;
+    }
+
+    private void writeToPages(byte[] bytes, int length) {
+        int offset = 0;
+        while (offset < length) {
+            if (pageOffset == PageCacheRecycler.BYTE_PAGE_SIZE) {
+                pages.add(recycler.bytePage(false));
+                pageOffset = 0;
+            }
+            byte[] page = pages.getLast().v();
+            int n = Math.min(length - offset, PageCacheRecycler.BYTE_PAGE_SIZE - pageOffset);
+            System.arraycopy(bytes, offset, page, pageOffset, n);
+            pageOffset += n;
+            offset += n;
+        }
+    }
+
     public boolean canDecompress(int bytesAvailable) {
-        return hasReadHeader || bytesAvailable >= CompressorFactory.COMPRESSOR.headerLength();
+        return compressor != null || bytesAvailable >= HEADER_LENGTH;
     }
 
     public boolean isEOS() {
-        return inflater.finished();
+        if (compressor == null) {
+            return false;
+        }
+        return inflater == null ? lz4Finished : inflater.finished();
     }
 
     public ReleasableBytesReference pollDecompressedPage() {
@@ -140,7 +238,9 @@ public class TransportDecompressor implements Closeable {
 
     @Override
     public void close() {
-        inflater.end();
+        if (inflater != null) {
+            inflater.end();
+        }
         for (Recycler.V<byte[]> page : pages) {
             page.close();
         }
@@ -254,6 +254,13 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(analysis.compressionType()).isEqualTo(WriterProjection.CompressionType.GZIP);
     }
 
+    @Test
+    public void test_copy_to_rejects_zstd_compression() throws Exception {
+        assertThatThrownBy(() -> analyze("COPY users TO DIRECTORY '/blah' WITH (compression = 'zstd', format = 'parquet')"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("Compression 'zstd' is not supported by COPY TO. Supported values are: gzip");
+    }
+
     @Test
     public void testCopyToFileWithPartitionedTable() throws Exception {
         BoundCopyTo analysis = analyze("COPY parted TO DIRECTORY '/blah'");
@@ -412,6 +419,21 @@ public class CopyAnalyzerTest extends CrateDummyClusterServiceUnitTest {
             .hasMessage("Cannot use RETURN SUMMARY with wait_for_completion=false. Either set wait_for_completion=true, or remove RETURN SUMMARY");
     }
 
+    @Test
+    public void test_parquet_files_can_only_be_read_from_local_file_system() throws Exception {
+        e = SQLExecutor.of(clusterService)
+            .addTable("create table tbl (x int)");
+        assertThatThrownBy(() -> analyze("copy tbl from 's3://bucket/data.parquet'"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("Parquet files can only be read from the local file system (file://), cannot read 's3://bucket/data.parquet'");
+        assertThatThrownBy(() -> analyze("copy tbl from ['/data/*', 'https://example.com/data'] with (format = 'parquet')"))
+            .isExactlyInstanceOf(UnsupportedOperationException.class)
+            .hasMessage("Parquet files can only be read from the local file system (file://), cannot read 'https://example.com/data'");
+
+        BoundCopyFrom analysis = analyze("copy tbl from 'file:///data/*' with (format = 'parquet')");
+        assertThat(analysis.inputFormat()).isEqualTo(FileUriCollectPhase.InputFormat.PARQUET);
+    }
+
     @Test
     public void test_non_deterministic_function_is_not_normalized() {
         AnalyzedCopyFrom analyzedCopyFrom = e.analyze("copy users from '/tmp/t_' || curdate()");
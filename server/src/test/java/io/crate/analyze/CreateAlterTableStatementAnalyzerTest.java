@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.assertj.core.api.InstanceOfAssertFactories;
 import org.elasticsearch.cluster.ClusterName;
 import org.elasticsearch.cluster.ClusterState;
@@ -66,6 +67,7 @@ import io.crate.exceptions.UnsupportedFeatureException;
 import io.crate.exceptions.UnsupportedFunctionException;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.CoordinatorTxnCtx;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.FulltextAnalyzerResolver;
 import io.crate.metadata.GeneratedReference;
 import io.crate.metadata.IndexReference;
@@ -1918,6 +1920,43 @@ public class CreateAlterTableStatementAnalyzerTest extends CrateDummyClusterServ
             .hasMessage("Arrays of float_vector are not supported");
     }
 
+    @Test
+    public void test_float_vector_with_hnsw_index_options() throws Exception {
+        BoundCreateTable stmt = analyze(
+            "create table tbl (x float_vector(2) index using hnsw with (similarity = 'DOT_PRODUCT', m = 8, ef_construction = 50))");
+        Reference ref = stmt.columns().get(ColumnIdent.of("x"));
+        assertThat(ref).isExactlyInstanceOf(FloatVectorReference.class);
+        FloatVectorReference vectorRef = (FloatVectorReference) ref;
+        assertThat(vectorRef.similarity()).isEqualTo("dot_product");
+        assertThat(vectorRef.similarityFunction()).isEqualTo(VectorSimilarityFunction.DOT_PRODUCT);
+        assertThat(vectorRef.maxConn()).isEqualTo(8);
+        assertThat(vectorRef.beamWidth()).isEqualTo(50);
+        assertThat(vectorRef.numCandidates()).isNull();
+        assertThat(vectorRef.toMapping(1)).containsEntry("similarity", "dot_product")
+            .containsEntry("m", 8)
+            .containsEntry("ef_construction", 50)
+            .doesNotContainKey("num_candidates");
+    }
+
+    @Test
+    public void test_hnsw_index_options_are_validated() throws Exception {
+        assertThatThrownBy(() -> analyze("create table tbl (x int index using hnsw)"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("INDEX USING hnsw can only be used on columns of type \"float_vector\": `x`");
+        assertThatThrownBy(() -> analyze("create table tbl (x float_vector(2) index using hnsw with (ef_search = 10))"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Setting 'ef_search' is not supported");
+        assertThatThrownBy(() -> analyze("create table tbl (x float_vector(2) index using hnsw with (similarity = 'manhattan'))"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid similarity \"manhattan\", must be one of [euclidean, cosine, dot_product, max_inner_product]");
+        assertThatThrownBy(() -> analyze("create table tbl (x float_vector(2) index using hnsw with (m = 1000))"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid value for HNSW index option \"m\": 1000, must be between 1 and 512");
+        assertThatThrownBy(() -> analyze("create table tbl (x float_vector(2) index using hnsw with (num_candidates = 0))"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Invalid value for HNSW index option \"num_candidates\": 0, must be between 1 and 10000");
+    }
+
     @Test
     public void test_named_primary_key_constraints() {
         BoundCreateTable createTable = analyze("create table tbl (a int constraint c_1 check (a > 10) constraint c_2 primary key constraint c_3 check (a < 20))");
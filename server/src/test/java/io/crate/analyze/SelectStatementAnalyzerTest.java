@@ -205,8 +205,10 @@ public class SelectStatementAnalyzerTest extends CrateDummyClusterServiceUnitTes
             "load",
             "mem",
             "name",
+            "off_heap",
             "os",
             "os_info",
+            "plan_cache",
             "port",
             "process",
             "rest_url",
@@ -23,9 +23,11 @@ package io.crate.analyze;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import org.apache.lucene.index.VectorSimilarityFunction;
 import org.junit.Test;
 
 import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.FloatVectorReference;
 import io.crate.metadata.GeoReference;
 import io.crate.metadata.Reference;
 import io.crate.metadata.doc.DocTableInfo;
@@ -392,6 +394,27 @@ public class TableInfoToASTTest extends CrateDummyClusterServiceUnitTest {
         assertThat(geoRef.distanceErrorPct()).isEqualTo(0.25);
     }
 
+    @Test
+    public void test_float_vector_hnsw_index_options_are_shown_in_show_create_table_output() throws Exception {
+        SQLExecutor e = SQLExecutor.of(clusterService)
+            .addTable("create table t (x float_vector(2) index using hnsw with (similarity = 'cosine', m = 32, ef_construction = 200, num_candidates = 50))");
+        DocTableInfo table = e.resolveTableInfo("t");
+        var node = new TableInfoToAST(table).toStatement();
+        assertThat(SqlFormatter.formatSql(node)).contains("""
+                "x" FLOAT_VECTOR(2) INDEX USING HNSW WITH (
+                      ef_construction = 200,
+                      m = 32,
+                      num_candidates = 50,
+                      similarity = 'cosine'
+                   )
+                """);
+        FloatVectorReference vectorRef = (FloatVectorReference) table.getReference(ColumnIdent.of("x"));
+        assertThat(vectorRef.similarityFunction()).isEqualTo(VectorSimilarityFunction.COSINE);
+        assertThat(vectorRef.maxConn()).isEqualTo(32);
+        assertThat(vectorRef.beamWidth()).isEqualTo(200);
+        assertThat(vectorRef.numCandidates()).isEqualTo(50);
+    }
+
     /**
      * Ensures that the index prefix for table parameters, including group settings, is stripped
      * when printing the table definition.
@@ -81,7 +81,8 @@ public class WindowAggProjectionSerialisationTest {
         var expectedWindowAggProjection = new WindowAggProjection(
             partitionByOneWindowDef,
             List.of(firstWindowFunction, secondWindowFunction),
-            List.of(standaloneInput));
+            List.of(standaloneInput),
+            true);
 
         var output = new BytesStreamOutput();
         expectedWindowAggProjection.writeTo(output);
@@ -92,6 +93,7 @@ public class WindowAggProjectionSerialisationTest {
         assertThat(
             (List<Symbol>) actualWindowAggProjection.outputs()).containsExactly(standaloneInput, firstWindowFunction, secondWindowFunction);
         assertThat(actualWindowAggProjection).isEqualTo(expectedWindowAggProjection);
+        assertThat(actualWindowAggProjection.sourceSorted()).isTrue();
     }
 
     private FunctionImplementation getSumFunction() {
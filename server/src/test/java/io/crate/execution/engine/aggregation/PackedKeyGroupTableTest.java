@@ -0,0 +1,172 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.junit.Test;
+
+import io.crate.data.Input;
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class PackedKeyGroupTableTest {
+
+    private final Object[] current = new Object[3];
+    private final Input<?>[] keyInputs = new Input<?>[] {
+        () -> current[0],
+        () -> current[1],
+        () -> current[2]
+    };
+
+    private int findOrInsert(PackedKeyGroupTable table, Object k0, Object k1, Object k2) {
+        current[0] = k0;
+        current[1] = k1;
+        current[2] = k2;
+        return table.findOrInsert(keyInputs);
+    }
+
+    @Test
+    public void test_supports_only_fixed_width_and_string_types_for_multiple_keys() {
+        assertThat(PackedKeyGroupTable.supports(List.of(DataTypes.LONG, DataTypes.STRING))).isTrue();
+        assertThat(PackedKeyGroupTable.supports(
+            List.of(DataTypes.INTEGER, DataTypes.TIMESTAMPZ, DataTypes.SHORT, DataTypes.DOUBLE))).isTrue();
+        assertThat(PackedKeyGroupTable.supports(List.of(DataTypes.LONG))).isFalse();
+        assertThat(PackedKeyGroupTable.supports(List.of(DataTypes.LONG, DataTypes.UNTYPED_OBJECT))).isFalse();
+        assertThat(PackedKeyGroupTable.supports(List.of(DataTypes.LONG, DataTypes.STRING_ARRAY))).isFalse();
+    }
+
+    @Test
+    public void test_same_keys_return_same_group_and_keys_are_decoded() {
+        List<DataType<?>> types = List.of(DataTypes.INTEGER, DataTypes.TIMESTAMP, DataTypes.STRING);
+        PackedKeyGroupTable table = new PackedKeyGroupTable(types, 1, RamAccounting.NO_ACCOUNTING);
+
+        assertThat(findOrInsert(table, 1, 1000L, "ok")).isEqualTo(-1);
+        assertThat(findOrInsert(table, 1, 1000L, "failed")).isEqualTo(-2);
+        assertThat(findOrInsert(table, 1, null, "ok")).isEqualTo(-3);
+        assertThat(findOrInsert(table, 1, 1000L, "ok")).isEqualTo(0);
+        assertThat(findOrInsert(table, 1, null, "ok")).isEqualTo(2);
+        assertThat(findOrInsert(table, null, 0L, null)).isEqualTo(-4);
+        assertThat(findOrInsert(table, 0, 0L, null)).isEqualTo(-5);
+        assertThat(table.size()).isEqualTo(5);
+
+        Object[] cells = new Object[3];
+        table.keysToCells(1, cells);
+        assertThat(cells).containsExactly(1, 1000L, "failed");
+        table.keysToCells(2, cells);
+        assertThat(cells).containsExactly(1, null, "ok");
+        table.keysToCells(3, cells);
+        assertThat(cells).containsExactly(null, 0L, null);
+    }
+
+    @Test
+    public void test_states_are_kept_per_group() {
+        List<DataType<?>> types = List.of(DataTypes.LONG, DataTypes.SHORT, DataTypes.BOOLEAN);
+        PackedKeyGroupTable table = new PackedKeyGroupTable(types, 2, RamAccounting.NO_ACCOUNTING);
+        int group = -(findOrInsert(table, 10L, (short) 2, true) + 1);
+        table.setState(group, 0, "a");
+        table.setState(group, 1, "b");
+        int other = -(findOrInsert(table, 10L, (short) 2, false) + 1);
+        table.setState(other, 0, "c");
+
+        assertThat(findOrInsert(table, 10L, (short) 2, true)).isEqualTo(group);
+        assertThat(table.getState(group, 0)).isEqualTo("a");
+        assertThat(table.getState(group, 1)).isEqualTo("b");
+        assertThat(table.getState(other, 0)).isEqualTo("c");
+        assertThat(table.getState(other, 1)).isNull();
+    }
+
+    @Test
+    public void test_table_grows_and_keeps_all_groups() {
+        List<DataType<?>> types = List.of(DataTypes.LONG, DataTypes.INTEGER, DataTypes.STRING);
+        long[] accounted = new long[1];
+        RamAccounting ramAccounting = new RamAccounting() {
+
+            @Override
+            public void addBytes(long bytes) {
+                accounted[0] += bytes;
+            }
+
+            @Override
+            public long totalBytes() {
+                return accounted[0];
+            }
+
+            @Override
+            public void release() {
+                accounted[0] = 0;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        PackedKeyGroupTable table = new PackedKeyGroupTable(types, 1, ramAccounting);
+        long initialBytes = accounted[0];
+        int numGroups = 10_000;
+        for (int i = 0; i < numGroups; i++) {
+            assertThat(findOrInsert(table, (long) i % 100, i / 100, "s" + (i % 7))).isEqualTo(-(i + 1));
+        }
+        for (int i = 0; i < numGroups; i++) {
+            assertThat(findOrInsert(table, (long) i % 100, i / 100, "s" + (i % 7))).isEqualTo(i);
+        }
+        assertThat(table.size()).isEqualTo(numGroups);
+        assertThat(accounted[0]).isGreaterThan(initialBytes);
+
+        Object[] cells = new Object[3];
+        table.keysToCells(1234, cells);
+        assertThat(cells).containsExactly(34L, 12, "s2");
+    }
+
+    @Test
+    public void test_tripped_circuit_breaker_on_growth_leaves_table_unchanged_and_clear_resets_it() {
+        List<DataType<?>> types = List.of(DataTypes.LONG, DataTypes.INTEGER, DataTypes.STRING);
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(_ -> {}, _ -> {}, "test", 4096);
+        PackedKeyGroupTable table = new PackedKeyGroupTable(types, 1, ramAccounting);
+        int numGroups = 0;
+        while (true) {
+            try {
+                findOrInsert(table, (long) numGroups, numGroups, "s");
+            } catch (CircuitBreakingException e) {
+                break;
+            }
+            numGroups++;
+        }
+        assertThat(table.size()).isEqualTo(numGroups);
+        for (int i = 0; i < numGroups; i++) {
+            assertThat(findOrInsert(table, (long) i, i, "s")).isEqualTo(i);
+        }
+
+        ramAccounting.release();
+        table.clear();
+        assertThat(table.size()).isEqualTo(0);
+        assertThat(findOrInsert(table, 1L, 1, "other")).isEqualTo(-1);
+        Object[] cells = new Object[3];
+        table.keysToCells(0, cells);
+        assertThat(cells).containsExactly(1L, 1, "other");
+    }
+}
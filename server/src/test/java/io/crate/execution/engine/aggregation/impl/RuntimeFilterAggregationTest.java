@@ -0,0 +1,85 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.aggregation.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import io.crate.execution.engine.join.RuntimeFilter;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.FunctionType;
+import io.crate.metadata.Scalar;
+import io.crate.metadata.functions.Signature;
+import io.crate.operation.aggregation.AggregationTestCase;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class RuntimeFilterAggregationTest extends AggregationTestCase {
+
+    private Object executeAggregation(DataType<?> argumentType, Object[][] data) throws Exception {
+        return executeAggregation(
+            Signature.builder(RuntimeFilterAggregation.NAME, FunctionType.AGGREGATE)
+                .argumentTypes(argumentType.getTypeSignature(), DataTypes.INTEGER.getTypeSignature())
+                .returnType(DataTypes.BIGINT_ARRAY.getTypeSignature())
+                .features(Scalar.Feature.DETERMINISTIC)
+                .build(),
+            data,
+            List.of(Literal.of(1024))
+        );
+    }
+
+    @Test
+    public void test_aggregate_integer_keys_into_runtime_filter() throws Exception {
+        RuntimeFilter expected = new RuntimeFilter(1024);
+        expected.add(3L);
+        expected.add(7L);
+        expected.add(-2L);
+
+        Object result = executeAggregation(
+            DataTypes.INTEGER,
+            new Object[][] { {3, 1024}, {7, 1024}, {null, 1024}, {-2, 1024}, {3, 1024} }
+        );
+        assertThat(result).isEqualTo(expected.toList());
+    }
+
+    @Test
+    public void test_aggregate_long_keys_into_runtime_filter() throws Exception {
+        RuntimeFilter expected = new RuntimeFilter(1024);
+        expected.add(Long.MAX_VALUE);
+        expected.add(Long.MIN_VALUE);
+
+        Object result = executeAggregation(
+            DataTypes.LONG,
+            new Object[][] { {Long.MAX_VALUE, 1024}, {Long.MIN_VALUE, 1024} }
+        );
+        assertThat(result).isEqualTo(expected.toList());
+    }
+
+    @Test
+    public void test_only_null_keys_result_in_empty_filter() throws Exception {
+        Object result = executeAggregation(DataTypes.INTEGER, new Object[][] { {null, 1024}, {null, 1024} });
+        assertThat(result).isEqualTo(List.of());
+    }
+}
@@ -146,6 +146,7 @@ public class DocValuesGroupByOptimizedIteratorTest extends CrateDummyClusterServ
         var it = DocValuesGroupByOptimizedIterator.GroupByIterator.forSingleKey(
             List.of(sumDocValuesAggregator),
             indexSearcher,
+            indexSearcher.getTopReaderContext().leaves(),
             new SimpleReference(
                 RelationName.fromIndexName("test"),
                 ColumnIdent.of("y"),
@@ -235,6 +236,7 @@ public class DocValuesGroupByOptimizedIteratorTest extends CrateDummyClusterServ
         var it = DocValuesGroupByOptimizedIterator.GroupByIterator.forManyKeys(
             List.of(sumDocValuesAggregator),
             indexSearcher,
+            indexSearcher.getTopReaderContext().leaves(),
             keyRefs,
             keyExpressions,
             RamAccounting.NO_ACCOUNTING,
@@ -353,6 +355,7 @@ public class DocValuesGroupByOptimizedIteratorTest extends CrateDummyClusterServ
         return DocValuesGroupByOptimizedIterator.GroupByIterator.getIterator(
             List.of(),
             indexSearcher,
+            indexSearcher.getTopReaderContext().leaves(),
             List.of(new LuceneCollectorExpression<>() {
 
                 @Override
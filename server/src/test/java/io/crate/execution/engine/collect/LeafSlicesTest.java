@@ -0,0 +1,137 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.execution.dsl.projection.AggregationProjection;
+import io.crate.execution.dsl.projection.EvalProjection;
+import io.crate.execution.dsl.projection.GroupProjection;
+import io.crate.expression.symbol.AggregateMode;
+import io.crate.metadata.RowGranularity;
+
+public class LeafSlicesTest extends ESTestCase {
+
+    private DirectoryReader reader;
+
+    @Before
+    public void setupReader() throws IOException {
+        var config = new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+        try (var indexWriter = new IndexWriter(new ByteBuffersDirectory(), config)) {
+            // Segments with 8, 4, 2, 1, 1 documents
+            for (int numDocs : new int[] { 8, 4, 2, 1, 1 }) {
+                for (int i = 0; i < numDocs; i++) {
+                    Document doc = new Document();
+                    doc.add(new NumericDocValuesField("x", i));
+                    indexWriter.addDocument(doc);
+                }
+                indexWriter.commit();
+            }
+            reader = DirectoryReader.open(indexWriter);
+        }
+    }
+
+    @After
+    public void closeReader() throws IOException {
+        reader.close();
+    }
+
+    @Test
+    public void test_single_slice_if_max_slices_is_one() {
+        List<LeafReaderContext> leaves = reader.leaves();
+        assertThat(leaves).hasSize(5);
+        assertThat(LeafSlices.create(leaves, 1, 1)).containsExactly(leaves);
+    }
+
+    @Test
+    public void test_single_slice_if_too_few_docs() {
+        List<LeafReaderContext> leaves = reader.leaves();
+        assertThat(LeafSlices.create(leaves, 4, 10)).containsExactly(leaves);
+        assertThat(LeafSlices.create(leaves, 4)).containsExactly(leaves);
+    }
+
+    @Test
+    public void test_leaves_are_distributed_by_number_of_docs() {
+        List<LeafReaderContext> leaves = reader.leaves();
+        List<List<LeafReaderContext>> slices = LeafSlices.create(leaves, 2, 1);
+        assertThat(slices).hasSize(2);
+        assertThat(numDocs(slices)).containsExactly(8, 8);
+
+        List<LeafReaderContext> allLeaves = new ArrayList<>();
+        for (var slice : slices) {
+            assertThat(slice).isSortedAccordingTo((a, b) -> Integer.compare(a.ord, b.ord));
+            allLeaves.addAll(slice);
+        }
+        assertThat(allLeaves).containsExactlyInAnyOrderElementsOf(leaves);
+    }
+
+    @Test
+    public void test_number_of_slices_is_limited_by_number_of_leaves() {
+        List<LeafReaderContext> leaves = reader.leaves();
+        List<List<LeafReaderContext>> slices = LeafSlices.create(leaves, 10, 1);
+        assertThat(slices).hasSize(5);
+    }
+
+    @Test
+    public void test_only_partial_aggregations_can_be_merged() {
+        var partialAggregation = new AggregationProjection(List.of(), RowGranularity.SHARD, AggregateMode.ITER_PARTIAL);
+        var finalAggregation = new AggregationProjection(List.of(), RowGranularity.SHARD, AggregateMode.ITER_FINAL);
+        var partialGroup = new GroupProjection(List.of(), List.of(), AggregateMode.ITER_PARTIAL, RowGranularity.SHARD);
+        var eval = new EvalProjection(List.of());
+
+        assertThat(LeafSlices.canMerge(List.of(partialAggregation))).isTrue();
+        assertThat(LeafSlices.canMerge(List.of(partialGroup))).isTrue();
+        assertThat(LeafSlices.canMerge(List.of(finalAggregation))).isFalse();
+        assertThat(LeafSlices.canMerge(List.of(eval))).isFalse();
+        assertThat(LeafSlices.canMerge(List.of(partialAggregation, eval))).isFalse();
+        assertThat(LeafSlices.canMerge(List.of())).isFalse();
+    }
+
+    private static List<Integer> numDocs(List<List<LeafReaderContext>> slices) {
+        List<Integer> result = new ArrayList<>();
+        for (var slice : slices) {
+            int numDocs = 0;
+            for (var leaf : slice) {
+                numDocs += leaf.reader().maxDoc();
+            }
+            result.add(numDocs);
+        }
+        return result;
+    }
+}
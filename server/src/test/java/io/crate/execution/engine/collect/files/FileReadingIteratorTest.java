@@ -41,6 +41,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -59,9 +60,13 @@ import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 import io.crate.data.BatchIterator;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.BatchIteratorTester;
 import io.crate.data.testing.BatchIteratorTester.ResultOrder;
 import io.crate.execution.engine.collect.files.FileReadingIterator.LineCursor;
+import io.crate.execution.engine.collect.files.parquet.ParquetTestWriter;
+import io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.Codec;
+import io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.Column;
 import io.crate.integrationtests.WindowsIncompatible;
 
 @WindowsIncompatible
@@ -188,6 +193,103 @@ public class FileReadingIteratorTest extends ESTestCase {
         tester.verifyResultAndEdgeCaseBehaviour(lines);
     }
 
+    @Test
+    public void test_split_file_is_read_exactly_once_by_all_readers_and_threads() throws Exception {
+        Path tempFile = createTempFile("tempfile", ".csv");
+        List<String> lines = new ArrayList<>();
+        lines.add("id,name");
+        for (int i = 0; i < 200; i++) {
+            lines.add(i + ",name" + "x".repeat(i % 7));
+        }
+        Files.write(tempFile, lines);
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        int numReaders = 2;
+        int numThreads = 2;
+        List<String> readLines = new ArrayList<>();
+        for (int readerNumber = 0; readerNumber < numReaders; readerNumber++) {
+            for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
+                var iterator = new FileReadingIterator(
+                    fileUris,
+                    null,
+                    Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                    true,
+                    numReaders,
+                    readerNumber,
+                    Settings.EMPTY,
+                    THREAD_POOL.scheduler(),
+                    64,
+                    numThreads,
+                    threadNumber,
+                    _ -> true,
+                    List.of(),
+                    RamAccounting.NO_ACCOUNTING
+                );
+                List<String> result = iterator.map(LineCursor::line).toList().get(5, TimeUnit.SECONDS);
+                assertThat(result).isNotEmpty();
+                assertThat(result.getFirst())
+                    .as("Each iterator must start with the header")
+                    .isEqualTo("id,name");
+                readLines.addAll(result.subList(1, result.size()));
+            }
+        }
+        assertThat(readLines).containsExactlyInAnyOrderElementsOf(lines.subList(1, lines.size()));
+    }
+
+    @Test
+    public void test_parquet_row_groups_are_read_exactly_once_by_all_readers_and_threads() throws Exception {
+        Path tempFile = createTempFile("data", ".parquet");
+        List<List<Object[]>> rowGroups = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int j = 0; j < 10; j++) {
+                long id = i * 10L + j;
+                rows.add(new Object[] {id, "name" + id});
+                ids.add(id);
+            }
+            rowGroups.add(rows);
+        }
+        ParquetTestWriter.write(
+            tempFile,
+            Codec.SNAPPY,
+            List.of(Column.required("id", ParquetTestWriter.INT64), Column.dictionaryString("name")),
+            rowGroups
+        );
+        List<URI> fileUris = List.of(FileReadingIterator.toURI(tempFile.toUri().toString()));
+
+        int numReaders = 2;
+        int numThreads = 2;
+        List<Object> readIds = new ArrayList<>();
+        for (int readerNumber = 0; readerNumber < numReaders; readerNumber++) {
+            for (int threadNumber = 0; threadNumber < numThreads; threadNumber++) {
+                var iterator = new FileReadingIterator(
+                    fileUris,
+                    null,
+                    Map.of(LocalFsFileInputFactory.NAME, new LocalFsFileInputFactory()),
+                    true,
+                    numReaders,
+                    readerNumber,
+                    Settings.EMPTY,
+                    THREAD_POOL.scheduler(),
+                    0,
+                    numThreads,
+                    threadNumber,
+                    _ -> false,
+                    List.of("id"),
+                    RamAccounting.NO_ACCOUNTING
+                );
+                List<LineCursor> result = iterator.map(LineCursor::copy).toList().get(5, TimeUnit.SECONDS);
+                for (LineCursor cursor : result) {
+                    assertThat(cursor.line()).isNull();
+                    assertThat(cursor.values()).containsOnlyKeys("id");
+                    readIds.add(cursor.values().get("id"));
+                }
+            }
+        }
+        assertThat(readIds).containsExactlyInAnyOrderElementsOf(ids);
+    }
+
     @Test
     public void test_iterator_closes_current_reader_and_throws_exception_on_fail_fast() throws Exception {
         Path tempFile = createTempFile("tempfile1", ".csv");
@@ -0,0 +1,80 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class LineRangeInputStreamTest {
+
+    private static String readRange(byte[] content, long start, long end) throws IOException {
+        InputStream in = new ByteArrayInputStream(content);
+        in.skipNBytes(LineRangeInputStream.streamPosition(start));
+        try (var range = new LineRangeInputStream(in, start, end)) {
+            return new String(range.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void test_ranges_of_any_size_cover_every_line_exactly_once() throws Exception {
+        String content = "a\nbb\n\nccc\ndddd\nü€\nlast line without line feed";
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        for (int splitSize = 1; splitSize <= bytes.length + 1; splitSize++) {
+            List<String> ranges = new ArrayList<>();
+            for (long start = 0; start < bytes.length; start += splitSize) {
+                ranges.add(readRange(bytes, start, Math.min(start + splitSize, bytes.length)));
+            }
+            assertThat(String.join("", ranges))
+                .as("splitSize=" + splitSize)
+                .isEqualTo(content);
+            for (String range : ranges) {
+                assertThat(range.isEmpty() || range.endsWith("\n") || content.endsWith(range))
+                    .as("ranges must end at a line boundary: " + range)
+                    .isTrue();
+            }
+        }
+    }
+
+    @Test
+    public void test_range_starting_at_line_start_includes_that_line() throws Exception {
+        byte[] bytes = "aa\nbb\ncc\n".getBytes(StandardCharsets.UTF_8);
+        assertThat(readRange(bytes, 0, 3)).isEqualTo("aa\n");
+        assertThat(readRange(bytes, 3, 6)).isEqualTo("bb\n");
+        assertThat(readRange(bytes, 6, 9)).isEqualTo("cc\n");
+    }
+
+    @Test
+    public void test_range_within_a_single_line_is_empty() throws Exception {
+        byte[] bytes = "a long line\nb\n".getBytes(StandardCharsets.UTF_8);
+        assertThat(readRange(bytes, 0, 2)).isEqualTo("a long line\n");
+        assertThat(readRange(bytes, 2, 5)).isEmpty();
+        assertThat(readRange(bytes, 5, 14)).isEqualTo("b\n");
+    }
+}
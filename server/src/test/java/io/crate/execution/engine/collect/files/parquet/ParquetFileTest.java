@@ -0,0 +1,189 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import static io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.BOOLEAN;
+import static io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.CONVERTED_DATE;
+import static io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.DOUBLE;
+import static io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.INT32;
+import static io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.INT64;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.collect.files.LocalFsFileInput;
+import io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.Codec;
+import io.crate.execution.engine.collect.files.parquet.ParquetTestWriter.Column;
+
+public class ParquetFileTest extends ESTestCase {
+
+    private static final List<Column> COLUMNS = List.of(
+        Column.required("id", INT64),
+        Column.dictionaryString("name"),
+        Column.optional("price", DOUBLE, ParquetTestWriter.CONVERTED_NONE),
+        Column.required("active", BOOLEAN),
+        Column.optional("day", INT32, CONVERTED_DATE)
+    );
+
+    private static List<List<Object[]>> rowGroups(int numRowGroups, int rowsPerGroup) {
+        List<List<Object[]>> rowGroups = new ArrayList<>();
+        long id = 0;
+        for (int i = 0; i < numRowGroups; i++) {
+            List<Object[]> rows = new ArrayList<>();
+            for (int j = 0; j < rowsPerGroup; j++, id++) {
+                rows.add(new Object[] {
+                    id,
+                    id % 5 == 0 ? null : "name" + (id % 3),
+                    id % 4 == 0 ? null : id * 1.5,
+                    id % 2 == 0,
+                    (int) id
+                });
+            }
+            rowGroups.add(rows);
+        }
+        return rowGroups;
+    }
+
+    private static List<Map<String, Object>> readAll(ParquetFile parquetFile) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < parquetFile.numRowGroups(); i++) {
+            RowGroupReader reader = parquetFile.readRowGroup(i, _ -> true, RamAccounting.NO_ACCOUNTING);
+            LinkedHashMap<String, Object> row;
+            while ((row = reader.nextRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_reads_rows_of_all_row_groups() throws Exception {
+        for (Codec codec : Codec.values()) {
+            Path file = createTempFile("data", ".parquet");
+            ParquetTestWriter.write(file, codec, COLUMNS, rowGroups(3, 21));
+
+            ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+            assertThat(parquetFile.numRowGroups()).isEqualTo(3);
+            List<Map<String, Object>> rows = readAll(parquetFile);
+            assertThat(rows).as(codec.name()).hasSize(63);
+            for (int i = 0; i < rows.size(); i++) {
+                Map<String, Object> row = rows.get(i);
+                assertThat(row.keySet()).containsExactly("id", "name", "price", "active", "day");
+                assertThat(row.get("id")).isEqualTo((long) i);
+                assertThat(row.get("name")).isEqualTo(i % 5 == 0 ? null : "name" + (i % 3));
+                assertThat(row.get("price")).isEqualTo(i % 4 == 0 ? null : i * 1.5);
+                assertThat(row.get("active")).isEqualTo(i % 2 == 0);
+                assertThat(row.get("day")).isEqualTo(i * 86_400_000L);
+            }
+        }
+    }
+
+    @Test
+    public void test_reads_only_the_given_columns() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        ParquetTestWriter.write(file, Codec.UNCOMPRESSED, COLUMNS, rowGroups(1, 3));
+
+        ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+        RowGroupReader reader = parquetFile.readRowGroup(
+            0,
+            name -> name.equals("name") || name.equals("id"),
+            RamAccounting.NO_ACCOUNTING
+        );
+        for (long id = 0; id < 3; id++) {
+            LinkedHashMap<String, Object> row = reader.nextRow();
+            assertThat(row.keySet()).containsExactly("id", "name");
+            assertThat(row)
+                .containsEntry("id", id)
+                .containsEntry("name", id == 0 ? null : "name" + id);
+        }
+        assertThat(reader.nextRow()).isNull();
+    }
+
+    @Test
+    public void test_column_chunks_and_pages_are_accounted_until_the_row_group_is_closed() throws Exception {
+        for (Codec codec : Codec.values()) {
+            Path file = createTempFile("data", ".parquet");
+            ParquetTestWriter.write(file, codec, COLUMNS, rowGroups(1, 100));
+            ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+            RamAccounting ramAccounting = new ConcurrentRamAccounting(_ -> {}, _ -> {}, "parquet", 0);
+
+            RowGroupReader reader = parquetFile.readRowGroup(0, _ -> true, ramAccounting);
+            long chunkBytes = ramAccounting.totalBytes();
+            assertThat(chunkBytes).as(codec.name()).isGreaterThan(0L);
+            while (reader.nextRow() != null) {
+                assertThat(ramAccounting.totalBytes()).as(codec.name()).isGreaterThanOrEqualTo(chunkBytes);
+            }
+            reader.close();
+            assertThat(ramAccounting.totalBytes()).as(codec.name()).isEqualTo(0L);
+        }
+    }
+
+    @Test
+    public void test_read_row_group_fails_if_column_chunks_exceed_memory_limit() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        ParquetTestWriter.write(file, Codec.UNCOMPRESSED, COLUMNS, rowGroups(1, 100));
+        ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(_ -> {}, _ -> {}, "parquet", 64);
+
+        assertThatThrownBy(() -> parquetFile.readRowGroup(0, _ -> true, ramAccounting))
+            .isExactlyInstanceOf(CircuitBreakingException.class);
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_read_fails_if_dictionary_page_has_more_values_than_it_can_hold() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        ParquetTestWriter.write(file, Codec.UNCOMPRESSED, COLUMNS, rowGroups(1, 10), Integer.MAX_VALUE);
+        ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(_ -> {}, _ -> {}, "parquet", 0);
+
+        RowGroupReader reader = parquetFile.readRowGroup(0, name -> name.equals("name"), ramAccounting);
+        assertThatThrownBy(reader::nextRow)
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessage("Invalid number of values in dictionary page of Parquet column 'name'");
+        reader.close();
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_open_fails_if_file_is_not_a_parquet_file() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        Files.writeString(file, "{\"id\": 1}\n{\"id\": 2}\n");
+
+        assertThatThrownBy(() -> ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri()))
+            .isExactlyInstanceOf(IOException.class)
+            .hasMessageContaining("is not a Parquet file");
+    }
+}
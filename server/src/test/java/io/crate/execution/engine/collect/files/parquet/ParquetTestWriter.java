@@ -0,0 +1,439 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes small Parquet files with a flat schema for tests.
+ * Pages are written as data page v1, either PLAIN or dictionary encoded.
+ */
+public final class ParquetTestWriter {
+
+    public static final int BOOLEAN = 0;
+    public static final int INT32 = 1;
+    public static final int INT64 = 2;
+    public static final int DOUBLE = 5;
+    public static final int BYTE_ARRAY = 6;
+
+    public static final int CONVERTED_NONE = -1;
+    public static final int CONVERTED_UTF8 = 0;
+    public static final int CONVERTED_DATE = 6;
+    public static final int CONVERTED_TIMESTAMP_MILLIS = 9;
+
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+
+    public enum Codec {
+        UNCOMPRESSED,
+        SNAPPY,
+        GZIP
+    }
+
+    public record Column(String name, int type, boolean optional, int convertedType, boolean dictionary) {
+
+        public static Column required(String name, int type) {
+            return new Column(name, type, false, CONVERTED_NONE, false);
+        }
+
+        public static Column optional(String name, int type, int convertedType) {
+            return new Column(name, type, true, convertedType, false);
+        }
+
+        public static Column dictionaryString(String name) {
+            return new Column(name, BYTE_ARRAY, true, CONVERTED_UTF8, true);
+        }
+    }
+
+    private ParquetTestWriter() {
+    }
+
+    /**
+     * @param rowGroups the rows of each row group, the values of a row are in the order of the columns
+     */
+    public static void write(Path path, Codec codec, List<Column> columns, List<List<Object[]>> rowGroups) throws IOException {
+        write(path, codec, columns, rowGroups, -1);
+    }
+
+    /**
+     * Like {@link #write(Path, Codec, List, List)}, but writes {@code dictionaryNumValues} instead of the actual
+     * number of values into the headers of the dictionary pages to create corrupt files.
+     */
+    public static void write(Path path,
+                             Codec codec,
+                             List<Column> columns,
+                             List<List<Object[]>> rowGroups,
+                             int dictionaryNumValues) throws IOException {
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        file.write(magic());
+        List<byte[]> encodedRowGroups = new ArrayList<>();
+        long totalRows = 0;
+        for (List<Object[]> rows : rowGroups) {
+            ThriftWriter rowGroup = new ThriftWriter();
+            rowGroup.structBegin();
+            rowGroup.listBegin(1, ThriftWriter.STRUCT, columns.size());
+            for (int c = 0; c < columns.size(); c++) {
+                Column column = columns.get(c);
+                List<Object> values = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    values.add(row[c]);
+                }
+                long chunkStart = file.size();
+                long dictionaryOffset = -1;
+                int encoding = ENCODING_PLAIN;
+                List<Object> pageValues = values;
+                List<Object> dictionary = null;
+                if (column.dictionary()) {
+                    Map<Object, Integer> indices = new LinkedHashMap<>();
+                    List<Object> indexValues = new ArrayList<>(values.size());
+                    for (Object value : values) {
+                        indexValues.add(value == null ? null : indices.computeIfAbsent(value, _ -> indices.size()));
+                    }
+                    dictionary = new ArrayList<>(indices.keySet());
+                    dictionaryOffset = chunkStart;
+                    writePage(
+                        file,
+                        codec,
+                        PAGE_DICTIONARY,
+                        dictionaryNumValues < 0 ? dictionary.size() : dictionaryNumValues,
+                        ENCODING_PLAIN,
+                        plain(column, dictionary)
+                    );
+                    encoding = ENCODING_RLE_DICTIONARY;
+                    pageValues = indexValues;
+                }
+                long dataPageOffset = file.size();
+                ByteArrayOutputStream page = new ByteArrayOutputStream();
+                if (column.optional()) {
+                    ByteArrayOutputStream levels = new ByteArrayOutputStream();
+                    for (Object value : values) {
+                        // RLE run of length 1
+                        levels.write(2);
+                        levels.write(value == null ? 0 : 1);
+                    }
+                    page.write(intLE(levels.size()));
+                    levels.writeTo(page);
+                }
+                List<Object> nonNullValues = pageValues.stream().filter(x -> x != null).toList();
+                if (dictionary != null) {
+                    page.write(bitPackedIndices(nonNullValues, dictionary.size()));
+                } else {
+                    page.write(plain(column, nonNullValues));
+                }
+                writePage(file, codec, PAGE_DATA, values.size(), encoding, page.toByteArray());
+
+                rowGroup.structBegin();
+                rowGroup.fieldI64(2, chunkStart);
+                rowGroup.fieldStructBegin(3);
+                rowGroup.fieldI32(1, column.type());
+                rowGroup.listBegin(2, ThriftWriter.I32, 1);
+                rowGroup.i32(encoding);
+                rowGroup.listBegin(3, ThriftWriter.BINARY, 1);
+                rowGroup.string(column.name());
+                rowGroup.fieldI32(4, codec.ordinal());
+                rowGroup.fieldI64(5, values.size());
+                rowGroup.fieldI64(6, file.size() - chunkStart);
+                rowGroup.fieldI64(7, file.size() - chunkStart);
+                rowGroup.fieldI64(9, dataPageOffset);
+                if (dictionaryOffset >= 0) {
+                    rowGroup.fieldI64(11, dictionaryOffset);
+                }
+                rowGroup.structEnd();
+                rowGroup.structEnd();
+            }
+            rowGroup.fieldI64(2, 0);
+            rowGroup.fieldI64(3, rows.size());
+            rowGroup.structEnd();
+            encodedRowGroups.add(rowGroup.toByteArray());
+            totalRows += rows.size();
+        }
+
+        ThriftWriter footer = new ThriftWriter();
+        footer.structBegin();
+        footer.fieldI32(1, 1);
+        footer.listBegin(2, ThriftWriter.STRUCT, columns.size() + 1);
+        footer.structBegin();
+        footer.fieldString(4, "schema");
+        footer.fieldI32(5, columns.size());
+        footer.structEnd();
+        for (Column column : columns) {
+            footer.structBegin();
+            footer.fieldI32(1, column.type());
+            footer.fieldI32(3, column.optional() ? 1 : 0);
+            footer.fieldString(4, column.name());
+            if (column.convertedType() != CONVERTED_NONE) {
+                footer.fieldI32(6, column.convertedType());
+            }
+            footer.structEnd();
+        }
+        footer.fieldI64(3, totalRows);
+        footer.listBegin(4, ThriftWriter.STRUCT, encodedRowGroups.size());
+        for (byte[] rowGroup : encodedRowGroups) {
+            footer.raw(rowGroup);
+        }
+        footer.structEnd();
+        byte[] footerBytes = footer.toByteArray();
+        file.write(footerBytes);
+        file.write(intLE(footerBytes.length));
+        file.write(magic());
+        Files.write(path, file.toByteArray());
+    }
+
+    private static void writePage(OutputStream out,
+                                  Codec codec,
+                                  int pageType,
+                                  int numValues,
+                                  int encoding,
+                                  byte[] data) throws IOException {
+        byte[] compressed = compress(codec, data);
+        ThriftWriter header = new ThriftWriter();
+        header.structBegin();
+        header.fieldI32(1, pageType);
+        header.fieldI32(2, data.length);
+        header.fieldI32(3, compressed.length);
+        if (pageType == PAGE_DICTIONARY) {
+            header.fieldStructBegin(7);
+            header.fieldI32(1, numValues);
+            header.fieldI32(2, encoding);
+        } else {
+            header.fieldStructBegin(5);
+            header.fieldI32(1, numValues);
+            header.fieldI32(2, encoding);
+            header.fieldI32(3, ENCODING_RLE);
+            header.fieldI32(4, ENCODING_RLE);
+        }
+        header.structEnd();
+        header.structEnd();
+        out.write(header.toByteArray());
+        out.write(compressed);
+    }
+
+    private static byte[] compress(Codec codec, byte[] data) throws IOException {
+        return switch (codec) {
+            case UNCOMPRESSED -> data;
+            case GZIP -> {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(data);
+                }
+                yield out.toByteArray();
+            }
+            case SNAPPY -> {
+                // Literals and a copy of the preceding bytes, to cover both element types
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                writeVarInt(out, data.length);
+                int position = 0;
+                while (position < data.length) {
+                    int length = Math.min(60, data.length - position);
+                    if (position >= 8 && length >= 4) {
+                        // copy with 2 byte offset of the 4 bytes 8 bytes back, if they are equal
+                        if (equalRange(data, position - 8, position, 4)) {
+                            out.write(((4 - 1) << 2) | 2);
+                            out.write(8);
+                            out.write(0);
+                            position += 4;
+                            continue;
+                        }
+                    }
+                    out.write((length - 1) << 2);
+                    out.write(data, position, length);
+                    position += length;
+                }
+                yield out.toByteArray();
+            }
+        };
+    }
+
+    private static boolean equalRange(byte[] data, int a, int b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (data[a + i] != data[b + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte[] plain(Column column, List<Object> values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (column.type() == BOOLEAN) {
+            byte[] bits = new byte[(values.size() + 7) / 8];
+            for (int i = 0; i < values.size(); i++) {
+                if ((Boolean) values.get(i)) {
+                    bits[i / 8] |= (byte) (1 << (i % 8));
+                }
+            }
+            return bits;
+        }
+        for (Object value : values) {
+            switch (column.type()) {
+                case INT32 -> out.write(intLE((Integer) value));
+                case INT64 -> out.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putLong((Long) value).array());
+                case DOUBLE -> out.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putDouble((Double) value).array());
+                case BYTE_ARRAY -> {
+                    byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+                    out.write(intLE(bytes.length));
+                    out.write(bytes);
+                }
+                default -> throw new IllegalArgumentException("Unsupported type " + column.type());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Bit width followed by a single bit-packed run
+     */
+    private static byte[] bitPackedIndices(List<Object> indices, int dictionarySize) {
+        int bitWidth = 32 - Integer.numberOfLeadingZeros(Math.max(1, dictionarySize - 1));
+        int numGroups = (indices.size() + 7) / 8;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(bitWidth);
+        writeVarInt(out, (numGroups << 1) | 1);
+        byte[] packed = new byte[numGroups * bitWidth];
+        long bitPosition = 0;
+        for (Object index : indices) {
+            int value = (Integer) index;
+            for (int bit = 0; bit < bitWidth; bit++, bitPosition++) {
+                if ((value & (1 << bit)) != 0) {
+                    packed[(int) (bitPosition >>> 3)] |= (byte) (1 << (bitPosition & 7));
+                }
+            }
+        }
+        out.write(packed, 0, packed.length);
+        return out.toByteArray();
+    }
+
+    private static byte[] magic() {
+        return "PAR1".getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] intLE(int value) {
+        return ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(value).array();
+    }
+
+    private static void writeVarInt(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Writer for the Thrift compact protocol
+     */
+    private static final class ThriftWriter {
+
+        static final int I32 = 5;
+        static final int I64 = 6;
+        static final int BINARY = 8;
+        static final int LIST = 9;
+        static final int STRUCT = 12;
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private final short[] lastFieldIds = new short[16];
+        private int depth = 0;
+
+        void structBegin() {
+            lastFieldIds[depth++] = 0;
+        }
+
+        void fieldStructBegin(int id) {
+            fieldHeader(id, STRUCT);
+            structBegin();
+        }
+
+        void structEnd() {
+            out.write(0);
+            depth--;
+        }
+
+        void fieldI32(int id, int value) {
+            fieldHeader(id, I32);
+            i32(value);
+        }
+
+        void fieldI64(int id, long value) {
+            fieldHeader(id, I64);
+            writeVarInt(out, (value << 1) ^ (value >> 63));
+        }
+
+        void fieldString(int id, String value) {
+            fieldHeader(id, BINARY);
+            string(value);
+        }
+
+        void listBegin(int id, int elementType, int size) {
+            fieldHeader(id, LIST);
+            if (size < 15) {
+                out.write((size << 4) | elementType);
+            } else {
+                out.write(0xF0 | elementType);
+                writeVarInt(out, size);
+            }
+        }
+
+        void i32(int value) {
+            writeVarInt(out, Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, bytes.length);
+            out.write(bytes, 0, bytes.length);
+        }
+
+        void raw(byte[] bytes) {
+            out.write(bytes, 0, bytes.length);
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+
+        private void fieldHeader(int id, int type) {
+            int delta = id - lastFieldIds[depth - 1];
+            if (delta > 0 && delta <= 15) {
+                out.write((delta << 4) | type);
+            } else {
+                out.write(type);
+                writeVarInt(out, Integer.toUnsignedLong((id << 1) ^ (id >> 31)));
+            }
+            lastFieldIds[depth - 1] = (short) id;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.collect.files.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.breaker.ConcurrentRamAccounting;
+import io.crate.data.breaker.RamAccounting;
+import io.crate.execution.engine.collect.files.LocalFsFileInput;
+import io.crate.types.DataType;
+import io.crate.types.DataTypes;
+
+public class ParquetWriterTest extends ESTestCase {
+
+    private static final List<String> NAMES = List.of("id", "name", "price", "active", "day", "obj");
+    private static final List<DataType<?>> TYPES = List.of(
+        DataTypes.LONG,
+        DataTypes.STRING,
+        DataTypes.DOUBLE,
+        DataTypes.BOOLEAN,
+        DataTypes.DATE,
+        DataTypes.UNTYPED_OBJECT
+    );
+
+    private static Object[] row(long id) {
+        return new Object[] {
+            id,
+            id % 5 == 0 ? null : "name" + (id % 3),
+            id % 4 == 0 ? null : id * 1.5,
+            id % 7 == 0 ? null : id % 2 == 0,
+            id * 86_400_000L,
+            Map.of("x", id)
+        };
+    }
+
+    private static List<Map<String, Object>> readAll(Path file) throws IOException {
+        ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < parquetFile.numRowGroups(); i++) {
+            RowGroupReader reader = parquetFile.readRowGroup(i, _ -> true, RamAccounting.NO_ACCOUNTING);
+            LinkedHashMap<String, Object> row;
+            while ((row = reader.nextRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_written_rows_can_be_read_with_all_codecs() throws Exception {
+        for (ParquetWriter.Codec codec : ParquetWriter.Codec.values()) {
+            Path file = createTempFile("data", ".parquet");
+            try (var writer = new ParquetWriter(Files.newOutputStream(file), NAMES, TYPES, codec, 4096, RamAccounting.NO_ACCOUNTING)) {
+                for (long id = 0; id < 1000; id++) {
+                    writer.write(row(id));
+                }
+            }
+            List<Map<String, Object>> rows = readAll(file);
+            assertThat(rows).as(codec.name()).hasSize(1000);
+            for (int i = 0; i < rows.size(); i++) {
+                Map<String, Object> row = rows.get(i);
+                Object[] expected = row(i);
+                assertThat(row.keySet()).containsExactlyElementsOf(NAMES);
+                assertThat(row.get("id")).isEqualTo(expected[0]);
+                assertThat(row.get("name")).isEqualTo(expected[1]);
+                assertThat(row.get("price")).isEqualTo(expected[2]);
+                assertThat(row.get("active")).isEqualTo(expected[3]);
+                assertThat(row.get("day")).isEqualTo(expected[4]);
+                assertThat(row.get("obj")).isEqualTo("{\"x\":" + i + "}");
+            }
+        }
+    }
+
+    @Test
+    public void test_row_groups_are_written_at_row_group_size() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        try (var writer = new ParquetWriter(
+                Files.newOutputStream(file), NAMES, TYPES, ParquetWriter.Codec.UNCOMPRESSED, 1024, RamAccounting.NO_ACCOUNTING)) {
+            for (long id = 0; id < 1000; id++) {
+                writer.write(row(id));
+            }
+        }
+        ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+        assertThat(parquetFile.numRowGroups()).isGreaterThan(1);
+        assertThat(readAll(file)).hasSize(1000);
+    }
+
+    @Test
+    public void test_buffered_pages_are_accounted_until_the_row_group_is_written() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(_ -> {}, _ -> {}, "parquet", 0);
+        try (var writer = new ParquetWriter(
+                Files.newOutputStream(file), NAMES, TYPES, ParquetWriter.Codec.UNCOMPRESSED, 4096, ramAccounting)) {
+            long maxAccounted = 0;
+            for (long id = 0; id < 1000; id++) {
+                writer.write(row(id));
+                assertThat(ramAccounting.totalBytes()).isLessThan(4096L);
+                maxAccounted = Math.max(maxAccounted, ramAccounting.totalBytes());
+            }
+            assertThat(maxAccounted).isGreaterThan(0L);
+        }
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+        assertThat(readAll(file)).hasSize(1000);
+    }
+
+    @Test
+    public void test_write_fails_if_buffered_pages_exceed_memory_limit() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        RamAccounting ramAccounting = new ConcurrentRamAccounting(_ -> {}, _ -> {}, "parquet", 1024);
+        var writer = new ParquetWriter(
+            Files.newOutputStream(file), NAMES, TYPES, ParquetWriter.Codec.UNCOMPRESSED, Long.MAX_VALUE, ramAccounting);
+        assertThatThrownBy(() -> {
+            for (long id = 0; id < 1000; id++) {
+                writer.write(row(id));
+            }
+        }).isExactlyInstanceOf(CircuitBreakingException.class);
+        writer.close();
+        assertThat(ramAccounting.totalBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_text_columns_fall_back_to_plain_encoding_if_dictionary_is_too_large() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        String padding = "x".repeat(1000);
+        int numRows = 2 * ParquetWriter.MAX_DICTIONARY_SIZE / padding.length();
+        try (var writer = new ParquetWriter(
+                Files.newOutputStream(file), List.of("s"), List.of(DataTypes.STRING), ParquetWriter.Codec.SNAPPY, Long.MAX_VALUE, RamAccounting.NO_ACCOUNTING)) {
+            for (int i = 0; i < numRows; i++) {
+                writer.write(new Object[] { i + padding });
+            }
+        }
+        List<Map<String, Object>> rows = readAll(file);
+        assertThat(rows).hasSize(numRows);
+        for (int i = 0; i < numRows; i++) {
+            assertThat(rows.get(i).get("s")).isEqualTo(i + padding);
+        }
+    }
+
+    @Test
+    public void test_file_without_rows_has_no_row_groups() throws Exception {
+        Path file = createTempFile("data", ".parquet");
+        new ParquetWriter(Files.newOutputStream(file), NAMES, TYPES, ParquetWriter.Codec.SNAPPY, 1024, RamAccounting.NO_ACCOUNTING).close();
+        ParquetFile parquetFile = ParquetFile.open(new LocalFsFileInput(file.toUri()), file.toUri());
+        assertThat(parquetFile.numRowGroups()).isZero();
+    }
+}
@@ -23,10 +23,19 @@ package io.crate.execution.engine.distribution;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
 import org.junit.Test;
 
 import io.crate.Streamer;
+import io.crate.data.Row;
 import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.testing.PlainRamAccounting;
 import io.crate.types.DataTypes;
 
@@ -40,4 +49,89 @@ public class StreamBucketTest {
         builder.add(new RowN("0123456789"));
         assertThat(builder.ramBytesUsed()).isEqualTo(1080L); //Used to be 12
     }
+
+    private static final Streamer<?>[] COLUMNAR_STREAMERS = new Streamer[] {
+        DataTypes.LONG.streamer(),
+        DataTypes.INTEGER.streamer(),
+        DataTypes.DOUBLE.streamer(),
+        DataTypes.FLOAT.streamer(),
+        DataTypes.BOOLEAN.streamer(),
+        DataTypes.STRING.streamer(),
+        DataTypes.STRING.streamer(),
+        DataTypes.TIMESTAMPZ.streamer(),
+        DataTypes.UNTYPED_OBJECT.streamer()
+    };
+
+    private static Object[] columnarRow(int i) {
+        return new Object[] {
+            i % 3 == 0 ? null : (long) i,
+            i,
+            i % 5 == 0 ? null : i * 0.5,
+            (float) i,
+            i % 7 == 0 ? null : i % 2 == 0,
+            "value" + (i % 4),
+            i % 11 == 0 ? null : "unique" + i,
+            1_700_000_000_000L + i,
+            i % 2 == 0 ? null : Map.of("x", i)
+        };
+    }
+
+    private static StreamBucket buildColumnar(int numRows) {
+        StreamBucket.Builder builder = new StreamBucket.Builder(COLUMNAR_STREAMERS, RamAccounting.NO_ACCOUNTING, true);
+        for (int i = 0; i < numRows; i++) {
+            builder.add(new RowN(columnarRow(i)));
+        }
+        return builder.build();
+    }
+
+    private static List<Object[]> materialize(StreamBucket bucket) {
+        List<Object[]> rows = new ArrayList<>();
+        for (Row row : bucket) {
+            rows.add(row.materialize());
+        }
+        return rows;
+    }
+
+    private static StreamBucket streamed(StreamBucket bucket, Version version) throws Exception {
+        BytesStreamOutput out = new BytesStreamOutput();
+        out.setVersion(version);
+        bucket.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        in.setVersion(version);
+        return new StreamBucket(in, COLUMNAR_STREAMERS);
+    }
+
+    @Test
+    public void test_columnar_bucket_returns_rows_in_order() throws Exception {
+        // 5000 rows exceed the compression threshold
+        for (int numRows : new int[] { 1, 64, 65, 5000 }) {
+            StreamBucket bucket = buildColumnar(numRows);
+            List<Object[]> expected = new ArrayList<>();
+            for (int i = 0; i < numRows; i++) {
+                expected.add(columnarRow(i));
+            }
+            assertThat(bucket.size()).isEqualTo(numRows);
+            assertThat(materialize(bucket)).containsExactlyElementsOf(expected);
+            assertThat(materialize(streamed(bucket, Version.CURRENT))).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void test_columnar_bucket_is_streamed_row_by_row_to_older_nodes() throws Exception {
+        StreamBucket bucket = buildColumnar(100);
+        StreamBucket received = streamed(bucket, Version.V_6_2_0);
+        assertThat(materialize(received)).containsExactlyElementsOf(materialize(bucket));
+    }
+
+    @Test
+    public void test_columnar_builder_can_be_reused_after_reset() {
+        StreamBucket.Builder builder = new StreamBucket.Builder(COLUMNAR_STREAMERS, RamAccounting.NO_ACCOUNTING, true);
+        builder.add(new RowN(columnarRow(0)));
+        builder.add(new RowN(columnarRow(1)));
+        builder.build();
+        builder.reset();
+        builder.add(new RowN(columnarRow(2)));
+        StreamBucket bucket = builder.build();
+        assertThat(materialize(bucket)).containsExactly(columnarRow(2));
+    }
 }
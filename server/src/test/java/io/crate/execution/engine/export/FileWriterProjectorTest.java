@@ -27,6 +27,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
@@ -45,11 +46,16 @@ import org.junit.rules.TemporaryFolder;
 import io.crate.data.BatchIterator;
 import io.crate.data.InMemoryBatchIterator;
 import io.crate.data.Row;
+import io.crate.data.RowN;
+import io.crate.data.breaker.RamAccounting;
 import io.crate.data.testing.RowGenerator;
 import io.crate.data.testing.TestingRowConsumer;
 import io.crate.exceptions.UnhandledServerException;
 import io.crate.execution.dsl.projection.WriterProjection;
+import io.crate.execution.engine.collect.CollectExpression;
+import io.crate.execution.engine.collect.RowCollectExpression;
 import io.crate.testing.TestingHelpers;
+import io.crate.types.DataTypes;
 
 public class FileWriterProjectorTest extends ESTestCase {
 
@@ -68,9 +74,9 @@ public class FileWriterProjectorTest extends ESTestCase {
         Path file = createTempFile("out", "json");
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
-            null, null, Set.of(),
+            null, null, List.of(), Set.of(),
             null, WriterProjection.OutputFormat.JSON_OBJECT,
-            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY, RamAccounting.NO_ACCOUNTING);
 
         new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null);
 
@@ -88,9 +94,9 @@ public class FileWriterProjectorTest extends ESTestCase {
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(
                 executorService, directory.toUri().toString(),
-                null, null, Set.of(),
+                null, null, List.of(), Set.of(),
                 null, WriterProjection.OutputFormat.JSON_OBJECT,
-                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY, RamAccounting.NO_ACCOUNTING);
         assertThatThrownBy(() -> new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null))
             .isExactlyInstanceOf(UnhandledServerException.class)
             .hasMessageStartingWith("Failed to open output: 'Output path is a directory: ");
@@ -101,12 +107,39 @@ public class FileWriterProjectorTest extends ESTestCase {
         String uri = Paths.get(folder.newFile().toURI()).resolve("out.json").toUri().toString();
 
         FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, uri,
-                null, null, Set.of(),
+                null, null, List.of(), Set.of(),
                 null, WriterProjection.OutputFormat.JSON_OBJECT,
-                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY);
+                Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY, RamAccounting.NO_ACCOUNTING);
 
         assertThatThrownBy(() -> new TestingRowConsumer().accept(fileWriterProjector.apply(sourceSupplier.get()), null))
             .isExactlyInstanceOf(UnhandledServerException.class)
             .hasMessageStartingWith("Failed to open output");
     }
+
+    @Test
+    public void test_write_csv_with_header_and_quoted_fields() throws Exception {
+        Path file = createTempFile("out", "csv");
+        List<CollectExpression<Row, ?>> expressions = List.of(new RowCollectExpression(0), new RowCollectExpression(1));
+
+        FileWriterProjector fileWriterProjector = new FileWriterProjector(executorService, file.toUri().toString(),
+            null, List.copyOf(expressions), List.of(DataTypes.INTEGER, DataTypes.STRING), expressions,
+            List.of("id", "name"), WriterProjection.OutputFormat.CSV,
+            Map.of(LocalFsFileOutputFactory.NAME, new LocalFsFileOutputFactory()), Settings.EMPTY, RamAccounting.NO_ACCOUNTING);
+
+        BatchIterator<Row> source = InMemoryBatchIterator.of(List.of(
+            new RowN(1, "Arthur"),
+            new RowN(2, "Dent, Arthur"),
+            new RowN(3, "say \"hi\""),
+            new RowN(4, null),
+            new RowN(5, "")), SENTINEL, true);
+        new TestingRowConsumer().accept(fileWriterProjector.apply(source), null);
+
+        assertThat(TestingHelpers.readFile(file.toAbsolutePath().toString())).isEqualTo("""
+            id,name
+            1,Arthur
+            2,"Dent, Arthur"
+            3,"say ""hi\"\"\"
+            4,
+            5,\"\"""");
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.elasticsearch.common.breaker.NoopCircuitBreaker;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.data.BatchIterator;
+import io.crate.data.Row;
+import io.crate.data.breaker.RowAccounting;
+import io.crate.data.join.CombinedRow;
+import io.crate.data.testing.BatchIteratorTester;
+import io.crate.data.testing.BatchIteratorTester.ResultOrder;
+import io.crate.data.testing.BatchSimulatingIterator;
+import io.crate.data.testing.TestingBatchIterators;
+import io.crate.types.DataTypes;
+
+public class GraceHashJoinBatchIteratorTest extends ESTestCase {
+
+    private static final List<Integer> LEFT = Arrays.asList(0, 0, 1, 2, 2, 3, 4, 4, 7, 9, 12, 15, 15, 21);
+    private static final List<Integer> RIGHT = Arrays.asList(1, 1, 2, 3, 4, 4, 5, 5, 6, 9, 15, 21, 21, 30);
+
+    private static List<Object[]> expectedResult(boolean emitUnmatchedRows) {
+        List<Object[]> result = new ArrayList<>();
+        for (Integer l : LEFT) {
+            boolean matched = false;
+            for (Integer r : RIGHT) {
+                if (l.equals(r)) {
+                    result.add(new Object[] { l, r });
+                    matched = true;
+                }
+            }
+            if (!matched && emitUnmatchedRows) {
+                result.add(new Object[] { l, null });
+            }
+        }
+        return result;
+    }
+
+    private Supplier<BatchIterator<Row>> joinIterator(Path spillDir,
+                                                      Supplier<BatchIterator<Row>> left,
+                                                      Supplier<BatchIterator<Row>> right,
+                                                      int blockSize,
+                                                      boolean emitUnmatchedRows) {
+        Streamer<?>[] streamers = new Streamer<?>[] { DataTypes.INTEGER.streamer() };
+        HashJoinSpill spill = new HashJoinSpill(spillDir, streamers, streamers, 4, () -> true);
+        return () -> new HashJoinBatchIterator(
+            new NoopCircuitBreaker("dummy"),
+            left.get(),
+            right.get(),
+            mock(RowAccounting.class),
+            new CombinedRow(1, 1),
+            row -> Objects.equals(row.get(0), row.get(1)),
+            row -> Objects.hash(row.get(0)),
+            row -> Objects.hash(row.get(0)),
+            ignored -> blockSize,
+            emitUnmatchedRows,
+            spill
+        );
+    }
+
+    private static void assertNoSpillFilesLeft(Path spillDir) throws Exception {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_inner_join_spills_to_disk_if_left_side_exceeds_block() throws Exception {
+        Path spillDir = createTempDir();
+        var joinIterator = joinIterator(
+            spillDir,
+            () -> TestingBatchIterators.ofValues(LEFT),
+            () -> TestingBatchIterators.ofValues(RIGHT),
+            2,
+            false
+        );
+        var tester = BatchIteratorTester.forRows(joinIterator, ResultOrder.ANY);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult(false));
+        assertNoSpillFilesLeft(spillDir);
+    }
+
+    @Test
+    public void test_inner_join_spills_to_disk_with_batched_sources() throws Exception {
+        Path spillDir = createTempDir();
+        var joinIterator = joinIterator(
+            spillDir,
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(LEFT), 3, 5, null),
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(RIGHT), 2, 7, null),
+            3,
+            false
+        );
+        var tester = BatchIteratorTester.forRows(joinIterator, ResultOrder.ANY);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult(false));
+        assertNoSpillFilesLeft(spillDir);
+    }
+
+    @Test
+    public void test_left_join_spills_to_disk_and_emits_unmatched_rows() throws Exception {
+        Path spillDir = createTempDir();
+        var joinIterator = joinIterator(
+            spillDir,
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(LEFT), 3, 5, null),
+            () -> new BatchSimulatingIterator<>(TestingBatchIterators.ofValues(RIGHT), 2, 7, null),
+            2,
+            true
+        );
+        var tester = BatchIteratorTester.forRows(joinIterator, ResultOrder.ANY);
+        tester.verifyResultAndEdgeCaseBehaviour(expectedResult(true));
+        assertNoSpillFilesLeft(spillDir);
+    }
+
+    @Test
+    public void test_left_side_fitting_into_block_does_not_spill() throws Exception {
+        Path spillDir = createTempDir();
+        var joinIterator = joinIterator(
+            spillDir,
+            () -> TestingBatchIterators.ofValues(LEFT),
+            () -> TestingBatchIterators.ofValues(RIGHT),
+            LEFT.size() + 1,
+            false
+        );
+        BatchIterator<Row> it = joinIterator.get();
+        assertThat(it.moveNext()).isTrue();
+        assertNoSpillFilesLeft(spillDir);
+        it.close();
+    }
+
+    @Test
+    public void test_close_during_join_phase_removes_spill_files() throws Exception {
+        Path spillDir = createTempDir();
+        var joinIterator = joinIterator(
+            spillDir,
+            () -> TestingBatchIterators.ofValues(LEFT),
+            () -> TestingBatchIterators.ofValues(RIGHT),
+            2,
+            false
+        );
+        BatchIterator<Row> it = joinIterator.get();
+        assertThat(it.moveNext()).isTrue();
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files).isNotEmpty();
+        }
+        it.close();
+        assertNoSpillFilesLeft(spillDir);
+    }
+
+    @Test
+    public void test_kill_during_join_phase_keeps_spill_files_until_close() throws Exception {
+        Path spillDir = createTempDir();
+        var joinIterator = joinIterator(
+            spillDir,
+            () -> TestingBatchIterators.ofValues(LEFT),
+            () -> TestingBatchIterators.ofValues(RIGHT),
+            2,
+            false
+        );
+        BatchIterator<Row> it = joinIterator.get();
+        assertThat(it.moveNext()).isTrue();
+
+        it.kill(new InterruptedException("killed"));
+        try (Stream<Path> files = Files.list(spillDir)) {
+            assertThat(files)
+                .as("The consumer may still read the spill files, they are deleted on close")
+                .isNotEmpty();
+        }
+        assertThatThrownBy(it::moveNext)
+            .isExactlyInstanceOf(InterruptedException.class)
+            .hasMessage("killed");
+
+        it.close();
+        assertNoSpillFilesLeft(spillDir);
+    }
+}
@@ -50,6 +50,7 @@ public class RamBlockSizeCalculatorTest {
         );
         assertThat(blockCalculator10LeftRows.applyAsInt(-1)).isEqualTo(20);
         assertThat(blockCalculator10LeftRows.applyAsInt(50)).isEqualTo(2);
+        assertThat(blockCalculator10LeftRows.limitedByMemory()).isTrue();
     }
 
     @Test
@@ -61,6 +62,7 @@ public class RamBlockSizeCalculatorTest {
             10
         );
         assertThat(blockSizeCalculator.applyAsInt(-1)).isEqualTo(RamBlockSizeCalculator.FALLBACK_SIZE);
+        assertThat(blockSizeCalculator.limitedByMemory()).isFalse();
 
         when(circuitBreaker.getLimit()).thenReturn(110L);
         when(circuitBreaker.getUsed()).thenReturn(10L);
@@ -113,5 +115,6 @@ public class RamBlockSizeCalculatorTest {
             1
         );
         assertThat(blockSizeCalculator.applyAsInt(-1)).isEqualTo(defaultBlockSize);
+        assertThat(blockSizeCalculator.limitedByMemory()).isFalse();
     }
 }
@@ -0,0 +1,121 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.join;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class RuntimeFilterTest extends ESTestCase {
+
+    @Test
+    public void test_num_bits_is_a_power_of_two_within_bounds() {
+        assertThat(RuntimeFilter.numBits(0)).isEqualTo(RuntimeFilter.MIN_NUM_BITS);
+        assertThat(RuntimeFilter.numBits(100)).isEqualTo(1024);
+        assertThat(RuntimeFilter.numBits(1000)).isEqualTo(16384);
+        assertThat(RuntimeFilter.numBits(100_000_000)).isEqualTo(RuntimeFilter.MAX_NUM_BITS);
+    }
+
+    @Test
+    public void test_filter_has_no_false_negatives_and_few_false_positives() {
+        int numKeys = 10_000;
+        RuntimeFilter filter = new RuntimeFilter(RuntimeFilter.numBits(numKeys));
+        for (int i = 0; i < numKeys; i++) {
+            filter.add(i * 2L);
+        }
+        assertThat(filter.min()).isEqualTo(0L);
+        assertThat(filter.max()).isEqualTo((numKeys - 1) * 2L);
+
+        int falsePositives = 0;
+        for (int i = 0; i < numKeys; i++) {
+            assertThat(filter.mightContain(i * 2L)).isTrue();
+            if (filter.mightContain(i * 2L + 1)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(numKeys / 50);
+        assertThat(filter.mightContain(-1L)).isFalse();
+        assertThat(filter.mightContain(numKeys * 2L)).isFalse();
+    }
+
+    @Test
+    public void test_merge_contains_keys_of_both_filters() {
+        RuntimeFilter f1 = new RuntimeFilter(1024);
+        RuntimeFilter f2 = new RuntimeFilter(1024);
+        f1.add(10L);
+        f2.add(-5L);
+        f2.add(20L);
+        f1.merge(f2);
+
+        assertThat(f1.min()).isEqualTo(-5L);
+        assertThat(f1.max()).isEqualTo(20L);
+        assertThat(f1.mightContain(10L)).isTrue();
+        assertThat(f1.mightContain(-5L)).isTrue();
+        assertThat(f1.mightContain(20L)).isTrue();
+
+        RuntimeFilter empty = new RuntimeFilter();
+        empty.merge(f1);
+        assertThat(empty.mightContain(-5L)).isTrue();
+
+        RuntimeFilter other = new RuntimeFilter(2048);
+        other.add(1L);
+        assertThatThrownBy(() -> f1.merge(other))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Cannot merge runtime filters of different sizes: 1024 and 2048");
+    }
+
+    @Test
+    public void test_encode_and_decode_filter() throws Exception {
+        RuntimeFilter filter = new RuntimeFilter(1024);
+        filter.add(42L);
+        filter.add(Long.MAX_VALUE);
+
+        List<Long> encoded = filter.toList();
+        assertThat(encoded).hasSize(2 + 1024 / 64);
+        RuntimeFilter decoded = RuntimeFilter.fromList(encoded);
+        assertThat(decoded.toList()).isEqualTo(encoded);
+        assertThat(decoded.mightContain(42L)).isTrue();
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        filter.writeTo(out);
+        StreamInput in = out.bytes().streamInput();
+        assertThat(new RuntimeFilter(in).toList()).isEqualTo(encoded);
+    }
+
+    @Test
+    public void test_empty_filter_contains_nothing() throws Exception {
+        RuntimeFilter filter = new RuntimeFilter();
+        assertThat(filter.isEmpty()).isTrue();
+        assertThat(filter.toList()).isEmpty();
+        assertThat(RuntimeFilter.fromList(List.of()).mightContain(1L)).isFalse();
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        filter.writeTo(out);
+        assertThat(new RuntimeFilter(out.bytes().streamInput()).isEmpty()).isTrue();
+    }
+}
@@ -30,6 +30,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -44,6 +46,7 @@ import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.junit.Before;
 import org.junit.Test;
 
+import io.crate.breaker.ConcurrentRamAccounting;
 import io.crate.data.BatchIterator;
 import io.crate.data.Bucket;
 import io.crate.data.CollectionBucket;
@@ -60,7 +63,10 @@ import io.crate.execution.dsl.projection.GroupProjection;
 import io.crate.execution.dsl.projection.LimitAndOffsetProjection;
 import io.crate.execution.dsl.projection.OrderedLimitAndOffsetProjection;
 import io.crate.execution.engine.aggregation.AggregationPipe;
+import io.crate.execution.engine.aggregation.GroupingCollector;
 import io.crate.execution.engine.aggregation.GroupingProjector;
+import io.crate.execution.engine.aggregation.PackedKeysGroupingCollector;
+import io.crate.execution.engine.aggregation.impl.ArrayAgg;
 import io.crate.execution.engine.aggregation.impl.CountAggregation;
 import io.crate.execution.engine.sort.SortingLimitAndOffsetProjector;
 import io.crate.execution.engine.sort.SortingProjector;
@@ -277,6 +283,231 @@ public class ProjectionToProjectorVisitorTest extends CrateDummyClusterServiceUn
         );
     }
 
+    private ProjectionToProjectorVisitor spillingVisitor(Path spillDirectory) {
+        return new ProjectionToProjectorVisitor(
+            clusterService,
+            new NodeLimits(new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS)),
+            new NoneCircuitBreakerService(),
+            nodeCtx,
+            THREAD_POOL,
+            Settings.EMPTY,
+            mock(Client.class),
+            new InputFactory(nodeCtx),
+            EvaluatingNormalizer.functionOnlyNormalizer(nodeCtx),
+            t -> null,
+            t -> null,
+            spillDirectory
+        );
+    }
+
+    private static RamAccounting limitedRamAccounting(int limitInBytes) {
+        return new ConcurrentRamAccounting(bytes -> {}, bytes -> {}, "test", limitInBytes);
+    }
+
+    @Test
+    public void test_sorting_projector_spills_sorted_runs_if_memory_limit_is_reached() throws Exception {
+        Path spillDirectory = createTempDir();
+        List<Symbol> outputs = List.of(new InputColumn(0, DataTypes.INTEGER));
+        OrderedLimitAndOffsetProjection projection = new OrderedLimitAndOffsetProjection(
+            NO_LIMIT,
+            5,
+            outputs,
+            List.of(new InputColumn(0, DataTypes.INTEGER)),
+            new boolean[]{false},
+            new boolean[]{false}
+        );
+        Projector projector = spillingVisitor(spillDirectory).create(
+            projection, txnCtx, limitedRamAccounting(1024), memoryManager, UUID.randomUUID());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            rows.add(new Object[] { i });
+        }
+        Collections.shuffle(rows, random());
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(new CollectionBucket(rows), SENTINEL, true)), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result).hasSize(495);
+        for (int i = 0; i < result.size(); i++) {
+            assertThat(result.get(i)).isEqualTo(new Object[] { i + 5 });
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_grouping_projector_spills_groups_if_memory_limit_is_reached() throws Exception {
+        Path spillDirectory = createTempDir();
+        List<Symbol> keys = List.of(new InputColumn(0, DataTypes.INTEGER));
+        List<Aggregation> aggregations = List.of(
+            new Aggregation(
+                avgSignature,
+                avgSignature.getReturnType().createType(),
+                List.of(new InputColumn(1))),
+            new Aggregation(
+                CountAggregation.SIGNATURE,
+                CountAggregation.SIGNATURE.getReturnType().createType(),
+                List.of(new InputColumn(0)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.CLUSTER);
+        Projector projector = spillingVisitor(spillDirectory).create(
+            projection, txnCtx, limitedRamAccounting(2048), memoryManager, UUID.randomUUID());
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[] { i % 300, i % 300 });
+        }
+        rows.add(new Object[] { null, 10 });
+        Collections.shuffle(rows, random());
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(new CollectionBucket(rows), SENTINEL, true)), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result).hasSize(301);
+        for (Object[] row : result) {
+            Integer key = (Integer) row[0];
+            if (key == null) {
+                assertThat(row).isEqualTo(new Object[] { null, 10.0, 0L });
+            } else {
+                long expectedCount = key < 100 ? 4L : 3L;
+                assertThat(row).isEqualTo(new Object[] { key, (double) key, expectedCount });
+            }
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_grouping_projector_with_packed_keys_spills_groups_if_memory_limit_is_reached() throws Exception {
+        Path spillDirectory = createTempDir();
+        List<Symbol> keys = List.of(
+            new InputColumn(0, DataTypes.INTEGER),
+            new InputColumn(1, DataTypes.STRING)
+        );
+        List<Aggregation> aggregations = List.of(
+            new Aggregation(
+                CountAggregation.SIGNATURE,
+                CountAggregation.SIGNATURE.getReturnType().createType(),
+                List.of(new InputColumn(0)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.CLUSTER);
+        Projector projector = spillingVisitor(spillDirectory).create(
+            projection, txnCtx, limitedRamAccounting(4096), memoryManager, UUID.randomUUID());
+        assertThat(((GroupingProjector) projector).getCollector()).isExactlyInstanceOf(PackedKeysGroupingCollector.class);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[] { i % 250, "v" + (i % 2) });
+        }
+        rows.add(new Object[] { null, null });
+        Collections.shuffle(rows, random());
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(new CollectionBucket(rows), SENTINEL, true)), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result).hasSize(251);
+        for (Object[] row : result) {
+            Integer key = (Integer) row[0];
+            if (key == null) {
+                assertThat(row).isEqualTo(new Object[] { null, null, 0L });
+            } else {
+                assertThat(row).isEqualTo(new Object[] { key, "v" + (key % 2), 4L });
+            }
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    public void test_grouping_projector_with_many_keys_spills_groups_if_memory_limit_is_reached() throws Exception {
+        Path spillDirectory = createTempDir();
+        // IP keys aren't supported by the PackedKeyGroupTable
+        List<Symbol> keys = List.of(
+            new InputColumn(0, DataTypes.INTEGER),
+            new InputColumn(1, DataTypes.IP)
+        );
+        List<Aggregation> aggregations = List.of(
+            new Aggregation(
+                CountAggregation.SIGNATURE,
+                CountAggregation.SIGNATURE.getReturnType().createType(),
+                List.of(new InputColumn(0)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.CLUSTER);
+        Projector projector = spillingVisitor(spillDirectory).create(
+            projection, txnCtx, limitedRamAccounting(2048), memoryManager, UUID.randomUUID());
+        assertThat(((GroupingProjector) projector).getCollector()).isExactlyInstanceOf(GroupingCollector.class);
+
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[] { i % 250, "10.0.0." + (i % 2) });
+        }
+        Collections.shuffle(rows, random());
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(new CollectionBucket(rows), SENTINEL, true)), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result).hasSize(250);
+        for (Object[] row : result) {
+            Integer key = (Integer) row[0];
+            assertThat(row).isEqualTo(new Object[] { key, "10.0.0." + (key % 2), 4L });
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void test_grouping_projector_spills_groups_if_state_growth_reaches_memory_limit() throws Exception {
+        Path spillDirectory = createTempDir();
+        List<Symbol> keys = List.of(new InputColumn(0, DataTypes.INTEGER));
+        List<Aggregation> aggregations = List.of(
+            new Aggregation(
+                ArrayAgg.SIGNATURE,
+                DataTypes.INTEGER_ARRAY,
+                List.of(new InputColumn(1, DataTypes.INTEGER)))
+        );
+        GroupProjection projection = new GroupProjection(
+            keys, aggregations, AggregateMode.ITER_FINAL, RowGranularity.CLUSTER);
+        Projector projector = spillingVisitor(spillDirectory).create(
+            projection, txnCtx, limitedRamAccounting(2048), memoryManager, UUID.randomUUID());
+
+        // Only two groups, the memory limit is reached by adding values to the existing states
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new Object[] { i % 2, i });
+        }
+        Collections.shuffle(rows, random());
+
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(projector.apply(InMemoryBatchIterator.of(new CollectionBucket(rows), SENTINEL, true)), null);
+
+        List<Object[]> result = consumer.getResult();
+        assertThat(result).hasSize(2);
+        for (Object[] row : result) {
+            int key = (Integer) row[0];
+            List<Integer> values = (List<Integer>) row[1];
+            assertThat(values)
+                .hasSize(500)
+                .allSatisfy(value -> assertThat(value % 2).isEqualTo(key))
+                .doesNotHaveDuplicates();
+        }
+        try (var files = Files.list(spillDirectory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
     @Test
     public void testFilterProjection() throws Exception {
         List<Symbol> arguments = Arrays.asList(Literal.of(2), new InputColumn(1));
@@ -0,0 +1,99 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.execution.engine.spill;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.Streamer;
+import io.crate.data.CloseableIterator;
+import io.crate.data.RowN;
+import io.crate.types.DataTypes;
+
+public class SpillFileTest extends ESTestCase {
+
+    private static final Streamer<?>[] STREAMERS = new Streamer<?>[] {
+        DataTypes.INTEGER.streamer(),
+        DataTypes.STRING.streamer()
+    };
+
+    private static List<Object[]> readAll(SpillFile spillFile) {
+        List<Object[]> rows = new ArrayList<>();
+        try (CloseableIterator<Object[]> it = spillFile.rows()) {
+            while (it.hasNext()) {
+                rows.add(it.next());
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    public void test_rows_can_be_read_back_multiple_times() throws Exception {
+        Path dir = createTempDir();
+        try (SpillFile spillFile = new SpillFile(dir, STREAMERS)) {
+            spillFile.add(new Object[] { 1, "foo" });
+            spillFile.add(new RowN(2, null));
+            spillFile.add(new Object[] { null, "bar" });
+            spillFile.finishWriting();
+
+            assertThat(spillFile.numRows()).isEqualTo(3L);
+            List<Object[]> expected = List.of(
+                new Object[] { 1, "foo" },
+                new Object[] { 2, null },
+                new Object[] { null, "bar" }
+            );
+            assertThat(readAll(spillFile)).containsExactlyElementsOf(expected);
+            assertThat(readAll(spillFile)).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    public void test_close_deletes_file() throws Exception {
+        Path dir = createTempDir();
+        SpillFile spillFile = new SpillFile(dir, STREAMERS);
+        spillFile.add(new Object[] { 1, "foo" });
+        assertThat(Files.exists(spillFile.path())).isTrue();
+        spillFile.close();
+        assertThat(Files.exists(spillFile.path())).isFalse();
+    }
+
+    @Test
+    public void test_cannot_read_before_finish_or_write_after_finish() throws Exception {
+        Path dir = createTempDir();
+        try (SpillFile spillFile = new SpillFile(dir, STREAMERS)) {
+            assertThatThrownBy(spillFile::rows)
+                .isExactlyInstanceOf(IllegalStateException.class);
+            spillFile.finishWriting();
+            assertThatThrownBy(() -> spillFile.add(new Object[] { 1, "foo" }))
+                .isExactlyInstanceOf(IllegalStateException.class);
+            assertThat(readAll(spillFile)).isEmpty();
+        }
+    }
+}
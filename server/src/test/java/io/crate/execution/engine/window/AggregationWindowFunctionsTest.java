@@ -372,4 +372,29 @@ public class AggregationWindowFunctionsTest extends AbstractWindowFunctionTest {
             rows
         );
     }
+
+    @Test
+    public void test_min_over_sliding_rows_frame_with_partitions() throws Throwable {
+        assertEvaluate(
+            "min(x) over (partition by x > 2 order by x rows between 1 preceding and 1 following)",
+            new Object[] { 1, 1, 2, 3, 3, 4, null },
+            List.of(ColumnIdent.of("x")),
+            INPUT_ROWS
+        );
+    }
+
+    @Test
+    public void test_max_over_sliding_rows_frame() throws Throwable {
+        assertEvaluate(
+            "max(x) over (order by d rows between 2 preceding and current row)",
+            new Object[] { 5, 5, 5, 4, 4, 3 },
+            List.of(ColumnIdent.of("x"), ColumnIdent.of("d")),
+            $(5, 1.0),
+            $(1, 2.0),
+            $(4, 3.0),
+            $(2, 4.0),
+            $(3, 5.0),
+            $(0, 6.0)
+        );
+    }
 }
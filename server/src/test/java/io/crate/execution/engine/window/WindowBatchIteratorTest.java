@@ -118,6 +118,60 @@ public class WindowBatchIteratorTest {
         tester.verifyResultAndEdgeCaseBehaviour(expectedRowNumberResult);
     }
 
+    @Test
+    public void test_sorted_window_batch_iterator_computes_one_partition_at_a_time() throws Exception {
+        Comparator<Object[]> cmpPartitionBy = Comparator.comparingInt(row -> (int) row[0] / 4);
+        var tester = BatchIteratorTester.forRows(
+            () -> WindowFunctionBatchIterator.ofSorted(
+                new BatchSimulatingIterator<>(TestingBatchIterators.range(0, 10), 3, 4, null),
+                ignored -> {},
+                new IgnoreRowAccounting(),
+                (partitionStart, _, _, _) -> partitionStart,
+                (_, _, currentIndex, _) -> currentIndex + 1,
+                cmpPartitionBy,
+                1,
+                List.of(rowNumberWindowFunction()),
+                List.of(),
+                new Boolean[]{null},
+                new Input[][]{new Input[0]}),
+            ResultOrder.EXACT
+        );
+        tester.verifyResultAndEdgeCaseBehaviour(List.of(
+            $(0, 1),
+            $(1, 2),
+            $(2, 3),
+            $(3, 4),
+            $(4, 1),
+            $(5, 2),
+            $(6, 3),
+            $(7, 4),
+            $(8, 1),
+            $(9, 2)
+        ));
+    }
+
+    @Test
+    public void test_sorted_window_batch_iterator_releases_memory_of_emitted_partitions() {
+        RamAccounting ramAccounting = ConcurrentRamAccounting.forCircuitBreaker("test", new NoopCircuitBreaker("dummy"), 0);
+        BatchIterator<Row> iterator = WindowFunctionBatchIterator.ofSorted(
+            TestingBatchIterators.range(0, 10),
+            ramAccounting::addBytes,
+            new TypedRowAccounting(List.of(DataTypes.INTEGER), ramAccounting, 32),
+            (partitionStart, _, _, _) -> partitionStart,
+            (_, _, currentIndex, _) -> currentIndex + 1,
+            Comparator.comparingInt(row -> (int) row[0] / 4),
+            1,
+            List.of(rowNumberWindowFunction()),
+            List.of(),
+            new Boolean[]{null},
+            new Input[][]{new Input[0]}
+        );
+        TestingRowConsumer consumer = new TestingRowConsumer();
+        consumer.accept(iterator, null);
+        // Only the empty buffer for the next partition remains, the rows of all partitions have been released
+        assertThat(ramAccounting.totalBytes()).isLessThan(48L);
+    }
+
     @Test
     public void testFrameBoundsEmptyWindow() throws Exception {
         var rows = IntStream.range(0, 10).mapToObj(i -> new Object[]{i, null}).toList();
@@ -45,9 +45,11 @@ import org.junit.Test;
 import io.crate.execution.engine.collect.NestableCollectExpression;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.expressions.RowCollectExpressionFactory;
+import io.crate.memory.OffHeapStats;
 import io.crate.metadata.sys.SysNodesTableInfo;
 import io.crate.monitor.ExtendedNodeInfo;
 import io.crate.protocols.ConnectionStats;
+import io.crate.session.PlanCacheStats;
 
 public class NodeStatsContextFieldResolverTest {
 
@@ -77,7 +79,9 @@ public class NodeStatsContextFieldResolverTest {
             () -> new ConnectionStats(11, 22, 33, 44, 55, 66),
             () -> postgresAddress,
             () -> new ConnectionStats(111, 222, 333, 444, 555, 666),
-            () -> 1L
+            () -> 1L,
+            () -> new OffHeapStats(256, 1024, 512),
+            () -> new PlanCacheStats(10, 42, 7, 2)
         );
     }
 
@@ -106,6 +110,50 @@ public class NodeStatsContextFieldResolverTest {
         assertThat(total.value()).isEqualTo(2L);
     }
 
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void test_off_heap_stats_can_be_retrieved() {
+        NodeStatsContext statsContext = resolver.forTopColumnIdents(
+            Collections.singletonList(SysNodesTableInfo.Columns.OFF_HEAP));
+        RowCollectExpressionFactory<NodeStatsContext> expressionFactory =
+            SysNodesTableInfo.INSTANCE.expressions().get(SysNodesTableInfo.Columns.OFF_HEAP);
+        NestableCollectExpression<NodeStatsContext, ?> expression = expressionFactory.create();
+
+        NestableCollectExpression used = (NestableCollectExpression) expression.getChild("used");
+        used.setNextRow(statsContext);
+        assertThat(used.value()).isEqualTo(256L);
+
+        NestableCollectExpression free = (NestableCollectExpression) expression.getChild("free");
+        free.setNextRow(statsContext);
+        assertThat(free.value()).isEqualTo(768L);
+
+        NestableCollectExpression pooled = (NestableCollectExpression) expression.getChild("pooled");
+        pooled.setNextRow(statsContext);
+        assertThat(pooled.value()).isEqualTo(512L);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Test
+    public void test_plan_cache_stats_can_be_retrieved() {
+        NodeStatsContext statsContext = resolver.forTopColumnIdents(
+            Collections.singletonList(SysNodesTableInfo.Columns.PLAN_CACHE));
+        RowCollectExpressionFactory<NodeStatsContext> expressionFactory =
+            SysNodesTableInfo.INSTANCE.expressions().get(SysNodesTableInfo.Columns.PLAN_CACHE);
+        NestableCollectExpression<NodeStatsContext, ?> expression = expressionFactory.create();
+
+        NestableCollectExpression size = (NestableCollectExpression) expression.getChild("size");
+        size.setNextRow(statsContext);
+        assertThat(size.value()).isEqualTo(10L);
+
+        NestableCollectExpression hits = (NestableCollectExpression) expression.getChild("hits");
+        hits.setNextRow(statsContext);
+        assertThat(hits.value()).isEqualTo(42L);
+
+        NestableCollectExpression misses = (NestableCollectExpression) expression.getChild("misses");
+        misses.setNextRow(statsContext);
+        assertThat(misses.value()).isEqualTo(7L);
+    }
+
     @SuppressWarnings("rawtypes")
     @Test
     public void testNumberOfPSqlConnectionsCanBeRetrieved() {
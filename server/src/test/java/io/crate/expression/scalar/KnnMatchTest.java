@@ -27,10 +27,12 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.List;
 
+import org.apache.lucene.search.KnnFloatVectorQuery;
 import org.apache.lucene.search.Query;
 import org.elasticsearch.Version;
 import org.junit.Test;
 
+import io.crate.lucene.RescoreKnnFloatVectorQuery;
 import io.crate.testing.QueryTester;
 
 public class KnnMatchTest extends ScalarTestCase {
@@ -66,5 +68,102 @@ public class KnnMatchTest extends ScalarTestCase {
             );
         }
     }
-}
 
+    @Test
+    public void test_knn_match_uses_other_conditions_as_pre_filter() throws Exception {
+        String createTable = "create table tbl (x float_vector(2), tenant int)";
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            createTable
+        );
+        float[] vector1 = new float[] { 0.0f, 0.0f };
+        float[] vector2 = new float[] { 0.1f, 0.1f };
+        float[] vector3 = new float[] { 10.0f, 10.0f };
+        float[] vector4 = new float[] { 11.0f, 11.0f };
+        builder.indexValues(List.of("x", "tenant"), vector1, 1);
+        builder.indexValues(List.of("x", "tenant"), vector2, 1);
+        builder.indexValues(List.of("x", "tenant"), vector3, 2);
+        builder.indexValues(List.of("x", "tenant"), vector4, 2);
+        try (QueryTester tester = builder.build()) {
+            Query query = tester.toQuery("knn_match(x, [0.0, 0.0], 1) and tenant = 2");
+            assertThat(query).isExactlyInstanceOf(KnnFloatVectorQuery.class);
+
+            // Post-filtering the nearest neighbour would result in no rows
+            List<Object> result = tester.runQuery("x", "knn_match(x, [0.0, 0.0], 1) and tenant = 2");
+            assertThat(result).containsExactly(vector3);
+        }
+    }
+
+    @Test
+    public void test_knn_match_rescores_quantized_vectors_if_oversample_is_set() throws Exception {
+        String createTable = "create table tbl (x float_vector(2)) " +
+            "with (\"vector.quantization\" = 'int8', \"vector.rescore_oversample\" = 3)";
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            createTable
+        );
+        float[] vector1 = new float[] { 0.0f, 0.0f };
+        float[] vector2 = new float[] { 1.0f, 1.0f };
+        float[] vector3 = new float[] { 2.0f, 2.0f };
+        float[] vector4 = new float[] { 3.0f, 3.0f };
+        builder.indexValues("x", vector1, vector2, vector3, vector4);
+        try (QueryTester tester = builder.build()) {
+            Query query = tester.toQuery("knn_match(x, [2.1, 2.1], 2)");
+            assertThat(query).isExactlyInstanceOf(RescoreKnnFloatVectorQuery.class);
+            assertThat(query.toString()).isEqualTo("RescoreKnnFloatVectorQuery:x[2.1,...][2](numCandidates=6, rescore=EUCLIDEAN)");
+
+            List<Object> result = tester.runQuery("x", "knn_match(x, [2.1, 2.1], 2)");
+            assertThat(result).containsExactlyInAnyOrder(vector3, vector4);
+        }
+    }
+
+    @Test
+    public void test_knn_match_uses_similarity_of_column() throws Exception {
+        String createTable = "create table tbl (x float_vector(2) index using hnsw with (similarity = 'cosine'))";
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            createTable
+        );
+        float[] vector1 = new float[] { 100.0f, 0.0f };
+        float[] vector2 = new float[] { 1.0f, 1.0f };
+        builder.indexValues("x", vector1, vector2);
+        try (QueryTester tester = builder.build()) {
+            // [1.0, 1.0] would be the nearest neighbour using the euclidean distance
+            List<Object> result = tester.runQuery("x", "knn_match(x, [2.0, 0.1], 1)");
+            assertThat(result).containsExactly(vector1);
+        }
+    }
+
+    @Test
+    public void test_knn_match_searches_num_candidates_and_returns_k() throws Exception {
+        String createTable = "create table tbl (x float_vector(2) index using hnsw with (num_candidates = 3))";
+        QueryTester.Builder builder = new QueryTester.Builder(
+            THREAD_POOL,
+            clusterService,
+            Version.CURRENT,
+            createTable
+        );
+        float[] vector1 = new float[] { 0.0f, 0.0f };
+        float[] vector2 = new float[] { 1.0f, 1.0f };
+        float[] vector3 = new float[] { 2.0f, 2.0f };
+        float[] vector4 = new float[] { 3.0f, 3.0f };
+        builder.indexValues("x", vector1, vector2, vector3, vector4);
+        try (QueryTester tester = builder.build()) {
+            Query query = tester.toQuery("knn_match(x, [2.1, 2.1], 2)");
+            assertThat(query.toString()).isEqualTo("RescoreKnnFloatVectorQuery:x[2.1,...][2](numCandidates=3)");
+
+            List<Object> result = tester.runQuery("x", "knn_match(x, [2.1, 2.1], 2)");
+            assertThat(result).containsExactlyInAnyOrder(vector3, vector4);
+
+            // num_candidates is only a lower bound for the search width
+            query = tester.toQuery("knn_match(x, [2.1, 2.1], 5)");
+            assertThat(query).isExactlyInstanceOf(KnnFloatVectorQuery.class);
+        }
+    }
+}
@@ -37,6 +37,7 @@ import io.crate.planner.CreateForeignTablePlan;
 import io.crate.planner.CreateServerPlan;
 import io.crate.planner.CreateUserMappingPlan;
 import io.crate.planner.node.dql.Collect;
+import io.crate.planner.operators.LogicalPlan;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
 import io.crate.testing.SQLExecutor;
 
@@ -190,6 +191,43 @@ public class ForeignDataWrapperPlannerTest extends CrateDummyClusterServiceUnitT
     }
 
 
+    @Test
+    public void test_aggregations_and_limit_are_pushed_down_to_foreign_collect() throws Exception {
+        Settings options = Settings.builder()
+            .put("url", "jdbc:postgresql://localhost:5432/")
+            .build();
+        var e = SQLExecutor.of(clusterService)
+            .addServer("pg", "jdbc", "crate", options)
+            .addForeignTable("CREATE FOREIGN TABLE doc.t2 (x int, name text) SERVER pg OPTIONS (schema_name 'doc')");
+
+        Collect collect = e.plan("SELECT x, count(*) FROM doc.t2 GROUP BY x");
+        var phase = (ForeignCollectPhase) collect.collectPhase();
+        assertThat(phase.toCollect()).satisfiesExactly(
+            x -> assertThat(x).isReference().hasName("x"),
+            x -> assertThat(x).isFunction("count")
+        );
+        assertThat(phase.pushdown().aggregate()).isTrue();
+        assertThat(phase.pushdown().groupKeys()).satisfiesExactly(
+            x -> assertThat(x).isReference().hasName("x")
+        );
+
+        LogicalPlan plan = e.logicalPlan("SELECT x FROM doc.t2 ORDER BY x LIMIT 10 OFFSET 5");
+        assertThat(plan).hasOperators(
+            "Limit[10::bigint;5::bigint]",
+            "  └ OrderBy[x ASC]",
+            "    └ ForeignCollect[doc.t2 | [x] | true | orderBy=[x ASC] | limit=10::bigint;5::bigint]"
+        );
+
+        plan = e.logicalPlan("SELECT name FROM doc.t2 ORDER BY name LIMIT 10");
+        assertThat(plan)
+            .as("Ordering on text depends on the collation of the foreign database and isn't pushed down")
+            .hasOperators(
+                "Limit[10::bigint;0]",
+                "  └ OrderBy[name ASC]",
+                "    └ ForeignCollect[doc.t2 | [name] | true]"
+            );
+    }
+
     @Test
     public void test_cannot_use_unsupported_options_in_alter_server() throws Exception {
         Settings options = Settings.builder().put("url", "jdbc:postgresql://localhost:5432/").build();
@@ -23,12 +23,17 @@ package io.crate.fdw;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import org.junit.Test;
 
+import io.crate.analyze.OrderBy;
+import io.crate.execution.engine.pipeline.LimitAndOffset;
 import io.crate.expression.symbol.Literal;
 import io.crate.expression.symbol.Symbol;
+import io.crate.fdw.JdbcBatchIterator.Dialect;
+import io.crate.fdw.JdbcBatchIterator.KeyRange;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.Reference;
 import io.crate.metadata.doc.DocTableInfo;
@@ -88,5 +93,107 @@ public class JdbcBatchIteratorTest extends CrateDummyClusterServiceUnitTest {
         );
         assertThat(statement).isEqualTo("SELECT 1 FROM \"doc\".\"summits\" WHERE true");
     }
-}
 
+    @Test
+    public void test_generate_statement_with_aggregation_pushdown() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (x int, y int)");
+        DocTableInfo table = e.resolveTableInfo("doc.summits");
+        Reference x = table.getReadReference(ColumnIdent.of("x"));
+        List<Symbol> columns = List.of(x, e.asSymbol("count(*)"), e.asSymbol("sum(y)"));
+        var pushdown = new Pushdown(true, List.of(x), null, LimitAndOffset.NO_LIMIT);
+        String statement = JdbcBatchIterator.generateStatement(
+            table.ident(),
+            columns,
+            Literal.BOOLEAN_TRUE,
+            pushdown,
+            null,
+            Dialect.GENERIC,
+            "\""
+        );
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\", count(*), sum(\"y\") FROM \"doc\".\"summits\" WHERE true GROUP BY \"x\"");
+    }
+
+    @Test
+    public void test_generate_statement_with_limit_pushdown_depends_on_dialect() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (x int)");
+        DocTableInfo table = e.resolveTableInfo("doc.summits");
+        Reference x = table.getReadReference(ColumnIdent.of("x"));
+        OrderBy orderBy = new OrderBy(List.of(x), new boolean[] { true }, new boolean[] { false });
+        var pushdown = new Pushdown(false, List.of(), orderBy, 15);
+
+        String statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(x), Literal.BOOLEAN_TRUE, pushdown, null, Dialect.LIMIT_AND_NULLS_ORDERING, "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\" FROM \"doc\".\"summits\" WHERE true ORDER BY \"x\" DESC NULLS LAST LIMIT 15");
+
+        statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(x), Literal.BOOLEAN_TRUE, pushdown, null, Dialect.LIMIT, "\"");
+        assertThat(statement)
+            .as("Without NULLS FIRST/LAST support the order of nulls might differ, the limit must not be applied")
+            .isEqualTo("SELECT \"x\" FROM \"doc\".\"summits\" WHERE true");
+
+        pushdown = new Pushdown(false, List.of(), null, 15);
+        statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(x), Literal.BOOLEAN_TRUE, pushdown, null, Dialect.LIMIT, "\"");
+        assertThat(statement).isEqualTo("SELECT \"x\" FROM \"doc\".\"summits\" WHERE true LIMIT 15");
+
+        statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(x), Literal.BOOLEAN_TRUE, pushdown, null, Dialect.GENERIC, "\"");
+        assertThat(statement).isEqualTo("SELECT \"x\" FROM \"doc\".\"summits\" WHERE true");
+    }
+
+    @Test
+    public void test_generate_statement_with_key_range() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (x int)");
+        DocTableInfo table = e.resolveTableInfo("doc.summits");
+        Reference x = table.getReadReference(ColumnIdent.of("x"));
+        Symbol query = e.asSymbol("x > 10");
+
+        String statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(x), query, Pushdown.NONE, new KeyRange(x, null, 20L, true), Dialect.GENERIC, "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\" FROM \"doc\".\"summits\" WHERE (\"x\" > 10) AND ((\"x\" < ?) OR \"x\" IS NULL)");
+
+        statement = JdbcBatchIterator.generateStatement(
+            table.ident(), List.of(x), query, Pushdown.NONE, new KeyRange(x, 20L, 30L, false), Dialect.GENERIC, "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\" FROM \"doc\".\"summits\" WHERE (\"x\" > 10) AND (\"x\" >= ? AND \"x\" < ?)");
+
+        statement = JdbcBatchIterator.generateBoundsStatement(table.ident(), x, query, "\"");
+        assertThat(statement).isEqualTo(
+            "SELECT min(\"x\"), max(\"x\") FROM \"doc\".\"summits\" WHERE (\"x\" > 10)");
+    }
+
+    @Test
+    public void test_avg_is_pushed_down_as_sum_and_count() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (x int, y int)");
+        DocTableInfo table = e.resolveTableInfo("doc.summits");
+        Reference x = table.getReadReference(ColumnIdent.of("x"));
+        List<Symbol> columns = List.of(x, e.asSymbol("avg(y)"), e.asSymbol("count(*)"));
+        var pushdown = new Pushdown(true, List.of(x), null, LimitAndOffset.NO_LIMIT);
+        String statement = JdbcBatchIterator.generateStatement(
+            table.ident(),
+            columns,
+            Literal.BOOLEAN_TRUE,
+            pushdown,
+            null,
+            Dialect.GENERIC,
+            "\""
+        );
+        assertThat(statement).isEqualTo(
+            "SELECT \"x\", sum(\"y\"), count(\"y\"), count(*) FROM \"doc\".\"summits\" WHERE true GROUP BY \"x\"");
+    }
+
+    @Test
+    public void test_average_is_computed_from_sum_and_count() throws Exception {
+        assertThat(JdbcBatchIterator.average(7L, 2L)).isEqualTo(3.5);
+        assertThat(JdbcBatchIterator.average(new BigDecimal("10"), 4)).isEqualTo(2.5);
+        assertThat(JdbcBatchIterator.average(null, 0L)).isNull();
+        assertThat(JdbcBatchIterator.average(0L, 0L)).isNull();
+    }
+}
@@ -22,6 +22,7 @@
 package io.crate.fdw;
 
 import static io.crate.testing.TestingHelpers.createNodeContext;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.util.List;
@@ -31,8 +32,11 @@ import org.elasticsearch.cluster.metadata.RelationMetadata;
 import org.elasticsearch.common.settings.Settings;
 import org.junit.Test;
 
+import io.crate.analyze.OrderBy;
 import io.crate.expression.InputFactory;
+import io.crate.expression.symbol.Function;
 import io.crate.expression.symbol.Literal;
+import io.crate.fdw.JdbcBatchIterator.KeyRange;
 import io.crate.fdw.ServersMetadata.Server;
 import io.crate.metadata.ColumnIdent;
 import io.crate.metadata.CoordinatorTxnCtx;
@@ -44,6 +48,7 @@ import io.crate.metadata.SimpleReference;
 import io.crate.role.Role;
 import io.crate.role.metadata.RolesHelper;
 import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
 import io.crate.types.DataTypes;
 
 public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest {
@@ -52,7 +57,7 @@ public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest
     public void test_cannot_access_localhost_as_regular_user() throws Exception {
         Role arthur = RolesHelper.userOf("arthur");
         NodeContext nodeCtx = createNodeContext(List.of(arthur));
-        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx));
+        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx), Runnable::run);
         Settings options = Settings.builder()
             .put("url", "jdbc:postgresql://localhost:5432/")
             .build();
@@ -77,7 +82,7 @@ public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest
     public void test_can_access_remote_as_regular_user() throws Exception {
         Role arthur = RolesHelper.userOf("arthur");
         NodeContext nodeCtx = createNodeContext(List.of(arthur));
-        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx));
+        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(nodeCtx), Runnable::run);
         Settings options = Settings.builder()
             .put("url", "jdbc:postgresql://192.0.2.0:5432/postgres")
             .build();
@@ -97,5 +102,59 @@ public class JdbcForeignDataWrapperTest extends CrateDummyClusterServiceUnitTest
         // validates that no exception is thrown
         fdw.getIterator(arthur, server, foreignTable, txnCtx, List.of(nameRef), Literal.BOOLEAN_TRUE);
     }
+
+    @Test
+    public void test_partition_splits_key_range_into_equal_ranges() throws Exception {
+        RelationName relationName = new RelationName("doc", "summits");
+        Reference heightRef = new SimpleReference(
+            relationName,
+            ColumnIdent.of("height"),
+            RowGranularity.DOC,
+            DataTypes.INTEGER,
+            1,
+            null
+        );
+        assertThat(JdbcForeignDataWrapper.partition(heightRef, 1, 100, 4)).containsExactly(
+            new KeyRange(heightRef, null, 26L, true),
+            new KeyRange(heightRef, 26L, 51L, false),
+            new KeyRange(heightRef, 51L, 75L, false),
+            new KeyRange(heightRef, 75L, null, false)
+        );
+        assertThat(JdbcForeignDataWrapper.partition(heightRef, 1, 2, 4))
+            .as("Duplicate bounds are removed")
+            .containsExactly(
+                new KeyRange(heightRef, null, 1L, true),
+                new KeyRange(heightRef, 1L, 2L, false),
+                new KeyRange(heightRef, 2L, null, false)
+            );
+        assertThat(JdbcForeignDataWrapper.partition(heightRef, 7, 7, 4)).isEmpty();
+    }
+
+    @Test
+    public void test_aggregation_pushdown_only_groups_by_types_with_the_same_equality_everywhere() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (name text, height int, first_ascent timestamp, prominent boolean)");
+        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(e.nodeCtx), Runnable::run);
+        List<Function> count = List.of((Function) e.asSymbol("count(*)"));
+
+        assertThat(fdw.supportsAggregationPushdown(List.of(e.asSymbol("summits.height")), count)).isTrue();
+        assertThat(fdw.supportsAggregationPushdown(List.of(e.asSymbol("summits.first_ascent")), count)).isTrue();
+        assertThat(fdw.supportsAggregationPushdown(List.of(e.asSymbol("summits.prominent")), count)).isTrue();
+        assertThat(fdw.supportsAggregationPushdown(List.of(e.asSymbol("summits.name")), count))
+            .as("Equality of text depends on the collation of the foreign database")
+            .isFalse();
+    }
+
+    @Test
+    public void test_avg_is_pushed_down_but_not_used_for_ordering() throws Exception {
+        var e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.summits (height int)");
+        var fdw = new JdbcForeignDataWrapper(Settings.EMPTY, new InputFactory(e.nodeCtx), Runnable::run);
+        Function avg = (Function) e.asSymbol("avg(summits.height)");
+
+        assertThat(fdw.supportsAggregationPushdown(List.of(), List.of(avg))).isTrue();
+        OrderBy orderBy = new OrderBy(List.of(avg));
+        assertThat(fdw.supportsLimitPushdown(orderBy)).isFalse();
+    }
 }
 
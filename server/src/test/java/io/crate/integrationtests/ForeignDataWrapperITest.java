@@ -155,8 +155,7 @@ public class ForeignDataWrapperITest extends IntegTestCase {
 
         execute("explain select count(*) from doc.dummy");
         assertThat(response).hasLines(
-            "HashAggregate[count(*)] (rows=1)",
-            "  └ ForeignCollect[doc.dummy | [] | true] (rows=unknown)"
+            "ForeignCollect[doc.dummy | [count(*)] | true] (rows=unknown)"
         );
         execute("select count(*) from doc.dummy");
         assertThat(response).hasRows(
@@ -310,6 +309,36 @@ public class ForeignDataWrapperITest extends IntegTestCase {
         );
     }
 
+    @Test
+    public void test_aggregations_and_partitioned_reads_on_foreign_tables() throws Exception {
+        PostgresNetty postgresNetty = cluster().getInstance(PostgresNetty.class);
+        int port = postgresNetty.boundAddress().publishAddress().getPort();
+        String url = "jdbc:postgresql://127.0.0.1:" + port + '/';
+        execute("create server pg foreign data wrapper jdbc options (url ?)", new Object[] { url });
+
+        String stmt = """
+            CREATE FOREIGN TABLE doc.summits (mountain text, height int, country text)
+            SERVER pg
+            OPTIONS (schema_name 'sys', table_name 'summits', partition_column 'height', partitions 4, fetch_size 100)
+            """;
+        execute(stmt);
+
+        execute("explain select country, count(*) from doc.summits group by country");
+        assertThat(response).hasLines(
+            "ForeignCollect[doc.summits | [country, count(*)] | true | groupBy=[country]] (rows=unknown)"
+        );
+        execute("select country, count(*), max(height) from doc.summits group by country order by 1");
+        Object[][] foreignRows = response.rows();
+        execute("select country, count(*), max(height) from sys.summits group by country order by 1");
+        assertThat(response.rows()).isDeepEqualTo(foreignRows);
+
+        // Plain scan, read in 4 partitions on height
+        execute("select mountain, height from doc.summits order by mountain, height");
+        foreignRows = response.rows();
+        execute("select mountain, height from sys.summits order by mountain, height");
+        assertThat(response.rows()).isDeepEqualTo(foreignRows);
+    }
+
     @Test
     public void test_can_use_joins_on_foreign_tables() throws Exception {
         PostgresNetty postgresNetty = cluster().getInstance(PostgresNetty.class);
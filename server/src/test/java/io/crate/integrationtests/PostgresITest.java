@@ -27,6 +27,8 @@ import static io.crate.protocols.postgres.PostgresNetty.PSQL_PORT_SETTING;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.sql.Array;
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
@@ -53,7 +55,9 @@ import org.elasticsearch.test.IntegTestCase;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.postgresql.PGConnection;
 import org.postgresql.PGProperty;
+import org.postgresql.copy.CopyManager;
 import org.postgresql.geometric.PGpoint;
 import org.postgresql.jdbc.PreferQueryMode;
 import org.postgresql.util.PGobject;
@@ -1300,6 +1304,68 @@ public class PostgresITest extends IntegTestCase {
         }
     }
 
+    @Test
+    public void test_copy_from_stdin_and_copy_to_stdout_using_copy_manager() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.createStatement().execute("create table tbl (id int, name text)");
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+
+            long inserted = copyManager.copyIn(
+                "COPY tbl FROM STDIN",
+                new StringReader("1\tfoo\\tbar\n2\t\\N\n3\t\n\\.\n"));
+            assertThat(inserted).isEqualTo(3L);
+            inserted = copyManager.copyIn(
+                "COPY tbl (id, name) FROM STDIN WITH (format = 'csv', header = true)",
+                new StringReader("id,name\n4,\"multi\nline\"\n5,\n6,\"\"\n"));
+            assertThat(inserted).isEqualTo(3L);
+            conn.createStatement().execute("refresh table tbl");
+
+            StringWriter text = new StringWriter();
+            long copied = copyManager.copyOut("COPY (select id, name from tbl order by id) TO STDOUT", text);
+            assertThat(copied).isEqualTo(6L);
+            assertThat(text.toString()).isEqualTo(
+                "1\tfoo\\tbar\n" +
+                "2\t\\N\n" +
+                "3\t\n" +
+                "4\tmulti\\nline\n" +
+                "5\t\\N\n" +
+                "6\t\n");
+
+            StringWriter csv = new StringWriter();
+            copyManager.copyOut("COPY (select id, name from tbl where id > 3 order by id) TO STDOUT WITH (format = 'csv')", csv);
+            assertThat(csv.toString()).isEqualTo(
+                "4,\"multi\nline\"\n" +
+                "5,\n" +
+                "6,\"\"\n");
+        }
+    }
+
+    @Test
+    public void test_copy_from_stdin_keeps_rows_of_executed_batches_on_failure() throws Exception {
+        try (Connection conn = DriverManager.getConnection(url(RW), properties)) {
+            conn.createStatement().execute("create table tbl (id int, name text)");
+            CopyManager copyManager = conn.unwrap(PGConnection.class).getCopyAPI();
+            int numRows = 25_000;
+            StringBuilder data = new StringBuilder();
+            for (int i = 0; i < numRows; i++) {
+                data.append(i).append("\tname").append(i).append('\n');
+            }
+            data.append("not a number\tname\n");
+
+            assertThatThrownBy(() -> copyManager.copyIn("COPY tbl FROM STDIN", new StringReader(data.toString())))
+                .isExactlyInstanceOf(PSQLException.class);
+
+            // The connection is usable after the failed COPY
+            conn.createStatement().execute("refresh table tbl");
+            ResultSet result = conn.createStatement().executeQuery("select count(*) from tbl");
+            assertThat(result.next()).isTrue();
+            assertThat(result.getLong(1))
+                .as("Rows of the batches executed before the failure are kept")
+                .isGreaterThanOrEqualTo(10_000L)
+                .isLessThan(numRows);
+        }
+    }
+
     private long getNumQueriesFromJobsLogs() {
         long result = 0;
         Iterable<JobsLogs> jobLogs = cluster().getInstances(JobsLogs.class);
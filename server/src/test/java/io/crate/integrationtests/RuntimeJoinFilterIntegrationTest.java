@@ -0,0 +1,59 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.integrationtests;
+
+import static io.crate.testing.Asserts.assertThat;
+import static io.crate.testing.TestingHelpers.printedTable;
+
+import org.elasticsearch.test.IntegTestCase;
+import org.junit.Test;
+
+import io.crate.testing.UseHashJoins;
+import io.crate.testing.UseRandomizedOptimizerRules;
+
+public class RuntimeJoinFilterIntegrationTest extends IntegTestCase {
+
+    @UseRandomizedOptimizerRules(0)
+    @UseHashJoins(1)
+    @Test
+    public void test_runtime_filter_prunes_probe_side_of_join() throws Exception {
+        execute("create table doc.fact (id int, v int) with (number_of_replicas = 0)");
+        execute("insert into doc.fact (id, v) select b % 1000, b from generate_series(1, 20000) a(b)");
+        execute("create table doc.dim (id int, name text)");
+        execute("insert into doc.dim (id, name) select b, (b % 4)::TEXT from generate_series(1, 1000) a(b)");
+        execute("refresh table doc.fact, doc.dim");
+        execute("analyze");
+        waitNoPendingTasksOnAll();
+
+        String query = "select count(*) from doc.fact join doc.dim on fact.id = dim.id where dim.name = '1'";
+        execute("explain (costs false) " + query);
+        assertThat(printedTable(response.rows())).contains("_runtime_filter(id, (doc.dim))");
+        execute(query);
+        assertThat(response).hasRows("5000");
+
+        execute("set optimizer_add_runtime_join_filter = false");
+        execute("explain (costs false) " + query);
+        assertThat(printedTable(response.rows())).doesNotContain("_runtime_filter");
+        execute(query);
+        assertThat(response).hasRows("5000");
+    }
+}
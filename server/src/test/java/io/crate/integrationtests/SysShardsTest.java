@@ -186,6 +186,7 @@ public class SysShardsTest extends IntegTestCase {
             "relocating_node",
             "retention_leases",
             "routing_state",
+            "row_cache",
             "schema_name",
             "seq_no_stats",
             "size",
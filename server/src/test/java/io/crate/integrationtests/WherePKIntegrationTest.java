@@ -334,5 +334,30 @@ public class WherePKIntegrationTest extends IntegTestCase {
         execute("select id from t1 where id = 1 and x = 1");
         assertThat(response).hasRowCount(1L);
     }
-}
 
+    @Test
+    @UseRandomizedOptimizerRules(0) // depends on primary key lookup
+    public void test_select_where_pk_uses_row_cache_if_enabled() {
+        execute("""
+            create table t1 (id int primary key, x int)
+            clustered into 1 shards
+            with (number_of_replicas = 0, "row_cache.enabled" = true)
+            """);
+        execute("insert into t1 (id, x) values (1, 1)");
+        execute("refresh table t1");
+
+        execute("select x from t1 where id = 1");
+        assertThat(response).hasRows("1");
+        execute("select x from t1 where id = 1");
+        assertThat(response).hasRows("1");
+        execute("select row_cache['hits'], row_cache['misses'], row_cache['count'] from sys.shards where table_name = 't1'");
+        assertThat(response).hasRows("1| 1| 1");
+
+        execute("update t1 set x = 2 where id = 1");
+        execute("refresh table t1");
+        execute("select x from t1 where id = 1");
+        assertThat(response).hasRows("2");
+        execute("select row_cache['hits'], row_cache['misses'], row_cache['count'] from sys.shards where table_name = 't1'");
+        assertThat(response).hasRows("1| 2| 1");
+    }
+}
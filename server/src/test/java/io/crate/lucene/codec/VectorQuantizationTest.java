@@ -0,0 +1,129 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.lucene.codec;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.apache.lucene.codecs.lucene103.Lucene103Codec;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.codec.CrateCodec;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.FloatVectorReference;
+import io.crate.metadata.IndexType;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.RowGranularity;
+import io.crate.types.FloatVectorType;
+
+public class VectorQuantizationTest extends ESTestCase {
+
+    @Test
+    public void test_setting_is_parsed_case_insensitive() {
+        Settings settings = Settings.builder().put(VectorQuantization.SETTING.getKey(), "INT4").build();
+        assertThat(VectorQuantization.SETTING.get(settings)).isEqualTo(VectorQuantization.INT4);
+        assertThat(VectorQuantization.SETTING.get(Settings.EMPTY)).isEqualTo(VectorQuantization.NONE);
+        assertThatThrownBy(() -> VectorQuantization.of("int2"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("unknown value for [index.vector.quantization] must be one of [none, int8, int4] but was: int2");
+    }
+
+    @Test
+    public void test_codec_uses_quantized_format_for_vectors() throws Exception {
+        var codec = new CrateCodec(Lucene103Codec.Mode.BEST_SPEED, VectorQuantization.INT8);
+        var format = codec.getKnnVectorsFormatForField("x");
+        assertThat(format.getName()).isEqualTo("Lucene99HnswScalarQuantizedVectorsFormat");
+        assertThat(format.getMaxDimensions("x")).isEqualTo(FloatVectorType.MAX_DIMENSIONS);
+
+        var defaultCodec = new CrateCodec(Lucene103Codec.Mode.BEST_SPEED);
+        assertThat(defaultCodec.getKnnVectorsFormatForField("x").getName()).isEqualTo("Lucene99HnswVectorsFormat");
+    }
+
+    @Test
+    public void test_codec_uses_hnsw_options_of_column() throws Exception {
+        FloatVectorReference vectorRef = new FloatVectorReference(
+            new RelationName("doc", "tbl"),
+            ColumnIdent.of("x"),
+            RowGranularity.DOC,
+            new FloatVectorType(4),
+            IndexType.PLAIN,
+            true,
+            true,
+            1,
+            1,
+            false,
+            null,
+            null,
+            8,
+            50,
+            null
+        );
+        for (VectorQuantization quantization : VectorQuantization.values()) {
+            var codec = new CrateCodec(
+                Lucene103Codec.Mode.BEST_SPEED,
+                quantization,
+                field -> field.equals("x") ? vectorRef : null
+            );
+            assertThat(codec.getKnnVectorsFormatForField("x").toString()).contains("maxConn=8, beamWidth=50");
+            assertThat(codec.getKnnVectorsFormatForField("y").toString()).contains("maxConn=16, beamWidth=100");
+        }
+    }
+
+    @Test
+    public void test_quantized_vectors_can_be_searched() throws Exception {
+        for (VectorQuantization quantization : VectorQuantization.values()) {
+            IndexWriterConfig conf = new IndexWriterConfig()
+                .setCodec(new CrateCodec(Lucene103Codec.Mode.BEST_SPEED, quantization));
+            try (Directory dir = newDirectory();
+                 IndexWriter writer = new IndexWriter(dir, conf)) {
+                for (int i = 0; i < 10; i++) {
+                    Document doc = new Document();
+                    float v = i * 10;
+                    doc.add(new KnnFloatVectorField("x", new float[] { v, v + 1, v + 2, v + 3 }, FloatVectorType.SIMILARITY_FUNC));
+                    doc.add(new StoredField("id", i));
+                    writer.addDocument(doc);
+                }
+                writer.commit();
+                try (DirectoryReader reader = DirectoryReader.open(writer)) {
+                    IndexSearcher searcher = new IndexSearcher(reader);
+                    float[] target = new float[] { 50, 51, 52, 53 };
+                    TopDocs topDocs = searcher.search(new KnnFloatVectorQuery("x", target, 1), 1);
+                    assertThat(topDocs.scoreDocs).hasSize(1);
+                    int id = searcher.storedFields().document(topDocs.scoreDocs[0].doc).getField("id").numericValue().intValue();
+                    assertThat(id).isEqualTo(5);
+                }
+            }
+        }
+    }
+}
@@ -22,10 +22,17 @@
 package io.crate.memory;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import org.elasticsearch.common.breaker.ChildMemoryCircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreaker;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.indices.breaker.BreakerSettings;
+import org.elasticsearch.indices.breaker.NoneCircuitBreakerService;
 import org.junit.Test;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 
 public class OffHeapMemoryManagerTest {
 
@@ -39,4 +46,63 @@ public class OffHeapMemoryManagerTest {
             .as("ref count must reach 0 now")
             .isTrue();
     }
+
+    @Test
+    public void test_allocations_are_accounted_and_released_on_close() {
+        var breaker = new ChildMemoryCircuitBreaker(
+            new BreakerSettings(CircuitBreaker.OFF_HEAP, 1024),
+            new NoneCircuitBreakerService()
+        );
+        var allocator = new PooledByteBufAllocator(true);
+        var memoryManager = new OffHeapMemoryManager(allocator, breaker);
+        ByteBuf buf = memoryManager.allocate(512);
+        assertThat(buf.isDirect()).isTrue();
+        memoryManager.allocate(256);
+        assertThat(breaker.getUsed()).isEqualTo(768L);
+        assertThat(memoryManager.accountedBytes()).isEqualTo(768L);
+
+        memoryManager.close();
+        assertThat(breaker.getUsed()).isEqualTo(0L);
+        assertThat(allocator.metric().usedDirectMemory())
+            .as("chunks stay in the pool")
+            .isGreaterThan(0L);
+    }
+
+    @Test
+    public void test_allocation_exceeding_limit_trips_breaker_without_leaking_bytes() {
+        var breaker = new ChildMemoryCircuitBreaker(
+            new BreakerSettings(CircuitBreaker.OFF_HEAP, 1024),
+            new NoneCircuitBreakerService()
+        );
+        var memoryManager = new OffHeapMemoryManager(new PooledByteBufAllocator(true), breaker);
+        memoryManager.allocate(1000);
+        assertThatThrownBy(() -> memoryManager.allocate(100))
+            .isExactlyInstanceOf(CircuitBreakingException.class);
+        assertThat(breaker.getUsed()).isEqualTo(1000L);
+
+        memoryManager.close();
+        assertThat(breaker.getUsed()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_buffers_cannot_grow_beyond_the_accounted_capacity() {
+        var breaker = new ChildMemoryCircuitBreaker(
+            new BreakerSettings(CircuitBreaker.OFF_HEAP, 1024),
+            new NoneCircuitBreakerService()
+        );
+        var memoryManager = new OffHeapMemoryManager(new PooledByteBufAllocator(true), breaker);
+        ByteBuf buf = memoryManager.allocate(16);
+        assertThat(buf.maxCapacity()).isEqualTo(16);
+        buf.writeZero(16);
+        assertThatThrownBy(() -> buf.writeByte(1))
+            .isExactlyInstanceOf(IndexOutOfBoundsException.class);
+        assertThat(breaker.getUsed()).isEqualTo(16L);
+
+        buf.capacity(8);
+        memoryManager.release(buf);
+        assertThat(breaker.getUsed()).isEqualTo(0L);
+        assertThat(memoryManager.accountedBytes()).isEqualTo(0L);
+        memoryManager.close();
+        assertThat(breaker.getUsed()).isEqualTo(0L);
+    }
 }
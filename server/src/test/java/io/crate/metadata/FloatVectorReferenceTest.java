@@ -0,0 +1,90 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.metadata;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+import io.crate.types.FloatVectorType;
+
+public class FloatVectorReferenceTest extends ESTestCase {
+
+    @Test
+    public void test_streaming() throws Exception {
+        FloatVectorReference ref = newReference("cosine", 32, null, 100);
+
+        BytesStreamOutput out = new BytesStreamOutput();
+        Reference.toStream(out, ref);
+        StreamInput in = out.bytes().streamInput();
+        FloatVectorReference ref2 = Reference.fromStream(in);
+
+        assertThat(ref2).isEqualTo(ref);
+        assertThat(ref2.efConstruction()).isNull();
+        assertThat(ref2.numCandidates()).isEqualTo(100);
+    }
+
+    @Test
+    public void test_similarity_function_defaults_to_euclidean() throws Exception {
+        assertThat(newReference(null, null, null, null).similarityFunction()).isEqualTo(FloatVectorType.SIMILARITY_FUNC);
+        assertThat(newReference("max_inner_product", null, null, null).similarityFunction())
+            .isEqualTo(VectorSimilarityFunction.MAXIMUM_INNER_PRODUCT);
+
+        SimpleReference simpleRef = new SimpleReference(
+            new RelationName("doc", "test"),
+            ColumnIdent.of("x"),
+            RowGranularity.DOC,
+            new FloatVectorType(2),
+            1,
+            null
+        );
+        assertThat(FloatVectorReference.of(simpleRef)).isNull();
+        assertThat(FloatVectorReference.similarityFunction(simpleRef)).isEqualTo(FloatVectorType.SIMILARITY_FUNC);
+    }
+
+    private static FloatVectorReference newReference(String similarity,
+                                                     Integer m,
+                                                     Integer efConstruction,
+                                                     Integer numCandidates) {
+        return new FloatVectorReference(
+            new RelationName("doc", "test"),
+            ColumnIdent.of("x"),
+            RowGranularity.DOC,
+            new FloatVectorType(2),
+            IndexType.PLAIN,
+            true,
+            true,
+            1,
+            10,
+            false,
+            null,
+            similarity,
+            m,
+            efConstruction,
+            numCandidates
+        );
+    }
+}
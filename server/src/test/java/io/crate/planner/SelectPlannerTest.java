@@ -79,6 +79,8 @@ import io.crate.metadata.Reference;
 import io.crate.metadata.RelationName;
 import io.crate.metadata.Routing;
 import io.crate.metadata.RowGranularity;
+import io.crate.planner.distribution.DistributionInfo;
+import io.crate.planner.distribution.DistributionType;
 import io.crate.planner.node.dql.Collect;
 import io.crate.planner.node.dql.CountPlan;
 import io.crate.planner.node.dql.QueryThenFetch;
@@ -1059,6 +1061,42 @@ public class SelectPlannerTest extends CrateDummyClusterServiceUnitTest {
         assertThat(collect.nodeIds()).hasSize(2);
     }
 
+    @Test
+    public void test_window_function_with_multiple_partition_by_keys_is_distributed_by_all_keys() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .setNumNodes(2)
+            .build()
+            .addTable(TableDefinitions.USER_TABLE_DEFINITION);
+
+        Merge localMerge = e.plan("select sum(ints) OVER (partition by awesome, name) from users");
+        Merge distMerge = (Merge) localMerge.subPlan();
+        assertThat(distMerge.nodeIds()).hasSize(2);
+        Collect collect = (Collect) distMerge.subPlan();
+        DistributionInfo distributionInfo = ((RoutedCollectPhase) collect.collectPhase()).distributionInfo();
+        assertThat(distributionInfo.distributionType()).isEqualTo(DistributionType.MODULO);
+        assertThat(distributionInfo.distributeByColumn()).isFunction("_map");
+    }
+
+    @Test
+    public void test_window_function_with_partition_by_uses_sorted_collect() throws Exception {
+        SQLExecutor e = SQLExecutor.builder(clusterService)
+            .setNumNodes(2)
+            .build()
+            .addTable(TableDefinitions.USER_TABLE_DEFINITION);
+
+        Merge localMerge = e.plan("select sum(ints) OVER (partition by awesome order by id) from users");
+        Merge distMerge = (Merge) localMerge.subPlan();
+        WindowAggProjection windowAgg = (WindowAggProjection) distMerge.mergePhase().projections().getFirst();
+        assertThat(windowAgg.sourceSorted()).isTrue();
+        assertThat(distMerge.mergePhase().orderByPositions()).isNotNull();
+        Collect collect = (Collect) distMerge.subPlan();
+        assertThat(((RoutedCollectPhase) collect.collectPhase()).orderBy()).isNotNull();
+
+        localMerge = e.plan("select sum(ints) OVER (order by id) from users");
+        windowAgg = (WindowAggProjection) localMerge.mergePhase().projections().getFirst();
+        assertThat(windowAgg.sourceSorted()).isFalse();
+    }
+
     @Test
     public void testSeqNoAndPrimaryTermFilteringRequirePrimaryKey() throws Exception {
         SQLExecutor e = SQLExecutor.builder(clusterService)
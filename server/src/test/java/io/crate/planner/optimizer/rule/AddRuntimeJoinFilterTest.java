@@ -0,0 +1,173 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.expression.symbol.Literal;
+import io.crate.metadata.Reference;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.operators.Limit;
+import io.crate.planner.operators.LogicalPlan;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Match;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.Stats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+
+public class AddRuntimeJoinFilterTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private DocTableInfo fact;
+    private DocTableInfo dim;
+    private Collect factCollect;
+    private Collect dimCollect;
+    private Collect filteredDimCollect;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.of(clusterService)
+            .addTable("create table doc.fact (x int, s text)")
+            .addTable("create table doc.dim (y int, name text)");
+        fact = e.resolveTableInfo("fact");
+        dim = e.resolveTableInfo("dim");
+
+        Reference x = (Reference) e.asSymbol("fact.x");
+        Reference y = (Reference) e.asSymbol("dim.y");
+        factCollect = new Collect(new DocTableRelation(fact), List.of(x), WhereClause.MATCH_ALL);
+        dimCollect = new Collect(new DocTableRelation(dim), List.of(y), WhereClause.MATCH_ALL);
+        filteredDimCollect = new Collect(
+            new DocTableRelation(dim),
+            List.of(y),
+            new WhereClause(e.asSymbol("dim.name = 'x'"))
+        );
+    }
+
+    private LogicalPlan apply(JoinPlan join) {
+        var rule = new AddRuntimeJoinFilter();
+        Match<JoinPlan> match = rule.pattern().accept(join, Captures.empty());
+        assertThat(match.isPresent()).isTrue();
+        return rule.apply(match.value(), match.captures(), e.ruleContext());
+    }
+
+    @Test
+    public void test_runtime_filter_is_added_to_larger_side_if_smaller_side_is_filtered() throws Exception {
+        e.updateTableStats(Map.of(
+            fact.ident(), new Stats(1_000_000, 0, Map.of()),
+            dim.ident(), new Stats(1_000, 0, Map.of())
+        ));
+        var join = new JoinPlan(filteredDimCollect, factCollect, JoinType.INNER, e.asSymbol("fact.x = dim.y"));
+
+        assertThat(apply(join)).hasOperators(
+            "Join[INNER | (x = y)]",
+            "  ├ Collect[doc.dim | [y] | (name = 'x')]",
+            "  └ MultiPhase",
+            "    └ Filter[_runtime_filter(x, (doc.dim))]",
+            "      └ Collect[doc.fact | [x] | true]",
+            "    └ HashAggregate[_runtime_filter_agg(y, 1024)]",
+            "      └ Collect[doc.dim | [y] | (name = 'x')]"
+        );
+    }
+
+    @Test
+    public void test_runtime_filter_is_not_added_if_build_side_is_not_filtered() throws Exception {
+        e.updateTableStats(Map.of(
+            fact.ident(), new Stats(1_000_000, 0, Map.of()),
+            dim.ident(), new Stats(1_000, 0, Map.of())
+        ));
+        var join = new JoinPlan(dimCollect, factCollect, JoinType.INNER, e.asSymbol("fact.x = dim.y"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_runtime_filter_is_not_added_if_build_side_is_not_deterministic() throws Exception {
+        e.updateTableStats(Map.of(
+            fact.ident(), new Stats(1_000_000, 0, Map.of()),
+            dim.ident(), new Stats(1_000, 0, Map.of())
+        ));
+        Collect randomDimCollect = new Collect(
+            new DocTableRelation(dim),
+            List.of((Reference) e.asSymbol("dim.y")),
+            new WhereClause(e.asSymbol("dim.name = 'x' and random() > 0.5"))
+        );
+        var join = new JoinPlan(randomDimCollect, factCollect, JoinType.INNER, e.asSymbol("fact.x = dim.y"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_runtime_filter_is_not_added_if_build_side_has_a_limit() throws Exception {
+        e.updateTableStats(Map.of(
+            fact.ident(), new Stats(1_000_000, 0, Map.of()),
+            dim.ident(), new Stats(1_000, 0, Map.of())
+        ));
+        var limitedDim = new Limit(filteredDimCollect, Literal.of(10), Literal.of(0));
+        var join = new JoinPlan(limitedDim, factCollect, JoinType.INNER, e.asSymbol("fact.x = dim.y"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_runtime_filter_is_not_added_if_probe_side_is_small() throws Exception {
+        e.updateTableStats(Map.of(
+            fact.ident(), new Stats(5_000, 0, Map.of()),
+            dim.ident(), new Stats(10, 0, Map.of())
+        ));
+        var join = new JoinPlan(filteredDimCollect, factCollect, JoinType.INNER, e.asSymbol("fact.x = dim.y"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_runtime_filter_is_not_added_without_stats() throws Exception {
+        e.updateTableStats(Map.of(
+            fact.ident(), Stats.EMPTY,
+            dim.ident(), Stats.EMPTY
+        ));
+        var join = new JoinPlan(filteredDimCollect, factCollect, JoinType.INNER, e.asSymbol("fact.x = dim.y"));
+
+        assertThat(apply(join)).isNull();
+    }
+
+    @Test
+    public void test_runtime_filter_requires_supported_key_type() throws Exception {
+        e.updateTableStats(Map.of(
+            fact.ident(), new Stats(1_000_000, 0, Map.of()),
+            dim.ident(), new Stats(1_000, 0, Map.of())
+        ));
+        var join = new JoinPlan(filteredDimCollect, factCollect, JoinType.INNER, e.asSymbol("fact.s = dim.name"));
+
+        assertThat(apply(join)).isNull();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.planner.optimizer.rule;
+
+import static io.crate.testing.Asserts.assertThat;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.analyze.WhereClause;
+import io.crate.analyze.relations.DocTableRelation;
+import io.crate.metadata.ColumnIdent;
+import io.crate.metadata.Reference;
+import io.crate.metadata.RelationName;
+import io.crate.metadata.doc.DocTableInfo;
+import io.crate.planner.operators.Collect;
+import io.crate.planner.operators.JoinPlan;
+import io.crate.planner.optimizer.matcher.Captures;
+import io.crate.planner.optimizer.matcher.Match;
+import io.crate.sql.tree.JoinType;
+import io.crate.statistics.ColumnStats;
+import io.crate.statistics.MostCommonValues;
+import io.crate.statistics.Stats;
+import io.crate.test.integration.CrateDummyClusterServiceUnitTest;
+import io.crate.testing.SQLExecutor;
+import io.crate.types.DataTypes;
+
+public class ReorderJoinsByCostTest extends CrateDummyClusterServiceUnitTest {
+
+    private SQLExecutor e;
+    private Collect f;
+    private Collect d1;
+    private Collect d2;
+    private Collect d3;
+    private JoinPlan join;
+
+    @Before
+    public void prepare() throws Exception {
+        e = SQLExecutor.of(clusterService)
+            .addTable("create table f (fa int, fb int, fc int)")
+            .addTable("create table d1 (a int)")
+            .addTable("create table d2 (b int)")
+            .addTable("create table d3 (c int)");
+
+        DocTableInfo fDoc = e.resolveTableInfo("f");
+        DocTableInfo d1Doc = e.resolveTableInfo("d1");
+        DocTableInfo d2Doc = e.resolveTableInfo("d2");
+        DocTableInfo d3Doc = e.resolveTableInfo("d3");
+
+        f = new Collect(
+            new DocTableRelation(fDoc),
+            List.of((Reference) e.asSymbol("fa"), (Reference) e.asSymbol("fb"), (Reference) e.asSymbol("fc")),
+            WhereClause.MATCH_ALL
+        );
+        d1 = new Collect(new DocTableRelation(d1Doc), List.of((Reference) e.asSymbol("a")), WhereClause.MATCH_ALL);
+        d2 = new Collect(new DocTableRelation(d2Doc), List.of((Reference) e.asSymbol("b")), WhereClause.MATCH_ALL);
+        d3 = new Collect(new DocTableRelation(d3Doc), List.of((Reference) e.asSymbol("c")), WhereClause.MATCH_ALL);
+
+        // The join order as written joins d1 first, with the larger fact table on the right side
+        var join1 = new JoinPlan(d1, f, JoinType.INNER, e.asSymbol("f.fa = d1.a"));
+        var join2 = new JoinPlan(join1, d2, JoinType.INNER, e.asSymbol("f.fb = d2.b"));
+        join = new JoinPlan(join2, d3, JoinType.INNER, e.asSymbol("f.fc = d3.c"));
+    }
+
+    private static ColumnStats<Integer> columnStats(double approxDistinct) {
+        return new ColumnStats<>(0.0, 4, approxDistinct, DataTypes.INTEGER, MostCommonValues.empty(), List.of());
+    }
+
+    private void updateStats() {
+        Map<RelationName, Stats> stats = new HashMap<>();
+        stats.put(f.relation().relationName(), new Stats(1_000_000, 12_000_000, Map.of(
+            ColumnIdent.of("fa"), columnStats(200),
+            ColumnIdent.of("fb"), columnStats(1000),
+            ColumnIdent.of("fc"), columnStats(1000)
+        )));
+        stats.put(d1.relation().relationName(), new Stats(100, 400, Map.of(ColumnIdent.of("a"), columnStats(100))));
+        stats.put(d2.relation().relationName(), new Stats(1000, 4000, Map.of(ColumnIdent.of("b"), columnStats(1000))));
+        // Only 1% of the fact rows match a row of d3
+        stats.put(d3.relation().relationName(), new Stats(10, 40, Map.of(ColumnIdent.of("c"), columnStats(10))));
+        e.updateTableStats(stats);
+    }
+
+    @Test
+    public void test_star_join_starts_with_most_selective_dimension_and_puts_dimensions_on_the_right() throws Exception {
+        updateStats();
+
+        var rule = new ReorderJoinsByCost();
+        Match<JoinPlan> match = rule.pattern().accept(join, Captures.empty());
+        assertThat(match.isPresent()).isTrue();
+
+        var result = rule.apply(match.value(), match.captures(), e.ruleContext());
+        assertThat(result).hasOperators(
+            "Eval[a, fa, fb, fc, b, c]",
+            "  └ Join[INNER | (fb = b)]",
+            "    ├ Join[INNER | (fa = a)]",
+            "    │  ├ Join[INNER | (fc = c)]",
+            "    │  │  ├ Collect[doc.f | [fa, fb, fc] | true]",
+            "    │  │  └ Collect[doc.d3 | [c] | true]",
+            "    │  └ Collect[doc.d1 | [a] | true]",
+            "    └ Collect[doc.d2 | [b] | true]"
+        );
+    }
+
+    @Test
+    public void test_join_is_not_reordered_without_statistics() throws Exception {
+        var rule = new ReorderJoinsByCost();
+        Match<JoinPlan> match = rule.pattern().accept(join, Captures.empty());
+        assertThat(match.isPresent()).isTrue();
+
+        var result = rule.apply(match.value(), match.captures(), e.ruleContext());
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void test_join_is_not_reordered_if_it_contains_an_outer_join() throws Exception {
+        updateStats();
+
+        var join1 = new JoinPlan(d1, f, JoinType.LEFT, e.asSymbol("f.fa = d1.a"));
+        var join2 = new JoinPlan(join1, d2, JoinType.INNER, e.asSymbol("f.fb = d2.b"));
+        var outerJoin = new JoinPlan(join2, d3, JoinType.INNER, e.asSymbol("f.fc = d3.c"));
+
+        var rule = new ReorderJoinsByCost();
+        Match<JoinPlan> match = rule.pattern().accept(outerJoin, Captures.empty());
+        assertThat(match.isPresent()).isTrue();
+
+        var result = rule.apply(match.value(), match.captures(), e.ruleContext());
+        assertThat(result).isNull();
+    }
+
+    @Test
+    public void test_join_is_not_reordered_if_written_order_is_the_cheapest() throws Exception {
+        updateStats();
+
+        var join1 = new JoinPlan(f, d3, JoinType.INNER, e.asSymbol("f.fc = d3.c"));
+        var join2 = new JoinPlan(join1, d1, JoinType.INNER, e.asSymbol("f.fa = d1.a"));
+        var cheapestJoin = new JoinPlan(join2, d2, JoinType.INNER, e.asSymbol("f.fb = d2.b"));
+
+        var rule = new ReorderJoinsByCost();
+        Match<JoinPlan> match = rule.pattern().accept(cheapestJoin, Captures.empty());
+        assertThat(match.isPresent()).isTrue();
+
+        var result = rule.apply(match.value(), match.captures(), e.ruleContext());
+        assertThat(result).isNull();
+    }
+}
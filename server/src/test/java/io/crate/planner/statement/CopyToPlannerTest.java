@@ -197,4 +197,13 @@ public class CopyToPlannerTest extends CrateDummyClusterServiceUnitTest {
             .isExactlyInstanceOf(IllegalArgumentException.class)
             .hasMessage("Setting 'dummy' is not supported");
     }
+
+    @Test
+    public void test_copy_to_columnar_format_without_columns_exports_all_top_level_columns() {
+        Merge merge = plan("COPY parted TO DIRECTORY '/tmp' WITH (format='parquet')");
+        Collect collect = (Collect) merge.subPlan();
+        WriterProjection writerProjection = (WriterProjection) collect.collectPhase().projections().getFirst();
+        assertThat(writerProjection.outputFormat()).isEqualTo(WriterProjection.OutputFormat.PARQUET);
+        assertThat(writerProjection.outputNames()).containsExactly("id", "name", "date", "obj");
+    }
 }
@@ -0,0 +1,147 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.arrow;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.crate.data.RowN;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+public class ArrowStreamWriterTest {
+
+    /**
+     * Reads a field of the table at {@code tablePos} as described in the FlatBuffers spec
+     */
+    private static int fieldPos(ByteBuf buf, int tablePos, int field) {
+        int vtable = tablePos - buf.getIntLE(tablePos);
+        int vtableSize = buf.getShortLE(vtable);
+        int entry = 4 + field * 2;
+        if (entry >= vtableSize) {
+            return -1;
+        }
+        int offset = buf.getShortLE(vtable + entry);
+        return offset == 0 ? -1 : tablePos + offset;
+    }
+
+    private static int deref(ByteBuf buf, int pos) {
+        return pos + buf.getIntLE(pos);
+    }
+
+    @Test
+    public void test_writes_schema_record_batch_and_end_of_stream() {
+        ArrowStreamWriter writer = new ArrowStreamWriter(
+            List.of("x", "name"),
+            List.of(DataTypes.INTEGER, DataTypes.STRING)
+        );
+        ByteBuf out = Unpooled.buffer();
+        writer.writeSchema(out);
+
+        assertThat(out.getInt(0)).isEqualTo(0xFFFFFFFF);
+        int schemaMetadataLength = out.getIntLE(4);
+        assertThat((8 + schemaMetadataLength) % 8).isEqualTo(0);
+        assertThat(out.readableBytes()).isEqualTo(8 + schemaMetadataLength);
+
+        ByteBuf schemaMessage = out.slice(8, schemaMetadataLength);
+        int message = deref(schemaMessage, 0);
+        assertThat(schemaMessage.getShortLE(fieldPos(schemaMessage, message, 0))).isEqualTo((short) 4);
+        assertThat(schemaMessage.getByte(fieldPos(schemaMessage, message, 1))).isEqualTo((byte) 1);
+        int schema = deref(schemaMessage, fieldPos(schemaMessage, message, 2));
+        int fields = deref(schemaMessage, fieldPos(schemaMessage, schema, 1));
+        assertThat(schemaMessage.getIntLE(fields)).isEqualTo(2);
+        int field = deref(schemaMessage, fields + 4);
+        int name = deref(schemaMessage, fieldPos(schemaMessage, field, 0));
+        assertThat(schemaMessage.toString(name + 4, schemaMessage.getIntLE(name), StandardCharsets.UTF_8))
+            .isEqualTo("x");
+        assertThat(schemaMessage.getByte(fieldPos(schemaMessage, field, 2))).isEqualTo(ArrowColumn.TYPE_INT);
+
+        writer.addRow(new RowN(1, "foo"));
+        writer.addRow(new RowN(null, null));
+        writer.addRow(new RowN(3, "ba"));
+        assertThat(writer.numRows()).isEqualTo(3);
+
+        int batchStart = out.writerIndex();
+        writer.writeBatch(out);
+        assertThat(writer.numRows()).isEqualTo(0);
+
+        assertThat(out.getInt(batchStart)).isEqualTo(0xFFFFFFFF);
+        int batchMetadataLength = out.getIntLE(batchStart + 4);
+        ByteBuf batchMessage = out.slice(batchStart + 8, batchMetadataLength);
+        message = deref(batchMessage, 0);
+        assertThat(batchMessage.getByte(fieldPos(batchMessage, message, 1))).isEqualTo((byte) 3);
+        long bodyLength = batchMessage.getLongLE(fieldPos(batchMessage, message, 3));
+        int recordBatch = deref(batchMessage, fieldPos(batchMessage, message, 2));
+        assertThat(batchMessage.getLongLE(fieldPos(batchMessage, recordBatch, 0))).isEqualTo(3L);
+
+        // validity (8) + values (16) | validity (8) + offsets (16) + data (8)
+        assertThat(bodyLength).isEqualTo(56L);
+        int body = batchStart + 8 + batchMetadataLength;
+        assertThat(out.writerIndex() - body).isEqualTo(56);
+        assertThat(out.getByte(body)).isEqualTo((byte) 0b101);
+        assertThat(out.getIntLE(body + 8)).isEqualTo(1);
+        assertThat(out.getIntLE(body + 12)).isEqualTo(0);
+        assertThat(out.getIntLE(body + 16)).isEqualTo(3);
+        assertThat(out.getByte(body + 24)).isEqualTo((byte) 0b101);
+        assertThat(out.getIntLE(body + 32)).isEqualTo(0);
+        assertThat(out.getIntLE(body + 36)).isEqualTo(3);
+        assertThat(out.getIntLE(body + 40)).isEqualTo(3);
+        assertThat(out.getIntLE(body + 44)).isEqualTo(5);
+        assertThat(out.toString(body + 48, 5, StandardCharsets.UTF_8)).isEqualTo("fooba");
+
+        int endOfStream = out.writerIndex();
+        ArrowStreamWriter.writeEndOfStream(out);
+        assertThat(out.getInt(endOfStream)).isEqualTo(0xFFFFFFFF);
+        assertThat(out.getInt(endOfStream + 4)).isEqualTo(0);
+    }
+
+    @Test
+    public void test_arrays_are_written_as_list_with_child_buffers() {
+        ArrowStreamWriter writer = new ArrowStreamWriter(
+            List.of("xs"),
+            List.of(DataTypes.BIGINT_ARRAY)
+        );
+        writer.addRow(new RowN(List.of(1L, 2L)));
+        writer.addRow(new RowN(List.of()));
+        writer.addRow(new RowN((Object) null));
+        ByteBuf out = Unpooled.buffer();
+        writer.writeBatch(out);
+
+        int metadataLength = out.getIntLE(4);
+        int body = 8 + metadataLength;
+        // list validity (8) + offsets (16) | child validity (8) + values (16)
+        assertThat(out.writerIndex() - body).isEqualTo(48);
+        assertThat(out.getByte(body)).isEqualTo((byte) 0b011);
+        assertThat(out.getIntLE(body + 8)).isEqualTo(0);
+        assertThat(out.getIntLE(body + 12)).isEqualTo(2);
+        assertThat(out.getIntLE(body + 16)).isEqualTo(2);
+        assertThat(out.getIntLE(body + 20)).isEqualTo(2);
+        assertThat(out.getByte(body + 24)).isEqualTo((byte) 0b11);
+        assertThat(out.getLongLE(body + 32)).isEqualTo(1L);
+        assertThat(out.getLongLE(body + 40)).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.session.ResultReceiver;
+import io.crate.session.Session;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class CopyInHandlerTest extends ESTestCase {
+
+    private static final CopyOptions TEXT = new CopyOptions(CopyOptions.Format.TEXT, '\t', "\\N", false);
+    private static final CopyOptions CSV = new CopyOptions(CopyOptions.Format.CSV, ',', "", false);
+    private static final CopyOptions BINARY = new CopyOptions(CopyOptions.Format.BINARY, '\t', "\\N", false);
+
+    private Session session;
+    private EmbeddedChannel channel;
+    private final List<List<Object>> rows = new ArrayList<>();
+    private final List<ResultReceiver<?>> receivers = new ArrayList<>();
+    private final List<CompletableFuture<Object>> batches = new ArrayList<>();
+
+    @Before
+    public void setUpSession() throws Exception {
+        session = mock(Session.class);
+        doAnswer(invocation -> {
+            List<Object> params = invocation.getArgument(2);
+            rows.add(new ArrayList<>(params));
+            return null;
+        }).when(session).bind(anyString(), anyString(), anyList(), any());
+        doAnswer(invocation -> {
+            receivers.add(invocation.getArgument(2));
+            return null;
+        }).when(session).execute(anyString(), anyInt(), any());
+        when(session.sync(true)).thenAnswer(_ -> {
+            CompletableFuture<Object> batch = new CompletableFuture<>();
+            batches.add(batch);
+            return batch;
+        });
+        channel = new EmbeddedChannel();
+    }
+
+    private CopyInHandler handler(CopyOptions options) {
+        return new CopyInHandler(
+            session,
+            channel,
+            "copy_stmt",
+            List.of("id", "name"),
+            List.of(PGTypes.get(DataTypes.INTEGER), PGTypes.get(DataTypes.STRING)),
+            options
+        );
+    }
+
+    /**
+     * Sends the data split into CopyData messages of random size
+     */
+    private void copyData(CopyInHandler handler, byte[] data) {
+        int offset = 0;
+        while (offset < data.length) {
+            int length = Math.min(data.length - offset, randomIntBetween(1, 16));
+            handler.copyData(Unpooled.wrappedBuffer(data, offset, length));
+            offset += length;
+        }
+    }
+
+    private void copyData(CopyInHandler handler, String data) {
+        copyData(handler, data.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String textRows(int from, int to) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            sb.append(i).append("\tname").append(i).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private void completeBatch(int idx) {
+        batches.get(idx).complete(null);
+        channel.runPendingTasks();
+    }
+
+    @Test
+    public void test_text_format_unescapes_values_and_distinguishes_null_from_empty_string() throws Exception {
+        CopyInHandler handler = handler(TEXT);
+        copyData(handler,
+            "1\tfoo\\tbar\\n\\\\\n" +
+            "2\t\\N\n" +
+            "3\t\n" +
+            "4\t\\x41\\101 \\,\r\n" +
+            "\\.\n" +
+            "5\tafter end of data\n");
+        handler.copyDone();
+        completeBatch(0);
+
+        assertThat(rows).containsExactly(
+            Arrays.asList(1, "foo\tbar\n\\"),
+            Arrays.asList(2, null),
+            Arrays.asList(3, ""),
+            Arrays.asList(4, "AA ,")
+        );
+        assertThat(handler.completionFuture()).isCompleted();
+    }
+
+    @Test
+    public void test_csv_format_with_header_quoted_newlines_and_empty_strings() throws Exception {
+        CopyInHandler handler = handler(new CopyOptions(CopyOptions.Format.CSV, ',', "", true));
+        copyData(handler,
+            "id,name\n" +
+            "1,\"multi\nline\"\n" +
+            "2,\n" +
+            "3,\"\"\n" +
+            "4,\"say \"\"hi\"\", bye\"\r\n" +
+            "\\.\n");
+        handler.copyDone();
+        completeBatch(0);
+
+        assertThat(rows).containsExactly(
+            Arrays.asList(1, "multi\nline"),
+            Arrays.asList(2, null),
+            Arrays.asList(3, ""),
+            Arrays.asList(4, "say \"hi\", bye")
+        );
+        assertThat(handler.completionFuture()).isCompleted();
+    }
+
+    @Test
+    public void test_csv_data_without_end_of_data_marker_is_terminated_by_copy_done() throws Exception {
+        CopyInHandler handler = handler(CSV);
+        copyData(handler, "1,a\n2,b");
+        handler.copyDone();
+        completeBatch(0);
+
+        assertThat(rows).containsExactly(Arrays.asList(1, "a"), Arrays.asList(2, "b"));
+    }
+
+    @Test
+    public void test_binary_format() throws Exception {
+        ByteBuf data = Unpooled.buffer();
+        data.writeBytes(CopyOutReceiver.BINARY_SIGNATURE);
+        data.writeInt(0);
+        data.writeInt(0);
+        data.writeShort(2);
+        data.writeInt(4);
+        data.writeInt(42);
+        data.writeInt(3);
+        data.writeBytes("abc".getBytes(StandardCharsets.UTF_8));
+        data.writeShort(2);
+        data.writeInt(4);
+        data.writeInt(7);
+        data.writeInt(-1);
+        data.writeShort(2);
+        data.writeInt(4);
+        data.writeInt(8);
+        data.writeInt(0);
+        data.writeShort(-1);
+        byte[] bytes = new byte[data.readableBytes()];
+        data.readBytes(bytes);
+
+        CopyInHandler handler = handler(BINARY);
+        copyData(handler, bytes);
+        handler.copyDone();
+        completeBatch(0);
+
+        assertThat(rows).containsExactly(
+            Arrays.asList(42, "abc"),
+            Arrays.asList(7, null),
+            Arrays.asList(8, "")
+        );
+        assertThat(handler.completionFuture()).isCompleted();
+    }
+
+    @Test
+    public void test_completes_with_number_of_inserted_rows() throws Exception {
+        CopyInHandler handler = handler(TEXT);
+        copyData(handler, textRows(0, 3));
+        handler.copyDone();
+        for (ResultReceiver<?> receiver : receivers) {
+            receiver.setNextRow(new RowN(1L, null));
+            receiver.allFinished();
+        }
+        completeBatch(0);
+
+        assertThat(handler.completionFuture()).isCompletedWithValue(3L);
+    }
+
+    @Test
+    public void test_missing_column_fails_the_copy() throws Exception {
+        CopyInHandler handler = handler(TEXT);
+        copyData(handler, "1\n");
+
+        assertThat(handler.completionFuture())
+            .failsWithin(0, TimeUnit.SECONDS)
+            .withThrowableOfType(ExecutionException.class)
+            .havingCause()
+            .withMessage("Missing data for column \"name\" in COPY data");
+        verify(session).resetDeferredExecutions();
+        verify(session, never()).sync(anyBoolean());
+    }
+
+    @Test
+    public void test_copy_fail_discards_deferred_rows() throws Exception {
+        CopyInHandler handler = handler(TEXT);
+        copyData(handler, textRows(0, 10));
+        handler.copyFail("client aborted");
+
+        assertThat(handler.completionFuture())
+            .failsWithin(0, TimeUnit.SECONDS)
+            .withThrowableOfType(ExecutionException.class)
+            .havingCause()
+            .withMessage("COPY from stdin failed: client aborted");
+        verify(session).resetDeferredExecutions();
+        verify(session, never()).sync(anyBoolean());
+    }
+
+    @Test
+    public void test_copy_fail_during_a_batch_completes_after_the_batch() throws Exception {
+        CopyInHandler handler = handler(TEXT);
+        copyData(handler, textRows(0, CopyInHandler.BATCH_SIZE));
+        assertThat(batches).hasSize(1);
+
+        copyData(handler, textRows(CopyInHandler.BATCH_SIZE, CopyInHandler.BATCH_SIZE + 10));
+        handler.copyFail("client aborted");
+        assertThat(handler.completionFuture()).isNotDone();
+
+        completeBatch(0);
+        assertThat(handler.completionFuture()).isCompletedExceptionally();
+        assertThat(batches)
+            .as("The rows received after the first batch are discarded")
+            .hasSize(1);
+        assertThat(channel.config().isAutoRead()).isTrue();
+    }
+
+    @Test
+    public void test_channel_stops_reading_while_the_next_batch_is_full() throws Exception {
+        CopyInHandler handler = handler(TEXT);
+        handler.copyData(Unpooled.wrappedBuffer(
+            textRows(0, CopyInHandler.BATCH_SIZE).getBytes(StandardCharsets.UTF_8)));
+        assertThat(batches).hasSize(1);
+        assertThat(channel.config().isAutoRead()).isTrue();
+
+        handler.copyData(Unpooled.wrappedBuffer(
+            textRows(CopyInHandler.BATCH_SIZE, 2 * CopyInHandler.BATCH_SIZE).getBytes(StandardCharsets.UTF_8)));
+        assertThat(batches)
+            .as("Only one batch is executed at a time")
+            .hasSize(1);
+        assertThat(channel.config().isAutoRead()).isFalse();
+
+        completeBatch(0);
+        assertThat(batches).hasSize(2);
+        assertThat(channel.config().isAutoRead()).isTrue();
+
+        handler.copyDone();
+        assertThat(handler.completionFuture()).isNotDone();
+        completeBatch(1);
+        assertThat(handler.completionFuture()).isCompleted();
+        assertThat(rows).hasSize(2 * CopyInHandler.BATCH_SIZE);
+    }
+}
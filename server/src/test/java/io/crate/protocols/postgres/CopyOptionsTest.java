@@ -0,0 +1,67 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.Test;
+
+import io.crate.sql.parser.SqlParser;
+import io.crate.sql.tree.CopyFromStdin;
+
+public class CopyOptionsTest {
+
+    private static CopyOptions options(String withClause) {
+        CopyFromStdin copyFrom = (CopyFromStdin) SqlParser.createStatement("copy t from stdin " + withClause);
+        return CopyOptions.of(copyFrom.properties());
+    }
+
+    @Test
+    public void test_defaults_depend_on_format() {
+        assertThat(options("")).isEqualTo(new CopyOptions(CopyOptions.Format.TEXT, '\t', "\\N", false));
+        assertThat(options("with (format = 'csv')")).isEqualTo(new CopyOptions(CopyOptions.Format.CSV, ',', "", false));
+        assertThat(options("with (format = binary)").format()).isEqualTo(CopyOptions.Format.BINARY);
+    }
+
+    @Test
+    public void test_custom_delimiter_null_and_header() {
+        CopyOptions options = options("with (format = 'csv', delimiter = '|', \"null\" = 'NULL', header = true)");
+        assertThat(options).isEqualTo(new CopyOptions(CopyOptions.Format.CSV, '|', "NULL", true));
+    }
+
+    @Test
+    public void test_invalid_options_are_rejected() {
+        assertThatThrownBy(() -> options("with (format = 'json')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("COPY format 'json' is not supported. Must be one of [text, csv, binary]");
+        assertThatThrownBy(() -> options("with (header = true)"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("COPY option 'header' is only available using the csv format");
+        assertThatThrownBy(() -> options("with (delimiter = ';;')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("COPY option 'delimiter' must be a single one-byte character");
+        assertThatThrownBy(() -> options("with (format = 'binary', delimiter = ';')"))
+            .isExactlyInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Cannot specify COPY option 'delimiter' in binary format");
+    }
+}
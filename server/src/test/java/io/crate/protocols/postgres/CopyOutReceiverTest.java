@@ -0,0 +1,177 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package io.crate.protocols.postgres;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.elasticsearch.test.ESTestCase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.crate.auth.AccessControl;
+import io.crate.data.RowN;
+import io.crate.protocols.postgres.types.PGTypes;
+import io.crate.types.DataTypes;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+
+public class CopyOutReceiverTest extends ESTestCase {
+
+    private EmbeddedChannel embeddedChannel;
+    private DelayableWriteChannel channel;
+
+    @Before
+    public void setUpChannel() throws Exception {
+        embeddedChannel = new EmbeddedChannel();
+        channel = new DelayableWriteChannel(embeddedChannel);
+    }
+
+    @After
+    public void closeChannel() throws Exception {
+        embeddedChannel.finishAndReleaseAll();
+    }
+
+    private CopyOutReceiver receiver(CopyOptions options) {
+        return new CopyOutReceiver(
+            channel,
+            channel.delayWrites(),
+            AccessControl.DISABLED,
+            List.of(PGTypes.get(DataTypes.INTEGER), PGTypes.get(DataTypes.STRING)),
+            List.of("id", "name"),
+            options
+        );
+    }
+
+    /**
+     * Reads the next message, asserts its type and returns its payload
+     */
+    private ByteBuf readMessage(char type) {
+        ByteBuf msg = embeddedChannel.readOutbound();
+        assertThat(msg).isNotNull();
+        assertThat((char) msg.readByte()).isEqualTo(type);
+        assertThat(msg.readInt()).isEqualTo(msg.readableBytes() + 4);
+        return msg;
+    }
+
+    private String readCopyData() {
+        ByteBuf msg = readMessage('d');
+        try {
+            return msg.toString(StandardCharsets.UTF_8);
+        } finally {
+            msg.release();
+        }
+    }
+
+    private void assertCopyDoneAndCommandComplete(String commandTag) {
+        readMessage('c').release();
+        ByteBuf commandComplete = readMessage('C');
+        try {
+            assertThat(commandComplete.toString(StandardCharsets.UTF_8)).isEqualTo(commandTag + "\0");
+        } finally {
+            commandComplete.release();
+        }
+        assertThat((Object) embeddedChannel.readOutbound()).isNull();
+    }
+
+    @Test
+    public void test_text_format_sends_one_copy_data_message_per_row() throws Exception {
+        CopyOutReceiver receiver = receiver(new CopyOptions(CopyOptions.Format.TEXT, '\t', "\\N", false));
+        receiver.setNextRow(new RowN(1, "a\tb\\c\nd"));
+        receiver.setNextRow(new RowN(2, null));
+        receiver.setNextRow(new RowN(3, ""));
+        receiver.allFinished();
+
+        assertThat(readCopyData()).isEqualTo("1\ta\\tb\\\\c\\nd\n");
+        assertThat(readCopyData()).isEqualTo("2\t\\N\n");
+        assertThat(readCopyData()).isEqualTo("3\t\n");
+        assertCopyDoneAndCommandComplete("COPY 3");
+        assertThat(receiver.completionFuture()).isCompleted();
+    }
+
+    @Test
+    public void test_csv_format_with_header_quotes_empty_strings_and_special_characters() throws Exception {
+        CopyOutReceiver receiver = receiver(new CopyOptions(CopyOptions.Format.CSV, ',', "", true));
+        receiver.setNextRow(new RowN(1, "a,\"b\"\nc"));
+        receiver.setNextRow(new RowN(2, null));
+        receiver.setNextRow(new RowN(3, ""));
+        receiver.allFinished();
+
+        assertThat(readCopyData()).isEqualTo("id,name\n");
+        assertThat(readCopyData()).isEqualTo("1,\"a,\"\"b\"\"\nc\"\n");
+        assertThat(readCopyData()).isEqualTo("2,\n");
+        assertThat(readCopyData()).isEqualTo("3,\"\"\n");
+        assertCopyDoneAndCommandComplete("COPY 3");
+    }
+
+    @Test
+    public void test_csv_header_is_sent_for_empty_result() throws Exception {
+        CopyOutReceiver receiver = receiver(new CopyOptions(CopyOptions.Format.CSV, ',', "", true));
+        receiver.allFinished();
+
+        assertThat(readCopyData()).isEqualTo("id,name\n");
+        assertCopyDoneAndCommandComplete("COPY 0");
+    }
+
+    @Test
+    public void test_binary_format_framing() throws Exception {
+        CopyOutReceiver receiver = receiver(new CopyOptions(CopyOptions.Format.BINARY, '\t', "\\N", false));
+        receiver.setNextRow(new RowN(42, "abc"));
+        receiver.setNextRow(new RowN(7, null));
+        receiver.allFinished();
+
+        ByteBuf header = readMessage('d');
+        byte[] signature = new byte[CopyOutReceiver.BINARY_SIGNATURE.length];
+        header.readBytes(signature);
+        assertThat(signature).isEqualTo(CopyOutReceiver.BINARY_SIGNATURE);
+        assertThat(header.readInt()).as("flags").isEqualTo(0);
+        assertThat(header.readInt()).as("header extension length").isEqualTo(0);
+        assertThat(header.isReadable()).isFalse();
+        header.release();
+
+        ByteBuf tuple = readMessage('d');
+        assertThat(tuple.readShort()).isEqualTo((short) 2);
+        assertThat(tuple.readInt()).isEqualTo(4);
+        assertThat(tuple.readInt()).isEqualTo(42);
+        assertThat(tuple.readInt()).isEqualTo(3);
+        assertThat(tuple.readCharSequence(3, StandardCharsets.UTF_8).toString()).isEqualTo("abc");
+        assertThat(tuple.isReadable()).isFalse();
+        tuple.release();
+
+        tuple = readMessage('d');
+        assertThat(tuple.readShort()).isEqualTo((short) 2);
+        assertThat(tuple.readInt()).isEqualTo(4);
+        assertThat(tuple.readInt()).isEqualTo(7);
+        assertThat(tuple.readInt()).as("NULL").isEqualTo(-1);
+        assertThat(tuple.isReadable()).isFalse();
+        tuple.release();
+
+        ByteBuf trailer = readMessage('d');
+        assertThat(trailer.readShort()).isEqualTo((short) -1);
+        trailer.release();
+
+        assertCopyDoneAndCommandComplete("COPY 2");
+    }
+}
@@ -26,6 +26,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 
@@ -52,6 +53,13 @@ import io.crate.metadata.RelationName;
 import io.crate.netty.AccountedByteBuf;
 import io.crate.types.DataTypes;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponse;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
 
 public class RestActionReceiversTest extends ESTestCase {
 
@@ -205,4 +213,86 @@ public class RestActionReceiversTest extends ESTestCase {
 
         assertThat(bytesThirdRow).isEqualTo(0); // Array is resized and already accounted for.
     }
+
+    @Test
+    public void test_streaming_receiver_sends_ndjson_in_chunks() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        var resultReceiver = new RestStreamingResultSetReceiver(
+            channel,
+            HttpVersion.HTTP_1_1,
+            false,
+            AccessControl.DISABLED,
+            RestStreamingResultSetReceiver.Format.NDJSON,
+            1024,
+            Unpooled.buffer(),
+            fields,
+            fieldNames,
+            System.nanoTime(),
+            false
+        );
+        int numRows = 1000;
+        for (int i = 0; i < numRows; i++) {
+            resultReceiver.setNextRow(rows.get(i % rows.size()));
+        }
+        resultReceiver.allFinished();
+        // Response has been sent by the receiver
+        assertThat(resultReceiver.completionFuture().get()).isNull();
+
+        HttpResponse response = channel.readOutbound();
+        assertThat(HttpUtil.isTransferEncodingChunked(response)).isTrue();
+        assertThat(response.headers().get(HttpHeaderNames.CONTENT_TYPE)).isEqualTo("application/x-ndjson");
+
+        StringBuilder body = new StringBuilder();
+        int numChunks = 0;
+        HttpContent content;
+        do {
+            content = channel.readOutbound();
+            body.append(content.content().toString(StandardCharsets.UTF_8));
+            content.release();
+            numChunks++;
+        } while (!(content instanceof LastHttpContent));
+        assertThat(numChunks).isGreaterThan(1);
+
+        String[] lines = body.toString().split("\n");
+        assertThat(lines).hasSize(numRows + 2);
+        assertThat(lines[0]).isEqualTo("{\"cols\":[\"col_a\",\"col_b\",\"col_c\"]}");
+        assertThat(lines[1]).isEqualTo("[\"foo\",1,true]");
+        assertThat(lines[numRows]).isEqualTo("[\"foo\",1,true]");
+        assertThat(stripDuration(lines[numRows + 1])).isEqualTo("{\"rowcount\":1000}");
+    }
+
+    @Test
+    public void test_streaming_receiver_leaves_small_result_to_handler() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        var resultReceiver = new RestStreamingResultSetReceiver(
+            channel,
+            HttpVersion.HTTP_1_1,
+            false,
+            AccessControl.DISABLED,
+            RestStreamingResultSetReceiver.Format.JSON,
+            RestStreamingResultSetReceiver.CHUNK_SIZE,
+            Unpooled.buffer(),
+            fields,
+            fieldNames,
+            System.nanoTime(),
+            true
+        );
+        for (Row row : rows) {
+            resultReceiver.setNextRow(row);
+        }
+        resultReceiver.allFinished();
+
+        ResultToXContentBuilder builder = ResultToXContentBuilder.builder(JsonXContent.builder());
+        builder.cols(fieldNames);
+        builder.colTypes(fields);
+        builder.startRows();
+        for (Row row : rows) {
+            builder.addRow(row, 3);
+        }
+        builder.finishRows();
+        builder.rowCount(rows.size());
+
+        assertXContentBuilder(builder.build(), resultReceiver.completionFuture().get());
+        assertThat((Object) channel.readOutbound()).isNull();
+    }
 }
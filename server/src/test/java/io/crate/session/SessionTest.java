@@ -281,6 +281,74 @@ public class SessionTest extends CrateDummyClusterServiceUnitTest {
         assertThat(session.preparedStatements).isEmpty();
     }
 
+    @Test
+    public void test_select_statements_are_shared_across_sessions_via_plan_cache() throws Exception {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build()
+            .addTable("create table t1 (x int)");
+        Session session1 = sqlExecutor.createSession();
+        Session session2 = sqlExecutor.createSession();
+
+        session1.parse("S_1", "select x from t1 where x = ?", List.of());
+        session2.parse("S_2", "select x from t1 where x = ?", List.of());
+
+        PreparedStmt stmt1 = session1.preparedStatements.get("S_1");
+        PreparedStmt stmt2 = session2.preparedStatements.get("S_2");
+        assertThat(stmt2.analyzedStatement()).isSameAs(stmt1.analyzedStatement());
+        assertThat(stmt2.planCacheEntry()).isSameAs(stmt1.planCacheEntry());
+
+        PlanCacheStats stats = sqlExecutor.sqlOperations.planCache().stats();
+        assertThat(stats.size()).isEqualTo(1L);
+        assertThat(stats.hits()).isEqualTo(1L);
+        assertThat(stats.misses()).isEqualTo(1L);
+    }
+
+    @Test
+    public void test_plan_cache_is_keyed_by_session_settings() throws Exception {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build()
+            .addTable("create table doc.t1 (x int)")
+            .addTable("create table custom.t1 (x int)");
+        Session session1 = sqlExecutor.createSession();
+        Session session2 = sqlExecutor.createSession();
+        session2.sessionSettings().setSearchPath("custom");
+
+        session1.parse("S_1", "select x from t1", List.of());
+        session2.parse("S_1", "select x from t1", List.of());
+
+        PreparedStmt stmt1 = session1.preparedStatements.get("S_1");
+        PreparedStmt stmt2 = session2.preparedStatements.get("S_1");
+        assertThat(stmt2.analyzedStatement()).isNotSameAs(stmt1.analyzedStatement());
+        assertThat(sqlExecutor.sqlOperations.planCache().stats().hits()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_plan_cache_entries_are_invalidated_on_metadata_changes() throws Exception {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build()
+            .addTable("create table t1 (x int)");
+        Session session = sqlExecutor.createSession();
+
+        session.parse("S_1", "select x from t1", List.of());
+        PreparedStmt stmt1 = session.preparedStatements.get("S_1");
+
+        sqlExecutor.addTable("create table t2 (y int)");
+
+        session.parse("S_2", "select x from t1", List.of());
+        PreparedStmt stmt2 = session.preparedStatements.get("S_2");
+        assertThat(stmt2.analyzedStatement()).isNotSameAs(stmt1.analyzedStatement());
+        assertThat(sqlExecutor.sqlOperations.planCache().stats().hits()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_non_select_statements_are_not_cached() throws Exception {
+        SQLExecutor sqlExecutor = SQLExecutor.builder(clusterService).build()
+            .addTable("create table t1 (x int)");
+        Session session = sqlExecutor.createSession();
+
+        session.parse("S_1", "insert into t1 (x) values (?)", List.of());
+
+        assertThat(session.preparedStatements.get("S_1").planCacheEntry()).isNull();
+        assertThat(sqlExecutor.sqlOperations.planCache().stats().size()).isEqualTo(0L);
+    }
+
     @Test
     public void test_bulk_operations_result_in_jobslog_entries() throws Exception {
         Planner planner = mock(Planner.class, Answers.RETURNS_MOCKS);
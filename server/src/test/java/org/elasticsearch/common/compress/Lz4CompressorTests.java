@@ -0,0 +1,71 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.common.compress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class Lz4CompressorTests extends ESTestCase {
+
+    private final Compressor compressor = new Lz4Compressor();
+
+    @Test
+    public void test_compress_and_uncompress_round_trip() throws IOException {
+        byte[] bytes = randomBoolean()
+            ? randomByteArrayOfLength(randomIntBetween(0, 3 * Lz4Compressor.BLOCK_SIZE))
+            : randomRealisticUnicodeOfLengthBetween(0, 200_000).getBytes(StandardCharsets.UTF_8);
+        BytesReference compressed = compressor.compress(new BytesArray(bytes));
+        assertThat(compressor.isCompressed(compressed)).isTrue();
+        assertThat(CompressorFactory.COMPRESSOR.isCompressed(compressed)).isFalse();
+
+        assertThat(BytesReference.toBytes(compressor.uncompress(compressed))).isEqualTo(bytes);
+        try (InputStream in = compressor.threadLocalInputStream(compressed.streamInput())) {
+            assertThat(BytesReference.toBytes(Streams.readFully(in))).isEqualTo(bytes);
+        }
+    }
+
+    @Test
+    public void test_repetitive_content_is_compressed() {
+        byte[] bytes = "crate ".repeat(10_000).getBytes(StandardCharsets.UTF_8);
+        BytesReference compressed = compressor.compress(new BytesArray(bytes));
+        assertThat(compressed.length()).isLessThan(bytes.length / 10);
+    }
+
+    @Test
+    public void test_truncated_stream_fails() {
+        BytesReference compressed = compressor.compress(new BytesArray(randomByteArrayOfLength(100)));
+        BytesReference truncated = compressed.slice(0, compressed.length() - 1);
+        assertThatThrownBy(() -> compressor.uncompress(truncated))
+            .hasRootCauseInstanceOf(EOFException.class);
+    }
+}
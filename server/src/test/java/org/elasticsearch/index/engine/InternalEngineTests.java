@@ -76,6 +76,7 @@ import java.util.function.ToLongBiFunction;
 import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
@@ -687,6 +688,54 @@ public class InternalEngineTests extends EngineTestCase {
         latestGetResult.get().close();
     }
 
+    @Test
+    public void testMultiGet() throws Exception {
+        final BiFunction<String, Engine.SearcherScope, Searcher> searcherFactory = engine::acquireSearcher;
+        engine.index(indexForDoc(createParsedDoc("1")));
+        engine.index(indexForDoc(createParsedDoc("2")));
+        engine.refresh("test");
+        engine.index(indexForDoc(createParsedDoc("3")));
+        engine.refresh("test");
+        // not refreshed yet, only in the version map
+        engine.index(indexForDoc(createParsedDoc("4")));
+        engine.delete(new Engine.Delete(
+            "2",
+            newUid("2"),
+            UNASSIGNED_SEQ_NO,
+            primaryTerm.get(),
+            Versions.MATCH_ANY,
+            VersionType.INTERNAL,
+            Engine.Operation.Origin.PRIMARY,
+            System.nanoTime(),
+            UNASSIGNED_SEQ_NO,
+            0
+        ));
+
+        List<Engine.Get> gets = Stream.of("4", "missing", "3", "2", "1")
+            .map(id -> new Engine.Get(id, newUid(id)))
+            .toList();
+        try (Engine.MultiGetResult multiGetResult = engine.multiGet(gets, searcherFactory)) {
+            Engine.GetResult[] results = multiGetResult.results();
+            assertThat(results).hasSize(5);
+            assertThat(results[1].docIdAndVersion()).isNull();
+            assertThat(results[3].docIdAndVersion()).isNull();
+            for (int i : new int[] { 0, 2, 4 }) {
+                try (Engine.GetResult getResult = engine.get(gets.get(i), searcherFactory)) {
+                    assertThat(results[i].docIdAndVersion()).isNotNull();
+                    assertThat(results[i].docIdAndVersion().seqNo).isEqualTo(getResult.docIdAndVersion().seqNo);
+                    assertThat(results[i].docIdAndVersion().version).isEqualTo(getResult.docIdAndVersion().version);
+                }
+            }
+        }
+
+        List<Engine.Get> conflictingGets = List.of(
+            new Engine.Get("3", newUid("3")),
+            new Engine.Get("1", newUid("1"), 10L, VersionType.INTERNAL, UNASSIGNED_SEQ_NO, UNASSIGNED_PRIMARY_TERM)
+        );
+        assertThatThrownBy(() -> engine.multiGet(conflictingGets, searcherFactory))
+            .isExactlyInstanceOf(VersionConflictEngineException.class);
+    }
+
     @Test
     public void testSimpleOperations() throws Exception {
         engine.refresh("warm_up");
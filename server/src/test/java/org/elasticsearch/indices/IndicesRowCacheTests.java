@@ -0,0 +1,123 @@
+/*
+ * Licensed to Crate.io GmbH ("Crate") under one or more contributor
+ * license agreements.  See the NOTICE file distributed with this work for
+ * additional information regarding copyright ownership.  Crate licenses
+ * this file to you under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.  You may
+ * obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ *
+ * However, if you have executed another commercial license agreement
+ * with Crate these terms will supersede the license and you may use the
+ * software solely pursuant to the terms of the relevant commercial agreement.
+ */
+
+package org.elasticsearch.indices;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.cache.row.ShardRowCache;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.mapper.Uid;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.junit.Test;
+
+public class IndicesRowCacheTests extends ESTestCase {
+
+    private static IndexShard newShard(ShardId shardId) {
+        IndexShard shard = mock(IndexShard.class);
+        when(shard.shardId()).thenReturn(shardId);
+        when(shard.rowCache()).thenReturn(new ShardRowCache());
+        return shard;
+    }
+
+    private static Map<String, Object> row(int x) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("x", x);
+        return row;
+    }
+
+    @Test
+    public void test_row_is_only_returned_for_matching_seq_no_primary_term_and_table_version() {
+        IndicesRowCache cache = new IndicesRowCache(Settings.EMPTY);
+        IndexShard shard = newShard(new ShardId("t1", "uuid", 0));
+        BytesRef uid = Uid.encodeId("1");
+
+        assertThat(cache.get(shard, uid, 1, 1, 1)).isNull();
+        cache.put(shard, uid, 1, 1, 1, row(1));
+
+        assertThat(cache.get(shard, Uid.encodeId("1"), 1, 1, 1)).isEqualTo(row(1));
+        assertThat(cache.get(shard, uid, 2, 1, 1)).isNull();
+        assertThat(cache.get(shard, uid, 1, 2, 1)).isNull();
+        assertThat(cache.get(shard, uid, 1, 1, 2)).isNull();
+        assertThat(cache.get(newShard(shard.shardId()), uid, 1, 1, 1)).isNull();
+
+        ShardRowCache stats = shard.rowCache();
+        assertThat(stats.hits()).isEqualTo(1L);
+        assertThat(stats.misses()).isEqualTo(4L);
+        assertThat(stats.count()).isEqualTo(1L);
+        assertThat(stats.sizeInBytes()).isGreaterThan(0L);
+
+        cache.put(shard, uid, 2, 1, 1, row(2));
+        assertThat(cache.get(shard, uid, 2, 1, 1)).isEqualTo(row(2));
+        assertThat(stats.count()).isEqualTo(1L);
+    }
+
+    @Test
+    public void test_writes_and_closing_the_shard_remove_rows() {
+        IndicesRowCache cache = new IndicesRowCache(Settings.EMPTY);
+        ShardId shardId = new ShardId("t1", "uuid", 0);
+        IndexShard shard = newShard(shardId);
+        BytesRef uid1 = Uid.encodeId("1");
+        BytesRef uid2 = Uid.encodeId("2");
+        BytesRef uid3 = Uid.encodeId("3");
+        cache.put(shard, uid1, 1, 1, 1, row(1));
+        cache.put(shard, uid2, 2, 1, 1, row(2));
+        cache.put(shard, uid3, 3, 1, 1, row(3));
+
+        Engine.Index index = mock(Engine.Index.class);
+        when(index.uid()).thenReturn(uid1);
+        cache.postIndex(shardId, index, mock(Engine.IndexResult.class));
+        cache.postDelete(shardId, new Engine.Delete("2", uid2, 1), mock(Engine.DeleteResult.class));
+
+        assertThat(cache.get(shard, uid1, 1, 1, 1)).isNull();
+        assertThat(cache.get(shard, uid2, 2, 1, 1)).isNull();
+        assertThat(cache.get(shard, uid3, 3, 1, 1)).isEqualTo(row(3));
+        assertThat(shard.rowCache().count()).isEqualTo(1L);
+        assertThat(shard.rowCache().evictions()).isEqualTo(0L);
+
+        cache.afterIndexShardClosed(shardId, shard, Settings.EMPTY);
+        assertThat(cache.get(shard, uid3, 3, 1, 1)).isNull();
+        assertThat(shard.rowCache().count()).isEqualTo(0L);
+        assertThat(shard.rowCache().sizeInBytes()).isEqualTo(0L);
+    }
+
+    @Test
+    public void test_rows_are_evicted_if_the_cache_exceeds_its_size() {
+        IndicesRowCache cache = new IndicesRowCache(
+            Settings.builder().put(IndicesRowCache.INDICES_ROW_CACHE_SIZE_SETTING.getKey(), "2kb").build());
+        IndexShard shard = newShard(new ShardId("t1", "uuid", 0));
+        for (int i = 0; i < 100; i++) {
+            cache.put(shard, Uid.encodeId(Integer.toString(i)), i, 1, 1, row(i));
+        }
+        ShardRowCache stats = shard.rowCache();
+        assertThat(stats.evictions()).isGreaterThan(0L);
+        assertThat(stats.count()).isEqualTo(100L - stats.evictions());
+    }
+}
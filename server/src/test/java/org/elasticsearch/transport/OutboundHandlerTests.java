@@ -42,6 +42,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.network.CloseableChannel;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.PageCacheRecycler;
@@ -281,4 +282,41 @@ public class OutboundHandlerTests extends ESTestCase {
         assertThat(remoteException.action()).isEqualTo(action);
         assertThat(remoteException.address().address()).isEqualTo(channel.getLocalAddress());
     }
+
+    @Test
+    public void testCompressionPolicyAppliesActionPatternsAndMinSize() throws IOException {
+        Settings settings = Settings.builder()
+            .put(TransportSettings.TRANSPORT_COMPRESS.getKey(), true)
+            .putList(TransportSettings.TRANSPORT_COMPRESS_ACTIONS.getKey(), "internal:crate:sql/*")
+            .put(TransportSettings.TRANSPORT_COMPRESS_MIN_SIZE.getKey(), "1kb")
+            .build();
+        handler = new OutboundHandler(
+            "node",
+            Version.CURRENT,
+            new StatsTracker(),
+            threadPool,
+            BigArrays.NON_RECYCLING_INSTANCE,
+            new TransportCompression(settings)
+        );
+        String largeValue = randomAlphaOfLength(4096);
+
+        Header header = sendRequest("internal:crate:sql/job", largeValue);
+        assertThat(header.isCompressed()).isTrue();
+
+        header = sendRequest("internal:crate:sql/job", "small");
+        assertThat(header.isCompressed()).isFalse();
+
+        header = sendRequest("internal:cluster/coordination/join", largeValue);
+        assertThat(header.isCompressed()).isFalse();
+    }
+
+    private Header sendRequest(String action, String value) throws IOException {
+        handler.sendRequest(node, channel, 1L, action, new TestRequest(value), options, Version.CURRENT, true, false);
+        ByteBuf msg = (ByteBuf) embeddedChannel.outboundMessages().poll();
+        pipeline.handleBytes(channel, new ReleasableBytesReference(Netty4Utils.toBytesReference(msg), () -> {
+        }));
+        Tuple<Header, BytesReference> tuple = message.get();
+        assertThat(new TestRequest(tuple.v2().streamInput()).value).isEqualTo(value);
+        return tuple.v1();
+    }
 }
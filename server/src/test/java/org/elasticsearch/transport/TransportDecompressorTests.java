@@ -23,11 +23,15 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
 
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.compress.CompressorFactory;
+import org.elasticsearch.common.compress.Lz4Compressor;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.io.stream.OutputStreamStreamOutput;
@@ -132,4 +136,62 @@ public class TransportDecompressorTests extends ESTestCase {
             Releasables.close(reference1, reference2, reference3);
         }
     }
+
+    @Test
+    public void testIncrementalLz4MultiBlockCompression() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (StreamOutput lz4Stream = new OutputStreamStreamOutput(
+                    CompressorFactory.LZ4.threadLocalOutputStream(Streams.flushOnCloseStream(output)))) {
+                for (int i = 0; i < 50000; ++i) {
+                    lz4Stream.writeInt(i);
+                }
+                // incompressible data is stored as is
+                byte[] randomBytes = randomByteArrayOfLength(Lz4Compressor.BLOCK_SIZE);
+                lz4Stream.writeBytes(randomBytes);
+            }
+
+            BytesReference bytes = output.bytes();
+            TransportDecompressor decompressor = new TransportDecompressor(PageCacheRecycler.NON_RECYCLING_INSTANCE);
+            int offset = 0;
+            while (offset < bytes.length()) {
+                assertThat(decompressor.isEOS()).isFalse();
+                int length = Math.min(randomIntBetween(4, 20000), bytes.length() - offset);
+                int bytesConsumed = decompressor.decompress(bytes.slice(offset, length));
+                assertThat(bytesConsumed).isEqualTo(length);
+                offset += length;
+            }
+            assertThat(decompressor.isEOS()).isTrue();
+
+            List<ReleasableBytesReference> pages = new ArrayList<>();
+            ReleasableBytesReference page;
+            while ((page = decompressor.pollDecompressedPage()) != null) {
+                pages.add(page);
+            }
+            BytesReference composite = CompositeBytesReference.of(pages.toArray(new BytesReference[0]));
+            assertThat(composite.length()).isEqualTo(4 * 50000 + Lz4Compressor.BLOCK_SIZE);
+            StreamInput streamInput = composite.streamInput();
+            for (int i = 0; i < 50000; ++i) {
+                assertThat(streamInput.readInt()).isEqualTo(i);
+            }
+            Releasables.close(pages);
+        }
+    }
+
+    @Test
+    public void testLz4DecompressionStopsAtEndMarker() throws IOException {
+        try (BytesStreamOutput output = new BytesStreamOutput()) {
+            try (OutputStream lz4Stream = CompressorFactory.LZ4.threadLocalOutputStream(Streams.flushOnCloseStream(output))) {
+                lz4Stream.write(new byte[] { 1, 2, 3 });
+            }
+            BytesReference compressed = output.bytes();
+            BytesReference bytes = CompositeBytesReference.of(compressed, new BytesArray(new byte[] { 42, 42 }));
+
+            TransportDecompressor decompressor = new TransportDecompressor(PageCacheRecycler.NON_RECYCLING_INSTANCE);
+            assertThat(decompressor.decompress(bytes)).isEqualTo(compressed.length());
+            assertThat(decompressor.isEOS()).isTrue();
+            try (ReleasableBytesReference page = decompressor.pollDecompressedPage()) {
+                assertThat(BytesReference.toBytes(page)).containsExactly(1, 2, 3);
+            }
+        }
+    }
 }